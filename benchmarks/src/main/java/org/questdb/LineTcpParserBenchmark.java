@@ -24,11 +24,11 @@
 
 package org.questdb;
 
+import io.questdb.cutlass.line.LineBinaryFormat;
 import io.questdb.cutlass.line.tcp.LineTcpParser;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Rnd;
 import io.questdb.std.Unsafe;
-import io.questdb.std.str.FlyweightDirectUtf16Sink;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
@@ -36,6 +36,8 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Benchmark)
@@ -43,49 +45,17 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
 public class LineTcpParserBenchmark {
 
-    private static final long BUFFER_SIZE = 32768;
-    private final long bufHi;
-    private final long bufLo;
-    private final LineTcpParser parser;
-
-    public LineTcpParserBenchmark() {
-        this.bufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
-        this.parser = new LineTcpParser(false, false);
-
-        Rnd rnd = new Rnd();
-        long lineLenEstimate = 0;
-        FlyweightDirectUtf16Sink sink = new FlyweightDirectUtf16Sink();
-        sink.of(bufLo, bufLo + BUFFER_SIZE);
-        while (sink.length() < (BUFFER_SIZE - lineLenEstimate)) {
-            sink.put("cpu")
-                    .put(",hostname=host_").put(String.valueOf(rnd.nextInt(1000)))
-                    .put(",region=central_").put(rnd.nextString(32))
-                    .put(",rack=").put(String.valueOf(rnd.nextInt(16)))
-                    .put(",os=").put(rnd.nextString(3))
-                    .put(",arch=").put(rnd.nextString(3))
-                    .put(",team=").put(rnd.nextString(3))
-                    .put(",service=").put(String.valueOf(rnd.nextInt(100)))
-                    .put(",service_version=").put(String.valueOf(rnd.nextInt(10)))
-                    .put(",service_environment=").put(rnd.nextString(5))
-                    .put(" ")
-                    .put("usage_user=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_system=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_idle=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_iowait=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_irq=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_softirq=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_steal=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_guest=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_guest_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(" 1451606400000000000\n");
-            if (lineLenEstimate == 0) {
-                lineLenEstimate = 3L * sink.length();
-            }
-        }
-
-        this.bufHi = bufLo + sink.length();
-    }
+    private static final int BUFFER_SIZE = 32768;
+    private static final String[] FIELD_NAMES = {
+            "usage_user", "usage_system", "usage_idle", "usage_nice", "usage_iowait",
+            "usage_irq", "usage_softirq", "usage_steal", "usage_guest", "usage_guest_nice"
+    };
+    private static final long TIMESTAMP_NANOS = 1451606400000000000L;
+    private final LineTcpParser parser = new LineTcpParser(false, false, true);
+    @Param({"TEXT", "BINARY"})
+    public String encoding;
+    private long bufHi;
+    private long bufLo;
 
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
@@ -100,6 +70,72 @@ public class LineTcpParserBenchmark {
         new Runner(opt).run();
     }
 
+    @Setup
+    public void setup() {
+        final boolean binary = "BINARY".equals(encoding);
+        final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final StringBuilder sb = new StringBuilder();
+        Rnd rnd = new Rnd();
+        int lineLenEstimate = 0;
+        while (buf.position() < BUFFER_SIZE - lineLenEstimate) {
+            final int lineStart = buf.position();
+            sb.setLength(0);
+            sb.append("cpu")
+                    .append(",hostname=host_").append(rnd.nextInt(1000))
+                    .append(",region=central_").append(rnd.nextString(32))
+                    .append(",rack=").append(rnd.nextInt(16))
+                    .append(",os=").append(rnd.nextString(3))
+                    .append(",arch=").append(rnd.nextString(3))
+                    .append(",team=").append(rnd.nextString(3))
+                    .append(",service=").append(rnd.nextInt(100))
+                    .append(",service_version=").append(rnd.nextInt(10))
+                    .append(",service_environment=").append(rnd.nextString(5));
+            putAscii(buf, sb);
+            // half of the fields are integers, the other half are doubles
+            for (int i = 0; i < FIELD_NAMES.length; i++) {
+                buf.put((byte) (i == 0 ? ' ' : ','));
+                putAscii(buf, FIELD_NAMES[i]);
+                buf.put((byte) '=');
+                if ((i & 1) == 0) {
+                    long value = rnd.nextInt(100);
+                    if (binary) {
+                        putBinary(buf, LineBinaryFormat.BINARY_TYPE_LONG, value);
+                    } else {
+                        putAscii(buf, value + "i");
+                    }
+                } else {
+                    double value = rnd.nextDouble() * 100;
+                    if (binary) {
+                        putBinary(buf, LineBinaryFormat.BINARY_TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+                    } else {
+                        putAscii(buf, Double.toString(value));
+                    }
+                }
+            }
+            buf.put((byte) ' ');
+            if (binary) {
+                putBinary(buf, LineBinaryFormat.BINARY_TYPE_TIMESTAMP_NANOS, TIMESTAMP_NANOS);
+            } else {
+                putAscii(buf, TIMESTAMP_NANOS + "n");
+            }
+            buf.put((byte) '\n');
+            if (lineLenEstimate == 0) {
+                lineLenEstimate = 3 * (buf.position() - lineStart);
+            }
+        }
+
+        bufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+        for (int i = 0, n = buf.position(); i < n; i++) {
+            Unsafe.getUnsafe().putByte(bufLo + i, buf.get(i));
+        }
+        bufHi = bufLo + buf.position();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Unsafe.free(bufLo, BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
     @Benchmark
     public void testParse(Blackhole bh) {
         long bufPos = bufLo;
@@ -120,6 +156,9 @@ public class LineTcpParserBenchmark {
                     case LineTcpParser.ENTITY_TYPE_INTEGER:
                         bh.consume(entity.getLongValue());
                         break;
+                    case LineTcpParser.ENTITY_TYPE_FLOAT:
+                        bh.consume(entity.getFloatValue());
+                        break;
                     default:
                         break;
                 }
@@ -127,4 +166,14 @@ public class LineTcpParserBenchmark {
             bufPos = parser.getBufferAddress();
         }
     }
+
+    private static void putAscii(ByteBuffer buf, CharSequence cs) {
+        for (int i = 0, n = cs.length(); i < n; i++) {
+            buf.put((byte) cs.charAt(i));
+        }
+    }
+
+    private static void putBinary(ByteBuffer buf, byte type, long value) {
+        buf.put(LineBinaryFormat.BINARY_FORMAT_FLAG).put(type).putLong(value);
+    }
 }
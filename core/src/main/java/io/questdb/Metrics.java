@@ -24,6 +24,7 @@
 
 package io.questdb;
 
+import io.questdb.cairo.SymbolCacheMetrics;
 import io.questdb.cairo.TableWriterMetrics;
 import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
@@ -48,6 +49,7 @@ public class Metrics implements Scrapable {
     private final VirtualLongGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
     private final VirtualLongGauge.StatProvider jvmMaxMemRef = runtime::maxMemory;
     private final VirtualLongGauge.StatProvider jvmTotalMemRef = runtime::totalMemory;
+    private final SymbolCacheMetrics symbolCache;
     private final TableWriterMetrics tableWriter;
     private final WalMetrics walMetrics;
     private final WorkerMetrics workerMetrics;
@@ -61,6 +63,7 @@ public class Metrics implements Scrapable {
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         this.walMetrics = new WalMetrics(metricsRegistry);
+        this.symbolCache = new SymbolCacheMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
         this.workerMetrics = new WorkerMetrics(metricsRegistry);
@@ -106,6 +109,10 @@ public class Metrics implements Scrapable {
         }
     }
 
+    public SymbolCacheMetrics symbolCache() {
+        return symbolCache;
+    }
+
     public TableWriterMetrics tableWriter() {
         return tableWriter;
     }
@@ -70,6 +70,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     public static final String CONFIG_DIRECTORY = "conf";
     public static final String DB_DIRECTORY = "db";
     public static final String SNAPSHOT_DIRECTORY = "snapshot";
+    public static final String TIERING_CACHE_DIRECTORY = "tiering_cache";
     public static final String TMP_DIRECTORY = "tmp";
     private static final LowerCaseCharSequenceIntHashMap WRITE_FO_OPTS = new LowerCaseCharSequenceIntHashMap();
     private final ObjObjHashMap<ConfigPropertyKey, ConfigPropertyValue> allPairs = new ObjObjHashMap<>();
@@ -166,6 +167,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
     private final String keepAliveHeader;
     private final int latestByQueueCapacity;
+    private final boolean lineBinaryFormatEnabled;
     private final boolean lineHttpEnabled;
     private final CharSequence lineHttpPingVersion;
     private final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = new PropLineHttpProcessorConfiguration();
@@ -218,7 +220,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final long partitionParquetAge;
+    private final long partitionTieringAge;
+    private final String partitionTieringCacheRoot;
+    private final long partitionTieringCacheSize;
+    private final String partitionTieringRoot;
     private final boolean pgEnabled;
+    private final boolean postingIndexEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final PropPGWireDispatcherConfiguration propPGWireDispatcherConfiguration = new PropPGWireDispatcherConfiguration();
     private final String publicDirectory;
@@ -235,6 +243,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int rollBufferSize;
     private final String root;
     private final int sampleByIndexSearchPageSize;
+    private final long sharedSymbolCacheSize;
     private final int[] sharedWorkerAffinity;
     private final int sharedWorkerCount;
     private final boolean sharedWorkerHaltOnError;
@@ -296,6 +305,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelLatestByEnabled;
+    private final boolean sqlParallelSortEnabled;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final int sqlSmallMapKeyCapacity;
@@ -340,6 +352,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int vectorAggregateQueueCapacity;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
     private final boolean walApplyEnabled;
+    private final boolean walApplyHighPriority;
     private final int walApplyLookAheadTransactionCount;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
     private final long walApplySleepTimeout;
@@ -351,6 +364,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long walApplyWorkerYieldThreshold;
     private final boolean walEnabledDefault;
     private final long walMaxLagSize;
+    private final long walMaxLagTime;
     private final int walMaxLagTxnCount;
     private final int walMaxSegmentFileDescriptorsCache;
     private final long walPurgeInterval;
@@ -376,6 +390,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerMiscAppendPageSize;
     private final boolean writerMixedIOEnabled;
     private final int writerTickRowsCountMod;
+    private final boolean zoneMapEnabled;
     private long cairoSqlCopyMaxIndexChunkSize;
     private FactoryProvider factoryProvider;
     private short floatDefaultColumnType;
@@ -430,6 +445,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long lineTcpNetConnectionTimeout;
     private LineTcpTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpWriterQueueCapacity;
+    private long lineTcpWriterRebalanceInterval;
+    private double lineTcpWriterRebalanceLoadRatio;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
@@ -445,6 +462,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgCharacterStoreCapacity;
     private int pgCharacterStorePoolCapacity;
     private int pgConnectionPoolInitialCapacity;
+    private int pgCopyInCommitBatchSize;
     private boolean pgDaemonPool;
     private DateLocale pgDefaultLocale;
     private boolean pgHaltOnError;
@@ -540,6 +558,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.walSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, true);
         walApplyEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_ENABLED, true);
+        this.walApplyHighPriority = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_HIGH_PRIORITY, true);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
         this.walSegmentRolloverSize = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_SIZE, 0);  // disabled by default.
         if ((this.walSegmentRolloverSize != 0) && (this.walSegmentRolloverSize < 1024)) {  // 1KiB segments minimum
@@ -550,6 +569,8 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walSquashUncommittedRowsMultiplier = getDouble(properties, env, PropertyKey.CAIRO_WAL_SQUASH_UNCOMMITTED_ROWS_MULTIPLIER, "20.0");
         this.walMaxLagTxnCount = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_TXN_COUNT, -1);
         this.walMaxLagSize = getLongSize(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_SIZE, 75 * Numbers.SIZE_1MB);
+        this.walMaxLagTime = getLong(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_TIME, -1);
+        this.sharedSymbolCacheSize = getLongSize(properties, env, PropertyKey.CAIRO_SHARED_SYMBOL_CACHE_SIZE, 64 * Numbers.SIZE_1MB);
         this.walMaxSegmentFileDescriptorsCache = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE, 30);
         this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
@@ -574,11 +595,13 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.root = this.dbDirectory;
             this.confRoot = rootSubdir(this.root, CONFIG_DIRECTORY); // ../conf
             this.snapshotRoot = rootSubdir(this.root, SNAPSHOT_DIRECTORY); // ../snapshot
+            this.partitionTieringCacheRoot = rootSubdir(this.root, TIERING_CACHE_DIRECTORY); // ../tiering_cache
             tmpRoot = rootSubdir(this.root, TMP_DIRECTORY); // ../tmp
         } else {
             this.root = new File(root, this.dbDirectory).getAbsolutePath();
             this.confRoot = new File(root, CONFIG_DIRECTORY).getAbsolutePath();
             this.snapshotRoot = new File(root, SNAPSHOT_DIRECTORY).getAbsolutePath();
+            this.partitionTieringCacheRoot = new File(root, TIERING_CACHE_DIRECTORY).getAbsolutePath();
             tmpRoot = new File(root, TMP_DIRECTORY).getAbsolutePath();
         }
 
@@ -601,6 +624,20 @@ public class PropServerConfiguration implements ServerConfiguration {
         final FilesFacade ff = cairoConfiguration.getFilesFacade();
         try (Path path = new Path()) {
             volumeDefinitions.of(getString(properties, env, PropertyKey.CAIRO_VOLUMES, null), path, root);
+            final String tieringVolume = getString(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_VOLUME, null);
+            if (!Chars.isBlank(tieringVolume)) {
+                final CharSequence tieringRoot = volumeDefinitions.resolveAlias(tieringVolume);
+                if (tieringRoot == null) {
+                    throw new ServerConfigurationException("invalid configuration value [key=" + PropertyKey.CAIRO_PARTITION_TIERING_VOLUME.getPropertyPath() +
+                            ", description=volume alias is not defined in " + PropertyKey.CAIRO_VOLUMES.getPropertyPath() + "]");
+                }
+                this.partitionTieringRoot = Chars.toString(tieringRoot);
+            } else {
+                this.partitionTieringRoot = null;
+            }
+            this.partitionParquetAge = getLong(properties, env, PropertyKey.CAIRO_PARTITION_PARQUET_AGE, 0) * 1_000;
+            this.partitionTieringAge = getLong(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_AGE, 0) * 1_000;
+            this.partitionTieringCacheSize = getLongSize(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_CACHE_SIZE, Numbers.SIZE_1GB);
             ff.mkdirs(path.of(this.root).slash$(), this.mkdirMode);
             path.of(this.root).concat(TableUtils.TAB_INDEX_FILE_NAME).$();
             final int tableIndexFd = TableUtils.openFileRWOrFail(ff, path, CairoConfiguration.O_NONE);
@@ -799,6 +836,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgBinaryParamsCapacity = getInt(properties, env, PropertyKey.PG_BINARY_PARAM_COUNT_CAPACITY, 2);
                 this.pgCharacterStorePoolCapacity = getInt(properties, env, PropertyKey.PG_CHARACTER_STORE_POOL_CAPACITY, 64);
                 this.pgConnectionPoolInitialCapacity = getInt(properties, env, PropertyKey.PG_CONNECTION_POOL_CAPACITY, 4);
+                this.pgCopyInCommitBatchSize = getInt(properties, env, PropertyKey.PG_COPY_IN_COMMIT_BATCH_SIZE, 0);
                 this.pgPassword = getString(properties, env, PropertyKey.PG_PASSWORD, "quest");
                 this.pgUsername = getString(properties, env, PropertyKey.PG_USER, "admin");
                 this.pgReadOnlyPassword = getString(properties, env, PropertyKey.PG_RO_PASSWORD, "quest");
@@ -1025,6 +1063,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3MaxLag = getLong(properties, env, PropertyKey.CAIRO_O3_MAX_LAG, o3MaxLag) * 1_000;
 
             this.o3QuickSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_O3_QUICKSORT_ENABLED, false);
+            this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+            this.postingIndexEnabled = getBoolean(properties, env, PropertyKey.CAIRO_POSTING_INDEX_ENABLED, false);
             this.rndFunctionMemoryPageSize = Numbers.ceilPow2(getIntSize(properties, env, PropertyKey.CAIRO_RND_MEMORY_PAGE_SIZE, 8192));
             this.rndFunctionMemoryMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_RND_MEMORY_MAX_PAGES, 128));
             this.sqlStrFunctionBufferMaxSize = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_STR_FUNCTION_BUFFER_MAX_SIZE, Numbers.SIZE_1MB));
@@ -1116,6 +1156,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpWriterWorkerPoolHaltOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_WRITER_HALT_ON_ERROR, false);
                 this.lineTcpWriterWorkerYieldThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD, 10);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD, 10_000);
+                this.lineTcpWriterRebalanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_INTERVAL, 10_000);
+                this.lineTcpWriterRebalanceLoadRatio = getDouble(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_LOAD_RATIO, "1.5");
                 this.symbolCacheWaitUsBeforeReload = getLong(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD, 500_000);
 
                 int ilpTcpWorkerCount;
@@ -1182,6 +1224,7 @@ public class PropServerConfiguration implements ServerConfiguration {
 
             this.ilpAutoCreateNewColumns = getBoolean(properties, env, PropertyKey.LINE_AUTO_CREATE_NEW_COLUMNS, true);
             this.ilpAutoCreateNewTables = getBoolean(properties, env, PropertyKey.LINE_AUTO_CREATE_NEW_TABLES, true);
+            this.lineBinaryFormatEnabled = getBoolean(properties, env, PropertyKey.LINE_BINARY_FORMAT_ENABLED, false);
 
             this.sharedWorkerCount = getInt(properties, env, PropertyKey.SHARED_WORKER_COUNT, Math.max(2, cpuAvailable - cpuSpare - cpuUsed));
             this.sharedWorkerAffinity = getAffinity(properties, env, PropertyKey.SHARED_WORKER_AFFINITY, sharedWorkerCount);
@@ -1205,6 +1248,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUP_BY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelLatestByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, defaultParallelSqlEnabled);
 
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
@@ -2247,11 +2293,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionSplitMinSize;
         }
 
+        @Override
+        public long getPartitionParquetAge() {
+            return partitionParquetAge;
+        }
+
         @Override
         public int getPartitionPurgeListCapacity() {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public long getPartitionTieringAge() {
+            return partitionTieringAge;
+        }
+
+        @Override
+        public @NotNull CharSequence getPartitionTieringCacheRoot() {
+            return partitionTieringCacheRoot;
+        }
+
+        @Override
+        public long getPartitionTieringCacheSize() {
+            return partitionTieringCacheSize;
+        }
+
+        @Override
+        public @Nullable CharSequence getPartitionTieringRoot() {
+            return partitionTieringRoot;
+        }
+
         @Override
         public int getQueryRegistryPoolSize() {
             return sqlQueryRegistryPoolSize;
@@ -2292,6 +2363,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sampleByIndexSearchPageSize;
         }
 
+        @Override
+        public long getSharedSymbolCacheSize() {
+            return sharedSymbolCacheSize;
+        }
+
         @Override
         public boolean getSimulateCrashEnabled() {
             return simulateCrashEnabled;
@@ -2661,6 +2737,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walMaxLagSize;
         }
 
+        @Override
+        public long getWalMaxLagTime() {
+            return walMaxLagTime;
+        }
+
         @Override
         public int getWalMaxLagTxnCount() {
             return walMaxLagTxnCount;
@@ -2781,6 +2862,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPostingIndexEnabled() {
+            return postingIndexEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
@@ -2811,6 +2897,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelLatestByEnabled() {
+            return sqlParallelLatestByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSortEnabled() {
+            return sqlParallelSortEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -2821,6 +2922,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyEnabled;
         }
 
+        @Override
+        public boolean isWalApplyHighPriority() {
+            return walApplyHighPriority;
+        }
+
         public boolean isWalSupported() {
             return walSupported;
         }
@@ -2830,6 +2936,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerMixedIOEnabled;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
@@ -3358,6 +3469,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpTimestampAdapter;
         }
 
+        @Override
+        public boolean isBinaryFormatSupported() {
+            return lineBinaryFormatEnabled;
+        }
+
         @Override
         public boolean isEnabled() {
             return lineHttpEnabled;
@@ -3545,11 +3661,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return lineTcpWriterRebalanceInterval;
+        }
+
+        @Override
+        public double getWriterRebalanceLoadRatio() {
+            return lineTcpWriterRebalanceLoadRatio;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
         }
 
+        @Override
+        public boolean isBinaryFormatSupported() {
+            return lineBinaryFormatEnabled;
+        }
+
         @Override
         public boolean isEnabled() {
             return lineTcpEnabled;
@@ -3823,6 +3954,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgConnectionPoolInitialCapacity;
         }
 
+        @Override
+        public int getCopyInCommitBatchSize() {
+            return pgCopyInCommitBatchSize;
+        }
+
         @Override
         public DateLocale getDefaultDateLocale() {
             return pgDefaultLocale;
@@ -93,6 +93,9 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
     CAIRO_SQL_PARALLEL_GROUP_BY_ENABLED("cairo.sql.parallel.groupby.enabled"),
+    CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED("cairo.sql.parallel.hashjoin.enabled"),
+    CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED("cairo.sql.parallel.latestby.enabled"),
+    CAIRO_SQL_PARALLEL_SORT_ENABLED("cairo.sql.parallel.sort.enabled"),
     CAIRO_SQL_PARALLEL_GROUP_BY_MERGE_QUEUE_CAPACITY("cairo.sql.parallel.groupby.merge.shard.queue.capacity"),
     CAIRO_SQL_PARALLEL_GROUP_BY_SHARDING_THRESHOLD("cairo.sql.parallel.groupby.sharding.threshold"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
@@ -171,6 +174,8 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_COMMIT_LAG("cairo.commit.lag"),
     CAIRO_O3_MAX_LAG("cairo.o3.max.lag"),
     CAIRO_O3_QUICKSORT_ENABLED("cairo.o3.quicksort.enabled"),
+    CAIRO_ZONE_MAP_ENABLED("cairo.zone.map.enabled"),
+    CAIRO_POSTING_INDEX_ENABLED("cairo.posting.index.enabled"),
     CAIRO_RND_MEMORY_PAGE_SIZE("cairo.rnd.memory.page.size"),
     CAIRO_RND_MEMORY_MAX_PAGES("cairo.rnd.memory.max.pages"),
     CAIRO_REPLACE_BUFFER_MAX_SIZE("cairo.replace.buffer.max.size"),
@@ -318,6 +323,8 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_TCP_WRITER_HALT_ON_ERROR("line.tcp.writer.halt.on.error"),
     LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD("line.tcp.writer.worker.yield.threshold"),
     LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD("line.tcp.writer.worker.sleep.threshold"),
+    LINE_TCP_WRITER_REBALANCE_INTERVAL("line.tcp.writer.rebalance.interval"),
+    LINE_TCP_WRITER_REBALANCE_LOAD_RATIO("line.tcp.writer.rebalance.load.ratio"),
     LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD("line.tcp.symbol.cache.wait.us.before.reload"),
     LINE_TCP_IO_WORKER_COUNT("line.tcp.io.worker.count"),
     LINE_TCP_IO_WORKER_AFFINITY("line.tcp.io.worker.affinity"),
@@ -373,6 +380,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     PG_BINARY_PARAM_COUNT_CAPACITY("pg.binary.param.count.capacity"),
     PG_CHARACTER_STORE_POOL_CAPACITY("pg.character.store.pool.capacity"),
     PG_CONNECTION_POOL_CAPACITY("pg.connection.pool.capacity"),
+    PG_COPY_IN_COMMIT_BATCH_SIZE("pg.copy.in.commit.batch.size"),
     PG_WORKER_COUNT("pg.worker.count"),
     PG_SELECT_CACHE_BLOCK_COUNT("pg.select.cache.block.count"),
     PG_SELECT_CACHE_ROW_COUNT("pg.select.cache.row.count"),
@@ -409,6 +417,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_MAX_FILE_NAME_LENGTH("cairo.max.file.name.length"),
     LINE_AUTO_CREATE_NEW_COLUMNS("line.auto.create.new.columns"),
     LINE_AUTO_CREATE_NEW_TABLES("line.auto.create.new.tables"),
+    LINE_BINARY_FORMAT_ENABLED("line.binary.format.enabled"),
     CAIRO_SIMULATE_CRASH_ENABLED("cairo.enable.crash.simulation"),
     CAIRO_WAL_ENABLED_DEFAULT("cairo.wal.enabled.default"),
     CAIRO_WAL_PURGE_INTERVAL("cairo.wal.purge.interval"),
@@ -425,12 +434,15 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY("cairo.wal.txn.notification.queue.capacity"),
     CAIRO_WAL_SUPPORTED("cairo.wal.supported"),
     CAIRO_WAL_APPLY_ENABLED("cairo.wal.apply.enabled"),
+    CAIRO_WAL_APPLY_HIGH_PRIORITY("cairo.wal.apply.high.priority"),
     TABLE_TYPE_CONVERSION_ENABLED("table.type.conversion.enabled"),
     CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS("cairo.wal.recreate.distressed.sequencer.attempts"),
     CAIRO_WAL_INACTIVE_WRITER_TTL("cairo.wal.inactive.writer.ttl"),
     CAIRO_WAL_SQUASH_UNCOMMITTED_ROWS_MULTIPLIER("cairo.wal.squash.uncommitted.rows.multiplier"),
     CAIRO_WAL_MAX_LAG_TXN_COUNT("cairo.wal.max.lag.txn.count"),
     CAIRO_WAL_MAX_LAG_SIZE("cairo.wal.max.lag.size"),
+    CAIRO_WAL_MAX_LAG_TIME("cairo.wal.max.lag.time"),
+    CAIRO_SHARED_SYMBOL_CACHE_SIZE("cairo.shared.symbol.cache.size"),
     CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE("cairo.wal.max.segment.file.descriptors.cache"),
     CAIRO_WAL_APPLY_TABLE_TIME_QUOTA("cairo.wal.apply.table.time.quota"),
     CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT("cairo.wal.apply.look.ahead.txn.count"),
@@ -442,6 +454,10 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_REPEAT_MIGRATION_FROM_VERSION("cairo.repeat.migration.from.version"),
     CAIRO_O3_LAST_PARTITION_MAX_SPLITS("cairo.o3.last.partition.max.splits"),
     CAIRO_O3_PARTITION_SPLIT_MIN_SIZE("cairo.o3.partition.split.min.size"),
+    CAIRO_PARTITION_PARQUET_AGE("cairo.partition.parquet.age"),
+    CAIRO_PARTITION_TIERING_AGE("cairo.partition.tiering.age"),
+    CAIRO_PARTITION_TIERING_CACHE_SIZE("cairo.partition.tiering.cache.size"),
+    CAIRO_PARTITION_TIERING_VOLUME("cairo.partition.tiering.volume"),
     DEBUG_WAL_PURGE_WAIT_BEFORE_DELETE("debug.wal.purge.wait.before.delete"),
     WRITER_MEMORY_LIMIT("cairo.writer.memory.limit");
     private static final Map<String, PropertyKey> nameMapping;
@@ -69,6 +69,13 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
         return keyMem.size();
     }
 
+    /**
+     * @return the highest row id added to the index, as recorded by the writer
+     */
+    public long getMaxValue() {
+        return keyMem.getLong(BitmapIndexUtils.KEY_RESERVED_OFFSET_MAX_VALUE);
+    }
+
     public long getUnIndexedNullCount() {
         return unIndexedNullCount;
     }
@@ -85,6 +92,14 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
         return valueMem.size();
     }
 
+    /**
+     * @return size of the value file as recorded in the key file header, it changes with every value block
+     * allocated by the writer
+     */
+    public long getValueMemorySizeFromHeader() {
+        return keyMem.getLong(BitmapIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+    }
+
     @Override
     public boolean isOpen() {
         return keyMem.getFd() != -1;
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips data frames of partitions, which cannot contain rows matching the filter according to
+ * per-partition skip indexes, such as zone maps and bloom indexes. The filter is still applied
+ * to every row of the remaining frames. The last partition has no skip indexes and is never skipped.
+ */
+public abstract class AbstractSkippingDataFrameCursorFactory implements DataFrameCursorFactory {
+    protected final FilesFacade ff;
+    private final DataFrameCursorFactory base;
+    private final SkippingDataFrameCursor cursor = new SkippingDataFrameCursor();
+    private final Path path = new Path();
+    private final CharSequence root;
+
+    public AbstractSkippingDataFrameCursorFactory(CairoConfiguration configuration, DataFrameCursorFactory base) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.base = base;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.free(path);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final boolean descending = order == ORDER_DESC || (order == ORDER_ANY && base.getOrder() == ORDER_DESC);
+        return cursor.of(base.getCursor(executionContext, order), descending);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public TableToken getTableToken() {
+        return base.getTableToken();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public void toSink(@NotNull CharSink<?> sink) {
+        base.toSink(sink);
+    }
+
+    private boolean canSkip(TableReader reader, int partitionIndex) {
+        if (partitionIndex >= reader.getPartitionCount() - 1) {
+            return false;
+        }
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        path.of(root).concat(reader.getTableToken());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, reader.getTxFile().getPartitionNameTxn(partitionIndex));
+        return canSkip(reader, partitionIndex, partitionTimestamp, path);
+    }
+
+    /**
+     * Checks if partition certainly has no rows matching the filter.
+     *
+     * @param partitionPath partition directory, must be left unchanged
+     */
+    protected abstract boolean canSkip(TableReader reader, int partitionIndex, long partitionTimestamp, Path partitionPath);
+
+    private static class SkippedToDataFrame implements DataFrame {
+        private DataFrame baseFrame;
+        private long rowHi;
+        private long rowLo;
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return baseFrame.getBitmapIndexReader(columnIndex, direction);
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return baseFrame.getPartitionIndex();
+        }
+
+        @Override
+        public long getRowHi() {
+            return rowHi;
+        }
+
+        @Override
+        public long getRowLo() {
+            return rowLo;
+        }
+
+        private SkippedToDataFrame of(DataFrame baseFrame, long rowLo, long rowHi) {
+            this.baseFrame = baseFrame;
+            this.rowLo = rowLo;
+            this.rowHi = rowHi;
+            return this;
+        }
+    }
+
+    private class SkippingDataFrameCursor implements DataFrameCursor {
+        private final SkippedToDataFrame skippedToFrame = new SkippedToDataFrame();
+        private DataFrameCursor baseCursor;
+        private boolean descending;
+
+        @Override
+        public void calculateSize(RecordCursor.Counter counter) {
+            // size of the base cursor includes skipped partitions, so the remaining frames are counted instead
+            DataFrame frame;
+            while ((frame = next()) != null) {
+                counter.add(frame.getRowHi() - frame.getRowLo());
+            }
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return baseCursor.getTableReader();
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = baseCursor.next()) != null) {
+                if (!canSkip(baseCursor.getTableReader(), frame.getPartitionIndex())) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        public SkippingDataFrameCursor of(DataFrameCursor baseCursor, boolean descending) {
+            this.baseCursor = baseCursor;
+            this.descending = descending;
+            return this;
+        }
+
+        @Override
+        public boolean reload() {
+            return baseCursor.reload();
+        }
+
+        @Override
+        public long size() {
+            // skipped partitions are not known upfront
+            return -1;
+        }
+
+        @Override
+        public @Nullable DataFrame skipTo(RecordCursor.Counter rowsToSkip) {
+            // rows of skipped partitions are not in the scan, so only the remaining frames are skipped
+            DataFrame frame;
+            while ((frame = next()) != null) {
+                final long rowLo = frame.getRowLo();
+                final long rowHi = frame.getRowHi();
+                final long skipCount = rowsToSkip.get();
+                if (rowHi - rowLo > skipCount) {
+                    rowsToSkip.clear();
+                    return descending
+                            ? skippedToFrame.of(frame, rowLo, rowHi - skipCount)
+                            : skippedToFrame.of(frame, rowLo + skipCount, rowHi);
+                }
+                rowsToSkip.dec(rowHi - rowLo);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean supportsRandomAccess() {
+            return baseCursor.supportsRandomAccess();
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+        }
+    }
+}
@@ -45,6 +45,9 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
         of(configuration, path, name, columnNameTxn, unIndexedNullCount);
     }
 
+    protected BitmapIndexBwdReader() {
+    }
+
     @Override
     public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
         assert minValue <= maxValue;
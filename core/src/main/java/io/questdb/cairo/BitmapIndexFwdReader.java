@@ -49,6 +49,9 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
         of(configuration, path, name, columnNameTxn, unIndexedNullCount);
     }
 
+    protected BitmapIndexFwdReader() {
+    }
+
     @Override
     public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
         if (key >= keyCount) {
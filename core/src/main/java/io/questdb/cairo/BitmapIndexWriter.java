@@ -38,7 +38,6 @@ import java.io.Closeable;
 
 public class BitmapIndexWriter implements Closeable, Mutable {
     private static final Log LOG = LogFactory.getLog(BitmapIndexWriter.class);
-    private static final long MAX_VALUE_OFFSET = 37L;
     private final CairoConfiguration configuration;
     private final Cursor cursor = new Cursor();
     private final FilesFacade ff;
@@ -76,7 +75,7 @@ public class BitmapIndexWriter implements Closeable, Mutable {
         keyMem.putLong(0); // KEY COUNT
         Unsafe.getUnsafe().storeFence();
         keyMem.putLong(1); // SEQUENCE CHECK
-        assert keyMem.getAppendOffset() == MAX_VALUE_OFFSET;
+        assert keyMem.getAppendOffset() == BitmapIndexUtils.KEY_RESERVED_OFFSET_MAX_VALUE;
         keyMem.putLong(-1); // maxRow. It's inclusive, -1 means no rows
         keyMem.skip(BitmapIndexUtils.KEY_FILE_RESERVED - keyMem.getAppendOffset());
     }
@@ -171,7 +170,7 @@ public class BitmapIndexWriter implements Closeable, Mutable {
     }
 
     public long getMaxValue() {
-        return keyMem.getLong(MAX_VALUE_OFFSET);
+        return keyMem.getLong(BitmapIndexUtils.KEY_RESERVED_OFFSET_MAX_VALUE);
     }
 
     @TestOnly
@@ -397,7 +396,7 @@ public class BitmapIndexWriter implements Closeable, Mutable {
     }
 
     public void setMaxValue(long maxValue) {
-        keyMem.putLong(MAX_VALUE_OFFSET, maxValue);
+        keyMem.putLong(BitmapIndexUtils.KEY_RESERVED_OFFSET_MAX_VALUE, maxValue);
     }
 
     public void sync(boolean async) {
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Bloom filter of column values in a single partition. Unlike bitmap index, its size does not
+ * depend on the number of distinct values per key, so it suits near-unique INT, LONG, UUID and
+ * STRING columns, e.g. order ids. Equality filters use it to skip partitions, which certainly
+ * do not contain the value.
+ * <p>
+ * Bloom index file sits next to the column file and is versioned by the same column name txn.
+ * Its header holds partition row count and column top, so that an index describing different
+ * data than the reader sees is ignored. The header is followed by the bit set, which is sized
+ * for about 1% false positive rate. Null values are not added to the filter.
+ * <p>
+ * The bit set is split into 64-byte blocks and all bits of a value are set in the same block,
+ * so that a probe reads a single block. Bit set size is capped at 32MB, partitions with more
+ * than about 27M values get a higher false positive rate.
+ */
+public class BloomIndex implements QuietCloseable {
+    private static final int BITS_PER_VALUE = 10;
+    private static final int BLOCK_BIT_MASK = 511;
+    private static final int BLOCK_SIZE = 64;
+    private static final int BLOCK_SIZE_SHL = 6;
+    private static final int HASH_COUNT = 7;
+    private static final int HEADER_SIZE = 24;
+    private static final Log LOG = LogFactory.getLog(BloomIndex.class);
+    private static final long MAX_BIT_COUNT = 1L << 28;
+    private static final long MIN_BIT_COUNT = BLOCK_SIZE * 8;
+    private static final int OFFSET_BIT_COUNT = 16;
+    private static final int OFFSET_COLUMN_TOP = 8;
+    private static final int OFFSET_ROW_COUNT = 0;
+    private long buf;
+
+    public BloomIndex() {
+        this.buf = Unsafe.malloc(HEADER_SIZE + BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static long hashLong(long value) {
+        // murmur3 finalizer
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static long hashString(CharSequence value) {
+        long h = value.length();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = h * 31 + value.charAt(i);
+        }
+        return hashLong(h);
+    }
+
+    public static long hashUuid(long lo, long hi) {
+        return hashLong(lo ^ hashLong(hi));
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            buf = Unsafe.free(buf, HEADER_SIZE + BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    /**
+     * Checks if the column in the partition may contain value of the given hash.
+     *
+     * @param path partition path, left unchanged
+     * @return false only when bloom index exists, matches partition row count and column top,
+     * and the value is certainly not in the column
+     */
+    public boolean mightContain(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, long columnTop, long rowCount, long hash) {
+        final int plen = path.size();
+        final int fd = ff.openRO(TableUtils.bloomIndexFileName(path, columnName, columnNameTxn));
+        path.trimTo(plen);
+        if (fd < 0) {
+            return true;
+        }
+        try {
+            if (ff.read(fd, buf, HEADER_SIZE, 0) != HEADER_SIZE
+                    || Unsafe.getUnsafe().getLong(buf + OFFSET_ROW_COUNT) != rowCount
+                    || Unsafe.getUnsafe().getLong(buf + OFFSET_COLUMN_TOP) != columnTop
+                    || Unsafe.getUnsafe().getLong(buf + OFFSET_BIT_COUNT) < MIN_BIT_COUNT) {
+                return true;
+            }
+            final long blockOffset = getBlockOffset(getBlockMask(Unsafe.getUnsafe().getLong(buf + OFFSET_BIT_COUNT)), hash);
+            final long block = buf + HEADER_SIZE;
+            if (ff.read(fd, block, BLOCK_SIZE, HEADER_SIZE + blockOffset) != BLOCK_SIZE) {
+                return true;
+            }
+            final int h = (int) (hash >>> 32);
+            final int step = (int) (hash >>> 19) | 1;
+            for (int i = 0; i < HASH_COUNT; i++) {
+                final int bit = (h + i * step) & BLOCK_BIT_MASK;
+                if ((Unsafe.getUnsafe().getByte(block + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    /**
+     * Brings bloom index of the column up to date with the rows appended since it was written. Only the
+     * appended values are added to the bit set, which is updated in place before the header, so that
+     * readers, which have not seen the new rows yet, keep using the index. Falls back to {@link #write}
+     * when the index is missing, has different column top, describes more rows than the partition has
+     * or the bit set has to grow.
+     *
+     * @param path partition path, left unchanged
+     */
+    public void update(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        final int plen = path.size();
+        final long bitCount = getBitCount(Math.max(0, rowCount - columnTop));
+        final long fileSize = HEADER_SIZE + (bitCount >>> 3);
+        final int fd = ff.openRW(TableUtils.bloomIndexFileName(path, columnName, columnNameTxn), CairoConfiguration.O_NONE);
+        path.trimTo(plen);
+        long prevRowCount = -1;
+        try {
+            if (fd > -1
+                    && ff.length(fd) == fileSize
+                    && ff.read(fd, buf, HEADER_SIZE, 0) == HEADER_SIZE
+                    && Unsafe.getUnsafe().getLong(buf + OFFSET_COLUMN_TOP) == columnTop
+                    && Unsafe.getUnsafe().getLong(buf + OFFSET_BIT_COUNT) == bitCount) {
+                prevRowCount = Unsafe.getUnsafe().getLong(buf + OFFSET_ROW_COUNT);
+            }
+
+            if (prevRowCount > -1 && prevRowCount < rowCount) {
+                final long addr = TableUtils.mapRWNoAlloc(ff, fd, fileSize, 0, MemoryTag.MMAP_TABLE_WRITER);
+                try {
+                    addValues(ff, path, columnName, columnNameTxn, columnType, addr + HEADER_SIZE, getBlockMask(bitCount), Math.max(0, prevRowCount - columnTop), Math.max(0, rowCount - columnTop));
+                } finally {
+                    ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+                if (ff.write(fd, buf, Long.BYTES, OFFSET_ROW_COUNT) != Long.BYTES) {
+                    throw CairoException.critical(ff.errno()).put("could not write bloom index [path=").put(path).put(']');
+                }
+            }
+        } finally {
+            if (fd > -1) {
+                ff.close(fd);
+            }
+        }
+
+        if (prevRowCount < 0 || prevRowCount > rowCount) {
+            write(ff, path, columnName, columnNameTxn, columnType, columnTop, rowCount);
+        }
+    }
+
+    /**
+     * Builds bloom index of the column from the column file and writes it next to the file. The file is written
+     * under a temporary name and then renamed, so that readers never see a partially written bit set.
+     *
+     * @param path partition path, left unchanged
+     */
+    public void write(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        final int plen = path.size();
+        final long valueCount = Math.max(0, rowCount - columnTop);
+        final long bitCount = getBitCount(valueCount);
+        final long bitsSize = bitCount >>> 3;
+        final long bits = Unsafe.calloc(bitsSize, MemoryTag.NATIVE_DEFAULT);
+        try {
+            addValues(ff, path, columnName, columnNameTxn, columnType, bits, getBlockMask(bitCount), 0, valueCount);
+
+            Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(buf + OFFSET_COLUMN_TOP, columnTop);
+            Unsafe.getUnsafe().putLong(buf + OFFSET_BIT_COUNT, bitCount);
+
+            final LPSZ fileName = TableUtils.bloomIndexFileName(path, columnName, columnNameTxn);
+            final Path tmpPath = Path.getThreadLocal2(path).put(".tmp").$();
+            final int fd = TableUtils.openRW(ff, tmpPath, LOG, CairoConfiguration.O_NONE);
+            try {
+                if (ff.write(fd, buf, HEADER_SIZE, 0) != HEADER_SIZE || ff.write(fd, bits, bitsSize, HEADER_SIZE) != bitsSize) {
+                    throw CairoException.critical(ff.errno()).put("could not write bloom index [path=").put(tmpPath).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            if (ff.rename(tmpPath, fileName) != Files.FILES_RENAME_OK) {
+                ff.removeQuiet(tmpPath);
+                throw CairoException.critical(ff.errno()).put("could not rename bloom index [from=").put(tmpPath).put(", to=").put(fileName).put(']');
+            }
+        } finally {
+            path.trimTo(plen);
+            Unsafe.free(bits, bitsSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static void addHash(long bits, long mask, long hash) {
+        final long block = bits + getBlockOffset(mask, hash);
+        final int h = (int) (hash >>> 32);
+        final int step = (int) (hash >>> 19) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final int bit = (h + i * step) & BLOCK_BIT_MASK;
+            final long p = block + (bit >>> 3);
+            Unsafe.getUnsafe().putByte(p, (byte) (Unsafe.getUnsafe().getByte(p) | (1 << (bit & 7))));
+        }
+    }
+
+    // adds values [valueLo, valueHi) of the column file to the bit set
+    private static void addValues(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long bits, long mask, long valueLo, long valueHi) {
+        if (valueLo >= valueHi) {
+            return;
+        }
+        final int plen = path.size();
+        long offset = 0;
+        if (!ColumnType.isVariableLength(columnType)) {
+            offset = valueLo << ColumnType.pow2SizeOf(columnType);
+        } else if (valueLo > 0) {
+            final int fd = TableUtils.openRO(ff, TableUtils.iFile(path, columnName, columnNameTxn), LOG);
+            path.trimTo(plen);
+            try {
+                offset = ff.readNonNegativeLong(fd, valueLo << 3);
+                if (offset < 0) {
+                    throw CairoException.critical(ff.errno()).put("could not read string offset [path=").put(path).put(", row=").put(valueLo).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+        }
+
+        final int fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+        path.trimTo(plen);
+        try {
+            final long size = ColumnType.isVariableLength(columnType) ? ff.length(fd) : valueHi << ColumnType.pow2SizeOf(columnType);
+            final long addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                addValues(bits, mask, addr + offset, size - offset, columnType, valueHi - valueLo);
+            } finally {
+                ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private static void addValues(long bits, long mask, long addr, long size, int columnType, long valueCount) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                for (long i = 0; i < valueCount; i++) {
+                    final int value = Unsafe.getUnsafe().getInt(addr + (i << 2));
+                    if (value != Numbers.INT_NaN) {
+                        addHash(bits, mask, hashLong(value));
+                    }
+                }
+                break;
+            case ColumnType.LONG:
+                for (long i = 0; i < valueCount; i++) {
+                    final long value = Unsafe.getUnsafe().getLong(addr + (i << 3));
+                    if (value != Numbers.LONG_NaN) {
+                        addHash(bits, mask, hashLong(value));
+                    }
+                }
+                break;
+            case ColumnType.UUID:
+                for (long i = 0; i < valueCount; i++) {
+                    final long lo = Unsafe.getUnsafe().getLong(addr + (i << 4));
+                    final long hi = Unsafe.getUnsafe().getLong(addr + (i << 4) + Long.BYTES);
+                    if (!Uuid.isNull(lo, hi)) {
+                        addHash(bits, mask, hashUuid(lo, hi));
+                    }
+                }
+                break;
+            default:
+                // string values are stored as length followed by UTF-16 chars, null has negative length
+                long p = addr;
+                final long lim = addr + size;
+                for (long i = 0; i < valueCount && p + Integer.BYTES <= lim; i++) {
+                    final int len = Unsafe.getUnsafe().getInt(p);
+                    p += Integer.BYTES;
+                    if (len > -1) {
+                        long h = len;
+                        for (int j = 0; j < len; j++) {
+                            h = h * 31 + Unsafe.getUnsafe().getChar(p + 2L * j);
+                        }
+                        addHash(bits, mask, hashLong(h));
+                        p += 2L * len;
+                    }
+                }
+                break;
+        }
+    }
+
+    private static long getBitCount(long valueCount) {
+        return Math.min(MAX_BIT_COUNT, Numbers.ceilPow2(Math.max(MIN_BIT_COUNT, valueCount * BITS_PER_VALUE)));
+    }
+
+    private static long getBlockMask(long bitCount) {
+        return (bitCount >>> (BLOCK_SIZE_SHL + 3)) - 1;
+    }
+
+    // block is chosen by the low hash bits, bits within the block by the high ones
+    private static long getBlockOffset(long mask, long hash) {
+        return (hash & mask) << BLOCK_SIZE_SHL;
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Skips data frames of partitions, which certainly do not contain rows matching the filter,
+ * according to partition bloom indexes. Each predicate is an equality of a bloom indexed column
+ * to a constant, and predicates are conjuncts of the filter. Partitions without valid bloom
+ * indexes are never skipped.
+ */
+public class BloomIndexDataFrameCursorFactory extends AbstractSkippingDataFrameCursorFactory {
+    private final BloomIndex bloomIndex = new BloomIndex();
+    private final IntList columnIndexes;
+    private final LongList hashes;
+
+    /**
+     * @param columnIndexes indexes of bloom indexed columns in the table reader metadata
+     * @param hashes        bloom index hashes of the values columns are compared to
+     */
+    public BloomIndexDataFrameCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameCursorFactory base,
+            IntList columnIndexes,
+            LongList hashes
+    ) {
+        super(configuration, base);
+        this.columnIndexes = columnIndexes;
+        this.hashes = hashes;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(bloomIndex);
+    }
+
+    @Override
+    protected boolean canSkip(TableReader reader, int partitionIndex, long partitionTimestamp, Path partitionPath) {
+        final long rowCount = reader.getPartitionRowCount(partitionIndex);
+        final int columnBase = reader.getColumnBase(partitionIndex);
+        final TableReaderMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+            final long columnTop = reader.getColumnTop(columnBase, columnIndex);
+            if (!bloomIndex.mightContain(ff, partitionPath, metadata.getColumnName(columnIndex), columnNameTxn, columnTop, rowCount, hashes.getQuick(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
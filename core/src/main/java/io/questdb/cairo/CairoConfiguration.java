@@ -286,8 +286,41 @@ public interface CairoConfiguration {
 
     long getPartitionO3SplitMinSize();
 
+    /**
+     * Partitions are converted to Parquet once their whole time range is older than
+     * the table's max timestamp minus this age.
+     *
+     * @return partition age in microseconds, non-positive value disables automatic conversion
+     */
+    long getPartitionParquetAge();
+
     int getPartitionPurgeListCapacity();
 
+    /**
+     * Partitions are moved to the tiering volume once their whole time range is older than
+     * the table's max timestamp minus this age.
+     *
+     * @return partition age in microseconds, non-positive value disables partition tiering
+     */
+    long getPartitionTieringAge();
+
+    @NotNull
+    CharSequence getPartitionTieringCacheRoot(); // same as root/../tiering_cache
+
+    /**
+     * Disk budget, in bytes, of the local cache holding copies of recently read tiered partitions.
+     * Non-positive value disables the cache, readers then map partition files on the tiering volume.
+     *
+     * @return tiered partition cache size in bytes
+     */
+    long getPartitionTieringCacheSize();
+
+    /**
+     * @return path of the volume old partitions are moved to, null when partition tiering is disabled
+     */
+    @Nullable
+    CharSequence getPartitionTieringRoot();
+
     default QueryLogger getQueryLogger() {
         return DefaultQueryLogger.INSTANCE;
     }
@@ -327,6 +360,14 @@ public interface CairoConfiguration {
 
     int getSampleByIndexSearchPageSize();
 
+    /**
+     * Memory budget, in bytes, of symbol values cache shared by pooled table readers.
+     * Non-positive value disables the shared cache, readers then cache symbol values privately.
+     *
+     * @return shared symbol cache size in bytes
+     */
+    long getSharedSymbolCacheSize();
+
     boolean getSimulateCrashEnabled();
 
     /**
@@ -494,6 +535,14 @@ public interface CairoConfiguration {
 
     long getWalMaxLagSize();
 
+    /**
+     * Maximum time, in milliseconds, WAL apply can keep transactions in O3 lag before
+     * a full commit is forced. Non-positive value disables the limit.
+     *
+     * @return max lag time in milliseconds
+     */
+    long getWalMaxLagTime();
+
     int getWalMaxLagTxnCount();
 
     int getWalMaxSegmentFileDescriptorsCache();
@@ -556,6 +605,14 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * When enabled, table writer derives compressed postings from bitmap indexes of partitions
+     * it no longer appends to, and index readers use them for key lookups and range scans.
+     *
+     * @return true when posting indexes are written and used
+     */
+    boolean isPostingIndexEnabled();
+
     boolean isReadOnlyInstance();
 
     /**
@@ -573,14 +630,36 @@ public interface CairoConfiguration {
 
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelLatestByEnabled();
+
+    boolean isSqlParallelSortEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
 
+    /**
+     * When enabled, workers run the WAL apply job in between the normal priority jobs
+     * that report having more work, rather than once per worker loop.
+     *
+     * @return true if WAL apply job runs with high priority
+     */
+    boolean isWalApplyHighPriority();
+
     boolean isWalSupported();
 
     boolean isWriterMixedIOEnabled();
 
+    /**
+     * When enabled, table writer maintains min/max zone maps of numeric columns in partitions
+     * it no longer appends to, and table scans use them to skip partitions that cannot match the filter.
+     *
+     * @return true when zone maps are written and used
+     */
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
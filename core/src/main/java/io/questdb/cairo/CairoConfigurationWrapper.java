@@ -470,11 +470,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getPartitionO3SplitMinSize();
     }
 
+    @Override
+    public long getPartitionParquetAge() {
+        return delegate.getPartitionParquetAge();
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return delegate.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getPartitionTieringAge() {
+        return delegate.getPartitionTieringAge();
+    }
+
+    @Override
+    public @NotNull CharSequence getPartitionTieringCacheRoot() {
+        return delegate.getPartitionTieringCacheRoot();
+    }
+
+    @Override
+    public long getPartitionTieringCacheSize() {
+        return delegate.getPartitionTieringCacheSize();
+    }
+
+    @Override
+    public @Nullable CharSequence getPartitionTieringRoot() {
+        return delegate.getPartitionTieringRoot();
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return delegate.getQueryRegistryPoolSize();
@@ -515,6 +540,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getSampleByIndexSearchPageSize();
     }
 
+    @Override
+    public long getSharedSymbolCacheSize() {
+        return delegate.getSharedSymbolCacheSize();
+    }
+
     @Override
     public boolean getSimulateCrashEnabled() {
         return delegate.getSimulateCrashEnabled();
@@ -885,6 +915,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getWalMaxLagSize();
     }
 
+    @Override
+    public long getWalMaxLagTime() {
+        return delegate.getWalMaxLagTime();
+    }
+
     @Override
     public int getWalMaxLagTxnCount() {
         return delegate.getWalMaxLagTxnCount();
@@ -1005,6 +1040,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPostingIndexEnabled() {
+        return delegate.isPostingIndexEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return delegate.isReadOnlyInstance();
@@ -1035,6 +1075,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return delegate.isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return delegate.isSqlParallelLatestByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return delegate.isSqlParallelSortEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return delegate.isTableTypeConversionEnabled();
@@ -1045,6 +1100,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalApplyHighPriority() {
+        return delegate.isWalApplyHighPriority();
+    }
+
     public boolean isWalSupported() {
         return delegate.isWalSupported();
     }
@@ -1054,6 +1114,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isWriterMixedIOEnabled();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return delegate.isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return delegate.mangleTableDirNames();
@@ -29,6 +29,7 @@ import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.Telemetry;
 import io.questdb.cairo.mig.EngineMigration;
+import io.questdb.cairo.mv.MatViewRegistry;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.api.MemoryMARW;
@@ -70,9 +71,16 @@ public class CairoEngine implements Closeable, WriterSource {
     protected final CairoConfiguration configuration;
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final CopyContext copyContext;
+    // bumped on every table metadata change; compiled query caches stamp their entries with it
+    // and compare the stamp to the last change of each table the query was compiled against
+    private final AtomicLong ddlVersion = new AtomicLong();
+    private final EngineDdlListener engineDdlListener = new EngineDdlListener();
     private final EngineMaintenanceJob engineMaintenanceJob;
     private final FunctionFactoryCache ffCache;
+    private final MatViewRegistry matViewRegistry;
     private final MessageBusImpl messageBus;
+    // ddlVersion value of the last metadata change, keyed by table directory name
+    private final ConcurrentHashMap<Long> metadataChangeVersions = new ConcurrentHashMap<>();
     private final Metrics metrics;
     private final Predicate<CharSequence> protectedTableResolver;
     private final QueryRegistry queryRegistry;
@@ -80,12 +88,14 @@ public class CairoEngine implements Closeable, WriterSource {
     private final SequencerMetadataPool sequencerMetadataPool;
     private final DatabaseSnapshotAgentImpl snapshotAgent;
     private final SqlCompilerPool sqlCompilerPool;
+    private final SymbolValueCache symbolValueCache;
     private final IDGenerator tableIdGenerator;
     private final TableMetadataPool tableMetadataPool;
     private final TableNameRegistry tableNameRegistry;
     private final TableSequencerAPI tableSequencerAPI;
     private final Telemetry<TelemetryTask> telemetry;
     private final Telemetry<TelemetryWalTask> telemetryWal;
+    private final TieredPartitionCache tieredPartitionCache;
     // initial value of unpublishedWalTxnCount is 1 because we want to scan for non-applied WAL transactions on startup
     private final AtomicLong unpublishedWalTxnCount = new AtomicLong(1);
     private final WalWriterPool walWriterPool;
@@ -111,9 +121,15 @@ public class CairoEngine implements Closeable, WriterSource {
         this.tableSequencerAPI = new TableSequencerAPI(this, configuration);
         this.messageBus = new MessageBusImpl(configuration);
         this.metrics = metrics;
+        metrics.walMetrics().setSeqTxnLagProvider(tableSequencerAPI::getMaxSeqTxnLag);
         // Message bus and metrics must be initialized before the pools.
         this.writerPool = new WriterPool(configuration, this);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        final long symbolCacheSize = configuration.getSharedSymbolCacheSize();
+        this.symbolValueCache = symbolCacheSize > 0 ? new SymbolValueCache(symbolCacheSize, metrics.symbolCache()) : null;
+        this.tieredPartitionCache = configuration.getPartitionTieringRoot() != null && configuration.getPartitionTieringCacheSize() > 0
+                ? new TieredPartitionCache(configuration)
+                : null;
+        this.readerPool = new ReaderPool(configuration, messageBus, symbolValueCache, tieredPartitionCache);
         this.sequencerMetadataPool = new SequencerMetadataPool(configuration, this);
         this.tableMetadataPool = new TableMetadataPool(configuration);
         this.walWriterPool = new WalWriterPool(configuration, this);
@@ -123,6 +139,7 @@ public class CairoEngine implements Closeable, WriterSource {
         this.tableIdGenerator = new IDGenerator(configuration, TableUtils.TAB_INDEX_FILE_NAME);
         this.snapshotAgent = new DatabaseSnapshotAgentImpl(this);
         this.queryRegistry = new QueryRegistry(configuration);
+        this.matViewRegistry = new MatViewRegistry(this);
 
         try {
             tableIdGenerator.open();
@@ -253,6 +270,10 @@ public class CairoEngine implements Closeable, WriterSource {
         boolean b4 = sequencerMetadataPool.releaseAll();
         boolean b5 = walWriterPool.releaseAll();
         boolean b6 = tableMetadataPool.releaseAll();
+        if (symbolValueCache != null) {
+            // table ids are reused once test removes the database directory
+            symbolValueCache.clear();
+        }
         return b1 & b2 & b3 & b4 & b5 & b6;
     }
 
@@ -271,6 +292,7 @@ public class CairoEngine implements Closeable, WriterSource {
         Misc.free(telemetryWal);
         Misc.free(tableNameRegistry);
         Misc.free(snapshotAgent);
+        Misc.free(tieredPartitionCache);
     }
 
     @TestOnly
@@ -324,9 +346,11 @@ public class CairoEngine implements Closeable, WriterSource {
 
     public void drop(Path path, TableToken tableToken) {
         verifyTableToken(tableToken);
+        matViewRegistry.dropView(tableToken);
         if (tableToken.isWal()) {
             if (tableNameRegistry.dropTable(tableToken)) {
                 tableSequencerAPI.dropTable(tableToken, false);
+                metadataChangeVersions.remove(tableToken.getDirName());
             } else {
                 LOG.info().$("table is already dropped [table=").$(tableToken)
                         .$(", dirName=").$(tableToken.getDirName()).I$();
@@ -340,11 +364,17 @@ public class CairoEngine implements Closeable, WriterSource {
                         throw CairoException.critical(configuration.getFilesFacade().errno()).put("could not remove table [name=").put(tableToken)
                                 .put(", dirName=").put(tableToken.getDirName()).put(']');
                     }
+                    final CharSequence tieringRoot = configuration.getPartitionTieringRoot();
+                    if (tieringRoot != null) {
+                        // partitions moved to the tiering volume are kept in the table dir there
+                        configuration.getFilesFacade().rmdir(path.of(tieringRoot).concat(tableToken).$(), false);
+                    }
                 } finally {
                     unlockTableUnsafe(tableToken, null, false);
                 }
 
                 tableNameRegistry.dropTable(tableToken);
+                metadataChangeVersions.remove(tableToken.getDirName());
                 return;
             }
             throw CairoException.nonCritical().put("could not lock '").put(tableToken).put("' [reason='").put(lockedReason).put("']");
@@ -416,7 +446,15 @@ public class CairoEngine implements Closeable, WriterSource {
     }
 
     public @NotNull DdlListener getDdlListener(TableToken tableToken) {
-        return isSysTable(tableToken) ? DefaultDdlListener.INSTANCE : ddlListener;
+        return engineDdlListener;
+    }
+
+    /**
+     * Returns the version of the most recent table metadata change. Query caches read it before
+     * compiling a query and pass it to {@link #isTableMetadataChanged(ObjList, long)} later on.
+     */
+    public long getDdlVersion() {
+        return ddlVersion.get();
     }
 
     public Job getEngineMaintenanceJob() {
@@ -446,6 +484,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return getSequencerMetadata(tableToken, desiredVersion);
     }
 
+    public MatViewRegistry getMatViewRegistry() {
+        return matViewRegistry;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -563,6 +605,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return SqlCompilerFactoryImpl.INSTANCE;
     }
 
+    public @Nullable SymbolValueCache getSymbolValueCache() {
+        return symbolValueCache;
+    }
+
     public IDGenerator getTableIdGenerator() {
         return tableIdGenerator;
     }
@@ -686,6 +732,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return telemetryWal;
     }
 
+    public @Nullable TieredPartitionCache getTieredPartitionCache() {
+        return tieredPartitionCache;
+    }
+
     public long getUnpublishedWalTxnCount() {
         return unpublishedWalTxnCount.get();
     }
@@ -754,6 +804,29 @@ public class CairoEngine implements Closeable, WriterSource {
         return tableNameRegistry.isTableDropped(tableToken);
     }
 
+    /**
+     * Checks whether a query compiled against the given tables is out of date. That is the case
+     * when any of the tables has been dropped or renamed, or its metadata has changed after
+     * the DDL version was read.
+     *
+     * @param tableTokens tables the query was compiled against
+     * @param ddlVersion  value of {@link #getDdlVersion()} read before the query was compiled
+     * @return true if the compiled query must not be reused
+     */
+    public boolean isTableMetadataChanged(ObjList<TableToken> tableTokens, long ddlVersion) {
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            final TableToken tableToken = tableTokens.getQuick(i);
+            if (!tableToken.equals(getTableTokenIfExists(tableToken.getTableName()))) {
+                return true;
+            }
+            final Long changeVersion = metadataChangeVersions.get(tableToken.getDirName());
+            if (changeVersion != null && changeVersion > ddlVersion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isWalTable(TableToken tableToken) {
         return tableToken.isWal();
     }
@@ -762,6 +835,7 @@ public class CairoEngine implements Closeable, WriterSource {
         // Convert tables to WAL/non-WAL, if necessary.
         final ObjList<TableToken> convertedTables = TableConverter.convertTables(configuration, tableSequencerAPI, protectedTableResolver);
         tableNameRegistry.reload(convertedTables);
+        matViewRegistry.reload();
     }
 
     public String lockAll(TableToken tableToken, String lockReason, boolean ignoreSnapshots) {
@@ -847,6 +921,7 @@ public class CairoEngine implements Closeable, WriterSource {
 
     public void notifyDropped(TableToken tableToken) {
         tableNameRegistry.dropTable(tableToken);
+        metadataChangeVersions.remove(tableToken.getDirName());
     }
 
     public void notifyWalTxnCommitted(@NotNull TableToken tableToken) {
@@ -931,6 +1006,7 @@ public class CairoEngine implements Closeable, WriterSource {
     @TestOnly
     public void reloadTableNames(@Nullable ObjList<TableToken> convertedTables) {
         tableNameRegistry.reload(convertedTables);
+        matViewRegistry.reload();
     }
 
     public void removeTableToken(TableToken tableToken) {
@@ -1397,6 +1473,39 @@ public class CairoEngine implements Closeable, WriterSource {
         return EMPTY_RESOLVER;
     }
 
+    private class EngineDdlListener implements DdlListener {
+
+        @Override
+        public void onColumnAdded(SecurityContext securityContext, TableToken tableToken, CharSequence columnName) {
+            listenerFor(tableToken).onColumnAdded(securityContext, tableToken, columnName);
+        }
+
+        @Override
+        public void onColumnRenamed(SecurityContext securityContext, TableToken tableToken, CharSequence oldColumnName, CharSequence newColumnName) {
+            listenerFor(tableToken).onColumnRenamed(securityContext, tableToken, oldColumnName, newColumnName);
+        }
+
+        @Override
+        public void onTableCreated(SecurityContext securityContext, TableToken tableToken) {
+            listenerFor(tableToken).onTableCreated(securityContext, tableToken);
+        }
+
+        @Override
+        public void onTableMetadataChanged(TableToken tableToken) {
+            metadataChangeVersions.put(tableToken.getDirName(), ddlVersion.incrementAndGet());
+            listenerFor(tableToken).onTableMetadataChanged(tableToken);
+        }
+
+        @Override
+        public void onTableRenamed(SecurityContext securityContext, TableToken oldTableToken, TableToken newTableToken) {
+            listenerFor(oldTableToken).onTableRenamed(securityContext, oldTableToken, newTableToken);
+        }
+
+        private DdlListener listenerFor(TableToken tableToken) {
+            return isSysTable(tableToken) ? DefaultDdlListener.INSTANCE : ddlListener;
+        }
+    }
+
     private class EngineMaintenanceJob extends SynchronizedJob {
 
         private final long checkInterval;
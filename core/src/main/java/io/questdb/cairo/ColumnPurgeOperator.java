@@ -292,6 +292,31 @@ public class ColumnPurgeOperator implements Closeable {
 
                 LOG.info().$("purging [path=").$(path).I$();
 
+                if (ZoneMap.isSupported(columnType)) {
+                    // remove zone map ahead of the column file, purge is retried
+                    // until column file is gone
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.zoneMapFileName(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.dFile(path, columnName, columnVersion);
+                }
+
+                if (BloomIndex.isSupported(columnType)) {
+                    // same as zone map, bloom index goes ahead of the column file
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.bloomIndexFileName(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.dFile(path, columnName, columnVersion);
+                }
+
                 // No readers looking at the column version, files can be deleted
                 if (couldNotRemove(ff, path)) {
                     allDone = false;
@@ -339,6 +364,13 @@ public class ColumnPurgeOperator implements Closeable {
                         allDone = false;
                         continue;
                     }
+
+                    path.trimTo(pathTrimToPartition);
+                    PostingIndexUtils.postingFileName(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
                 }
                 completedRowIds.add(updateRowId);
             }
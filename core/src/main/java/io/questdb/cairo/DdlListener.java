@@ -8,5 +8,7 @@ public interface DdlListener {
 
     void onTableCreated(SecurityContext securityContext, TableToken tableToken);
 
+    void onTableMetadataChanged(TableToken tableToken);
+
     void onTableRenamed(SecurityContext securityContext, TableToken oldTableToken, TableToken newTableToken);
 }
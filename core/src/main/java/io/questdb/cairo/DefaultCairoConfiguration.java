@@ -35,6 +35,7 @@ import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.LongSupplier;
 
@@ -45,6 +46,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final long databaseIdHi;
     private final long databaseIdLo;
     private final LongSupplier importIDSupplier = () -> getRandom().nextPositiveLong();
+    private final CharSequence partitionTieringCacheRoot;
     private final String root;
     private final CharSequence snapshotRoot;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
@@ -57,6 +59,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.partitionTieringCacheRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.TIERING_CACHE_DIRECTORY);
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -474,11 +477,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 50 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getPartitionParquetAge() {
+        return 0;
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return 64;
     }
 
+    @Override
+    public long getPartitionTieringAge() {
+        return 0;
+    }
+
+    @Override
+    public @NotNull CharSequence getPartitionTieringCacheRoot() {
+        return partitionTieringCacheRoot;
+    }
+
+    @Override
+    public long getPartitionTieringCacheSize() {
+        return Numbers.SIZE_1GB;
+    }
+
+    @Override
+    public @Nullable CharSequence getPartitionTieringRoot() {
+        return null;
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return 8;
@@ -519,6 +547,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0;
     }
 
+    @Override
+    public long getSharedSymbolCacheSize() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public boolean getSimulateCrashEnabled() {
         return false;
@@ -891,6 +924,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 75 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getWalMaxLagTime() {
+        return -1;
+    }
+
     @Override
     public int getWalMaxLagTxnCount() {
         return 20;
@@ -1010,6 +1048,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPostingIndexEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
@@ -1040,6 +1083,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -1050,6 +1108,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyHighPriority() {
+        return true;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
@@ -1060,6 +1123,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return writerMixedIOEnabled;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return true;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
@@ -15,6 +15,10 @@ public class DefaultDdlListener implements DdlListener {
     public void onTableCreated(SecurityContext securityContext, TableToken tableToken) {
     }
 
+    @Override
+    public void onTableMetadataChanged(TableToken tableToken) {
+    }
+
     @Override
     public void onTableRenamed(SecurityContext securityContext, TableToken oldTableToken, TableToken newTableToken) {
 
@@ -38,17 +38,20 @@ import io.questdb.std.str.Path;
 /**
  * Rebuild index independently of TableWriter
  * Main purpose is for support cases when table data is corrupt and TableWriter cannot be opened
+ * Rebuilds both bitmap indexes of symbol columns and bloom indexes
  */
 public class IndexBuilder extends RebuildColumnBase {
     private static final Log LOG = LogFactory.getLog(IndexBuilder.class);
     private final MemoryMAR ddlMem;
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final SymbolColumnIndexer indexer;
+    private final PostingIndexWriter postingIndexWriter;
 
     public IndexBuilder(CairoConfiguration configuration) {
         super(configuration);
         ddlMem = Vm.getMARInstance(configuration.getCommitMode());
         indexer = new SymbolColumnIndexer(configuration);
+        postingIndexWriter = configuration.isPostingIndexEnabled() ? new PostingIndexWriter(configuration) : null;
         unsupportedColumnMessage = "Column is not indexed";
     }
 
@@ -65,6 +68,39 @@ public class IndexBuilder extends RebuildColumnBase {
     public void close() {
         super.close();
         Misc.free(indexer);
+        Misc.free(postingIndexWriter);
+    }
+
+    @Override
+    public void reindexColumn(
+            FilesFacade ff,
+            ColumnVersionReader columnVersionReader,
+            RecordMetadata metadata,
+            int columnIndex,
+            long partitionNameTxn,
+            long partitionTimestamp,
+            int partitionBy,
+            long partitionSize
+    ) {
+        if (isColumnBloomIndexed(metadata, columnIndex)) {
+            rebuildBloomIndex(
+                    ff,
+                    columnVersionReader,
+                    metadata.getWriterIndex(columnIndex),
+                    metadata.getColumnName(columnIndex),
+                    metadata.getColumnType(columnIndex),
+                    partitionNameTxn,
+                    partitionSize,
+                    partitionTimestamp,
+                    partitionBy
+            );
+        } else {
+            super.reindexColumn(ff, columnVersionReader, metadata, columnIndex, partitionNameTxn, partitionTimestamp, partitionBy, partitionSize);
+        }
+    }
+
+    private static boolean isColumnBloomIndexed(RecordMetadata metadata, int columnIndex) {
+        return metadata instanceof TableReaderMetadata && ((TableReaderMetadata) metadata).isColumnBloomIndexed(columnIndex);
     }
 
     private void createIndexFiles(FilesFacade ff, CharSequence columnName, int indexValueBlockCapacity, int plen, long columnNameTxn) {
@@ -102,6 +138,40 @@ public class IndexBuilder extends RebuildColumnBase {
         }
     }
 
+    private void rebuildBloomIndex(
+            FilesFacade ff,
+            ColumnVersionReader columnVersionReader,
+            int columnWriterIndex,
+            CharSequence columnName,
+            int columnType,
+            long partitionNameTxn,
+            long partitionSize,
+            long partitionTimestamp,
+            int partitionBy
+    ) {
+        final int trimTo = path.size();
+        TableUtils.setPathForPartition(path, partitionBy, partitionTimestamp, partitionNameTxn);
+        try {
+            if (ff.exists(path.$())) {
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, columnWriterIndex);
+                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, columnWriterIndex);
+                if (columnTop > -1L) {
+                    LOG.info().$("building bloom index [path=").$(path).$(", column=").utf8(columnName).I$();
+                    // builder is owned by long-lived compilers, so bloom index buffers are not kept between rebuilds
+                    try (BloomIndex bloomIndex = new BloomIndex()) {
+                        bloomIndex.write(ff, path, columnName, columnNameTxn, columnType, columnTop, partitionSize);
+                    }
+                } else {
+                    LOG.info().$("column is empty in partition [path=").$(path).I$();
+                }
+            } else {
+                LOG.info().$("partition does not exist [path=").$(path).I$();
+            }
+        } finally {
+            path.trimTo(trimTo);
+        }
+    }
+
     private void removeFile(FilesFacade ff, Path path) {
         LOG.info().$("deleting ").$(path).$();
         if (!ff.removeQuiet(this.path)) {
@@ -122,6 +192,9 @@ public class IndexBuilder extends RebuildColumnBase {
 
         BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName, columnNameTxn);
         removeFile(ff, path);
+
+        PostingIndexUtils.postingFileName(path.trimTo(plen), columnName, columnNameTxn);
+        removeFile(ff, path);
     }
 
     protected void doReindex(
@@ -166,6 +239,9 @@ public class IndexBuilder extends RebuildColumnBase {
                             } finally {
                                 indexer.clear();
                             }
+                            if (postingIndexWriter != null) {
+                                postingIndexWriter.write(path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                            }
                         }
                     } else {
                         LOG.info().$("column is empty in partition [path=").$(path).I$();
@@ -181,6 +257,6 @@ public class IndexBuilder extends RebuildColumnBase {
 
     @Override
     protected boolean isSupportedColumn(RecordMetadata metadata, int columnIndex) {
-        return metadata.isColumnIndexed(columnIndex);
+        return metadata.isColumnIndexed(columnIndex) || isColumnBloomIndexed(metadata, columnIndex);
     }
 }
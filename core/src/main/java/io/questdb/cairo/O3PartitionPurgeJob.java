@@ -33,9 +33,12 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8String;
 import io.questdb.std.str.Utf8StringSink;
 import io.questdb.std.str.Utf8s;
 import io.questdb.tasks.O3PartitionPurgeTask;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -50,6 +53,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
     private final AtomicBoolean halted = new AtomicBoolean(false);
     private final ObjList<DirectLongList> partitionList;
     private final DatabaseSnapshotAgent snapshotAgent;
+    private final Utf8String tieringRoot;
     private final ObjList<TxReader> txnReaders;
     private final ObjList<TxnScoreboard> txnScoreboards;
 
@@ -61,6 +65,8 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
         this.partitionList = new ObjList<>(workerCount);
         this.txnScoreboards = new ObjList<>(workerCount);
         this.txnReaders = new ObjList<>(workerCount);
+        final CharSequence tieringRoot = configuration.getPartitionTieringRoot();
+        this.tieringRoot = tieringRoot != null ? new Utf8String(tieringRoot) : null;
 
         for (int i = 0; i < workerCount; i++) {
             fileNameSinks[i] = new Utf8StringSink();
@@ -123,6 +129,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
 
     private static void processDetachedPartition(
             FilesFacade ff,
+            @Nullable Utf8Sequence tieringRoot,
             Path path,
             int tableRootLen,
             TxReader txReader,
@@ -152,7 +159,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                 // -1 here is to compensate +1 added when partition version parsed from folder name
                 // See comments of why +1 added there in parsePartitionDateVersion()
                 LOG.info().$("purging dropped partition directory [path=").$(path).I$();
-                ff.unlinkOrRemove(path, LOG);
+                TableUtils.removePartitionDir(ff, path, tieringRoot, LOG);
                 lastTxn = nameTxn;
             } else {
                 LOG.info().$("cannot purge partition directory, locked for reading [path=").$(path).I$();
@@ -163,6 +170,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
 
     private static void processPartition(
             FilesFacade ff,
+            @Nullable Utf8Sequence tieringRoot,
             Path path,
             int tableRootLen,
             TxReader txReader,
@@ -177,6 +185,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
         if (partitionInTxnFile) {
             processPartition0(
                     ff,
+                    tieringRoot,
                     path,
                     tableRootLen,
                     txReader,
@@ -190,6 +199,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
         } else {
             processDetachedPartition(
                     ff,
+                    tieringRoot,
                     path,
                     tableRootLen,
                     txReader,
@@ -205,6 +215,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
 
     private static void processPartition0(
             FilesFacade ff,
+            @Nullable Utf8Sequence tieringRoot,
             Path path,
             int tableRootLen,
             TxReader txReader,
@@ -237,7 +248,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                     // -1 here is to compensate +1 added when partition version parsed from folder name
                     // See comments of why +1 added there in parsePartitionDateVersion()
                     LOG.info().$("purging overwritten partition directory [path=").$(path).I$();
-                    ff.unlinkOrRemove(path, LOG);
+                    TableUtils.removePartitionDir(ff, path, tieringRoot, LOG);
                 } else {
                     LOG.info().$("cannot purge overwritten partition directory, locked for reading [path=").$(path).I$();
                 }
@@ -297,6 +308,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                             (i > 0 && txReader.findAttachedPartitionRawIndexByLoTimestamp(partitionTimestamp) < 0)) {
                         processPartition(
                                 ff,
+                                tieringRoot,
                                 path,
                                 tableRootLen,
                                 txReader,
@@ -316,6 +328,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             if (n > lo + 2 || txReader.getPartitionSizeByPartitionTimestamp(partitionTimestamp) < 0) {
                 processPartition(
                         ff,
+                        tieringRoot,
                         path,
                         tableRootLen,
                         txReader,
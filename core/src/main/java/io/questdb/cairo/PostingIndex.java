@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+
+/**
+ * Read access to posting index file, see {@link PostingIndexUtils} for the format.
+ * <p>
+ * Index readers are reloaded every time they are handed out by the table reader, so the mapping is
+ * kept between calls of {@link #of}. While the bitmap index header matches the mapped file, no file
+ * system calls are made. Otherwise, the file is mapped again only when its size or modification time
+ * changed. Posting index files are replaced by rename, so a mapped file is never modified in place.
+ */
+public class PostingIndex implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PostingIndex.class);
+    private final Utf8StringSink fileName = new Utf8StringSink();
+    private final MemoryMR mem = Vm.getMRInstance();
+    private long fileModified = -1;
+    private long fileSize = -1;
+    private int keyCount;
+    private long maxValue;
+    private long nullCount;
+    private boolean valid;
+    private long valueMemSize;
+
+    public static int getBlockValueCount(long valueCount, long block) {
+        return (int) Math.min(PostingIndexUtils.BLOCK_VALUE_COUNT, valueCount - block * PostingIndexUtils.BLOCK_VALUE_COUNT);
+    }
+
+    @Override
+    public void close() {
+        mem.close();
+        keyCount = 0;
+        fileName.clear();
+        fileModified = -1;
+        fileSize = -1;
+        valid = false;
+    }
+
+    public void decodeBlock(long skipTableOffset, long block, int count, long[] values) {
+        final long skipEntryOffset = skipTableOffset + block * PostingIndexUtils.SKIP_ENTRY_SIZE;
+        PostingIndexUtils.decodeBlock(
+                mem.addressOf(mem.getLong(skipEntryOffset + PostingIndexUtils.SKIP_ENTRY_OFFSET_BLOCK_OFFSET)),
+                mem.getLong(skipEntryOffset + PostingIndexUtils.SKIP_ENTRY_OFFSET_FIRST_VALUE),
+                count,
+                values
+        );
+    }
+
+    /**
+     * Finds the first block, which has values greater or equal to minValue.
+     *
+     * @return block index or blockCount when there is no such block
+     */
+    public long findBlockLTR(long skipTableOffset, long blockCount, long minValue) {
+        long lo = 0;
+        long hi = blockCount;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (mem.getLong(skipTableOffset + mid * PostingIndexUtils.SKIP_ENTRY_SIZE + PostingIndexUtils.SKIP_ENTRY_OFFSET_LAST_VALUE) < minValue) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the last block, which has values less or equal to maxValue.
+     *
+     * @return block index or -1 when there is no such block
+     */
+    public long findBlockRTL(long skipTableOffset, long blockCount, long maxValue) {
+        long lo = 0;
+        long hi = blockCount;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (mem.getLong(skipTableOffset + mid * PostingIndexUtils.SKIP_ENTRY_SIZE + PostingIndexUtils.SKIP_ENTRY_OFFSET_FIRST_VALUE) <= maxValue) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    public long getBlockCount(int key) {
+        return mem.getLong(PostingIndexUtils.getKeyEntryOffset(key) + PostingIndexUtils.KEY_ENTRY_OFFSET_BLOCK_COUNT);
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public long getSkipTableOffset(int key) {
+        return mem.getLong(PostingIndexUtils.getKeyEntryOffset(key) + PostingIndexUtils.KEY_ENTRY_OFFSET_SKIP_TABLE_OFFSET);
+    }
+
+    public long getValueCount(int key) {
+        return mem.getLong(PostingIndexUtils.getKeyEntryOffset(key) + PostingIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT);
+    }
+
+    public boolean isOpen() {
+        return valid;
+    }
+
+    /**
+     * Opens posting index if it exists and was built from the current state of the bitmap index.
+     *
+     * @param path        partition path, left unchanged
+     * @param bitmapIndex open bitmap index of the same column version
+     * @return true when posting index can be used instead of the bitmap index
+     */
+    public boolean of(FilesFacade ff, Path path, CharSequence name, long columnNameTxn, AbstractIndexReader bitmapIndex) {
+        final int plen = path.size();
+        try {
+            final LPSZ fileName = PostingIndexUtils.postingFileName(path, name, columnNameTxn);
+            if (valid && Utf8s.equals(this.fileName, fileName) && matches(bitmapIndex)) {
+                // bitmap index did not change since the file was mapped
+                return true;
+            }
+
+            // the writer replaces posting index by rename, size and modification time tell us if the file is a new one
+            final long fileSize = ff.length(fileName);
+            if (fileSize < 0) {
+                close();
+                return false;
+            }
+            final long fileModified = ff.getLastModified(fileName);
+            if (fileSize != this.fileSize || fileModified != this.fileModified || !Utf8s.equals(this.fileName, fileName)) {
+                close();
+                mem.wholeFile(ff, fileName, MemoryTag.MMAP_INDEX_READER);
+                this.fileName.put(fileName);
+                this.fileSize = fileSize;
+                this.fileModified = fileModified;
+                if (mem.size() < PostingIndexUtils.HEADER_SIZE || mem.getByte(PostingIndexUtils.HEADER_OFFSET_SIGNATURE) != PostingIndexUtils.SIGNATURE) {
+                    // never matches bitmap index
+                    keyCount = -1;
+                    return false;
+                }
+                maxValue = mem.getLong(PostingIndexUtils.HEADER_OFFSET_MAX_VALUE);
+                valueMemSize = mem.getLong(PostingIndexUtils.HEADER_OFFSET_VALUE_MEM_SIZE);
+                nullCount = mem.getLong(PostingIndexUtils.HEADER_OFFSET_NULL_COUNT);
+                keyCount = mem.getInt(PostingIndexUtils.HEADER_OFFSET_KEY_COUNT);
+            }
+            valid = matches(bitmapIndex);
+            return valid;
+        } catch (CairoException e) {
+            // posting index is optional, bitmap index is used instead
+            LOG.error().$("could not open posting index [path=").$(path).$(", msg=").$(e.getFlyweightMessage()).$(", errno=").$(e.getErrno()).I$();
+            close();
+            return false;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private boolean matches(AbstractIndexReader bitmapIndex) {
+        return maxValue == bitmapIndex.getMaxValue()
+                && valueMemSize == bitmapIndex.getValueMemorySizeFromHeader()
+                && nullCount == bitmapIndex.getUnIndexedNullCount()
+                && keyCount == bitmapIndex.getKeyCount();
+    }
+}
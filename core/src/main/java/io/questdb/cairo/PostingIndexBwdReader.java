@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Backward counterpart of {@link PostingIndexFwdReader}. Unlike the bitmap index, which follows links
+ * between value blocks, it jumps to the last block of interest via the skip table.
+ * Cursors returned by this class are not thread-safe.
+ */
+public class PostingIndexBwdReader extends BitmapIndexBwdReader {
+    private final PostingCursor cursor = new PostingCursor();
+    private final PostingIndex postingIndex = new PostingIndex();
+
+    public PostingIndexBwdReader(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            long unIndexedNullCount
+    ) {
+        of(configuration, path, name, columnNameTxn, unIndexedNullCount);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(postingIndex);
+    }
+
+    @Override
+    public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
+        if (postingIndex.isOpen() && key < postingIndex.getKeyCount()) {
+            final PostingCursor cursor = cachedInstance ? this.cursor : new PostingCursor();
+            cursor.of(key, minValue, maxValue);
+            return cursor;
+        }
+        return super.getCursor(cachedInstance, key, minValue, maxValue);
+    }
+
+    public boolean isPostingIndexOpen() {
+        return postingIndex.isOpen();
+    }
+
+    @Override
+    public void of(CairoConfiguration configuration, Path path, CharSequence name, long columnNameTxn, long unIndexedNullCount) {
+        super.of(configuration, path, name, columnNameTxn, unIndexedNullCount);
+        postingIndex.of(configuration.getFilesFacade(), path, name, columnNameTxn, this);
+    }
+
+    private class PostingCursor implements RowCursor {
+        private final long[] values = new long[PostingIndexUtils.BLOCK_VALUE_COUNT];
+        private long block;
+        private long minValue;
+        private long next;
+        private int position;
+        private long skipTableOffset;
+        private long valueCount;
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (position > 0) {
+                    final long value = values[--position];
+                    if (value < minValue) {
+                        block = 0;
+                        position = 0;
+                        return false;
+                    }
+                    next = value;
+                    return true;
+                }
+                if (--block < 0) {
+                    return false;
+                }
+                position = decode();
+            }
+        }
+
+        @Override
+        public long next() {
+            return next;
+        }
+
+        private int decode() {
+            final int count = PostingIndex.getBlockValueCount(valueCount, block);
+            postingIndex.decodeBlock(skipTableOffset, block, count, values);
+            return count;
+        }
+
+        void of(int key, long minValue, long maxValue) {
+            this.minValue = minValue;
+            valueCount = postingIndex.getValueCount(key);
+            skipTableOffset = postingIndex.getSkipTableOffset(key);
+            block = postingIndex.findBlockRTL(skipTableOffset, postingIndex.getBlockCount(key), maxValue);
+            if (block > -1) {
+                position = decode();
+                while (values[position - 1] > maxValue) {
+                    position--;
+                }
+            } else {
+                position = 0;
+            }
+        }
+    }
+}
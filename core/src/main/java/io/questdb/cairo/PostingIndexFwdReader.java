@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Reads row ids from posting index when it is in sync with the bitmap index, and from the bitmap
+ * index otherwise. Raw memory accessors and frame cursors always refer to the bitmap index.
+ * Cursors returned by this class are not thread-safe.
+ */
+public class PostingIndexFwdReader extends BitmapIndexFwdReader {
+    private final PostingCursor cursor = new PostingCursor();
+    private final PostingIndex postingIndex = new PostingIndex();
+
+    public PostingIndexFwdReader(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            long unIndexedNullCount
+    ) {
+        of(configuration, path, name, columnNameTxn, unIndexedNullCount);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(postingIndex);
+    }
+
+    @Override
+    public RowCursor getCursor(boolean cachedInstance, int key, long minValue, long maxValue) {
+        if (postingIndex.isOpen() && key < postingIndex.getKeyCount()) {
+            final PostingCursor cursor = cachedInstance ? this.cursor : new PostingCursor();
+            cursor.of(key, minValue, maxValue);
+            return cursor;
+        }
+        return super.getCursor(cachedInstance, key, minValue, maxValue);
+    }
+
+    public boolean isPostingIndexOpen() {
+        return postingIndex.isOpen();
+    }
+
+    @Override
+    public void of(CairoConfiguration configuration, Path path, CharSequence name, long columnNameTxn, long unIndexedNullCount) {
+        super.of(configuration, path, name, columnNameTxn, unIndexedNullCount);
+        postingIndex.of(configuration.getFilesFacade(), path, name, columnNameTxn, this);
+    }
+
+    private class PostingCursor implements RowCursor {
+        private final long[] values = new long[PostingIndexUtils.BLOCK_VALUE_COUNT];
+        private long block;
+        private long blockCount;
+        private int count;
+        private long maxValue;
+        private long next;
+        private int position;
+        private long skipTableOffset;
+        private long valueCount;
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (position < count) {
+                    final long value = values[position++];
+                    if (value > maxValue) {
+                        block = blockCount;
+                        count = 0;
+                        return false;
+                    }
+                    next = value;
+                    return true;
+                }
+                if (++block >= blockCount) {
+                    return false;
+                }
+                decode();
+            }
+        }
+
+        @Override
+        public long next() {
+            return next;
+        }
+
+        private void decode() {
+            count = PostingIndex.getBlockValueCount(valueCount, block);
+            postingIndex.decodeBlock(skipTableOffset, block, count, values);
+            position = 0;
+        }
+
+        void of(int key, long minValue, long maxValue) {
+            this.maxValue = maxValue;
+            valueCount = postingIndex.getValueCount(key);
+            blockCount = postingIndex.getBlockCount(key);
+            skipTableOffset = postingIndex.getSkipTableOffset(key);
+            // skip table takes us to the block, which holds minValue, the block is then scanned
+            block = postingIndex.findBlockLTR(skipTableOffset, blockCount, minValue);
+            if (block < blockCount) {
+                decode();
+                while (values[position] < minValue) {
+                    position++;
+                }
+            } else {
+                count = 0;
+                position = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+/**
+ * Posting index is a read-optimised copy of a bitmap index of a partition. The bitmap index stores row ids
+ * of a key as linked blocks of 8-byte values. Posting index stores them in blocks of up to
+ * {@link #BLOCK_VALUE_COUNT} values, where the first value of the block is kept in a skip table and the
+ * remaining values are deltas bit-packed to the width of the largest delta in the block. Consecutive row
+ * ids take no space at all.
+ * <p>
+ * File layout:
+ * <pre>
+ * header: signature, bitmap index max value, bitmap index value memory size, unindexed null count, key count
+ * key entries: value count, block count, offset of the skip table
+ * per key: packed blocks, followed by the skip table of (first value, last value, block offset) entries
+ * </pre>
+ * Posting index is derived from the bitmap index, header of which it copies. Readers use posting index only
+ * while the bitmap index header still matches, so appends, rollbacks and rebuilds of the bitmap index make
+ * the posting index stale rather than wrong.
+ * <p>
+ * Bitmap index files are kept next to the posting index. The writer appends to the bitmap index of the last
+ * partition, O3 appends to it in older partitions and rollbacks truncate it, none of which the packed format
+ * supports in place. Readers also fall back to the bitmap index while the posting index is stale, and their
+ * raw memory accessors and frame cursors always read it.
+ */
+public final class PostingIndexUtils {
+    public static final int BLOCK_VALUE_COUNT = 128;
+    public static final int HEADER_OFFSET_KEY_COUNT = 32;
+    public static final int HEADER_OFFSET_MAX_VALUE = 8;
+    public static final int HEADER_OFFSET_NULL_COUNT = 24;
+    public static final int HEADER_OFFSET_SIGNATURE = 0;
+    public static final int HEADER_OFFSET_VALUE_MEM_SIZE = 16;
+    public static final int HEADER_SIZE = 64;
+    public static final int KEY_ENTRY_OFFSET_BLOCK_COUNT = 8;
+    public static final int KEY_ENTRY_OFFSET_SKIP_TABLE_OFFSET = 16;
+    public static final int KEY_ENTRY_OFFSET_VALUE_COUNT = 0;
+    public static final int KEY_ENTRY_SIZE = 24;
+    public static final byte SIGNATURE = (byte) 0xfb;
+    public static final int SKIP_ENTRY_OFFSET_BLOCK_OFFSET = 16;
+    public static final int SKIP_ENTRY_OFFSET_FIRST_VALUE = 0;
+    public static final int SKIP_ENTRY_OFFSET_LAST_VALUE = 8;
+    public static final int SKIP_ENTRY_SIZE = 24;
+    // wider deltas are stored as plain longs, so that a delta can always be read with a single unaligned load
+    private static final int MAX_PACKED_BIT_WIDTH = 56;
+
+    private PostingIndexUtils() {
+    }
+
+    /**
+     * Decodes block of values.
+     *
+     * @param address    address of the packed block
+     * @param firstValue first value of the block from the skip table
+     * @param count      number of values in the block
+     * @param values     array to decode values into
+     */
+    public static void decodeBlock(long address, long firstValue, int count, long[] values) {
+        final int bitWidth = Unsafe.getUnsafe().getByte(address);
+        final long p = address + 1;
+        long value = firstValue;
+        values[0] = value;
+        if (bitWidth == 0) {
+            for (int i = 1; i < count; i++) {
+                values[i] = ++value;
+            }
+        } else if (bitWidth > MAX_PACKED_BIT_WIDTH) {
+            for (int i = 1; i < count; i++) {
+                value += Unsafe.getUnsafe().getLong(p + (long) (i - 1) * Long.BYTES) + 1;
+                values[i] = value;
+            }
+        } else {
+            final long mask = (1L << bitWidth) - 1;
+            long bit = 0;
+            for (int i = 1; i < count; i++) {
+                final long word = Unsafe.getUnsafe().getLong(p + (bit >>> 3));
+                value += ((word >>> (bit & 7)) & mask) + 1;
+                values[i] = value;
+                bit += bitWidth;
+            }
+        }
+    }
+
+    /**
+     * Appends block of values to the memory. Values must be in strictly ascending order.
+     *
+     * @param mem    memory to append the block to
+     * @param values values of the block
+     * @param count  number of values in the block
+     */
+    public static void encodeBlock(MemoryA mem, long[] values, int count) {
+        long deltaBits = 0;
+        for (int i = 1; i < count; i++) {
+            deltaBits |= values[i] - values[i - 1] - 1;
+        }
+        int bitWidth = 64 - Long.numberOfLeadingZeros(deltaBits);
+        if (bitWidth > MAX_PACKED_BIT_WIDTH) {
+            mem.putByte((byte) Long.SIZE);
+            for (int i = 1; i < count; i++) {
+                mem.putLong(values[i] - values[i - 1] - 1);
+            }
+            return;
+        }
+
+        mem.putByte((byte) bitWidth);
+        if (bitWidth > 0) {
+            // pending bits never exceed 7 before the next delta is added, so they fit in a long
+            long pending = 0;
+            int pendingBits = 0;
+            for (int i = 1; i < count; i++) {
+                pending |= (values[i] - values[i - 1] - 1) << pendingBits;
+                pendingBits += bitWidth;
+                while (pendingBits >= Byte.SIZE) {
+                    mem.putByte((byte) pending);
+                    pending >>>= Byte.SIZE;
+                    pendingBits -= Byte.SIZE;
+                }
+            }
+            if (pendingBits > 0) {
+                mem.putByte((byte) pending);
+            }
+        }
+    }
+
+    public static long getKeyEntryOffset(int key) {
+        return HEADER_SIZE + (long) key * KEY_ENTRY_SIZE;
+    }
+
+    public static Path postingFileName(Path path, CharSequence name, long columnNameTxn) {
+        path.concat(name).put(".pi");
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+}
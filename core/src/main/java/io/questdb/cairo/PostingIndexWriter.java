@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Builds posting index of a partition from its bitmap index, see {@link PostingIndexUtils} for the format.
+ * The file is written under a temporary name and then renamed, so that readers, which have the previous
+ * version mapped, are not affected.
+ */
+public class PostingIndexWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PostingIndexWriter.class);
+    private final BitmapIndexFwdReader bitmapIndexReader = new BitmapIndexFwdReader();
+    private final CairoConfiguration configuration;
+    private final MemoryMARW mem = Vm.getMARWInstance();
+    private final LongList skipTable = new LongList();
+    private final long[] values = new long[PostingIndexUtils.BLOCK_VALUE_COUNT];
+
+    public PostingIndexWriter(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(bitmapIndexReader);
+        mem.close(false);
+    }
+
+    /**
+     * Writes posting index of the column next to its bitmap index.
+     *
+     * @param path      partition path, left unchanged
+     * @param columnTop column top in the partition, rows above it are null
+     */
+    public void write(Path path, CharSequence name, long columnNameTxn, long columnTop) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int plen = path.size();
+        try {
+            bitmapIndexReader.of(configuration, path, name, columnNameTxn, columnTop);
+            final LPSZ fileName = PostingIndexUtils.postingFileName(path, name, columnNameTxn);
+            final Path tmpPath = Path.getThreadLocal2(path).put(".tmp").$();
+            ff.removeQuiet(tmpPath);
+            try {
+                mem.of(ff, tmpPath, configuration.getDataIndexValueAppendPageSize(), 0, MemoryTag.MMAP_INDEX_WRITER, configuration.getWriterFileOpenOpts());
+                writePostings();
+            } finally {
+                mem.close(true, Vm.TRUNCATE_TO_POINTER);
+                bitmapIndexReader.close();
+            }
+            if (ff.rename(tmpPath, fileName) != Files.FILES_RENAME_OK) {
+                ff.removeQuiet(tmpPath);
+                throw CairoException.critical(ff.errno()).put("could not rename posting index [from=").put(tmpPath).put(", to=").put(fileName).put(']');
+            }
+            LOG.debug().$("written posting index [path=").$(fileName).I$();
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void flushBlock(int count) {
+        skipTable.add(values[0]);
+        skipTable.add(values[count - 1]);
+        skipTable.add(mem.getAppendOffset());
+        PostingIndexUtils.encodeBlock(mem, values, count);
+    }
+
+    private void writePostings() {
+        final int keyCount = bitmapIndexReader.getKeyCount();
+        mem.jumpTo(PostingIndexUtils.getKeyEntryOffset(keyCount));
+        for (int key = 0; key < keyCount; key++) {
+            skipTable.clear();
+            long valueCount = 0;
+            int count = 0;
+            final RowCursor cursor = bitmapIndexReader.getCursor(true, key, 0, Long.MAX_VALUE);
+            while (cursor.hasNext()) {
+                values[count++] = cursor.next();
+                if (count == PostingIndexUtils.BLOCK_VALUE_COUNT) {
+                    flushBlock(count);
+                    valueCount += count;
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                flushBlock(count);
+                valueCount += count;
+            }
+
+            final long skipTableOffset = mem.getAppendOffset();
+            for (int i = 0, n = skipTable.size(); i < n; i++) {
+                mem.putLong(skipTable.getQuick(i));
+            }
+            final long keyEntryOffset = PostingIndexUtils.getKeyEntryOffset(key);
+            mem.putLong(keyEntryOffset + PostingIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT, valueCount);
+            // skip table entry is three longs
+            mem.putLong(keyEntryOffset + PostingIndexUtils.KEY_ENTRY_OFFSET_BLOCK_COUNT, skipTable.size() / 3);
+            mem.putLong(keyEntryOffset + PostingIndexUtils.KEY_ENTRY_OFFSET_SKIP_TABLE_OFFSET, skipTableOffset);
+        }
+
+        mem.putLong(PostingIndexUtils.HEADER_OFFSET_MAX_VALUE, bitmapIndexReader.getMaxValue());
+        mem.putLong(PostingIndexUtils.HEADER_OFFSET_VALUE_MEM_SIZE, bitmapIndexReader.getValueMemorySizeFromHeader());
+        mem.putLong(PostingIndexUtils.HEADER_OFFSET_NULL_COUNT, bitmapIndexReader.getUnIndexedNullCount());
+        mem.putInt(PostingIndexUtils.HEADER_OFFSET_KEY_COUNT, keyCount);
+        mem.putByte(PostingIndexUtils.HEADER_OFFSET_SIGNATURE, PostingIndexUtils.SIGNATURE);
+    }
+}
@@ -47,6 +47,8 @@ public interface SecurityContext {
 
     void authorizeAlterTableAttachPartition(TableToken tableToken);
 
+    void authorizeAlterTableConvertPartition(TableToken tableToken);
+
     void authorizeAlterTableDedupDisable(TableToken tableToken);
 
     void authorizeAlterTableDedupEnable(TableToken tableToken);
@@ -69,6 +71,9 @@ public interface SecurityContext {
 
     void authorizeCopyCancel(SecurityContext cancellingSecurityContext);
 
+    // COPY ... TO writes files to the server's file system
+    void authorizeCopyExport();
+
     void authorizeDatabaseSnapshot();
 
     void authorizeHttp();
@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -56,8 +57,13 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private int maxHash;
     private long maxOffset;
     private boolean nullValue;
+    // engine-wide cache, used instead of the private one when reader is pooled
+    private SymbolValueCache.Entry sharedCache;
+    private long sharedCacheHits;
     private int symbolCapacity;
     private int symbolCount;
+    private SymbolValueCache symbolValueCache;
+    private TableToken tableToken;
 
     public SymbolMapReaderImpl() {
     }
@@ -66,11 +72,24 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         of(configuration, path, name, columnNameTxn, symbolCount);
     }
 
+    public SymbolMapReaderImpl(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolValueCache symbolValueCache,
+            TableToken tableToken
+    ) {
+        of(configuration, path, name, columnNameTxn, symbolCount, symbolValueCache, tableToken);
+    }
+
     @Override
     public void close() {
         Misc.free(indexReader);
         Misc.free(charMem);
         this.cache.clear();
+        releaseSharedCache();
         int fd = this.offsetMem.getFd();
         Misc.free(offsetMem);
         Misc.free(path);
@@ -84,6 +103,15 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
 
     @TestOnly
     public int getCacheSize() {
+        if (sharedCache != null) {
+            int size = 0;
+            for (int i = 0; i < symbolCount; i++) {
+                if (sharedCache.get(i) != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
         return cache.size();
     }
 
@@ -132,8 +160,23 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     }
 
     public void of(CairoConfiguration configuration, Path path, CharSequence columnName, long columnNameTxn, int symbolCount) {
+        of(configuration, path, columnName, columnNameTxn, symbolCount, null, null);
+    }
+
+    public void of(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolValueCache symbolValueCache,
+            TableToken tableToken
+    ) {
         FilesFacade ff = configuration.getFilesFacade();
+        releaseSharedCache();
         this.configuration = configuration;
+        this.symbolValueCache = symbolValueCache;
+        this.tableToken = tableToken;
         this.path.of(path);
         this.columnNameSink.clear();
         this.columnNameSink.put(columnName);
@@ -181,7 +224,11 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // we use 4 cells to compensate for occasionally unlucky hash distribution
             this.maxHash = Math.max(Numbers.ceilPow2(symbolCapacity / 2) - 1, 1);
             if (cached) {
-                this.cache.setPos(symbolCapacity);
+                if (symbolValueCache != null) {
+                    this.sharedCache = symbolValueCache.acquire(tableToken, columnName, columnNameTxn, offsetMem.getLong(SymbolMapWriter.HEADER_TRUNCATE_VERSION));
+                } else {
+                    this.cache.setPos(symbolCapacity);
+                }
             }
             this.cache.clear();
             LOG.debug().$("open [columnName=").$(path.trimTo(plen).concat(columnName).$()).$(", fd=").$(this.offsetMem.getFd()).$(", capacity=").$(symbolCapacity).$(']').$();
@@ -204,9 +251,20 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             this.offsetMem.extend(maxOffset + Long.BYTES);
             this.charMem.extend(this.offsetMem.getLong(maxOffset));
         } else if (symbolCount < this.symbolCount) {
-            cache.remove(symbolCount + 1, this.symbolCount);
+            if (sharedCache != null) {
+                final long truncateVersion = offsetMem.getLong(SymbolMapWriter.HEADER_TRUNCATE_VERSION);
+                if (truncateVersion != sharedCache.getTruncateVersion()) {
+                    releaseSharedCache();
+                    sharedCache = symbolValueCache.acquire(tableToken, columnNameSink, columnNameTxn, truncateVersion);
+                } else {
+                    sharedCache.truncate(symbolCount);
+                }
+            } else {
+                cache.remove(symbolCount + 1, this.symbolCount);
+            }
             this.symbolCount = symbolCount;
         }
+        flushSharedCacheHits();
         // Refresh index reader to avoid memory remapping on keyOf() calls.
         this.indexReader.of(configuration, path, columnNameSink, columnNameTxn, 0);
     }
@@ -234,6 +292,14 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     }
 
     private CharSequence cachedValue(int key) {
+        if (sharedCache != null) {
+            final String symbol = sharedCache.get(key);
+            if (symbol != null) {
+                sharedCacheHits++;
+                return symbol;
+            }
+            return fetchAndCacheShared(key);
+        }
         final String symbol = cache.getQuiet(key);
         return symbol != null ? symbol : fetchAndCache(key);
     }
@@ -246,6 +312,29 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return symbol;
     }
 
+    private CharSequence fetchAndCacheShared(int key) {
+        final CharSequence cs = uncachedValue(key);
+        assert cs != null;
+        final String symbol = Chars.toString(cs);
+        sharedCache.put(key, symbol);
+        return symbol;
+    }
+
+    private void flushSharedCacheHits() {
+        if (sharedCacheHits > 0) {
+            symbolValueCache.addHits(sharedCacheHits);
+            sharedCacheHits = 0;
+        }
+    }
+
+    private void releaseSharedCache() {
+        if (sharedCache != null) {
+            flushSharedCacheHits();
+            symbolValueCache.release(sharedCache);
+            sharedCache = null;
+        }
+    }
+
     private CharSequence uncachedValue(int key) {
         return charMem.getStr(offsetMem.getLong(SymbolMapWriter.keyToOffset(key)));
     }
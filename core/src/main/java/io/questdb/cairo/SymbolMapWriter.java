@@ -45,6 +45,8 @@ public class SymbolMapWriter implements Closeable, MapWriter {
     public static final int HEADER_CAPACITY = 0;
     public static final int HEADER_NULL_FLAG = 8;
     public static final int HEADER_SIZE = 64;
+    // incremented each time symbol map is truncated, keys of truncated map are reused for different values
+    public static final int HEADER_TRUNCATE_VERSION = 16;
     private static final Log LOG = LogFactory.getLog(SymbolMapWriter.class);
     private final CharSequenceIntHashMap cache;
     private final MemoryMARW charMem;
@@ -245,9 +247,11 @@ public class SymbolMapWriter implements Closeable, MapWriter {
     @Override
     public void truncate() {
         final int symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
+        final long truncateVersion = offsetMem.getLong(HEADER_TRUNCATE_VERSION);
         offsetMem.truncate();
         offsetMem.putInt(HEADER_CAPACITY, symbolCapacity);
         offsetMem.putBool(HEADER_CACHE_ENABLED, isCached());
+        offsetMem.putLong(HEADER_TRUNCATE_VERSION, truncateVersion + 1);
         updateNullFlag(false);
         offsetMem.jumpTo(keyToOffset(0) + Long.BYTES);
         charMem.truncate();
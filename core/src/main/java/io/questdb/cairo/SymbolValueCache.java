@@ -0,0 +1,327 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Chars;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine-wide cache of decoded symbol values, shared by pooled table readers. Without it, every
+ * reader of a table keeps its own copy of the cached symbol dictionary, so memory grows with
+ * the reader pool size.
+ * <p>
+ * Entries are keyed by table, column, column name txn and symbol map truncate version, so that
+ * a dropped, re-created or truncated column never sees values of its predecessor. Entries are
+ * reference counted by readers. When the memory budget is exceeded, the least recently used
+ * entries are cleared, unreferenced ones first. Entries are kept in two access ordered lists,
+ * one for referenced and one for unreferenced entries, so that a victim is found in constant
+ * time. Values that do not fit the budget are still returned to the reader, they are just not
+ * cached.
+ * <p>
+ * Values are read without locking. They are immutable strings, so a racy read either sees
+ * a fully constructed value or null, and null is treated as a cache miss.
+ */
+public class SymbolValueCache {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long CHUNK_OVERHEAD = 16 + (long) CHUNK_SIZE * Long.BYTES;
+    private static final String[][] EMPTY_CHUNKS = new String[0][];
+    private static final Log LOG = LogFactory.getLog(SymbolValueCache.class);
+    // rough heap footprint of a string, excluding its chars
+    private static final long STRING_OVERHEAD = 56;
+    private final long budget;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final StringSink keySink = new StringSink();
+    private final SymbolCacheMetrics metrics;
+    // least recently used entries are at the head of the lists
+    private final EntryList referenced = new EntryList();
+    private final AtomicLong totalMemoryUsed = new AtomicLong();
+    private final EntryList unreferenced = new EntryList();
+
+    public SymbolValueCache(long budget, SymbolCacheMetrics metrics) {
+        this.budget = budget;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns cache entry for the given symbol column, creating it when necessary. Entry must be
+     * returned via {@link #release(Entry)} when reader no longer needs it.
+     */
+    public synchronized Entry acquire(TableToken tableToken, CharSequence columnName, long columnNameTxn, long truncateVersion) {
+        keySink.clear();
+        keySink.put(tableToken.getDirName()).put('/').put(tableToken.getTableId())
+                .put('/').put(columnName)
+                .put('/').put(columnNameTxn)
+                .put('/').put(truncateVersion);
+        final int index = entries.keyIndex(keySink);
+        Entry entry;
+        if (index < 0) {
+            entry = entries.valueAtQuick(index);
+            if (entry.refCount == 0) {
+                unreferenced.remove(entry);
+            } else {
+                referenced.remove(entry);
+            }
+        } else {
+            entry = new Entry(Chars.toString(keySink), truncateVersion);
+            entries.putAt(index, entry.key, entry);
+        }
+        entry.refCount++;
+        referenced.addLast(entry);
+        return entry;
+    }
+
+    public void addHits(long hits) {
+        metrics.addHits(hits);
+    }
+
+    /**
+     * Drops all cached values. Entries referenced by readers are kept, but they have to be
+     * populated again.
+     */
+    public synchronized void clear() {
+        final ObjList<CharSequence> keys = entries.keys();
+        for (int i = keys.size() - 1; i > -1; i--) {
+            final Entry entry = entries.get(keys.getQuick(i));
+            entry.clear();
+            if (entry.refCount == 0) {
+                unreferenced.remove(entry);
+                entries.remove(entry.key);
+            }
+        }
+    }
+
+    @TestOnly
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getMemoryUsed() {
+        return totalMemoryUsed.get();
+    }
+
+    public synchronized void release(Entry entry) {
+        assert entry.refCount > 0;
+        referenced.remove(entry);
+        if (--entry.refCount > 0) {
+            referenced.addLast(entry);
+        } else if (entry.isEmpty()) {
+            entries.remove(entry.key);
+        } else {
+            unreferenced.addLast(entry);
+        }
+    }
+
+    private static long sizeOf(String value) {
+        return STRING_OVERHEAD + 2L * value.length();
+    }
+
+    private void addMemory(long bytes) {
+        totalMemoryUsed.addAndGet(bytes);
+        metrics.addMemory(bytes);
+    }
+
+    // frees at least the given number of bytes, returns false when there is nothing left to evict
+    private synchronized boolean evict(long bytes, Entry requester) {
+        while (totalMemoryUsed.get() + bytes > budget) {
+            Entry victim = unreferenced.head;
+            if (victim != null) {
+                unreferenced.remove(victim);
+                entries.remove(victim.key);
+            } else {
+                // entries left empty by eviction or truncation are moved behind the ones
+                // holding values, so each of them is skipped at most once
+                for (int i = 0, n = referenced.size; i < n; i++) {
+                    final Entry entry = referenced.head;
+                    referenced.remove(entry);
+                    referenced.addLast(entry);
+                    if (entry != requester && !entry.isEmpty()) {
+                        victim = entry;
+                        break;
+                    }
+                }
+                if (victim == null) {
+                    return false;
+                }
+            }
+            LOG.debug().$("evicting symbol values [key=").$(victim.key).$(", memory=").$(victim.memoryUsed).I$();
+            victim.clear();
+            metrics.incrementEvictions();
+        }
+        return true;
+    }
+
+    public class Entry {
+        private final String key;
+        private final long truncateVersion;
+        private volatile String[][] chunks = EMPTY_CHUNKS;
+        // guarded by this entry
+        private long memoryUsed;
+        // guarded by the cache
+        private Entry next;
+        // guarded by the cache
+        private Entry prev;
+        // guarded by the cache
+        private int refCount;
+
+        private Entry(String key, long truncateVersion) {
+            this.key = key;
+            this.truncateVersion = truncateVersion;
+        }
+
+        /**
+         * Returns cached value or null when value is not cached.
+         */
+        public String get(int key) {
+            final String[][] chunks = this.chunks;
+            final int chunkIndex = key >>> CHUNK_BITS;
+            if (chunkIndex < chunks.length) {
+                final String[] chunk = chunks[chunkIndex];
+                if (chunk != null) {
+                    return chunk[key & CHUNK_MASK];
+                }
+            }
+            return null;
+        }
+
+        public long getTruncateVersion() {
+            return truncateVersion;
+        }
+
+        public void put(int key, String value) {
+            metrics.incrementMisses();
+            final long size = sizeOf(value) + CHUNK_OVERHEAD;
+            if (totalMemoryUsed.get() + size > budget && !evict(size, this)) {
+                return;
+            }
+
+            final long bytes;
+            synchronized (this) {
+                String[][] chunks = this.chunks;
+                final int chunkIndex = key >>> CHUNK_BITS;
+                if (chunkIndex >= chunks.length) {
+                    chunks = Arrays.copyOf(chunks, Math.max(chunkIndex + 1, chunks.length * 2));
+                }
+                String[] chunk = chunks[chunkIndex];
+                long added = 0;
+                if (chunk == null) {
+                    chunk = new String[CHUNK_SIZE];
+                    chunks[chunkIndex] = chunk;
+                    added += CHUNK_OVERHEAD;
+                }
+                final int index = key & CHUNK_MASK;
+                if (chunk[index] == null) {
+                    chunk[index] = value;
+                    added += sizeOf(value);
+                }
+                this.chunks = chunks;
+                this.memoryUsed += added;
+                bytes = added;
+            }
+            addMemory(bytes);
+        }
+
+        /**
+         * Removes values of keys at and above the given symbol count. Symbol keys are reused
+         * once symbol map shrinks, so these values cannot be trusted anymore.
+         */
+        public void truncate(int symbolCount) {
+            long removed = 0;
+            synchronized (this) {
+                final String[][] chunks = this.chunks;
+                for (int i = symbolCount >>> CHUNK_BITS, n = chunks.length; i < n; i++) {
+                    final String[] chunk = chunks[i];
+                    if (chunk != null) {
+                        for (int j = i == symbolCount >>> CHUNK_BITS ? symbolCount & CHUNK_MASK : 0; j < CHUNK_SIZE; j++) {
+                            if (chunk[j] != null) {
+                                removed += sizeOf(chunk[j]);
+                                chunk[j] = null;
+                            }
+                        }
+                    }
+                }
+                memoryUsed -= removed;
+            }
+            addMemory(-removed);
+        }
+
+        private void clear() {
+            final long removed;
+            synchronized (this) {
+                chunks = EMPTY_CHUNKS;
+                removed = memoryUsed;
+                memoryUsed = 0;
+            }
+            addMemory(-removed);
+        }
+
+        private synchronized boolean isEmpty() {
+            return memoryUsed == 0;
+        }
+    }
+
+    // intrusive doubly linked list of entries, guarded by the cache
+    private static class EntryList {
+        private Entry head;
+        private int size;
+        private Entry tail;
+
+        private void addLast(Entry entry) {
+            entry.prev = tail;
+            entry.next = null;
+            if (tail != null) {
+                tail.next = entry;
+            } else {
+                head = entry;
+            }
+            tail = entry;
+            size++;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = entry.next = null;
+            size--;
+        }
+    }
+}
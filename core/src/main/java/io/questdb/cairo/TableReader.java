@@ -27,10 +27,12 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryDecodedMRImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
@@ -65,6 +67,9 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final TableReaderRecordCursor recordCursor = new TableReaderRecordCursor();
     private final int rootLen;
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
+    private final SymbolValueCache symbolValueCache;
+    private final TieredPartitionCache tieredPartitionCache;
+    private final Path tieredPath;
     private final MemoryMR todoMem = Vm.getMRInstance();
     private final TxReader txFile;
     private final TxnScoreboard txnScoreboard;
@@ -74,6 +79,8 @@ public class TableReader implements Closeable, SymbolTableSource {
     private LongList columnTops;
     private ObjList<MemoryMR> columns;
     private int openPartitionCount;
+    // decodes columns of Parquet partition, open only while the partition columns are being loaded
+    private PartitionDecoder parquetDecoder;
     private int partitionCount;
     private long rowCount;
     private TableToken tableToken;
@@ -92,8 +99,30 @@ public class TableReader implements Closeable, SymbolTableSource {
             CairoConfiguration configuration,
             TableToken tableToken,
             @Nullable MessageBus messageBus
+    ) {
+        this(configuration, tableToken, messageBus, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            @Nullable MessageBus messageBus,
+            @Nullable SymbolValueCache symbolValueCache
+    ) {
+        this(configuration, tableToken, messageBus, symbolValueCache, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            @Nullable MessageBus messageBus,
+            @Nullable SymbolValueCache symbolValueCache,
+            @Nullable TieredPartitionCache tieredPartitionCache
     ) {
         this.configuration = configuration;
+        this.symbolValueCache = symbolValueCache;
+        this.tieredPartitionCache = tieredPartitionCache;
+        this.tieredPath = tieredPartitionCache != null ? new Path() : null;
         this.clock = configuration.getMillisecondClock();
         this.maxOpenPartitions = configuration.getInactiveReaderMaxOpenPartitions();
         this.ff = configuration.getFilesFacade();
@@ -176,9 +205,11 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(txFile);
             Misc.free(todoMem);
             freeColumns();
+            parquetDecoder = Misc.free(parquetDecoder);
             freeTempMem();
             Misc.free(txnScoreboard);
             Misc.free(path);
+            Misc.free(tieredPath);
             Misc.free(columnVersionReader);
             LOG.debug().$("closed '").utf8(tableToken.getTableName()).$('\'').$();
         }
@@ -666,7 +697,13 @@ public class TableReader implements Closeable, SymbolTableSource {
             Path path = pathGenPartitioned(getPartitionIndex(columnBase), txn);
             try {
                 if (direction == BitmapIndexReader.DIR_BACKWARD) {
-                    reader = new BitmapIndexBwdReader(
+                    reader = configuration.isPostingIndexEnabled() ? new PostingIndexBwdReader(
+                            configuration,
+                            path,
+                            metadata.getColumnName(columnIndex),
+                            columnNameTxn,
+                            getColumnTop(columnBase, columnIndex)
+                    ) : new BitmapIndexBwdReader(
                             configuration,
                             path,
                             metadata.getColumnName(columnIndex),
@@ -675,7 +712,13 @@ public class TableReader implements Closeable, SymbolTableSource {
                     );
                     bitmapIndexes.setQuick(globalIndex, reader);
                 } else {
-                    reader = new BitmapIndexFwdReader(
+                    reader = configuration.isPostingIndexEnabled() ? new PostingIndexFwdReader(
+                            configuration,
+                            path,
+                            metadata.getColumnName(columnIndex),
+                            columnNameTxn,
+                            getColumnTop(columnBase, columnIndex)
+                    ) : new BitmapIndexFwdReader(
                             configuration,
                             path,
                             metadata.getColumnName(columnIndex),
@@ -730,6 +773,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     }
                 }
             } finally {
+                parquetDecoder = Misc.free(parquetDecoder);
                 path.trimTo(rootLen);
             }
         }
@@ -739,6 +783,57 @@ public class TableReader implements Closeable, SymbolTableSource {
         this.bitmapIndexes = toIndexReaders;
     }
 
+    private void decodeParquetColumn(
+            Path path,
+            ObjList<MemoryMR> columns,
+            int primaryIndex,
+            int columnIndex,
+            long columnTop,
+            long partitionRowCount
+    ) {
+        final int plen = path.size();
+        final PartitionDecoder decoder = openParquetDecoder(path, partitionRowCount);
+        path.trimTo(plen);
+
+        // Parquet field id is the writer index of the column, it survives column renames
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        int parquetColumnIndex = -1;
+        for (int i = 0, n = decoder.getColumnCount(); i < n; i++) {
+            if (decoder.getColumnId(i) == writerIndex) {
+                parquetColumnIndex = i;
+                break;
+            }
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        final boolean symbol = ColumnType.isSymbol(columnType);
+        if (parquetColumnIndex == -1 || decoder.getColumnType(parquetColumnIndex) != (symbol ? ColumnType.STRING : ColumnType.tagOf(columnType))) {
+            throw CairoException.critical(0).put("parquet partition does not contain column [path=").put(path)
+                    .put(", column=").put(metadata.getColumnName(columnIndex))
+                    .put(']');
+        }
+
+        final MemoryDecodedMRImpl dataMem = getDecodedMemory(columns, primaryIndex);
+        MemoryDecodedMRImpl auxMem = null;
+        if (ColumnType.isVariableLength(columnType)) {
+            auxMem = getDecodedMemory(columns, primaryIndex + 1);
+            auxMem.getDecodeMem().extend((partitionRowCount - columnTop + 1) * Long.BYTES);
+        } else {
+            dataMem.getDecodeMem().extend((partitionRowCount - columnTop) << ColumnType.pow2SizeOf(columnType));
+            Misc.free(columns.getAndSetQuick(primaryIndex + 1, null));
+        }
+        decoder.decodeColumn(
+                parquetColumnIndex,
+                columnTop,
+                dataMem.getDecodeMem(),
+                auxMem != null ? auxMem.getDecodeMem() : null,
+                symbol ? symbolMapReaders.getQuick(columnIndex) : null
+        );
+        dataMem.seal();
+        if (auxMem != null) {
+            auxMem.seal();
+        }
+    }
+
     private void formatErrorPartitionDirName(int partitionIndex, Utf16Sink sink) {
         TableUtils.setSinkForPartition(
                 sink,
@@ -779,6 +874,17 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private MemoryDecodedMRImpl getDecodedMemory(ObjList<MemoryMR> columns, int index) {
+        final MemoryMR mem = columns.getQuick(index);
+        if (mem instanceof MemoryDecodedMRImpl) {
+            return (MemoryDecodedMRImpl) mem;
+        }
+        Misc.free(mem);
+        final MemoryDecodedMRImpl decodedMem = new MemoryDecodedMRImpl(ff.getPageSize(), MemoryTag.NATIVE_TABLE_READER);
+        columns.setQuick(index, decodedMem);
+        return decodedMem;
+    }
+
     private void insertPartition(int partitionIndex, long timestamp) {
         final int columnBase = getColumnBase(partitionIndex);
         final int columnSlotSize = getColumnBase(1);
@@ -813,7 +919,9 @@ public class TableReader implements Closeable, SymbolTableSource {
                 path,
                 metadata.getColumnName(columnIndex),
                 columnVersionReader.getDefaultColumnNameTxn(metadata.getWriterIndex(columnIndex)),
-                txFile.getSymbolValueCount(symbolColumnIndex)
+                txFile.getSymbolValueCount(symbolColumnIndex),
+                symbolValueCache,
+                tableToken
         );
     }
 
@@ -836,9 +944,11 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem,
             long columnSize
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (mem != null && mem != NullMemoryMR.INSTANCE && !(mem instanceof MemoryDecodedMRImpl)) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
+            // column of Parquet partition is replaced with mapped file
+            Misc.free(mem);
             mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
             columns.setQuick(primaryIndex, mem);
         }
@@ -875,7 +985,11 @@ public class TableReader implements Closeable, SymbolTableSource {
                             .$(", partitionCount=").$(partitionCount)
                             .I$();
 
-                    openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
+                    // tiered partitions are read from the local cache when possible
+                    final Path partitionPath = tieredPartitionCache != null
+                            && txFile.isPartitionTiered(partitionIndex)
+                            && tieredPartitionCache.acquire(tableToken, path, rootLen + 1, tieredPath) ? tieredPath : path;
+                    openPartitionColumns(partitionIndex, partitionPath, getColumnBase(partitionIndex), partitionSize);
                     openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, partitionSize);
                     openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, partitionNameTxn);
                     openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, txFile.getPartitionColumnVersion(partitionIndex));
@@ -908,18 +1022,36 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private PartitionDecoder openParquetDecoder(Path path, long partitionRowCount) {
+        if (parquetDecoder == null) {
+            parquetDecoder = new PartitionDecoder(ff);
+            parquetDecoder.of(path.concat(TableUtils.PARQUET_PARTITION_NAME).$());
+            if (parquetDecoder.getRowCount() != partitionRowCount) {
+                throw CairoException.critical(0).put("parquet partition row count mismatch [path=").put(path)
+                        .put(", expected=").put(partitionRowCount)
+                        .put(", actual=").put(parquetDecoder.getRowCount())
+                        .put(']');
+            }
+        }
+        return parquetDecoder;
+    }
+
     private void openPartitionColumns(int partitionIndex, Path path, int columnBase, long partitionRowCount) {
-        for (int i = 0; i < columnCount; i++) {
-            reloadColumnAt(
-                    partitionIndex,
-                    path,
-                    columns,
-                    columnTops,
-                    bitmapIndexes,
-                    columnBase,
-                    i,
-                    partitionRowCount
-            );
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                reloadColumnAt(
+                        partitionIndex,
+                        path,
+                        columns,
+                        columnTops,
+                        bitmapIndexes,
+                        columnBase,
+                        i,
+                        partitionRowCount
+                );
+            }
+        } finally {
+            parquetDecoder = Misc.free(parquetDecoder);
         }
     }
 
@@ -1080,7 +1212,9 @@ public class TableReader implements Closeable, SymbolTableSource {
             if (columnRowCount > 0 && (versionRecordIndex > -1L || columnVersionReader.getColumnTopPartitionTimestamp(writerIndex) <= partitionTimestamp)) {
                 final int columnType = metadata.getColumnType(columnIndex);
 
-                if (ColumnType.isVariableLength(columnType)) {
+                if (txFile.isPartitionParquet(partitionIndex)) {
+                    decodeParquetColumn(path.trimTo(plen), columns, primaryIndex, columnIndex, columnTop, partitionRowCount);
+                } else if (ColumnType.isVariableLength(columnType)) {
                     long columnSize = columnRowCount * 8L + 8L;
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
                     mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize);
@@ -1225,6 +1359,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 reader.updateSymbolCount(txFile.getSymbolValueCount(symbolMapIndex++));
             }
         } finally {
+            parquetDecoder = Misc.free(parquetDecoder);
             path.trimTo(rootLen);
         }
     }
@@ -1259,12 +1394,12 @@ public class TableReader implements Closeable, SymbolTableSource {
             final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
             String columnName = metadata.getColumnName(columnIndex);
             if (!(reader instanceof SymbolMapReaderImpl)) {
-                reader = new SymbolMapReaderImpl(configuration, path, columnName, columnNameTxn, 0);
+                reader = new SymbolMapReaderImpl(configuration, path, columnName, columnNameTxn, 0, symbolValueCache, tableToken);
             } else {
                 SymbolMapReaderImpl symbolMapReader = (SymbolMapReaderImpl) reader;
                 // Fully reopen the symbol map reader only when necessary
                 if (symbolMapReader.needsReopen(columnNameTxn)) {
-                    ((SymbolMapReaderImpl) reader).of(configuration, path, columnName, columnNameTxn, 0);
+                    ((SymbolMapReaderImpl) reader).of(configuration, path, columnName, columnNameTxn, 0, symbolValueCache, tableToken);
                 }
             }
         } else {
@@ -1342,6 +1477,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     }
                 }
             } finally {
+                parquetDecoder = Misc.free(parquetDecoder);
                 path.trimTo(rootLen);
             }
         }
@@ -47,6 +47,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
     private int tableId;
     private TableToken tableToken;
     private MemoryMR transitionMeta;
+    private long ttl;
     private boolean walEnabled;
 
     public TableReaderMetadata(CairoConfiguration configuration, TableToken tableToken) {
@@ -85,6 +86,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
         this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
         this.o3MaxLag = metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG);
         this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
+        this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
         long offset = TableUtils.getColumnNameOffset(columnCount);
 
         int shiftLeft = 0, existingIndex = 0;
@@ -224,6 +226,14 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
         return tableToken;
     }
 
+    public long getTtl() {
+        return ttl;
+    }
+
+    public boolean isColumnBloomIndexed(int columnIndex) {
+        return TableUtils.isColumnBloomIndexed(metaMem, getWriterIndex(columnIndex));
+    }
+
     public boolean isSoftLink() {
         return isSoftLink;
     }
@@ -246,6 +256,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
             this.o3MaxLag = metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG);
             this.metadataVersion = metaMem.getInt(TableUtils.META_OFFSET_METADATA_VERSION);
             this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
+            this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
             this.columnMetadata.clear();
             long offset = TableUtils.getColumnNameOffset(columnCount);
             this.timestampIndex = -1;
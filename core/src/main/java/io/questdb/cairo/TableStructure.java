@@ -40,6 +40,11 @@ public interface TableStructure extends TableDescriptor {
 
     CharSequence getTableName();
 
+    /**
+     * @return time to live of partitions in microseconds, 0 when partitions do not expire
+     */
+    long getTtl();
+
     boolean isDedupKey(int columnIndex);
 
     boolean isIndexed(int columnIndex);
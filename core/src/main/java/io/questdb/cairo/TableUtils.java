@@ -49,6 +49,7 @@ import io.questdb.std.str.CharSink;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8s;
 import io.questdb.tasks.O3PartitionPurgeTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -64,8 +65,10 @@ public final class TableUtils {
     public static final String DEFAULT_PARTITION_NAME = "default";
     public static final String DETACHED_DIR_MARKER = ".detached";
     public static final long ESTIMATED_VAR_COL_SIZE = 28;
+    public static final String FILE_SUFFIX_BF = ".bf";
     public static final String FILE_SUFFIX_D = ".d";
     public static final String FILE_SUFFIX_I = ".i";
+    public static final String FILE_SUFFIX_ZM = ".zm";
     public static final int INITIAL_TXN = 0;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
@@ -81,6 +84,7 @@ public final class TableUtils {
     public static final long META_OFFSET_PARTITION_BY = 4;
     public static final long META_OFFSET_TABLE_ID = 16;
     public static final long META_OFFSET_TIMESTAMP_INDEX = 8;
+    public static final long META_OFFSET_TTL = 48; // LONG
     public static final long META_OFFSET_VERSION = 12;
     public static final long META_OFFSET_WAL_ENABLED = 40; // BOOLEAN
     public static final String META_PREV_FILE_NAME = "_meta.prev";
@@ -104,6 +108,7 @@ public final class TableUtils {
     public static final String META_SWAP_FILE_NAME = "_meta.swp";
     public static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     public static final int NULL_LEN = -1;
+    public static final String PARQUET_PARTITION_NAME = "data.parquet";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
     public static final String SYMBOL_KEY_REMAP_FILE_SUFFIX = ".r";
     public static final char SYSTEM_TABLE_NAME_SUFFIX = '~';
@@ -171,6 +176,7 @@ public final class TableUtils {
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
     static final int META_FLAG_BIT_SYMBOL_CACHE = META_FLAG_BIT_SEQUENTIAL << 1;
     static final int META_FLAG_BIT_DEDUP_KEY = META_FLAG_BIT_SYMBOL_CACHE << 1;
+    static final int META_FLAG_BIT_BLOOM_INDEX = META_FLAG_BIT_DEDUP_KEY << 1;
     static final byte TODO_RESTORE_META = 2;
     static final byte TODO_TRUNCATE = 1;
     private static final int EMPTY_TABLE_LAG_CHECKSUM = calculateTxnLagChecksum(0, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0);
@@ -194,6 +200,14 @@ public final class TableUtils {
         allocateDiskSpace(ff, fd, size);
     }
 
+    public static LPSZ bloomIndexFileName(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_BF);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     public static int calculateTxRecordSize(int bytesSymbols, int bytesPartitions) {
         return TX_RECORD_HEADER_SIZE + Integer.BYTES + bytesSymbols + Integer.BYTES + bytesPartitions;
     }
@@ -253,6 +267,55 @@ public final class TableUtils {
         }
     }
 
+    /**
+     * Copies files of the partition directory to the destination directory, the destination
+     * directory is created when it does not exist. Both paths are restored to their original
+     * size on exit.
+     *
+     * @return total number of bytes copied
+     */
+    public static long copyPartitionFiles(FilesFacade ff, Path src, Path dst, int mkDirMode) {
+        final int srcLen = src.size();
+        final int dstLen = dst.size();
+        createDirsOrFail(ff, dst.slash$(), mkDirMode);
+        dst.trimTo(dstLen);
+        long copied = 0;
+        final long pFind = ff.findFirst(src.$());
+        if (pFind > 0) {
+            try {
+                do {
+                    if (ff.findType(pFind) != Files.DT_FILE) {
+                        continue;
+                    }
+                    final long pName = ff.findName(pFind);
+                    src.trimTo(srcLen).concat(pName).$();
+                    dst.trimTo(dstLen).concat(pName).$();
+                    int srcFd = -1;
+                    int dstFd = -1;
+                    try {
+                        srcFd = openRO(ff, src, LOG);
+                        dstFd = openRW(ff, dst, LOG, CairoConfiguration.O_NONE);
+                        final long len = ff.length(srcFd);
+                        if (len > 0 && ff.copyData(srcFd, dstFd, 0, len) != len) {
+                            throw CairoException.critical(ff.errno()).put("could not copy file [from=").put(src)
+                                    .put(", to=").put(dst)
+                                    .put(']');
+                        }
+                        copied += len;
+                    } finally {
+                        ff.close(srcFd);
+                        ff.close(dstFd);
+                    }
+                } while (ff.findNext(pFind) > 0);
+            } finally {
+                ff.findClose(pFind);
+                src.trimTo(srcLen);
+                dst.trimTo(dstLen);
+            }
+        }
+        return copied;
+    }
+
     public static void createColumnVersionFile(MemoryMARW mem) {
         // Create page of 0s for Column Version file "_cv"
         mem.extend(COLUMN_VERSION_FILE_HEADER_SIZE);
@@ -1304,6 +1367,24 @@ public final class TableUtils {
         }
     }
 
+    /**
+     * Removes partition directory. When the directory is a soft link pointing inside the tiering root,
+     * the tiered copy is removed along with the link, links to any other location are only unlinked.
+     *
+     * @return true when the directory, or the link, is removed
+     */
+    public static boolean removePartitionDir(FilesFacade ff, Path path, @Nullable Utf8Sequence tieringRoot, Log log) {
+        if (tieringRoot != null && ff.isSoftLink(path)) {
+            final Path target = Path.getThreadLocal2("");
+            if (ff.readLink(path, target) && Utf8s.startsWith(target, tieringRoot) && !ff.rmdir(target)) {
+                log.error().$("could not remove tiered partition copy [path=").$(target)
+                        .$(", errno=").$(ff.errno())
+                        .I$();
+            }
+        }
+        return ff.unlinkOrRemove(path, log);
+    }
+
     public static void renameColumnInMetadata(
             CharSequence columnName,
             CharSequence newName,
@@ -1670,6 +1751,8 @@ public final class TableUtils {
         mem.putLong(tableStruct.getO3MaxLag());
         mem.putLong(0); // Structure version.
         mem.putInt(tableStruct.isWalEnabled() ? 1 : 0);
+        mem.jumpTo(TableUtils.META_OFFSET_TTL);
+        mem.putLong(tableStruct.getTtl());
         mem.jumpTo(TableUtils.META_OFFSET_COLUMN_TYPES);
 
         assert count > 0;
@@ -1705,6 +1788,14 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ zoneMapFileName(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_ZM);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     private static int exists(FilesFacade ff, Path path) {
         if (ff.exists(path)) { // it can also be a file, for example created with touch
             if (ff.exists(path.concat(TXN_FILE_NAME).$())) {
@@ -1764,6 +1855,10 @@ public final class TableUtils {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4 + 8);
     }
 
+    static boolean isColumnBloomIndexed(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_BLOOM_INDEX) != 0;
+    }
+
     static boolean isColumnDedupKey(MemoryMR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
     }
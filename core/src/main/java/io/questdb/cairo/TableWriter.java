@@ -46,6 +46,7 @@ import io.questdb.griffin.UpdateOperatorImpl;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -106,10 +107,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private static final int ROW_ACTION_OPEN_PARTITION = 0;
     private static final int ROW_ACTION_SWITCH_PARTITION = 4;
     final ObjList<MemoryMA> columns;
+    // zone maps of the last partition, by column index, they are written when the partition is no longer last
+    private final ObjList<ZoneMap> activeZoneMaps = new ObjList<>();
     // Latest command sequence per command source.
     // Publisher source is identified by a long value
     private final AlterOperation alterOp = new AlterOperation();
     private final LongConsumer appendTimestampSetter;
+    private final BloomIndex bloomIndex;
     private final ColumnVersionWriter columnVersionWriter;
     private final MPSequence commandPubSeq;
     private final RingQueue<TableWriterTask> commandQueue;
@@ -159,14 +163,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final LongList partitionRemoveCandidates = new LongList();
     private final Path path;
     private final AtomicLong physicallyWrittenRowsSinceLastCommit = new AtomicLong();
+    private final PostingIndexWriter postingIndexWriter;
     private final int rootLen;
     private final FragileCode RECOVER_FROM_META_RENAME_FAILURE = this::recoverFromMetaRenameFailure;
     private final Row row = new RowImpl();
     private final LongList rowValueIsNotNull = new LongList();
+    // timestamp, name txn, size and last partition flag of each partition as of the last skip index update
+    private final LongList skipIndexPartitions = new LongList();
     private final TxReader slaveTxReader;
     private final DatabaseSnapshotAgent snapshotAgent;
     private final ObjList<MapWriter> symbolMapWriters;
     private final IntList symbolRewriteMap = new IntList();
+    private final Utf8String tieringRoot;
     private final MemoryMARW todoMem = Vm.getMARWInstance();
     private final TxWriter txWriter;
     private final FindVisitor removePartitionDirsNotAttached = this::removePartitionDirsNotAttached;
@@ -178,8 +186,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final WeakClosableObjectPool<IntList> walFdCacheListPool = new WeakClosableObjectPool<>(IntList::new, 5, true);
     private final LongObjHashMap.LongObjConsumer<IntList> walFdCloseCachedFdAction;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final ZoneMap zoneMap;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
+    private long activeZoneMapPartitionNameTxn;
+    private long activeZoneMapPartitionTimestamp = Long.MIN_VALUE;
     private ColumnVersionReader attachColumnVersionReader;
     private IndexBuilder attachIndexBuilder;
     private long attachMaxTimestamp;
@@ -243,6 +254,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
     private int walFdCacheSize;
+    private long walLagStartMicros;
     private WalTxnDetails walTxnDetails;
 
     public TableWriter(
@@ -271,6 +283,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.ff = configuration.getFilesFacade();
         this.mkDirMode = configuration.getMkDirMode();
         this.detachedMkDirMode = configuration.getDetachedMkDirMode();
+        final CharSequence tieringRoot = configuration.getPartitionTieringRoot();
+        this.tieringRoot = tieringRoot != null ? new Utf8String(tieringRoot) : null;
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableToken = tableToken;
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
@@ -299,6 +313,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             openMetaFile(ff, path, rootLen, metaMem);
             this.metadata = new TableWriterMetadata(this.tableToken, metaMem);
             this.partitionBy = metadata.getPartitionBy();
+            this.zoneMap = configuration.isZoneMapEnabled() && PartitionBy.isPartitioned(partitionBy) ? new ZoneMap() : null;
+            this.bloomIndex = PartitionBy.isPartitioned(partitionBy) ? new BloomIndex() : null;
+            this.postingIndexWriter = configuration.isPostingIndexEnabled() && PartitionBy.isPartitioned(partitionBy) ? new PostingIndexWriter(configuration) : null;
             this.txWriter = new TxWriter(ff, configuration).ofRW(path.concat(TXN_FILE_NAME).$(), partitionBy);
             this.txnScoreboard = new TxnScoreboard(ff, configuration.getTxnScoreboardEntryCount()).ofRW(path.trimTo(rootLen));
             path.trimTo(rootLen);
@@ -347,6 +364,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
+            snapshotSkipIndexPartitions();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
             commandQueue = new RingQueue<>(
@@ -405,6 +423,59 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return Unsafe.getUnsafe().getLong(timestampIndex + indexRow * 16);
     }
 
+    @Override
+    public void addBloomIndex(@NotNull CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.invalidMetadataRecoverable("column does not exist", columnName);
+        }
+
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.invalidMetadataRecoverable("bloom index is only supported for partitioned tables", columnName);
+        }
+
+        commit();
+
+        if (isColumnBloomIndexed(metaMem, columnIndex)) {
+            throw CairoException.invalidMetadataRecoverable("column already has bloom index", columnName);
+        }
+
+        final int existingType = getColumnType(metaMem, columnIndex);
+        if (!BloomIndex.isSupported(existingType)) {
+            throw CairoException.invalidMetadataRecoverable("cannot create bloom index, column type is not INT, LONG, UUID or STRING", columnName);
+        }
+
+        LOG.info().$("adding bloom index to '").utf8(columnName).$("' [").$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
+
+        try {
+            for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                if (!txWriter.isPartitionReadOnly(i) && columnTop > -1) {
+                    setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(i));
+                    bloomIndex.write(
+                            ff,
+                            path,
+                            columnName,
+                            columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex),
+                            existingType,
+                            columnTop,
+                            i < n - 1 ? txWriter.getPartitionSize(i) : txWriter.getTransientRowCount()
+                    );
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+
+        metaSwapIndex = copyMetadataAndSetBloomIndex(columnIndex, true);
+        swapMetaFile(columnName);
+
+        LOG.info().$("ADDED bloom index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$("]' to ").$(path).$();
+    }
+
     @Override
     public void addColumn(@NotNull CharSequence columnName, int columnType, SecurityContext securityContext) {
         addColumn(
@@ -957,11 +1028,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.beginPartitionSizeUpdate();
         long commitToTimestamp = walTxnDetails.getCommitToTimestamp(seqTxn);
 
+        final long maxLagTime = configuration.getWalMaxLagTime();
+        final long nowMicros = maxLagTime > 0 ? configuration.getMicrosecondClock().getTicks() : 0;
+        if (txWriter.getLagTxnCount() == 0) {
+            walLagStartMicros = nowMicros;
+        }
+
         if (commitToTimestamp != WalTxnDetails.FORCE_FULL_COMMIT) {
             final int maxLagTxnCount = configuration.getWalMaxLagTxnCount();
             if (maxLagTxnCount > 0 && txWriter.getLagTxnCount() >= maxLagTxnCount) {
                 // Too many txns are in the lag, so force a full commit.
                 commitToTimestamp = WalTxnDetails.FORCE_FULL_COMMIT;
+            } else if (maxLagTime > 0 && txWriter.getLagTxnCount() > 0 && nowMicros - walLagStartMicros >= maxLagTime * 1000) {
+                // Lag rows have been invisible to readers for too long, so force a full commit.
+                commitToTimestamp = WalTxnDetails.FORCE_FULL_COMMIT;
             } else {
                 // If committed to this timestamp, will it make any of the transactions fully committed?
                 long canCommitToTxn = walTxnDetails.getFullyCommittedTxn(txWriter.getSeqTxn(), seqTxn, commitToTimestamp);
@@ -1011,6 +1091,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            enforceTtl();
+            enforceTiering();
+            updateSkipIndexes();
+            enforceParquetConversion();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1026,6 +1110,122 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return 0L;
     }
 
+    /**
+     * Converts partition to Parquet. The partition is written as GZIP compressed Parquet file into
+     * a new partition version, bitmap, posting and skip index files are linked from the current version,
+     * since row order does not change. The new version is flagged as Parquet and read only, the current
+     * version is purged once readers release it. Table reader decodes columns of such partition from
+     * the Parquet file. Split partitions are squashed before conversion.
+     *
+     * @param timestamp partition timestamp
+     * @return true when the partition is converted or has been converted already, false when it does not exist
+     */
+    @Override
+    public boolean convertPartition(long timestamp) {
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.nonCritical().put("table is not partitioned");
+        }
+        PartitionEncoder.assertSupported(metadata);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying convert partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            throw CairoException.nonCritical().put("cannot convert active partition [table=").put(tableToken.getTableName())
+                    .put(", partitionTimestamp=").ts(timestamp)
+                    .put(']');
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return false;
+        }
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            LOG.info().$("partition is already converted to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partitionTimestamp=").$ts(timestamp)
+                    .I$();
+            return true;
+        }
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            throw CairoException.nonCritical().put("cannot convert read only partition [table=").put(tableToken.getTableName())
+                    .put(", partitionTimestamp=").ts(timestamp)
+                    .put(']');
+        }
+
+        squashPartitionForce(partitionIndex);
+
+        final long srcNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long dstNameTxn = txWriter.txn;
+        setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, srcNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, dstNameTxn);
+        final int srcLen = path.size();
+        final int dstLen = other.size();
+        try {
+            try (
+                    TableReader reader = new TableReader(configuration, tableToken);
+                    PartitionEncoder encoder = new PartitionEncoder(configuration)
+            ) {
+                encoder.encode(reader, timestamp, other.concat(PARQUET_PARTITION_NAME).$());
+            }
+            for (int i = 0; i < columnCount; i++) {
+                if (metadata.getColumnType(i) < 0) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, i);
+                if (metadata.isColumnIndexed(i)) {
+                    linkPartitionFile(
+                            keyFileName(path.trimTo(srcLen), columnName, columnNameTxn),
+                            keyFileName(other.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                    linkPartitionFile(
+                            valueFileName(path.trimTo(srcLen), columnName, columnNameTxn),
+                            valueFileName(other.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                    linkPartitionFile(
+                            PostingIndexUtils.postingFileName(path.trimTo(srcLen), columnName, columnNameTxn),
+                            PostingIndexUtils.postingFileName(other.trimTo(dstLen), columnName, columnNameTxn)
+                    );
+                }
+                linkPartitionFile(
+                        zoneMapFileName(path.trimTo(srcLen), columnName, columnNameTxn),
+                        zoneMapFileName(other.trimTo(dstLen), columnName, columnNameTxn)
+                );
+                linkPartitionFile(
+                        bloomIndexFileName(path.trimTo(srcLen), columnName, columnNameTxn),
+                        bloomIndexFileName(other.trimTo(dstLen), columnName, columnNameTxn)
+                );
+            }
+        } catch (Throwable th) {
+            LOG.error().$("could not convert partition to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partitionTimestamp=").$ts(timestamp)
+                    .$(", error=").$(th)
+                    .I$();
+            ff.rmdir(other.trimTo(dstLen).slash$());
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.setPartitionParquet(partitionIndex);
+        txWriter.commit(denseSymbolMapWriters);
+        partitionRemoveCandidates.add(timestamp, srcNameTxn);
+        processPartitionRemoveCandidates();
+        LOG.info().$("converted partition to parquet [table=").utf8(tableToken.getTableName())
+                .$(", partitionTimestamp=").$ts(timestamp)
+                .$(", nameTxn=").$(dstNameTxn)
+                .I$();
+        return true;
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -1210,6 +1410,40 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         updateMetadataWithDeduplicationUpsertKeys(false, null);
     }
 
+    @Override
+    public void dropBloomIndex(@NotNull CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.invalidMetadataRecoverable("column does not exist", columnName);
+        }
+
+        commit();
+
+        if (!isColumnBloomIndexed(metaMem, columnIndex)) {
+            throw CairoException.invalidMetadataRecoverable("column does not have bloom index", columnName);
+        }
+
+        metaSwapIndex = copyMetadataAndSetBloomIndex(columnIndex, false);
+        swapMetaFile(columnName);
+
+        // readers consult bloom index files regardless of metadata, so they have to go
+        try {
+            for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                if (!txWriter.isPartitionReadOnly(i)) {
+                    setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(i));
+                    removeFileOrLog(ff, bloomIndexFileName(path, columnName, columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex)));
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+
+        LOG.info().$("DROPPED bloom index of '").utf8(columnName).$("' [path=").$(path).I$();
+    }
+
     @Override
     public void dropIndex(@NotNull CharSequence columnName) {
         checkDistressed();
@@ -2228,6 +2462,32 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    @Override
+    public void setMetaTtl(long ttl) {
+        if (ttl > 0 && !PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.nonCritical().put("TTL is supported only on partitioned tables");
+        }
+        try {
+            commit();
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, rootLen, this.metaSwapIndex);
+            try {
+                ddlMem.jumpTo(META_OFFSET_TTL);
+                ddlMem.putLong(ttl);
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            metadata.setTtl(ttl);
+        } finally {
+            ddlMem.close();
+        }
+        // partitions may have expired under the new ttl
+        enforceTtl();
+    }
+
     public void setSeqTxn(long seqTxn) {
         assert txWriter.getLagRowCount() == 0 && txWriter.getLagTxnCount() == 0;
         txWriter.setSeqTxn(seqTxn);
@@ -2988,6 +3248,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.bumpMetadataAndColumnStructureVersion(this.denseSymbolMapWriters);
         assert txWriter.getMetadataVersion() == metadata.getMetadataVersion();
+        ddlListener.onTableMetadataChanged(tableToken);
     }
 
     private void bumpMetadataVersion() {
@@ -2995,6 +3256,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.bumpMetadataVersion(this.denseSymbolMapWriters);
         assert txWriter.getMetadataVersion() == metadata.getMetadataVersion();
+        ddlListener.onTableMetadataChanged(tableToken);
     }
 
     private boolean canSquashOverwritePartitionTail(int partitionIndex) {
@@ -3212,6 +3474,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            enforceTtl();
+            enforceTiering();
+            updateSkipIndexes();
+            enforceParquetConversion();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -3350,6 +3616,42 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private int copyMetadataAndSetBloomIndex(int columnIndex, boolean bloomIndexed) {
+        try {
+            int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
+            int columnCount = metaMem.getInt(META_OFFSET_COUNT);
+            ddlMem.putInt(columnCount);
+            ddlMem.putInt(metaMem.getInt(META_OFFSET_PARTITION_BY));
+            ddlMem.putInt(metaMem.getInt(META_OFFSET_TIMESTAMP_INDEX));
+            copyVersionAndLagValues();
+            ddlMem.jumpTo(META_OFFSET_COLUMN_TYPES);
+            for (int i = 0; i < columnCount; i++) {
+                if (i != columnIndex) {
+                    writeColumnEntry(i, false, isColumnDedupKey(metaMem, i));
+                } else {
+                    ddlMem.putInt(getColumnType(metaMem, i));
+                    long flags = getColumnFlags(metaMem, i) & ~META_FLAG_BIT_BLOOM_INDEX;
+                    if (bloomIndexed) {
+                        flags |= META_FLAG_BIT_BLOOM_INDEX;
+                    }
+                    ddlMem.putLong(flags);
+                    ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
+                    ddlMem.skip(16);
+                }
+            }
+
+            long nameOffset = getColumnNameOffset(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                CharSequence columnName = metaMem.getStr(nameOffset);
+                ddlMem.putStr(columnName);
+                nameOffset += Vm.getStorageLength(columnName);
+            }
+            return index;
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     private int copyMetadataAndSetIndexAttrs(int columnIndex, int indexedFlag, int indexValueBlockSize) {
         try {
             int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
@@ -3433,6 +3735,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         ddlMem.putLong(metaMem.getLong(META_OFFSET_O3_MAX_LAG));
         ddlMem.putLong(txWriter.getMetadataVersion() + 1);
         ddlMem.putBool(metaMem.getBool(META_OFFSET_WAL_ENABLED));
+        ddlMem.jumpTo(META_OFFSET_TTL);
+        ddlMem.putLong(metaMem.getLong(META_OFFSET_TTL));
         metadata.setMetadataVersion(txWriter.getMetadataVersion() + 1);
     }
 
@@ -3591,6 +3895,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private void doClose(boolean truncate) {
         // destroy() may have already closed everything
         boolean tx = inTransaction();
+        if (truncate && !distressed) {
+            storeActiveZoneMaps();
+        }
         freeSymbolMapWriters();
         freeIndexers();
         Misc.free(txWriter);
@@ -3607,6 +3914,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         Misc.free(dedupColumnCommitAddresses);
+        Misc.free(zoneMap);
+        Misc.freeObjList(activeZoneMaps);
+        Misc.free(bloomIndex);
+        Misc.free(postingIndexWriter);
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         dropIndexOperator = null;
@@ -3722,6 +4033,100 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return true;
     }
 
+    private void enforceParquetConversion() {
+        final long age = configuration.getPartitionParquetAge();
+        if (age > 0 && PartitionBy.isPartitioned(partitionBy) && txWriter.getPartitionCount() > 1 && txWriter.getLagRowCount() == 0
+                && PartitionEncoder.isSupported(metadata)) {
+            // similar to ttl, partition age is relative to the latest committed row, the logical partition
+            // holding max timestamp is never converted. Conversion rewrites the whole partition, to keep
+            // commit latency bounded at most one partition is converted per commit
+            final long maxTimestamp = txWriter.getMaxTimestamp();
+            final long activePartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByTimestamp(maxTimestamp));
+            final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+            for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+                final long logicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByIndex(i));
+                if (logicalPartitionTimestamp == activePartitionTimestamp
+                        || ceilMethod.ceil(logicalPartitionTimestamp) > maxTimestamp - age) {
+                    break;
+                }
+                // parquet and tiered partitions are read only
+                if (txWriter.isPartitionReadOnly(i)) {
+                    continue;
+                }
+                try {
+                    convertPartition(logicalPartitionTimestamp);
+                } catch (CairoException e) {
+                    // data is committed at this point, conversion is retried on the next commit
+                    LOG.error().$("could not convert aged partition to parquet [table=").utf8(tableToken.getTableName())
+                            .$(", partitionTimestamp=").$ts(logicalPartitionTimestamp)
+                            .$(", error=").$(e.getFlyweightMessage())
+                            .I$();
+                }
+                break;
+            }
+        }
+    }
+
+    private void enforceTiering() {
+        final long age = configuration.getPartitionTieringAge();
+        if (age > 0 && tieringRoot != null && PartitionBy.isPartitioned(partitionBy) && txWriter.getPartitionCount() > 1 && txWriter.getLagRowCount() == 0) {
+            // similar to ttl, partition age is relative to the latest committed row,
+            // the logical partition holding max timestamp is never moved
+            final long maxTimestamp = txWriter.getMaxTimestamp();
+            final long activePartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByTimestamp(maxTimestamp));
+            final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+            int movedCount = 0;
+            for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                final long logicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
+                if (logicalPartitionTimestamp == activePartitionTimestamp
+                        || ceilMethod.ceil(logicalPartitionTimestamp) > maxTimestamp - age) {
+                    break;
+                }
+                // split partitions are left alone until they are squashed
+                if (txWriter.isPartitionReadOnly(i)
+                        || logicalPartitionTimestamp != partitionTimestamp
+                        || txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByIndex(i + 1)) == logicalPartitionTimestamp) {
+                    continue;
+                }
+                if (movePartitionToTieringVolume(i, partitionTimestamp)) {
+                    movedCount++;
+                }
+            }
+            if (movedCount > 0) {
+                txWriter.commit(denseSymbolMapWriters);
+                processPartitionRemoveCandidates();
+            }
+        }
+    }
+
+    private void enforceTtl() {
+        final long ttl = metadata.getTtl();
+        if (ttl > 0 && PartitionBy.isPartitioned(partitionBy) && txWriter.getPartitionCount() > 1 && txWriter.getLagRowCount() == 0) {
+            // partitions expire relative to the latest committed row rather than wall clock,
+            // the logical partition holding max timestamp is never dropped
+            final long maxTimestamp = txWriter.getMaxTimestamp();
+            final long activePartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByTimestamp(maxTimestamp));
+            final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+            while (txWriter.getPartitionCount() > 1) {
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(0);
+                final long logicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
+                if (logicalPartitionTimestamp == activePartitionTimestamp
+                        || ceilMethod.ceil(logicalPartitionTimestamp) > maxTimestamp - ttl
+                        || (txWriter.isPartitionReadOnly(0) && !txWriter.isPartitionTiered(0) && !txWriter.isPartitionParquet(0))) {
+                    break;
+                }
+                LOG.info().$("dropping expired partition [table=").utf8(tableToken.getTableName())
+                        .$(", partitionTimestamp=").$ts(partitionTimestamp)
+                        .$(", ttl=").$(ttl)
+                        .I$();
+                if (!dropPartitionByExactTimestamp(partitionTimestamp)) {
+                    break;
+                }
+            }
+        }
+    }
+
     private long findMinSplitPartitionTimestamp() {
         for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
             long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
@@ -3884,6 +4289,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private ZoneMap getActiveZoneMap(int columnIndex) {
+        ZoneMap activeZoneMap = activeZoneMaps.getQuiet(columnIndex);
+        if (activeZoneMap == null) {
+            activeZoneMap = new ZoneMap();
+            activeZoneMaps.extendAndSet(columnIndex, activeZoneMap);
+        }
+        return activeZoneMap;
+    }
+
     private long getO3RowCount0() {
         return (masterRef - o3MasterRef + 1) / 2;
     }
@@ -4089,6 +4503,16 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return false;
     }
 
+    private void linkPartitionFile(LPSZ src, LPSZ dst) {
+        if (ff.exists(src) && ff.hardLink(src, dst) != FILES_RENAME_OK) {
+            throw CairoException.critical(ff.errno())
+                    .put("could not create hard link [errno=").put(ff.errno())
+                    .put(", from=").put(src)
+                    .put(", to=").put(dst)
+                    .put(']');
+        }
+    }
+
     private void lock() {
         try {
             path.trimTo(rootLen);
@@ -4216,6 +4640,43 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private boolean movePartitionToTieringVolume(int partitionIndex, long partitionTimestamp) {
+        final long srcNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long dstNameTxn = txWriter.txn;
+        final Path dst = Path.PATH.get().of(tieringRoot).concat(tableToken);
+        setPathForPartition(dst, partitionBy, partitionTimestamp, dstNameTxn);
+        setPathForPartition(other, partitionBy, partitionTimestamp, srcNameTxn);
+        try {
+            final long size = TableUtils.copyPartitionFiles(ff, other, dst, mkDirMode);
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, dstNameTxn);
+            if (ff.softLink(dst.$(), other.$()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create soft link [src=").put(dst)
+                        .put(", softLink=").put(other)
+                        .put(']');
+            }
+            txWriter.setPartitionTiered(partitionIndex);
+            partitionRemoveCandidates.add(partitionTimestamp, srcNameTxn);
+            LOG.info().$("moved partition to tiering volume [table=").utf8(tableToken.getTableName())
+                    .$(", partitionTimestamp=").$ts(partitionTimestamp)
+                    .$(", size=").$(size)
+                    .$(", path=").$(dst)
+                    .I$();
+            return true;
+        } catch (CairoException e) {
+            LOG.error().$("could not move partition to tiering volume [table=").utf8(tableToken.getTableName())
+                    .$(", partitionTimestamp=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, dstNameTxn);
+            ff.unlink(other.$());
+            ff.rmdir(dst.$());
+            return false;
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private Row newRowO3(long timestamp) {
         LOG.info().$("switched to o3 [table=").utf8(tableToken.getTableName()).I$();
         txWriter.beginPartitionSizeUpdate();
@@ -6192,7 +6653,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             txn
                     );
                     other.$();
-                    if (!ff.unlinkOrRemove(other, LOG)) {
+                    if (!TableUtils.removePartitionDir(ff, other, tieringRoot, LOG)) {
                         LOG.info()
                                 .$("could not purge partition version, async purge will be scheduled [path=").$(other)
                                 .$(", errno=").$(ff.errno()).I$();
@@ -6614,6 +7075,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             removeFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
             removeFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
             removeFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileOrLog(ff, zoneMapFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileOrLog(ff, bloomIndexFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileOrLog(ff, PostingIndexUtils.postingFileName(path.trimTo(plen), columnName, columnNameTxn));
             path.trimTo(rootLen);
         } else {
             LOG.critical()
@@ -7183,6 +7647,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void snapshotSkipIndexPartitions() {
+        if (PartitionBy.isPartitioned(partitionBy)) {
+            skipIndexPartitions.clear();
+            for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+                skipIndexPartitions.add(
+                        txWriter.getPartitionTimestampByIndex(i),
+                        txWriter.getPartitionNameTxn(i),
+                        i < n - 1 ? txWriter.getPartitionSize(i) : txWriter.getTransientRowCount(),
+                        i < n - 1 ? 0 : 1
+                );
+            }
+        }
+    }
+
     private void squashPartitionForce(int partitionIndex) {
         int lastLogicalPartitionIndex = partitionIndex;
         long lastLogicalPartitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
@@ -7379,6 +7857,40 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void storeActiveZoneMaps() {
+        // zone maps are written only when they describe the committed rows of the column version on disk
+        final int partitionIndex = txWriter.getPartitionCount() - 1;
+        if (zoneMap == null
+                || partitionIndex < 0
+                || txWriter.getPartitionTimestampByIndex(partitionIndex) != activeZoneMapPartitionTimestamp
+                || txWriter.getPartitionNameTxn(partitionIndex) != activeZoneMapPartitionNameTxn) {
+            return;
+        }
+        setPathForPartition(path, partitionBy, activeZoneMapPartitionTimestamp, activeZoneMapPartitionNameTxn);
+        try {
+            for (int i = 0, n = Math.min(columnCount, activeZoneMaps.size()); i < n; i++) {
+                final ZoneMap activeZoneMap = activeZoneMaps.getQuick(i);
+                if (activeZoneMap != null
+                        && metadata.getColumnType(i) > 0
+                        && activeZoneMap.getRowCount() == txWriter.getTransientRowCount()
+                        && activeZoneMap.matches(
+                        columnVersionWriter.getColumnNameTxn(activeZoneMapPartitionTimestamp, i),
+                        columnVersionWriter.getColumnTop(activeZoneMapPartitionTimestamp, i)
+                )) {
+                    activeZoneMap.store(ff, path, metadata.getColumnName(i));
+                }
+            }
+        } catch (CairoException e) {
+            LOG.error().$("could not write zone maps [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(activeZoneMapPartitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void swapMetaFile(CharSequence columnName) {
         // close _meta so we can rename it
         metaMem.close();
@@ -7742,6 +8254,30 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updateSkipIndexes() {
+        if (PartitionBy.isPartitioned(partitionBy)) {
+            // zone maps and bloom indexes are updated for partitions, which changed since the last commit. When
+            // rows were appended to a partition, only the appended rows are scanned, so that the last partition
+            // is kept up to date at the cost proportional to the commit size. Zone maps of the last partition
+            // are kept in memory and written once the partition is no longer the last one or writer is closed.
+            // Posting index is rebuilt from the bitmap index as a whole, it is written for non-last partitions
+            for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+                final boolean last = i == n - 1;
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                final long partitionNameTxn = txWriter.getPartitionNameTxn(i);
+                final long partitionSize = last ? txWriter.getTransientRowCount() : txWriter.getPartitionSize(i);
+                final int index = skipIndexPartitions.binarySearchBlock(2, partitionTimestamp, BinarySearch.SCAN_UP);
+                if (!txWriter.isPartitionReadOnly(i) && (index < 0
+                        || skipIndexPartitions.getQuick(index + 1) != partitionNameTxn
+                        || skipIndexPartitions.getQuick(index + 2) != partitionSize
+                        || (!last && skipIndexPartitions.getQuick(index + 3) == 1))) {
+                    writeSkipIndexes(partitionTimestamp, partitionNameTxn, partitionSize, last);
+                }
+            }
+            snapshotSkipIndexPartitions();
+        }
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -7781,6 +8317,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         if (columnDedupKey) {
             flags |= META_FLAG_BIT_DEDUP_KEY;
         }
+
+        if (isColumnBloomIndexed(metaMem, i)) {
+            flags |= META_FLAG_BIT_BLOOM_INDEX;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.skip(16);
@@ -7809,6 +8349,65 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         todoMem.sync(false);
     }
 
+    private void writeSkipIndexes(long partitionTimestamp, long partitionNameTxn, long partitionSize, boolean last) {
+        final boolean active = partitionTimestamp == activeZoneMapPartitionTimestamp && partitionNameTxn == activeZoneMapPartitionNameTxn;
+        if (last && !active) {
+            for (int i = 0, n = activeZoneMaps.size(); i < n; i++) {
+                final ZoneMap activeZoneMap = activeZoneMaps.getQuick(i);
+                if (activeZoneMap != null) {
+                    activeZoneMap.clear();
+                }
+            }
+            activeZoneMapPartitionTimestamp = partitionTimestamp;
+            activeZoneMapPartitionNameTxn = partitionNameTxn;
+        }
+        setPathForPartition(path, partitionBy, partitionTimestamp, partitionNameTxn);
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType > 0) {
+                    final boolean writeZoneMap = zoneMap != null && ZoneMap.isSupported(columnType);
+                    final boolean writeBloomIndex = isColumnBloomIndexed(metaMem, i);
+                    final boolean writePostingIndex = !last && postingIndexWriter != null && metadata.isColumnIndexed(i);
+                    final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                    if ((writeZoneMap || writeBloomIndex || writePostingIndex) && columnTop > -1) {
+                        final CharSequence columnName = metadata.getColumnName(i);
+                        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                        if (writeZoneMap) {
+                            if (last || active) {
+                                final ZoneMap activeZoneMap = getActiveZoneMap(i);
+                                activeZoneMap.update(ff, path, columnName, columnNameTxn, columnType, columnTop, partitionSize);
+                                if (!last) {
+                                    activeZoneMap.store(ff, path, columnName);
+                                    activeZoneMap.clear();
+                                }
+                            } else {
+                                zoneMap.clear();
+                                zoneMap.update(ff, path, columnName, columnNameTxn, columnType, columnTop, partitionSize);
+                                zoneMap.store(ff, path, columnName);
+                            }
+                        }
+                        if (writeBloomIndex) {
+                            bloomIndex.update(ff, path, columnName, columnNameTxn, columnType, columnTop, partitionSize);
+                        }
+                        if (writePostingIndex) {
+                            postingIndexWriter.write(path, columnName, columnNameTxn, columnTop);
+                        }
+                    }
+                }
+            }
+        } catch (CairoException e) {
+            // skip indexes are optional, table scans ignore missing and outdated ones
+            LOG.error().$("could not write skip indexes [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.refreshSourceAndIndex(lo, hi);
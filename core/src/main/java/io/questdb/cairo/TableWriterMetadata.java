@@ -40,6 +40,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
     private int symbolMapCount;
     private int tableId;
     private TableToken tableToken;
+    private long ttl;
     private boolean walEnabled;
 
     public TableWriterMetadata(TableToken tableToken, MemoryMR metaMem) {
@@ -111,6 +112,11 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         return tableToken;
     }
 
+    @Override
+    public long getTtl() {
+        return ttl;
+    }
+
     @Override
     public boolean isIndexed(int columnIndex) {
         return getColumnMetadata(columnIndex).isIndexed();
@@ -138,6 +144,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.columnMetadata.clear();
         this.metadataVersion = metaMem.getLong(TableUtils.META_OFFSET_METADATA_VERSION);
         this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
+        this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
 
         long offset = TableUtils.getColumnNameOffset(columnCount);
         this.symbolMapCount = 0;
@@ -184,6 +191,10 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.o3MaxLag = o3MaxLagUs;
     }
 
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
     public void updateTableToken(TableToken tableToken) {
         this.tableToken = tableToken;
     }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Chars;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Engine-wide read cache of partitions moved to the tiering volume. A tiered partition is copied
+ * to the local cache directory when a table reader opens it for the first time, subsequent opens
+ * are served from the local copy until it is evicted.
+ * <p>
+ * Entries are keyed by table dir name, table id and partition dir name. The latter includes
+ * partition name txn and tiered partitions are read only, so a cached copy never goes stale.
+ * When the total size of cached copies exceeds capacity, the least recently used copies are removed.
+ * Readers that mapped files of the removed copy keep their mappings. Partitions larger than
+ * the capacity are not cached, readers open them on the tiering volume.
+ * <p>
+ * Cache content does not survive restart, the cache directory is wiped when the cache is created.
+ */
+public class TieredPartitionCache implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(TieredPartitionCache.class);
+    private final long capacity;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final FilesFacade ff;
+    private final StringSink keySink = new StringSink();
+    private final int mkDirMode;
+    private final Path path = new Path();
+    private final int rootLen;
+    private long accessClock;
+    private long size;
+
+    public TieredPartitionCache(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.capacity = configuration.getPartitionTieringCacheSize();
+        this.mkDirMode = configuration.getMkDirMode();
+        path.of(configuration.getPartitionTieringCacheRoot());
+        this.rootLen = path.size();
+        ff.rmdir(path.$());
+    }
+
+    /**
+     * Finds the cached copy of the tiered partition, copies partition to the cache when it is not cached yet.
+     *
+     * @param tableToken     table the partition belongs to
+     * @param partitionPath  path of the partition soft link in the table directory
+     * @param partitionDirLo offset of the partition directory name in the partition path
+     * @param sink           receives path of the cached copy
+     * @return false when partition could not be cached, in which case reader should use the partition path
+     */
+    public synchronized boolean acquire(TableToken tableToken, Path partitionPath, int partitionDirLo, Path sink) {
+        keySink.clear();
+        keySink.put(tableToken.getDirName()).put('.').put(tableToken.getTableId()).put(Files.SEPARATOR);
+        for (int i = partitionDirLo, n = partitionPath.size(); i < n; i++) {
+            // partition dir names are ascii
+            keySink.put((char) partitionPath.byteAt(i));
+        }
+
+        final int index = entries.keyIndex(keySink);
+        if (index < 0) {
+            final Entry entry = entries.valueAtQuick(index);
+            entry.lastAccess = ++accessClock;
+            sink.of(path.trimTo(rootLen).concat(entry.key)).$();
+            return true;
+        }
+
+        final int partitionPathLen = partitionPath.size();
+        final long partitionSize = ff.getDirSize(partitionPath.$());
+        partitionPath.trimTo(partitionPathLen);
+        if (partitionSize > capacity) {
+            return false;
+        }
+        evict(partitionSize);
+
+        final String key = Chars.toString(keySink);
+        path.trimTo(rootLen).concat(key);
+        try {
+            final long copied = TableUtils.copyPartitionFiles(ff, partitionPath, path, mkDirMode);
+            final Entry entry = new Entry(key, copied);
+            entry.lastAccess = ++accessClock;
+            entries.putAt(index, key, entry);
+            size += copied;
+            LOG.info().$("cached tiered partition [path=").$(path).$(", size=").$(copied).I$();
+            sink.of(path).$();
+            return true;
+        } catch (CairoException e) {
+            LOG.error().$("could not cache tiered partition [path=").$(partitionPath)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            ff.rmdir(path.$());
+            return false;
+        } finally {
+            partitionPath.trimTo(partitionPathLen);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        entries.clear();
+        size = 0;
+        Misc.free(path);
+    }
+
+    @TestOnly
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    // removes least recently used copies until the given number of bytes fits the capacity
+    private void evict(long bytes) {
+        while (size + bytes > capacity && entries.size() > 0) {
+            final ObjList<CharSequence> keys = entries.keys();
+            Entry victim = null;
+            for (int i = 0, n = keys.size(); i < n; i++) {
+                final Entry entry = entries.get(keys.getQuick(i));
+                if (victim == null || entry.lastAccess < victim.lastAccess) {
+                    victim = entry;
+                }
+            }
+            LOG.info().$("evicting tiered partition [key=").$(victim.key).$(", size=").$(victim.size).I$();
+            ff.rmdir(path.trimTo(rootLen).concat(victim.key).$());
+            entries.remove(victim.key);
+            size -= victim.size;
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final long size;
+        private long lastAccess;
+
+        private Entry(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+    }
+}
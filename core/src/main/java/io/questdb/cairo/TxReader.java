@@ -42,15 +42,21 @@ public class TxReader implements Closeable, Mutable {
     protected static final int NONE_COL_STRUCTURE_VERSION = Integer.MIN_VALUE;
     protected static final int PARTITION_COLUMN_VERSION_OFFSET = 3;
     protected static final int PARTITION_MASKED_SIZE_OFFSET = 1;
+    protected static final int PARTITION_MASK_PARQUET_BIT_OFFSET = 60;
     protected static final int PARTITION_MASK_READ_ONLY_BIT_OFFSET = 62;
+    protected static final int PARTITION_MASK_TIERED_BIT_OFFSET = 61;
     protected static final int PARTITION_NAME_TX_OFFSET = 2;
     // partition size's highest possible value is 0xFFFFFFFFFFFL (15 Tera Rows):
     //
-    // | reserved | read-only | available bits | partition size |
-    // +----------+-----------+----------------+----------------+
-    // |  1 bit   |  1 bit    |  18 bits       |      44 bits   |
+    // | reserved | read-only | tiered | parquet | available bits | partition size |
+    // +----------+-----------+--------+---------+----------------+----------------+
+    // |  1 bit   |  1 bit    | 1 bit  |  1 bit  |  16 bits       |      44 bits   |
     //
     // when read-only bit is set, the partition is read only.
+    // when tiered bit is set, the partition directory is a soft link to
+    // the partition copy on the tiering volume, such partition is read only too.
+    // when parquet bit is set, the partition columns are stored in a single
+    // parquet file, such partition is read only too.
     // we reserve the highest bit to allow negative values to
     // have meaning (in future). For instance the table reader uses
     // a negative size value to mean that the partition is not open.
@@ -377,6 +383,16 @@ public class TxReader implements Closeable, Mutable {
         return false;
     }
 
+    public boolean isPartitionParquet(int i) {
+        long maskedSize = attachedPartitions.getQuick(i * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET);
+        return ((maskedSize >>> PARTITION_MASK_PARQUET_BIT_OFFSET) & 1) == 1;
+    }
+
+    public boolean isPartitionTiered(int i) {
+        long maskedSize = attachedPartitions.getQuick(i * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET);
+        return ((maskedSize >>> PARTITION_MASK_TIERED_BIT_OFFSET) & 1) == 1;
+    }
+
     public TxReader ofRO(@Transient LPSZ path, int partitionBy) {
         clear();
         try {
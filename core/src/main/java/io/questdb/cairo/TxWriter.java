@@ -358,6 +358,21 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    /**
+     * Marks partition as converted to Parquet. Parquet partition is read only, and it gets
+     * the current txn as its name txn, the directory with that name holds the Parquet file.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionParquet(int partitionIndex) {
+        final int indexRaw = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION;
+        final int offset = indexRaw + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = updatePartitionIsReadOnly(attachedPartitions.getQuick(offset), true);
+        attachedPartitions.setQuick(offset, maskedSize | (1L << PARTITION_MASK_PARQUET_BIT_OFFSET));
+        attachedPartitions.setQuick(indexRaw + PARTITION_NAME_TX_OFFSET, txn);
+        bumpPartitionTableVersion();
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
@@ -375,6 +390,21 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         setPartitionReadOnlyByRawIndex(findAttachedPartitionRawIndex(timestamp), isReadOnly);
     }
 
+    /**
+     * Marks partition as moved to the tiering volume. Tiered partition is read only, and it gets
+     * the current txn as its name txn, the directory with that name is the soft link to the tiered copy.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionTiered(int partitionIndex) {
+        final int indexRaw = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION;
+        final int offset = indexRaw + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = updatePartitionIsReadOnly(attachedPartitions.getQuick(offset), true);
+        attachedPartitions.setQuick(offset, maskedSize | (1L << PARTITION_MASK_TIERED_BIT_OFFSET));
+        attachedPartitions.setQuick(indexRaw + PARTITION_NAME_TX_OFFSET, txn);
+        bumpPartitionTableVersion();
+    }
+
     public void setSeqTxn(long seqTxn) {
         this.seqTxn = seqTxn;
     }
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Min, max and null count of a numeric column in a single partition. Zone maps let table scans skip
+ * partitions, which cannot match the filter. {@link TableWriter} keeps zone maps of the last partition
+ * in memory, updates them with the appended rows on commit and writes them once the partition is no
+ * longer the last one or the writer is closed.
+ * <p>
+ * Zone map file sits next to the column file and is versioned by the same column name txn.
+ * It starts with partition row count and column top, so that a zone map describing
+ * different data than the reader sees is ignored rather than trusted. Min and max are
+ * stored as long values for integer columns and as double bits for DOUBLE columns,
+ * both exclude nulls. When column has no non-null values, min and max are nulls.
+ */
+public class ZoneMap implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(ZoneMap.class);
+    private static final int OFFSET_COLUMN_TOP = 8;
+    private static final int OFFSET_MAX = 32;
+    private static final int OFFSET_MIN = 24;
+    private static final int OFFSET_NULL_COUNT = 16;
+    private static final int OFFSET_ROW_COUNT = 0;
+    private static final int SIZE = 40;
+    private long buf;
+    private long columnNameTxn;
+    private long columnTop;
+    private long max;
+    private long min;
+    private long nullCount;
+    private long rowCount = -1;
+    private Path tmpPath;
+
+    public ZoneMap() {
+        this.buf = Unsafe.malloc(SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public void clear() {
+        rowCount = -1;
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            buf = Unsafe.free(buf, SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+        tmpPath = Misc.free(tmpPath);
+    }
+
+    public double getMaxDouble() {
+        return Double.longBitsToDouble(max);
+    }
+
+    public long getMaxLong() {
+        return max;
+    }
+
+    public double getMinDouble() {
+        return Double.longBitsToDouble(min);
+    }
+
+    public long getMinLong() {
+        return min;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * @return number of partition rows zone map describes, -1 when zone map is empty
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public boolean matches(long columnNameTxn, long columnTop) {
+        return rowCount > -1 && this.columnNameTxn == columnNameTxn && this.columnTop == columnTop;
+    }
+
+    /**
+     * Reads zone map of the column in the partition.
+     *
+     * @param path partition path, left unchanged
+     * @return false when zone map does not exist or does not match the partition row count or column top
+     */
+    public boolean read(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, long columnTop, long rowCount) {
+        if (readFile(ff, path, columnName, columnNameTxn) && this.columnTop == columnTop && this.rowCount == rowCount) {
+            return true;
+        }
+        clear();
+        return false;
+    }
+
+    /**
+     * Writes zone map next to the column file. The file is written under a temporary name and then renamed,
+     * so that readers never see a partially written zone map.
+     *
+     * @param path partition path, left unchanged
+     */
+    public void store(FilesFacade ff, Path path, CharSequence columnName) {
+        assert rowCount > -1;
+        final int plen = path.size();
+        Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_COLUMN_TOP, columnTop);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_NULL_COUNT, nullCount);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_MIN, min);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_MAX, max);
+
+        try {
+            final LPSZ fileName = TableUtils.zoneMapFileName(path, columnName, columnNameTxn);
+            if (tmpPath == null) {
+                tmpPath = new Path();
+            }
+            tmpPath.of(path).put(".tmp").$();
+            final int fd = TableUtils.openRW(ff, tmpPath, LOG, CairoConfiguration.O_NONE);
+            try {
+                if (ff.write(fd, buf, SIZE, 0) != SIZE) {
+                    throw CairoException.critical(ff.errno()).put("could not write zone map [path=").put(tmpPath).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            if (ff.rename(tmpPath, fileName) != Files.FILES_RENAME_OK) {
+                ff.removeQuiet(tmpPath);
+                throw CairoException.critical(ff.errno()).put("could not rename zone map [from=").put(tmpPath).put(", to=").put(fileName).put(']');
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    /**
+     * Brings zone map of the column up to date with the rows appended since the previous update. Only the
+     * appended rows are scanned and nothing is written to disk. When zone map describes different column
+     * version, column top or more rows than the partition has, it is loaded from the zone map file or,
+     * failing that, computed from the column file.
+     *
+     * @param path partition path, left unchanged
+     */
+    public void update(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        if (!matches(columnNameTxn, columnTop) || this.rowCount > rowCount) {
+            if (!readFile(ff, path, columnName, columnNameTxn) || this.columnTop != columnTop || this.rowCount > rowCount) {
+                reset(columnNameTxn, columnType, columnTop);
+            }
+        }
+        if (this.rowCount < rowCount) {
+            scan(ff, path, columnName, columnNameTxn, columnType, columnTop, this.rowCount, rowCount);
+            this.rowCount = rowCount;
+        }
+    }
+
+    /**
+     * Computes zone map of the column from the column file and writes it next to the file.
+     *
+     * @param path partition path, left unchanged
+     */
+    public void write(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        reset(columnNameTxn, columnType, columnTop);
+        scan(ff, path, columnName, columnNameTxn, columnType, columnTop, 0, rowCount);
+        this.rowCount = rowCount;
+        store(ff, path, columnName);
+    }
+
+    private static boolean isNull(int columnType, long value) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                return value == Numbers.INT_NaN;
+            case ColumnType.LONG:
+                return value == Numbers.LONG_NaN;
+            default:
+                return Double.isNaN(Double.longBitsToDouble(value));
+        }
+    }
+
+    private static boolean less(int columnType, long a, long b) {
+        return ColumnType.tagOf(columnType) == ColumnType.DOUBLE ? Double.longBitsToDouble(a) < Double.longBitsToDouble(b) : a < b;
+    }
+
+    private void merge(int columnType, long lo, long hi) {
+        if (!isNull(columnType, lo) && (isNull(columnType, min) || less(columnType, lo, min))) {
+            min = lo;
+        }
+        if (!isNull(columnType, hi) && (isNull(columnType, max) || less(columnType, max, hi))) {
+            max = hi;
+        }
+    }
+
+    private boolean readFile(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn) {
+        final int plen = path.size();
+        final int fd = ff.openRO(TableUtils.zoneMapFileName(path, columnName, columnNameTxn));
+        path.trimTo(plen);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            if (ff.read(fd, buf, SIZE, 0) != SIZE) {
+                return false;
+            }
+            this.columnNameTxn = columnNameTxn;
+            columnTop = Unsafe.getUnsafe().getLong(buf + OFFSET_COLUMN_TOP);
+            rowCount = Unsafe.getUnsafe().getLong(buf + OFFSET_ROW_COUNT);
+            nullCount = Unsafe.getUnsafe().getLong(buf + OFFSET_NULL_COUNT);
+            min = Unsafe.getUnsafe().getLong(buf + OFFSET_MIN);
+            max = Unsafe.getUnsafe().getLong(buf + OFFSET_MAX);
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void reset(long columnNameTxn, int columnType, long columnTop) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                min = Numbers.INT_NaN;
+                max = Numbers.INT_NaN;
+                break;
+            case ColumnType.LONG:
+                min = Numbers.LONG_NaN;
+                max = Numbers.LONG_NaN;
+                break;
+            default:
+                min = Double.doubleToLongBits(Double.NaN);
+                max = min;
+                break;
+        }
+        this.columnNameTxn = columnNameTxn;
+        this.columnTop = columnTop;
+        nullCount = 0;
+        rowCount = 0;
+    }
+
+    // merges rows [rowLo, rowHi) into min, max and null count, rows above column top are nulls
+    private void scan(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowLo, long rowHi) {
+        final int plen = path.size();
+        final long valueLo = Math.max(0, rowLo - columnTop);
+        final long valueHi = Math.max(0, rowHi - columnTop);
+        final long valueCount = valueHi - valueLo;
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        long nonNullCount = 0;
+
+        if (valueCount > 0) {
+            final long size = valueHi << shl;
+            final int fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+            path.trimTo(plen);
+            try {
+                final long addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+                try {
+                    final long lo = addr + (valueLo << shl);
+                    switch (ColumnType.tagOf(columnType)) {
+                        case ColumnType.INT:
+                            nonNullCount = Vect.countInt(lo, valueCount);
+                            merge(columnType, Vect.minInt(lo, valueCount), Vect.maxInt(lo, valueCount));
+                            break;
+                        case ColumnType.LONG:
+                            nonNullCount = Vect.countLong(lo, valueCount);
+                            merge(columnType, Vect.minLong(lo, valueCount), Vect.maxLong(lo, valueCount));
+                            break;
+                        default:
+                            nonNullCount = Vect.countDouble(lo, valueCount);
+                            merge(
+                                    columnType,
+                                    Double.doubleToLongBits(Vect.minDouble(lo, valueCount)),
+                                    Double.doubleToLongBits(Vect.maxDouble(lo, valueCount))
+                            );
+                            break;
+                    }
+                } finally {
+                    ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+                }
+            } finally {
+                ff.close(fd);
+            }
+        }
+        nullCount += rowHi - rowLo - nonNullCount;
+    }
+}
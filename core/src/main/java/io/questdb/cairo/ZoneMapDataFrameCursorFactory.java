@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Skips data frames of partitions, which cannot contain rows matching the filter, according to
+ * partition zone maps. Each predicate compares a column to a constant, and predicates are
+ * conjuncts of the filter. Partitions without valid zone maps are never skipped.
+ */
+public class ZoneMapDataFrameCursorFactory extends AbstractSkippingDataFrameCursorFactory {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 4;
+    public static final int OP_GT = 3;
+    public static final int OP_LE = 2;
+    public static final int OP_LT = 1;
+    private final IntList columnIndexes;
+    private final IntList ops;
+    private final LongList values;
+    private final ZoneMap zoneMap = new ZoneMap();
+
+    /**
+     * @param columnIndexes indexes of INT, LONG or DOUBLE columns in the table reader metadata
+     * @param ops           comparison of column to the value, one of OP_* constants
+     * @param values        values to compare columns to, double bits for DOUBLE columns
+     */
+    public ZoneMapDataFrameCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameCursorFactory base,
+            IntList columnIndexes,
+            IntList ops,
+            LongList values
+    ) {
+        super(configuration, base);
+        this.columnIndexes = columnIndexes;
+        this.ops = ops;
+        this.values = values;
+    }
+
+    /**
+     * Checks if no value in the range of [min, max] satisfies "column op value".
+     */
+    public static boolean excludes(int op, double min, double max, double value) {
+        switch (op) {
+            case OP_EQ:
+                return value < min || value > max;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            default:
+                return max < value;
+        }
+    }
+
+    /**
+     * Checks if no value in the range of [min, max] satisfies "column op value".
+     */
+    public static boolean excludes(int op, long min, long max, long value) {
+        switch (op) {
+            case OP_EQ:
+                return value < min || value > max;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            default:
+                return max < value;
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(zoneMap);
+    }
+
+    @Override
+    protected boolean canSkip(TableReader reader, int partitionIndex, long partitionTimestamp, Path partitionPath) {
+        final long rowCount = reader.getPartitionRowCount(partitionIndex);
+        final int columnBase = reader.getColumnBase(partitionIndex);
+        final TableReaderMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+            final long columnTop = reader.getColumnTop(columnBase, columnIndex);
+            if (zoneMap.read(ff, partitionPath, metadata.getColumnName(columnIndex), columnNameTxn, columnTop, rowCount)) {
+                if (zoneMap.getNullCount() == rowCount) {
+                    // comparison of null to a value is always false
+                    return true;
+                }
+                final int op = ops.getQuick(i);
+                final long value = values.getQuick(i);
+                if (ColumnType.tagOf(metadata.getColumnType(columnIndex)) == ColumnType.DOUBLE) {
+                    if (excludes(op, zoneMap.getMinDouble(), zoneMap.getMaxDouble(), Double.longBitsToDouble(value))) {
+                        return true;
+                    }
+                } else if (excludes(op, zoneMap.getMinLong(), zoneMap.getMaxLong(), value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
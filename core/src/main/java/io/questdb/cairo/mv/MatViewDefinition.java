@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Definition of a materialized view: a SAMPLE BY query over a single WAL base table.
+ * The definition is stored in the {@link #MAT_VIEW_FILE_NAME} file of the view table
+ * together with the last base table seqTxn the view is refreshed to.
+ */
+public class MatViewDefinition {
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
+    public static final long REFRESHED_SEQ_TXN_OFFSET = 0;
+    private static final long BASE_TABLE_NAME_LO_OFFSET = REFRESHED_SEQ_TXN_OFFSET + Long.BYTES;
+    private static final long BASE_TABLE_NAME_HI_OFFSET = BASE_TABLE_NAME_LO_OFFSET + Integer.BYTES;
+    private static final long BASE_TABLE_ALIASED_OFFSET = BASE_TABLE_NAME_HI_OFFSET + Integer.BYTES;
+    private static final long BASE_TABLE_NAME_OFFSET = BASE_TABLE_ALIASED_OFFSET + Integer.BYTES;
+    private final boolean baseTableAliased;
+    private final String baseTableName;
+    // position of the base table name in the query text
+    private final int baseTableNameHi;
+    private final int baseTableNameLo;
+    private final String query;
+    private final String sampleBy;
+
+    public MatViewDefinition(
+            String baseTableName,
+            int baseTableNameLo,
+            int baseTableNameHi,
+            boolean baseTableAliased,
+            String query,
+            String sampleBy
+    ) {
+        this.baseTableName = baseTableName;
+        this.baseTableNameLo = baseTableNameLo;
+        this.baseTableNameHi = baseTableNameHi;
+        this.baseTableAliased = baseTableAliased;
+        this.query = query;
+        this.sampleBy = sampleBy;
+    }
+
+    public static MatViewDefinition read(FilesFacade ff, LPSZ path, MemoryCMR mem) {
+        final long fileLen = ff.length(path);
+        if (fileLen < BASE_TABLE_NAME_OFFSET) {
+            throw CairoException.critical(0).put("invalid materialized view file [path=").put(path).put(", fileLen=").put(fileLen).put(']');
+        }
+        mem.of(ff, path, fileLen, fileLen, MemoryTag.MMAP_DEFAULT);
+        long offset = BASE_TABLE_NAME_OFFSET;
+        final String baseTableName = Chars.toString(mem.getStr(offset));
+        offset += Vm.getStorageLength(baseTableName);
+        final String sampleBy = Chars.toString(mem.getStr(offset));
+        offset += Vm.getStorageLength(sampleBy);
+        return new MatViewDefinition(
+                baseTableName,
+                mem.getInt(BASE_TABLE_NAME_LO_OFFSET),
+                mem.getInt(BASE_TABLE_NAME_HI_OFFSET),
+                mem.getInt(BASE_TABLE_ALIASED_OFFSET) != 0,
+                Chars.toString(mem.getStr(offset)),
+                sampleBy
+        );
+    }
+
+    public static long readRefreshedSeqTxn(MemoryCMR mem) {
+        return mem.getLong(REFRESHED_SEQ_TXN_OFFSET);
+    }
+
+    /**
+     * Appends the statement that refreshes the view. When lo is Long.MIN_VALUE the
+     * whole base table is aggregated, otherwise only the base rows in [lo, hi) are.
+     */
+    public void appendRefreshSql(StringSink sink, CharSequence viewName, CharSequence timestampName, long lo, long hi) {
+        sink.put("insert into \"").put(viewName).put("\" ");
+        if (lo == Long.MIN_VALUE) {
+            sink.put(query);
+            return;
+        }
+        sink.put(query, 0, baseTableNameLo);
+        sink.put("(select * from ").put(query, baseTableNameLo, baseTableNameHi);
+        sink.put(" where \"").put(timestampName).put("\" >= '");
+        TimestampFormatUtils.appendDateTimeUSec(sink, lo);
+        sink.put("' and \"").put(timestampName).put("\" < '");
+        TimestampFormatUtils.appendDateTimeUSec(sink, hi);
+        sink.put("')");
+        if (!baseTableAliased) {
+            sink.put(' ').put(query, baseTableNameLo, baseTableNameHi);
+        }
+        sink.put(query, baseTableNameHi, query.length());
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getSampleBy() {
+        return sampleBy;
+    }
+
+    public void write(MemoryMA mem, long refreshedSeqTxn) {
+        mem.putLong(refreshedSeqTxn);
+        mem.putInt(baseTableNameLo);
+        mem.putInt(baseTableNameHi);
+        mem.putInt(baseTableAliased ? 1 : 0);
+        mem.putStr(baseTableName);
+        mem.putStr(sampleBy);
+        mem.putStr(query);
+        mem.sync(false);
+        mem.close(true, Vm.TRUNCATE_TO_POINTER);
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.TableMetadata;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.mv.MatViewDefinition.MAT_VIEW_FILE_NAME;
+import static io.questdb.cairo.mv.MatViewDefinition.REFRESHED_SEQ_TXN_OFFSET;
+
+/**
+ * Refreshes materialized views. The SAMPLE BY buckets overlapping the timestamp range
+ * of the applied base table transactions are recomputed and upserted into the view,
+ * the view deduplicates the rows on the timestamp and the non-aggregate columns.
+ */
+public class MatViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MatViewRefreshJob.class);
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final Path path = new Path();
+    private final StringSink sql = new StringSink();
+    private final ObjList<MatViewState> views = new ObjList<>();
+    private SqlExecutionContextImpl sqlExecutionContext;
+    private long tempMem8b;
+
+    public MatViewRefreshJob(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+        this.sqlExecutionContext.with(
+                configuration.getFactoryProvider().getSecurityContextFactory().getRootContext(),
+                null,
+                null
+        );
+        this.tempMem8b = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        sqlExecutionContext = Misc.free(sqlExecutionContext);
+        tempMem8b = Unsafe.free(tempMem8b, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    private boolean refresh(MatViewState view, TableToken viewToken, TableToken baseTableToken) {
+        final MatViewDefinition definition = view.getDefinition();
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            final String timestampName;
+            try (TableMetadata metadata = engine.getTableMetadata(baseTableToken)) {
+                timestampName = metadata.getColumnName(metadata.getTimestampIndex());
+            }
+
+            long lo = view.getRefreshLo();
+            long hi = Long.MIN_VALUE;
+            if (lo != Long.MIN_VALUE) {
+                // widen the range to whole buckets, the buckets are recomputed from scratch
+                final TimestampSampler sampler = TimestampSamplerFactory.getInstance(definition.getSampleBy(), 0);
+                sampler.setStart(0);
+                lo = sampler.round(lo);
+                hi = sampler.nextTimestamp(sampler.round(view.getRefreshHi()));
+            }
+            sql.clear();
+            definition.appendRefreshSql(sql, viewToken.getTableName(), timestampName, lo, hi);
+            CairoEngine.compile(compiler, sql, sqlExecutionContext);
+
+            view.refreshed();
+            writeRefreshedSeqTxn(viewToken, view.getRefreshedSeqTxn());
+            LOG.info().$("refreshed materialized view [view=").$(viewToken)
+                    .$(", baseSeqTxn=").$(view.getRefreshedSeqTxn())
+                    .$(", lo=").$ts(lo)
+                    .$(", hi=").$ts(hi)
+                    .I$();
+            return true;
+        } catch (Throwable th) {
+            // a failing refresh fails again on every run, stop refreshing the view until restart
+            LOG.critical().$("could not refresh materialized view, view is invalidated [view=").$(viewToken)
+                    .$(", error=").$(th)
+                    .I$();
+            view.invalidate();
+            return false;
+        }
+    }
+
+    private void writeRefreshedSeqTxn(TableToken viewToken, long seqTxn) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getRoot()).concat(viewToken).concat(MAT_VIEW_FILE_NAME).$();
+        final int fd = TableUtils.openRW(ff, path, LOG, configuration.getWriterFileOpenOpts());
+        try {
+            TableUtils.writeLongOrFail(ff, fd, REFRESHED_SEQ_TXN_OFFSET, seqTxn, tempMem8b, path);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        engine.getMatViewRegistry().getViews(views);
+        boolean useful = false;
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final MatViewState view = views.getQuick(i);
+            final TableToken viewToken = engine.getTableTokenByDirName(view.getViewDirName());
+            final TableToken baseTableToken = engine.getTableTokenIfExists(view.getDefinition().getBaseTableName());
+            if (viewToken == null || baseTableToken == null || view.isInvalid()) {
+                continue;
+            }
+            if (!view.isChecked()) {
+                try (TableReader reader = engine.getReader(baseTableToken)) {
+                    view.check(reader.getTxFile().getSeqTxn());
+                } catch (Throwable th) {
+                    LOG.error().$("could not check materialized view base table [view=").$(viewToken)
+                            .$(", error=").$(th)
+                            .I$();
+                    continue;
+                }
+            }
+            if (view.startRefresh()) {
+                useful |= refresh(view, viewToken, baseTableToken);
+            }
+        }
+        views.clear();
+        return useful;
+    }
+}
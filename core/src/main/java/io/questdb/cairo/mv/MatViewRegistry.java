@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.mv.MatViewDefinition.MAT_VIEW_FILE_NAME;
+
+/**
+ * Materialized views of the database. The registry routes the timestamp ranges of the
+ * applied base table transactions to the views, {@link MatViewRefreshJob} refreshes them.
+ */
+public class MatViewRegistry {
+    private static final Log LOG = LogFactory.getLog(MatViewRegistry.class);
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final ObjList<MatViewState> views = new ObjList<>();
+    // lets the apply jobs skip the lock when there are no views
+    private volatile int viewCount;
+
+    public MatViewRegistry(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+    }
+
+    /**
+     * Stores the definition of a view created from the base table at baseSeqTxn and
+     * starts refreshing the view.
+     */
+    public synchronized void createView(TableToken viewToken, MatViewDefinition definition, long baseSeqTxn, MemoryMA mem, Path path) {
+        path.of(configuration.getRoot()).concat(viewToken).concat(MAT_VIEW_FILE_NAME).$();
+        mem.smallFile(configuration.getFilesFacade(), path, MemoryTag.MMAP_DEFAULT);
+        definition.write(mem, baseSeqTxn);
+        views.add(new MatViewState(viewToken.getDirName(), definition, baseSeqTxn));
+        viewCount = views.size();
+    }
+
+    public void dataTxnApplied(TableToken tableToken, long seqTxn, long minTimestamp, long maxTimestamp) {
+        if (viewCount == 0) {
+            return;
+        }
+        synchronized (this) {
+            for (int i = 0, n = views.size(); i < n; i++) {
+                final MatViewState view = views.getQuick(i);
+                if (Chars.equalsIgnoreCase(view.getDefinition().getBaseTableName(), tableToken.getTableName())) {
+                    view.dataTxnApplied(seqTxn, minTimestamp, maxTimestamp);
+                }
+            }
+        }
+    }
+
+    public synchronized void dropView(TableToken tableToken) {
+        for (int i = 0, n = views.size(); i < n; i++) {
+            if (Chars.equals(views.getQuick(i).getViewDirName(), tableToken.getDirName())) {
+                views.remove(i);
+                viewCount = views.size();
+                LOG.info().$("dropped materialized view [view=").$(tableToken).I$();
+                return;
+            }
+        }
+    }
+
+    public synchronized void getViews(ObjList<MatViewState> sink) {
+        sink.clear();
+        sink.addAll(views);
+    }
+
+    /**
+     * Loads the definitions of the existing views. The views are checked against their
+     * base tables by the refresh job before they are refreshed.
+     */
+    public synchronized void reload() {
+        views.clear();
+        final FilesFacade ff = configuration.getFilesFacade();
+        final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
+        engine.getTableTokens(tableTokens, false);
+        try (Path path = new Path(); MemoryCMR mem = Vm.getCMRInstance()) {
+            for (int i = 0, n = tableTokens.size(); i < n; i++) {
+                final TableToken tableToken = tableTokens.get(i);
+                path.of(configuration.getRoot()).concat(tableToken).concat(MAT_VIEW_FILE_NAME).$();
+                if (ff.exists(path)) {
+                    try {
+                        final MatViewDefinition definition = MatViewDefinition.read(ff, path, mem);
+                        views.add(new MatViewState(tableToken.getDirName(), definition, MatViewDefinition.readRefreshedSeqTxn(mem)));
+                    } catch (CairoException e) {
+                        LOG.critical().$("could not load materialized view [view=").$(tableToken)
+                                .$(", error=").$(e.getFlyweightMessage())
+                                .I$();
+                    }
+                }
+            }
+        }
+        viewCount = views.size();
+    }
+}
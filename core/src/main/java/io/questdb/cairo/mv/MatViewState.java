@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+/**
+ * Refresh state of a materialized view. WAL apply jobs record the timestamp range of
+ * the base table transactions they commit, the refresh job takes the accumulated range
+ * and recomputes the view buckets that overlap it.
+ */
+public class MatViewState {
+    private final MatViewDefinition definition;
+    private final String viewDirName;
+    private boolean checked;
+    private long dirtyHi = Long.MIN_VALUE;
+    private long dirtyLo = Long.MAX_VALUE;
+    private boolean fullRefresh;
+    private boolean invalid;
+    private long notifiedSeqTxn;
+    private long refreshHi;
+    private long refreshLo;
+    private long refreshSeqTxn;
+    private long refreshedSeqTxn;
+
+    public MatViewState(String viewDirName, MatViewDefinition definition, long refreshedSeqTxn) {
+        this.viewDirName = viewDirName;
+        this.definition = definition;
+        this.refreshedSeqTxn = refreshedSeqTxn;
+        this.notifiedSeqTxn = refreshedSeqTxn;
+    }
+
+    /**
+     * Compares the base table seqTxn the view is refreshed to with the current one.
+     * Transactions applied while nobody was listening have no known timestamp range,
+     * so the view is refreshed in full.
+     */
+    public synchronized void check(long baseSeqTxn) {
+        if (baseSeqTxn > refreshedSeqTxn) {
+            fullRefresh = true;
+            notifiedSeqTxn = Math.max(notifiedSeqTxn, baseSeqTxn);
+        }
+        checked = true;
+    }
+
+    public synchronized void dataTxnApplied(long seqTxn, long minTimestamp, long maxTimestamp) {
+        dirtyLo = Math.min(dirtyLo, minTimestamp);
+        dirtyHi = Math.max(dirtyHi, maxTimestamp);
+        notifiedSeqTxn = Math.max(notifiedSeqTxn, seqTxn);
+    }
+
+    public MatViewDefinition getDefinition() {
+        return definition;
+    }
+
+    public long getRefreshHi() {
+        return refreshHi;
+    }
+
+    // Long.MIN_VALUE when the whole base table has to be aggregated
+    public long getRefreshLo() {
+        return refreshLo;
+    }
+
+    public long getRefreshSeqTxn() {
+        return refreshSeqTxn;
+    }
+
+    public synchronized long getRefreshedSeqTxn() {
+        return refreshedSeqTxn;
+    }
+
+    public String getViewDirName() {
+        return viewDirName;
+    }
+
+    public synchronized void invalidate() {
+        invalid = true;
+    }
+
+    public synchronized boolean isChecked() {
+        return checked;
+    }
+
+    public synchronized boolean isInvalid() {
+        return invalid;
+    }
+
+    public synchronized void refreshed() {
+        refreshedSeqTxn = Math.max(refreshedSeqTxn, refreshSeqTxn);
+    }
+
+    /**
+     * Moves the pending timestamp range to the refresh range, the range of the
+     * transactions applied from now on is accumulated for the next refresh.
+     *
+     * @return false when there is nothing to refresh
+     */
+    public synchronized boolean startRefresh() {
+        if (invalid || !checked || (!fullRefresh && dirtyLo > dirtyHi)) {
+            return false;
+        }
+        refreshLo = fullRefresh ? Long.MIN_VALUE : dirtyLo;
+        refreshHi = fullRefresh ? Long.MIN_VALUE : dirtyHi;
+        refreshSeqTxn = notifiedSeqTxn;
+        dirtyLo = Long.MAX_VALUE;
+        dirtyHi = Long.MIN_VALUE;
+        fullRefresh = false;
+        return true;
+    }
+}
@@ -26,18 +26,38 @@ package io.questdb.cairo.pool;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.SymbolValueCache;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TieredPartitionCache;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     private final MessageBus messageBus;
+    private final SymbolValueCache symbolValueCache;
+    private final TieredPartitionCache tieredPartitionCache;
     private ReaderListener readerListener;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, @Nullable SymbolValueCache symbolValueCache) {
+        this(configuration, messageBus, symbolValueCache, null);
+    }
+
+    public ReaderPool(
+            CairoConfiguration configuration,
+            MessageBus messageBus,
+            @Nullable SymbolValueCache symbolValueCache,
+            @Nullable TieredPartitionCache tieredPartitionCache
+    ) {
         super(configuration, configuration.getReaderPoolMaxSegments(), configuration.getInactiveReaderTTL());
         this.messageBus = messageBus;
+        this.symbolValueCache = symbolValueCache;
+        this.tieredPartitionCache = tieredPartitionCache;
     }
 
     @TestOnly
@@ -52,7 +72,7 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     @Override
     protected R newTenant(TableToken tableToken, Entry<R> entry, int index) {
-        return new R(this, entry, index, tableToken, messageBus, readerListener);
+        return new R(this, entry, index, tableToken, messageBus, symbolValueCache, tieredPartitionCache, readerListener);
     }
 
     @TestOnly
@@ -73,9 +93,11 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
                 int index,
                 TableToken tableToken,
                 MessageBus messageBus,
+                SymbolValueCache symbolValueCache,
+                TieredPartitionCache tieredPartitionCache,
                 ReaderListener readerListener
         ) {
-            super(pool.getConfiguration(), tableToken, messageBus);
+            super(pool.getConfiguration(), tableToken, messageBus, symbolValueCache, tieredPartitionCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
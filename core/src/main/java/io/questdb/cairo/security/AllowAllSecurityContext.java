@@ -57,6 +57,10 @@ public class AllowAllSecurityContext implements SecurityContext {
     public void authorizeAlterTableAttachPartition(TableToken tableToken) {
     }
 
+    @Override
+    public void authorizeAlterTableConvertPartition(TableToken tableToken) {
+    }
+
     @Override
     public void authorizeAlterTableDedupDisable(TableToken tableToken) {
     }
@@ -93,6 +97,10 @@ public class AllowAllSecurityContext implements SecurityContext {
     public void authorizeCopyCancel(SecurityContext cancellingSecurityContext) {
     }
 
+    @Override
+    public void authorizeCopyExport() {
+    }
+
     @Override
     public void authorizeDatabaseSnapshot() {
     }
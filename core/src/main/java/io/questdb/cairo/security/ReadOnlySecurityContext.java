@@ -62,6 +62,11 @@ public class ReadOnlySecurityContext implements SecurityContext {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
     }
 
+    @Override
+    public void authorizeAlterTableConvertPartition(TableToken tableToken) {
+        throw CairoException.authorization().put("Write permission denied").setCacheable(true);
+    }
+
     @Override
     public void authorizeAlterTableDedupDisable(TableToken tableToken) {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
@@ -112,6 +117,11 @@ public class ReadOnlySecurityContext implements SecurityContext {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
     }
 
+    @Override
+    public void authorizeCopyExport() {
+        throw CairoException.authorization().put("Write permission denied").setCacheable(true);
+    }
+
     @Override
     public void authorizeDatabaseSnapshot() {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
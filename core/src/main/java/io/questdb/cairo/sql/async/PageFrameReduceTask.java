@@ -31,22 +31,29 @@ import io.questdb.cairo.sql.StatefulAtom;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.FlyweightMessageContainer;
 import io.questdb.std.Misc;
+import io.questdb.std.str.DirectUtf8Sink;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 
 public class PageFrameReduceTask implements Closeable {
 
+    public static final byte TYPE_EXPORT = 5;
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_HASH_JOIN = 3;
+    public static final byte TYPE_LATEST_BY = 6;
+    public static final byte TYPE_SORT = 4;
     private static final String exceptionMessage = "unexpected filter error";
 
     // Used to pass the list of column page frame addresses to a JIT-compiled filter.
     private final DirectLongList columns;
     private final StringSink errorMsg = new StringSink();
-    private final DirectLongList filteredRows; // Used for TYPE_FILTER.
+    private final long exportSinkCapacity;
+    private final DirectLongList filteredRows; // Used for TYPE_FILTER and TYPE_LATEST_BY.
     private final long pageFrameQueueCapacity;
+    private DirectUtf8Sink exportSink; // Used for TYPE_EXPORT, allocated on first use.
     private int frameIndex = Integer.MAX_VALUE;
     private PageFrameSequence<?> frameSequence;
     private long frameSequenceId;
@@ -57,12 +64,14 @@ public class PageFrameReduceTask implements Closeable {
         this.filteredRows = new DirectLongList(configuration.getPageFrameReduceRowIdListCapacity(), memoryTag);
         this.columns = new DirectLongList(configuration.getPageFrameReduceColumnListCapacity(), memoryTag);
         this.pageFrameQueueCapacity = configuration.getPageFrameReduceQueueCapacity();
+        this.exportSinkCapacity = configuration.getSqlCopyBufferSize();
     }
 
     @Override
     public void close() {
         Misc.free(filteredRows);
         Misc.free(columns);
+        exportSink = Misc.free(exportSink);
     }
 
     public DirectLongList getColumns() {
@@ -73,6 +82,13 @@ public class PageFrameReduceTask implements Closeable {
         return errorMsg;
     }
 
+    public DirectUtf8Sink getExportSink() {
+        if (exportSink == null) {
+            exportSink = new DirectUtf8Sink(exportSinkCapacity);
+        }
+        return exportSink;
+    }
+
     public DirectLongList getFilteredRows() {
         return filteredRows;
     }
@@ -121,14 +137,18 @@ public class PageFrameReduceTask implements Closeable {
         this.frameIndex = frameIndex;
         errorMsg.clear();
         isCancelled = false;
-        if (type == TYPE_FILTER) {
+        if (type == TYPE_FILTER || type == TYPE_LATEST_BY) {
             filteredRows.clear();
+        } else if (type == TYPE_EXPORT && exportSink != null) {
+            exportSink.clear();
         }
     }
 
     public void resetCapacities() {
         filteredRows.resetCapacity();
         columns.resetCapacity();
+        // export sink grows to the size of the largest formatted frame, so we let it go
+        exportSink = Misc.free(exportSink);
     }
 
     public void setErrorMsg(Throwable th) {
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.api.MemoryCARW;
+
+/**
+ * Readable column memory, which is backed by native memory rather than a mapped file. Table reader
+ * uses it for columns of Parquet partitions: the column is decoded into the append memory
+ * and then exposed read-only with {@link #seal()}. The memory is owned and released on close.
+ */
+public class MemoryDecodedMRImpl extends MemoryFMCRImpl {
+    private final MemoryCARW mem;
+
+    public MemoryDecodedMRImpl(long pageSize, int memoryTag) {
+        this.mem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, memoryTag);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        size = 0;
+        mem.close();
+    }
+
+    @Override
+    public void extend(long size) {
+        if (size > this.size) {
+            throw CairoException.critical(0).put("decoded column memory cannot be extended [size=").put(this.size)
+                    .put(", newSize=").put(size)
+                    .put(']');
+        }
+    }
+
+    /**
+     * @return memory to decode the column into, its content becomes readable after {@link #seal()}
+     */
+    public MemoryCARW getDecodeMem() {
+        return mem;
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size;
+    }
+
+    public void seal() {
+        of(mem.getAddress(), mem.getAppendOffset());
+    }
+}
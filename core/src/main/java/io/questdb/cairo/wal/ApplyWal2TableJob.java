@@ -28,6 +28,7 @@ import io.questdb.Telemetry;
 import io.questdb.TelemetryOrigin;
 import io.questdb.TelemetrySystemEvent;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewRegistry;
 import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cairo.wal.seq.TransactionLogCursor;
@@ -61,6 +62,8 @@ import static io.questdb.tasks.TableWriterTask.CMD_UPDATE_TABLE;
 public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificationTask> implements Closeable {
     public static final String WAL_2_TABLE_RESUME_REASON = "Resume WAL Data Application";
     private static final Log LOG = LogFactory.getLog(ApplyWal2TableJob.class);
+    // caps the time quota of a lagging table, so that it cannot monopolise the worker
+    private static final long MAX_TABLE_TIME_QUOTA_MULTIPLIER = 4;
     private static final String WAL_2_TABLE_WRITE_REASON = "WAL Data Application";
     private static final int WAL_APPLY_FAILED = -2;
     private static final int WAL_APPLY_IGNORE_ERROR = -1;
@@ -69,6 +72,9 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final WalMetrics metrics;
     private final MicrosecondClock microClock;
     private final OperationExecutor operationExecutor;
+    // seqTxn, min and max timestamp triplets of data transactions that are not visible to readers yet
+    private final LongList pendingDataTxns = new LongList();
+    private final int priority;
     private final long tableTimeQuotaMicros;
     private final Telemetry<TelemetryTask> telemetry;
     private final TelemetryFacade telemetryFacade;
@@ -89,6 +95,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         walEventReader = new WalEventReader(configuration.getFilesFacade());
         metrics = engine.getMetrics().walMetrics();
         lookAheadTransactionCount = configuration.getWalApplyLookAheadTransactionCount();
+        priority = configuration.isWalApplyHighPriority() ? PRIORITY_HIGH : PRIORITY_NORMAL;
         tableTimeQuotaMicros = configuration.getWalApplyTableTimeQuota() >= 0 ? configuration.getWalApplyTableTimeQuota() * 1000L : Timestamps.DAY_MICROS;
     }
 
@@ -98,6 +105,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         Misc.free(walEventReader);
     }
 
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
     private static boolean cleanDroppedTableDirectory(CairoEngine engine, Path tempPath, TableToken tableToken) {
         // Clean all the files inside table folder name except WAL directories and SEQ_DIR directory
         boolean allClean = true;
@@ -204,6 +216,12 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         return false;
     }
 
+    private void addPendingDataTxn(long seqTxn, long minTimestamp, long maxTimestamp) {
+        pendingDataTxns.add(seqTxn);
+        pendingDataTxns.add(minTimestamp);
+        pendingDataTxns.add(maxTimestamp);
+    }
+
     // Returns true if the application is finished and false if it's early terminated
     private void applyOutstandingWalTransactions(
             TableToken tableToken,
@@ -233,8 +251,15 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 writer.readWalTxnDetails(transactionLogCursor);
                 transactionLogCursor.toTop();
 
+                // transactions left in the O3 lag by the previous run are not notified yet
+                pendingDataTxns.clear();
+                for (long lagTxn = writer.getSeqTxn() + 1, n = writer.getAppliedSeqTxn(); lagTxn <= n; lagTxn++) {
+                    addPendingDataTxn(lagTxn, writer.getWalTnxDetails().getMinTimestamp(lagTxn), writer.getWalTnxDetails().getMaxTimestamp(lagTxn));
+                }
+
                 isTerminating = runStatus.isTerminating();
-                final long timeLimit = microClock.getTicks() + tableTimeQuotaMicros;
+                final long seqTxnLag = transactionLogCursor.getMaxTxn() - writer.getAppliedSeqTxn();
+                final long timeLimit = microClock.getTicks() + getTableTimeQuota(seqTxnLag);
                 boolean firstRun = true;
                 WHILE_TRANSACTION_CURSOR:
                 while (!isTerminating && ((finishedAll = microClock.getTicks() <= timeLimit) || firstRun) && transactionLogCursor.hasNext()) {
@@ -276,6 +301,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 walTelemetryFacade.store(WAL_TXN_APPLY_START, tableToken, walId, seqTxn, -1L, -1L, start - commitTimestamp);
                                 writer.setSeqTxn(seqTxn);
                                 structuralChangeCursor.next().apply(writer, true);
+                                notifyDataTxnsApplied(writer);
                                 walTelemetryFacade.store(WAL_TXN_STRUCTURE_CHANGE_APPLIED, tableToken, walId, seqTxn, -1L, -1L, microClock.getTicks() - start);
                             } else {
                                 // Something messed up in sequencer.
@@ -328,6 +354,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                     seqTxn,
                                     commitTimestamp
                             );
+                            notifyDataTxnsApplied(writer);
 
                             if (added > -1L) {
                                 insertTimespan += microClock.getTicks() - start;
@@ -346,12 +373,14 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 if (!finishedAll || isTerminating) {
                     writer.commitSeqTxn();
                 }
+                notifyDataTxnsApplied(writer);
 
                 if (totalTransactionCount > 0) {
                     LOG.info().$("job ")
                             .$(finishedAll ? "finished" : "ejected")
                             .$(" [table=").utf8(writer.getTableToken().getDirName())
                             .$(", seqTxn=").$(writer.getAppliedSeqTxn())
+                            .$(", seqTxnLag=").$(transactionLogCursor.getMaxTxn() - writer.getAppliedSeqTxn())
                             .$(", transactions=").$(totalTransactionCount)
                             .$(", rows=").$(rowsAdded)
                             .$(", time=").$(insertTimespan / 1000)
@@ -373,6 +402,33 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         TelemetryWalTask.store(walTelemetry, event, tableToken.getTableId(), walId, seqTxn, rowCount, physicalRowCount, latencyUs);
     }
 
+    private long getTableTimeQuota(long seqTxnLag) {
+        // Tables that fell behind by more than a look-ahead window get a bigger share of the worker
+        // before being ejected. Otherwise, a lagging table re-queued after each quota waits behind
+        // tables with a few pending transactions and keeps falling behind.
+        if (lookAheadTransactionCount > 0 && seqTxnLag > lookAheadTransactionCount) {
+            return tableTimeQuotaMicros * Math.min(seqTxnLag / lookAheadTransactionCount, MAX_TABLE_TIME_QUOTA_MULTIPLIER);
+        }
+        return tableTimeQuotaMicros;
+    }
+
+    private void notifyDataTxnsApplied(TableWriter writer) {
+        final long committedSeqTxn = writer.getSeqTxn();
+        final WalListener walListener = engine.getWalListener();
+        final MatViewRegistry matViewRegistry = engine.getMatViewRegistry();
+        int i = 0;
+        for (int n = pendingDataTxns.size(); i < n && pendingDataTxns.getQuick(i) <= committedSeqTxn; i += 3) {
+            final long seqTxn = pendingDataTxns.getQuick(i);
+            final long minTimestamp = pendingDataTxns.getQuick(i + 1);
+            final long maxTimestamp = pendingDataTxns.getQuick(i + 2);
+            walListener.dataTxnApplied(writer.getTableToken(), seqTxn, minTimestamp, maxTimestamp);
+            matViewRegistry.dataTxnApplied(writer.getTableToken(), seqTxn, minTimestamp, maxTimestamp);
+        }
+        if (i > 0) {
+            pendingDataTxns.removeIndexBlock(0, i);
+        }
+    }
+
     private long processWalCommit(
             TableWriter writer,
             int walId,
@@ -406,6 +462,9 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                         long physicalRowCount = writer.getPhysicallyWrittenRowsSinceLastCommit();
                         metrics.addApplyRowsWritten(rowCount, physicalRowCount, latency);
                         walTelemetryFacade.store(WAL_TXN_DATA_APPLIED, writer.getTableToken(), walId, seqTxn, rowsAdded, physicalRowCount, latency);
+                        // rows copied to the O3 lag are not visible yet, the listener
+                        // is notified once the writer commits this seqTxn
+                        addPendingDataTxn(seqTxn, dataInfo.getMinTimestamp(), dataInfo.getMaxTimestamp());
                         return rowCount;
                     } else {
                         // re-build wal transaction details
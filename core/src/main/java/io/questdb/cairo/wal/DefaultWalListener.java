@@ -29,6 +29,10 @@ import io.questdb.cairo.TableToken;
 public class DefaultWalListener implements WalListener {
     public static final DefaultWalListener INSTANCE = new DefaultWalListener();
 
+    @Override
+    public void dataTxnApplied(TableToken tableToken, long seqTxn, long minTimestamp, long maxTimestamp) {
+    }
+
     @Override
     public void dataTxnCommitted(TableToken tableToken, long txn, long timestamp, int walId, int segmentId, int segmentTxn) {
     }
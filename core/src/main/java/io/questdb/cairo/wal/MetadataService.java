@@ -30,6 +30,15 @@ import io.questdb.std.LongList;
 import org.jetbrains.annotations.NotNull;
 
 public interface MetadataService {
+    /**
+     * Builds bloom index of the column in all partitions, except the last one, and marks
+     * the column as bloom indexed in metadata. Bloom index lets equality filters skip
+     * partitions, which do not contain the value.
+     *
+     * @param columnName name of INT, LONG, UUID or STRING column
+     */
+    void addBloomIndex(@NotNull CharSequence columnName);
+
     /**
      * Adds new column to table, which can be either empty or can have data already. When existing columns
      * already have data this function will create ".top" file in addition to column files. ".top" file contains
@@ -89,10 +98,20 @@ public interface MetadataService {
 
     void changeCacheFlag(int columnIndex, boolean isCacheOn);
 
+    /**
+     * Converts partition to Parquet format, the partition becomes read only.
+     *
+     * @param partitionTimestamp partition timestamp
+     * @return false when the partition does not exist
+     */
+    boolean convertPartition(long partitionTimestamp);
+
     AttachDetachStatus detachPartition(long partitionTimestamp);
 
     void disableDeduplication();
 
+    void dropBloomIndex(@NotNull CharSequence columnName);
+
     void dropIndex(@NotNull CharSequence columnName);
 
     void enableDeduplicationWithUpsertKeys(LongList columnsIndexes);
@@ -125,6 +144,8 @@ public interface MetadataService {
 
     void setMetaO3MaxLag(long o3MaxLagUs);
 
+    void setMetaTtl(long ttl);
+
     void squashPartitions();
 
     void tick();
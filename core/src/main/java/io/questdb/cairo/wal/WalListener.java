@@ -28,6 +28,13 @@ import io.questdb.cairo.TableToken;
 
 public interface WalListener {
 
+    /**
+     * Called by the apply job once a data transaction is written to the table.
+     * The timestamps are the bounds of the rows in the transaction, so a consumer,
+     * e.g. a pre-aggregated rollup, can recompute only the time range the commit touched.
+     */
+    void dataTxnApplied(TableToken tableToken, long seqTxn, long minTimestamp, long maxTimestamp);
+
     void dataTxnCommitted(TableToken tableToken, long txn, long timestamp, int walId, int segmentId, int segmentTxn);
 
     void nonDataTxnCommitted(TableToken tableToken, long txn, long timestamp);
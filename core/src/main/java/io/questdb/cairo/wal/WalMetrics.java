@@ -27,27 +27,35 @@ package io.questdb.cairo.wal;
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
 import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.VirtualLongGauge;
 
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WalMetrics {
+    private static final VirtualLongGauge.StatProvider NO_LAG = () -> 0;
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
+    private final Counter applyTransactionsCounter;
     private final Counter rowsWrittenCounter;
     private final AtomicLong totalRowsWritten = new AtomicLong();
     private final AtomicLong totalRowsWrittenTotalTime = new AtomicLong();
+    private volatile VirtualLongGauge.StatProvider seqTxnLagProvider = NO_LAG;
 
     public WalMetrics(MetricsRegistry metricsRegistry) {
         this.applyPhysicallyWrittenRowsCounter = metricsRegistry.newCounter("wal_apply_physically_written_rows");
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
+        this.applyTransactionsCounter = metricsRegistry.newCounter("wal_apply_transactions");
+        // transactions waiting to be applied to the most lagging table
+        metricsRegistry.newVirtualGauge("wal_apply_max_seq_txn_lag", () -> seqTxnLagProvider.getValue());
         this.rowsWrittenCounter = metricsRegistry.newCounter("wal_written_rows");
     }
 
     public void addApplyRowsWritten(long rows, long physicallyWrittenRows, long timeMicros) {
         applyRowsWrittenCounter.add(rows);
         applyPhysicallyWrittenRowsCounter.add(physicallyWrittenRows);
+        applyTransactionsCounter.inc();
 
         long totalRows = totalRowsWritten.addAndGet(rows);
         long rowsAppendRate = totalRows * 1_000_000L / Math.max(1, totalRowsWrittenTotalTime.addAndGet(timeMicros));
@@ -57,4 +65,8 @@ public class WalMetrics {
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
+
+    public void setSeqTxnLagProvider(VirtualLongGauge.StatProvider seqTxnLagProvider) {
+        this.seqTxnLagProvider = seqTxnLagProvider;
+    }
 }
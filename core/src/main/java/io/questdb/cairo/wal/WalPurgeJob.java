@@ -195,6 +195,10 @@ public class WalPurgeJob extends SynchronizedJob implements Closeable {
                     if (symLinkTarget != null) {
                         ff.rmdir(symLinkTarget, false);
                     }
+                    final CharSequence tieringRoot = configuration.getPartitionTieringRoot();
+                    if (tieringRoot != null) {
+                        ff.rmdir(Path.getThreadLocal2(tieringRoot).concat(tableToken).$(), false);
+                    }
                     TableUtils.lockName(pathToDelete);
 
                     // Sometimes on Windows sequencer files can be open at this point,
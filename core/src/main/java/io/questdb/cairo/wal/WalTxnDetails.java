@@ -85,6 +85,14 @@ public class WalTxnDetails {
         return startSeqTxn + transactionMeta.size() / TXN_METADATA_LONGS_SIZE - 1;
     }
 
+    public long getMaxTimestamp(long seqTxn) {
+        return getCommitMaxTimestamp(seqTxn);
+    }
+
+    public long getMinTimestamp(long seqTxn) {
+        return transactionMeta.get((int) ((seqTxn - startSeqTxn) * TXN_METADATA_LONGS_SIZE + MIN_TIMESTAMP_OFFSET));
+    }
+
     public boolean hasRecord(long seqTxn) {
         return (seqTxn - startSeqTxn) * TXN_METADATA_LONGS_SIZE < transactionMeta.size();
     }
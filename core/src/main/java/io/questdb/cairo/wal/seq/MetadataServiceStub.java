@@ -33,6 +33,11 @@ import org.jetbrains.annotations.NotNull;
 
 public interface MetadataServiceStub extends MetadataService {
 
+    @Override
+    default void addBloomIndex(@NotNull CharSequence columnName) {
+        throw CairoException.critical(0).put("add bloom index does not update sequencer metadata");
+    }
+
     @Override
     default void addIndex(@NotNull CharSequence columnName, int indexValueBlockSize) {
         throw CairoException.critical(0).put("add index does not update sequencer metadata");
@@ -48,6 +53,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change cache flag does not update sequencer metadata");
     }
 
+    @Override
+    default boolean convertPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("convert partition does not update sequencer metadata");
+    }
+
     @Override
     default AttachDetachStatus detachPartition(long partitionTimestamp) {
         throw CairoException.critical(0).put("detach partition does not update sequencer metadata");
@@ -57,6 +67,11 @@ public interface MetadataServiceStub extends MetadataService {
     default void disableDeduplication() {
     }
 
+    @Override
+    default void dropBloomIndex(@NotNull CharSequence columnName) {
+        throw CairoException.critical(0).put("drop bloom index does not update sequencer metadata");
+    }
+
     @Override
     default void dropIndex(@NotNull CharSequence columnName) {
         throw CairoException.critical(0).put("drop index does not update sequencer metadata");
@@ -101,6 +116,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change of o3MaxLag does not update sequencer metadata");
     }
 
+    @Override
+    default void setMetaTtl(long ttl) {
+        throw CairoException.critical(0).put("change of ttl does not update sequencer metadata");
+    }
+
     @Override
     default void squashPartitions() {
         throw CairoException.critical(0).put("partition squash does not update sequencer metadata");
@@ -39,6 +39,15 @@ public class SeqTxnTracker {
     private volatile int suspendedState = 0;
     private volatile long writerTxn = -1;
 
+    /**
+     * Returns number of transactions committed to the sequencer but not yet applied to the table.
+     * The lag is unknown and reported as 0 until the table is applied for the first time.
+     */
+    public long getLag() {
+        final long wtxn = writerTxn;
+        return wtxn > -1 ? Math.max(seqTxn - wtxn, 0) : 0;
+    }
+
     @TestOnly
     public long getSeqTxn() {
         return seqTxn;
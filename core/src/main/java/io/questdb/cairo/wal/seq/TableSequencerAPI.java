@@ -197,6 +197,18 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    /**
+     * Returns the largest number of transactions waiting to be applied across WAL tables.
+     * Iterates all tables, meant for metrics scraping rather than hot paths.
+     */
+    public long getMaxSeqTxnLag() {
+        long maxLag = 0;
+        for (SeqTxnTracker tracker : seqTxnTrackers.values()) {
+            maxLag = Math.max(maxLag, tracker.getLag());
+        }
+        return maxLag;
+    }
+
     public TableMetadataChangeLog getMetadataChangeLogSlow(final TableToken tableToken, long structureVersionLo) {
         try (TableSequencerImpl tableSequencer = openSequencerLocked(tableToken, SequencerLockType.READ)) {
             TableMetadataChangeLog metadataChangeLog;
@@ -26,8 +26,10 @@ package io.questdb.client;
 
 import io.questdb.cutlass.auth.AuthUtils;
 import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineHttpSender;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.cutlass.line.http.HttpLineChannel;
 import io.questdb.cutlass.line.tcp.DelegatingTlsChannel;
 import io.questdb.cutlass.line.tcp.PlainTcpLineChannel;
 import io.questdb.network.NetworkFacade;
@@ -205,6 +207,27 @@ public interface Sender extends Closeable {
      */
     Sender timestampColumn(CharSequence name, Instant value);
 
+    /**
+     * Receives errors of batches that could not be delivered over HTTP transport.
+     * <br>
+     * The handler is called from the background I/O thread of the Sender, so it must be thread-safe
+     * and should return quickly.
+     *
+     * @see LineSenderBuilder#errorHandler(ErrorHandler)
+     */
+    @FunctionalInterface
+    interface ErrorHandler {
+
+        /**
+         * Called once for each batch that was not written to the server after all retries.
+         *
+         * @param batchId sequence number of the failed batch. Every flush, explicit or caused by a full buffer,
+         *                gets the next number starting from 0.
+         * @param error   error describing the failure
+         */
+        void onError(long batchId, LineSenderException error);
+    }
+
     /**
      * Configure TLS mode.
      * Most users should not need to use anything but the default mode.
@@ -241,15 +264,27 @@ public interface Sender extends Closeable {
         // indicates that buffer capacity was not set explicitly
         private static final byte BUFFER_CAPACITY_DEFAULT = 0;
         private static final int DEFAULT_BUFFER_CAPACITY = 64 * 1024;
+        private static final int DEFAULT_HTTP_PORT = 9000;
+        private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 2;
+        private static final int DEFAULT_MAX_RETRIES = 3;
         private static final int DEFAULT_PORT = 9009;
+        private static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+        // indicates that an HTTP transport option was not set explicitly
+        private static final int HTTP_OPTION_DEFAULT = -1;
         private static final int MIN_BUFFER_SIZE_FOR_AUTH = 512 + 1; // challenge size + 1;
         // indicate that port was not set explicitly
         private static final byte PORT_DEFAULT = 0;
+        private boolean binaryEncodingEnabled;
         private int bufferCapacity = BUFFER_CAPACITY_DEFAULT;
+        private ErrorHandler errorHandler;
         private String host;
+        private boolean httpEnabled;
         private String keyId;
+        private int maxInFlightBatches = HTTP_OPTION_DEFAULT;
+        private int maxRetries = HTTP_OPTION_DEFAULT;
         private int port = PORT_DEFAULT;
         private PrivateKey privateKey;
+        private long retryBackoffMillis = HTTP_OPTION_DEFAULT;
         private boolean shouldDestroyPrivKey;
         private boolean tlsEnabled;
         private TlsValidationMode tlsValidationMode = TlsValidationMode.DEFAULT;
@@ -348,6 +383,28 @@ public interface Sender extends Closeable {
             configureDefaults();
             validateParameters();
 
+            if (httpEnabled) {
+                HttpLineChannel httpChannel = new HttpLineChannel(
+                        host,
+                        port,
+                        bufferCapacity,
+                        maxInFlightBatches,
+                        maxRetries,
+                        retryBackoffMillis,
+                        errorHandler
+                );
+                try {
+                    LineHttpSender httpSender = new LineHttpSender(httpChannel, bufferCapacity);
+                    if (binaryEncodingEnabled) {
+                        httpSender.enableBinaryEncoding();
+                    }
+                    return httpSender;
+                } catch (Throwable t) {
+                    httpChannel.close();
+                    throw rethrow(t);
+                }
+            }
+
             NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
             LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
             LineTcpSender sender;
@@ -384,6 +441,9 @@ public interface Sender extends Closeable {
                     }
                 }
             }
+            if (binaryEncodingEnabled) {
+                sender.enableBinaryEncoding();
+            }
             return sender;
         }
 
@@ -402,6 +462,22 @@ public interface Sender extends Closeable {
             return new LineSenderBuilder.AuthBuilder();
         }
 
+        /**
+         * Instruct a client to send doubles, longs and timestamps in binary form: a type tag
+         * followed by 8 little-endian bytes. This avoids formatting numbers as text on the client
+         * and parsing them on the server. The server must have binary ILP values enabled with
+         * line.binary.format.enabled=true, otherwise it rejects such rows.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableBinaryEncoding() {
+            if (binaryEncodingEnabled) {
+                throw new LineSenderException("binary encoding was already enabled");
+            }
+            binaryEncodingEnabled = true;
+            return this;
+        }
+
         /**
          * Instruct a client to use TLS when connecting to a QuestDB server
          *
@@ -415,6 +491,80 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Configure a handler for batches that could not be delivered over HTTP transport.
+         * <br>
+         * When no handler is configured, the first undelivered batch error is thrown
+         * by the next {@link Sender#flush()} or {@link Sender#close()} call.
+         *
+         * @param errorHandler handler to receive per-batch errors
+         * @return this instance for method chaining
+         * @see #http()
+         */
+        public LineSenderBuilder errorHandler(ErrorHandler errorHandler) {
+            if (this.errorHandler != null) {
+                throw new LineSenderException("error handler was already configured");
+            }
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        /**
+         * Instruct a client to send data over HTTP instead of TCP. The default port becomes 9000.
+         * <br>
+         * Each flush, explicit or caused by a full buffer, is sent as a separate POST request, which the server
+         * commits as a single transaction. Requests are sent by a background I/O thread, so {@link Sender#flush()}
+         * does not wait for the network unless the maximum number of batches are already in flight.
+         * A request is retried with exponential backoff when it could not be sent in full or the server replied with
+         * 503 Service Unavailable. Other failures are not retried as the server may have already committed the batch.
+         *
+         * @return this instance for method chaining
+         * @see #maxInFlightBatches(int)
+         * @see #maxRetries(int)
+         * @see #retryBackoffMillis(long)
+         * @see #errorHandler(ErrorHandler)
+         */
+        public LineSenderBuilder http() {
+            if (httpEnabled) {
+                throw new LineSenderException("http transport was already enabled");
+            }
+            httpEnabled = true;
+            return this;
+        }
+
+        /**
+         * Configure the maximum number of batches that are buffered or being sent over HTTP transport at once.
+         * Each batch takes a buffer of {@link #bufferCapacity(int)} bytes. When all of them are in flight,
+         * {@link Sender#flush()} waits for the oldest one to complete.
+         *
+         * @param maxInFlightBatches maximum number of in-flight batches, 2 by default
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder maxInFlightBatches(int maxInFlightBatches) {
+            if (this.maxInFlightBatches != HTTP_OPTION_DEFAULT) {
+                throw new LineSenderException("max in-flight batches was already configured ")
+                        .put("[configured-max-in-flight-batches=").put(this.maxInFlightBatches).put("]");
+            }
+            this.maxInFlightBatches = maxInFlightBatches;
+            return this;
+        }
+
+        /**
+         * Configure how many times a batch is resent over HTTP transport when it is known not to have been written,
+         * i.e. it could not be sent in full or the server replied with 503 Service Unavailable.
+         *
+         * @param maxRetries maximum number of retries, 3 by default
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder maxRetries(int maxRetries) {
+            if (this.maxRetries != HTTP_OPTION_DEFAULT) {
+                throw new LineSenderException("max retries was already configured ")
+                        .put("[configured-max-retries=").put(this.maxRetries).put("]");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
         /**
          * Set port where a QuestDB server is listening on.
          *
@@ -430,6 +580,22 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Configure the delay before the first retry of a batch sent over HTTP transport.
+         * The delay doubles with each subsequent retry.
+         *
+         * @param retryBackoffMillis initial retry delay in milliseconds, 100 by default
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder retryBackoffMillis(long retryBackoffMillis) {
+            if (this.retryBackoffMillis != HTTP_OPTION_DEFAULT) {
+                throw new LineSenderException("retry backoff was already configured ")
+                        .put("[configured-retry-backoff-millis=").put(this.retryBackoffMillis).put("]");
+            }
+            this.retryBackoffMillis = retryBackoffMillis;
+            return this;
+        }
+
         private static RuntimeException rethrow(Throwable t) {
             if (t instanceof LineSenderException) {
                 throw (LineSenderException) t;
@@ -442,7 +608,18 @@ public interface Sender extends Closeable {
                 bufferCapacity = DEFAULT_BUFFER_CAPACITY;
             }
             if (port == PORT_DEFAULT) {
-                port = DEFAULT_PORT;
+                port = httpEnabled ? DEFAULT_HTTP_PORT : DEFAULT_PORT;
+            }
+            if (httpEnabled) {
+                if (maxInFlightBatches == HTTP_OPTION_DEFAULT) {
+                    maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+                }
+                if (maxRetries == HTTP_OPTION_DEFAULT) {
+                    maxRetries = DEFAULT_MAX_RETRIES;
+                }
+                if (retryBackoffMillis == HTTP_OPTION_DEFAULT) {
+                    retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+                }
             }
         }
 
@@ -457,6 +634,31 @@ public interface Sender extends Closeable {
             if (!tlsEnabled && tlsValidationMode != TlsValidationMode.DEFAULT) {
                 throw new LineSenderException("TSL validation disabled, but TLS was not enabled");
             }
+            if (httpEnabled) {
+                if (tlsEnabled) {
+                    throw new LineSenderException("TLS is not supported by http transport");
+                }
+                if (keyId != null) {
+                    throw new LineSenderException("authentication is not supported by http transport");
+                }
+                if (maxInFlightBatches < 1) {
+                    throw new LineSenderException("max in-flight batches must be positive ")
+                            .put("[max-in-flight-batches=").put(maxInFlightBatches).put("]");
+                }
+                if (maxRetries < 0) {
+                    throw new LineSenderException("max retries cannot be negative ")
+                            .put("[max-retries=").put(maxRetries).put("]");
+                }
+                if (retryBackoffMillis < 0) {
+                    throw new LineSenderException("retry backoff cannot be negative ")
+                            .put("[retry-backoff-millis=").put(retryBackoffMillis).put("]");
+                }
+            } else if (errorHandler != null
+                    || maxInFlightBatches != HTTP_OPTION_DEFAULT
+                    || maxRetries != HTTP_OPTION_DEFAULT
+                    || retryBackoffMillis != HTTP_OPTION_DEFAULT) {
+                throw new LineSenderException("error handler, in-flight batches and retries require http transport");
+            }
             if (keyId != null && bufferCapacity < MIN_BUFFER_SIZE_FOR_AUTH) {
                 throw new LineSenderException("Requested buffer too small ")
                         .put("[minimal-capacity=").put(MIN_BUFFER_SIZE_FOR_AUTH)
@@ -0,0 +1,809 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Encodes query results as an Apache Arrow IPC stream: a schema message, optional
+ * dictionary batches and a sequence of record batches, terminated by an end-of-stream marker.
+ * <p>
+ * Batches are produced either from page frames or from records. In page frame mode
+ * non-null fixed-width columns and symbol keys are sent straight from column memory,
+ * only their validity bitmaps are computed. Symbol columns are dictionary-encoded,
+ * with the table's symbol table as the dictionary. Everything else, as well as all columns
+ * in record mode, is materialized into native buffers owned by the writer.
+ * <p>
+ * Each prepared message is exposed as a sequence of memory segments, see {@link #hasPendingBytes()}.
+ * The memory behind the segments is valid until the next message is prepared.
+ */
+public class ArrowStreamWriter implements Closeable, Mutable {
+    private static final int BUFFER_PAGE_SIZE = 64 * 1024;
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final int ENCODING_BINARY = 6;
+    private static final int ENCODING_BOOL = 1;
+    private static final int ENCODING_DICTIONARY = 4;
+    private static final int ENCODING_FIXED = 2;
+    private static final int ENCODING_FIXED_NOT_NULL = 3;
+    private static final int ENCODING_NULL = 0;
+    private static final int ENCODING_TEXT = 5;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_UTF8 = 5;
+    private final LongList buffers = new LongList();
+    private final FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+    private final IntList dictionaryColumns = new IntList();
+    private final IntList encodings = new IntList();
+    private final IntList fieldOffsets = new IntList();
+    private final MemoryCARW metadataMem = Vm.getCARWInstance(BUFFER_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+    private final LongList nodes = new LongList();
+    private final LongList nullCounts = new LongList();
+    private final PageAddressCache pageAddressCache;
+    private final PageAddressCacheRecord pageAddressCacheRecord = new PageAddressCacheRecord();
+    private final LongList segments = new LongList();
+    private final ObjList<DirectUtf8Sink> textData = new ObjList<>();
+    private final ObjList<MemoryCARW> validityMems = new ObjList<>();
+    private final ObjList<MemoryCARW> valueMems = new ObjList<>();
+    private long batchRowCount;
+    private int columnCount;
+    private int frameCount;
+    private RecordMetadata metadata;
+    private int segmentIndex;
+    private long segmentOffset;
+    private SymbolTableSource symbolTableSource;
+    private long zeroes;
+
+    public ArrowStreamWriter(CairoConfiguration configuration) {
+        pageAddressCache = new PageAddressCache(configuration);
+        zeroes = Unsafe.calloc(Long.BYTES, MemoryTag.NATIVE_HTTP_CONN);
+    }
+
+    /**
+     * Advances the pending segment position after bytes have been consumed.
+     *
+     * @param len number of bytes consumed, at most {@link #getPendingLength()}
+     */
+    public void advance(long len) {
+        segmentOffset += len;
+        if (segmentOffset == segments.getQuick(segmentIndex * 2 + 1)) {
+            segmentIndex++;
+            segmentOffset = 0;
+        }
+    }
+
+    /**
+     * Appends record to the current record batch. Batch is reset after it has been
+     * prepared with {@link #prepareRecordBatch()}.
+     */
+    public void appendRecord(Record record) {
+        if (batchRowCount == 0) {
+            clearBatch();
+        }
+        for (int i = 0; i < columnCount; i++) {
+            appendValue(record, i, batchRowCount);
+        }
+        batchRowCount++;
+    }
+
+    @Override
+    public void clear() {
+        metadata = null;
+        symbolTableSource = null;
+        columnCount = 0;
+        frameCount = 0;
+        batchRowCount = 0;
+        encodings.clear();
+        dictionaryColumns.clear();
+        segments.clear();
+        segmentIndex = 0;
+        segmentOffset = 0;
+        pageAddressCache.clear();
+        pageAddressCacheRecord.of(null, pageAddressCache);
+        for (int i = 0, n = validityMems.size(); i < n; i++) {
+            validityMems.getQuick(i).truncate();
+            valueMems.getQuick(i).truncate();
+            textData.getQuick(i).clear();
+        }
+        metadataMem.truncate();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(validityMems);
+        Misc.freeObjList(valueMems);
+        Misc.freeObjList(textData);
+        validityMems.clear();
+        valueMems.clear();
+        textData.clear();
+        Misc.free(metadataMem);
+        Misc.free(pageAddressCacheRecord);
+        if (zeroes != 0) {
+            zeroes = Unsafe.free(zeroes, Long.BYTES, MemoryTag.NATIVE_HTTP_CONN);
+        }
+    }
+
+    public long getBatchRowCount() {
+        return batchRowCount;
+    }
+
+    public int getDictionaryCount() {
+        return dictionaryColumns.size();
+    }
+
+    public long getPendingAddress() {
+        return segments.getQuick(segmentIndex * 2) + segmentOffset;
+    }
+
+    public long getPendingLength() {
+        return segments.getQuick(segmentIndex * 2 + 1) - segmentOffset;
+    }
+
+    public boolean hasPendingBytes() {
+        return segmentIndex * 2 < segments.size();
+    }
+
+    /**
+     * Prepares the writer for a result set.
+     *
+     * @param metadata          result set metadata
+     * @param symbolTableSource page frame cursor in page frame mode, null in record mode;
+     *                          symbol columns are dictionary-encoded only in page frame mode
+     */
+    public void of(RecordMetadata metadata, @Nullable PageFrameCursor symbolTableSource) {
+        clear();
+        this.metadata = metadata;
+        this.symbolTableSource = symbolTableSource;
+        columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            final int encoding = encodingOf(metadata.getColumnType(i), symbolTableSource != null ? symbolTableSource.getSymbolTable(i) : null);
+            if (encoding < 0) {
+                throw CairoException.nonCritical().put("unsupported column type for Arrow export [column=")
+                        .put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(metadata.getColumnType(i)))
+                        .put(']');
+            }
+            encodings.add(encoding);
+            if (encoding == ENCODING_DICTIONARY) {
+                dictionaryColumns.add(i);
+            }
+            if (i == validityMems.size()) {
+                validityMems.add(Vm.getCARWInstance(BUFFER_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+                valueMems.add(Vm.getCARWInstance(BUFFER_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+                textData.add(new DirectUtf8Sink(256));
+            }
+        }
+        nullCounts.setAll(columnCount, 0);
+        if (symbolTableSource != null) {
+            pageAddressCache.of(metadata);
+            pageAddressCacheRecord.of(symbolTableSource, pageAddressCache);
+        }
+    }
+
+    /**
+     * Prepares a dictionary batch with all values of a symbol column.
+     *
+     * @param index dictionary index, from 0 to {@link #getDictionaryCount()} exclusive
+     */
+    public void prepareDictionary(int index) {
+        final int columnIndex = dictionaryColumns.getQuick(index);
+        final StaticSymbolTable symbolTable = (StaticSymbolTable) symbolTableSource.getSymbolTable(columnIndex);
+        final int symbolCount = symbolTable.getSymbolCount();
+        final MemoryCARW offsets = valueMems.getQuick(columnIndex);
+        final DirectUtf8Sink data = textData.getQuick(columnIndex);
+        offsets.jumpTo(0);
+        data.clear();
+        offsets.putInt(0);
+        for (int key = 0; key < symbolCount; key++) {
+            data.put(symbolTable.valueOf(key));
+            offsets.putInt(data.size());
+        }
+
+        nodes.clear();
+        buffers.clear();
+        addNode(symbolCount, 0);
+        addBuffer(0, 0);
+        addBuffer(offsets.addressOf(0), offsets.getAppendOffset());
+        addBuffer(data.ptr(), data.size());
+
+        builder.clear();
+        final int recordBatch = createRecordBatch(symbolCount);
+        builder.startTable(3);
+        builder.addLong(0, columnIndex);
+        builder.addOffset(1, recordBatch);
+        final int dictionaryBatch = builder.endTable();
+        finishMessage(HEADER_DICTIONARY_BATCH, dictionaryBatch, bodyLength());
+    }
+
+    public void prepareEndOfStream() {
+        metadataMem.jumpTo(0);
+        metadataMem.putInt(CONTINUATION_MARKER);
+        metadataMem.putInt(0);
+        segments.clear();
+        segmentIndex = 0;
+        segmentOffset = 0;
+        addSegment(metadataMem.addressOf(0), metadataMem.getAppendOffset());
+    }
+
+    /**
+     * Prepares a record batch with all rows of the page frame. The page frame
+     * must be obtained from the cursor the writer was prepared with.
+     */
+    public void prepareFrame(PageFrame frame) {
+        final int frameIndex = frameCount++;
+        pageAddressCache.add(frameIndex, frame);
+        pageAddressCacheRecord.setFrameIndex(frameIndex);
+        clearBatch();
+
+        final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        nodes.clear();
+        buffers.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final long pageAddress = frame.getPageAddress(i);
+            switch (encodings.getQuick(i)) {
+                case ENCODING_BOOL:
+                    prepareBoolColumn(i, pageAddress, rowCount);
+                    break;
+                case ENCODING_FIXED:
+                case ENCODING_FIXED_NOT_NULL:
+                case ENCODING_DICTIONARY:
+                    prepareFixedColumn(i, columnType, pageAddress, rowCount);
+                    break;
+                default:
+                    for (long r = 0; r < rowCount; r++) {
+                        pageAddressCacheRecord.setRowIndex(r);
+                        appendValue(pageAddressCacheRecord, i, r);
+                    }
+                    addColumnBuffers(i, rowCount);
+                    break;
+            }
+        }
+        builder.clear();
+        finishMessage(HEADER_RECORD_BATCH, createRecordBatch(rowCount), bodyLength());
+    }
+
+    /**
+     * Prepares a record batch from rows appended with {@link #appendRecord(Record)}.
+     */
+    public void prepareRecordBatch() {
+        nodes.clear();
+        buffers.clear();
+        for (int i = 0; i < columnCount; i++) {
+            addColumnBuffers(i, batchRowCount);
+        }
+        builder.clear();
+        finishMessage(HEADER_RECORD_BATCH, createRecordBatch(batchRowCount), bodyLength());
+        batchRowCount = 0;
+    }
+
+    public void prepareSchema() {
+        builder.clear();
+        fieldOffsets.clear();
+        for (int i = 0; i < columnCount; i++) {
+            fieldOffsets.add(createField(i));
+        }
+        builder.startVector(Integer.BYTES, columnCount, Integer.BYTES);
+        for (int i = columnCount - 1; i > -1; i--) {
+            builder.addOffset(fieldOffsets.getQuick(i));
+        }
+        final int fields = builder.endVector();
+        builder.startTable(4);
+        builder.addOffset(1, fields);
+        // little endian
+        builder.addShort(0, (short) 0);
+        final int schema = builder.endTable();
+        buffers.clear();
+        finishMessage(HEADER_SCHEMA, schema, 0);
+    }
+
+    private static long align8(long value) {
+        return (value + 7) & ~7L;
+    }
+
+    private static int encodingOf(int columnType, @Nullable SymbolTable symbolTable) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.NULL:
+                return ENCODING_NULL;
+            case ColumnType.BOOLEAN:
+                return ENCODING_BOOL;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return ENCODING_FIXED_NOT_NULL;
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return ENCODING_FIXED;
+            case ColumnType.SYMBOL:
+                return symbolTable instanceof StaticSymbolTable ? ENCODING_DICTIONARY : ENCODING_TEXT;
+            case ColumnType.CHAR:
+            case ColumnType.STRING:
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+            case ColumnType.IPv4:
+                return ENCODING_TEXT;
+            case ColumnType.BINARY:
+                return ENCODING_BINARY;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isNull(int columnType, long address) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return Unsafe.getUnsafe().getInt(address) == Numbers.INT_NaN;
+            case ColumnType.FLOAT:
+                return Float.isNaN(Unsafe.getUnsafe().getFloat(address));
+            case ColumnType.DOUBLE:
+                return Double.isNaN(Unsafe.getUnsafe().getDouble(address));
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN;
+            default:
+                return false;
+        }
+    }
+
+    private static void setBit(MemoryCARW mem, long index, boolean value) {
+        if ((index & 7) == 0) {
+            mem.putByte((byte) 0);
+        }
+        if (value) {
+            final long address = mem.addressOf(index >>> 3);
+            Unsafe.getUnsafe().putByte(address, (byte) (Unsafe.getUnsafe().getByte(address) | (1 << (index & 7))));
+        }
+    }
+
+    private void addBuffer(long address, long length) {
+        buffers.add(address, length);
+    }
+
+    private void addColumnBuffers(int columnIndex, long rowCount) {
+        final long nullCount = nullCounts.getQuick(columnIndex);
+        final MemoryCARW validity = validityMems.getQuick(columnIndex);
+        final MemoryCARW values = valueMems.getQuick(columnIndex);
+        addNode(rowCount, nullCount);
+        switch (encodings.getQuick(columnIndex)) {
+            case ENCODING_NULL:
+                break;
+            case ENCODING_TEXT:
+            case ENCODING_BINARY:
+                final DirectUtf8Sink data = textData.getQuick(columnIndex);
+                addValidityBuffer(validity, nullCount);
+                addBuffer(values.addressOf(0), values.getAppendOffset());
+                addBuffer(data.ptr(), data.size());
+                break;
+            default:
+                addValidityBuffer(validity, nullCount);
+                addBuffer(values.addressOf(0), values.getAppendOffset());
+                break;
+        }
+    }
+
+    private void addNode(long length, long nullCount) {
+        nodes.add(length, nullCount);
+    }
+
+    private void addSegment(long address, long length) {
+        if (length > 0) {
+            segments.add(address, length);
+        }
+    }
+
+    private void addValidityBuffer(MemoryCARW validity, long nullCount) {
+        // validity bitmap may be omitted when there are no nulls
+        if (nullCount > 0) {
+            addBuffer(validity.addressOf(0), validity.getAppendOffset());
+        } else {
+            addBuffer(0, 0);
+        }
+    }
+
+    private void appendGeoHash(int columnIndex, int columnType, long row, long value) {
+        if (value != GeoHashes.NULL) {
+            final DirectUtf8Sink data = textData.getQuick(columnIndex);
+            final int bitFlags = GeoHashes.getBitFlags(columnType);
+            if (bitFlags < 0) {
+                GeoHashes.appendCharsUnsafe(value, -bitFlags, data);
+            } else {
+                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, data);
+            }
+        }
+        finishVarValue(columnIndex, row, value != GeoHashes.NULL);
+    }
+
+    private void appendText(int columnIndex, long row, @Nullable CharSequence value) {
+        final DirectUtf8Sink data = textData.getQuick(columnIndex);
+        if (value != null) {
+            data.put(value);
+        }
+        finishVarValue(columnIndex, row, value != null);
+    }
+
+    private void appendValue(Record record, int columnIndex, long row) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        final MemoryCARW values = valueMems.getQuick(columnIndex);
+        final DirectUtf8Sink data = textData.getQuick(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.NULL:
+                nullCounts.increment(columnIndex);
+                break;
+            case ColumnType.BOOLEAN:
+                setBit(values, row, record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                values.putByte(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                values.putShort(record.getShort(columnIndex));
+                break;
+            case ColumnType.INT:
+                final int i = record.getInt(columnIndex);
+                values.putInt(i);
+                setValid(columnIndex, row, i != Numbers.INT_NaN);
+                break;
+            case ColumnType.LONG:
+                final long l = record.getLong(columnIndex);
+                values.putLong(l);
+                setValid(columnIndex, row, l != Numbers.LONG_NaN);
+                break;
+            case ColumnType.DATE:
+                final long d = record.getDate(columnIndex);
+                values.putLong(d);
+                setValid(columnIndex, row, d != Numbers.LONG_NaN);
+                break;
+            case ColumnType.TIMESTAMP:
+                final long ts = record.getTimestamp(columnIndex);
+                values.putLong(ts);
+                setValid(columnIndex, row, ts != Numbers.LONG_NaN);
+                break;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(columnIndex);
+                values.putFloat(f);
+                setValid(columnIndex, row, !Float.isNaN(f));
+                break;
+            case ColumnType.DOUBLE:
+                final double dbl = record.getDouble(columnIndex);
+                values.putDouble(dbl);
+                setValid(columnIndex, row, !Double.isNaN(dbl));
+                break;
+            case ColumnType.SYMBOL:
+                if (encodings.getQuick(columnIndex) == ENCODING_DICTIONARY) {
+                    final int key = record.getInt(columnIndex);
+                    values.putInt(key);
+                    setValid(columnIndex, row, key != SymbolTable.VALUE_IS_NULL);
+                } else {
+                    appendText(columnIndex, row, record.getSym(columnIndex));
+                }
+                break;
+            case ColumnType.STRING:
+                appendText(columnIndex, row, record.getStr(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(columnIndex);
+                if (c > 0) {
+                    data.put(c);
+                }
+                finishVarValue(columnIndex, row, c > 0);
+                break;
+            case ColumnType.UUID:
+                final long lo = record.getLong128Lo(columnIndex);
+                final long hi = record.getLong128Hi(columnIndex);
+                final boolean uuidNotNull = !Uuid.isNull(lo, hi);
+                if (uuidNotNull) {
+                    Numbers.appendUuid(lo, hi, data);
+                }
+                finishVarValue(columnIndex, row, uuidNotNull);
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256 = record.getLong256A(columnIndex);
+                final boolean long256NotNull = !Long256Impl.isNull(long256);
+                if (long256NotNull) {
+                    Numbers.appendLong256(long256.getLong0(), long256.getLong1(), long256.getLong2(), long256.getLong3(), data);
+                }
+                finishVarValue(columnIndex, row, long256NotNull);
+                break;
+            case ColumnType.GEOBYTE:
+                appendGeoHash(columnIndex, columnType, row, record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                appendGeoHash(columnIndex, columnType, row, record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                appendGeoHash(columnIndex, columnType, row, record.getGeoInt(columnIndex));
+                break;
+            case ColumnType.GEOLONG:
+                appendGeoHash(columnIndex, columnType, row, record.getGeoLong(columnIndex));
+                break;
+            case ColumnType.IPv4:
+                final int ip = record.getIPv4(columnIndex);
+                if (ip != Numbers.IPv4_NULL) {
+                    Numbers.intToIPv4Sink(data, ip);
+                }
+                finishVarValue(columnIndex, row, ip != Numbers.IPv4_NULL);
+                break;
+            case ColumnType.BINARY:
+                final BinarySequence bin = record.getBin(columnIndex);
+                if (bin != null) {
+                    for (long b = 0, n = bin.length(); b < n; b++) {
+                        data.put(bin.byteAt(b));
+                    }
+                }
+                finishVarValue(columnIndex, row, bin != null);
+                break;
+            default:
+                assert false;
+        }
+    }
+
+    private long bodyLength() {
+        long length = 0;
+        for (int i = 0, n = buffers.size(); i < n; i += 2) {
+            length += align8(buffers.getQuick(i + 1));
+        }
+        return length;
+    }
+
+    private void clearBatch() {
+        batchRowCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            validityMems.getQuick(i).jumpTo(0);
+            valueMems.getQuick(i).jumpTo(0);
+            textData.getQuick(i).clear();
+            nullCounts.setQuick(i, 0);
+            final int encoding = encodings.getQuick(i);
+            if (encoding == ENCODING_TEXT || encoding == ENCODING_BINARY) {
+                valueMems.getQuick(i).putInt(0);
+            }
+        }
+    }
+
+    private int createEmptyTable() {
+        builder.startTable(0);
+        return builder.endTable();
+    }
+
+    private int createField(int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        final int encoding = encodings.getQuick(columnIndex);
+        final int name = builder.createString(metadata.getColumnName(columnIndex));
+        final byte typeType;
+        final int type;
+        switch (encoding) {
+            case ENCODING_NULL:
+                typeType = TYPE_NULL;
+                type = createEmptyTable();
+                break;
+            case ENCODING_BOOL:
+                typeType = TYPE_BOOL;
+                type = createEmptyTable();
+                break;
+            case ENCODING_TEXT:
+            case ENCODING_DICTIONARY:
+                typeType = TYPE_UTF8;
+                type = createEmptyTable();
+                break;
+            case ENCODING_BINARY:
+                typeType = TYPE_BINARY;
+                type = createEmptyTable();
+                break;
+            default:
+                switch (ColumnType.tagOf(columnType)) {
+                    case ColumnType.FLOAT:
+                    case ColumnType.DOUBLE:
+                        typeType = TYPE_FLOATING_POINT;
+                        builder.startTable(1);
+                        // SINGLE = 1, DOUBLE = 2
+                        builder.addShort(0, (short) (ColumnType.tagOf(columnType) == ColumnType.FLOAT ? 1 : 2));
+                        type = builder.endTable();
+                        break;
+                    case ColumnType.DATE:
+                        typeType = TYPE_DATE;
+                        builder.startTable(1);
+                        // MILLISECOND
+                        builder.addShort(0, (short) 1);
+                        type = builder.endTable();
+                        break;
+                    case ColumnType.TIMESTAMP:
+                        typeType = TYPE_TIMESTAMP;
+                        builder.startTable(2);
+                        // MICROSECOND, no timezone
+                        builder.addShort(0, (short) 2);
+                        type = builder.endTable();
+                        break;
+                    default:
+                        typeType = TYPE_INT;
+                        type = createIntType(ColumnType.sizeOf(columnType) * Byte.SIZE);
+                        break;
+                }
+                break;
+        }
+
+        int dictionary = 0;
+        if (encoding == ENCODING_DICTIONARY) {
+            final int indexType = createIntType(Integer.SIZE);
+            builder.startTable(4);
+            builder.addLong(0, columnIndex);
+            builder.addOffset(1, indexType);
+            dictionary = builder.endTable();
+        }
+        builder.startVector(Integer.BYTES, 0, Integer.BYTES);
+        final int children = builder.endVector();
+
+        builder.startTable(7);
+        builder.addOffset(0, name);
+        builder.addOffset(3, type);
+        if (dictionary != 0) {
+            builder.addOffset(4, dictionary);
+        }
+        builder.addOffset(5, children);
+        builder.addBool(1, true);
+        builder.addByte(2, typeType);
+        return builder.endTable();
+    }
+
+    private int createIntType(int bitWidth) {
+        builder.startTable(2);
+        builder.addInt(0, bitWidth);
+        builder.addBool(1, true);
+        return builder.endTable();
+    }
+
+    private int createRecordBatch(long rowCount) {
+        final int nodeCount = nodes.size() / 2;
+        builder.startVector(2 * Long.BYTES, nodeCount, Long.BYTES);
+        for (int i = nodeCount - 1; i > -1; i--) {
+            builder.addStruct(nodes.getQuick(2 * i), nodes.getQuick(2 * i + 1));
+        }
+        final int nodeVector = builder.endVector();
+
+        final int bufferCount = buffers.size() / 2;
+        long bodyOffset = bodyLength();
+        builder.startVector(2 * Long.BYTES, bufferCount, Long.BYTES);
+        for (int i = bufferCount - 1; i > -1; i--) {
+            final long length = buffers.getQuick(2 * i + 1);
+            bodyOffset -= align8(length);
+            builder.addStruct(bodyOffset, length);
+        }
+        final int bufferVector = builder.endVector();
+
+        builder.startTable(3);
+        builder.addLong(0, rowCount);
+        builder.addOffset(1, nodeVector);
+        builder.addOffset(2, bufferVector);
+        return builder.endTable();
+    }
+
+    private void finishMessage(byte headerType, int header, long bodyLength) {
+        builder.startTable(4);
+        builder.addLong(3, bodyLength);
+        builder.addOffset(2, header);
+        builder.addShort(0, METADATA_VERSION_V5);
+        builder.addByte(1, headerType);
+        builder.finish(builder.endTable());
+
+        // encapsulated message: continuation marker, metadata size, metadata padded to 8 bytes, body
+        final int metadataSize = builder.size();
+        final long paddedSize = align8(2 * Integer.BYTES + metadataSize) - 2 * Integer.BYTES;
+        metadataMem.jumpTo(0);
+        metadataMem.putInt(CONTINUATION_MARKER);
+        metadataMem.putInt((int) paddedSize);
+        builder.copyTo(metadataMem.appendAddressFor(metadataSize));
+        for (long i = metadataSize; i < paddedSize; i++) {
+            metadataMem.putByte((byte) 0);
+        }
+
+        segments.clear();
+        segmentIndex = 0;
+        segmentOffset = 0;
+        addSegment(metadataMem.addressOf(0), metadataMem.getAppendOffset());
+        for (int i = 0, n = buffers.size(); i < n; i += 2) {
+            final long length = buffers.getQuick(i + 1);
+            addSegment(buffers.getQuick(i), length);
+            addSegment(zeroes, align8(length) - length);
+        }
+    }
+
+    private void finishVarValue(int columnIndex, long row, boolean notNull) {
+        valueMems.getQuick(columnIndex).putInt(textData.getQuick(columnIndex).size());
+        setValid(columnIndex, row, notNull);
+    }
+
+    private void prepareBoolColumn(int columnIndex, long pageAddress, long rowCount) {
+        final MemoryCARW values = valueMems.getQuick(columnIndex);
+        for (long r = 0; r < rowCount; r++) {
+            setBit(values, r, pageAddress != 0 && Unsafe.getUnsafe().getByte(pageAddress + r) != 0);
+        }
+        addColumnBuffers(columnIndex, rowCount);
+    }
+
+    private void prepareFixedColumn(int columnIndex, int columnType, long pageAddress, long rowCount) {
+        final int size = ColumnType.sizeOf(columnType);
+        final long length = rowCount * size;
+        final boolean nullable = encodings.getQuick(columnIndex) != ENCODING_FIXED_NOT_NULL;
+        if (pageAddress == 0) {
+            // column top, the column was added after the partition was written
+            final MemoryCARW values = valueMems.getQuick(columnIndex);
+            Vect.memset(values.appendAddressFor(length), length, 0);
+            if (nullable) {
+                final MemoryCARW validity = validityMems.getQuick(columnIndex);
+                final long validityLength = (rowCount + 7) >>> 3;
+                Vect.memset(validity.appendAddressFor(validityLength), validityLength, 0);
+                nullCounts.setQuick(columnIndex, rowCount);
+            }
+            addColumnBuffers(columnIndex, rowCount);
+            return;
+        }
+
+        if (nullable) {
+            for (long r = 0; r < rowCount; r++) {
+                setValid(columnIndex, r, !isNull(columnType, pageAddress + r * size));
+            }
+        }
+        addNode(rowCount, nullCounts.getQuick(columnIndex));
+        addValidityBuffer(validityMems.getQuick(columnIndex), nullCounts.getQuick(columnIndex));
+        // values are sent straight from the column page
+        addBuffer(pageAddress, length);
+    }
+
+    private void setValid(int columnIndex, long row, boolean valid) {
+        setBit(validityMems.getQuick(columnIndex), row, valid);
+        if (!valid) {
+            nullCounts.increment(columnIndex);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.std.Chars;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal FlatBuffers encoder, just enough to write Arrow IPC metadata. Like the reference
+ * implementation, the buffer is filled back to front: children are created before their
+ * parents, so that all offsets point forward. Object references returned by the builder are
+ * distances from the end of the buffer and survive buffer growth.
+ */
+public class FlatBufferBuilder implements Mutable {
+    private static final int MAX_FIELDS = 8;
+    private final int[] vtable = new int[MAX_FIELDS];
+    private byte[] buf;
+    private int minAlign = 1;
+    private int numFields;
+    private int objectStart;
+    private int space;
+    private int vectorElements;
+
+    public FlatBufferBuilder(int initialCapacity) {
+        buf = new byte[initialCapacity];
+        space = initialCapacity;
+    }
+
+    public void addBool(int field, boolean value) {
+        prep(Byte.BYTES, 0);
+        putByte((byte) (value ? 1 : 0));
+        slot(field);
+    }
+
+    public void addByte(int field, byte value) {
+        prep(Byte.BYTES, 0);
+        putByte(value);
+        slot(field);
+    }
+
+    public void addInt(int field, int value) {
+        prep(Integer.BYTES, 0);
+        putInt(value);
+        slot(field);
+    }
+
+    public void addLong(int field, long value) {
+        prep(Long.BYTES, 0);
+        putLong(value);
+        slot(field);
+    }
+
+    public void addOffset(int field, int offset) {
+        addOffset(offset);
+        slot(field);
+    }
+
+    /**
+     * Adds an element to the vector started with {@link #startVector(int, int, int)}.
+     * Elements are added in reverse order.
+     */
+    public void addOffset(int offset) {
+        prep(Integer.BYTES, 0);
+        assert offset <= offset();
+        putInt(offset() - offset + Integer.BYTES);
+    }
+
+    public void addShort(int field, short value) {
+        prep(Short.BYTES, 0);
+        putShort(value);
+        slot(field);
+    }
+
+    /**
+     * Adds a struct of two longs, such as Arrow's FieldNode and Buffer, to the vector
+     * started with {@link #startVector(int, int, int)}. Elements are added in reverse order.
+     */
+    public void addStruct(long first, long second) {
+        prep(Long.BYTES, 2 * Long.BYTES);
+        putLong(second);
+        putLong(first);
+    }
+
+    @Override
+    public void clear() {
+        space = buf.length;
+        minAlign = 1;
+        numFields = 0;
+        vectorElements = 0;
+    }
+
+    /**
+     * Copies the finished buffer to native memory.
+     *
+     * @param address destination, must have at least {@link #size()} bytes
+     */
+    public void copyTo(long address) {
+        for (int i = space, n = buf.length; i < n; i++) {
+            Unsafe.getUnsafe().putByte(address++, buf[i]);
+        }
+    }
+
+    public int createString(CharSequence value) {
+        final byte[] bytes = Chars.toString(value).getBytes(StandardCharsets.UTF_8);
+        prep(Integer.BYTES, bytes.length + 1);
+        putByte((byte) 0);
+        space -= bytes.length;
+        System.arraycopy(bytes, 0, buf, space, bytes.length);
+        putInt(bytes.length);
+        return offset();
+    }
+
+    public int endTable() {
+        prep(Integer.BYTES, 0);
+        putInt(0);
+        final int objectOffset = offset();
+        int i = numFields - 1;
+        while (i >= 0 && vtable[i] == 0) {
+            i--;
+        }
+        final int trimmedSize = i + 1;
+        for (; i >= 0; i--) {
+            prep(Short.BYTES, 0);
+            putShort((short) (vtable[i] != 0 ? objectOffset - vtable[i] : 0));
+        }
+        prep(Short.BYTES, 0);
+        putShort((short) (objectOffset - objectStart));
+        prep(Short.BYTES, 0);
+        putShort((short) ((trimmedSize + 2) * Short.BYTES));
+        // the vtable precedes the table, the table starts with the distance back to its vtable
+        final int tablePos = buf.length - objectOffset;
+        final int distance = offset() - objectOffset;
+        buf[tablePos] = (byte) distance;
+        buf[tablePos + 1] = (byte) (distance >> 8);
+        buf[tablePos + 2] = (byte) (distance >> 16);
+        buf[tablePos + 3] = (byte) (distance >> 24);
+        numFields = 0;
+        return objectOffset;
+    }
+
+    public int endVector() {
+        putInt(vectorElements);
+        return offset();
+    }
+
+    public void finish(int root) {
+        prep(minAlign, Integer.BYTES);
+        addOffset(root);
+    }
+
+    public int size() {
+        return buf.length - space;
+    }
+
+    public void startTable(int numFields) {
+        assert numFields <= MAX_FIELDS;
+        for (int i = 0; i < numFields; i++) {
+            vtable[i] = 0;
+        }
+        this.numFields = numFields;
+        objectStart = offset();
+    }
+
+    public void startVector(int elementSize, int count, int alignment) {
+        prep(Integer.BYTES, elementSize * count);
+        prep(alignment, elementSize * count);
+        vectorElements = count;
+    }
+
+    private void grow() {
+        final int oldCapacity = buf.length;
+        final byte[] newBuf = new byte[oldCapacity * 2];
+        System.arraycopy(buf, space, newBuf, newBuf.length - (oldCapacity - space), oldCapacity - space);
+        space += newBuf.length - oldCapacity;
+        buf = newBuf;
+    }
+
+    private int offset() {
+        return buf.length - space;
+    }
+
+    private void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        final int alignSize = (~(buf.length - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            grow();
+        }
+        for (int i = 0; i < alignSize; i++) {
+            buf[--space] = 0;
+        }
+    }
+
+    private void putByte(byte value) {
+        buf[--space] = value;
+    }
+
+    private void putInt(int value) {
+        space -= Integer.BYTES;
+        buf[space] = (byte) value;
+        buf[space + 1] = (byte) (value >> 8);
+        buf[space + 2] = (byte) (value >> 16);
+        buf[space + 3] = (byte) (value >> 24);
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >> 32));
+        putInt((int) value);
+    }
+
+    private void putShort(short value) {
+        space -= Short.BYTES;
+        buf[space] = (byte) value;
+        buf[space + 1] = (byte) (value >> 8);
+    }
+
+    private void slot(int field) {
+        vtable[field] = offset();
+    }
+}
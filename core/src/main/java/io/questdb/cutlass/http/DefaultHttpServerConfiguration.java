@@ -286,6 +286,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return lineHttpProcessorConfiguration.getTimestampAdapter();
         }
 
+        @Override
+        public boolean isBinaryFormatSupported() {
+            return false;
+        }
+
         @Override
         public boolean isEnabled() {
             return true;
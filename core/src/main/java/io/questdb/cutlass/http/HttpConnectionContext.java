@@ -25,8 +25,10 @@
 package io.questdb.cutlass.http;
 
 import io.questdb.Metrics;
+import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.SecurityContext;
+import io.questdb.cairo.TableToken;
 import io.questdb.cairo.security.DenyAllSecurityContext;
 import io.questdb.cairo.security.SecurityContextFactory;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -37,9 +39,11 @@ import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.str.DirectUtf8String;
 import io.questdb.std.str.StdoutSink;
+import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8s;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import static io.questdb.cutlass.http.HttpConstants.HEADER_CONTENT_ACCEPT_ENCODING;
@@ -72,7 +76,12 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         LOG.info().$("Retry is requested after successful writer allocation. Retry will be re-scheduled [thread=").$(Thread.currentThread().getId()).I$();
         throw RetryOperationException.INSTANCE;
     };
-    private final AssociativeCache<RecordCursorFactory> selectCache;
+    private final ConcurrentAssociativeCache<SelectCacheEntry> selectCache;
+    private final StringSink selectCacheKeySink = new StringSink();
+    private final boolean selectCacheOwned;
+    private final ObjList<TableToken> selectCacheTableTokens = new ObjList<>();
+    private final ConcurrentAssociativeCache.Validator<SelectCacheEntry> selectCacheValidator =
+            (entry, ddlVersion) -> !this.selectCacheEngine.isTableMetadataChanged(entry.getTableTokens(), ddlVersion);
     private int nCompletedRequests;
     private boolean pendingRetry = false;
     private int receivedBytes;
@@ -80,6 +89,10 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
     private long recvPos;
     private HttpRequestProcessor resumeProcessor = null;
     private SecurityContext securityContext;
+    private CairoEngine selectCacheEngine;
+    // entry taken out of the cache by the current request, it goes back with the same factory
+    private SelectCacheEntry selectCacheEntry;
+    private long selectCacheVersion;
     private SuspendEvent suspendEvent;
     private long totalBytesSent;
     private long totalReceived;
@@ -95,6 +108,21 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
             SocketFactory socketFactory,
             HttpCookieHandler cookieHandler,
             HttpHeaderParserFactory headerParserFactory
+    ) {
+        this(configuration, metrics, socketFactory, cookieHandler, headerParserFactory, null);
+    }
+
+    /**
+     * @param selectCache server-wide cache of compiled SELECT factories shared by connections,
+     *                    when null the context creates and owns a cache of its own
+     */
+    public HttpConnectionContext(
+            HttpMinServerConfiguration configuration,
+            Metrics metrics,
+            SocketFactory socketFactory,
+            HttpCookieHandler cookieHandler,
+            HttpHeaderParserFactory headerParserFactory,
+            @Nullable ConcurrentAssociativeCache<SelectCacheEntry> selectCache
     ) {
         super(
                 socketFactory,
@@ -120,22 +148,31 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.authenticator = contextConfiguration.getFactoryProvider().getHttpAuthenticatorFactory().getHttpAuthenticator();
         this.forceFragmentationReceiveChunkSize = configuration.getHttpContextConfiguration().getForceRecvFragmentationChunkSize();
 
+        if (selectCache != null) {
+            this.selectCache = selectCache;
+            this.selectCacheOwned = false;
+        } else {
+            this.selectCache = newSelectCache(configuration, metrics);
+            this.selectCacheOwned = true;
+        }
+    }
+
+    public static ConcurrentAssociativeCache<SelectCacheEntry> newSelectCache(HttpMinServerConfiguration configuration, Metrics metrics) {
         if (configuration instanceof HttpServerConfiguration) {
             final HttpServerConfiguration serverConfiguration = (HttpServerConfiguration) configuration;
             final boolean enableQueryCache = serverConfiguration.isQueryCacheEnabled();
             final int blockCount = enableQueryCache ? serverConfiguration.getQueryCacheBlockCount() : 1;
             final int rowCount = enableQueryCache ? serverConfiguration.getQueryCacheRowCount() : 1;
-            this.selectCache = new AssociativeCache<>(
+            return new ConcurrentAssociativeCache<>(
                     blockCount,
                     rowCount,
                     metrics.jsonQuery().cachedQueriesGauge(),
                     metrics.jsonQuery().cacheHitCounter(),
                     metrics.jsonQuery().cacheMissCounter()
             );
-        } else {
-            // Min server doesn't need select cache, so we use no-op settings.
-            this.selectCache = new AssociativeCache<>(1, 1);
         }
+        // Min server doesn't need select cache, so we use no-op settings.
+        return new ConcurrentAssociativeCache<>(1, 1);
     }
 
     @Override
@@ -177,7 +214,9 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.receivedBytes = 0;
         this.securityContext = DenyAllSecurityContext.INSTANCE;
         this.authenticator.close();
-        Misc.free(selectCache);
+        if (selectCacheOwned) {
+            Misc.free(selectCache);
+        }
         LOG.debug().$("closed [fd=").$(fd).I$();
     }
 
@@ -234,10 +273,6 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         return securityContext;
     }
 
-    public AssociativeCache<RecordCursorFactory> getSelectCache() {
-        return selectCache;
-    }
-
     @Override
     public SuspendEvent getSuspendEvent() {
         return suspendEvent;
@@ -302,6 +337,40 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         return this;
     }
 
+    /**
+     * Takes a compiled SELECT out of the server-wide cache. Entries are keyed by the principal
+     * as well as the query text, so a factory compiled and authorized for one user is never
+     * handed to another. Entries compiled against tables that have since been altered, renamed
+     * or dropped are discarded. The key and the engine DDL version are remembered for the
+     * subsequent {@link #putSelectCache(RecordCursorFactory)} call.
+     *
+     * @param query  query text
+     * @param engine engine the query is compiled by
+     */
+    public RecordCursorFactory pollSelectCache(CharSequence query, CairoEngine engine) {
+        selectCacheKeySink.clear();
+        final CharSequence principal = securityContext.getPrincipal();
+        if (principal != null) {
+            selectCacheKeySink.put(principal);
+        }
+        selectCacheKeySink.put('\0').put(query);
+        selectCacheEngine = engine;
+        selectCacheVersion = engine.getDdlVersion();
+        selectCacheTableTokens.clear();
+        selectCacheEntry = selectCache.poll(selectCacheKeySink, selectCacheValidator);
+        return selectCacheEntry != null ? selectCacheEntry.getFactory() : null;
+    }
+
+    public void putSelectCache(RecordCursorFactory factory) {
+        SelectCacheEntry entry = selectCacheEntry;
+        selectCacheEntry = null;
+        if (entry == null || entry.getFactory() != factory) {
+            // the factory was compiled by this request
+            entry = new SelectCacheEntry().of(factory, selectCacheTableTokens);
+        }
+        selectCache.put(selectCacheKeySink, entry, selectCacheVersion);
+    }
+
     public HttpRequestProcessor rejectRequest(int code, CharSequence userMessage) {
         return rejectRequest(code, userMessage, null, null);
     }
@@ -353,6 +422,17 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         }
     }
 
+    /**
+     * Records tables the current request's SELECT was compiled against, they are stored
+     * along with the factory by {@link #putSelectCache(RecordCursorFactory)}.
+     */
+    public void setSelectCacheTableTokens(ObjHashSet<TableToken> tableTokens) {
+        selectCacheTableTokens.clear();
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            selectCacheTableTokens.add(tableTokens.get(i));
+        }
+    }
+
     public HttpResponseSink.SimpleResponseImpl simpleResponse() {
         return responseSink.getSimple();
     }
@@ -30,6 +30,7 @@ import io.questdb.cutlass.http.processors.*;
 import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.Utf8SequenceObjHashMap;
@@ -202,6 +203,23 @@ public class HttpServer implements Closeable {
             }
         });
 
+        server.bind(new HttpRequestProcessorFactory() {
+            @Override
+            public String getUrl() {
+                return "/arrow";
+            }
+
+            @Override
+            public HttpRequestProcessor newInstance() {
+                return new ArrowQueryProcessor(
+                        configuration.getJsonQueryProcessorConfiguration(),
+                        cairoEngine,
+                        workerPool.getWorkerCount(),
+                        sharedWorkerCount
+                );
+            }
+        });
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
@@ -267,11 +285,32 @@ public class HttpServer implements Closeable {
     }
 
     private static class HttpContextFactory extends IOContextFactoryImpl<HttpConnectionContext> {
+        private final ConcurrentAssociativeCache<SelectCacheEntry> selectCache;
+
         public HttpContextFactory(HttpMinServerConfiguration configuration, Metrics metrics, SocketFactory socketFactory, HttpCookieHandler cookieHandler, HttpHeaderParserFactory headerParserFactory) {
+            this(configuration, metrics, socketFactory, cookieHandler, headerParserFactory, HttpConnectionContext.newSelectCache(configuration, metrics));
+        }
+
+        private HttpContextFactory(
+                HttpMinServerConfiguration configuration,
+                Metrics metrics,
+                SocketFactory socketFactory,
+                HttpCookieHandler cookieHandler,
+                HttpHeaderParserFactory headerParserFactory,
+                ConcurrentAssociativeCache<SelectCacheEntry> selectCache
+        ) {
             super(
-                    () -> new HttpConnectionContext(configuration, metrics, socketFactory, cookieHandler, headerParserFactory),
+                    () -> new HttpConnectionContext(configuration, metrics, socketFactory, cookieHandler, headerParserFactory, selectCache),
                     configuration.getHttpContextConfiguration().getConnectionPoolInitialCapacity()
             );
+            this.selectCache = selectCache;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            // compiled factories are shared by all connections of the server
+            Misc.free(selectCache);
         }
     }
 
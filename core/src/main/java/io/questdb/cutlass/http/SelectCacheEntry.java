@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Compiled SELECT factory kept in the server-wide HTTP select cache along with the tables
+ * it was compiled against, so that the entry can be dropped once any of them changes.
+ */
+public class SelectCacheEntry implements Closeable {
+    private final ObjList<TableToken> tableTokens = new ObjList<>();
+    private RecordCursorFactory factory;
+
+    @Override
+    public void close() {
+        factory = Misc.free(factory);
+    }
+
+    public RecordCursorFactory getFactory() {
+        return factory;
+    }
+
+    public ObjList<TableToken> getTableTokens() {
+        return tableTokens;
+    }
+
+    public SelectCacheEntry of(RecordCursorFactory factory, ObjList<TableToken> tableTokens) {
+        this.factory = factory;
+        this.tableTokens.clear();
+        this.tableTokens.addAll(tableTokens);
+        return this;
+    }
+}
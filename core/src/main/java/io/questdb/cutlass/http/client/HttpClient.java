@@ -419,12 +419,13 @@ public abstract class HttpClient implements QuietCloseable {
             nf.configureKeepAlive(fd);
             long addrInfo = nf.getAddrInfo(host, port);
             if (addrInfo == -1) {
-                disconnect();
+                // the socket is not assigned yet, so the fd has to be closed directly
+                nf.close(fd, LOG);
                 throw new HttpClientException("could not resolve host ").put("[host=").put(host).put("]");
             }
             if (nf.connectAddrInfo(fd, addrInfo) != 0) {
                 int errno = nf.errno();
-                disconnect();
+                nf.close(fd, LOG);
                 nf.freeAddrInfo(addrInfo);
                 throw new HttpClientException("could not connect to host ").put("[host=").put(host).put(", port=").put(port).put(", errno=").put(errno).put(']');
             }
@@ -585,7 +586,7 @@ public abstract class HttpClient implements QuietCloseable {
                 eol();
                 eol();
                 headerHi = ptr;
-                assert headerHi < contentStart;
+                assert headerHi <= contentStart;
                 ptr = hi;
             } else {
                 headerHi = contentStart;
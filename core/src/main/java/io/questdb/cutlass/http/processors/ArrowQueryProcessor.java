@@ -0,0 +1,534 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.Metrics;
+import io.questdb.QueryLogger;
+import io.questdb.TelemetryOrigin;
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cutlass.arrow.ArrowStreamWriter;
+import io.questdb.cutlass.http.*;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.network.*;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Utf8s;
+
+import java.io.Closeable;
+
+import static io.questdb.cutlass.http.HttpConstants.*;
+
+/**
+ * Streams SELECT results as an Apache Arrow IPC stream. Serves its own endpoint
+ * and the <code>fmt=arrow</code> variant of the JSON query endpoint.
+ * <p>
+ * Unlimited queries that support page frames are sent one page frame per record batch,
+ * with fixed-width column values taken directly from column memory. All other queries
+ * are sent in record batches of up to {@link CairoConfiguration#getSqlPageFrameMaxRows()} rows.
+ */
+public class ArrowQueryProcessor implements HttpRequestProcessor, Closeable {
+
+    private static final LocalValue<ArrowQueryProcessorState> LV = new LocalValue<>();
+    @SuppressWarnings("FieldMayBeFinal")
+    private static Log LOG = LogFactory.getLog(ArrowQueryProcessor.class);
+    private final int batchSize;
+    private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final JsonQueryProcessorConfiguration configuration;
+    private final CairoEngine engine;
+    private final Metrics metrics;
+    private final QueryLogger queryLogger;
+    private final SqlExecutionContextImpl sqlExecutionContext;
+
+    public ArrowQueryProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            int workerCount,
+            int sharedWorkerCount
+    ) {
+        this(configuration, engine, new SqlExecutionContextImpl(engine, workerCount, sharedWorkerCount));
+    }
+
+    public ArrowQueryProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            SqlExecutionContextImpl sqlExecutionContext
+    ) {
+        this.configuration = configuration;
+        this.engine = engine;
+        this.sqlExecutionContext = sqlExecutionContext;
+        this.batchSize = engine.getConfiguration().getSqlPageFrameMaxRows();
+        this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
+        this.metrics = engine.getMetrics();
+        this.queryLogger = engine.getConfiguration().getQueryLogger();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(circuitBreaker);
+    }
+
+    public void execute(
+            HttpConnectionContext context,
+            ArrowQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        try {
+            circuitBreaker.resetTimer();
+            state.recordCursorFactory = context.pollSelectCache(state.query, engine);
+            state.setQueryCacheable(true);
+            sqlExecutionContext.with(
+                    context.getSecurityContext(),
+                    null,
+                    null,
+                    context.getFd(),
+                    circuitBreaker.of(context.getFd())
+            );
+            if (state.recordCursorFactory == null) {
+                compile(context, state);
+                queryLogger.logQuery(LOG, context.getFd(), state.query, context.getSecurityContext(), "execute-new")
+                        .$(", skip: ").$(state.skip)
+                        .$(", stop: ").$(state.stop)
+                        .I$();
+                sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, TelemetryOrigin.HTTP_TEXT);
+            } else {
+                queryLogger.logQuery(LOG, context.getFd(), state.query, context.getSecurityContext(), "execute-cached")
+                        .$(", skip: ").$(state.skip)
+                        .$(", stop: ").$(state.stop)
+                        .I$();
+                sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, TelemetryOrigin.HTTP_TEXT);
+            }
+
+            try {
+                boolean runQuery = true;
+                for (int retries = 0; runQuery; retries++) {
+                    try {
+                        openCursor(state);
+                        runQuery = false;
+                    } catch (TableReferenceOutOfDateException e) {
+                        if (retries == TableReferenceOutOfDateException.MAX_RETRY_ATTEMPTS) {
+                            throw SqlException.$(0, e.getFlyweightMessage());
+                        }
+                        info(state).$(e.getFlyweightMessage()).$();
+                        state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                        compile(context, state);
+                    }
+                }
+                header(context.getChunkedResponse());
+                doResumeSend(context);
+            } catch (CairoException e) {
+                state.setQueryCacheable(e.isCacheable());
+                internalError(context.getChunkedResponse(), context.getLastRequestBytesSent(), e, state);
+            } catch (CairoError e) {
+                internalError(context.getChunkedResponse(), context.getLastRequestBytesSent(), e, state);
+            }
+        } catch (SqlException | ImplicitCastException e) {
+            syntaxError(context.getChunkedResponse(), state, e);
+            readyForNextRequest(context);
+        } catch (CairoException | CairoError e) {
+            internalError(context.getChunkedResponse(), context.getLastRequestBytesSent(), e, state);
+            readyForNextRequest(context);
+        }
+    }
+
+    /**
+     * @return true when the context's current request is served by this processor,
+     * used by processors that delegate to this one
+     */
+    public boolean isActive(HttpConnectionContext context) {
+        final ArrowQueryProcessorState state = LV.get(context);
+        return state != null && state.active;
+    }
+
+    @Override
+    public void onRequestComplete(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        ArrowQueryProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new ArrowQueryProcessorState(context, engine.getConfiguration()));
+        }
+        // new request clears random
+        state.rnd = null;
+        state.active = true;
+
+        HttpChunkedResponse response = context.getChunkedResponse();
+        if (parseUrl(response, context.getRequestHeader(), state)) {
+            execute(context, state);
+        } else {
+            readyForNextRequest(context);
+        }
+    }
+
+    @Override
+    public void parkRequest(HttpConnectionContext context, boolean pausedQuery) {
+        ArrowQueryProcessorState state = LV.get(context);
+        if (state != null) {
+            state.pausedQuery = pausedQuery;
+            state.rnd = sqlExecutionContext.getRandom();
+        }
+    }
+
+    @Override
+    public void resumeSend(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        try {
+            doResumeSend(context);
+        } catch (CairoError | CairoException e) {
+            // the response header has been sent already,
+            // log the exception and disconnect
+            ArrowQueryProcessorState state = LV.get(context);
+            if (state != null) {
+                logInternalError(e, state);
+            }
+            throw ServerDisconnectException.INSTANCE;
+        }
+    }
+
+    private static void readyForNextRequest(HttpConnectionContext context) {
+        LOG.info().$("all sent [fd=").$(context.getFd())
+                .$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent())
+                .$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
+                .$(", totalBytesSent=").$(context.getTotalBytesSent()).I$();
+    }
+
+    private static void sendPending(
+            HttpChunkedResponse response,
+            ArrowStreamWriter writer
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        while (writer.hasPendingBytes()) {
+            final int pending = (int) Math.min(writer.getPendingLength(), Integer.MAX_VALUE);
+            final int written = response.writeBytes(writer.getPendingAddress(), pending);
+            writer.advance(written);
+            if (written < pending) {
+                // will raise `PeerIsSlowToReadException` if the tcp send buffer is full
+                response.sendChunk(false);
+            }
+        }
+    }
+
+    private void compile(HttpConnectionContext context, ArrowQueryProcessorState state) throws SqlException {
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
+            if (cc.getType() != CompiledQuery.SELECT) {
+                if (cc.getRecordCursorFactory() != null) {
+                    cc.getRecordCursorFactory().close();
+                }
+                throw SqlException.$(0, "Arrow format only accepts SELECT");
+            }
+            context.setSelectCacheTableTokens(cc.getTableTokens());
+            state.recordCursorFactory = cc.getRecordCursorFactory();
+        }
+    }
+
+    private LogRecord critical(ArrowQueryProcessorState state) {
+        return LOG.critical().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void doResumeSend(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException {
+        ArrowQueryProcessorState state = LV.get(context);
+        if (state == null) {
+            return;
+        }
+
+        // copy random during query resume
+        sqlExecutionContext.with(context.getSecurityContext(), null, state.rnd, context.getFd(), circuitBreaker.of(context.getFd()));
+        LOG.debug().$("resume [fd=").$(context.getFd()).I$();
+
+        if (!state.pausedQuery) {
+            context.resumeResponseSend();
+        } else {
+            state.pausedQuery = false;
+        }
+
+        final HttpChunkedResponse response = context.getChunkedResponse();
+        final ArrowStreamWriter writer = state.writer;
+
+        OUT:
+        while (true) {
+            try {
+                switch (state.queryState) {
+                    case ArrowQueryProcessorState.QUERY_SCHEMA:
+                        writer.prepareSchema();
+                        state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                        state.nextQueryState = ArrowQueryProcessorState.QUERY_DICTIONARY;
+                        break;
+                    case ArrowQueryProcessorState.QUERY_DICTIONARY:
+                        if (state.dictionaryIndex < writer.getDictionaryCount()) {
+                            writer.prepareDictionary(state.dictionaryIndex++);
+                            state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                            state.nextQueryState = ArrowQueryProcessorState.QUERY_DICTIONARY;
+                        } else {
+                            state.queryState = ArrowQueryProcessorState.QUERY_BATCH;
+                        }
+                        break;
+                    case ArrowQueryProcessorState.QUERY_BATCH:
+                        state.nextQueryState = ArrowQueryProcessorState.QUERY_BATCH;
+                        if (state.pageFrameCursor != null) {
+                            final PageFrame frame = state.pageFrameCursor.next();
+                            if (frame != null) {
+                                writer.prepareFrame(frame);
+                                state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                            } else {
+                                state.queryState = ArrowQueryProcessorState.QUERY_END_OF_STREAM;
+                            }
+                        } else if (fillRecordBatch(state)) {
+                            writer.prepareRecordBatch();
+                            state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                        } else if (writer.getBatchRowCount() > 0) {
+                            writer.prepareRecordBatch();
+                            state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                            state.nextQueryState = ArrowQueryProcessorState.QUERY_END_OF_STREAM;
+                        } else {
+                            state.queryState = ArrowQueryProcessorState.QUERY_END_OF_STREAM;
+                        }
+                        break;
+                    case ArrowQueryProcessorState.QUERY_END_OF_STREAM:
+                        writer.prepareEndOfStream();
+                        state.queryState = ArrowQueryProcessorState.QUERY_SEND;
+                        state.nextQueryState = ArrowQueryProcessorState.QUERY_DONE;
+                        break;
+                    case ArrowQueryProcessorState.QUERY_SEND:
+                        sendPending(response, writer);
+                        state.queryState = state.nextQueryState;
+                        break;
+                    case ArrowQueryProcessorState.QUERY_DONE:
+                        // close cursor before returning complete response
+                        // this will guarantee that by the time client reads the response fully the table will be released
+                        state.cursor = Misc.free(state.cursor);
+                        state.pageFrameCursor = Misc.free(state.pageFrameCursor);
+                        sendDone(response, state);
+                        break OUT;
+                    default:
+                        break OUT;
+                }
+            } catch (DataUnavailableException e) {
+                throw QueryPausedException.instance(e.getEvent(), sqlExecutionContext.getCircuitBreaker());
+            }
+        }
+        // reached the end naturally?
+        readyForNextRequest(context);
+    }
+
+    private LogRecord error(ArrowQueryProcessorState state) {
+        return LOG.error().$('[').$(state.getFd()).$("] ");
+    }
+
+    /**
+     * Appends cursor records to the writer's batch.
+     *
+     * @return true when the batch is full, false when the cursor is exhausted
+     */
+    private boolean fillRecordBatch(ArrowQueryProcessorState state) {
+        final ArrowStreamWriter writer = state.writer;
+        final Record record = state.cursor.getRecord();
+        while (state.count < state.stop && state.cursor.hasNext()) {
+            state.count++;
+            if (state.count > state.skip) {
+                writer.appendRecord(record);
+                if (writer.getBatchRowCount() == batchSize) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void header(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        response.status(200, CONTENT_TYPE_ARROW_STREAM);
+        response.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        response.sendHeader();
+    }
+
+    private void headerJsonError(HttpChunkedResponse response) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        response.status(400, CONTENT_TYPE_JSON);
+        response.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        response.sendHeader();
+    }
+
+    private LogRecord info(ArrowQueryProcessorState state) {
+        return LOG.info().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void internalError(
+            HttpChunkedResponse response,
+            long bytesSent,
+            Throwable e,
+            ArrowQueryProcessorState state
+    ) throws ServerDisconnectException, PeerDisconnectedException, PeerIsSlowToReadException {
+        logInternalError(e, state);
+        if (bytesSent > 0) {
+            // We already sent a partial response to the client.
+            // Give up and close the connection.
+            throw ServerDisconnectException.INSTANCE;
+        }
+        sendException(response, 0, e.getMessage(), state);
+    }
+
+    private void logInternalError(Throwable e, ArrowQueryProcessorState state) {
+        if (e instanceof CairoException) {
+            CairoException ce = (CairoException) e;
+            if (ce.isInterruption()) {
+                info(state).$("query cancelled [reason=`").$(ce.getFlyweightMessage())
+                        .$("`, q=`").utf8(state.query)
+                        .$("`]").$();
+            } else if (ce.isCritical()) {
+                critical(state).$("error [msg=`").$(ce.getFlyweightMessage())
+                        .$("`, errno=").$(ce.getErrno())
+                        .$("`, q=`").utf8(state.query)
+                        .$("`]").$();
+            } else {
+                error(state).$("error [msg=`").$(ce.getFlyweightMessage())
+                        .$("`, errno=").$(ce.getErrno())
+                        .$("`, q=`").utf8(state.query)
+                        .$("`]").$();
+            }
+        } else {
+            critical(state).$("internal error [ex=").$(e)
+                    .$(", q=`").utf8(state.query)
+                    .$("`]").$();
+            // This is a critical error, so we treat it as an unhandled one.
+            metrics.health().incrementUnhandledErrors();
+        }
+    }
+
+    private void openCursor(ArrowQueryProcessorState state) throws SqlException {
+        final RecordCursorFactory factory = state.recordCursorFactory;
+        // page frames are sent as they are, so there is no room for row limits
+        if (
+                state.skip == 0
+                        && state.stop == Long.MAX_VALUE
+                        && factory.supportPageFrameCursor()
+                        && factory.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+        ) {
+            state.pageFrameCursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+            state.writer.of(factory.getMetadata(), state.pageFrameCursor);
+        } else {
+            state.cursor = factory.getCursor(sqlExecutionContext);
+            state.writer.of(factory.getMetadata(), null);
+        }
+    }
+
+    private boolean parseUrl(
+            HttpChunkedResponse response,
+            HttpRequestHeader request,
+            ArrowQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        // Query text.
+        final DirectUtf8Sequence query = request.getUrlParam(URL_PARAM_QUERY);
+        if (query == null || query.size() == 0) {
+            info(state).$("Empty query request received. Sending empty reply.").$();
+            sendException(response, 0, "No query text", state);
+            return false;
+        }
+
+        // URL params.
+        long skip = 0;
+        long stop = Long.MAX_VALUE;
+
+        DirectUtf8Sequence limit = request.getUrlParam(URL_PARAM_LIMIT);
+        if (limit != null) {
+            int sepPos = Utf8s.indexOfAscii(limit, ',');
+            try {
+                if (sepPos > 0) {
+                    skip = Numbers.parseLong(limit, 0, sepPos);
+                    if (sepPos + 1 < limit.size()) {
+                        stop = Numbers.parseLong(limit, sepPos + 1, limit.size());
+                    }
+                } else {
+                    stop = Numbers.parseLong(limit);
+                }
+            } catch (NumericException ex) {
+                // Skip or stop will have default value.
+            }
+        }
+        if (stop < 0) {
+            stop = 0;
+        }
+
+        if (skip < 0) {
+            skip = 0;
+        }
+
+        if ((stop - skip) > configuration.getMaxQueryResponseRowLimit()) {
+            stop = skip + configuration.getMaxQueryResponseRowLimit();
+        }
+
+        state.query.clear();
+        if (!Utf8s.utf8ToUtf16(query.lo(), query.hi(), state.query)) {
+            info(state).$("Bad UTF8 encoding").$();
+            sendException(response, 0, "Bad UTF8 encoding in query text", state);
+            return false;
+        }
+
+        state.skip = skip;
+        state.count = 0L;
+        state.stop = stop;
+        return true;
+    }
+
+    private void sendDone(
+            HttpChunkedResponse response,
+            ArrowQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (!state.lastChunkSent) {
+            state.lastChunkSent = true;
+            response.sendChunk(true);
+            return;
+        }
+        response.done();
+    }
+
+    private void sendException(
+            HttpChunkedResponse response,
+            int position,
+            CharSequence message,
+            ArrowQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        headerJsonError(response);
+        JsonQueryProcessorState.prepareExceptionJson(response, position, message, state.query);
+    }
+
+    private void syntaxError(
+            HttpChunkedResponse response,
+            ArrowQueryProcessorState state,
+            FlyweightMessageContainer container
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        info(state).$("syntax-error [q=`").utf8(state.query)
+                .$("`, at=").$(container.getPosition())
+                .$(", message=`").$(container.getFlyweightMessage()).$('`').I$();
+        sendException(response, container.getPosition(), container.getFlyweightMessage(), state);
+    }
+}
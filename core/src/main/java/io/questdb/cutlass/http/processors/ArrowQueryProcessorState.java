@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.arrow.ArrowStreamWriter;
+import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+public class ArrowQueryProcessorState implements Mutable, Closeable {
+    static final int QUERY_BATCH = 2;
+    static final int QUERY_DICTIONARY = 1;
+    static final int QUERY_DONE = 5;
+    static final int QUERY_END_OF_STREAM = 3;
+    static final int QUERY_SCHEMA = 0;
+    static final int QUERY_SEND = 4;
+    final StringSink query = new StringSink();
+    final ArrowStreamWriter writer;
+    private final HttpConnectionContext httpConnectionContext;
+    boolean active;
+    long count;
+    RecordCursor cursor;
+    int dictionaryIndex;
+    boolean lastChunkSent;
+    int nextQueryState;
+    PageFrameCursor pageFrameCursor;
+    boolean pausedQuery = false;
+    int queryState = QUERY_SCHEMA;
+    RecordCursorFactory recordCursorFactory;
+    Rnd rnd;
+    long skip;
+    long stop;
+    private boolean queryCacheable = false;
+
+    public ArrowQueryProcessorState(HttpConnectionContext httpConnectionContext, CairoConfiguration configuration) {
+        this.httpConnectionContext = httpConnectionContext;
+        this.writer = new ArrowStreamWriter(configuration);
+    }
+
+    @Override
+    public void clear() {
+        active = false;
+        rnd = null;
+        writer.clear();
+        cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        if (null != recordCursorFactory) {
+            if (queryCacheable) {
+                httpConnectionContext.putSelectCache(recordCursorFactory);
+            } else {
+                recordCursorFactory.close();
+            }
+            recordCursorFactory = null;
+        }
+        queryCacheable = false;
+        query.clear();
+        queryState = QUERY_SCHEMA;
+        nextQueryState = QUERY_SCHEMA;
+        dictionaryIndex = 0;
+        lastChunkSent = false;
+        skip = 0;
+        stop = 0;
+        count = 0;
+        pausedQuery = false;
+    }
+
+    @Override
+    public void close() {
+        cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        recordCursorFactory = Misc.free(recordCursorFactory);
+        Misc.free(writer);
+    }
+
+    public int getFd() {
+        return httpConnectionContext.getFd();
+    }
+
+    void setQueryCacheable(boolean queryCacheable) {
+        this.queryCacheable = queryCacheable;
+    }
+}
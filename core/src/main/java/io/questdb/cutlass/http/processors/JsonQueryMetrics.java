@@ -26,6 +26,7 @@ package io.questdb.cutlass.http.processors;
 
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongHistogram;
 import io.questdb.metrics.MetricsRegistry;
 import org.jetbrains.annotations.TestOnly;
 
@@ -34,8 +35,11 @@ public class JsonQueryMetrics {
     private final Counter cacheHitCounter;
     private final Counter cacheMissCounter;
     private final LongGauge cachedQueriesGauge;
+    private final LongHistogram compileLatencyHistogram;
     private final Counter completedQueriesCounter;
     private final LongGauge connectionCountGauge;
+    private final LongHistogram executeLatencyHistogram;
+    private final LongHistogram serializeLatencyHistogram;
     private final Counter startedQueriesCounter;
 
     public JsonQueryMetrics(MetricsRegistry metricsRegistry) {
@@ -45,6 +49,9 @@ public class JsonQueryMetrics {
         this.cachedQueriesGauge = metricsRegistry.newLongGauge("json_queries_cached");
         this.cacheHitCounter = metricsRegistry.newCounter("json_queries_cache_hits");
         this.cacheMissCounter = metricsRegistry.newCounter("json_queries_cache_misses");
+        this.compileLatencyHistogram = metricsRegistry.newLongHistogram("json_queries_compile_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
+        this.executeLatencyHistogram = metricsRegistry.newLongHistogram("json_queries_execute_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
+        this.serializeLatencyHistogram = metricsRegistry.newLongHistogram("json_queries_serialize_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
     }
 
     public Counter cacheHitCounter() {
@@ -59,6 +66,10 @@ public class JsonQueryMetrics {
         return cachedQueriesGauge;
     }
 
+    public LongHistogram compileLatencyHistogram() {
+        return compileLatencyHistogram;
+    }
+
     @TestOnly
     public long completedQueriesCount() {
         return completedQueriesCounter.getValue();
@@ -68,6 +79,10 @@ public class JsonQueryMetrics {
         return connectionCountGauge;
     }
 
+    public LongHistogram executeLatencyHistogram() {
+        return executeLatencyHistogram;
+    }
+
     public void markComplete() {
         completedQueriesCounter.inc();
     }
@@ -76,6 +91,22 @@ public class JsonQueryMetrics {
         startedQueriesCounter.inc();
     }
 
+    public void recordCompileNanos(long nanos) {
+        compileLatencyHistogram.record(nanos / 1000);
+    }
+
+    public void recordExecuteNanos(long nanos) {
+        executeLatencyHistogram.record(nanos / 1000);
+    }
+
+    public void recordSerializeNanos(long nanos) {
+        serializeLatencyHistogram.record(nanos / 1000);
+    }
+
+    public LongHistogram serializeLatencyHistogram() {
+        return serializeLatencyHistogram;
+    }
+
     @TestOnly
     public long startedQueriesCount() {
         return startedQueriesCounter.getValue();
@@ -42,10 +42,12 @@ import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.str.DirectUtf8Sequence;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8s;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
 
+import static io.questdb.cutlass.http.HttpConstants.URL_PARAM_FMT;
 import static io.questdb.cutlass.http.HttpConstants.URL_PARAM_LIMIT;
 import static io.questdb.cutlass.http.HttpConstants.URL_PARAM_QUERY;
 
@@ -55,6 +57,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     @SuppressWarnings("FieldMayBeFinal")
     private static Log LOG = LogFactory.getLog(JsonQueryProcessor.class);
     protected final ObjList<QueryExecutor> queryExecutors = new ObjList<>();
+    private final ArrowQueryProcessor arrowQueryProcessor;
     private final long asyncCommandTimeout;
     private final long asyncWriterStartTimeout;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
@@ -133,12 +136,14 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.metrics = engine.getMetrics();
         this.asyncWriterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.asyncCommandTimeout = engine.getConfiguration().getWriterAsyncCommandMaxTimeout();
+        this.arrowQueryProcessor = new ArrowQueryProcessor(configuration, engine, sqlExecutionContext);
     }
 
     @Override
     public void close() {
         Misc.free(path);
         Misc.free(circuitBreaker);
+        Misc.free(arrowQueryProcessor);
     }
 
     public void execute0(
@@ -168,7 +173,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 return;
             }
 
-            final RecordCursorFactory factory = context.getSelectCache().poll(state.getQuery());
+            final RecordCursorFactory factory = context.pollSelectCache(state.getQuery(), engine);
             if (factory != null) {
                 // queries with sensitive info are not cached, doLog = true
                 queryLogger.logExecQuery(LOG, true, context.getFd(), state.getQuery(), context.getSecurityContext());
@@ -229,6 +234,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public void onRequestComplete(
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        if (Utf8s.equalsNcAscii("arrow", context.getRequestHeader().getUrlParam(URL_PARAM_FMT))) {
+            arrowQueryProcessor.onRequestComplete(context);
+            return;
+        }
+
         JsonQueryProcessorState state = LV.get(context);
         if (state == null) {
             LV.set(context, state = new JsonQueryProcessorState(
@@ -260,6 +270,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
 
     @Override
     public void parkRequest(HttpConnectionContext context, boolean pausedQuery) {
+        if (arrowQueryProcessor.isActive(context)) {
+            arrowQueryProcessor.parkRequest(context, pausedQuery);
+            return;
+        }
+
         final JsonQueryProcessorState state = LV.get(context);
         if (state != null) {
             state.setPausedQuery(pausedQuery);
@@ -277,6 +292,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public void resumeSend(
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        if (arrowQueryProcessor.isActive(context)) {
+            arrowQueryProcessor.resumeSend(context);
+            return;
+        }
+
         final JsonQueryProcessorState state = LV.get(context);
         if (state != null) {
             // we are resuming request execution, we need to copy random to execution context
@@ -333,6 +353,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         }
         // reached the end naturally?
+        context.getMetrics().jsonQuery().recordSerializeNanos(state.getSerializeTimeNanos());
         readyForNextRequest(context);
     }
 
@@ -435,8 +456,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 final long nanos = nanosecondClock.getTicks();
                 final CompiledQuery cc = compiler.compile(state.getQuery(), sqlExecutionContext);
                 sqlExecutionContext.storeTelemetry(cc.getType(), TelemetryOrigin.HTTP_JSON);
-                state.setCompilerNanos(nanosecondClock.getTicks() - nanos);
+                final long compilerNanos = nanosecondClock.getTicks() - nanos;
+                state.setCompilerNanos(compilerNanos);
+                metrics.jsonQuery().recordCompileNanos(compilerNanos);
                 state.setQueryType(cc.getType());
+                state.getHttpConnectionContext().setSelectCacheTableTokens(cc.getTableTokens());
                 // todo: reconsider whether we need to keep the SqlCompiler instance open while executing the query
                 // the problem is the each instance of the compiler has just a single instance of the CompilerQuery object.
                 // the CompilerQuery is used as a flyweight(?) and we cannot return the SqlCompiler instance to the pool
@@ -522,7 +546,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CompiledQuery cq,
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        final long nanos = nanosecondClock.getTicks();
         cq.getInsertOperation().execute(sqlExecutionContext).await();
+        metrics.jsonQuery().recordExecuteNanos(nanosecondClock.getTicks() - nanos);
         metrics.jsonQuery().markComplete();
         sendConfirmation(state, keepAliveHeader);
     }
@@ -570,6 +596,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         final HttpConnectionContext context = state.getHttpConnectionContext();
         try {
             if (state.of(factory, sqlExecutionContext)) {
+                metrics.jsonQuery().recordExecuteNanos(state.getCursorNanos());
                 doResumeSend(state, context, sqlExecutionContext);
                 metrics.jsonQuery().markComplete();
             } else {
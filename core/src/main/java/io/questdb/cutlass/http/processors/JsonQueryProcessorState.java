@@ -86,6 +86,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private boolean countRows = false;
     private RecordCursor cursor;
     private boolean cursorHasRows;
+    private long cursorNanos;
     private long executeStartNanos;
     private boolean explain = false;
     private boolean noMeta = false;
@@ -101,6 +102,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private long recordCountNanos;
     private RecordCursorFactory recordCursorFactory;
     private Rnd rnd;
+    private long serializeStartNanos;
     private long skip;
     private long stop;
     private boolean timings = false;
@@ -141,7 +143,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         record = null;
         if (recordCursorFactory != null) {
             if (queryCacheable) {
-                httpConnectionContext.getSelectCache().put(query, recordCursorFactory);
+                httpConnectionContext.putSelectCache(recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -212,6 +214,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return eventSubSequence;
     }
 
+    public long getCursorNanos() {
+        return cursorNanos;
+    }
+
     public long getExecutionTimeNanos() {
         return nanosecondClock.getTicks() - this.executeStartNanos;
     }
@@ -281,6 +287,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 .$("`]").$();
     }
 
+    public long getSerializeTimeNanos() {
+        return nanosecondClock.getTicks() - serializeStartNanos;
+    }
+
     public void setCompilerNanos(long compilerNanos) {
         this.compilerNanos = compilerNanos;
     }
@@ -878,7 +888,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         // Enable column pre-touch in REST API only when LIMIT K,N is not specified since when limit is defined
         // we do a no-op loop over the cursor to calculate the total row count and pre-touch only slows things down.
         sqlExecutionContext.setColumnPreTouchEnabled(stop == Long.MAX_VALUE);
+        final long nanos = nanosecondClock.getTicks();
         this.cursor = factory.getCursor(sqlExecutionContext);
+        this.serializeStartNanos = nanosecondClock.getTicks();
+        this.cursorNanos = serializeStartNanos - nanos;
         this.circuitBreaker = sqlExecutionContext.getCircuitBreaker();
         final RecordMetadata metadata = factory.getMetadata();
         this.queryTimestampIndex = metadata.getTimestampIndex();
@@ -46,6 +46,8 @@ public interface LineHttpProcessorConfiguration {
 
     LineTcpTimestampAdapter getTimestampAdapter();
 
+    boolean isBinaryFormatSupported();
+
     boolean isEnabled();
 
     boolean isStringAsTagSupported();
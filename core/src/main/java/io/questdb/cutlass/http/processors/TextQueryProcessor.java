@@ -109,7 +109,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             boolean isExpRequest = isExpUrl(context.getRequestHeader().getUrl());
 
             circuitBreaker.resetTimer();
-            state.recordCursorFactory = context.getSelectCache().poll(state.query);
+            state.recordCursorFactory = context.pollSelectCache(state.query, engine);
             state.setQueryCacheable(true);
             sqlExecutionContext.with(
                     context.getSecurityContext(),
@@ -122,6 +122,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                 try (SqlCompiler compiler = engine.getSqlCompiler()) {
                     final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                     if (cc.getType() == CompiledQuery.SELECT || cc.getType() == CompiledQuery.EXPLAIN) {
+                        context.setSelectCacheTableTokens(cc.getTableTokens());
                         state.recordCursorFactory = cc.getRecordCursorFactory();
                     } else if (isExpRequest) {
                         throw SqlException.$(0, "/exp endpoint only accepts SELECT");
@@ -158,6 +159,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                                 if (cc.getType() != CompiledQuery.SELECT && isExpRequest) {
                                     throw SqlException.$(0, "/exp endpoint only accepts SELECT");
                                 }
+                                context.setSelectCacheTableTokens(cc.getTableTokens());
                                 state.recordCursorFactory = cc.getRecordCursorFactory();
                             }
                         }
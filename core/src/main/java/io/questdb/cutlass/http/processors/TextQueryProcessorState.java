@@ -70,7 +70,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                httpConnectionContext.getSelectCache().put(query, recordCursorFactory);
+                httpConnectionContext.putSelectCache(recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -44,6 +44,7 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
     private final long bufA;
     private final long bufB;
     protected LineChannel lineChannel;
+    private boolean binaryEncoding;
     private boolean closed;
     private boolean enableValidation;
     private boolean hasColumns;
@@ -120,9 +121,10 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
             flush();
         } finally {
             closed = true;
-            lineChannel = Misc.free(lineChannel);
             Unsafe.free(bufA, capacity, MemoryTag.NATIVE_ILP_RSS);
             Unsafe.free(bufB, capacity, MemoryTag.NATIVE_ILP_RSS);
+            // closing the channel may report an error of an asynchronous send
+            lineChannel = Misc.free(lineChannel);
         }
     }
 
@@ -138,8 +140,21 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         return field(name, value);
     }
 
+    /**
+     * Sends doubles, longs and timestamps as a type tag followed by 8 little-endian bytes
+     * instead of decimal text. The server must support binary ILP values.
+     */
+    public void enableBinaryEncoding() {
+        binaryEncoding = true;
+    }
+
     public AbstractLineSender field(CharSequence name, long value) {
-        writeFieldName(name).put(value).put('i');
+        writeFieldName(name);
+        if (binaryEncoding) {
+            writeBinaryValue(LineBinaryFormat.BINARY_TYPE_LONG, value);
+        } else {
+            put(value).put('i');
+        }
         return this;
     }
 
@@ -153,7 +168,12 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
     }
 
     public AbstractLineSender field(CharSequence name, double value) {
-        writeFieldName(name).put(value);
+        writeFieldName(name);
+        if (binaryEncoding) {
+            writeBinaryValue(LineBinaryFormat.BINARY_TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+        } else {
+            put(value);
+        }
         return this;
     }
 
@@ -405,6 +425,20 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         }
     }
 
+    private void writeBinaryValue(byte type, long value) {
+        validateNotClosed();
+        if (ptr + LineBinaryFormat.BINARY_VALUE_LENGTH > hi) {
+            send00();
+            if (ptr + LineBinaryFormat.BINARY_VALUE_LENGTH > hi) {
+                throw new LineSenderException("value too long. increase buffer size.");
+            }
+        }
+        Unsafe.getUnsafe().putByte(ptr, LineBinaryFormat.BINARY_FORMAT_FLAG);
+        Unsafe.getUnsafe().putByte(ptr + 1, type);
+        Unsafe.getUnsafe().putLong(ptr + 2, value);
+        ptr += LineBinaryFormat.BINARY_VALUE_LENGTH;
+    }
+
     protected static long unitToNanos(ChronoUnit unit) {
         switch (unit) {
             case NANOS:
@@ -474,6 +508,15 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         }
     }
 
+    protected void writeDesignatedTimestamp(long nanos) {
+        putAsciiInternal(' ');
+        if (binaryEncoding) {
+            writeBinaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_NANOS, nanos);
+        } else {
+            put(nanos);
+        }
+    }
+
     protected AbstractLineSender writeFieldName(CharSequence name) {
         validateNotClosed();
         validateColumnName(name);
@@ -489,4 +532,13 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         }
         throw new LineSenderException("table expected");
     }
+
+    protected void writeTimestampColumn(CharSequence name, long micros) {
+        writeFieldName(name);
+        if (binaryEncoding) {
+            writeBinaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_MICROS, micros);
+        } else {
+            put(micros).put('t');
+        }
+    }
 }
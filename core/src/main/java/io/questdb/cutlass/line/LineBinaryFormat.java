@@ -0,0 +1,43 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+/**
+ * Wire constants of the binary ILP value encoding, shared by the senders and the receiver.
+ * A binary value is the flag, a type tag and 8 little-endian bytes, e.g. "x==&lt;tag&gt;&lt;8 bytes&gt;".
+ * A text value can never start with '=', which keeps the encoding backward compatible.
+ * The encoding is accepted only when the receiver enables it.
+ */
+public final class LineBinaryFormat {
+    public static final byte BINARY_FORMAT_FLAG = '=';
+    public static final byte BINARY_TYPE_DOUBLE = 16;
+    public static final byte BINARY_TYPE_LONG = 17;
+    public static final byte BINARY_TYPE_TIMESTAMP_MICROS = 18;
+    public static final byte BINARY_TYPE_TIMESTAMP_NANOS = 19;
+    public static final int BINARY_VALUE_LENGTH = 10;
+
+    private LineBinaryFormat() {
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.http.HttpLineChannel;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * ILP sender that POSTs complete lines to the HTTP endpoint of a QuestDB server. Each flush,
+ * explicit or caused by a full buffer, becomes a separate request and so a separate transaction.
+ * Requests are sent asynchronously by {@link HttpLineChannel}, hence {@link #flush()} returns once
+ * the batch is handed over to the I/O thread.
+ * <br>
+ * Use {@link Sender#builder()} to create an instance.
+ */
+public class LineHttpSender extends AbstractLineSender {
+    private final HttpLineChannel channel;
+
+    public LineHttpSender(HttpLineChannel channel, int bufferCapacity) {
+        super(channel, bufferCapacity);
+        this.channel = channel;
+    }
+
+    @Override
+    public final void at(long timestamp, ChronoUnit unit) {
+        // nanos
+        writeDesignatedTimestamp(timestamp * unitToNanos(unit));
+        atNow();
+    }
+
+    @Override
+    public final void at(Instant timestamp) {
+        // nanos
+        writeDesignatedTimestamp(timestamp.getEpochSecond() * Timestamps.SECOND_NANOS + timestamp.getNano());
+        atNow();
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        // report failed batches even when there was nothing to send
+        channel.checkError();
+    }
+
+    @Override
+    public final AbstractLineSender timestampColumn(CharSequence name, Instant value) {
+        // micros
+        writeTimestampColumn(name, (value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000);
+        return this;
+    }
+
+    @Override
+    public final AbstractLineSender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
+        // micros
+        writeTimestampColumn(name, value * unitToNanos(unit) / 1000);
+        return this;
+    }
+}
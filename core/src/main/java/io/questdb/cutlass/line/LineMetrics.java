@@ -25,14 +25,21 @@
 package io.questdb.cutlass.line;
 
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongHistogram;
 import io.questdb.metrics.MetricsRegistry;
 
 public class LineMetrics {
 
+    private final LongHistogram commitLatencyHistogram;
     private final LongGauge connectionCountGauge;
 
     public LineMetrics(MetricsRegistry metricsRegistry) {
         this.connectionCountGauge = metricsRegistry.newLongGauge("line_tcp_connections");
+        this.commitLatencyHistogram = metricsRegistry.newLongHistogram("line_tcp_commit_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
+    }
+
+    public LongHistogram commitLatencyHistogram() {
+        return commitLatencyHistogram;
     }
 
     public LongGauge connectionCountGauge() {
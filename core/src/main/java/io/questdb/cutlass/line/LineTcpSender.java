@@ -81,14 +81,14 @@ public class LineTcpSender extends AbstractLineSender {
     @Override
     public final void at(long timestamp, ChronoUnit unit) {
         // nanos
-        putAsciiInternal(' ').put(timestamp * unitToNanos(unit));
+        writeDesignatedTimestamp(timestamp * unitToNanos(unit));
         atNow();
     }
 
     @Override
     public final void at(Instant timestamp) {
         // nanos
-        putAsciiInternal(' ').put(timestamp.getEpochSecond() * Timestamps.SECOND_NANOS + timestamp.getNano());
+        writeDesignatedTimestamp(timestamp.getEpochSecond() * Timestamps.SECOND_NANOS + timestamp.getNano());
         atNow();
     }
 
@@ -101,14 +101,14 @@ public class LineTcpSender extends AbstractLineSender {
     @Override
     public final AbstractLineSender timestampColumn(CharSequence name, Instant value) {
         // micros
-        writeFieldName(name).put((value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000).put('t');
+        writeTimestampColumn(name, (value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000);
         return this;
     }
 
     @Override
     public final AbstractLineSender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
         // micros
-        writeFieldName(name).put(value * unitToNanos(unit) / 1000).put('t');
+        writeTimestampColumn(name, value * unitToNanos(unit) / 1000);
         return this;
     }
 
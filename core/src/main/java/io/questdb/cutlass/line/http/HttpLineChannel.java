@@ -0,0 +1,355 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.http;
+
+import io.questdb.DefaultHttpClientConfiguration;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.http.client.Chunk;
+import io.questdb.cutlass.http.client.ChunkedResponse;
+import io.questdb.cutlass.http.client.HttpClient;
+import io.questdb.cutlass.http.client.HttpClientException;
+import io.questdb.cutlass.http.client.HttpClientFactory;
+import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Line channel that delivers ILP batches to the HTTP endpoint of a QuestDB server.
+ * <p>
+ * Every batch passed to {@link #send(long, int)} is copied into one of the channel's direct
+ * memory buffers and POSTed by a background I/O thread, so the caller does not wait for the
+ * network unless all buffers are in flight. The server commits each request as a separate
+ * transaction. A request is retried with exponential backoff only when it is known not to have
+ * been applied: it could not be sent in full, e.g. the connection failed, or the server replied
+ * with 503. A request that was sent but got no response or another error status is not retried,
+ * since retrying it could write the batch twice. Batches that could not be delivered are reported
+ * to the error handler, or, when there is none, the first such error is thrown by the next
+ * {@link #send(long, int)} or {@link #close()} call.
+ */
+public final class HttpLineChannel implements LineChannel {
+    private static final int HEADER_BUFFER_SIZE = 4096;
+    private static final Log LOG = LogFactory.getLog(HttpLineChannel.class);
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 10_000;
+    private static final String STATUS_SERVICE_UNAVAILABLE = "503";
+    private static final String URL = "/write";
+    private final int[] batchSizes;
+    private final int bufferCapacity;
+    private final long[] buffers;
+    @Nullable
+    private final Sender.ErrorHandler errorHandler;
+    // used by the I/O thread only
+    private final StringSink errorSink = new StringSink();
+    private final String host;
+    private final HttpClient httpClient;
+    private final Thread ioThread;
+    private final Object lock = new Object();
+    private final int maxRetries;
+    private final int port;
+    private final long retryBackoffMillis;
+    private boolean closed;
+    // number of batches the I/O thread is done with, guarded by lock
+    private long completedCount;
+    // guarded by lock
+    private boolean isClosing;
+    // the first error not yet reported to the caller, guarded by lock
+    private LineSenderException pendingError;
+    // number of batches handed over to the I/O thread, guarded by lock
+    private long queuedCount;
+
+    public HttpLineChannel(
+            String host,
+            int port,
+            int bufferCapacity,
+            int maxInFlight,
+            int maxRetries,
+            long retryBackoffMillis,
+            @Nullable Sender.ErrorHandler errorHandler
+    ) {
+        assert maxInFlight > 0;
+        this.host = host;
+        this.port = port;
+        this.bufferCapacity = bufferCapacity;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.errorHandler = errorHandler;
+        this.buffers = new long[maxInFlight];
+        this.batchSizes = new int[maxInFlight];
+        this.httpClient = HttpClientFactory.newInstance(new DefaultHttpClientConfiguration() {
+            @Override
+            public int getBufferSize() {
+                return bufferCapacity + HEADER_BUFFER_SIZE;
+            }
+        });
+        try {
+            for (int i = 0; i < maxInFlight; i++) {
+                buffers[i] = Unsafe.malloc(bufferCapacity, MemoryTag.NATIVE_ILP_RSS);
+            }
+        } catch (Throwable th) {
+            freeBuffers();
+            httpClient.close();
+            throw th;
+        }
+        this.ioThread = new Thread(this::run, "questdb-ilp-http-sender");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Throws the first undelivered batch error unless it was reported to the error handler.
+     */
+    public void checkError() {
+        synchronized (lock) {
+            throwPendingError();
+        }
+    }
+
+    /**
+     * Waits for all batches to be sent, stops the I/O thread and releases the buffers.
+     * Throws the first undelivered batch error unless it was reported to the error handler.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (lock) {
+            isClosing = true;
+            lock.notifyAll();
+        }
+        boolean interrupted = false;
+        while (ioThread.isAlive()) {
+            try {
+                ioThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        httpClient.close();
+        freeBuffers();
+        checkError();
+    }
+
+    @Override
+    public int errno() {
+        return 0;
+    }
+
+    @Override
+    public int receive(long ptr, int len) {
+        throw new LineSenderException("receive is not supported by HTTP transport");
+    }
+
+    /**
+     * Hands the batch over to the I/O thread. The batch must consist of complete lines.
+     * Blocks only when the maximum number of batches are already in flight.
+     *
+     * @param ptr address of the batch
+     * @param len length of the batch in bytes
+     */
+    @Override
+    public void send(long ptr, int len) {
+        if (len > bufferCapacity) {
+            throw new LineSenderException("batch is too large ")
+                    .put("[size=").put(len)
+                    .put(", capacity=").put(bufferCapacity)
+                    .put("]");
+        }
+        final long batchId;
+        synchronized (lock) {
+            throwPendingError();
+            while (queuedCount - completedCount == buffers.length) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LineSenderException("interrupted while waiting for in-flight batches");
+                }
+            }
+            batchId = queuedCount;
+        }
+
+        // the slot is not accessed by the I/O thread until the batch is queued
+        final int slot = (int) (batchId % buffers.length);
+        Vect.memcpy(buffers[slot], ptr, len);
+        batchSizes[slot] = len;
+
+        synchronized (lock) {
+            queuedCount++;
+            lock.notifyAll();
+        }
+    }
+
+    private void freeBuffers() {
+        for (int i = 0, n = buffers.length; i < n; i++) {
+            if (buffers[i] != 0) {
+                Unsafe.free(buffers[i], bufferCapacity, MemoryTag.NATIVE_ILP_RSS);
+                buffers[i] = 0;
+            }
+        }
+    }
+
+    private void readError(HttpClient.ResponseHeaders response) {
+        errorSink.clear();
+        if (response.isChunked()) {
+            final ChunkedResponse chunkedResponse = response.getChunkedResponse();
+            Chunk chunk;
+            while ((chunk = chunkedResponse.recv()) != null) {
+                // drain the whole response to keep the connection usable
+                if (errorSink.length() < MAX_ERROR_LENGTH) {
+                    Utf8s.utf8ToUtf16(chunk.lo(), Math.min(chunk.hi(), chunk.lo() + MAX_ERROR_LENGTH), errorSink);
+                }
+            }
+        } else {
+            // the body is not read, the connection cannot be reused
+            httpClient.disconnect();
+        }
+    }
+
+    private void reportError(long batchId, LineSenderException error) {
+        LOG.error().$("could not deliver batch [batchId=").$(batchId).$(", error=").$(error.getMessage()).I$();
+        if (errorHandler != null) {
+            try {
+                errorHandler.onError(batchId, error);
+            } catch (Throwable th) {
+                LOG.error().$("error handler failed [batchId=").$(batchId).$(", ex=").$(th).I$();
+            }
+            return;
+        }
+        synchronized (lock) {
+            if (pendingError == null) {
+                pendingError = error;
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            final long batchId;
+            synchronized (lock) {
+                while (completedCount == queuedCount && !isClosing) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException ignore) {
+                        // keep draining the batches
+                    }
+                }
+                if (completedCount == queuedCount) {
+                    return;
+                }
+                batchId = completedCount;
+            }
+
+            final int slot = (int) (batchId % buffers.length);
+            try {
+                sendBatch(batchId, buffers[slot], batchSizes[slot]);
+            } catch (LineSenderException e) {
+                reportError(batchId, e);
+            } catch (Throwable th) {
+                reportError(batchId, new LineSenderException("could not send batch ", th).put("[batchId=").put(batchId).put("]"));
+            }
+
+            synchronized (lock) {
+                completedCount++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void sendBatch(long batchId, long lo, int len) {
+        long backoffMillis = retryBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            // once the whole request is sent, the server may have committed it even if the response is lost
+            boolean requestSent = false;
+            try {
+                final HttpClient.ResponseHeaders response = httpClient.newRequest()
+                        .POST()
+                        .url(URL)
+                        .query("precision", "n")
+                        .withContent()
+                        .putUtf8(lo, lo + len)
+                        .send(host, port);
+                requestSent = true;
+                response.await();
+
+                final DirectUtf8Sequence statusCode = response.getStatusCode();
+                if (statusCode != null && statusCode.size() > 0 && statusCode.byteAt(0) == '2') {
+                    return;
+                }
+                readError(response);
+                if (statusCode == null || !Utf8s.equalsAscii(STATUS_SERVICE_UNAVAILABLE, statusCode) || attempt >= maxRetries) {
+                    throw new LineSenderException("could not write batch ")
+                            .put("[batchId=").put(batchId)
+                            .put(", status=").put(statusCode != null ? statusCode.asAsciiCharSequence() : null)
+                            .put(", error=").put(errorSink)
+                            .put("]");
+                }
+                LOG.info().$("retrying batch [batchId=").$(batchId)
+                        .$(", status=").$(statusCode.asAsciiCharSequence())
+                        .$(", attempt=").$(attempt + 1)
+                        .I$();
+            } catch (HttpClientException e) {
+                httpClient.disconnect();
+                if (requestSent || attempt >= maxRetries) {
+                    throw new LineSenderException("could not send batch ", e)
+                            .put("[batchId=").put(batchId)
+                            .put(", host=").put(host)
+                            .put(", port=").put(port)
+                            .put(", delivered=").put(requestSent ? "unknown" : "no")
+                            .put(", error=").put(e.getMessage())
+                            .put("]");
+                }
+                LOG.info().$("retrying batch [batchId=").$(batchId)
+                        .$(", error=").$(e.getMessage())
+                        .$(", attempt=").$(attempt + 1)
+                        .I$();
+            }
+            Os.sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+        }
+    }
+
+    private void throwPendingError() {
+        if (pendingError != null) {
+            final LineSenderException error = pendingError;
+            pendingError = null;
+            throw error;
+        }
+    }
+}
@@ -188,11 +188,26 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 10_000;
+    }
+
+    @Override
+    public double getWriterRebalanceLoadRatio() {
+        return 1.5;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
     }
 
+    @Override
+    public boolean isBinaryFormatSupported() {
+        return false;
+    }
+
     @Override
     public boolean isEnabled() {
         return true;
@@ -251,6 +251,10 @@ public class IlpWalAppender {
                                 r.putFloat(columnIndex, ent.getLongValue());
                                 break;
                             case ColumnType.SYMBOL:
+                                if (ent.isBinary()) {
+                                    // binary values have no text form to store as a symbol
+                                    throw castError(tud.getTableNameUtf16(), "INTEGER", colType, ent.getName());
+                                }
                                 r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
                                 break;
                             default:
@@ -267,6 +271,10 @@ public class IlpWalAppender {
                                 r.putFloat(columnIndex, (float) ent.getFloatValue());
                                 break;
                             case ColumnType.SYMBOL:
+                                if (ent.isBinary()) {
+                                    // binary values have no text form to store as a symbol
+                                    throw castError(tud.getTableNameUtf16(), "FLOAT", colType, ent.getName());
+                                }
                                 r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
                                 break;
                             default:
@@ -380,6 +388,10 @@ public class IlpWalAppender {
                                 r.putTimestamp(columnIndex, dateValue / 1000);
                                 break;
                             case ColumnType.SYMBOL:
+                                if (ent.isBinary()) {
+                                    // binary values have no text form to store as a symbol
+                                    throw castError(tud.getTableNameUtf16(), "TIMESTAMP", colType, ent.getName());
+                                }
                                 r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
                                 break;
                             default:
@@ -299,6 +299,11 @@ public class LineTcpEventBuffer {
         }
     }
 
+    public void copyFrom(LineTcpEventBuffer other) {
+        assert bufSize - bufLo == other.bufSize - other.bufLo;
+        Vect.memcpy(bufLo, other.bufLo, bufSize - bufLo);
+    }
+
     public long getAddress() {
         return bufLo;
     }
@@ -270,11 +270,17 @@ class LineTcpMeasurementEvent implements Closeable {
         }
     }
 
-    void createMeasurementEvent(
+    /**
+     * Populates the event from the parsed measurement.
+     *
+     * @return number of bytes the measurement takes in the event buffer
+     */
+    long createMeasurementEvent(
             SecurityContext securityContext,
             TableUpdateDetails tud,
             LineTcpParser parser,
-            int workerId
+            int workerId,
+            int writerThreadId
     ) {
         writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
         final TableUpdateDetails.ThreadLocalDetails localDetails = tud.getThreadLocalDetails(workerId);
@@ -389,6 +395,10 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addFloat(offset, entity.getLongValue());
                             break;
                         case ColumnType.SYMBOL:
+                            if (entity.isBinary()) {
+                                // binary values have no text form to store as a symbol
+                                throw castError(tud.getTableNameUtf16(), "integer", colType, entity.getName());
+                            }
                             offset = buffer.addSymbol(
                                     offset,
                                     entity.getValue(),
@@ -410,6 +420,10 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addFloat(offset, (float) entity.getFloatValue());
                             break;
                         case ColumnType.SYMBOL:
+                            if (entity.isBinary()) {
+                                // binary values have no text form to store as a symbol
+                                throw castError(tud.getTableNameUtf16(), "float", colType, entity.getName());
+                            }
                             offset = buffer.addSymbol(
                                     offset,
                                     entity.getValue(),
@@ -540,6 +554,10 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addDate(offset, dateValue / 1000);
                             break;
                         case ColumnType.SYMBOL:
+                            if (entity.isBinary()) {
+                                // binary values have no text form to store as a symbol
+                                throw castError(tud.getTableNameUtf16(), "timestamp", colType, entity.getName());
+                            }
                             offset = buffer.addSymbol(
                                     offset,
                                     entity.getValue(),
@@ -575,7 +593,32 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         buffer.addDesignatedTimestamp(buffer.getAddress() + Long.BYTES, timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + 2 * Long.BYTES, entitiesWritten);
-        writerWorkerId = tud.getWriterThreadId();
+        writerWorkerId = writerThreadId;
+        return offset - buffer.getAddress();
+    }
+
+    void clear() {
+        tableUpdateDetails = null;
+    }
+
+    /**
+     * Copies the event, so that it can be processed after its queue slot is released.
+     * The copy does not own the table details, {@link #clear()} it once processed.
+     */
+    void copyFrom(LineTcpMeasurementEvent other) {
+        buffer.copyFrom(other.buffer);
+        tableUpdateDetails = other.tableUpdateDetails;
+        writerWorkerId = other.writerWorkerId;
+        commitOnWriterClose = other.commitOnWriterClose;
+    }
+
+    void createIncompleteEvent() {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
+    }
+
+    void createWriterMigrateEvent(TableUpdateDetails tableUpdateDetails) {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_MIGRATE_WRITER;
+        this.tableUpdateDetails = tableUpdateDetails;
     }
 
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
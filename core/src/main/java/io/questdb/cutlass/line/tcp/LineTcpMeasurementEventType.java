@@ -29,5 +29,9 @@ class LineTcpMeasurementEventType {
     // to populate it for some reason, the event needs to be committed to the queue incomplete
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
+    // A migrate event is published to the queue of the writer thread a table is moved away from,
+    // it hands the table over to the new writer thread once all earlier events are processed
+    static final int ALL_WRITERS_MIGRATE_WRITER = -4;
+
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
 }
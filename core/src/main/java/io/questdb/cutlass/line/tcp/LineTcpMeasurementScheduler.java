@@ -43,6 +43,7 @@ import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.*;
 import io.questdb.tasks.TelemetryTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.Arrays;
@@ -60,6 +61,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final IlpWalAppender ilpWalAppender;
     private final long[] loadByWriterThread;
+    private final long[] loadRateByWriterThread;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
@@ -70,6 +72,11 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
     private final long writerIdleTimeout;
+    private final long writerRebalanceInterval;
+    private final double writerRebalanceLoadRatio;
+    private volatile int migratingFromThreadId = -1;
+    private TableUpdateDetails migratingTud;
+    private long nextRebalanceMillis;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -100,6 +107,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
         tableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         idleTableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        loadRateByWriterThread = new long[writerWorkerPool.getWorkerCount()];
         autoCreateNewTables = lineConfiguration.getAutoCreateNewTables();
         autoCreateNewColumns = lineConfiguration.getAutoCreateNewColumns();
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
@@ -111,25 +119,22 @@ public class LineTcpMeasurementScheduler implements Closeable {
         queue = new RingQueue[nWriterThreads];
         //noinspection unchecked
         assignedTables = new ObjList[nWriterThreads];
+        final DirectObjectFactory<LineTcpMeasurementEvent> eventFactory = (address, addressSize) -> new LineTcpMeasurementEvent(
+                address,
+                addressSize,
+                lineConfiguration.getMicrosecondClock(),
+                lineConfiguration.getTimestampAdapter(),
+                defaultColumnTypes,
+                lineConfiguration.isStringToCharCastAllowed(),
+                lineConfiguration.getMaxFileNameLength(),
+                lineConfiguration.getAutoCreateNewColumns()
+        );
+        final long eventSlotSize = getEventSlotSize(maxMeasurementSize);
         for (int i = 0; i < nWriterThreads; i++) {
             MPSequence ps = new MPSequence(queueSize);
             pubSeq[i] = ps;
 
-            RingQueue<LineTcpMeasurementEvent> q = new RingQueue<>(
-                    (address, addressSize) -> new LineTcpMeasurementEvent(
-                            address,
-                            addressSize,
-                            lineConfiguration.getMicrosecondClock(),
-                            lineConfiguration.getTimestampAdapter(),
-                            defaultColumnTypes,
-                            lineConfiguration.isStringToCharCastAllowed(),
-                            lineConfiguration.getMaxFileNameLength(),
-                            lineConfiguration.getAutoCreateNewColumns()
-                    ),
-                    getEventSlotSize(maxMeasurementSize),
-                    queueSize,
-                    MemoryTag.NATIVE_ILP_RSS
-            );
+            RingQueue<LineTcpMeasurementEvent> q = new RingQueue<>(eventFactory, eventSlotSize, queueSize, MemoryTag.NATIVE_ILP_RSS);
 
             queue[i] = q;
             SCSequence subSeq = new SCSequence();
@@ -137,10 +142,13 @@ public class LineTcpMeasurementScheduler implements Closeable {
 
             assignedTables[i] = new ObjList<>();
 
+            // events of a table moving to this writer thread are parked here until the old thread lets go of it
+            RingQueue<LineTcpMeasurementEvent> parkedQueue = new RingQueue<>(eventFactory, eventSlotSize, Math.max(1, queueSize / 4), MemoryTag.NATIVE_ILP_RSS);
             final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                     i,
                     q,
                     subSeq,
+                    parkedQueue,
                     milliClock,
                     commitInterval, this, engine.getMetrics(), assignedTables[i]
             );
@@ -149,6 +157,9 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
         this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy(), cairoConfiguration.getWalEnabledDefault());
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+        writerRebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+        writerRebalanceLoadRatio = lineConfiguration.getWriterRebalanceLoadRatio();
+        nextRebalanceMillis = milliClock.getTicks() + writerRebalanceInterval;
         ilpWalAppender = new IlpWalAppender(
                 autoCreateNewColumns,
                 configuration.isStringToCharCastAllowed(),
@@ -245,6 +256,95 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    /**
+     * Retries publishing the migrate event when the old writer thread's queue was full
+     * at the time the table move started.
+     *
+     * @return true if a table move is still waiting for its migrate event to be published
+     */
+    public boolean publishPendingMigrateEvent() {
+        if (migratingFromThreadId == -1) {
+            return false;
+        }
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (migratingFromThreadId > -1) {
+                unsafePublishMigrateEvent();
+            }
+            return migratingFromThreadId > -1;
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a table from the busiest writer thread to the least busy one when the ratio
+     * of their loads, measured in bytes per second, exceeds the configured threshold.
+     * Only one table is moved at a time and the move has to complete before the next
+     * one, otherwise writer threads could end up waiting on each other.
+     *
+     * @param millis current time in milliseconds
+     */
+    public void rebalanceWriterLoad(long millis) {
+        if (writerRebalanceInterval < 1 || loadRateByWriterThread.length < 2) {
+            return;
+        }
+        if (publishPendingMigrateEvent() || millis < nextRebalanceMillis) {
+            return;
+        }
+
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (migratingFromThreadId > -1 || millis < nextRebalanceMillis) {
+                return;
+            }
+            nextRebalanceMillis = millis + writerRebalanceInterval;
+            unsafeCalcThreadLoadRate(millis);
+            if (migratingTud != null) {
+                if (migratingTud.isMigrating()) {
+                    return;
+                }
+                migratingTud = null;
+            }
+
+            int busiestThreadId = 0;
+            int idlestThreadId = 0;
+            for (int i = 1, n = loadRateByWriterThread.length; i < n; i++) {
+                if (loadRateByWriterThread[i] > loadRateByWriterThread[busiestThreadId]) {
+                    busiestThreadId = i;
+                }
+                if (loadRateByWriterThread[i] < loadRateByWriterThread[idlestThreadId]) {
+                    idlestThreadId = i;
+                }
+            }
+            final long busiestLoad = loadRateByWriterThread[busiestThreadId];
+            final long idlestLoad = loadRateByWriterThread[idlestThreadId];
+            if (busiestLoad == 0 || busiestLoad <= idlestLoad * writerRebalanceLoadRatio) {
+                return;
+            }
+
+            // the heaviest table that reduces the imbalance, moving a table with higher
+            // load than the difference would just move the hot spot to the other thread
+            final TableUpdateDetails tud = unsafeFindTableToMigrate(busiestThreadId, busiestLoad - idlestLoad);
+            if (tud == null) {
+                return;
+            }
+            LOG.info().$("moving table to another writer thread [tableName=").$(tud.getTableNameUtf16())
+                    .$(", fromThreadId=").$(busiestThreadId)
+                    .$(", toThreadId=").$(idlestThreadId)
+                    .$(", bytesPerSecond=").$(tud.getBytesPerSecond())
+                    .$(", fromThreadLoad=").$(busiestLoad)
+                    .$(", toThreadLoad=").$(idlestLoad)
+                    .I$();
+            tud.startMigration(idlestThreadId);
+            migratingTud = tud;
+            migratingFromThreadId = busiestThreadId;
+            unsafePublishMigrateEvent();
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     public void releaseWalTableDetails(Utf8StringObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8) {
         ObjList<Utf8String> keys = tableUpdateDetailsUtf8.keys();
         for (int n = keys.size() - 1; n > -1; --n) {
@@ -351,15 +451,24 @@ public class LineTcpMeasurementScheduler implements Closeable {
         final int writerThreadId = tud.getWriterThreadId();
         long seq = getNextPublisherEventSequence(writerThreadId);
         if (seq > -1) {
+            final long size;
             try {
                 if (tud.isWriterInError()) {
                     throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
+                if (tud.getWriterThreadId() != writerThreadId) {
+                    // the table has been moved to another writer thread after we read its id,
+                    // the slot we grabbed may be behind the migrate event, so we leave it incomplete
+                    // and publish to the new writer thread instead
+                    queue[writerThreadId].get(seq).createIncompleteEvent();
+                    return true;
+                }
+                size = queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId(), writerThreadId);
             } finally {
                 pubSeq[writerThreadId].done(seq);
             }
             tud.incrementEventsProcessedSinceReshuffle();
+            tud.addBytesProcessedSinceReshuffle(size);
             return false;
         }
         return true;
@@ -512,6 +621,55 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    private void unsafeCalcThreadLoadRate(long millis) {
+        Arrays.fill(loadRateByWriterThread, 0);
+        ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+        for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+            if (tud != null) {
+                tud.updateLoad(millis);
+                final int writerThreadId = tud.getWriterThreadId();
+                if (writerThreadId > -1) {
+                    loadRateByWriterThread[writerThreadId] += tud.getBytesPerSecond();
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private TableUpdateDetails unsafeFindTableToMigrate(int writerThreadId, long maxLoad) {
+        TableUpdateDetails found = null;
+        ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+        for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+            if (
+                    tud != null
+                            && tud.getWriterThreadId() == writerThreadId
+                            && !tud.isWriterInError()
+                            && tud.getBytesPerSecond() > 0
+                            && tud.getBytesPerSecond() < maxLoad
+                            && (found == null || tud.getBytesPerSecond() > found.getBytesPerSecond())
+            ) {
+                found = tud;
+            }
+        }
+        return found;
+    }
+
+    private void unsafePublishMigrateEvent() {
+        // must not wait for the queue to free up, the old writer thread
+        // may be run by this very thread, retry on the next call instead
+        final long seq = getNextPublisherEventSequence(migratingFromThreadId);
+        if (seq > -1) {
+            try {
+                queue[migratingFromThreadId].get(seq).createWriterMigrateEvent(migratingTud);
+            } finally {
+                pubSeq[migratingFromThreadId].done(seq);
+            }
+            migratingFromThreadId = -1;
+        }
+    }
+
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
         return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
     }
@@ -106,7 +106,9 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         boolean busy = false;
         if (busyContext != null) {
             if (handleIO(busyContext, dispatcher)) {
-                // queue is still full
+                // queue is still full, it may be held up by a table move
+                // waiting for its migrate event to be published
+                scheduler.publishPendingMigrateEvent();
                 return true;
             }
             LOG.debug().$("context is no longer waiting on a full queue [fd=").$(busyContext.getFd()).$(']').$();
@@ -122,6 +124,7 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         if (millis > maintenanceJobDeadline) {
             busy = scheduler.doMaintenance(tableUpdateDetailsUtf8, workerId, millis);
             if (!busy) {
+                scheduler.rebalanceWriterLoad(millis);
                 maintenanceJobDeadline = millis + maintenanceInterval;
             }
         }
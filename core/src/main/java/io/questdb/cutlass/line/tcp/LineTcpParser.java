@@ -34,8 +34,9 @@ import io.questdb.std.Unsafe;
 import io.questdb.std.str.DirectUtf8Sequence;
 import io.questdb.std.str.DirectUtf8String;
 
-public class LineTcpParser {
+import static io.questdb.cutlass.line.LineBinaryFormat.*;
 
+public class LineTcpParser {
     public static final byte ENTITY_TYPE_BOOLEAN = 6;
     public static final byte ENTITY_TYPE_BYTE = 17;
     public static final byte ENTITY_TYPE_CACHED_TAG = 8;
@@ -77,6 +78,7 @@ public class LineTcpParser {
     private static final Log LOG = LogFactory.getLog(LineTcpParser.class);
 
     private static final boolean[] controlChars;
+    private final boolean binaryFormatSupported;
     private final DirectUtf8String charSeq = new DirectUtf8String();
     private final ObjList<ProtoEntity> entityCache = new ObjList<>();
     private final DirectUtf8String measurementName = new DirectUtf8String();
@@ -99,7 +101,8 @@ public class LineTcpParser {
     private long timestamp;
     private byte timestampUnit;
 
-    public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported) {
+    public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported, boolean binaryFormatSupported) {
+        this.binaryFormatSupported = binaryFormatSupported;
         this.stringAsTagSupported = stringAsTagSupported;
         this.symbolAsFieldSupported = symbolAsFieldSupported;
     }
@@ -199,6 +202,17 @@ public class LineTcpParser {
             }
 
             // slow path
+            if (b == BINARY_FORMAT_FLAG && binaryFormatSupported && bufAt == entityLo && tagsComplete
+                    && (entityHandler == ENTITY_HANDLER_VALUE || entityHandler == ENTITY_HANDLER_TIMESTAMP)) {
+                // binary value, its payload may contain any byte including control chars
+                if (bufAt + BINARY_VALUE_LENGTH > bufHi) {
+                    return ParseResult.BUFFER_UNDERFLOW;
+                }
+                nextValueCanBeOpenQuote = false;
+                bufAt += BINARY_VALUE_LENGTH;
+                continue;
+            }
+
             hasNonAscii |= b < 0;
             boolean endOfLine = false;
             boolean appendByte = false;
@@ -493,6 +507,11 @@ public class LineTcpParser {
                 if (entityLo < entityHi) {
                     charSeq.of(entityLo, entityHi);
                     final int charSeqLen = charSeq.size();
+                    if (binaryFormatSupported && charSeq.byteAt(0) == BINARY_FORMAT_FLAG) {
+                        parseBinaryTimestamp(charSeqLen);
+                        entityHandler = -1;
+                        return true;
+                    }
                     final byte last = charSeq.byteAt(charSeqLen - 1);
                     switch (last) {
                         case 'n':
@@ -545,6 +564,23 @@ public class LineTcpParser {
         return ParseResult.ERROR;
     }
 
+    private void parseBinaryTimestamp(int len) throws NumericException {
+        if (len != BINARY_VALUE_LENGTH) {
+            throw NumericException.INSTANCE;
+        }
+        switch (charSeq.byteAt(1)) {
+            case BINARY_TYPE_TIMESTAMP_NANOS:
+                timestampUnit = ENTITY_UNIT_NANO;
+                break;
+            case BINARY_TYPE_TIMESTAMP_MICROS:
+                timestampUnit = ENTITY_UNIT_MICRO;
+                break;
+            default:
+                throw NumericException.INSTANCE;
+        }
+        timestamp = Unsafe.getUnsafe().getLong(charSeq.ptr() + 2);
+    }
+
     private ProtoEntity popEntity() {
         ProtoEntity currentEntity;
         if (entityCache.size() <= nEntities) {
@@ -631,6 +667,7 @@ public class LineTcpParser {
     public class ProtoEntity {
         private final DirectUtf8String name = new DirectUtf8String();
         private final DirectUtf8String value = new DirectUtf8String();
+        private boolean binary;
         private boolean booleanValue;
         private double floatValue;
         private long longValue;
@@ -665,12 +702,17 @@ public class LineTcpParser {
             return value;
         }
 
+        public boolean isBinary() {
+            return binary;
+        }
+
         public void shl(long shl) {
             name.shl(shl);
             value.shl(shl);
         }
 
         private void clear() {
+            binary = false;
             type = ENTITY_TYPE_NONE;
             unit = ENTITY_UNIT_NONE;
         }
@@ -760,6 +802,36 @@ public class LineTcpParser {
             }
         }
 
+        private boolean parseBinary(int valueLen) {
+            if (valueLen != BINARY_VALUE_LENGTH) {
+                return false;
+            }
+            final long p = value.ptr() + 2;
+            binary = true;
+            switch (value.byteAt(1)) {
+                case BINARY_TYPE_DOUBLE:
+                    floatValue = Unsafe.getUnsafe().getDouble(p);
+                    type = ENTITY_TYPE_FLOAT;
+                    return true;
+                case BINARY_TYPE_LONG:
+                    longValue = Unsafe.getUnsafe().getLong(p);
+                    type = ENTITY_TYPE_INTEGER;
+                    return true;
+                case BINARY_TYPE_TIMESTAMP_MICROS:
+                    longValue = Unsafe.getUnsafe().getLong(p);
+                    unit = ENTITY_UNIT_MICRO;
+                    type = ENTITY_TYPE_TIMESTAMP;
+                    return true;
+                case BINARY_TYPE_TIMESTAMP_NANOS:
+                    longValue = Unsafe.getUnsafe().getLong(p);
+                    unit = ENTITY_UNIT_NANO;
+                    type = ENTITY_TYPE_TIMESTAMP;
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
         private boolean parseLong(byte entityType) {
             try {
                 charSeq.of(value.lo(), value.hi() - 1);
@@ -788,6 +860,9 @@ public class LineTcpParser {
             value.of(entityLo, bufHi);
             if (tagsComplete) {
                 if (valueLen > 0) {
+                    if (binaryFormatSupported && value.byteAt(0) == BINARY_FORMAT_FLAG) {
+                        return parseBinary(valueLen);
+                    }
                     byte lastByte = value.byteAt(valueLen - 1);
                     return parse(lastByte, valueLen) && (symbolAsFieldSupported || type != ENTITY_TYPE_SYMBOL);
                 }
@@ -93,8 +93,19 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    long getWriterRebalanceInterval();
+
+    double getWriterRebalanceLoadRatio();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
+    /**
+     * When enabled, field values and timestamps may be sent as binary, see {@link LineTcpParser#BINARY_FORMAT_FLAG}.
+     *
+     * @return true if binary value encoding is accepted
+     */
+    boolean isBinaryFormatSupported();
+
     boolean isEnabled();
 
     boolean isStringAsTagSupported();
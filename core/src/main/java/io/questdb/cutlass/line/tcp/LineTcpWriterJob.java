@@ -45,17 +45,23 @@ class LineTcpWriterJob implements Job, Closeable {
     private final long commitInterval;
     private final Metrics metrics;
     private final MillisecondClock millisecondClock;
+    // copies of the events of a table that is moving to this writer thread
+    private final RingQueue<LineTcpMeasurementEvent> parkedQueue;
     private final Path path = new Path();
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final LineTcpMeasurementScheduler scheduler;
     private final Sequence sequence;
     private final int workerId;
     private long nextCommitTime;
+    private long parkedHi;
+    private long parkedLo;
+    private TableUpdateDetails parkedTud;
 
     LineTcpWriterJob(
             int workerId,
             RingQueue<LineTcpMeasurementEvent> queue,
             Sequence sequence,
+            RingQueue<LineTcpMeasurementEvent> parkedQueue,
             MillisecondClock millisecondClock,
             long commitInterval,
             LineTcpMeasurementScheduler scheduler,
@@ -65,6 +71,7 @@ class LineTcpWriterJob implements Job, Closeable {
         this.workerId = workerId;
         this.queue = queue;
         this.sequence = sequence;
+        this.parkedQueue = parkedQueue;
         this.millisecondClock = millisecondClock;
         this.commitInterval = commitInterval;
         this.nextCommitTime = millisecondClock.getTicks();
@@ -82,10 +89,25 @@ class LineTcpWriterJob implements Job, Closeable {
                 break;
             }
         }
-
+        if (parkedHi > parkedLo) {
+            LOG.error().$("discarding events of table moving to writer thread [table=").$(parkedTud.getTableToken())
+                    .$(", events=").$(parkedHi - parkedLo)
+                    .$(", threadId=").$(workerId)
+                    .I$();
+        }
+        // parked events do not own the table details
+        for (int i = 0, n = parkedQueue.getCycle(); i < n; i++) {
+            parkedQueue.get(i).clear();
+        }
+        Misc.free(parkedQueue);
         Misc.free(path);
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     @Override
     public boolean run(int workerId, @NotNull RunStatus runStatus) {
         assert this.workerId == workerId;
@@ -134,6 +156,12 @@ class LineTcpWriterJob implements Job, Closeable {
     private boolean drainQueue() {
         boolean busy = false;
         while (true) {
+            if (parkedHi > parkedLo && !parkedTud.isMigrating()) {
+                // the old writer thread has let go of the table
+                replayParkedEvents();
+                busy = true;
+            }
+
             long cursor;
             while ((cursor = sequence.next()) < 0) {
                 if (cursor == -1) {
@@ -144,57 +172,101 @@ class LineTcpWriterJob implements Job, Closeable {
             busy = true;
             final LineTcpMeasurementEvent event = queue.get(cursor);
 
-            try {
-                // we check the event's writer thread ID to avoid consuming
-                // incomplete events
-
+            // we check the event's writer thread ID to avoid consuming
+            // incomplete events
+            final int writerWorkerId = event.getWriterWorkerId();
+            if (writerWorkerId == workerId || writerWorkerId == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
                 final TableUpdateDetails tud = event.getTableUpdateDetails();
-                boolean closeWriter = false;
-                if (event.getWriterWorkerId() == workerId) {
-                    try {
-                        if (tud.isWriterInError()) {
-                            closeWriter = true;
-                        } else {
-                            if (!tud.isAssignedToJob()) {
-                                assignedTables.add(tud);
-                                tud.setAssignedToJob(true);
-                                nextCommitTime = millisecondClock.getTicks();
-                                LOG.info()
-                                        .$("assigned table to writer thread [tableName=").$(tud.getTableToken())
-                                        .$(", threadId=").$(workerId)
-                                        .I$();
-                            }
-                            event.append();
-                        }
-                    } catch (Throwable ex) {
-                        tud.setWriterInError();
-                        LOG.critical()
-                                .$("closing writer because of error [table=").$(tud.getTableToken())
-                                .$(", ex=").$(ex)
-                                .I$();
-                        metrics.health().incrementUnhandledErrors();
-                        closeWriter = true;
-                        event.createWriterReleaseEvent(tud, false);
-                        // This is a critical error, so we treat it as an unhandled one.
+                if ((tud.isMigrating() && tud.getWriterThreadId() == workerId) || (parkedHi > parkedLo && tud == parkedTud)) {
+                    // the table is being moved to this thread, its events wait until the old
+                    // writer thread processes the migrate event, other tables' events go on
+                    if (parkedHi - parkedLo == parkedQueue.getCycle() || (parkedHi > parkedLo && tud != parkedTud)) {
+                        // nowhere to park the event, or events of the previously moved table
+                        // are still parked, the event stays in the queue
+                        return true;
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    parkedQueue.get(parkedHi++).copyFrom(event);
+                    parkedTud = tud;
+                    sequence.done(cursor);
+                    continue;
+                }
+            }
+
+            processEvent(event);
+            sequence.done(cursor);
+        }
+    }
+
+    private void processEvent(LineTcpMeasurementEvent event) {
+        try {
+            final TableUpdateDetails tud = event.getTableUpdateDetails();
+            final int writerWorkerId = event.getWriterWorkerId();
+            boolean closeWriter = false;
+            if (writerWorkerId == workerId) {
+                try {
+                    if (tud.isWriterInError()) {
                         closeWriter = true;
+                    } else {
+                        if (!tud.isAssignedToJob()) {
+                            assignedTables.add(tud);
+                            tud.setAssignedToJob(true);
+                            nextCommitTime = millisecondClock.getTicks();
+                            LOG.info()
+                                    .$("assigned table to writer thread [tableName=").$(tud.getTableToken())
+                                    .$(", threadId=").$(workerId)
+                                    .I$();
+                        }
+                        event.append();
                     }
+                } catch (Throwable ex) {
+                    tud.setWriterInError();
+                    LOG.critical()
+                            .$("closing writer because of error [table=").$(tud.getTableToken())
+                            .$(", ex=").$(ex)
+                            .I$();
+                    metrics.health().incrementUnhandledErrors();
+                    closeWriter = true;
+                    event.createWriterReleaseEvent(tud, false);
+                    // This is a critical error, so we treat it as an unhandled one.
                 }
-
-                if (closeWriter && tud.getWriter() != null) {
-                    scheduler.processWriterReleaseEvent(event, workerId);
+            } else if (writerWorkerId == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                closeWriter = true;
+            } else if (writerWorkerId == LineTcpMeasurementEventType.ALL_WRITERS_MIGRATE_WRITER) {
+                // all events published before the move are processed, hand the table over
+                if (tud.isAssignedToJob()) {
                     assignedTables.remove(tud);
                     tud.setAssignedToJob(false);
-                    nextCommitTime = millisecondClock.getTicks();
                 }
-            } catch (Throwable ex) {
-                LOG.error().$("failed to process ILP event because of exception [ex=").$(ex).I$();
+                tud.finishMigration();
+                LOG.info()
+                        .$("moved table away from writer thread [tableName=").$(tud.getTableToken())
+                        .$(", threadId=").$(workerId)
+                        .I$();
             }
 
-            sequence.done(cursor);
+            if (closeWriter && tud.getWriter() != null) {
+                scheduler.processWriterReleaseEvent(event, workerId);
+                assignedTables.remove(tud);
+                tud.setAssignedToJob(false);
+                nextCommitTime = millisecondClock.getTicks();
+            }
+        } catch (Throwable ex) {
+            LOG.error().$("failed to process ILP event because of exception [ex=").$(ex).I$();
+        }
+    }
+
+    private void replayParkedEvents() {
+        LOG.info()
+                .$("processing parked events of table moved to writer thread [tableName=").$(parkedTud.getTableToken())
+                .$(", events=").$(parkedHi - parkedLo)
+                .$(", threadId=").$(workerId)
+                .I$();
+        while (parkedLo < parkedHi) {
+            final LineTcpMeasurementEvent event = parkedQueue.get(parkedLo++);
+            processEvent(event);
+            event.clear();
         }
+        parkedTud = null;
     }
 
     private void tickWriters() {
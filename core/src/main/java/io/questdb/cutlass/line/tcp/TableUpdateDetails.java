@@ -32,6 +32,7 @@ import io.questdb.cairo.wal.MetadataService;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.*;
 import org.jetbrains.annotations.NotNull;
@@ -51,6 +52,7 @@ public class TableUpdateDetails implements Closeable {
     private final long defaultMaxUncommittedRows;
     private final CairoEngine engine;
     private final ThreadLocalDetails[] localDetailsArray;
+    private final MicrosecondClock microsecondClock;
     private final MillisecondClock millisecondClock;
     // Set only for WAL tables, i.e. when writerThreadId == -1.
     private final SecurityContext ownSecurityContext;
@@ -60,16 +62,27 @@ public class TableUpdateDetails implements Closeable {
     private final long writerTickRowsCountMod;
     protected TableWriterAPI writerAPI;
     private boolean assignedToJob = false;
+    // Load rates are recalculated by the scheduler on every writer load check
+    private long bytesPerSecond;
+    // Number of event bytes processed since the last reshuffle, an estimate for the same reason as the row count
+    private long bytesProcessedSinceReshuffle = 0;
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private long eventsProcessedSinceReshuffle = 0;
     private boolean isDropped;
     private long lastMeasurementMillis = Long.MAX_VALUE;
+    private long loadCheckBytes;
+    private long loadCheckEvents;
+    private long loadCheckMillis = Long.MIN_VALUE;
     private MetadataService metadataService;
+    // Set while the table is being moved to another writer thread, the new writer thread
+    // must not touch the table until the old one processes all events published before the move
+    private volatile boolean migrating;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    private long rowsPerSecond;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     public TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -86,6 +99,7 @@ public class TableUpdateDetails implements Closeable {
         this.ownSecurityContext = ownSecurityContext;
         this.defaultColumnTypes = defaultColumnTypes;
         final CairoConfiguration cairoConfiguration = engine.getConfiguration();
+        this.microsecondClock = cairoConfiguration.getMicrosecondClock();
         this.millisecondClock = cairoConfiguration.getMillisecondClock();
         this.writerTickRowsCountMod = cairoConfiguration.getWriterTickRowsCountMod();
         this.defaultMaxUncommittedRows = cairoConfiguration.getMaxUncommittedRows();
@@ -127,6 +141,7 @@ public class TableUpdateDetails implements Closeable {
         this.defaultColumnTypes = defaultColumnTypes;
         this.commitOnClose = commitOnClose;
         final CairoConfiguration cairoConfiguration = engine.getConfiguration();
+        this.microsecondClock = cairoConfiguration.getMicrosecondClock();
         this.millisecondClock = cairoConfiguration.getMillisecondClock();
         this.writerTickRowsCountMod = cairoConfiguration.getWriterTickRowsCountMod();
         this.defaultMaxUncommittedRows = maxUncommittedRows;
@@ -200,11 +215,13 @@ public class TableUpdateDetails implements Closeable {
         if (writerAPI.getUncommittedRowCount() > 0) {
             try {
                 authorizeCommit();
+                final long micros = microsecondClock.getTicks();
                 if (withLag) {
                     writerAPI.ic();
                 } else {
                     writerAPI.commit();
                 }
+                engine.getMetrics().line().commitLatencyHistogram().record(microsecondClock.getTicks() - micros);
             } catch (CairoException ex) {
                 if (!ex.isTableDropped()) {
                     handleCommitException(ex);
@@ -220,6 +237,18 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    public void addBytesProcessedSinceReshuffle(long bytes) {
+        bytesProcessedSinceReshuffle += bytes;
+    }
+
+    public void finishMigration() {
+        migrating = false;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
     public long getEventsProcessedSinceReshuffle() {
         return eventsProcessedSinceReshuffle;
     }
@@ -236,6 +265,10 @@ public class TableUpdateDetails implements Closeable {
         return networkIOOwnerCount;
     }
 
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
     public String getTableNameUtf16() {
         return tableToken.getTableName();
     }
@@ -264,6 +297,10 @@ public class TableUpdateDetails implements Closeable {
         return this.isDropped;
     }
 
+    public boolean isMigrating() {
+        return migrating;
+    }
+
     public boolean isWal() {
         return writerThreadId == -1;
     }
@@ -300,12 +337,36 @@ public class TableUpdateDetails implements Closeable {
         writerInError = true;
     }
 
+    /**
+     * Moves the table to another writer thread. Network IO threads publish new events
+     * to the new writer thread as soon as this method returns, so it must be called
+     * before the migrate event is published to the queue of the old writer thread.
+     *
+     * @param writerThreadId id of the writer thread the table is moved to
+     */
+    public void startMigration(int writerThreadId) {
+        migrating = true;
+        this.writerThreadId = writerThreadId;
+    }
+
     public void tick() {
         if (metadataService != null) {
             metadataService.tick();
         }
     }
 
+    public void updateLoad(long millis) {
+        if (loadCheckMillis != Long.MIN_VALUE && millis > loadCheckMillis) {
+            final long elapsedMillis = millis - loadCheckMillis;
+            // rates are averaged with the previous check to smooth out short bursts
+            rowsPerSecond = (rowsPerSecond + (eventsProcessedSinceReshuffle - loadCheckEvents) * 1000 / elapsedMillis) / 2;
+            bytesPerSecond = (bytesPerSecond + (bytesProcessedSinceReshuffle - loadCheckBytes) * 1000 / elapsedMillis) / 2;
+        }
+        loadCheckMillis = millis;
+        loadCheckEvents = eventsProcessedSinceReshuffle;
+        loadCheckBytes = bytesProcessedSinceReshuffle;
+    }
+
     private void authorizeCommit() {
         if (ownSecurityContext != null) {
             ownSecurityContext.authorizeInsert(tableToken);
@@ -615,6 +615,11 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
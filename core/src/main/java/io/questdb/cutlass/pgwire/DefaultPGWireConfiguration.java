@@ -75,6 +75,11 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return 4;
     }
 
+    @Override
+    public int getCopyInCommitBatchSize() {
+        return 0;
+    }
+
     @Override
     public DateLocale getDefaultDateLocale() {
         return DateFormatUtils.EN_LOCALE;
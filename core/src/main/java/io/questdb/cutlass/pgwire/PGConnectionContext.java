@@ -36,7 +36,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.auth.Authenticator;
 import io.questdb.cutlass.auth.AuthenticatorException;
-import io.questdb.cutlass.text.TextLoader;
+import io.questdb.cutlass.text.CopyInLoader;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
 import io.questdb.griffin.engine.ops.UpdateOperation;
@@ -68,6 +68,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     public static final String TAG_ALTER_ROLE = "ALTER ROLE";
     public static final String TAG_BEGIN = "BEGIN";
     public static final String TAG_COMMIT = "COMMIT";
+    public static final String TAG_COPY = "COPY";
     public static final String TAG_CREATE_ROLE = "CREATE ROLE";
     // create as select tag
     public static final String TAG_CTAS = "CTAS";
@@ -120,6 +121,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private final IntList bindVariableTypes = new IntList();
     private final CharacterStore characterStore;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final int copyInCommitBatchSize;
     private final boolean dumpNetworkTraffic;
     private final CairoEngine engine;
     private final int forceRecvFragmentationChunkSize;
@@ -130,12 +132,17 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private final WeakMutableObjectPool<Portal> namedPortalPool;
     private final CharSequenceObjHashMap<NamedStatementWrapper> namedStatementMap;
     private final WeakMutableObjectPool<NamedStatementWrapper> namedStatementWrapperPool;
+    private final NanosecondClock nanosecondClock;
     private final Path path = new Path();
     private final ObjObjHashMap<TableToken, TableWriterAPI> pendingWriters;
     private final QueryLogger queryLogger;
     private final int recvBufferSize;
     private final ResponseUtf8Sink responseUtf8Sink = new ResponseUtf8Sink();
     private final SecurityContextFactory securityContextFactory;
+    // column type tags with binary format flag, resolved once per result set rather than per value
+    private final IntList rowColumnTags = new IntList();
+    private final StringSink selectCacheKeySink = new StringSink();
+    private final ConcurrentAssociativeCache.Validator<TypesAndSelect> selectCacheValidator;
     private final IntList selectColumnTypes = new IntList();
     private final int sendBufferSize;
     private final IntList syncActions = new IntList(4);
@@ -143,8 +150,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     // insert 'statements' are cached only for the duration of user session
     private final AssociativeCache<TypesAndInsert> typesAndInsertCache;
     private final WeakSelfReturningObjectPool<TypesAndInsert> typesAndInsertPool;
-    private final AssociativeCache<TypesAndSelect> typesAndSelectCache;
-    private final WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
+    private final ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
+    private final boolean typesAndSelectCacheOwned;
     private final AssociativeCache<TypesAndUpdate> typesAndUpdateCache;
     private final WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool;
     private final DirectUtf16Sink utf8Sink;
@@ -156,7 +163,12 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private BindVariableService bindVariableService;
     private int bufferRemainingOffset = 0;
     private int bufferRemainingSize = 0;
+    // engine DDL version observed before the current query was compiled
+    private long compileDdlVersion;
+    private long compileStartNanos;
     private boolean completed = true;
+    // created on first COPY FROM STDIN, open while the client streams CopyData messages
+    private CopyInLoader copyInLoader;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
     private boolean errorSkipToSync;
@@ -185,6 +197,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private final PGResumeProcessor resumeExecuteCompleteRef = this::resumeCommandComplete;
     private boolean sendParameterDescription;
     private boolean sendRNQ = true; /* send ReadyForQuery message */
+    // time spent encoding rows of the current cursor, excludes fetching rows and flushing the send buffer
+    private long serializeNanos;
     private SqlExecutionContextImpl sqlExecutionContext;
     private long statementTimeout = -1L;
     private SuspendEvent suspendEvent;
@@ -213,6 +227,20 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             PGWireConfiguration configuration,
             SqlExecutionContextImpl sqlExecutionContext,
             NetworkSqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        this(engine, configuration, sqlExecutionContext, circuitBreaker, null);
+    }
+
+    /**
+     * @param typesAndSelectCache server-wide cache of compiled SELECT factories shared by connections,
+     *                            when null the context creates and owns a cache of its own
+     */
+    public PGConnectionContext(
+            CairoEngine engine,
+            PGWireConfiguration configuration,
+            SqlExecutionContextImpl sqlExecutionContext,
+            NetworkSqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache
     ) {
         super(
                 configuration.getFactoryProvider().getPGWireSocketFactory(),
@@ -233,6 +261,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 configuration.getCharacterStorePoolCapacity()
         );
         this.maxBlobSizeOnQuery = configuration.getMaxBlobSizeOnQuery();
+        this.copyInCommitBatchSize = configuration.getCopyInCommitBatchSize();
         this.dumpNetworkTraffic = configuration.getDumpNetworkTraffic();
         this.circuitBreaker = circuitBreaker;
         this.sqlExecutionContext = sqlExecutionContext;
@@ -245,17 +274,15 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         this.binarySequenceParamsPool = new ObjectPool<>(DirectBinarySequence::new, configuration.getBinParamCountCapacity());
 
         this.metrics = engine.getMetrics();
-        final boolean enableSelectCache = configuration.isSelectCacheEnabled();
-        final int selectBlockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
-        final int selectRowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
-        this.typesAndSelectCache = new AssociativeCache<>(
-                selectBlockCount,
-                selectRowCount,
-                metrics.pgWire().cachedSelectsGauge(),
-                metrics.pgWire().selectCacheHitCounter(),
-                metrics.pgWire().selectCacheMissCounter()
-        );
-        this.typesAndSelectPool = new WeakSelfReturningObjectPool<>(TypesAndSelect::new, selectBlockCount * selectRowCount);
+        this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
+        if (typesAndSelectCache != null) {
+            this.typesAndSelectCache = typesAndSelectCache;
+            this.typesAndSelectCacheOwned = false;
+        } else {
+            this.typesAndSelectCache = newTypesAndSelectCache(configuration, metrics);
+            this.typesAndSelectCacheOwned = true;
+        }
+        this.selectCacheValidator = (cached, ddlVersion) -> !engine.isTableMetadataChanged(cached.getTableTokens(), ddlVersion);
 
         final boolean enabledUpdateCache = configuration.isUpdateCacheEnabled();
         final int updateBlockCount = enabledUpdateCache ? configuration.getUpdateCacheBlockCount() : 1;
@@ -324,6 +351,19 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         return -1;
     }
 
+    public static ConcurrentAssociativeCache<TypesAndSelect> newTypesAndSelectCache(PGWireConfiguration configuration, Metrics metrics) {
+        final boolean enableSelectCache = configuration.isSelectCacheEnabled();
+        final int selectBlockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
+        final int selectRowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
+        return new ConcurrentAssociativeCache<>(
+                selectBlockCount,
+                selectRowCount,
+                metrics.pgWire().cachedSelectsGauge(),
+                metrics.pgWire().selectCacheHitCounter(),
+                metrics.pgWire().selectCacheMissCounter()
+        );
+    }
+
     public static void putInt(long address, int value) {
         Unsafe.getUnsafe().putInt(address, Numbers.bswap(value));
     }
@@ -345,6 +385,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         prepareForNewQuery();
         clearRecvBuffer();
         clearWriters();
+        if (copyInLoader != null) {
+            copyInLoader.clear();
+        }
         evictNamedStatementWrappersAndClear();
         clearCursorAndFactory();
 
@@ -424,9 +467,12 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         Misc.free(path);
         Misc.free(utf8Sink);
         Misc.free(authenticator);
-        Misc.free(typesAndSelectCache);
+        if (typesAndSelectCacheOwned) {
+            Misc.free(typesAndSelectCache);
+        }
         Misc.free(typesAndUpdateCache);
         Misc.free(typesAndInsertCache);
+        copyInLoader = Misc.free(copyInLoader);
     }
 
     @Override
@@ -897,12 +943,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         final long offset = responseUtf8Sink.skip();
         responseUtf8Sink.putNetworkShort((short) columnCount);
         for (int i = 0; i < columnCount; i++) {
-            final int type = activeSelectColumnTypes.getQuick(2 * i);
-            final short columnBinaryFlag = getColumnBinaryFlag(type);
-            final int typeTag = ColumnType.tagOf(type);
-
-            final int tagWithFlag = toColumnBinaryType(columnBinaryFlag, typeTag);
-            switch (tagWithFlag) {
+            switch (rowColumnTags.getQuick(i)) {
                 case BINARY_TYPE_INT:
                     appendIntColumnBin(record, i);
                     break;
@@ -1238,7 +1279,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         // leak memory
         if (typesAndSelect != null) {
             if (typesAndSelectIsCached) {
-                typesAndSelectCache.put(queryText, typesAndSelect);
+                typesAndSelectCache.put(selectCacheKey(queryText), typesAndSelect, typesAndSelect.getDdlVersion());
                 // clear selectAndTypes so that context doesn't accidentally
                 // free the factory when context finishes abnormally
                 this.typesAndSelect = null;
@@ -1314,7 +1355,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 return false;
             }
 
-            typesAndSelect = typesAndSelectCache.poll(queryText);
+            typesAndSelect = typesAndSelectCache.poll(selectCacheKey(queryText), selectCacheValidator);
 
             if (typesAndSelect != null) {
                 queryLogger.logExecQuery(LOG, doLog, getFd(), queryText, sqlExecutionContext.getSecurityContext());
@@ -1327,8 +1368,11 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             }
 
             // not cached - compile to see what it is
+            compileDdlVersion = engine.getDdlVersion();
             try (SqlCompiler compiler = engine.getSqlCompiler()) {
+                final long nanos = nanosecondClock.getTicks();
                 final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
+                metrics.pgWire().recordCompileNanos(nanosecondClock.getTicks() - nanos);
                 processCompiledQuery(cc);
             }
         } else {
@@ -1918,6 +1962,20 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 processQuery(msgLo, msgLimit);
                 break;
             case 'd': // COPY data
+                // data received after failed copy is dropped
+                if (copyInLoader != null && copyInLoader.isOpen()) {
+                    processCopyData(msgLo, msgLimit);
+                }
+                break;
+            case 'c': // COPY done
+                if (copyInLoader != null && copyInLoader.isOpen()) {
+                    processCopyDone();
+                }
+                break;
+            case 'f': // COPY fail
+                if (copyInLoader != null && copyInLoader.isOpen()) {
+                    processCopyFail(msgLo, msgLimit);
+                }
                 break;
             default:
                 LOG.error().$("unknown message [type=").$(type).I$();
@@ -1946,6 +2004,17 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         responseUtf8Sink.putIntDirect(INT_BYTES_X);
     }
 
+    private void prepareCopyInResponse(int columnCount) {
+        responseUtf8Sink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
+        final long addr = responseUtf8Sink.skip();
+        responseUtf8Sink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
+        responseUtf8Sink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseUtf8Sink.putNetworkShort((short) 0);
+        }
+        responseUtf8Sink.putLen(addr);
+    }
+
     private void prepareDescribePortalResponse() {
         if (typesAndSelect != null) {
             try {
@@ -2093,6 +2162,14 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         sink.putLen(addr);
     }
 
+    private void prepareRowEncoder(int columnCount) {
+        rowColumnTags.setPos(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int type = activeSelectColumnTypes.getQuick(2 * i);
+            rowColumnTags.setQuick(i, toColumnBinaryType(getColumnBinaryFlag(type), ColumnType.tagOf(type)));
+        }
+    }
+
     private void processBind(long lo, long msgLimit) throws BadProtocolException, SqlException {
         sqlExecutionContext.getCircuitBreaker().resetTimer();
 
@@ -2262,12 +2339,12 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             case CompiledQuery.EXPLAIN:
                 // explain results should not be cached
                 typesAndSelectIsCached = false;
-                typesAndSelect = typesAndSelectPool.pop();
-                typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService);
+                typesAndSelect = new TypesAndSelect();
+                typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService, compileDdlVersion, cq.getTableTokens());
                 queryTag = TAG_EXPLAIN;
             case CompiledQuery.SELECT:
-                typesAndSelect = typesAndSelectPool.pop();
-                typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService);
+                typesAndSelect = new TypesAndSelect();
+                typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService, compileDdlVersion, cq.getTableTokens());
                 queryTag = TAG_SELECT;
                 LOG.debug().$("cache select [sql=").$(queryText).$(", thread=").$(Thread.currentThread().getId()).I$();
                 break;
@@ -2291,13 +2368,16 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 queryTag = TAG_INSERT;
                 rowCount = cq.getAffectedRowsCount();
                 break;
+            case CompiledQuery.COPY_REMOTE:
+                queryTag = TAG_COPY;
+                break;
             case CompiledQuery.PSEUDO_SELECT:
                 final RecordCursorFactory factory = cq.getRecordCursorFactory();
                 if (factory != null) {
                     // this query is non-cacheable
                     typesAndSelectIsCached = false;
-                    typesAndSelect = typesAndSelectPool.pop();
-                    typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService);
+                    typesAndSelect = new TypesAndSelect();
+                    typesAndSelect.of(cq.getRecordCursorFactory(), bindVariableService, compileDdlVersion, cq.getTableTokens());
                 }
                 queryTag = TAG_PSEUDO_SELECT;
                 break;
@@ -2343,6 +2423,38 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void processCopyData(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        try {
+            copyInLoader.parse(lo, msgLimit);
+        } catch (CairoException e) {
+            sendCopyInError(e.getFlyweightMessage());
+        }
+    }
+
+    private void processCopyDone() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        try {
+            rowCount = copyInLoader.finish();
+            queryTag = TAG_COPY;
+            prepareCommandComplete(true);
+        } catch (CairoException e) {
+            prepareNonCriticalError(-1, e.getFlyweightMessage());
+        } finally {
+            copyInLoader.clear();
+        }
+        sendRNQ = true;
+        sendReadyForNewQuery();
+    }
+
+    private void processCopyFail(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        // message is the error reported by the client, it is zero terminated
+        utf8Sink.clear();
+        utf8Sink.put("COPY from stdin failed: ");
+        if (msgLimit - 1 > lo) {
+            Utf8s.utf8ToUtf16(lo, msgLimit - 1, utf8Sink);
+        }
+        sendCopyInError(utf8Sink);
+    }
+
     private void processDescribe(long lo, long msgLimit)
             throws SqlException, BadProtocolException {
         sqlExecutionContext.getCircuitBreaker().resetTimer();
@@ -2611,6 +2723,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (!queryWasPaused) {
             // We resume after no space left in buffer,
             // so we have to write the last record to the buffer once again.
+            prepareRowEncoder(columnCount);
             appendSingleRecord(record, columnCount);
         }
         responseUtf8Sink.bookmark();
@@ -2623,6 +2736,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (!queryWasPaused) {
             // We resume after no space left in buffer,
             // so we have to write the last record to the buffer once again.
+            prepareRowEncoder(columnCount);
             appendSingleRecord(record, columnCount);
         }
         responseUtf8Sink.bookmark();
@@ -2635,6 +2749,18 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         sendReadyForNewQuery();
     }
 
+    // Shared select cache is keyed by principal and query text, so that a factory compiled
+    // and authorized for one user is never reused by another.
+    private CharSequence selectCacheKey(CharSequence queryText) {
+        selectCacheKeySink.clear();
+        final CharSequence principal = sqlExecutionContext.getSecurityContext().getPrincipal();
+        if (principal != null) {
+            selectCacheKeySink.put(principal);
+        }
+        selectCacheKeySink.put('\0').put(queryText);
+        return selectCacheKeySink;
+    }
+
     private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
         doSend(bufferRemainingOffset, (int) (sendBufferPtr - sendBuffer - bufferRemainingOffset));
         responseUtf8Sink.reset();
@@ -2657,35 +2783,12 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         replyAndContinue = false;
     }
 
-    // This method is currently unused. it's used for the COPY sub-protocol, which is currently not implemented.
-    // It's left here so when we add the sub-protocol later we won't need to reimplemented it.
-    // We could keep it just in git history, but chances are nobody would recall to search for it there
-    private void sendCopyInResponse(CairoEngine engine, TextLoader textLoader) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        TableToken tableToken = engine.getTableTokenIfExists(textLoader.getTableName());
-        if (
-                TableUtils.TABLE_EXISTS == engine.getTableStatus(
-                        path,
-                        tableToken
-                )
-        ) {
-            responseUtf8Sink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
-            long addr = responseUtf8Sink.skip();
-            responseUtf8Sink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
-
-            try (TableWriter writer = engine.getWriter(tableToken, WRITER_LOCK_REASON)) {
-                RecordMetadata metadata = writer.getMetadata();
-                responseUtf8Sink.putNetworkShort((short) metadata.getColumnCount());
-                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
-                    responseUtf8Sink.putNetworkShort((short) PGOids.getTypeOid(metadata.getColumnType(i)));
-                }
-            }
-            responseUtf8Sink.putLen(addr);
-        } else {
-            final SqlException e = SqlException.tableDoesNotExist(0, textLoader.getTableName());
-            prepareNonCriticalError(e.getPosition(), e.getFlyweightMessage());
-            prepareReadyForQuery();
-        }
-        sendAndReset();
+    private void sendCopyInError(CharSequence message) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        prepareNonCriticalError(-1, message);
+        // discards rows written since the last batch commit
+        copyInLoader.clear();
+        sendRNQ = true;
+        sendReadyForNewQuery();
     }
 
     private void sendCursor(
@@ -2700,6 +2803,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         // slow anyway.
 
         rowCount = 0;
+        serializeNanos = 0;
         // this might fail due to missing data
         resumeProcessor = computeCursorSizeResumeProcessor;
         computeCursorSize();
@@ -2713,19 +2817,24 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         if (!circuitBreaker.isTimerSet()) {
             circuitBreaker.resetTimer();
         }
+        prepareRowEncoder(columnCount);
 
         try {
             while (currentCursor.hasNext()) {
                 try {
+                    long encodeStartNanos = nanosecondClock.getTicks();
                     try {
                         appendRecord(record, columnCount);
                         responseUtf8Sink.bookmark();
                     } catch (NoSpaceLeftInResponseBufferException e) {
                         responseUtf8Sink.resetToBookmark();
+                        serializeNanos += nanosecondClock.getTicks() - encodeStartNanos;
                         sendAndReset();
+                        encodeStartNanos = nanosecondClock.getTicks();
                         appendSingleRecord(record, columnCount);
                         responseUtf8Sink.bookmark();
                     }
+                    serializeNanos += nanosecondClock.getTicks() - encodeStartNanos;
                     if (rowCount >= maxSendRows) {
                         break;
                     }
@@ -2743,6 +2852,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
         completed = maxSendRows <= 0 || rowCount < maxSendRows;
         if (completed) {
+            metrics.pgWire().recordSerializeNanos(serializeNanos);
             clearCursorAndFactory();
             // at this point buffer can contain unsent data,
             // and it may not have enough space for the command
@@ -2790,7 +2900,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             for (int retries = 0; recompileStale; retries++) {
                 currentFactory = typesAndSelect.getFactory();
                 try {
+                    final long nanos = nanosecondClock.getTicks();
                     currentCursor = currentFactory.getCursor(sqlExecutionContext);
+                    metrics.pgWire().recordExecuteNanos(nanosecondClock.getTicks() - nanos);
                     recompileStale = false;
                     // cache random if it was replaced
                     rnd = sqlExecutionContext.getRandom();
@@ -2840,6 +2952,16 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         recvBufferReadOffset = 0;
     }
 
+    private void startCopyIn(CompiledQuery cq) {
+        if (copyInLoader == null) {
+            copyInLoader = new CopyInLoader(engine, copyInCommitBatchSize);
+        }
+        copyInLoader.of(cq.getTableToken(), cq.getCopyFormat(), cq.getCopyDelimiter(), cq.isCopyHeader());
+        prepareCopyInResponse(copyInLoader.getColumnCount());
+        // ReadyForQuery is sent once client is done sending data
+        sendRNQ = false;
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -2982,6 +3104,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         @Override
         public void postCompile(SqlCompiler compiler, CompiledQuery cq, CharSequence text) throws Exception {
             try {
+                metrics.pgWire().recordCompileNanos(nanosecondClock.getTicks() - compileStartNanos);
                 PGConnectionContext.this.queryText = text;
                 processCompiledQuery(cq);
 
@@ -3001,6 +3124,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 } else if (cq.getType() == CompiledQuery.INSERT_AS_SELECT ||
                         cq.getType() == CompiledQuery.CREATE_TABLE_AS_SELECT) {
                     prepareCommandComplete(true);
+                } else if (cq.getType() == CompiledQuery.COPY_REMOTE) {
+                    startCopyIn(cq);
                 } else {
                     executeTag();
                     prepareCommandComplete(false);
@@ -3024,6 +3149,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             PGConnectionContext.this.typesAndUpdate = null;
             PGConnectionContext.this.typesAndSelect = null;
             circuitBreaker.resetTimer();
+            compileDdlVersion = engine.getDdlVersion();
+            compileStartNanos = nanosecondClock.getTicks();
         }
     }
 
@@ -44,6 +44,14 @@ public interface PGWireConfiguration extends WorkerPoolConfiguration {
 
     int getConnectionPoolInitialCapacity();
 
+    /**
+     * Number of rows COPY FROM STDIN writes between commits. When zero or negative,
+     * the whole copy is committed once all data is received.
+     *
+     * @return COPY FROM STDIN commit batch size
+     */
+    int getCopyInCommitBatchSize();
+
     DateLocale getDefaultDateLocale();
 
     String getDefaultPassword();
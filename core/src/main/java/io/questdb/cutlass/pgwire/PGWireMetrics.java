@@ -26,16 +26,20 @@ package io.questdb.cutlass.pgwire;
 
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongHistogram;
 import io.questdb.metrics.MetricsRegistry;
 
 public class PGWireMetrics {
 
     private final LongGauge cachedSelectsGauge;
     private final LongGauge cachedUpdatesGauge;
+    private final LongHistogram compileLatencyHistogram;
     private final LongGauge connectionCountGauge;
     private final Counter errorCounter;
+    private final LongHistogram executeLatencyHistogram;
     private final Counter selectCacheHitCounter;
     private final Counter selectCacheMissCounter;
+    private final LongHistogram serializeLatencyHistogram;
 
     public PGWireMetrics(MetricsRegistry metricsRegistry) {
         this.connectionCountGauge = metricsRegistry.newLongGauge("pg_wire_connections");
@@ -44,6 +48,9 @@ public class PGWireMetrics {
         this.selectCacheHitCounter = metricsRegistry.newCounter("pg_wire_select_cache_hits");
         this.selectCacheMissCounter = metricsRegistry.newCounter("pg_wire_select_cache_misses");
         this.errorCounter = metricsRegistry.newCounter("pg_wire_errors");
+        this.compileLatencyHistogram = metricsRegistry.newLongHistogram("pg_wire_compile_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
+        this.executeLatencyHistogram = metricsRegistry.newLongHistogram("pg_wire_execute_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
+        this.serializeLatencyHistogram = metricsRegistry.newLongHistogram("pg_wire_serialize_latency_micros", LongHistogram.LATENCY_MICROS_BUCKETS);
     }
 
     public LongGauge cachedSelectsGauge() {
@@ -54,14 +61,34 @@ public class PGWireMetrics {
         return cachedUpdatesGauge;
     }
 
+    public LongHistogram compileLatencyHistogram() {
+        return compileLatencyHistogram;
+    }
+
     public LongGauge connectionCountGauge() {
         return connectionCountGauge;
     }
 
+    public LongHistogram executeLatencyHistogram() {
+        return executeLatencyHistogram;
+    }
+
     public Counter getErrorCounter() {
         return errorCounter;
     }
 
+    public void recordCompileNanos(long nanos) {
+        compileLatencyHistogram.record(nanos / 1000);
+    }
+
+    public void recordExecuteNanos(long nanos) {
+        executeLatencyHistogram.record(nanos / 1000);
+    }
+
+    public void recordSerializeNanos(long nanos) {
+        serializeLatencyHistogram.record(nanos / 1000);
+    }
+
     public Counter selectCacheHitCounter() {
         return selectCacheHitCounter;
     }
@@ -69,4 +96,8 @@ public class PGWireMetrics {
     public Counter selectCacheMissCounter() {
         return selectCacheMissCounter;
     }
+
+    public LongHistogram serializeLatencyHistogram() {
+        return serializeLatencyHistogram;
+    }
 }
@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjectFactory;
@@ -49,6 +50,7 @@ public class PGWireServer implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(PGWireServer.class);
 
+    private final PGConnectionContextFactory contextFactory;
     private final IODispatcher<PGConnectionContext> dispatcher;
     private final Metrics metrics;
     private final CircuitBreakerRegistry registry;
@@ -61,6 +63,7 @@ public class PGWireServer implements Closeable {
             PGConnectionContextFactory contextFactory,
             CircuitBreakerRegistry registry
     ) {
+        this.contextFactory = contextFactory;
         this.dispatcher = IODispatchers.create(configuration.getDispatcherConfiguration(), contextFactory);
         this.metrics = engine.getMetrics();
         this.workerPool = workerPool;
@@ -119,6 +122,7 @@ public class PGWireServer implements Closeable {
     @Override
     public void close() {
         Misc.free(dispatcher);
+        Misc.free(contextFactory);
         Misc.free(registry);
     }
 
@@ -132,12 +136,29 @@ public class PGWireServer implements Closeable {
     }
 
     public static class PGConnectionContextFactory extends IOContextFactoryImpl<PGConnectionContext> {
+        private final ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
 
         public PGConnectionContextFactory(
                 CairoEngine engine,
                 PGWireConfiguration configuration,
                 CircuitBreakerRegistry registry,
                 ObjectFactory<SqlExecutionContextImpl> executionContextObjectFactory
+        ) {
+            this(
+                    engine,
+                    configuration,
+                    registry,
+                    executionContextObjectFactory,
+                    PGConnectionContext.newTypesAndSelectCache(configuration, engine.getMetrics())
+            );
+        }
+
+        private PGConnectionContextFactory(
+                CairoEngine engine,
+                PGWireConfiguration configuration,
+                CircuitBreakerRegistry registry,
+                ObjectFactory<SqlExecutionContextImpl> executionContextObjectFactory,
+                ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache
         ) {
             super(
                     () -> {
@@ -149,7 +170,8 @@ public class PGWireServer implements Closeable {
                                 engine,
                                 configuration,
                                 executionContextObjectFactory.newInstance(),
-                                circuitBreaker
+                                circuitBreaker,
+                                typesAndSelectCache
                         );
                         FactoryProvider factoryProvider = configuration.getFactoryProvider();
                         Authenticator authenticator = factoryProvider.getPgWireAuthenticatorFactory().getPgWireAuthenticator(
@@ -163,6 +185,14 @@ public class PGWireServer implements Closeable {
                     },
                     configuration.getConnectionPoolInitialCapacity()
             );
+            this.typesAndSelectCache = typesAndSelectCache;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            // compiled factories are shared by all connections of the server
+            Misc.free(typesAndSelectCache);
         }
     }
 }
@@ -24,14 +24,29 @@
 
 package io.questdb.cutlass.pgwire;
 
+import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
 import io.questdb.std.WeakSelfReturningObjectPool;
 
 public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
+    // tables the factory was compiled against
+    private final ObjList<TableToken> tableTokens = new ObjList<>();
+    private long ddlVersion;
     private RecordCursorFactory factory;
 
+    /**
+     * Creates an instance that is not returned to any pool on close. Instances cached
+     * in the server-wide select cache may be closed by any connection thread, so
+     * they must not belong to a connection-local pool.
+     */
+    public TypesAndSelect() {
+        super(null);
+    }
+
     public TypesAndSelect(WeakSelfReturningObjectPool<TypesAndSelect> parentPool) {
         super(parentPool);
     }
@@ -42,12 +57,34 @@ public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
         factory = Misc.free(factory);
     }
 
+    public long getDdlVersion() {
+        return ddlVersion;
+    }
+
     public RecordCursorFactory getFactory() {
         return factory;
     }
 
-    public void of(RecordCursorFactory factory, BindVariableService bindVariableService) {
+    public ObjList<TableToken> getTableTokens() {
+        return tableTokens;
+    }
+
+    /**
+     * @param ddlVersion  engine DDL version observed before the factory was compiled
+     * @param tableTokens tables the factory was compiled against
+     */
+    public void of(
+            RecordCursorFactory factory,
+            BindVariableService bindVariableService,
+            long ddlVersion,
+            ObjHashSet<TableToken> tableTokens
+    ) {
         this.factory = factory;
+        this.ddlVersion = ddlVersion;
+        this.tableTokens.clear();
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            this.tableTokens.add(tableTokens.get(i));
+        }
         copyTypesFrom(bindVariableService);
     }
 }
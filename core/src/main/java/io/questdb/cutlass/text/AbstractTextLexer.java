@@ -37,6 +37,7 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
     private final ObjectPool<DirectUtf8String> csPool;
     private final ObjList<DirectUtf8String> fields = new ObjList<>();
     private final int lineRollBufLimit;
+    private final BoolList quotedFields = new BoolList();
     private boolean delayedOutQuote;
     private boolean eol;
     private long errorCount = 0;
@@ -54,6 +55,7 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
     private long lineRollBufCur;
     private long lineRollBufPtr;
     private int lineRollBufSize;
+    private boolean quotedFieldsDirty;
     private boolean rollBufferUnusable = false;
     private boolean skipLinesWithExtraValues;
     private CharSequence tableName;
@@ -92,6 +94,17 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         return lineCount;
     }
 
+    /**
+     * Tells quoted field from unquoted one, e.g. "" from an empty field. Valid only
+     * for the line passed to {@link Listener#onFields(long, ObjList, int)}.
+     *
+     * @param fieldIndex index of the field in the current line
+     * @return true if the field value was enclosed in quotes
+     */
+    public boolean isQuoted(int fieldIndex) {
+        return quotedFields.getQuiet(fieldIndex);
+    }
+
     public void parse(long lo, long hi, int lineCountLimit, Listener textLexerListener) {
         setupLimits(lineCountLimit, textLexerListener);
         parse(lo, hi);
@@ -147,6 +160,7 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         this.header = header;
         fields.clear();
         csPool.clear();
+        clearQuotedFields();
     }
 
     public void setSkipLinesWithExtraValues(boolean skipLinesWithExtraValues) {
@@ -197,6 +211,13 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         return true;
     }
 
+    private void clearQuotedFields() {
+        if (quotedFieldsDirty) {
+            quotedFields.zero(false);
+            quotedFieldsDirty = false;
+        }
+    }
+
     private void clearRollBuffer(long ptr) {
         useLineRollBuf = false;
         lineRollBufCur = lineRollBufPtr;
@@ -281,6 +302,7 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         eol = true;
         fieldIndex = 0;
         ignoreEolOnce = false;
+        clearQuotedFields();
     }
 
     private void onColumnDelimiterSlow(long lo) {
@@ -388,10 +410,12 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
 
         if (header) {
             header = false;
+            clearQuotedFields();
             return;
         }
 
         textLexerListener.onFields(lineCount++, fields, fieldMax + 1);
+        clearQuotedFields();
     }
 
     private void uneol(long lo) {
@@ -447,6 +471,8 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         } else if (fieldHi - fieldLo == 1) {
             inQuote = true;
             this.fieldLo = this.fieldHi;
+            quotedFields.extendAndSet(fieldIndex, true);
+            quotedFieldsDirty = true;
         }
     }
 
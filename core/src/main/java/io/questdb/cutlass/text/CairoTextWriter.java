@@ -486,6 +486,11 @@ public class CairoTextWriter implements Closeable, Mutable {
             return timestampIndex;
         }
 
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf16Sink;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.Utf8s;
+
+import java.io.Closeable;
+
+/**
+ * Streams text sent by the client, such as pg wire CopyData messages, into an existing table.
+ * Unlike {@link TextLoader} this loader does not detect text structure: fields are mapped
+ * to table columns by position and parsed according to column types.
+ * <p>
+ * By default, all rows are committed at once by {@link #finish()}, so a failed copy leaves
+ * the table unchanged. When commit batch size is positive, rows are committed every batch
+ * size rows instead. In that case batches committed before a failure remain in the table,
+ * only rows written since the last batch commit are rolled back.
+ */
+public class CopyInLoader implements CsvTextLexer.Listener, Closeable, Mutable {
+    public static final byte FORMAT_BINARY = 2;
+    public static final byte FORMAT_CSV = 1;
+    public static final byte FORMAT_TEXT = 0;
+    private static final Log LOG = LogFactory.getLog(CopyInLoader.class);
+    private static final String WRITER_LOCK_REASON = "copyIn";
+    private final ObjList<TypeAdapter> adapters = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final int commitBatchSize;
+    private final CairoEngine engine;
+    private final TextLexerWrapper tlw;
+    private final TypeManager typeManager;
+    private final DirectUtf16Sink utf16Sink;
+    private final IntList writerIndexes = new IntList();
+    private int columnCount;
+    private boolean endOfData;
+    private boolean header;
+    private AbstractTextLexer lexer;
+    private boolean textFormat;
+    private int timestampIndex;
+    private TableWriterAPI writer;
+    private long writtenLineCount;
+
+    public CopyInLoader(CairoEngine engine, int commitBatchSize) {
+        final TextConfiguration textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.engine = engine;
+        this.commitBatchSize = commitBatchSize;
+        this.tlw = new TextLexerWrapper(textConfiguration);
+        this.utf16Sink = new DirectUtf16Sink(textConfiguration.getUtf8SinkSize());
+        this.typeManager = new TypeManager(textConfiguration, utf16Sink);
+    }
+
+    @Override
+    public void clear() {
+        if (writer != null) {
+            // uncommitted rows of failed or abandoned copy are discarded
+            writer.rollback();
+            writer = Misc.free(writer);
+        }
+        if (lexer != null) {
+            lexer.clear();
+            lexer = null;
+        }
+        adapters.clear();
+        columnTypes.clear();
+        writerIndexes.clear();
+        typeManager.clear();
+        columnCount = 0;
+        endOfData = false;
+        header = false;
+        writtenLineCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(tlw);
+        Misc.free(utf16Sink);
+    }
+
+    /**
+     * Parses remaining buffered text and commits all rows written since the last batch commit.
+     *
+     * @return number of rows written by this copy
+     */
+    public long finish() {
+        lexer.parseLast();
+        checkLexerErrors();
+        writer.commit();
+        LOG.info().$("copied [table=").$(writer.getTableToken()).$(", rows=").$(writtenLineCount).I$();
+        return writtenLineCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public boolean isOpen() {
+        return writer != null;
+    }
+
+    public void of(TableToken tableToken, byte format, byte delimiter, boolean header) {
+        assert writer == null;
+        writer = engine.getTableWriterAPI(tableToken, WRITER_LOCK_REASON);
+        try {
+            final RecordMetadata metadata = GenericRecordMetadata.copyDense(writer.getMetadata());
+            columnCount = metadata.getColumnCount();
+            timestampIndex = metadata.getTimestampIndex();
+            textFormat = format == FORMAT_TEXT;
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                columnTypes.add(columnType);
+                writerIndexes.add(metadata.getWriterIndex(i));
+                switch (ColumnType.tagOf(columnType)) {
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                        // parsed in place to accept the same formats as INSERT
+                        adapters.add(null);
+                        break;
+                    case ColumnType.STRING:
+                    case ColumnType.SYMBOL:
+                        // string adapters collapse doubled CSV quotes, text format has no quoting
+                        adapters.add(textFormat ? null : typeManager.getTypeAdapter(columnType));
+                        break;
+                    case ColumnType.BINARY:
+                        throw CairoException.nonCritical().put("cannot copy text into BINARY column [column=").put(metadata.getColumnName(i)).put(']');
+                    default:
+                        adapters.add(typeManager.getTypeAdapter(columnType));
+                        break;
+                }
+            }
+            // text format escapes special characters rather than quoting them
+            lexer = textFormat ? tlw.getEscapedLexer(delimiter) : tlw.getLexer(delimiter);
+            lexer.setTableName(tableToken.getTableName());
+            lexer.setSkipLinesWithExtraValues(true);
+            lexer.setupLimits(Integer.MAX_VALUE, this);
+            // the lexer takes field count from the first line, so header is skipped
+            // by this loader rather than the lexer
+            lexer.restart(false);
+            this.header = header;
+        } catch (Throwable th) {
+            clear();
+            throw th;
+        }
+    }
+
+    @Override
+    public void onFields(long line, ObjList<DirectUtf8String> values, int valuesLength) {
+        if (endOfData) {
+            return;
+        }
+        if (header) {
+            header = false;
+            return;
+        }
+        if (textFormat && valuesLength > 0 && isEndOfDataMarker(values.getQuick(0))) {
+            // legacy end-of-data marker, anything after it is ignored
+            endOfData = true;
+            return;
+        }
+        if (valuesLength != columnCount) {
+            throw CairoException.nonCritical()
+                    .put("column count mismatch [textColumnCount=").put(valuesLength)
+                    .put(", tableColumnCount=").put(columnCount)
+                    .put(", line=").put(line)
+                    .put(']');
+        }
+
+        final TableWriter.Row row;
+        if (timestampIndex > -1) {
+            final DirectUtf8String value = values.getQuick(timestampIndex);
+            if (isNull(timestampIndex, value)) {
+                throw CairoException.nonCritical().put("designated timestamp cannot be null [line=").put(line).put(']');
+            }
+            row = writer.newRow(parseTimestamp(line, timestampIndex, value));
+        } else {
+            row = writer.newRow();
+        }
+
+        try {
+            for (int i = 0; i < valuesLength; i++) {
+                final DirectUtf8String value = values.getQuick(i);
+                if (i == timestampIndex || isNull(i, value)) {
+                    continue;
+                }
+                if (textFormat) {
+                    unescape(value);
+                }
+                final int writerIndex = writerIndexes.getQuick(i);
+                final TypeAdapter adapter = adapters.getQuick(i);
+                if (adapter != null) {
+                    try {
+                        adapter.write(row, writerIndex, value, utf16Sink);
+                    } catch (Exception e) {
+                        throw badSyntax(line, i);
+                    }
+                } else {
+                    switch (ColumnType.tagOf(columnTypes.getQuick(i))) {
+                        case ColumnType.DATE:
+                            row.putDate(writerIndex, parseDate(line, i, value));
+                            break;
+                        case ColumnType.STRING:
+                            row.putStr(writerIndex, toUtf16(line, i, value));
+                            break;
+                        case ColumnType.SYMBOL:
+                            row.putSym(writerIndex, toUtf16(line, i, value));
+                            break;
+                        default:
+                            row.putTimestamp(writerIndex, parseTimestamp(line, i, value));
+                            break;
+                    }
+                }
+            }
+            row.append();
+        } catch (Throwable th) {
+            row.cancel();
+            throw th;
+        }
+
+        writtenLineCount++;
+        if (commitBatchSize > 0 && writer.getUncommittedRowCount() >= commitBatchSize) {
+            writer.commit();
+        }
+    }
+
+    public void parse(long lo, long hi) {
+        lexer.parse(lo, hi);
+        checkLexerErrors();
+    }
+
+    private static CairoException badSyntax(long line, int column) {
+        return CairoException.nonCritical().put("bad syntax [line=").put(line).put(", col=").put(column).put(']');
+    }
+
+    private static boolean isEndOfDataMarker(DirectUtf8String value) {
+        return value.size() == 2 && value.byteAt(0) == '\\' && value.byteAt(1) == '.';
+    }
+
+    private static void unescape(DirectUtf8String value) {
+        final long lo = value.lo();
+        final long hi = value.hi();
+        long src = lo;
+        while (src < hi && Unsafe.getUnsafe().getByte(src) != '\\') {
+            src++;
+        }
+        if (src == hi) {
+            return;
+        }
+
+        // text shrinks, so we can rewrite it in place
+        long dst = src;
+        while (src < hi) {
+            byte b = Unsafe.getUnsafe().getByte(src++);
+            if (b == '\\' && src < hi) {
+                b = Unsafe.getUnsafe().getByte(src++);
+                switch (b) {
+                    case 'b':
+                        b = '\b';
+                        break;
+                    case 'f':
+                        b = '\f';
+                        break;
+                    case 'n':
+                        b = '\n';
+                        break;
+                    case 'r':
+                        b = '\r';
+                        break;
+                    case 't':
+                        b = '\t';
+                        break;
+                    case 'v':
+                        b = 0x0b;
+                        break;
+                    default:
+                        // escaped backslash, delimiter or any other character stands for itself
+                        break;
+                }
+            }
+            Unsafe.getUnsafe().putByte(dst++, b);
+        }
+        value.of(lo, dst);
+    }
+
+    private void checkLexerErrors() {
+        if (lexer.getErrorCount() > 0) {
+            throw CairoException.nonCritical()
+                    .put("could not parse text, extra values or line is too long [line=").put(lexer.getLineCount())
+                    .put(']');
+        }
+    }
+
+    private boolean isNull(int column, DirectUtf8String value) {
+        if (textFormat) {
+            return value.size() == 2 && value.byteAt(0) == '\\' && value.byteAt(1) == 'N';
+        }
+        // csv null is an unquoted empty field, quoted "" is an empty string
+        return value.size() == 0 && !lexer.isQuoted(column);
+    }
+
+    private long parseDate(long line, int column, DirectUtf8String value) {
+        try {
+            return SqlUtil.implicitCastStrAsDate(value.asAsciiCharSequence());
+        } catch (ImplicitCastException e) {
+            throw badSyntax(line, column);
+        }
+    }
+
+    private long parseTimestamp(long line, int column, DirectUtf8String value) {
+        try {
+            return SqlUtil.implicitCastStrAsTimestamp(value.asAsciiCharSequence());
+        } catch (ImplicitCastException e) {
+            throw badSyntax(line, column);
+        }
+    }
+
+    private CharSequence toUtf16(long line, int column, DirectUtf8String value) {
+        utf16Sink.clear();
+        if (!Utf8s.utf8ToUtf16(value.lo(), value.hi(), utf16Sink)) {
+            throw badSyntax(line, column);
+        }
+        return utf16Sink;
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+/**
+ * Lexer for delimited text, which escapes special characters with a backslash
+ * instead of quoting them, e.g. PostgreSQL COPY TEXT format. Double quotes are
+ * ordinary characters. An escaped byte never ends a field or a line, the escape
+ * sequences themselves are left in place for the caller to decode.
+ */
+public class EscapedTextLexer extends AbstractTextLexer {
+    private byte delimiter;
+    private boolean escaped;
+
+    public EscapedTextLexer(TextConfiguration textConfiguration) {
+        super(textConfiguration);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        escaped = false;
+    }
+
+    public void of(byte delimiter) {
+        this.delimiter = delimiter;
+        this.escaped = false;
+    }
+
+    protected void doSwitch(long lo, long ptr, byte c) throws LineLimitException {
+        if (escaped) {
+            escaped = false;
+            checkEol(lo);
+        } else if (c == delimiter) {
+            onColumnDelimiter(lo);
+        } else if (c == '\\') {
+            escaped = true;
+            checkEol(lo);
+        } else if (c == '\n' || c == '\r') {
+            onLineEnd(ptr);
+        } else {
+            checkEol(lo);
+        }
+    }
+}
@@ -1603,6 +1603,11 @@ public class ParallelCsvFileImporter implements Closeable, Mutable {
             return timestampColumnIndex;
         }
 
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return false;
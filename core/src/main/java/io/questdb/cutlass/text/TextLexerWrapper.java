@@ -30,6 +30,7 @@ import io.questdb.std.QuietCloseable;
 public class TextLexerWrapper implements QuietCloseable {
     private final TextConfiguration configuration;
     private final CsvTextLexer csvLexer;
+    private EscapedTextLexer escapedTextLexer;
     private GenericTextLexer genericTextLexer;
 
     public TextLexerWrapper(TextConfiguration configuration) {
@@ -40,9 +41,19 @@ public class TextLexerWrapper implements QuietCloseable {
     @Override
     public void close() {
         Misc.free(csvLexer);
+        escapedTextLexer = Misc.free(escapedTextLexer);
         genericTextLexer = Misc.free(genericTextLexer);
     }
 
+    public AbstractTextLexer getEscapedLexer(byte delimiter) {
+        if (escapedTextLexer == null) {
+            escapedTextLexer = new EscapedTextLexer(configuration);
+        }
+        escapedTextLexer.clear();
+        escapedTextLexer.of(delimiter);
+        return escapedTextLexer;
+    }
+
     public AbstractTextLexer getLexer(byte delimiter) {
         if (delimiter == ',') {
             csvLexer.clear();
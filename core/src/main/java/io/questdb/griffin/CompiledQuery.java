@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.mp.SCSequence;
+import io.questdb.std.ObjHashSet;
 import io.questdb.std.Transient;
 
 public interface CompiledQuery {
@@ -95,6 +96,20 @@ public interface CompiledQuery {
     @Transient
     AlterOperation getAlterOperation();
 
+    /**
+     * Returns column delimiter for COPY FROM STDIN statement. Used e.g. in pg wire protocol.
+     *
+     * @return column delimiter of the copied text
+     */
+    byte getCopyDelimiter();
+
+    /**
+     * Returns text format for COPY FROM STDIN statement, one of CopyInLoader.FORMAT_* constants.
+     *
+     * @return format of the copied text
+     */
+    byte getCopyFormat();
+
     InsertOperation getInsertOperation();
 
     RecordCursorFactory getRecordCursorFactory();
@@ -110,10 +125,25 @@ public interface CompiledQuery {
 
     TableToken getTableToken();
 
+    /**
+     * Returns tables whose metadata a SELECT factory was compiled against. Query caches
+     * use them to drop the factory once any of the tables is altered, renamed or dropped.
+     *
+     * @return tables the compiled SELECT depends on, valid until the next compilation
+     */
+    ObjHashSet<TableToken> getTableTokens();
+
     short getType();
 
     UpdateOperation getUpdateOperation();
 
+    /**
+     * Returns true when the first line of COPY FROM STDIN text is a header and has to be skipped.
+     *
+     * @return true when copied text has a header
+     */
+    boolean isCopyHeader();
+
     CompiledQuery withContext(SqlExecutionContext sqlExecutionContext);
 
     void withSqlStatement(String sqlStatement);
@@ -37,15 +37,21 @@ import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.Chars;
 import io.questdb.std.Mutable;
+import io.questdb.std.ObjHashSet;
 import org.jetbrains.annotations.Nullable;
 
 public class CompiledQueryImpl implements CompiledQuery, Mutable {
     private final OperationDispatcher<AlterOperation> alterOperationDispatcher;
     private final DoneOperationFuture doneFuture = new DoneOperationFuture();
+    private final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
     private final OperationDispatcher<UpdateOperation> updateOperationDispatcher;
     // number of rows either returned by SELECT operation or affected by UPDATE or INSERT
     private long affectedRowsCount;
     private AlterOperation alterOp;
+    // text format options of COPY FROM STDIN operation
+    private byte copyDelimiter;
+    private byte copyFormat;
+    private boolean copyHeader;
     private InsertOperation insertOp;
     private RecordCursorFactory recordCursorFactory;
     private SqlExecutionContext sqlExecutionContext;
@@ -78,6 +84,7 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         this.type = 0;
         this.recordCursorFactory = null;
         this.tableToken = null;
+        this.tableTokens.clear();
         this.affectedRowsCount = -1;
         this.insertOp = null;
         this.alterOp = null;
@@ -116,6 +123,16 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         return alterOp;
     }
 
+    @Override
+    public byte getCopyDelimiter() {
+        return copyDelimiter;
+    }
+
+    @Override
+    public byte getCopyFormat() {
+        return copyFormat;
+    }
+
     @Override
     public InsertOperation getInsertOperation() {
         return insertOp;
@@ -141,6 +158,11 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         return tableToken;
     }
 
+    @Override
+    public ObjHashSet<TableToken> getTableTokens() {
+        return tableTokens;
+    }
+
     @Override
     public short getType() {
         return type;
@@ -151,6 +173,11 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         return updateOp;
     }
 
+    @Override
+    public boolean isCopyHeader() {
+        return copyHeader;
+    }
+
     public CompiledQuery of(short type) {
         return of(type, null, null);
     }
@@ -163,6 +190,12 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         return of(SELECT, recordCursorFactory, null);
     }
 
+    public CompiledQuery of(RecordCursorFactory recordCursorFactory, ObjHashSet<TableToken> tableTokens) {
+        of(SELECT, recordCursorFactory, null);
+        this.tableTokens.addAll(tableTokens);
+        return this;
+    }
+
     public CompiledQuery ofAlter(AlterOperation alterOp) {
         of(ALTER);
         this.alterOp = alterOp;
@@ -189,8 +222,11 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         of(COMMIT);
     }
 
-    public void ofCopyRemote() {
-        of(COPY_REMOTE);
+    public void ofCopyRemote(TableToken tableToken, byte format, byte delimiter, boolean header) {
+        of(COPY_REMOTE, null, tableToken);
+        this.copyFormat = format;
+        this.copyDelimiter = delimiter;
+        this.copyHeader = header;
     }
 
     public void ofCreateTable(TableToken tableToken) {
@@ -300,6 +336,7 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         this.type = type;
         this.recordCursorFactory = factory;
         this.tableToken = tableToken;
+        this.tableTokens.clear();
         this.affectedRowsCount = -1;
         return this;
     }
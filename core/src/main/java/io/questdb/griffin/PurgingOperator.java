@@ -101,11 +101,22 @@ public final class PurgingOperator {
                                     columnPurged &= ff.removeQuiet(path.$());
                                 }
 
+                                if (ZoneMap.isSupported(columnType)) {
+                                    // zone map is not written for every partition, so it does not hold purge back
+                                    ff.removeQuiet(TableUtils.zoneMapFileName(path.trimTo(pathPartitionLen), columnName, columnVersion));
+                                }
+
+                                if (BloomIndex.isSupported(columnType)) {
+                                    ff.removeQuiet(TableUtils.bloomIndexFileName(path.trimTo(pathPartitionLen), columnName, columnVersion));
+                                }
+
                                 if (tableMetadata.isColumnIndexed(columnIndex)) {
                                     BitmapIndexUtils.valueFileName(path.trimTo(pathPartitionLen), columnName, columnVersion);
                                     columnPurged &= ff.removeQuiet(path.$());
                                     BitmapIndexUtils.keyFileName(path.trimTo(pathPartitionLen), columnName, columnVersion);
                                     columnPurged &= ff.removeQuiet(path.$());
+                                    // posting index is not written for every partition, so it does not hold purge back
+                                    ff.removeQuiet(PostingIndexUtils.postingFileName(path.trimTo(pathPartitionLen), columnName, columnVersion));
                                 }
                             } else {
                                 // This is removal of symbol files from the table root directory
@@ -45,6 +45,8 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.AsyncSortedLightAtom;
+import io.questdb.griffin.engine.orderby.AsyncSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
@@ -309,6 +311,201 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    // Collects "column = constant" conjuncts of the filter on bloom indexed columns.
+    private static void extractBloomIndexPredicates(
+            ExpressionNode node,
+            TableReaderMetadata metadata,
+            IntList columnIndexes,
+            LongList hashes
+    ) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return;
+        }
+        if (isAndKeyword(node.token)) {
+            extractBloomIndexPredicates(node.lhs, metadata, columnIndexes, hashes);
+            extractBloomIndexPredicates(node.rhs, metadata, columnIndexes, hashes);
+            return;
+        }
+        if (!Chars.equals(node.token, '=')) {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode constant = node.rhs;
+        if (column.type != LITERAL) {
+            column = node.rhs;
+            constant = node.lhs;
+        }
+        if (column.type != LITERAL) {
+            return;
+        }
+
+        boolean negative = false;
+        if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+            negative = true;
+            constant = constant.rhs;
+        }
+        if (constant.type != CONSTANT) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !metadata.isColumnBloomIndexed(columnIndex)) {
+            return;
+        }
+
+        final CharSequence token = constant.token;
+        final short columnTag = ColumnType.tagOf(metadata.getColumnType(columnIndex));
+        final long hash;
+        switch (columnTag) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                try {
+                    final long l = Numbers.parseLong(token);
+                    final long value = negative ? -l : l;
+                    if (value == Numbers.LONG_NaN) {
+                        return;
+                    }
+                    // int nulls and out of range values are left to the filter
+                    if (columnTag == ColumnType.INT && (value <= Numbers.INT_NaN || value > Integer.MAX_VALUE)) {
+                        return;
+                    }
+                    hash = BloomIndex.hashLong(value);
+                } catch (NumericException e) {
+                    return;
+                }
+                break;
+            case ColumnType.UUID:
+                if (negative || !Chars.isQuoted(token)) {
+                    return;
+                }
+                try {
+                    Uuid.checkDashesAndLength(token, 1, token.length() - 1);
+                    hash = BloomIndex.hashUuid(Uuid.parseLo(token, 1), Uuid.parseHi(token, 1));
+                } catch (NumericException e) {
+                    return;
+                }
+                break;
+            case ColumnType.STRING:
+                // escaped quotes are left to the filter
+                if (negative || !Chars.isQuoted(token) || Chars.indexOf(token, 1, token.length() - 1, '\'') > -1) {
+                    return;
+                }
+                hash = BloomIndex.hashString(token.subSequence(1, token.length() - 1));
+                break;
+            default:
+                return;
+        }
+
+        columnIndexes.add(columnIndex);
+        hashes.add(hash);
+    }
+
+    // Collects "column op constant" conjuncts of the filter, which can be checked against zone maps.
+    private static void extractZoneMapPredicates(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            IntList columnIndexes,
+            IntList ops,
+            LongList values
+    ) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return;
+        }
+        if (isAndKeyword(node.token)) {
+            extractZoneMapPredicates(node.lhs, metadata, columnIndexes, ops, values);
+            extractZoneMapPredicates(node.rhs, metadata, columnIndexes, ops, values);
+            return;
+        }
+
+        int op;
+        if (Chars.equals(node.token, '=')) {
+            op = ZoneMapDataFrameCursorFactory.OP_EQ;
+        } else if (Chars.equals(node.token, '<')) {
+            op = ZoneMapDataFrameCursorFactory.OP_LT;
+        } else if (Chars.equals(node.token, "<=")) {
+            op = ZoneMapDataFrameCursorFactory.OP_LE;
+        } else if (Chars.equals(node.token, '>')) {
+            op = ZoneMapDataFrameCursorFactory.OP_GT;
+        } else if (Chars.equals(node.token, ">=")) {
+            op = ZoneMapDataFrameCursorFactory.OP_GE;
+        } else {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode constant = node.rhs;
+        if (column.type != LITERAL) {
+            // "constant op column" is the same as "column flipped_op constant"
+            column = node.rhs;
+            constant = node.lhs;
+            switch (op) {
+                case ZoneMapDataFrameCursorFactory.OP_LT:
+                    op = ZoneMapDataFrameCursorFactory.OP_GT;
+                    break;
+                case ZoneMapDataFrameCursorFactory.OP_LE:
+                    op = ZoneMapDataFrameCursorFactory.OP_GE;
+                    break;
+                case ZoneMapDataFrameCursorFactory.OP_GT:
+                    op = ZoneMapDataFrameCursorFactory.OP_LT;
+                    break;
+                case ZoneMapDataFrameCursorFactory.OP_GE:
+                    op = ZoneMapDataFrameCursorFactory.OP_LE;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (column.type != LITERAL) {
+            return;
+        }
+
+        boolean negative = false;
+        if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+            negative = true;
+            constant = constant.rhs;
+        }
+        if (constant.type != CONSTANT) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMap.isSupported(columnType)) {
+            return;
+        }
+
+        long value;
+        try {
+            if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+                // equality of doubles is tolerance based, so only ranges are pruned
+                if (op == ZoneMapDataFrameCursorFactory.OP_EQ) {
+                    return;
+                }
+                final double d = Numbers.parseDouble(constant.token);
+                if (Double.isNaN(d)) {
+                    return;
+                }
+                value = Double.doubleToLongBits(negative ? -d : d);
+            } else {
+                final long l = Numbers.parseLong(constant.token);
+                value = negative ? -l : l;
+                if (value == Numbers.LONG_NaN || (ColumnType.tagOf(columnType) == ColumnType.INT && value == Numbers.INT_NaN)) {
+                    return;
+                }
+            }
+        } catch (NumericException e) {
+            return;
+        }
+
+        columnIndexes.add(columnIndex);
+        ops.add(op);
+        values.add(value);
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -708,7 +905,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -744,6 +942,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (configuration.isSqlParallelHashJoinEnabled() && slave.supportPageFrameCursor()) {
+                    return new AsyncHashJoinLightRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            metadata,
+                            master,
+                            slave,
+                            keyTypes,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            reduceTaskFactory,
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -939,6 +1154,146 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    private @Nullable RecordCursorFactory generateAsyncLatestBy(
+            QueryModel model,
+            RecordMetadata metadata,
+            DataFrameCursorFactory dataFrameCursorFactory,
+            @Nullable Function filter,
+            @Nullable ExpressionNode filterExpr,
+            @Nullable IntList partitionByColumnIndexes,
+            @Nullable IntList partitionBySymbolCounts,
+            SqlExecutionContext executionContext,
+            @NotNull IntList columnIndexes,
+            @NotNull IntList columnSizes,
+            @Transient TableReader reader,
+            boolean framingSupported
+    ) throws SqlException {
+        if (!configuration.isSqlParallelLatestByEnabled() || !framingSupported) {
+            return null;
+        }
+
+        // When all keys are symbols and all their combinations fit into a single page frame,
+        // the serial backward scan usually finds them in the newest partition and stops there,
+        // while the page frame sequence would have to open all partitions upfront.
+        if (partitionByColumnIndexes != null) {
+            long combinations = 1;
+            for (int i = 0, n = partitionByColumnIndexes.size(); i < n && combinations <= configuration.getSqlPageFrameMaxRows(); i++) {
+                final int columnIndex = columnIndexes.getQuick(partitionByColumnIndexes.getQuick(i));
+                final StaticSymbolTable symbolTable = reader.getSymbolMapReader(columnIndex);
+                int distinctSymbols = symbolTable.getSymbolCount();
+                if (symbolTable.containsNullValue()) {
+                    distinctSymbols++;
+                }
+                if (partitionBySymbolCounts != null) {
+                    distinctSymbols = Math.min(distinctSymbols, partitionBySymbolCounts.getQuick(i));
+                }
+                combinations *= distinctSymbols;
+            }
+            if (combinations <= configuration.getSqlPageFrameMaxRows()) {
+                return null;
+            }
+        }
+
+        // per-worker filters may contain sub-queries that reuse the latest by column lists
+        final ArrayColumnTypes keyTypesCopy = new ArrayColumnTypes().addAll(keyTypes);
+        final RecordSink mapSink = RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false);
+
+        final RecordCursorFactory base = new DataFrameRecordCursorFactory(
+                configuration,
+                metadata,
+                dataFrameCursorFactory,
+                new BwdDataFrameRowCursorFactory(),
+                false,
+                null,
+                true,
+                columnIndexes,
+                columnSizes,
+                true
+        );
+
+        CompiledFilter compiledFilter = null;
+        ObjList<Function> bindVarFunctions = null;
+        final boolean useJit = executionContext.getJitMode() != SqlJitMode.JIT_MODE_DISABLED
+                && (!model.isUpdate() || executionContext.isWalApplication());
+        if (filter != null && useJit && JitUtil.isJitSupported()) {
+            final ObjList<Function> jitBindVarFunctions = new ObjList<>();
+            try {
+                int jitOptions;
+                try (PageFrameCursor cursor = base.getPageFrameCursor(executionContext, ORDER_ANY)) {
+                    final boolean forceScalar = executionContext.getJitMode() == SqlJitMode.JIT_MODE_FORCE_SCALAR;
+                    jitIRSerializer.of(jitIRMem, executionContext, metadata, cursor, jitBindVarFunctions);
+                    jitOptions = jitIRSerializer.serialize(filterExpr, forceScalar, enableJitDebug, enableJitNullChecks);
+                }
+
+                compiledFilter = new CompiledFilter();
+                compiledFilter.compile(jitIRMem, jitOptions);
+                bindVarFunctions = jitBindVarFunctions;
+
+                LOG.info()
+                        .$("JIT enabled for latest by (sub)query [tableName=").utf8(model.getName())
+                        .$(", fd=").$(executionContext.getRequestFd())
+                        .I$();
+            } catch (SqlException | LimitOverflowException ex) {
+                compiledFilter = Misc.free(compiledFilter);
+                LOG.debug()
+                        .$("JIT cannot be applied to latest by (sub)query [tableName=").utf8(model.getName())
+                        .$(", ex=").$(ex.getFlyweightMessage())
+                        .$(", fd=").$(executionContext.getRequestFd()).$(']').$();
+            } finally {
+                jitIRSerializer.clear();
+                jitIRMem.truncate();
+            }
+        }
+
+        final ObjList<Function> perWorkerFilters;
+        try {
+            perWorkerFilters = compileWorkerFilterConditionally(
+                    filter,
+                    executionContext.getSharedWorkerCount(),
+                    filterExpr,
+                    metadata,
+                    executionContext
+            );
+        } catch (Throwable th) {
+            Misc.free(compiledFilter);
+            Misc.free(base);
+            throw th;
+        }
+
+        return new AsyncLatestByRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                base,
+                keyTypesCopy,
+                mapSink,
+                compiledFilter,
+                bindVarFunctions,
+                filter,
+                perWorkerFilters,
+                partitionByColumnIndexes,
+                partitionBySymbolCounts,
+                reduceTaskFactory,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
+    private DataFrameCursorFactory generateBloomIndexFilter(
+            DataFrameCursorFactory dfcFactory,
+            ExpressionNode filter,
+            @Nullable TableReader reader
+    ) {
+        if (filter == null || reader == null) {
+            return dfcFactory;
+        }
+        final IntList columnIndexes = new IntList();
+        final LongList hashes = new LongList();
+        extractBloomIndexPredicates(filter, reader.getMetadata(), columnIndexes, hashes);
+        if (columnIndexes.size() == 0) {
+            return dfcFactory;
+        }
+        return new BloomIndexDataFrameCursorFactory(configuration, dfcFactory, columnIndexes, hashes);
+    }
+
     private ObjList<Function> generateCastFunctions(
             RecordMetadata castToMetadata,
             RecordMetadata castFromMetadata,
@@ -1850,7 +2205,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2024,7 +2380,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             int timestampIndex,
             @NotNull IntList columnIndexes,
             @NotNull IntList columnSizes,
-            @NotNull LongList prefixes
+            @NotNull LongList prefixes,
+            boolean framingSupported
     ) throws SqlException {
         final DataFrameCursorFactory dataFrameCursorFactory;
         if (intrinsicModel.hasIntervalFilters()) {
@@ -2072,6 +2429,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         metadata,
                         partitionByColumnIndexes
                 );
+                final RecordCursorFactory asyncFactory = generateAsyncLatestBy(
+                        model,
+                        metadata,
+                        dataFrameCursorFactory,
+                        filter,
+                        intrinsicModel.filter,
+                        partitionByColumnIndexes,
+                        partitionBySymbolCounts,
+                        executionContext,
+                        columnIndexes,
+                        columnSizes,
+                        reader,
+                        framingSupported
+                );
+                if (asyncFactory != null) {
+                    return asyncFactory;
+                }
                 return new LatestByAllSymbolsFilteredRecordCursorFactory(
                         metadata,
                         configuration,
@@ -2084,6 +2458,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         columnIndexes
                 );
             }
+            final RecordCursorFactory asyncFactory = generateAsyncLatestBy(
+                    model,
+                    metadata,
+                    dataFrameCursorFactory,
+                    filter,
+                    intrinsicModel.filter,
+                    null,
+                    null,
+                    executionContext,
+                    columnIndexes,
+                    columnSizes,
+                    reader,
+                    framingSupported
+            );
+            if (asyncFactory != null) {
+                return asyncFactory;
+            }
             return new LatestByAllFilteredRecordCursorFactory(
                     metadata,
                     configuration,
@@ -2389,11 +2780,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
-                RecordMetadata orderedMetadata;
-                if (metadata.getColumnIndexQuiet(columnNames.getQuick(0)) == timestampIndex) {
+                GenericRecordMetadata orderedMetadata;
+                final int firstOrderByColumnIndex = metadata.getColumnIndexQuiet(columnNames.getQuick(0));
+                if (firstOrderByColumnIndex == timestampIndex) {
                     orderedMetadata = GenericRecordMetadata.copyOf(metadata);
                 } else {
                     orderedMetadata = GenericRecordMetadata.copyOfSansTimestamp(metadata);
+                    // rewritten SAMPLE BY sorts by bucket timestamp and keeps it designated
+                    if (
+                            model.isOrderByTimestampDesignated()
+                                    && orderBy.get(columnNames.getQuick(0)) == QueryModel.ORDER_DIRECTION_ASCENDING
+                                    && ColumnType.isTimestamp(metadata.getColumnType(firstOrderByColumnIndex))
+                    ) {
+                        orderedMetadata.setTimestampIndex(firstOrderByColumnIndex);
+                    }
                 }
                 final Function loFunc = getLoFunction(model, executionContext);
                 final Function hiFunc = getHiFunction(model, executionContext);
@@ -2413,6 +2813,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 baseCursorTimestampIndex
                         );
                     } else {
+                        if (
+                                configuration.isSqlParallelSortEnabled()
+                                        && listColumnFilterA.size() == 1
+                                        && recordCursorFactory.supportPageFrameCursor()
+                                        && recordCursorFactory.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+                                        && AsyncSortedLightAtom.isSupportedKeyType(metadata.getColumnType(firstOrderByColumnIndex))
+                        ) {
+                            return new AsyncSortedLightRecordCursorFactory(
+                                    configuration,
+                                    executionContext.getMessageBus(),
+                                    orderedMetadata,
+                                    recordCursorFactory,
+                                    listColumnFilterA.copy(),
+                                    reduceTaskFactory,
+                                    executionContext.getSharedWorkerCount()
+                            );
+                        }
                         return new SortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -4493,6 +4910,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             DataFrameCursorFactory dfcFactory;
 
             if (latestByColumnCount > 0) {
+                // back up in case the filter needs to be compiled again for parallel workers
+                backupWhereClause(intrinsicModel.filter);
                 Function filter = compileFilter(intrinsicModel, myMeta, executionContext);
                 if (filter != null && filter.isConstant() && !filter.getBool(null)) {
                     // 'latest by' clause takes over the latest by nodes, so that the later generateLatestBy() is no-op
@@ -4520,7 +4939,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         readerTimestampIndex,
                         columnIndexes,
                         columnSizes,
-                        prefixes
+                        prefixes,
+                        framingSupported
                 );
             }
 
@@ -4827,7 +5247,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             return new DataFrameRecordCursorFactory(
                     configuration,
                     myMeta,
-                    dfcFactory,
+                    generateZoneMapFilter(generateBloomIndexFilter(dfcFactory, intrinsicModel.filter, reader), intrinsicModel.filter, metadata),
                     rowFactory,
                     false,
                     null,
@@ -4908,10 +5328,28 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             for (int i = 0, n = listColumnFilterA.size(); i < n; i++) {
                 partitionByColumnIndexes.add(listColumnFilterA.getColumnIndexFactored(i));
             }
+            final DataFrameCursorFactory cursorFactory = new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta);
+            final RecordCursorFactory asyncFactory = generateAsyncLatestBy(
+                    model,
+                    myMeta,
+                    cursorFactory,
+                    null,
+                    null,
+                    partitionByColumnIndexes,
+                    null,
+                    executionContext,
+                    columnIndexes,
+                    columnSizes,
+                    reader,
+                    framingSupported
+            );
+            if (asyncFactory != null) {
+                return asyncFactory;
+            }
             return new LatestByAllSymbolsFilteredRecordCursorFactory(
                     myMeta,
                     configuration,
-                    new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta),
+                    cursorFactory,
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
                     partitionByColumnIndexes,
@@ -4921,10 +5359,28 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             );
         }
 
+        final DataFrameCursorFactory cursorFactory = new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta);
+        final RecordCursorFactory asyncFactory = generateAsyncLatestBy(
+                model,
+                myMeta,
+                cursorFactory,
+                null,
+                null,
+                null,
+                null,
+                executionContext,
+                columnIndexes,
+                columnSizes,
+                reader,
+                framingSupported
+        );
+        if (asyncFactory != null) {
+            return asyncFactory;
+        }
         return new LatestByAllFilteredRecordCursorFactory(
                 myMeta,
                 configuration,
-                new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta),
+                cursorFactory,
                 RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                 keyTypes,
                 null,
@@ -5002,6 +5458,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    private DataFrameCursorFactory generateZoneMapFilter(
+            DataFrameCursorFactory dfcFactory,
+            ExpressionNode filter,
+            RecordMetadata metadata
+    ) {
+        if (filter == null || !configuration.isZoneMapEnabled()) {
+            return dfcFactory;
+        }
+        final IntList columnIndexes = new IntList();
+        final IntList ops = new IntList();
+        final LongList values = new LongList();
+        extractZoneMapPredicates(filter, metadata, columnIndexes, ops, values);
+        if (columnIndexes.size() == 0) {
+            return dfcFactory;
+        }
+        return new ZoneMapDataFrameCursorFactory(configuration, dfcFactory, columnIndexes, ops, values);
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
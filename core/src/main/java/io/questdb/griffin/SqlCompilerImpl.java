@@ -26,14 +26,18 @@ package io.questdb.griffin;
 
 import io.questdb.*;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.WalUtils;
 import io.questdb.cairo.wal.WalWriterMetadata;
+import io.questdb.cutlass.text.CopyInLoader;
 import io.questdb.griffin.engine.RegisteredRecordCursorFactory;
 import io.questdb.griffin.engine.ops.*;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
 import io.questdb.griffin.model.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -453,48 +457,88 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     if (SqlKeywords.isAddKeyword(tok)) {
                         expectKeyword(lexer, "index");
                         tok = SqlUtil.fetchNext(lexer);
-                        int indexValueCapacity = -1;
-
-                        if (tok != null && (!isSemicolon(tok))) {
-                            if (!SqlKeywords.isCapacityKeyword(tok)) {
-                                throw SqlException.$(lexer.lastTokenPosition(), "'capacity' expected");
-                            } else {
-                                tok = expectToken(lexer, "capacity value");
-                                try {
-                                    indexValueCapacity = Numbers.parseInt(tok);
-                                    if (indexValueCapacity <= 0) {
+                        if (tok != null && SqlKeywords.isTypeKeyword(tok)) {
+                            // alter table <table name> alter column <column name> add index type bloom
+                            tok = expectToken(lexer, "'bloom'");
+                            if (!SqlKeywords.isBloomKeyword(tok)) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "'bloom' expected");
+                            }
+                            tok = SqlUtil.fetchNext(lexer);
+                            if (tok != null && !isSemicolon(tok)) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put("] while trying to add bloom index");
+                            }
+                            alterTableColumnAddBloomIndex(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata
+                            );
+                        } else {
+                            int indexValueCapacity = -1;
+
+                            if (tok != null && (!isSemicolon(tok))) {
+                                if (!SqlKeywords.isCapacityKeyword(tok)) {
+                                    throw SqlException.$(lexer.lastTokenPosition(), "'capacity' expected");
+                                } else {
+                                    tok = expectToken(lexer, "capacity value");
+                                    try {
+                                        indexValueCapacity = Numbers.parseInt(tok);
+                                        if (indexValueCapacity <= 0) {
+                                            throw SqlException.$(lexer.lastTokenPosition(), "positive integer literal expected as index capacity");
+                                        }
+                                    } catch (NumericException e) {
                                         throw SqlException.$(lexer.lastTokenPosition(), "positive integer literal expected as index capacity");
                                     }
-                                } catch (NumericException e) {
-                                    throw SqlException.$(lexer.lastTokenPosition(), "positive integer literal expected as index capacity");
                                 }
                             }
-                        }
 
-                        alterTableColumnAddIndex(
-                                securityContext,
-                                tableNamePosition,
-                                tableToken,
-                                columnNamePosition,
-                                columnName,
-                                tableMetadata,
-                                indexValueCapacity
-                        );
+                            alterTableColumnAddIndex(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata,
+                                    indexValueCapacity
+                            );
+                        }
                     } else if (SqlKeywords.isDropKeyword(tok)) {
                         // alter table <table name> alter column drop index
                         expectKeyword(lexer, "index");
                         tok = SqlUtil.fetchNext(lexer);
-                        if (tok != null && !isSemicolon(tok)) {
-                            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put("] while trying to drop index");
+                        if (tok != null && SqlKeywords.isTypeKeyword(tok)) {
+                            // alter table <table name> alter column <column name> drop index type bloom
+                            tok = expectToken(lexer, "'bloom'");
+                            if (!SqlKeywords.isBloomKeyword(tok)) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "'bloom' expected");
+                            }
+                            tok = SqlUtil.fetchNext(lexer);
+                            if (tok != null && !isSemicolon(tok)) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put("] while trying to drop bloom index");
+                            }
+                            alterTableColumnDropBloomIndex(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata
+                            );
+                        } else {
+                            if (tok != null && !isSemicolon(tok)) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put("] while trying to drop index");
+                            }
+                            alterTableColumnDropIndex(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata
+                            );
                         }
-                        alterTableColumnDropIndex(
-                                securityContext,
-                                tableNamePosition,
-                                tableToken,
-                                columnNamePosition,
-                                columnName,
-                                tableMetadata
-                        );
                     } else if (SqlKeywords.isCacheKeyword(tok)) {
                         alterTableColumnCacheFlag(
                                 securityContext,
@@ -588,6 +632,21 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partitions' expected");
                 }
+            } else if (SqlKeywords.isConvertKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (!SqlKeywords.isPartitionKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
+                tok = expectToken(lexer, "'to'");
+                if (!SqlKeywords.isToKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'to' expected");
+                }
+                tok = expectToken(lexer, "'parquet'");
+                if (!SqlKeywords.isParquetKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'parquet' expected");
+                }
+                securityContext.authorizeAlterTableConvertPartition(tableToken);
+                alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.CONVERT, executionContext);
             } else if (SqlKeywords.isDedupKeyword(tok) || SqlKeywords.isDeduplicateKeyword(tok)) {
                 tok = expectToken(lexer, "'dedup columns'");
 
@@ -799,6 +858,29 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         compiledQuery.ofAlter(alterOperationBuilder.build());
     }
 
+    private void alterTableColumnAddBloomIndex(
+            SecurityContext securityContext,
+            int tableNamePosition,
+            TableToken tableToken,
+            int columnNamePosition,
+            CharSequence columnName,
+            TableRecordMetadata metadata
+    ) throws SqlException {
+        final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNamePosition, columnName);
+        }
+
+        final int type = metadata.getColumnType(columnIndex);
+        if (!BloomIndex.isSupported(type)) {
+            throw SqlException.position(columnNamePosition).put("bloom indexes are only supported for int, long, uuid and string types [column=").put(columnName).put(", type=").put(ColumnType.nameOf(type)).put(']');
+        }
+
+        alterOperationBuilder.ofAddBloomIndex(tableNamePosition, tableToken, metadata.getTableId(), columnName, columnNamePosition);
+        securityContext.authorizeAlterTableAddIndex(tableToken, alterOperationBuilder.getExtraStrInfo());
+        compiledQuery.ofAlter(alterOperationBuilder.build());
+    }
+
     private void alterTableColumnAddIndex(
             SecurityContext securityContext,
             int tableNamePosition,
@@ -862,6 +944,23 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         compiledQuery.ofAlter(alterOperationBuilder.build());
     }
 
+    private void alterTableColumnDropBloomIndex(
+            SecurityContext securityContext,
+            int tableNamePosition,
+            TableToken tableToken,
+            int columnNamePosition,
+            CharSequence columnName,
+            TableRecordMetadata metadata
+    ) throws SqlException {
+        if (metadata.getColumnIndexQuiet(columnName) == -1) {
+            throw SqlException.invalidColumn(columnNamePosition, columnName);
+        }
+
+        alterOperationBuilder.ofDropBloomIndex(tableNamePosition, tableToken, metadata.getTableId(), columnName, columnNamePosition);
+        securityContext.authorizeAlterTableDropIndex(tableToken, alterOperationBuilder.getExtraStrInfo());
+        compiledQuery.ofAlter(alterOperationBuilder.build());
+    }
+
     private void alterTableColumnDropIndex(
             SecurityContext securityContext,
             int tableNamePosition,
@@ -1015,6 +1114,13 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             if (reader != null && !PartitionBy.isPartitioned(reader.getMetadata().getPartitionBy())) {
                 throw SqlException.$(pos, "table is not partitioned");
             }
+            if (action == PartitionAction.CONVERT) {
+                try {
+                    PartitionEncoder.assertSupported(tableMetadata);
+                } catch (CairoException e) {
+                    throw SqlException.$(pos, e.getFlyweightMessage());
+                }
+            }
 
             final CharSequence tok = expectToken(lexer, "'list' or 'where'");
             if (SqlKeywords.isListKeyword(tok)) {
@@ -1090,6 +1196,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.CONVERT:
+                alterOperationBuilder = this.alterOperationBuilder.ofConvertPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1228,6 +1337,12 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 throw SqlException.$(paramNamePosition, "o3MaxLag must be non negative");
             }
             compiledQuery.ofAlter(alterOperationBuilder.ofSetO3MaxLag(tableNamePosition, tableToken, tableId, o3MaxLag).build());
+        } else if (isTtlKeyword(paramName)) {
+            long ttl = SqlUtil.expectMicros(value, paramNamePosition);
+            if (ttl < 0) {
+                throw SqlException.$(paramNamePosition, "ttl must be non negative");
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetTtl(tableNamePosition, tableToken, tableId, ttl).build());
         } else {
             throw SqlException.$(paramNamePosition, "unknown parameter '").put(paramName).put('\'');
         }
@@ -1352,6 +1467,63 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         );
     }
 
+    private RecordCursorFactory compileCopyExport(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        assert model.isExport();
+        executionContext.getSecurityContext().authorizeCopyExport();
+
+        final ExpressionNode fileNameNode = model.getFileName();
+        // copy the file name, the lexer is reused when the query is compiled
+        final String fileName = Chars.toString(GenericLexer.assertNoDots(GenericLexer.unquote(fileNameNode.token), fileNameNode.position));
+
+        // select on the source is authorized by the optimiser, same as for a plain query
+        final RecordCursorFactory base;
+        final QueryModel queryModel = model.getQueryModel();
+        if (queryModel != null) {
+            try {
+                base = codeGenerator.generate(optimiser.optimise(queryModel, executionContext, this), executionContext);
+            } catch (TableReferenceOutOfDateException e) {
+                throw SqlException.$(0, e.getFlyweightMessage());
+            }
+        } else {
+            base = query()
+                    .$("select * from '")
+                    .$(GenericLexer.unquote(model.getTarget().token))
+                    .$("'")
+                    .compile(executionContext).getRecordCursorFactory();
+        }
+
+        // the factory takes ownership of the base factory and frees it on error
+        return new CopyExportFactory(
+                configuration,
+                messageBus,
+                base,
+                () -> new PageFrameReduceTask(configuration, MemoryTag.NATIVE_SQL_COMPILER),
+                fileName,
+                model.isHeader(),
+                model.getDelimiter() < 0 ? ',' : (char) model.getDelimiter(),
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
+    private void compileCopyIn(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        final ExpressionNode target = model.getTarget();
+        final TableToken tableToken = executionContext.getTableTokenIfExists(GenericLexer.unquote(target.token));
+        if (tableToken == null) {
+            throw SqlException.tableDoesNotExist(target.position, target.token);
+        }
+        executionContext.getSecurityContext().authorizeInsert(tableToken);
+
+        final byte format = model.getFormat();
+        if (format == CopyInLoader.FORMAT_BINARY) {
+            throw SqlException.$(model.getFileName().position, "binary COPY format is not supported");
+        }
+        byte delimiter = model.getDelimiter();
+        if (delimiter < 0) {
+            delimiter = format == CopyInLoader.FORMAT_CSV ? (byte) ',' : (byte) '\t';
+        }
+        compiledQuery.ofCopyRemote(tableToken, format, delimiter, model.isHeader());
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1468,7 +1640,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 case ExecutionModel.QUERY:
                     LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
                     RecordCursorFactory factory = generateWithRetries((QueryModel) executionModel, executionContext, true);
-                    compiledQuery.of(factory);
+                    compiledQuery.of(factory, optimiser.getTableTokens());
                     break;
                 case ExecutionModel.CREATE_TABLE:
                     queryId = queryRegistry.register(query, executionContext);
@@ -1530,14 +1702,15 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
     }
 
     private void copy(SqlExecutionContext executionContext, CopyModel copyModel) throws SqlException {
-        if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
-            // no-op implementation
-            authorizeInsertForCopy(executionContext.getSecurityContext(), copyModel);
-            compiledQuery.ofCopyRemote();
+        if (copyModel.getFormat() > -1) {
+            // COPY FROM STDIN, data is received by the network protocol
+            compileCopyIn(executionContext, copyModel);
         } else {
             final RecordCursorFactory copyFactory;
             if (copyModel.isCancel()) {
                 copyFactory = compileCopyCancel(executionContext, copyModel);
+            } else if (copyModel.isExport()) {
+                copyFactory = compileCopyExport(executionContext, copyModel);
             } else {
                 copyFactory = compileCopy(executionContext.getSecurityContext(), copyModel);
             }
@@ -1785,6 +1958,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         try (TableReader rdr = executionContext.getReader(tableToken)) {
             model.setO3MaxLag(rdr.getO3MaxLag());
             model.setMaxUncommittedRows(rdr.getMaxUncommittedRows());
+            model.setTtl(rdr.getMetadata().getTtl());
             TableReaderMetadata rdrMetadata = rdr.getMetadata();
             for (int i = 0; i < rdrMetadata.getColumnCount(); i++) {
                 int columnType = rdrMetadata.getColumnType(i);
@@ -1826,6 +2000,38 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         return rowCount;
     }
 
+    private TableToken createMatView(
+            CreateTableModel model,
+            SqlExecutionContext executionContext,
+            int position,
+            CharSequence volumeAlias
+    ) throws SqlException {
+        final MatViewDefinition definition = model.getMatViewDefinition();
+        final TableToken baseTableToken = executionContext.getTableTokenIfExists(definition.getBaseTableName());
+        if (baseTableToken == null) {
+            throw SqlException.tableDoesNotExist(position, definition.getBaseTableName());
+        }
+        if (!baseTableToken.isWal()) {
+            throw SqlException.$(position, "materialized view base table must be a WAL table");
+        }
+        // transactions applied after this one are picked up by the refresh job
+        final long baseSeqTxn;
+        try (TableReader reader = executionContext.getReader(baseTableToken)) {
+            baseSeqTxn = reader.getTxFile().getSeqTxn();
+        }
+        final TableToken tableToken = createTableFromCursorExecutor(model, executionContext, position, volumeAlias);
+        try {
+            engine.getMatViewRegistry().createView(tableToken, definition, baseSeqTxn, mem, path);
+        } catch (CairoException e) {
+            LOG.error().$("could not create materialized view [view=").$(tableToken)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+            engine.drop(path, tableToken);
+            throw e;
+        }
+        return tableToken;
+    }
+
     private void createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws
             SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
@@ -1892,6 +2098,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     }
                     throw SqlException.$(name.position, "Could not create table, ").put(e.getFlyweightMessage());
                 }
+            } else if (createTableModel.getMatViewDefinition() != null) {
+                tableToken = createMatView(createTableModel, executionContext, name.position, volumeAlias);
             } else {
                 tableToken = createTableFromCursorExecutor(createTableModel, executionContext, name.position, volumeAlias);
             }
@@ -2783,6 +2991,17 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         if (PartitionBy.isPartitioned(model.getPartitionBy()) && model.getTimestampIndex() == -1 && metadata.getTimestampIndex() == -1) {
             throw SqlException.position(0).put("timestamp is not defined");
         }
+
+        // materialized views are deduplicated on the timestamp and the non-aggregate columns
+        if (model.getMatViewDefinition() != null) {
+            for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+                if (model.isDedupKey(i) && ColumnType.isVariableLength(metadata.getColumnType(i))) {
+                    throw SqlException.position(0).put("materialized view key column can only be fixed size column [column=").put(model.getColumnName(i))
+                            .put(", type=").put(ColumnType.nameOf(metadata.getColumnType(i))).put(']');
+                }
+            }
+            model.setDedupKeyFlag(metadata.getTimestampIndex());
+        }
     }
 
     protected static CharSequence expectToken(GenericLexer lexer, CharSequence expected) throws SqlException {
@@ -2990,6 +3209,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int CONVERT = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
@@ -3068,6 +3288,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             return timestampIndex;
         }
 
+        @Override
+        public long getTtl() {
+            return model.getTtl();
+        }
+
         @Override
         public boolean isDedupKey(int columnIndex) {
             return model.isDedupKey(columnIndex);
@@ -106,6 +106,8 @@ public class SqlOptimiser implements Mutable {
     private final ArrayDeque<ExpressionNode> sqlNodeStack = new ArrayDeque<>();
     private final ObjList<RecordCursorFactory> tableFactoriesInFlight = new ObjList<>();
     private final FlyweightCharSequence tableLookupSequence = new FlyweightCharSequence();
+    // tables the query was enumerated against, compiled query caches validate entries against them
+    private final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
     private final IntHashSet tablesSoFar = new IntHashSet();
     private final IntList tempCrossIndexes = new IntList();
     private final IntList tempCrosses = new IntList();
@@ -156,6 +158,7 @@ public class SqlOptimiser implements Mutable {
         clausesToSteal.clear();
         tmpCursorAliases.clear();
         tableFactoriesInFlight.clear();
+        tableTokens.clear();
         groupByAliases.clear();
         groupByNodes.clear();
         groupByUsed.clear();
@@ -189,6 +192,13 @@ public class SqlOptimiser implements Mutable {
         return -1;
     }
 
+    /**
+     * Returns tables whose metadata the last optimised query was enumerated from.
+     */
+    public ObjHashSet<TableToken> getTableTokens() {
+        return tableTokens;
+    }
+
     private static boolean isOrderedByDesignatedTimestamp(QueryModel model) {
         return model.getTimestamp() != null && model.getOrderBy().size() == 1
                 && Chars.equals(model.getOrderBy().getQuick(0).token, model.getTimestamp().token);
@@ -1791,6 +1801,7 @@ public class SqlOptimiser implements Mutable {
     private void enumerateColumns(QueryModel model, TableRecordMetadata metadata) throws SqlException {
         model.setMetadataVersion(metadata.getMetadataVersion());
         model.setTableId(metadata.getTableId());
+        tableTokens.add(metadata.getTableToken());
         copyColumnsFromMetadata(model, metadata, false);
         if (model.isUpdate()) {
             copyColumnTypesFromMetadata(model, metadata);
@@ -2033,7 +2044,7 @@ public class SqlOptimiser implements Mutable {
         return false;
     }
 
-    private boolean hasAggregates(ExpressionNode node) {
+    boolean hasAggregates(ExpressionNode node) {
         sqlNodeStack.clear();
 
         // pre-order iterative tree traversal
@@ -2128,10 +2139,97 @@ public class SqlOptimiser implements Mutable {
         }
     }
 
+    /**
+     * Checks that GROUP BY over the given SAMPLE BY model would run on the async
+     * group by factories. Parallel execution needs a table scan with page frame
+     * support and key, aggregate and filter functions that support parallelism,
+     * e.g. first(double) does not. Functions are parsed against the columns of the
+     * sampled model and asked for {@link Function#isParallelismSupported()}, which
+     * is what the code generator checks before choosing parallel GROUP BY.
+     */
+    private boolean isParallelGroupBySupported(QueryModel model, QueryModel nested, SqlExecutionContext executionContext) {
+        final ExpressionNode tableNameExpr = nested.getTableNameExpr();
+        if (tableNameExpr == null || tableNameExpr.type != LITERAL || nested.getNestedModel() != null) {
+            return false;
+        }
+
+        final ObjList<CharSequence> columnNames = nested.getBottomUpColumnNames();
+        final LowerCaseCharSequenceObjHashMap<QueryColumn> columnMap = nested.getAliasToColumnMap();
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            final CharSequence columnName = columnNames.getQuick(i);
+            final String name = Chars.toString(columnName);
+            final int type = columnMap.get(columnName).getColumnType();
+            if (ColumnType.isSymbol(type)) {
+                metadata.add(new TableColumnMetadata(name, type, false, 0, true, null));
+            } else {
+                metadata.add(new TableColumnMetadata(name, type));
+            }
+        }
+
+        if (nested.getWhereClause() != null && !isParallelismSupported(nested.getWhereClause(), metadata, executionContext)) {
+            return false;
+        }
+        final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            if (!isParallelismSupported(columns.getQuick(i).getAst(), metadata, executionContext)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isParallelismSupported(ExpressionNode node, RecordMetadata metadata, SqlExecutionContext executionContext) {
+        if (node.type == LITERAL || node.type == CONSTANT) {
+            return true;
+        }
+        if (!isParsableWithoutSideEffects(node)) {
+            return false;
+        }
+        Function function = null;
+        try {
+            function = functionParser.parseFunction(node, metadata, executionContext);
+            return function.isParallelismSupported();
+        } catch (SqlException | CairoException | ImplicitCastException e) {
+            // leave it to the code generator to report the error
+            return false;
+        } finally {
+            Misc.free(function);
+        }
+    }
+
+    /**
+     * Sub-queries and cursor functions would open tables when parsed, and bind
+     * variables would get their types defined ahead of the code generator.
+     */
+    private boolean isParsableWithoutSideEffects(ExpressionNode node) {
+        if (node == null) {
+            return true;
+        }
+        if (node.type == QUERY || node.type == BIND_VARIABLE) {
+            return false;
+        }
+        if (node.type == FUNCTION && functionParser.getFunctionFactoryCache().isCursor(node.token)) {
+            return false;
+        }
+        if (node.paramCount < 3) {
+            return isParsableWithoutSideEffects(node.lhs) && isParsableWithoutSideEffects(node.rhs);
+        }
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            if (!isParsableWithoutSideEffects(node.args.getQuick(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean isSimpleIntegerColumn(ExpressionNode column, QueryModel model) {
         return checkSimpleIntegerColumn(column, model) != null;
     }
 
+    /**
+     * @return type of the column referenced by the literal or -1 when the node is not a column of the model
+     */
     private ExpressionNode makeJoinAlias() {
         CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
         characterStoreEntry.put(QueryModel.SUB_QUERY_ALIAS_PREFIX).put(defaultAliasCount++);
@@ -4108,6 +4206,127 @@ public class SqlOptimiser implements Mutable {
         }
     }
 
+    /**
+     * Rewrites SAMPLE BY FILL(NONE) ALIGN TO CALENDAR queries into GROUP BY over
+     * timestamp_floor() key ordered by the bucket timestamp, e.g.
+     * <pre>
+     * select ts, s, avg(x) from t sample by 1h align to calendar with offset '00:15'
+     * </pre>
+     * becomes
+     * <pre>
+     * select timestamp_floor('1h', ts, '00:15') ts, s, avg(x) from t order by ts
+     * </pre>
+     * Unlike SAMPLE BY, keyed GROUP BY is executed in parallel by reducing page frames
+     * into per-worker maps and merging them afterwards.
+     * Time zones, FILL and ALIGN TO FIRST OBSERVATION keep using SAMPLE BY factories,
+     * as do queries that would not qualify for parallel GROUP BY. Join sides are left
+     * alone too, join factories depend on cursor capabilities of the SAMPLE BY side.
+     */
+    private void rewriteSampleBy(QueryModel model, boolean joinSide, SqlExecutionContext executionContext) {
+        if (model == null) {
+            return;
+        }
+
+        final ObjList<QueryModel> joinModels = model.getJoinModels();
+        for (int i = 1, n = joinModels.size(); i < n; i++) {
+            rewriteSampleBy(joinModels.getQuick(i), true, executionContext);
+        }
+        rewriteSampleBy(model.getUnionModel(), joinSide, executionContext);
+
+        final QueryModel nested = model.getNestedModel();
+        if (nested == null) {
+            return;
+        }
+        rewriteSampleBy(nested, joinSide || joinModels.size() > 1, executionContext);
+
+        final ExpressionNode sampleBy = nested.getSampleBy();
+        if (
+                joinSide
+                        || sampleBy == null
+                        || nested.getSampleByUnit() != null
+                        || nested.getSampleByTimezoneName() != null
+                        || nested.getSampleByOffset() == null
+                        || nested.getSampleByOffset().type != CONSTANT
+                        || nested.getTimestamp() == null
+                        || nested.getJoinModels().size() > 1
+                        || nested.getGroupBy().size() > 0
+                        || nested.getLatestBy().size() > 0
+                        || model.isDistinct()
+                        || !hasAggregateQueryColumn(model)
+        ) {
+            return;
+        }
+
+        final ObjList<ExpressionNode> fill = nested.getSampleByFill();
+        final int fillCount = fill.size();
+        if (fillCount > 1 || (fillCount == 1 && !SqlKeywords.isNoneKeyword(fill.getQuick(0).token))) {
+            return;
+        }
+
+        final CharSequence timestamp = nested.getTimestamp().token;
+        final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+        QueryColumn timestampColumn = null;
+        boolean allFirstLast = true;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc.isWindowColumn()) {
+                return;
+            }
+            final ExpressionNode ast = qc.getAst();
+            if (ast.type == LITERAL) {
+                if (Chars.equalsIgnoreCase(ast.token, timestamp)) {
+                    if (timestampColumn != null) {
+                        // timestamp is selected more than once, leave it to sample by
+                        return;
+                    }
+                    timestampColumn = qc;
+                }
+            } else if (!SqlKeywords.isFirstKeyword(ast.token) && !SqlKeywords.isLastKeyword(ast.token)) {
+                allFirstLast = false;
+            }
+        }
+
+        if (timestampColumn == null) {
+            // without timestamp in the select list there is nothing to group by
+            return;
+        }
+
+        if (allFirstLast && nested.getWhereClause() != null) {
+            // filtered first()/last() sample by can use symbol index, which beats parallel scan
+            return;
+        }
+
+        if (!isParallelGroupBySupported(model, nested, executionContext)) {
+            // single-threaded GROUP BY followed by a sort is slower than SAMPLE BY
+            return;
+        }
+
+        final CharacterStoreEntry e = characterStore.newEntry();
+        e.put('\'').put(sampleBy.token).put('\'');
+        final ExpressionNode interval = expressionNodePool.next().of(CONSTANT, e.toImmutable(), 0, sampleBy.position);
+        final ExpressionNode offset = expressionNodePool.next().of(
+                CONSTANT,
+                nested.getSampleByOffset().token,
+                0,
+                nested.getSampleByOffset().position
+        );
+        final ExpressionNode timestampAst = timestampColumn.getAst();
+        final ExpressionNode floor = expressionNodePool.next().of(FUNCTION, "timestamp_floor", 0, timestampAst.position);
+        floor.paramCount = 3;
+        // function arguments are stored in reverse order
+        floor.args.add(offset);
+        floor.args.add(timestampAst);
+        floor.args.add(interval);
+        timestampColumn.of(timestampColumn.getAlias(), floor);
+
+        nested.clearSampleBy();
+        if (nested.getOrderBy().size() == 0) {
+            // rows come out ordered by bucket timestamp, so it remains the designated timestamp
+            nested.addOrderBy(nextLiteral(timestampColumn.getAlias()), QueryModel.ORDER_DIRECTION_ASCENDING);
+            model.setOrderByTimestampDesignated(true);
+        }
+    }
+
     // flatParent = true means that parent model does not have selected columns
     private QueryModel rewriteSelectClause(
             QueryModel model,
@@ -4791,6 +5010,7 @@ public class SqlOptimiser implements Mutable {
             root.setUnionModel(model.getUnionModel());
             root.setSetOperationType(model.getSetOperationType());
             root.setModelPosition(model.getModelPosition());
+            root.setOrderByTimestampDesignated(model.isOrderByTimestampDesignated());
             if (model.isUpdate()) {
                 root.setIsUpdate(true);
                 root.copyUpdateTableMetadata(model);
@@ -5078,6 +5298,9 @@ public class SqlOptimiser implements Mutable {
             rewrittenModel = moveOrderByFunctionsIntoOuterSelect(rewrittenModel);
             resolveJoinColumns(rewrittenModel);
             optimiseBooleanNot(rewrittenModel);
+            if (configuration.isSqlParallelGroupByEnabled()) {
+                rewriteSampleBy(rewrittenModel, false, sqlExecutionContext);
+            }
             rewrittenModel = rewriteSelectClause(rewrittenModel, true, sqlExecutionContext, sqlParserCallback);
             optimiseJoins(rewrittenModel);
             rewriteCountDistinct(rewrittenModel);
@@ -28,7 +28,10 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.cutlass.text.Atomicity;
+import io.questdb.cutlass.text.CopyInLoader;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
@@ -61,6 +64,7 @@ public class SqlParser {
     private final ExpressionParser expressionParser;
     private final ExpressionTreeBuilder expressionTreeBuilder;
     private final ObjectPool<InsertModel> insertModelPool;
+    private final IntList matViewKeyColumns = new IntList();
     private final SqlOptimiser optimiser;
     private final ObjectPool<QueryColumn> queryColumnPool;
     private final ObjectPool<QueryModel> queryModelPool;
@@ -171,6 +175,12 @@ public class SqlParser {
         }
     }
 
+    private void assertCopyEnabled(int position) throws SqlException {
+        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
+            throw SqlException.$(position, "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        }
+    }
+
     private void assertNotDot(GenericLexer lexer, CharSequence tok) throws SqlException {
         if (Chars.indexOf(tok, '.') != -1) {
             throw SqlException.$(lexer.lastTokenPosition(), "'.' is not allowed here");
@@ -425,13 +435,57 @@ public class SqlParser {
     }
 
     private ExecutionModel parseCopy(GenericLexer lexer, SqlParserCallback sqlParserCallback) throws SqlException {
-        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        final int copyPosition = lexer.lastTokenPosition();
+        ExpressionNode target = null;
+        QueryModel queryModel = null;
+        CharSequence tok = tok(lexer, "table name or '('");
+        if (Chars.equals(tok, '(')) {
+            queryModel = parseAsSubQueryAndExpectClosingBrace(lexer, null, true, sqlParserCallback);
+        } else {
+            lexer.unparseLast();
+            target = expectExpr(lexer, sqlParserCallback);
+        }
+        tok = tok(lexer, "'from' or 'to' or 'cancel'");
+
+        if (isToKeyword(tok)) {
+            assertCopyEnabled(copyPosition);
+            final ExpressionNode fileName = expectExpr(lexer, sqlParserCallback);
+            if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
+                throw SqlException.$(fileName.position, "file name expected");
+            }
+
+            CopyModel model = copyModelPool.next();
+            model.setExport(true);
+            model.setTarget(target);
+            model.setQueryModel(queryModel);
+            model.setFileName(fileName);
+
+            tok = optTok(lexer);
+            if (tok != null && isWithKeyword(tok)) {
+                tok = tok(lexer, "copy option");
+                while (tok != null && !isSemicolon(tok)) {
+                    if (isHeaderKeyword(tok)) {
+                        model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
+                        tok = optTok(lexer);
+                    } else if (isDelimiterKeyword(tok)) {
+                        model.setDelimiter(parseCopyDelimiter(lexer));
+                        tok = optTok(lexer);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                    }
+                }
+            } else if (tok != null && !SqlKeywords.isSemicolon(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'with' expected");
+            }
+            return model;
+        }
+
+        if (queryModel != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'to' expected");
         }
-        ExpressionNode target = expectExpr(lexer, sqlParserCallback);
-        CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
 
         if (isCancelKeyword(tok)) {
+            assertCopyEnabled(copyPosition);
             CopyModel model = copyModelPool.next();
             model.setCancel(true);
             model.setTarget(target);
@@ -448,6 +502,16 @@ public class SqlParser {
             model.setTarget(target);
             model.setFileName(fileName);
 
+            if (fileName.type == ExpressionNode.LITERAL && isStdinKeyword(fileName.token)) {
+                // data is streamed by the client, file system is not involved
+                if (target.type != ExpressionNode.LITERAL) {
+                    throw SqlException.$(target.position, "table name expected");
+                }
+                parseCopyFromStdinOptions(lexer, model);
+                return model;
+            }
+            assertCopyEnabled(copyPosition);
+
             tok = optTok(lexer);
             if (tok != null && isWithKeyword(tok)) {
                 tok = tok(lexer, "copy option");
@@ -491,16 +555,7 @@ public class SqlParser {
                         }
                         tok = optTok(lexer);
                     } else if (isDelimiterKeyword(tok)) {
-                        tok = tok(lexer, "timestamp character expected");
-                        CharSequence delimiter = GenericLexer.immutableOf(GenericLexer.unquote(tok));
-                        if (delimiter == null || delimiter.length() != 1) {
-                            throw SqlException.$(lexer.getPosition(), "delimiter is empty or contains more than 1 character");
-                        }
-                        char delimiterChar = delimiter.charAt(0);
-                        if (delimiterChar > 127) {
-                            throw SqlException.$(lexer.getPosition(), "delimiter is not an ascii character");
-                        }
-                        model.setDelimiter((byte) delimiterChar);
+                        model.setDelimiter(parseCopyDelimiter(lexer));
                         tok = optTok(lexer);
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
@@ -514,12 +569,206 @@ public class SqlParser {
         throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
     }
 
+    private void parseCopyFromStdinOptions(GenericLexer lexer, CopyModel model) throws SqlException {
+        // both the current "WITH (FORMAT csv, HEADER true)" and the legacy
+        // "WITH CSV HEADER" option syntax are supported
+        model.setFormat(CopyInLoader.FORMAT_TEXT);
+        CharSequence tok = optTok(lexer);
+        if (tok != null && isWithKeyword(tok)) {
+            tok = tok(lexer, "copy option");
+        }
+        if (tok != null && Chars.equals(tok, '(')) {
+            do {
+                tok = tok(lexer, "copy option");
+                if (isFormatKeyword(tok)) {
+                    tok = tok(lexer, "'text', 'csv' or 'binary'");
+                    if (isTextKeyword(tok)) {
+                        model.setFormat(CopyInLoader.FORMAT_TEXT);
+                    } else if (isCsvKeyword(tok)) {
+                        model.setFormat(CopyInLoader.FORMAT_CSV);
+                    } else if (isBinaryKeyword(tok)) {
+                        model.setFormat(CopyInLoader.FORMAT_BINARY);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'text', 'csv' or 'binary' expected");
+                    }
+                    tok = tok(lexer, "',' or ')'");
+                } else if (isHeaderKeyword(tok)) {
+                    tok = tok(lexer, "',' or ')'");
+                    if (Chars.equals(tok, ',') || Chars.equals(tok, ')')) {
+                        model.setHeader(true);
+                    } else {
+                        model.setHeader(isTrueKeyword(tok));
+                        tok = tok(lexer, "',' or ')'");
+                    }
+                } else if (isDelimiterKeyword(tok)) {
+                    model.setDelimiter(parseCopyDelimiter(lexer));
+                    tok = tok(lexer, "',' or ')'");
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                }
+            } while (Chars.equals(tok, ','));
+            if (!Chars.equals(tok, ')')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "')' expected");
+            }
+            tok = optTok(lexer);
+        } else {
+            while (tok != null && !isSemicolon(tok)) {
+                if (isCsvKeyword(tok)) {
+                    model.setFormat(CopyInLoader.FORMAT_CSV);
+                } else if (isBinaryKeyword(tok)) {
+                    model.setFormat(CopyInLoader.FORMAT_BINARY);
+                } else if (isHeaderKeyword(tok)) {
+                    model.setHeader(true);
+                } else if (isDelimiterKeyword(tok)) {
+                    tok = tok(lexer, "delimiter character");
+                    if (!isAsKeyword(tok)) {
+                        lexer.unparseLast();
+                    }
+                    model.setDelimiter(parseCopyDelimiter(lexer));
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                }
+                tok = optTok(lexer);
+            }
+        }
+        if (tok != null && !isSemicolon(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token");
+        }
+    }
+
+    private byte parseCopyDelimiter(GenericLexer lexer) throws SqlException {
+        CharSequence tok = tok(lexer, "timestamp character expected");
+        CharSequence delimiter = GenericLexer.immutableOf(GenericLexer.unquote(tok));
+        if (delimiter == null || delimiter.length() != 1) {
+            throw SqlException.$(lexer.getPosition(), "delimiter is empty or contains more than 1 character");
+        }
+        char delimiterChar = delimiter.charAt(0);
+        if (delimiterChar > 127) {
+            throw SqlException.$(lexer.getPosition(), "delimiter is not an ascii character");
+        }
+        return (byte) delimiterChar;
+    }
+
+    private ExecutionModel parseCreateMatView(GenericLexer lexer, SqlExecutionContext executionContext, SqlParserCallback sqlParserCallback) throws SqlException {
+        // views are WAL tables, the refresh relies on deduplication
+        if (!configuration.isWalSupported()) {
+            throw SqlException.$(lexer.lastTokenPosition(), "materialized views require WAL support");
+        }
+        final CreateTableModel model = createTableModelPool.next();
+        final CharSequence viewName;
+        CharSequence tok = tok(lexer, "view name or 'if'");
+        if (SqlKeywords.isIfKeyword(tok)) {
+            if (SqlKeywords.isNotKeyword(tok(lexer, "'not'")) && SqlKeywords.isExistsKeyword(tok(lexer, "'exists'"))) {
+                model.setIgnoreIfExists(true);
+                viewName = tok(lexer, "view name");
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "'if not exists' expected");
+            }
+        } else {
+            viewName = tok;
+        }
+        assertTableNameIsQuotedOrNotAKeyword(viewName, lexer.lastTokenPosition());
+        model.setName(nextLiteral(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(viewName), lexer.lastTokenPosition()), lexer.lastTokenPosition()));
+
+        expectTok(lexer, "as");
+        expectTok(lexer, '(');
+        final int queryLo = lexer.getPosition();
+        final QueryModel queryModel = parseDml(lexer, null, queryLo, true, sqlParserCallback);
+        expectTok(lexer, ')');
+        final String query = Chars.toString(lexer.getContent(), queryLo, lexer.lastTokenPosition());
+
+        // the view is refreshed by recomputing the calendar aligned buckets of a single table
+        final QueryModel fromModel = queryModel.getNestedModel();
+        final ExpressionNode baseTableName = fromModel != null ? fromModel.getTableNameExpr() : null;
+        if (
+                baseTableName == null
+                        || baseTableName.type != ExpressionNode.LITERAL
+                        || fromModel.getNestedModel() != null
+                        || fromModel.getJoinModels().size() > 1
+                        || fromModel.getLatestBy().size() > 0
+                        || queryModel.getUnionModel() != null
+                        || queryModel.getLimitLo() != null
+        ) {
+            throw SqlException.$(queryLo, "materialized view query must select from a single table");
+        }
+        final ExpressionNode sampleBy = fromModel.getSampleBy();
+        if (sampleBy == null || fromModel.getSampleByUnit() != null || fromModel.getSampleByFill().size() > 0) {
+            throw SqlException.$(queryLo, "materialized view query must be SAMPLE BY with a constant interval and no FILL");
+        }
+        final ExpressionNode sampleByOffset = fromModel.getSampleByOffset();
+        if (fromModel.getSampleByTimezoneName() != null || sampleByOffset == null || !Chars.equals(sampleByOffset.token, ZERO_OFFSET.token)) {
+            throw SqlException.$(sampleBy.position, "materialized view query must be aligned to calendar without time zone and offset");
+        }
+        TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+
+        // rows of the view are keyed by the timestamp and the non-aggregate columns
+        final ObjList<QueryColumn> rawColumns = queryModel.getBottomUpColumns();
+        matViewKeyColumns.clear();
+        for (int i = 0, n = rawColumns.size(); i < n; i++) {
+            if (!optimiser.hasAggregates(rawColumns.getQuick(i).getAst())) {
+                matViewKeyColumns.add(i);
+            }
+        }
+
+        final int baseTableNameLo = baseTableName.position - queryLo;
+        int baseTableNameHi = baseTableNameLo + baseTableName.token.length();
+        final char quote = query.charAt(baseTableNameLo);
+        if ((quote == '"' || quote == '\'') && baseTableName.token.charAt(0) != quote) {
+            baseTableNameHi += 2;
+        }
+        model.setMatViewDefinition(new MatViewDefinition(
+                Chars.toString(GenericLexer.unquote(baseTableName.token)),
+                baseTableNameLo,
+                baseTableNameHi,
+                fromModel.getAlias() != null,
+                query,
+                Chars.toString(sampleBy.token)
+        ));
+
+        final QueryModel optimisedModel = optimiser.optimise(queryModel, executionContext, sqlParserCallback);
+        final ObjList<QueryColumn> columns = optimisedModel.getBottomUpColumns();
+        assert columns.size() == rawColumns.size();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            model.addColumn(columns.getQuick(i).getName(), -1, configuration.getDefaultSymbolCapacity());
+        }
+        for (int i = 0, n = matViewKeyColumns.size(); i < n; i++) {
+            model.setDedupKeyFlag(matViewKeyColumns.getQuick(i));
+        }
+        model.setQueryModel(optimisedModel);
+
+        tok = optTok(lexer);
+        final ExpressionNode partitionBy = parseCreateTablePartition(lexer, tok);
+        if (partitionBy != null) {
+            final int partitionByValue = PartitionBy.fromString(partitionBy.token);
+            if (partitionByValue == -1 || !PartitionBy.isPartitioned(partitionByValue)) {
+                throw SqlException.$(partitionBy.position, "'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
+            }
+            model.setPartitionBy(partitionBy);
+            tok = optTok(lexer);
+        } else {
+            model.setPartitionBy(nextLiteral("DAY", queryLo));
+        }
+        model.setWalEnabled(true);
+        model.setMaxUncommittedRows(configuration.getMaxUncommittedRows());
+        model.setO3MaxLag(configuration.getO3MaxLag());
+
+        if (tok == null || Chars.equals(tok, ';')) {
+            return model;
+        }
+        throw errUnexpected(lexer, tok);
+    }
+
     private ExecutionModel parseCreateStatement(
             GenericLexer lexer,
             SqlExecutionContext executionContext,
             SqlParserCallback sqlParserCallback
     ) throws SqlException {
-        expectTok(lexer, "table");
+        final CharSequence tok = tok(lexer, "'table'");
+        if (isMaterializedKeyword(tok)) {
+            expectTok(lexer, "view");
+            return parseCreateMatView(lexer, executionContext, sqlParserCallback);
+        }
+        expectTok(lexer, tok, "table");
         return parseCreateTable(lexer, executionContext, sqlParserCallback);
     }
 
@@ -624,6 +873,7 @@ public class SqlParser {
 
         int maxUncommittedRows = configuration.getMaxUncommittedRows();
         long o3MaxLag = configuration.getO3MaxLag();
+        long ttl = 0;
 
         if (tok != null && isWithKeyword(tok)) {
             ExpressionNode expr;
@@ -637,6 +887,11 @@ public class SqlParser {
                         }
                     } else if (isO3MaxLagKeyword(expr.lhs.token)) {
                         o3MaxLag = SqlUtil.expectMicros(expr.rhs.token, lexer.getPosition());
+                    } else if (isTtlKeyword(expr.lhs.token)) {
+                        ttl = SqlUtil.expectMicros(expr.rhs.token, lexer.getPosition());
+                        if (ttl > 0 && !PartitionBy.isPartitioned(model.getPartitionBy())) {
+                            throw SqlException.position(expr.lhs.position).put("TTL is supported only on partitioned tables");
+                        }
                     } else {
                         throw SqlException.position(lexer.getPosition()).put(" unrecognized ").put(expr.lhs.token).put(" after WITH");
                     }
@@ -657,6 +912,7 @@ public class SqlParser {
         }
         model.setMaxUncommittedRows(maxUncommittedRows);
         model.setO3MaxLag(o3MaxLag);
+        model.setTtl(ttl);
 
         if (tok != null && isInKeyword(tok)) {
             tok = tok(lexer, "volume");
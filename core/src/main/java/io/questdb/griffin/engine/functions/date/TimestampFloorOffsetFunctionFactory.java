@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.date;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+import static io.questdb.std.datetime.microtime.Timestamps.MINUTE_MICROS;
+import static io.questdb.std.datetime.microtime.Timestamps.parseOffset;
+
+/**
+ * timestamp_floor(interval, timestamp, offset) floors timestamp to the start of
+ * the interval bucket, where buckets are aligned to the given offset, e.g. '00:15'.
+ * Interval uses SAMPLE BY notation, such as '15m' or '3h', and bucket boundaries
+ * match those of SAMPLE BY ... ALIGN TO CALENDAR WITH OFFSET, which allows
+ * the optimiser to rewrite such queries into parallel GROUP BY.
+ */
+public class TimestampFloorOffsetFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "timestamp_floor(sNs)";
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final CharSequence interval = args.getQuick(0).getStr(null);
+        if (interval == null) {
+            throw SqlException.position(argPositions.getQuick(0)).put("invalid unit 'null'");
+        }
+        final String intervalStr = interval.toString();
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(intervalStr, argPositions.getQuick(0));
+
+        final CharSequence offset = args.getQuick(2).getStr(null);
+        final String offsetStr;
+        long offsetMicros = 0;
+        if (offset != null) {
+            final long val = parseOffset(offset);
+            if (val == Numbers.LONG_NaN) {
+                throw SqlException.position(argPositions.getQuick(2)).put("invalid offset: ").put(offset);
+            }
+            offsetMicros = Numbers.decodeLowInt(val) * MINUTE_MICROS;
+            offsetStr = offset.toString();
+        } else {
+            offsetStr = "00:00";
+        }
+        sampler.setStart(offsetMicros);
+        return new TimestampFloorOffsetFunction(args.getQuick(1), sampler, intervalStr, offsetStr);
+    }
+
+    private static class TimestampFloorOffsetFunction extends TimestampFunction implements UnaryFunction {
+        private final Function arg;
+        private final String interval;
+        private final String offset;
+        private final TimestampSampler sampler;
+
+        public TimestampFloorOffsetFunction(Function arg, TimestampSampler sampler, String interval, String offset) {
+            this.arg = arg;
+            this.sampler = sampler;
+            this.interval = interval;
+            this.offset = offset;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            final long micros = arg.getTimestamp(rec);
+            return micros == Numbers.LONG_NaN ? Numbers.LONG_NaN : sampler.round(micros);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("timestamp_floor('").val(interval).val("',").val(arg).val(",'").val(offset).val("')");
+        }
+    }
+}
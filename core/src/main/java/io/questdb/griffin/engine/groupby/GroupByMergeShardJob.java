@@ -26,7 +26,7 @@ package io.questdb.griffin.engine.groupby;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
-import io.questdb.griffin.engine.table.AsyncGroupByAtom;
+import io.questdb.griffin.engine.table.ShardedAtom;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.AbstractQueueConsumerJob;
@@ -44,7 +44,7 @@ public class GroupByMergeShardJob extends AbstractQueueConsumerJob<GroupByMergeS
     public static void run(int workerId, GroupByMergeShardTask task, Sequence subSeq, long cursor) {
         final AtomicBooleanCircuitBreaker circuitBreaker = task.getCircuitBreaker();
         final CountDownLatchSPI doneLatch = task.getDoneLatch();
-        final AsyncGroupByAtom atom = task.getAtom();
+        final ShardedAtom atom = task.getAtom();
         final int shardIndex = task.getShardIndex();
 
         task.clear();
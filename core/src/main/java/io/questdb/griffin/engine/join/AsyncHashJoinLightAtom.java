@@ -0,0 +1,511 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.table.ShardedAtom;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Holds the state of a parallel hash join build. Each worker slot accumulates slave row ids
+ * in its own particle, i.e. a key map plus a row id chain. Map values are the usual light
+ * hash join triplets: chain head offset, chain tail offset and row count. Large particles
+ * are split into shards, so that the shards can be merged in parallel once the build is done.
+ * <p>
+ * Workers pick up page frames in no particular order, so the merge sorts the row ids of each
+ * key. Row ids carry the frame index in their high bits, hence the sorted chains list slave
+ * rows in frame order, the same order the serial {@link HashJoinLightRecordCursorFactory}
+ * produces.
+ */
+public class AsyncHashJoinLightAtom implements StatefulAtom, ShardedAtom, Closeable, Reopenable {
+    // We use the first 8 bits of a hash code to determine the shard, hence 128 as the max number of shards.
+    private static final int MAX_SHARDS = 128;
+    private final CairoConfiguration configuration;
+    private final ColumnTypes keyTypes;
+    private final Particle ownerParticle;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Particle> perWorkerParticles;
+    private final int shardCount;
+    private final int shardCountShr;
+    private final int shardingThreshold;
+    private final RecordSink slaveKeySink;
+    private final ColumnTypes valueTypes;
+    private LongChain probeChain;
+    private volatile boolean sharded;
+
+    public AsyncHashJoinLightAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink slaveKeySink,
+            int workerCount
+    ) {
+        // We don't want to pay for merging redundant maps, so we limit their number.
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.configuration = configuration;
+            this.keyTypes = new ArrayColumnTypes().addAll(keyTypes);
+            this.valueTypes = new ArrayColumnTypes().addAll(valueTypes);
+            this.slaveKeySink = slaveKeySink;
+            this.shardingThreshold = configuration.getGroupByShardingThreshold();
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+
+            shardCount = Math.min(Numbers.ceilPow2(2 * workerCount), MAX_SHARDS);
+            shardCountShr = Integer.numberOfLeadingZeros(shardCount) + 1;
+            ownerParticle = new Particle();
+            perWorkerParticles = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerParticles.extendAndSet(i, new Particle());
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own particle anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public int acquire(int workerId, ExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1) {
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        sharded = false;
+        ownerParticle.close();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            Misc.free(p);
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerParticle);
+        Misc.freeObjList(perWorkerParticles);
+    }
+
+    /**
+     * Returns the number of slave rows matching the given master record.
+     * Thread-unsafe, should be used by query owner thread only once the maps are merged.
+     */
+    public long findRowIdCount(Record masterRecord, RecordSink masterSink) {
+        final MapValue value = findValue(masterRecord, masterSink);
+        return value != null ? value.getLong(2) : 0;
+    }
+
+    /**
+     * Looks up the chain of slave row ids matching the given master record.
+     * Thread-unsafe, should be used by query owner thread only once the maps are merged.
+     *
+     * @param masterRecord master record
+     * @param masterSink   sink used to copy join key columns from the master record
+     * @return chain cursor positioned at the first row id or null when there is no match
+     */
+    public LongChain.TreeCursor findRowIds(Record masterRecord, RecordSink masterSink) {
+        final MapValue value = findValue(masterRecord, masterSink);
+        if (value == null) {
+            return null;
+        }
+        return probeChain.getCursor(value.getLong(0));
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public Particle getOwnerParticle() {
+        return ownerParticle;
+    }
+
+    public Particle getParticle(int slotId) {
+        if (slotId == -1) {
+            return ownerParticle;
+        }
+        return perWorkerParticles.getQuick(slotId);
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public ObjList<Particle> getPerWorkerParticles() {
+        return perWorkerParticles;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public RecordSink getSlaveKeySink() {
+        return slaveKeySink;
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    /**
+     * Merges non-sharded per-worker particles into the owner particle. Thread-unsafe,
+     * should be used by query owner thread only.
+     */
+    public void mergeNonSharded() {
+        assert !sharded;
+
+        final Map destMap = ownerParticle.getMap();
+        final LongChain destChain = ownerParticle.getChain();
+        final int perWorkerMapCount = perWorkerParticles.size();
+
+        long sizeEstimate = destMap.size();
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            sizeEstimate += perWorkerParticles.getQuick(i).getMap().size();
+        }
+
+        if (sizeEstimate > 0) {
+            destMap.setKeyCapacity((int) sizeEstimate);
+        }
+
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Particle srcParticle = perWorkerParticles.getQuick(i);
+            merge(srcParticle.getMap(), srcParticle.getChain(), destMap, destChain);
+            srcParticle.getMap().close();
+            srcParticle.getChain().close();
+        }
+        sortRowIds(destMap, destChain, ownerParticle.rowIds);
+    }
+
+    @Override
+    public void mergeShard(int slotId, int shardIndex) {
+        assert sharded;
+
+        final Map destMap = ownerParticle.getShardMaps().getQuick(shardIndex);
+        final LongChain destChain = ownerParticle.getShardChains().getQuick(shardIndex);
+        final int perWorkerMapCount = perWorkerParticles.size();
+
+        long sizeEstimate = destMap.size();
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Particle srcParticle = perWorkerParticles.getQuick(i);
+            sizeEstimate += srcParticle.getShardMaps().getQuick(shardIndex).size();
+        }
+
+        if (sizeEstimate > 0) {
+            // Pre-size the destination map, so that we don't have to resize it later.
+            destMap.setKeyCapacity((int) sizeEstimate);
+        }
+
+        for (int i = 0; i < perWorkerMapCount; i++) {
+            final Particle srcParticle = perWorkerParticles.getQuick(i);
+            final Map srcMap = srcParticle.getShardMaps().getQuick(shardIndex);
+            final LongChain srcChain = srcParticle.getShardChains().getQuick(shardIndex);
+            merge(srcMap, srcChain, destMap, destChain);
+            srcMap.close();
+            srcChain.close();
+        }
+        sortRowIds(destMap, destChain, getParticle(slotId).rowIds);
+    }
+
+    @Override
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        ownerParticle.reopen();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            p.reopen();
+        }
+    }
+
+    public void shardAll() {
+        ownerParticle.shard();
+        for (int i = 0, n = perWorkerParticles.size(); i < n; i++) {
+            Particle p = perWorkerParticles.getQuick(i);
+            p.shard();
+        }
+    }
+
+    public void tryShard(Particle particle) {
+        if (particle.isSharded()) {
+            return;
+        }
+        if (particle.getMap().size() > shardingThreshold || sharded) {
+            particle.shard();
+            sharded = true;
+        }
+    }
+
+    private static void appendRowId(MapValue value, LongChain chain, long rowId) {
+        if (value.isNew()) {
+            final long offset = chain.put(rowId, -1);
+            value.putLong(0, offset);
+            value.putLong(1, offset);
+            value.putLong(2, 1);
+        } else {
+            value.putLong(1, chain.put(rowId, value.getLong(1)));
+            value.addLong(2, 1);
+        }
+    }
+
+    private static void copyRowIds(MapRecord srcRecord, LongChain srcChain, MapValue destValue, LongChain destChain) {
+        final MapValue srcValue = srcRecord.getValue();
+        final LongChain.TreeCursor srcCursor = srcChain.getCursor(srcValue.getLong(0));
+        long tail;
+        if (destValue.isNew()) {
+            tail = destChain.put(srcCursor.next(), -1);
+            destValue.putLong(0, tail);
+            destValue.putLong(2, srcValue.getLong(2));
+        } else {
+            tail = destValue.getLong(1);
+            destValue.addLong(2, srcValue.getLong(2));
+        }
+        while (srcCursor.hasNext()) {
+            tail = destChain.put(srcCursor.next(), tail);
+        }
+        destValue.putLong(1, tail);
+    }
+
+    private static void merge(Map srcMap, LongChain srcChain, Map destMap, LongChain destChain) {
+        if (srcMap.size() == 0) {
+            return;
+        }
+        final RecordCursor srcCursor = srcMap.getCursor();
+        final MapRecord srcRecord = srcMap.getRecord();
+        while (srcCursor.hasNext()) {
+            final MapKey destKey = destMap.withKey();
+            srcRecord.copyToKey(destKey);
+            copyRowIds(srcRecord, srcChain, destKey.createValue(srcRecord.keyHashCode()), destChain);
+        }
+    }
+
+    private static void sortRowIds(Map map, LongChain chain, DirectLongList rowIds) {
+        if (map.size() == 0) {
+            return;
+        }
+        final RecordCursor cursor = map.getCursor();
+        final MapRecord record = map.getRecord();
+        while (cursor.hasNext()) {
+            final MapValue value = record.getValue();
+            if (value.getLong(2) < 2) {
+                continue;
+            }
+            final long headOffset = value.getLong(0);
+            final LongChain.TreeCursor chainCursor = chain.getCursor(headOffset);
+            rowIds.clear();
+            boolean sorted = true;
+            long prev = -1;
+            while (chainCursor.hasNext()) {
+                final long rowId = chainCursor.next();
+                sorted &= rowId > prev;
+                prev = rowId;
+                rowIds.add(rowId);
+            }
+            if (!sorted) {
+                rowIds.sortAsUnsigned();
+                chain.setValues(headOffset, rowIds);
+            }
+        }
+    }
+
+    private MapValue findValue(Record masterRecord, RecordSink masterSink) {
+        if (!sharded) {
+            final MapKey key = ownerParticle.getMap().withKey();
+            masterSink.copy(masterRecord, key);
+            probeChain = ownerParticle.getChain();
+            return key.findValue();
+        }
+
+        // The first map is used to write keys.
+        final Map lookupShard = ownerParticle.getShardMaps().getQuick(0);
+        final MapKey lookupKey = lookupShard.withKey();
+        masterSink.copy(masterRecord, lookupKey);
+        lookupKey.commit();
+        final int hashCode = lookupKey.hash();
+        final int shardIndex = hashCode >>> shardCountShr;
+
+        final Map shard = ownerParticle.getShardMaps().getQuick(shardIndex);
+        final MapKey shardKey;
+        if (shard != lookupShard) {
+            shardKey = shard.withKey();
+            shardKey.copyFrom(lookupKey);
+        } else {
+            shardKey = lookupKey;
+        }
+        probeChain = ownerParticle.getShardChains().getQuick(shardIndex);
+        return shardKey.findValue();
+    }
+
+    public class Particle implements Reopenable, QuietCloseable {
+        private final LongChain chain; // row ids referenced by this.map
+        private final Map map; // non-sharded partial result
+        private final DirectLongList rowIds; // used to sort row ids of a key when merging
+        private final ObjList<LongChain> shardChains; // this.chain split into shards
+        private final ObjList<Map> shards; // this.map split into shards
+        private boolean sharded;
+
+        private Particle() {
+            this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.chain = newChain();
+            this.rowIds = new DirectLongList(16, MemoryTag.NATIVE_DEFAULT);
+            this.shards = new ObjList<>(shardCount);
+            this.shardChains = new ObjList<>(shardCount);
+        }
+
+        /**
+         * Adds the current row of the given record to the particle.
+         */
+        public void add(Record record) {
+            if (!sharded) {
+                final MapKey key = map.withKey();
+                slaveKeySink.copy(record, key);
+                appendRowId(key.createValue(), chain, record.getRowId());
+                return;
+            }
+
+            // The first map is used to write keys.
+            final Map lookupShard = shards.getQuick(0);
+            final MapKey lookupKey = lookupShard.withKey();
+            slaveKeySink.copy(record, lookupKey);
+            lookupKey.commit();
+            final int hashCode = lookupKey.hash();
+            final int shardIndex = hashCode >>> shardCountShr;
+
+            final Map shard = shards.getQuick(shardIndex);
+            final MapKey shardKey;
+            if (shard != lookupShard) {
+                shardKey = shard.withKey();
+                shardKey.copyFrom(lookupKey);
+            } else {
+                shardKey = lookupKey;
+            }
+            appendRowId(shardKey.createValue(hashCode), shardChains.getQuick(shardIndex), record.getRowId());
+        }
+
+        @Override
+        public void close() {
+            sharded = false;
+            map.close();
+            chain.close();
+            rowIds.close();
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                Map m = shards.getQuick(i);
+                Misc.free(m);
+                LongChain c = shardChains.getQuick(i);
+                Misc.free(c);
+            }
+        }
+
+        public LongChain getChain() {
+            return chain;
+        }
+
+        public Map getMap() {
+            return map;
+        }
+
+        public ObjList<LongChain> getShardChains() {
+            return shardChains;
+        }
+
+        public ObjList<Map> getShardMaps() {
+            return shards;
+        }
+
+        public boolean isSharded() {
+            return sharded;
+        }
+
+        @Override
+        public void reopen() {
+            map.reopen();
+            chain.clear();
+            rowIds.reopen();
+        }
+
+        private LongChain newChain() {
+            return new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        }
+
+        private void reopenShards() {
+            // Expect that data volume will grow at least 2x.
+            int targetKeyCapacity = Math.max((int) (map.size() / shardCount) * 2, configuration.getSqlSmallMapKeyCapacity());
+            int targetPageSize = Math.max((int) (map.getUsedHeapSize() / shardCount) * 2, configuration.getSqlSmallMapPageSize());
+
+            int size = shards.size();
+            if (size == 0) {
+                for (int i = 0; i < shardCount; i++) {
+                    shards.add(MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes, targetKeyCapacity, targetPageSize));
+                    shardChains.add(newChain());
+                }
+            } else {
+                assert size == shardCount;
+                for (int i = 0; i < size; i++) {
+                    shards.getQuick(i).reopen(targetKeyCapacity, targetPageSize);
+                    shardChains.getQuick(i).clear();
+                }
+            }
+        }
+
+        private void shard() {
+            if (sharded) {
+                return;
+            }
+
+            reopenShards();
+
+            if (map.size() > 0) {
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                while (cursor.hasNext()) {
+                    final int hashCode = record.keyHashCode();
+                    final int shardIndex = hashCode >>> shardCountShr;
+                    final MapKey shardKey = shards.getQuick(shardIndex).withKey();
+                    record.copyToKey(shardKey);
+                    copyRowIds(record, chain, shardKey.createValue(hashCode), shardChains.getQuick(shardIndex));
+                }
+            }
+
+            map.close();
+            chain.close();
+            sharded = true;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.*;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+import io.questdb.std.Transient;
+import io.questdb.tasks.GroupByMergeShardTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Parallel flavour of {@link HashJoinLightRecordCursorFactory}. The slave (build) side is
+ * scanned page frame by page frame on the shared worker pool, each worker collecting row ids
+ * into its own, possibly sharded, map. Shards are then merged in parallel via
+ * {@link GroupByMergeShardJob}. Master records are probed on the query owner thread, so
+ * the master order is preserved.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursorFactory.class);
+    private static final PageFrameReducer BUILD = AsyncHashJoinLightRecordCursorFactory::build;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private final RecordSink masterSink;
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ArrayColumnTypes joinColumnTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes, // this expected to be just LONGs, we store chain references in map
+            @NotNull RecordSink masterSink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @NotNull JoinContext joinContext,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        this.masterSink = masterSink;
+        this.workerCount = workerCount;
+        final AsyncHashJoinLightAtom atom = new AsyncHashJoinLightAtom(configuration, joinColumnTypes, valueTypes, slaveKeySink, workerCount);
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, BUILD, reduceTaskFactory, PageFrameReduceTask.TYPE_HASH_JOIN);
+        this.cursor = new AsyncHashJoinRecordCursor(columnSplit, messageBus);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncHashJoinLightAtom> slaveSequence = frameSequence.of(slaveFactory, executionContext, collectSubSeq, ORDER_ASC);
+        RecordCursor masterCursor = null;
+        try {
+            masterCursor = masterFactory.getCursor(executionContext);
+            cursor.of(masterCursor, slaveSequence, executionContext.getCircuitBreaker());
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(masterCursor);
+            slaveSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join Light");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    private static void build(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final AsyncHashJoinLightAtom.Particle particle = atom.getParticle(slotId);
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                particle.add(record);
+            }
+            atom.tryShard(particle);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void recordAtRowId(PageAddressCacheRecord record, long rowId) {
+        record.setFrameIndex(Rows.toPartitionIndex(rowId));
+        record.setRowIndex(Rows.toLocalRowID(rowId));
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    private class AsyncHashJoinRecordCursor extends AbstractJoinCursor {
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch(); // used for merge shard workers
+        private final MessageBus messageBus;
+        private final JoinRecord record;
+        private final AtomicBooleanCircuitBreaker sharedCircuitBreaker; // used to signal cancellation to merge shard workers
+        private final PageAddressCacheRecord slaveRecord;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameLimit;
+        private PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+        private boolean isMapBuilt;
+        private boolean isOpen;
+        private Record masterRecord;
+        private long size = -1;
+        private LongChain.TreeCursor slaveChainCursor;
+
+        public AsyncHashJoinRecordCursor(int columnSplit, MessageBus messageBus) {
+            super(columnSplit);
+            this.messageBus = messageBus;
+            record = new JoinRecord(columnSplit);
+            slaveRecord = new PageAddressCacheRecord();
+            sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+            isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                size = -1;
+                slaveChainCursor = null;
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameCount=").$(frameLimit)
+                            .I$();
+
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    frameSequence.clear();
+                }
+                Misc.free(slaveRecord);
+                super.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            buildMapOfSlaveRecords();
+
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                recordAtRowId(slaveRecord, slaveChainCursor.next());
+                return true;
+            }
+
+            final AsyncHashJoinLightAtom atom = frameSequence.getAtom();
+            while (masterCursor.hasNext()) {
+                slaveChainCursor = atom.findRowIds(masterRecord, masterSink);
+                if (slaveChainCursor != null) {
+                    // we know cursor has values
+                    // advance to get the first value
+                    slaveChainCursor.hasNext();
+                    recordAtRowId(slaveRecord, slaveChainCursor.next());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.newSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long size() {
+            if (size > -1) {
+                return size;
+            }
+            buildMapOfSlaveRecords();
+            final AsyncHashJoinLightAtom atom = frameSequence.getAtom();
+            long size = 0;
+            try {
+                masterCursor.toTop();
+                while (masterCursor.hasNext()) {
+                    size += atom.findRowIdCount(masterRecord, masterSink);
+                }
+            } finally {
+                masterCursor.toTop();
+            }
+            return this.size = size;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveChainCursor = null;
+        }
+
+        private void buildMapOfSlaveRecords() {
+            if (isMapBuilt) {
+                return;
+            }
+
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            int frameIndex = -1;
+            boolean allFramesActive = true;
+            try {
+                do {
+                    final long cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical().put(task.getErrorMsg());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        frameIndex = task.getFrameIndex();
+
+                        frameSequence.collect(cursor, false);
+                    } else if (cursor == -2) {
+                        break; // No frames to build the map from.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable e) {
+                LOG.error().$("hash join build error [ex=").$(e).I$();
+                if (e instanceof CairoException) {
+                    CairoException ce = (CairoException) e;
+                    if (ce.isInterruption()) {
+                        throwTimeoutException();
+                    } else {
+                        throw ce;
+                    }
+                }
+                throw CairoException.nonCritical().put(e.getMessage());
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+
+            final AsyncHashJoinLightAtom atom = frameSequence.getAtom();
+            if (!atom.isSharded()) {
+                // No sharding was necessary, so the maps are small, and we merge them ourselves.
+                atom.mergeNonSharded();
+            } else {
+                // We had to shard the maps, so they must be big.
+                mergeShards(atom);
+            }
+            isMapBuilt = true;
+        }
+
+        private void mergeShards(AsyncHashJoinLightAtom atom) {
+            sharedCircuitBreaker.reset();
+            doneLatch.reset();
+
+            // First, make sure to shard all non-sharded maps, if any.
+            atom.shardAll();
+
+            // Next, merge each set of partial shard maps into the final shard map. This is done in parallel.
+            final int shardCount = atom.getShardCount();
+            final RingQueue<GroupByMergeShardTask> queue = messageBus.getGroupByMergeShardQueue();
+            final MPSequence pubSeq = messageBus.getGroupByMergeShardPubSeq();
+            final MCSequence subSeq = messageBus.getGroupByMergeShardSubSeq();
+
+            int queuedCount = 0;
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    long cursor = pubSeq.next();
+                    if (cursor < 0) {
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        atom.mergeShard(-1, i);
+                    } else {
+                        queue.get(cursor).of(sharedCircuitBreaker, doneLatch, atom, i);
+                        pubSeq.done(cursor);
+                        queuedCount++;
+                    }
+                }
+            } catch (Throwable e) {
+                sharedCircuitBreaker.cancel();
+                throw e;
+            } finally {
+                // Consume the queue until all of our tasks are done, see AsyncGroupByRecordCursor#mergeShards().
+                while (!doneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        sharedCircuitBreaker.cancel();
+                    }
+
+                    long cursor = subSeq.next();
+                    if (cursor > -1) {
+                        GroupByMergeShardTask task = queue.get(cursor);
+                        GroupByMergeShardJob.run(-1, task, subSeq, cursor);
+                    } else {
+                        Os.pause();
+                    }
+                }
+            }
+
+            if (sharedCircuitBreaker.checkIfTripped()) {
+                throwTimeoutException();
+            }
+        }
+
+        private void of(
+                RecordCursor masterCursor,
+                PageFrameSequence<AsyncHashJoinLightAtom> frameSequence,
+                SqlExecutionCircuitBreaker circuitBreaker
+        ) {
+            if (!isOpen) {
+                isOpen = true;
+                frameSequence.getAtom().reopen();
+            }
+            this.masterCursor = masterCursor;
+            this.frameSequence = frameSequence;
+            this.circuitBreaker = circuitBreaker;
+            masterRecord = masterCursor.getRecord();
+            slaveRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            record.of(masterRecord, slaveRecord);
+            slaveChainCursor = null;
+            size = -1;
+            frameLimit = -1;
+            isMapBuilt = false;
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.join;
 import io.questdb.cairo.Reopenable;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Mutable;
 
@@ -71,6 +72,18 @@ public class LongChain implements Closeable, Mutable, Reopenable {
         //nothing to do here
     }
 
+    /**
+     * Overwrites the values of the chain starting at the given offset with the values
+     * of the list, in order. Links between the chain entries are kept as is.
+     */
+    public void setValues(long headOffset, DirectLongList values) {
+        long offset = headOffset;
+        for (long i = 0, n = values.size(); i < n; i++) {
+            valueChain.putLong(offset + 8, values.get(i));
+            offset = valueChain.getLong(offset);
+        }
+    }
+
     public class TreeCursor {
         private long nextOffset;
 
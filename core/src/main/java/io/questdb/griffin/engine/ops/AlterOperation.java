@@ -59,6 +59,10 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short RENAME_TABLE = SQUASH_PARTITIONS + 1; // 14
     public final static short SET_DEDUP_ENABLE = RENAME_TABLE + 1; // 15
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
+    public final static short ADD_BLOOM_INDEX = SET_DEDUP_DISABLE + 1; // 17
+    public final static short DROP_BLOOM_INDEX = ADD_BLOOM_INDEX + 1; // 18
+    public final static short SET_PARAM_TTL = DROP_BLOOM_INDEX + 1; // 19
+    public final static short CONVERT_PARTITION = SET_PARAM_TTL + 1; // 20
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -127,6 +131,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case ATTACH_PARTITION:
                     applyAttachPartition(svc);
                     break;
+                case CONVERT_PARTITION:
+                    applyConvertPartition(svc);
+                    break;
                 case ADD_INDEX:
                     applyAddIndex(svc);
                     break;
@@ -145,6 +152,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamO3MaxLag(svc);
                     break;
+                case SET_PARAM_TTL:
+                    applyParamTtl(svc);
+                    break;
                 case RENAME_TABLE:
                     applyRenameTable(svc);
                     break;
@@ -157,6 +167,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_DEDUP_DISABLE:
                     svc.disableDeduplication();
                     break;
+                case ADD_BLOOM_INDEX:
+                    applyAddBloomIndex(svc);
+                    break;
+                case DROP_BLOOM_INDEX:
+                    applyDropBloomIndex(svc);
+                    break;
                 default:
                     LOG.error()
                             .$("invalid alter table command [code=").$(command)
@@ -338,6 +354,17 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public void startAsync() {
     }
 
+    private void applyAddBloomIndex(MetadataService svc) {
+        final CharSequence columnName = activeExtraStrInfo.getStrA(0);
+        final int columnNamePosition = (int) extraInfo.get(0);
+        try {
+            svc.addBloomIndex(columnName);
+        } catch (CairoException e) {
+            e.position(columnNamePosition);
+            throw e;
+        }
+    }
+
     private void applyAddColumn(MetadataService svc) {
         int lParam = 0;
         for (int i = 0, n = activeExtraStrInfo.size(); i < n; i++) {
@@ -396,6 +423,29 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyConvertPartition(MetadataService svc) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            final int partitionNamePosition = (int) extraInfo.getQuick(i * 2 + 1);
+            final boolean converted;
+            try {
+                converted = svc.convertPartition(partitionTimestamp);
+            } catch (CairoException e) {
+                e.position(partitionNamePosition);
+                throw e;
+            }
+            if (!converted) {
+                throw CairoException.partitionManipulationRecoverable()
+                        .put("could not convert partition [table=").put(tableToken != null ? tableToken.getTableName() : "<null>")
+                        .put(", partitionTimestamp=").ts(partitionTimestamp)
+                        .put(", partitionBy=").put(PartitionBy.toString(svc.getPartitionBy()))
+                        .put(']')
+                        .position(partitionNamePosition);
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataService svc) {
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
             final long partitionTimestamp = extraInfo.getQuick(i * 2);
@@ -412,6 +462,17 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyDropBloomIndex(MetadataService svc) {
+        final CharSequence columnName = activeExtraStrInfo.getStrA(0);
+        final int columnNamePosition = (int) extraInfo.get(0);
+        try {
+            svc.dropBloomIndex(columnName);
+        } catch (CairoException e) {
+            e.position(columnNamePosition);
+            throw e;
+        }
+    }
+
     private void applyDropColumn(MetadataService svc) {
         for (int i = 0, n = activeExtraStrInfo.size(); i < n; i++) {
             svc.removeColumn(activeExtraStrInfo.getStrA(i));
@@ -457,6 +518,20 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyParamTtl(MetadataService svc) {
+        long ttl = extraInfo.get(0);
+        try {
+            svc.setMetaTtl(ttl);
+        } catch (CairoException e) {
+            e.position(tableNamePosition);
+            LOG.error().$("could not change ttl [table=").utf8(tableToken != null ? tableToken.getTableName() : "<null>")
+                    .$(", errno=").$(e.getErrno())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+            throw e;
+        }
+    }
+
     private void applyParamUncommittedRows(MetadataService svc) {
         int maxUncommittedRows = (int) extraInfo.get(0);
         try {
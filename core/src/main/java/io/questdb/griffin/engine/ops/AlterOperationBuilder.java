@@ -87,6 +87,15 @@ public class AlterOperationBuilder {
         return extraStrInfo;
     }
 
+    public void ofAddBloomIndex(int tableNamePosition, TableToken tableToken, int tableId, CharSequence columnName, int columnNamePosition) {
+        this.command = ADD_BLOOM_INDEX;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        this.extraStrInfo.add(columnName);
+        this.extraInfo.add(columnNamePosition);
+    }
+
     public AlterOperationBuilder ofAddColumn(int tableNamePosition, TableToken tableToken, int tableId) {
         this.command = ADD_COLUMN;
         this.tableNamePosition = tableNamePosition;
@@ -145,6 +154,14 @@ public class AlterOperationBuilder {
         this.extraStrInfo.add(columnName);
     }
 
+    public AlterOperationBuilder ofConvertPartition(int tableNamePosition, TableToken tableToken, int tableId) {
+        this.command = CONVERT_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofDedupDisable(int tableNamePosition, TableToken tableToken) {
         this.command = SET_DEDUP_DISABLE;
         this.tableNamePosition = tableNamePosition;
@@ -169,6 +186,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public void ofDropBloomIndex(int tableNamePosition, TableToken tableToken, int tableId, CharSequence columnName, int columnNamePosition) {
+        this.command = DROP_BLOOM_INDEX;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        this.extraStrInfo.add(columnName);
+        this.extraInfo.add(columnNamePosition);
+    }
+
     public AlterOperationBuilder ofDropColumn(CharSequence columnName) {
         assert columnName != null && columnName.length() > 0;
         this.extraStrInfo.add(columnName);
@@ -240,6 +266,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofSetTtl(int tableNamePosition, TableToken tableToken, int tableId, long ttl) {
+        this.command = SET_PARAM_TTL;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.extraInfo.add(ttl);
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofSquashPartitions(int tableNamePosition, TableToken tableToken) {
         this.command = SQUASH_PARTITIONS;
         this.tableNamePosition = tableNamePosition;
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.Utf8Sink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Holds the state of a parallel CSV export. Symbol tables are not thread-safe, so each
+ * worker slot resolves symbol keys with its own copy of the symbol tables.
+ */
+public class CopyExportAtom implements StatefulAtom {
+    private final IntList columnTypes;
+    private final char delimiter;
+    private final int floatScale;
+    private final PerWorkerLocks perWorkerLocks;
+    // One list per worker slot plus one for the owner thread, nulls for non-symbol columns.
+    private final ObjList<ObjList<SymbolTable>> perSlotSymbolTables = new ObjList<>();
+
+    public CopyExportAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull IntList columnTypes,
+            char delimiter,
+            int workerCount
+    ) {
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        this.columnTypes = columnTypes;
+        this.delimiter = delimiter;
+        this.floatScale = configuration.getFloatToStrCastScale();
+        this.perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+        for (int i = 0; i < slotCount + 1; i++) {
+            perSlotSymbolTables.add(new ObjList<>());
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own symbol tables anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = perSlotSymbolTables.size(); i < n; i++) {
+            Misc.freeObjListIfCloseable(perSlotSymbolTables.getQuick(i));
+            perSlotSymbolTables.getQuick(i).clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public void formatFrame(int slotId, PageAddressCacheRecord record, long frameRowCount, Utf8Sink sink) {
+        final ObjList<SymbolTable> symbolTables = perSlotSymbolTables.getQuick(slotId + 1);
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+            CopyExportFactory.putRecord(sink, record, columnTypes, symbolTables, delimiter, floatScale);
+        }
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        clear();
+        for (int i = 0, n = perSlotSymbolTables.size(); i < n; i++) {
+            final ObjList<SymbolTable> symbolTables = perSlotSymbolTables.getQuick(i);
+            for (int c = 0, m = columnTypes.size(); c < m; c++) {
+                symbolTables.add(ColumnType.isSymbol(columnTypes.getQuick(c)) ? symbolTableSource.newSymbolTable(c) : null);
+            }
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+}
@@ -0,0 +1,453 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.SingleValueRecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Executes COPY ... TO statement lazily, i.e. on record cursor initialization, just like
+ * {@link CopyFactory} does for imports. Query results are written to a CSV file under
+ * the copy root directory.
+ * <p>
+ * When the query supports page frames, the frames are formatted into CSV on the shared
+ * worker pool, each frame into the buffer of its reduce task, and the owner thread writes
+ * the buffers to the file in frame order. Other queries are formatted on the owner thread.
+ */
+public class CopyExportFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer EXPORT = CopyExportFactory::export;
+    private static final Log LOG = LogFactory.getLog(CopyExportFactory.class);
+    private final static GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final RecordCursorFactory base;
+    private final long bufferSize;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final IntList columnTypes = new IntList();
+    private final CharSequence copyRoot;
+    private final char delimiter;
+    private final FilesFacade ff;
+    private final String fileName;
+    private final long fileOpenOpts;
+    private final PageFrameSequence<CopyExportAtom> frameSequence;
+    private final int floatScale;
+    private final boolean header;
+    private final Path path = new Path();
+    private final CopyExportRecord record = new CopyExportRecord();
+    private final SingleValueRecordCursor cursor = new SingleValueRecordCursor(record);
+    private final DirectUtf8Sink sink;
+    private final int workerCount;
+    private long fileOffset;
+
+    public CopyExportFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @NotNull String fileName,
+            boolean header,
+            char delimiter,
+            int workerCount
+    ) {
+        super(METADATA);
+        try {
+            this.base = base;
+            this.fileName = fileName;
+            this.header = header;
+            this.delimiter = delimiter;
+            this.workerCount = workerCount;
+            this.ff = configuration.getFilesFacade();
+            this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+            this.copyRoot = configuration.getSqlCopyInputRoot();
+            this.bufferSize = configuration.getSqlCopyBufferSize();
+            this.floatScale = configuration.getFloatToStrCastScale();
+            final RecordMetadata metadata = base.getMetadata();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                columnTypes.add(metadata.getColumnType(i));
+            }
+            if (base.supportPageFrameCursor()) {
+                final CopyExportAtom atom = new CopyExportAtom(configuration, columnTypes, delimiter, workerCount);
+                this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, EXPORT, reduceTaskFactory, PageFrameReduceTask.TYPE_EXPORT);
+            } else {
+                this.frameSequence = null;
+            }
+            this.sink = new DirectUtf8Sink(bufferSize);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // the factory may be executed by a different user than the one who compiled it
+        executionContext.getSecurityContext().authorizeCopyExport();
+        path.of(copyRoot).concat(fileName).$();
+        final int fd = ff.openRW(path, fileOpenOpts);
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open export file [path=").put(path).put(']');
+        }
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate export file [path=").put(path).put(']');
+            }
+            fileOffset = 0;
+            if (header) {
+                writeHeader(fd);
+            }
+            final long rowCount = frameSequence != null ? exportParallel(executionContext, fd) : exportSerial(executionContext, fd);
+            LOG.info().$("exported [path=").$(path).$(", rows=").$(rowCount).$(", bytes=").$(fileOffset).I$();
+            record.setValue(rowCount);
+        } finally {
+            ff.close(fd);
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Copy export");
+        if (frameSequence != null) {
+            sink.meta("workers").val(workerCount);
+        }
+        sink.child(base);
+    }
+
+    private static void export(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final CopyExportAtom atom = task.getFrameSequence(CopyExportAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            atom.formatFrame(slotId, record, task.getFrameRowCount(), task.getExportSink());
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void putGeoHash(Utf8Sink sink, long value, int type) {
+        if (value != GeoHashes.NULL) {
+            final int bitFlags = GeoHashes.getBitFlags(type);
+            if (bitFlags < 0) {
+                GeoHashes.appendCharsUnsafe(value, -bitFlags, sink);
+            } else {
+                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, sink);
+            }
+        }
+    }
+
+    // Strings are always quoted, quotes inside the value are doubled as per RFC 4180.
+    private static void putQuoted(Utf8Sink sink, @Nullable CharSequence value) {
+        if (value != null) {
+            sink.putAscii('"');
+            for (int i = 0, n = value.length(); i < n; i++) {
+                final char c = value.charAt(i);
+                if (c == '"') {
+                    sink.putAscii('"');
+                }
+                sink.put(c);
+            }
+            sink.putAscii('"');
+        }
+    }
+
+    private static void putValue(
+            Utf8Sink sink,
+            Record record,
+            int columnIndex,
+            int columnType,
+            @Nullable ObjList<SymbolTable> symbolTables,
+            int floatScale
+    ) {
+        long l;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                sink.put(record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                sink.put((int) record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                sink.put((int) record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(columnIndex);
+                if (c > 0) {
+                    putQuoted(sink, Character.toString(c));
+                }
+                break;
+            case ColumnType.INT:
+                final int i = record.getInt(columnIndex);
+                if (i != Numbers.INT_NaN) {
+                    sink.put(i);
+                }
+                break;
+            case ColumnType.LONG:
+                l = record.getLong(columnIndex);
+                if (l != Numbers.LONG_NaN) {
+                    sink.put(l);
+                }
+                break;
+            case ColumnType.DATE:
+                l = record.getDate(columnIndex);
+                if (l != Numbers.LONG_NaN) {
+                    sink.putISODateMillis(l);
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                l = record.getTimestamp(columnIndex);
+                if (l != Numbers.LONG_NaN) {
+                    sink.putISODate(l);
+                }
+                break;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(columnIndex);
+                if (f == f) {
+                    sink.put(f, floatScale);
+                }
+                break;
+            case ColumnType.DOUBLE:
+                final double d = record.getDouble(columnIndex);
+                if (d == d) {
+                    sink.put(d);
+                }
+                break;
+            case ColumnType.STRING:
+                putQuoted(sink, record.getStr(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                if (symbolTables != null) {
+                    putQuoted(sink, symbolTables.getQuick(columnIndex).valueOf(record.getInt(columnIndex)));
+                } else {
+                    putQuoted(sink, record.getSym(columnIndex));
+                }
+                break;
+            case ColumnType.LONG256:
+                record.getLong256(columnIndex, sink);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHash(sink, record.getGeoByte(columnIndex), columnType);
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHash(sink, record.getGeoShort(columnIndex), columnType);
+                break;
+            case ColumnType.GEOINT:
+                putGeoHash(sink, record.getGeoInt(columnIndex), columnType);
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHash(sink, record.getGeoLong(columnIndex), columnType);
+                break;
+            case ColumnType.UUID:
+                final long lo = record.getLong128Lo(columnIndex);
+                final long hi = record.getLong128Hi(columnIndex);
+                if (!Uuid.isNull(lo, hi)) {
+                    Numbers.appendUuid(lo, hi, sink);
+                }
+                break;
+            case ColumnType.IPv4:
+                final int ip = record.getIPv4(columnIndex);
+                if (ip != Numbers.IPv4_NULL) {
+                    Numbers.intToIPv4Sink(sink, ip);
+                }
+                break;
+            default:
+                // binary and the other types that have no text representation are exported as empty values
+                break;
+        }
+    }
+
+    private long exportParallel(SqlExecutionContext executionContext, int fd) throws SqlException {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        long rowCount = 0;
+        int frameLimit = -1;
+        frameSequence.of(base, executionContext, collectSubSeq, ORDER_ASC);
+        try {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+
+            int frameIndex = -1;
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+                    if (!frameSequence.isActive()) {
+                        throwTimeoutException();
+                    }
+
+                    frameIndex = task.getFrameIndex();
+                    rowCount += task.getFrameRowCount();
+                    final DirectUtf8Sink frameSink = task.getExportSink();
+                    write(fd, frameSink.ptr(), frameSink.size());
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to export.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+            circuitBreaker.statefulThrowExceptionIfTripped();
+        } finally {
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+        }
+        return rowCount;
+    }
+
+    private long exportSerial(SqlExecutionContext executionContext, int fd) throws SqlException {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        long rowCount = 0;
+        sink.clear();
+        try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+            final Record baseRecord = baseCursor.getRecord();
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                putRecord(sink, baseRecord, columnTypes, null, delimiter, floatScale);
+                rowCount++;
+                if (sink.size() >= bufferSize) {
+                    write(fd, sink.ptr(), sink.size());
+                    sink.clear();
+                }
+            }
+        }
+        write(fd, sink.ptr(), sink.size());
+        return rowCount;
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    private void write(int fd, long address, long len) {
+        if (len > 0) {
+            if (ff.write(fd, address, len, fileOffset) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write export file [path=").put(path).put(']');
+            }
+            fileOffset += len;
+        }
+    }
+
+    private void writeHeader(int fd) {
+        final RecordMetadata metadata = base.getMetadata();
+        sink.clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (i > 0) {
+                sink.putAscii(delimiter);
+            }
+            putQuoted(sink, metadata.getColumnName(i));
+        }
+        sink.putAscii('\n');
+        write(fd, sink.ptr(), sink.size());
+        sink.clear();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(frameSequence);
+        Misc.free(sink);
+        Misc.free(path);
+        Misc.free(base);
+    }
+
+    static void putRecord(
+            Utf8Sink sink,
+            Record record,
+            IntList columnTypes,
+            @Nullable ObjList<SymbolTable> symbolTables,
+            char delimiter,
+            int floatScale
+    ) {
+        for (int i = 0, n = columnTypes.size(); i < n; i++) {
+            if (i > 0) {
+                sink.putAscii(delimiter);
+            }
+            putValue(sink, record, i, columnTypes.getQuick(i), symbolTables, floatScale);
+        }
+        sink.putAscii('\n');
+    }
+
+    private static class CopyExportRecord implements Record {
+        private long value;
+
+        @Override
+        public long getLong(int col) {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+    }
+}
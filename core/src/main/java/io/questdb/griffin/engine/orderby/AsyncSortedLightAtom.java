@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Holds the state of a parallel sort by a single fixed-width key column. Each page frame
+ * is turned into a sorted run of (key, row id) pairs stored in a single native buffer,
+ * each frame owning the buffer slice that starts at the frame's row offset. Runs are
+ * sorted with the native radix sort, so keys are stored in an unsigned-comparable form.
+ */
+public class AsyncSortedLightAtom implements StatefulAtom {
+    public static final long ENTRY_SIZE = 2 * Long.BYTES;
+    private final boolean descending;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final long maxBufferSize;
+    private final PerWorkerLocks perWorkerLocks;
+    // Row offsets of the runs in the buffer, the last element is the total row count.
+    private final LongList runOffsets = new LongList();
+    // Copy buffers used by the radix sort, one per worker slot plus one for the owner thread.
+    private final long[] scratchAddrs;
+    private final long[] scratchSizes;
+    private long bufferAddr;
+    private long bufferSize;
+
+    public AsyncSortedLightAtom(
+            @NotNull CairoConfiguration configuration,
+            int keyColumnIndex,
+            int keyColumnType,
+            boolean descending,
+            int workerCount
+    ) {
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = keyColumnType;
+        this.descending = descending;
+        // We keep a 16 byte entry per row, just like the value chain of the single-threaded sort.
+        this.maxBufferSize = configuration.getSqlSortLightValuePageSize() * configuration.getSqlSortLightValueMaxPages();
+        this.perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+        this.scratchAddrs = new long[slotCount + 1];
+        this.scratchSizes = new long[slotCount + 1];
+    }
+
+    public static boolean isSupportedKeyType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own buffer anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        freeBuffers();
+        runOffsets.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Returns the key stored in the given buffer entry. Keys compare as unsigned longs.
+     */
+    public long getKey(long entryIndex) {
+        return Unsafe.getUnsafe().getLong(bufferAddr + entryIndex * ENTRY_SIZE);
+    }
+
+    public long getRowCount() {
+        return runOffsets.size() > 0 ? runOffsets.getLast() : 0;
+    }
+
+    public long getRowId(long entryIndex) {
+        return Unsafe.getUnsafe().getLong(bufferAddr + entryIndex * ENTRY_SIZE + Long.BYTES);
+    }
+
+    public int getRunCount() {
+        return runOffsets.size() - 1;
+    }
+
+    public long getRunHi(int runIndex) {
+        return runOffsets.getQuick(runIndex + 1);
+    }
+
+    public long getRunLo(int runIndex) {
+        return runOffsets.getQuick(runIndex);
+    }
+
+    /**
+     * Lays out the runs in the buffer. Must be called by the query owner thread once
+     * the frame sequence is prepared for dispatch, but before any frame is dispatched.
+     */
+    public void initRuns(PageFrameSequence<?> frameSequence) {
+        runOffsets.clear();
+        long rowCount = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            runOffsets.add(rowCount);
+            rowCount += frameSequence.getFrameRowCount(i);
+        }
+        runOffsets.add(rowCount);
+
+        final long size = rowCount * ENTRY_SIZE;
+        if (size > maxBufferSize) {
+            throw LimitOverflowException.instance().put("sort buffer size limit exceeded [size=").put(size)
+                    .put(", limit=").put(maxBufferSize).put(']');
+        }
+        if (size > bufferSize) {
+            bufferAddr = Unsafe.realloc(bufferAddr, bufferSize, size, MemoryTag.NATIVE_TREE_CHAIN);
+            bufferSize = size;
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Copies keys and row ids of the given frame into its run and sorts the run.
+     * Thread-safe as long as the slot is acquired by the caller and the frame
+     * is sorted only once.
+     */
+    public void sortFrame(int slotId, PageAddressCacheRecord record, int frameIndex, long frameRowCount) {
+        final long lo = bufferAddr + runOffsets.getQuick(frameIndex) * ENTRY_SIZE;
+        // Radix sort compares unsigned keys, so we flip the sign bit to keep signed order
+        // and all the remaining bits on top of that for the descending order.
+        final long mask = descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+        long p = lo;
+        for (long r = 0; r < frameRowCount; r++, p += ENTRY_SIZE) {
+            record.setRowIndex(r);
+            Unsafe.getUnsafe().putLong(p, readKey(record) ^ mask);
+            Unsafe.getUnsafe().putLong(p + Long.BYTES, record.getRowId());
+        }
+        if (frameRowCount > 1) {
+            Vect.radixSortLongIndexAscInPlace(lo, frameRowCount, scratch(slotId, frameRowCount * ENTRY_SIZE));
+        }
+    }
+
+    private void freeBuffers() {
+        bufferAddr = Unsafe.free(bufferAddr, bufferSize, MemoryTag.NATIVE_TREE_CHAIN);
+        bufferSize = 0;
+        for (int i = 0, n = scratchAddrs.length; i < n; i++) {
+            scratchAddrs[i] = Unsafe.free(scratchAddrs[i], scratchSizes[i], MemoryTag.NATIVE_TREE_CHAIN);
+            scratchSizes[i] = 0;
+        }
+    }
+
+    private long readKey(PageAddressCacheRecord record) {
+        switch (ColumnType.tagOf(keyColumnType)) {
+            case ColumnType.BYTE:
+                return record.getByte(keyColumnIndex);
+            case ColumnType.SHORT:
+                return record.getShort(keyColumnIndex);
+            case ColumnType.INT:
+                return record.getInt(keyColumnIndex);
+            case ColumnType.DATE:
+                return record.getDate(keyColumnIndex);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(keyColumnIndex);
+            default:
+                return record.getLong(keyColumnIndex);
+        }
+    }
+
+    private long scratch(int slotId, long size) {
+        final int index = slotId + 1;
+        if (size > scratchSizes[index]) {
+            scratchAddrs[index] = Unsafe.realloc(scratchAddrs[index], scratchSizes[index], size, MemoryTag.NATIVE_TREE_CHAIN);
+            scratchSizes[index] = size;
+        }
+        return scratchAddrs[index];
+    }
+}
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Parallel flavour of {@link SortedLightRecordCursorFactory} for a single integral sort key.
+ * Each page frame is radix sorted into a run of (key, row id) pairs on the shared worker pool.
+ * The runs are then k-way merged on the query owner thread while the cursor is iterated.
+ * Equal keys are returned in the scan order, just like in the single-threaded sort.
+ */
+public class AsyncSortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(AsyncSortedLightRecordCursorFactory.class);
+    private static final PageFrameReducer SORT = AsyncSortedLightRecordCursorFactory::sort;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSortedLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncSortedLightAtom> frameSequence;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncSortedLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata);
+        this.base = base;
+        this.sortColumnFilter = sortColumnFilter;
+        this.workerCount = workerCount;
+        final int sortKey = sortColumnFilter.getColumnIndex(0);
+        final int keyColumnIndex = (sortKey > 0 ? sortKey : -sortKey) - 1;
+        final AsyncSortedLightAtom atom = new AsyncSortedLightAtom(
+                configuration,
+                keyColumnIndex,
+                base.getMetadata().getColumnType(keyColumnIndex),
+                sortKey < 0,
+                workerCount
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, SORT, reduceTaskFactory, PageFrameReduceTask.TYPE_SORT);
+        this.cursor = new AsyncSortedLightRecordCursor();
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, ORDER_ASC), executionContext.getCircuitBreaker());
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sort light");
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static void recordAtRowId(PageAddressCacheRecord record, long rowId) {
+        record.setFrameIndex(Rows.toPartitionIndex(rowId));
+        record.setRowIndex(Rows.toLocalRowID(rowId));
+    }
+
+    private static void sort(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSortedLightAtom atom = task.getFrameSequence(AsyncSortedLightAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            atom.sortFrame(slotId, record, task.getFrameIndex(), frameRowCount);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        base.close();
+    }
+
+    private class AsyncSortedLightRecordCursor implements RecordCursor {
+        // Binary min-heap of run indexes ordered by the current key of each run.
+        private final IntList heap = new IntList();
+        private final PageAddressCacheRecord record;
+        private final PageAddressCacheRecord recordB;
+        // Current entry index of each run.
+        private final LongList runPositions = new LongList();
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameLimit;
+        private PageFrameSequence<AsyncSortedLightAtom> frameSequence;
+        private boolean isOpen;
+        private boolean isSorted;
+
+        public AsyncSortedLightRecordCursor() {
+            record = new PageAddressCacheRecord();
+            recordB = new PageAddressCacheRecord();
+            isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameCount=").$(frameLimit)
+                            .I$();
+
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    frameSequence.clear();
+                }
+                Misc.free(record);
+                Misc.free(recordB);
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isSorted) {
+                sortRuns();
+                isSorted = true;
+            }
+            if (heap.size() == 0) {
+                return false;
+            }
+
+            final AsyncSortedLightAtom atom = frameSequence.getAtom();
+            final int run = heap.getQuick(0);
+            final long position = runPositions.getQuick(run);
+            recordAtRowId(record, atom.getRowId(position));
+            if (position + 1 < atom.getRunHi(run)) {
+                runPositions.setQuick(run, position + 1);
+            } else {
+                // The run is exhausted, replace it with the last one.
+                heap.setQuick(0, heap.getLast());
+                heap.setPos(heap.size() - 1);
+            }
+            siftDown(atom, 0);
+            return true;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordAtRowId((PageAddressCacheRecord) record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            if (!isSorted) {
+                sortRuns();
+                isSorted = true;
+            }
+            return frameSequence.getAtom().getRowCount();
+        }
+
+        @Override
+        public void toTop() {
+            if (isSorted) {
+                initHeap(frameSequence.getAtom());
+            }
+        }
+
+        private int compareRuns(AsyncSortedLightAtom atom, int runA, int runB) {
+            final int cmp = Long.compareUnsigned(
+                    atom.getKey(runPositions.getQuick(runA)),
+                    atom.getKey(runPositions.getQuick(runB))
+            );
+            // Earlier runs win on equal keys, so that the sort is stable.
+            return cmp != 0 ? cmp : Integer.compare(runA, runB);
+        }
+
+        private void initHeap(AsyncSortedLightAtom atom) {
+            heap.clear();
+            runPositions.clear();
+            for (int i = 0, n = atom.getRunCount(); i < n; i++) {
+                final long lo = atom.getRunLo(i);
+                runPositions.add(lo);
+                if (lo < atom.getRunHi(i)) {
+                    heap.add(i);
+                }
+            }
+            for (int i = (heap.size() >> 1) - 1; i > -1; i--) {
+                siftDown(atom, i);
+            }
+        }
+
+        private void of(PageFrameSequence<AsyncSortedLightAtom> frameSequence, SqlExecutionCircuitBreaker circuitBreaker) {
+            this.isOpen = true;
+            this.frameSequence = frameSequence;
+            this.circuitBreaker = circuitBreaker;
+            record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            frameLimit = -1;
+            isSorted = false;
+        }
+
+        private void siftDown(AsyncSortedLightAtom atom, int index) {
+            final int size = heap.size();
+            while (true) {
+                final int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left;
+                final int right = left + 1;
+                if (right < size && compareRuns(atom, heap.getQuick(right), heap.getQuick(left)) < 0) {
+                    smallest = right;
+                }
+                final int run = heap.getQuick(index);
+                final int smallestRun = heap.getQuick(smallest);
+                if (compareRuns(atom, run, smallestRun) <= 0) {
+                    return;
+                }
+                heap.setQuick(index, smallestRun);
+                heap.setQuick(smallest, run);
+                index = smallest;
+            }
+        }
+
+        private void sortRuns() {
+            final AsyncSortedLightAtom atom = frameSequence.getAtom();
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                atom.initRuns(frameSequence);
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            int frameIndex = -1;
+            boolean allFramesActive = true;
+            try {
+                do {
+                    final long cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical().put(task.getErrorMsg());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        frameIndex = task.getFrameIndex();
+
+                        frameSequence.collect(cursor, false);
+                    } else if (cursor == -2) {
+                        break; // No frames to sort.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable e) {
+                LOG.error().$("sort error [ex=").$(e).I$();
+                if (e instanceof CairoException) {
+                    CairoException ce = (CairoException) e;
+                    if (ce.isInterruption()) {
+                        throwTimeoutException();
+                    } else {
+                        throw ce;
+                    }
+                }
+                throw CairoException.nonCritical().put(e.getMessage());
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            initHeap(atom);
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+    }
+}
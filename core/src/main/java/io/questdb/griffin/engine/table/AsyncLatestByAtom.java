@@ -0,0 +1,229 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds the state of a parallel LATEST BY scan. Each page frame is filtered and reduced
+ * to the latest row of every key found in the frame, using a per-worker map. The frame
+ * results are then merged by the query owner thread into the result map.
+ */
+public class AsyncLatestByAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final RecordSink mapSink;
+    private final Map ownerMap;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Map> perWorkerMaps;
+    private final Map resultMap;
+
+    public AsyncLatestByAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @NotNull RecordSink mapSink,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.mapSink = mapSink;
+            this.compiledFilter = compiledFilter;
+            this.bindVarFunctions = bindVarFunctions;
+            this.filter = filter;
+            this.perWorkerFilters = perWorkerFilters;
+            if (compiledFilter != null) {
+                bindVarMemory = Vm.getCARWInstance(
+                        configuration.getSqlJitBindVarsMemoryPageSize(),
+                        configuration.getSqlJitBindVarsMemoryMaxPages(),
+                        MemoryTag.NATIVE_JIT
+                );
+            } else {
+                bindVarMemory = null;
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            ownerMap = MapFactory.createOrderedMap(configuration, keyTypes);
+            perWorkerMaps = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerMaps.extendAndSet(i, MapFactory.createOrderedMap(configuration, keyTypes));
+            }
+            resultMap = MapFactory.createOrderedMap(configuration, keyTypes);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the original filter and its own map anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.free(resultMap);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        Misc.free(resultMap);
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    /**
+     * Returns the map of keys found so far by the query owner thread while merging frame results.
+     */
+    public Map getResultMap() {
+        return resultMap;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+        resultMap.reopen();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+}
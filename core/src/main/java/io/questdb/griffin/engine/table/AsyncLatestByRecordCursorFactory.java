@@ -0,0 +1,449 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel flavour of {@link LatestByAllFilteredRecordCursorFactory} and
+ * {@link LatestByAllSymbolsFilteredRecordCursorFactory}. Page frames are dispatched
+ * newest first and each frame is filtered and reduced to the latest row of every key
+ * on the shared worker pool. The query owner thread merges the frame results in the
+ * dispatch order, so the first row found for a key is its latest row. When all keys
+ * are symbols, the scan is cancelled as soon as all symbol combinations are found.
+ */
+public class AsyncLatestByRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer LATEST_BY = AsyncLatestByRecordCursorFactory::latestBy;
+    private static final Log LOG = LogFactory.getLog(AsyncLatestByRecordCursorFactory.class);
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncLatestByRecordCursor cursor;
+    private final PageFrameSequence<AsyncLatestByAtom> frameSequence;
+    private final IntList partitionByColumnIndexes;
+    private final IntList partitionBySymbolCounts;
+    private final DirectLongList rows;
+    private final int workerCount;
+
+    public AsyncLatestByRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @NotNull RecordSink mapSink,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @Nullable IntList partitionByColumnIndexes,
+            @Nullable IntList partitionBySymbolCounts,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(base.getMetadata());
+        assert base.supportPageFrameCursor();
+        this.base = base;
+        this.partitionByColumnIndexes = partitionByColumnIndexes;
+        this.partitionBySymbolCounts = partitionBySymbolCounts;
+        this.workerCount = workerCount;
+        final AsyncLatestByAtom atom = new AsyncLatestByAtom(
+                configuration,
+                keyTypes,
+                mapSink,
+                compiledFilter,
+                bindVarFunctions,
+                filter,
+                perWorkerFilters,
+                workerCount
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, LATEST_BY, reduceTaskFactory, PageFrameReduceTask.TYPE_LATEST_BY);
+        this.rows = new DirectLongList(configuration.getSqlLatestByRowCount(), MemoryTag.NATIVE_LATEST_BY_LONG_LIST);
+        this.cursor = new AsyncLatestByRecordCursor();
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, ORDER_DESC), executionContext.getCircuitBreaker());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Latest By");
+        } else {
+            sink.type("Async Latest By");
+        }
+        sink.meta("workers").val(workerCount);
+        final AsyncLatestByAtom atom = frameSequence.getAtom();
+        if (atom.getFilter(-1) != null) {
+            sink.attr("filter").val(atom);
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    private static void latestBy(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final PageFrameSequence<AsyncLatestByAtom> frameSequence = task.getFrameSequence(AsyncLatestByAtom.class);
+        final AsyncLatestByAtom atom = frameSequence.getAtom();
+        final PageAddressCache pageAddressCache = frameSequence.getPageAddressCache();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            final Map map = atom.getMap(slotId);
+            final RecordSink mapSink = atom.getMapSink();
+            final Function filter = atom.getFilter(slotId);
+            final CompiledFilter compiledFilter = atom.getCompiledFilter();
+            map.clear();
+
+            if (filter == null) {
+                for (long r = frameRowCount - 1; r > -1; r--) {
+                    record.setRowIndex(r);
+                    final MapKey key = map.withKey();
+                    key.put(record, mapSink);
+                    if (key.create()) {
+                        rows.add(r);
+                    }
+                }
+                // Frame results are kept in ascending row order.
+                for (long i = 0, j = rows.size() - 1; i < j; i++, j--) {
+                    final long r = rows.get(i);
+                    rows.set(i, rows.get(j));
+                    rows.set(j, r);
+                }
+                return;
+            }
+
+            if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(
+                        compiledFilter,
+                        atom.getBindVarMemory(),
+                        atom.getBindVarFunctions(),
+                        pageAddressCache,
+                        task.getColumns(),
+                        rows,
+                        frameRowCount,
+                        task.getFrameIndex()
+                );
+            }
+
+            // Scan the filtered rows backwards and move the latest row of each key
+            // to the tail of the list, then shift the kept rows to the head.
+            final long filteredRowCount = rows.size();
+            long lo = filteredRowCount;
+            for (long i = filteredRowCount - 1; i > -1; i--) {
+                final long r = rows.get(i);
+                record.setRowIndex(r);
+                final MapKey key = map.withKey();
+                key.put(record, mapSink);
+                if (key.create()) {
+                    rows.set(--lo, r);
+                }
+            }
+            for (long i = lo; i < filteredRowCount; i++) {
+                rows.set(i - lo, rows.get(i));
+            }
+            rows.setPos(filteredRowCount - lo);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void recordAtRowId(PageAddressCacheRecord record, long rowId) {
+        record.setFrameIndex(Rows.toPartitionIndex(rowId));
+        record.setRowIndex(Rows.toLocalRowID(rowId));
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        Misc.free(rows);
+        base.close();
+    }
+
+    private class AsyncLatestByRecordCursor implements RecordCursor {
+        private final PageAddressCacheRecord record;
+        private final PageAddressCacheRecord recordB;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameLimit;
+        private PageFrameSequence<AsyncLatestByAtom> frameSequence;
+        private long index;
+        private boolean isOpen;
+        private boolean isRowListBuilt;
+
+        public AsyncLatestByRecordCursor() {
+            record = new PageAddressCacheRecord();
+            recordB = new PageAddressCacheRecord();
+            isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameCount=").$(frameLimit)
+                            .I$();
+
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    frameSequence.clear();
+                }
+                Misc.free(record);
+                Misc.free(recordB);
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isRowListBuilt) {
+                buildRowList();
+                index = rows.size() - 1;
+                isRowListBuilt = true;
+            }
+            // Rows were found newest first, so we iterate them backwards
+            // to return the result in ascending timestamp order.
+            if (index > -1) {
+                recordAtRowId(record, rows.get(index--));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordAtRowId((PageAddressCacheRecord) record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return isRowListBuilt ? rows.size() : -1;
+        }
+
+        @Override
+        public void toTop() {
+            index = rows.size() - 1;
+        }
+
+        private void buildRowList() {
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            final AsyncLatestByAtom atom = frameSequence.getAtom();
+            final Map resultMap = atom.getResultMap();
+            final RecordSink mapSink = atom.getMapSink();
+            final long possibleCombinations = countSymbolCombinations();
+
+            int frameIndex = -1;
+            boolean allFramesActive = true;
+            try {
+                do {
+                    final long cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical().put(task.getErrorMsg());
+                        }
+
+                        allFramesActive &= frameSequence.isActive() || rows.size() == possibleCombinations;
+                        frameIndex = task.getFrameIndex();
+
+                        if (rows.size() < possibleCombinations && frameSequence.isActive()) {
+                            final DirectLongList frameRows = task.getFilteredRows();
+                            record.setFrameIndex(frameIndex);
+                            for (long i = frameRows.size() - 1; i > -1; i--) {
+                                final long r = frameRows.get(i);
+                                record.setRowIndex(r);
+                                final MapKey key = resultMap.withKey();
+                                key.put(record, mapSink);
+                                if (key.create()) {
+                                    rows.add(Rows.toRowID(frameIndex, r));
+                                    if (rows.size() == possibleCombinations) {
+                                        // All keys are found, no need to scan older frames.
+                                        frameSequence.cancel(SqlExecutionCircuitBreaker.STATE_OK);
+                                        break;
+                                    }
+                                }
+                            }
+                        }
+
+                        frameSequence.collect(cursor, false);
+                    } else if (cursor == -2) {
+                        break; // No frames to scan.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable e) {
+                LOG.error().$("latest by error [ex=").$(e).I$();
+                if (e instanceof CairoException) {
+                    CairoException ce = (CairoException) e;
+                    if (ce.isInterruption()) {
+                        throwTimeoutException();
+                    } else {
+                        throw ce;
+                    }
+                }
+                throw CairoException.nonCritical().put(e.getMessage());
+            } finally {
+                resultMap.clear();
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+        }
+
+        private long countSymbolCombinations() {
+            if (partitionByColumnIndexes == null) {
+                return Long.MAX_VALUE;
+            }
+            long combinations = 1;
+            for (int i = 0, n = partitionByColumnIndexes.size(); i < n; i++) {
+                int symbolCount = partitionBySymbolCounts != null ? partitionBySymbolCounts.getQuick(i) : Integer.MAX_VALUE;
+                assert symbolCount > 0;
+                StaticSymbolTable symbolTable = (StaticSymbolTable) getSymbolTable(partitionByColumnIndexes.getQuick(i));
+                int distinctSymbols = symbolTable.getSymbolCount();
+                if (symbolTable.containsNullValue()) {
+                    distinctSymbols++;
+                }
+                try {
+                    combinations = Math.multiplyExact(combinations, Math.min(symbolCount, distinctSymbols));
+                } catch (ArithmeticException ignore) {
+                    return Long.MAX_VALUE;
+                }
+            }
+            return combinations;
+        }
+
+        private void of(PageFrameSequence<AsyncLatestByAtom> frameSequence, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (!isOpen) {
+                isOpen = true;
+                frameSequence.getAtom().reopen();
+            }
+            this.frameSequence = frameSequence;
+            this.circuitBreaker = circuitBreaker;
+            record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+            rows.clear();
+            frameLimit = -1;
+            isRowListBuilt = false;
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+    }
+}
@@ -213,6 +213,7 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             partitionName.clear();
             dynamicPartitionIndex = partitionIndex;
             CharSequence dynamicTsColName = tsColName;
+            boolean isParquet = false;
             path.trimTo(rootLen).$();
 
             TxReader tableTxReader = tableReader.getTxFile();
@@ -220,6 +221,7 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             if (partitionIndex < partitionCount) {
                 // we are within the partition table
                 isReadOnly = tableTxReader.isPartitionReadOnly(partitionIndex);
+                isParquet = tableTxReader.isPartitionParquet(partitionIndex);
                 long timestamp = tableTxReader.getPartitionTimestampByIndex(partitionIndex);
                 isActive = timestamp == tableTxReader.getLastPartitionTimestamp();
                 PartitionBy.setSinkForPartition(partitionName, partitionBy, timestamp);
@@ -296,7 +298,8 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             partitionSize = ff.getDirSize(path.$());
             partitionSizeSink.clear();
             SizePrettyFunctionFactory.toSizePretty(partitionSizeSink, partitionSize);
-            if (PartitionBy.isPartitioned(partitionBy) && numRows > 0L) {
+            // parquet partition has no column files, its timestamps are not read
+            if (PartitionBy.isPartitioned(partitionBy) && numRows > 0L && !isParquet) {
                 TableUtils.dFile(path.slash$(), dynamicTsColName, TableUtils.COLUMN_NAME_TXN_NONE);
                 int fd = -1;
                 try {
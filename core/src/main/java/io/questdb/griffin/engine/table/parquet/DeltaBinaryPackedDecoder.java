@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.Unsafe;
+
+/**
+ * Decoder for the Parquet DELTA_BINARY_PACKED encoding of 32-bit and 64-bit integers.
+ */
+public class DeltaBinaryPackedDecoder {
+    private long hi;
+    private long position;
+
+    /**
+     * Decodes all values of the page into plain little-endian integers.
+     *
+     * @param lo        address of the encoded values
+     * @param hi        end of the encoded values
+     * @param valueSize size of the decoded values, 4 or 8 bytes
+     * @param mem       receives decoded values at its append offset
+     * @return number of decoded values
+     */
+    public long decode(long lo, long hi, int valueSize, MemoryCARW mem) {
+        this.position = lo;
+        this.hi = hi;
+        final long blockSize = readVarLong();
+        final long miniblockCount = readVarLong();
+        final long valueCount = readVarLong();
+        long value = readZigZagVarLong();
+        if (blockSize <= 0 || blockSize % 128 != 0 || miniblockCount <= 0 || blockSize % miniblockCount != 0
+                || (blockSize / miniblockCount) % 32 != 0 || valueCount < 0) {
+            throw corrupt();
+        }
+        final long miniblockSize = blockSize / miniblockCount;
+        if (valueCount > 0) {
+            putValue(mem, value, valueSize);
+        }
+        long remaining = valueCount - 1;
+        while (remaining > 0) {
+            final long minDelta = readZigZagVarLong();
+            final long bitWidthsAddress = position;
+            position += miniblockCount;
+            if (position > hi) {
+                throw corrupt();
+            }
+            for (long m = 0; m < miniblockCount && remaining > 0; m++) {
+                final int bitWidth = Unsafe.getUnsafe().getByte(bitWidthsAddress + m) & 0xff;
+                final long n = Math.min(miniblockSize, remaining);
+                if (bitWidth > Long.SIZE || position + ((n * bitWidth + 7) >>> 3) > hi) {
+                    throw corrupt();
+                }
+                for (long j = 0; j < n; j++) {
+                    value += minDelta + unpack(position, j, bitWidth);
+                    putValue(mem, value, valueSize);
+                }
+                position += (miniblockSize * bitWidth) >>> 3;
+                remaining -= n;
+            }
+        }
+        return valueCount;
+    }
+
+    private static void putValue(MemoryCARW mem, long value, int valueSize) {
+        if (valueSize == Integer.BYTES) {
+            mem.putInt((int) value);
+        } else {
+            mem.putLong(value);
+        }
+    }
+
+    private long byteAt(long address) {
+        // padding of the last miniblock may be truncated by some writers
+        return address < hi ? Unsafe.getUnsafe().getByte(address) & 0xffL : 0;
+    }
+
+    private CairoException corrupt() {
+        return CairoException.nonCritical().put("corrupt parquet page, invalid delta binary packed values");
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position >= hi) {
+                throw corrupt();
+            }
+            b = Unsafe.getUnsafe().getByte(position++);
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        return value;
+    }
+
+    private long readZigZagVarLong() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long unpack(long address, long index, int bitWidth) {
+        if (bitWidth == 0) {
+            return 0;
+        }
+        final long bitPosition = index * bitWidth;
+        final long p = address + (bitPosition >>> 3);
+        final int shift = (int) (bitPosition & 7);
+        long bits = 0;
+        for (int i = 0, n = Math.min(Long.BYTES, (shift + bitWidth + 7) >>> 3); i < n; i++) {
+            bits |= byteAt(p + i) << (i << 3);
+        }
+        long value = bits >>> shift;
+        if (shift + bitWidth > Long.SIZE) {
+            value |= byteAt(p + Long.BYTES) << (Long.SIZE - shift);
+        }
+        return bitWidth == Long.SIZE ? value : value & ((1L << bitWidth) - 1);
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.Unsafe;
+
+/**
+ * Encoder for the Parquet DELTA_BINARY_PACKED encoding of 64-bit integers. Values are stored as
+ * differences to their predecessors, each block of 128 deltas is reduced by its minimum delta and
+ * bit-packed in 4 miniblocks of 32 values, every miniblock has its own bit width. Series with a steady
+ * step, such as designated timestamps, pack into a few bits per value.
+ */
+public class DeltaBinaryPackedEncoder {
+    private static final int BLOCK_SIZE = 128;
+    private static final int MINIBLOCK_COUNT = 4;
+    private static final int MINIBLOCK_SIZE = BLOCK_SIZE / MINIBLOCK_COUNT;
+    private final long[] deltas = new long[BLOCK_SIZE];
+
+    /**
+     * Encodes 64-bit values.
+     *
+     * @param address    address of the values
+     * @param valueCount number of values
+     * @param mem        receives encoded bytes at its append offset
+     */
+    public void encode(long address, long valueCount, MemoryCARW mem) {
+        putVarLong(mem, BLOCK_SIZE);
+        putVarLong(mem, MINIBLOCK_COUNT);
+        putVarLong(mem, valueCount);
+        long previousValue = valueCount > 0 ? Unsafe.getUnsafe().getLong(address) : 0;
+        putZigZagVarLong(mem, previousValue);
+        for (long i = 1; i < valueCount; ) {
+            final int n = (int) Math.min(BLOCK_SIZE, valueCount - i);
+            long minDelta = Long.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                final long value = Unsafe.getUnsafe().getLong(address + ((i + j) << 3));
+                // deltas wrap around on overflow, the decoder wraps them back
+                final long delta = value - previousValue;
+                deltas[j] = delta;
+                minDelta = Math.min(minDelta, delta);
+                previousValue = value;
+            }
+            writeBlock(mem, n, minDelta);
+            i += n;
+        }
+    }
+
+    private static void putVarLong(MemoryCARW mem, long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private static void putZigZagVarLong(MemoryCARW mem, long value) {
+        putVarLong(mem, (value << 1) ^ (value >> 63));
+    }
+
+    private void packMiniblock(MemoryCARW mem, int lo, int n, long minDelta, int bitWidth) {
+        long bits = 0;
+        int bitCount = 0;
+        for (int j = lo, hi = lo + MINIBLOCK_SIZE; j < hi; j++) {
+            // the last miniblock is padded with zeros to its full size
+            final long value = j < n ? deltas[j] - minDelta : 0;
+            bits |= value << bitCount;
+            if (bitCount + bitWidth >= Long.SIZE) {
+                mem.putLong(bits);
+                bits = bitCount == 0 ? 0 : value >>> (Long.SIZE - bitCount);
+                bitCount += bitWidth - Long.SIZE;
+            } else {
+                bitCount += bitWidth;
+            }
+        }
+        for (; bitCount > 0; bitCount -= 8) {
+            mem.putByte((byte) bits);
+            bits >>>= 8;
+        }
+    }
+
+    private void writeBlock(MemoryCARW mem, int n, long minDelta) {
+        putZigZagVarLong(mem, minDelta);
+        // bit widths of the miniblocks, which are not needed in the last block, are zero
+        final long bitWidthsOffset = mem.getAppendOffset();
+        for (int m = 0; m < MINIBLOCK_COUNT; m++) {
+            long bits = 0;
+            for (int j = m * MINIBLOCK_SIZE, hi = Math.min(n, j + MINIBLOCK_SIZE); j < hi; j++) {
+                bits |= deltas[j] - minDelta;
+            }
+            mem.putByte((byte) (Long.SIZE - Long.numberOfLeadingZeros(bits)));
+        }
+        for (int m = 0, lo = 0; lo < n; m++, lo += MINIBLOCK_SIZE) {
+            packMiniblock(mem, lo, n, minDelta, mem.getByte(bitWidthsOffset + m));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+/**
+ * Subset of the Apache Parquet format enumerations (see parquet.thrift) together with
+ * the Thrift compact protocol type ids used to serialize the file and page metadata.
+ */
+public final class ParquetConstants {
+    public static final int CODEC_GZIP = 2;
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CONVERTED_TYPE_DATE = 6;
+    public static final int CONVERTED_TYPE_ENUM = 4;
+    public static final int CONVERTED_TYPE_INT_16 = 16;
+    public static final int CONVERTED_TYPE_INT_32 = 17;
+    public static final int CONVERTED_TYPE_INT_64 = 18;
+    public static final int CONVERTED_TYPE_INT_8 = 15;
+    public static final int CONVERTED_TYPE_JSON = 19;
+    public static final int CONVERTED_TYPE_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_TYPE_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_TYPE_UINT_16 = 12;
+    public static final int CONVERTED_TYPE_UINT_8 = 11;
+    public static final int CONVERTED_TYPE_UTF8 = 0;
+    public static final int ENCODING_BYTE_STREAM_SPLIT = 9;
+    public static final int ENCODING_DELTA_BINARY_PACKED = 5;
+    public static final int ENCODING_PLAIN = 0;
+    public static final int ENCODING_PLAIN_DICTIONARY = 2;
+    public static final int ENCODING_RLE = 3;
+    public static final int ENCODING_RLE_DICTIONARY = 8;
+    public static final int FOOTER_SIZE = 8;
+    // "PAR1" in little endian
+    public static final int MAGIC = 0x31524150;
+    public static final int MAGIC_SIZE = 4;
+    public static final int PAGE_TYPE_DATA_PAGE = 0;
+    public static final int PAGE_TYPE_DATA_PAGE_V2 = 3;
+    public static final int PAGE_TYPE_DICTIONARY_PAGE = 2;
+    public static final int REPETITION_OPTIONAL = 1;
+    public static final int REPETITION_REPEATED = 2;
+    public static final int REPETITION_REQUIRED = 0;
+    public static final byte THRIFT_TYPE_BINARY = 8;
+    public static final byte THRIFT_TYPE_BOOLEAN_FALSE = 2;
+    public static final byte THRIFT_TYPE_BOOLEAN_TRUE = 1;
+    public static final byte THRIFT_TYPE_BYTE = 3;
+    public static final byte THRIFT_TYPE_DOUBLE = 7;
+    public static final byte THRIFT_TYPE_I16 = 4;
+    public static final byte THRIFT_TYPE_I32 = 5;
+    public static final byte THRIFT_TYPE_I64 = 6;
+    public static final byte THRIFT_TYPE_LIST = 9;
+    public static final byte THRIFT_TYPE_MAP = 11;
+    public static final byte THRIFT_TYPE_SET = 10;
+    public static final byte THRIFT_TYPE_STOP = 0;
+    public static final byte THRIFT_TYPE_STRUCT = 12;
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+
+    private ParquetConstants() {
+    }
+}
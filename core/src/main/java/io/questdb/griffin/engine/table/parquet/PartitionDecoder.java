@@ -0,0 +1,1007 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.SymbolLookup;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.Dates;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Reads flat Parquet files, either uncompressed or GZIP compressed. The file is memory mapped,
+ * the footer is parsed eagerly and column chunks are decoded on demand into QuestDB column layout:
+ * fixed size values for primitive columns and UTF-16 data plus a 64-bit offset index for string columns.
+ * <p>
+ * PLAIN, dictionary, DELTA_BINARY_PACKED and BYTE_STREAM_SPLIT encoded data pages (v1 and v2) are
+ * supported, definition levels must be RLE encoded.
+ */
+public class PartitionDecoder implements QuietCloseable {
+    private static final int CHUNK_CODEC = 3;
+    private static final int CHUNK_DATA_PAGE_OFFSET = 0;
+    private static final int CHUNK_DICTIONARY_PAGE_OFFSET = 1;
+    private static final int CHUNK_STRIDE = 4;
+    private static final int CHUNK_VALUE_COUNT = 2;
+    private static final int COLUMN_CONVERTED_TYPE = 1;
+    private static final int COLUMN_ID = 4;
+    private static final int COLUMN_PHYSICAL_TYPE = 0;
+    private static final int COLUMN_REPETITION = 2;
+    private static final int COLUMN_STRIDE = 5;
+    private static final int COLUMN_TYPE = 3;
+    private static final int GZIP_FCOMMENT = 16;
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FHCRC = 2;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int PAGE_SIZE = 64 * 1024;
+    private final LongList chunks = new LongList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columns = new IntList();
+    private final RleBitPackedDecoder defLevelsDecoder = new RleBitPackedDecoder();
+    private final DeltaBinaryPackedDecoder deltaDecoder = new DeltaBinaryPackedDecoder();
+    // symbol keys of dictionary values, when decoding into a symbol column
+    private final IntList dictionaryKeys = new IntList();
+    private final LongList dictionaryValues = new LongList();
+    private final FilesFacade ff;
+    private final RleBitPackedDecoder indicesDecoder = new RleBitPackedDecoder();
+    private final LongList rowGroupRowCounts = new LongList();
+    private final ThriftCompactReader thriftReader = new ThriftCompactReader();
+    private final StringSink utf16Sink = new StringSink();
+    private int columnCount;
+    private long dictionaryAddress;
+    private MemoryCARW dictionaryPageMem;
+    private int dictionarySize;
+    private int fd = -1;
+    private long fileAddress;
+    private long fileSize;
+    private long inflater;
+    private long metadataOffset;
+    private MemoryCARW pageMem;
+    private long rowCount;
+    private long rowsToSkip;
+    private SymbolLookup symbolLookup;
+    // values of DELTA_BINARY_PACKED and BYTE_STREAM_SPLIT pages decoded to PLAIN
+    private MemoryCARW valuesMem;
+
+    public PartitionDecoder(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    public static int toColumnType(int physicalType, int convertedType) {
+        switch (physicalType) {
+            case TYPE_BOOLEAN:
+                return ColumnType.BOOLEAN;
+            case TYPE_INT32:
+                switch (convertedType) {
+                    case -1:
+                    case CONVERTED_TYPE_INT_32:
+                        return ColumnType.INT;
+                    case CONVERTED_TYPE_INT_8:
+                        return ColumnType.BYTE;
+                    case CONVERTED_TYPE_INT_16:
+                    case CONVERTED_TYPE_UINT_8:
+                        return ColumnType.SHORT;
+                    case CONVERTED_TYPE_UINT_16:
+                        return ColumnType.CHAR;
+                    case CONVERTED_TYPE_DATE:
+                        return ColumnType.DATE;
+                    default:
+                        return -1;
+                }
+            case TYPE_INT64:
+                switch (convertedType) {
+                    case -1:
+                    case CONVERTED_TYPE_INT_64:
+                        return ColumnType.LONG;
+                    case CONVERTED_TYPE_TIMESTAMP_MILLIS:
+                        return ColumnType.DATE;
+                    case CONVERTED_TYPE_TIMESTAMP_MICROS:
+                        return ColumnType.TIMESTAMP;
+                    default:
+                        return -1;
+                }
+            case TYPE_FLOAT:
+                return ColumnType.FLOAT;
+            case TYPE_DOUBLE:
+                return ColumnType.DOUBLE;
+            case TYPE_BYTE_ARRAY:
+                switch (convertedType) {
+                    case -1:
+                    case CONVERTED_TYPE_UTF8:
+                    case CONVERTED_TYPE_ENUM:
+                    case CONVERTED_TYPE_JSON:
+                        return ColumnType.STRING;
+                    default:
+                        return -1;
+                }
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        dictionaryPageMem = Misc.free(dictionaryPageMem);
+        pageMem = Misc.free(pageMem);
+        valuesMem = Misc.free(valuesMem);
+        if (inflater != 0) {
+            Zip.inflateEnd(inflater);
+            inflater = 0;
+        }
+    }
+
+    /**
+     * Decodes all row groups of the column into QuestDB column layout. Memory is truncated first.
+     * Partitions converted to Parquet store column top rows as nulls, the reader skips them to
+     * get the same layout as native column files.
+     *
+     * @param columnIndex  column index
+     * @param rowLo        number of leading rows to skip
+     * @param dataMem      receives fixed size values, string data or symbol keys
+     * @param auxMem       receives string offsets, one per row plus the end offset, may be null for fixed size columns
+     * @param symbolLookup when not null, string values are stored as symbol keys resolved by the lookup
+     */
+    public void decodeColumn(
+            int columnIndex,
+            long rowLo,
+            MemoryCARW dataMem,
+            @Nullable MemoryCARW auxMem,
+            @Nullable SymbolLookup symbolLookup
+    ) {
+        dataMem.jumpTo(0);
+        final boolean string = symbolLookup == null && getColumnType(columnIndex) == ColumnType.STRING;
+        if (string) {
+            auxMem.jumpTo(0);
+        }
+        this.symbolLookup = symbolLookup;
+        try {
+            long skip = rowLo;
+            for (int g = 0, n = getRowGroupCount(); g < n; g++) {
+                final long rowGroupRowCount = rowGroupRowCounts.getQuick(g);
+                if (skip >= rowGroupRowCount) {
+                    skip -= rowGroupRowCount;
+                    continue;
+                }
+                rowsToSkip = skip;
+                decodeColumnChunk0(g, columnIndex, dataMem, auxMem);
+                skip = 0;
+            }
+        } finally {
+            this.symbolLookup = null;
+            rowsToSkip = 0;
+        }
+        if (string) {
+            auxMem.putLong(dataMem.getAppendOffset());
+        }
+    }
+
+    /**
+     * Decodes column chunk into QuestDB column layout. Memory is truncated first.
+     *
+     * @param rowGroupIndex row group index
+     * @param columnIndex   column index
+     * @param dataMem       receives fixed size values or string data
+     * @param auxMem        receives string offsets, one per row plus the end offset, may be null for fixed size columns
+     */
+    public void decodeColumnChunk(int rowGroupIndex, int columnIndex, MemoryCARW dataMem, @Nullable MemoryCARW auxMem) {
+        dataMem.jumpTo(0);
+        final boolean string = getColumnType(columnIndex) == ColumnType.STRING;
+        if (string) {
+            auxMem.jumpTo(0);
+        }
+        decodeColumnChunk0(rowGroupIndex, columnIndex, dataMem, auxMem);
+        if (string) {
+            auxMem.putLong(dataMem.getAppendOffset());
+        }
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Returns the field id of the column. Partitions converted to Parquet store writer index of the column
+     * as its field id, so that the column can be found after it is renamed.
+     *
+     * @param columnIndex column index
+     * @return field id or -1 when the schema has no field id for the column
+     */
+    public int getColumnId(int columnIndex) {
+        return columns.getQuick(columnIndex * COLUMN_STRIDE + COLUMN_ID);
+    }
+
+    public String getColumnName(int columnIndex) {
+        return columnNames.getQuick(columnIndex);
+    }
+
+    public int getColumnType(int columnIndex) {
+        return columns.getQuick(columnIndex * COLUMN_STRIDE + COLUMN_TYPE);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupRowCounts.size();
+    }
+
+    public long getRowGroupRowCount(int rowGroupIndex) {
+        return rowGroupRowCounts.getQuick(rowGroupIndex);
+    }
+
+    /**
+     * Opens Parquet file and reads its metadata.
+     *
+     * @param path file path
+     * @throws CairoException when file cannot be read, is not a Parquet file or uses unsupported features
+     */
+    public void of(LPSZ path) {
+        clear();
+        try {
+            fd = ff.openRO(path);
+            if (fd < 0) {
+                throw CairoException.critical(ff.errno()).put("could not open parquet file [path=").put(path).put(']');
+            }
+            fileSize = ff.length(fd);
+            if (fileSize < MAGIC_SIZE + FOOTER_SIZE) {
+                throw CairoException.nonCritical().put("not a parquet file [path=").put(path).put(']');
+            }
+            fileAddress = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_DEFAULT);
+            final int metadataSize = Unsafe.getUnsafe().getInt(fileAddress + fileSize - FOOTER_SIZE);
+            metadataOffset = fileSize - FOOTER_SIZE - metadataSize;
+            if (
+                    Unsafe.getUnsafe().getInt(fileAddress) != MAGIC
+                            || Unsafe.getUnsafe().getInt(fileAddress + fileSize - Integer.BYTES) != MAGIC
+                            || metadataSize < 0
+                            || metadataOffset < MAGIC_SIZE
+            ) {
+                throw CairoException.nonCritical().put("not a parquet file [path=").put(path).put(']');
+            }
+            readMetadata(fileAddress + metadataOffset, fileAddress + fileSize - FOOTER_SIZE);
+        } catch (Throwable th) {
+            clear();
+            throw th;
+        }
+    }
+
+    private static int fixedSizeOf(int physicalType) {
+        switch (physicalType) {
+            case TYPE_INT32:
+            case TYPE_FLOAT:
+                return Integer.BYTES;
+            case TYPE_INT64:
+            case TYPE_DOUBLE:
+                return Long.BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    private static MemoryCARW newPageMem() {
+        return Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    private static void putFixedValue(int columnType, int physicalType, long address, MemoryCARW dataMem) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+                dataMem.putByte((byte) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.SHORT:
+                dataMem.putShort((short) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.CHAR:
+                dataMem.putChar((char) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+                dataMem.putInt(Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.DATE:
+                if (physicalType == TYPE_INT32) {
+                    // days since epoch
+                    dataMem.putLong(Unsafe.getUnsafe().getInt(address) * Dates.DAY_MILLIS);
+                } else {
+                    dataMem.putLong(Unsafe.getUnsafe().getLong(address));
+                }
+                break;
+            default:
+                dataMem.putLong(Unsafe.getUnsafe().getLong(address));
+                break;
+        }
+    }
+
+    private static void putNull(int columnType, MemoryCARW dataMem, MemoryCARW auxMem) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                dataMem.putByte((byte) 0);
+                break;
+            case ColumnType.SHORT:
+                dataMem.putShort((short) 0);
+                break;
+            case ColumnType.CHAR:
+                dataMem.putChar((char) 0);
+                break;
+            case ColumnType.INT:
+                dataMem.putInt(Numbers.INT_NaN);
+                break;
+            case ColumnType.FLOAT:
+                dataMem.putFloat(Float.NaN);
+                break;
+            case ColumnType.DOUBLE:
+                dataMem.putDouble(Double.NaN);
+                break;
+            case ColumnType.STRING:
+                auxMem.putLong(dataMem.getAppendOffset());
+                dataMem.putNullStr();
+                break;
+            default:
+                dataMem.putLong(Numbers.LONG_NaN);
+                break;
+        }
+    }
+
+    private void clear() {
+        if (fileAddress != 0) {
+            ff.munmap(fileAddress, fileSize, MemoryTag.MMAP_DEFAULT);
+            fileAddress = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        columnCount = 0;
+        columnNames.clear();
+        columns.clear();
+        chunks.clear();
+        rowGroupRowCounts.clear();
+        dictionaryValues.clear();
+        rowCount = 0;
+    }
+
+    private CairoException corrupt(int columnIndex) {
+        return CairoException.nonCritical().put("corrupt parquet column chunk [column=").put(columnNames.getQuick(columnIndex)).put(']');
+    }
+
+    private void decodeByteStreamSplit(int columnIndex, int valueSize, long lo, long hi) {
+        final long size = hi - lo;
+        if (size % valueSize != 0) {
+            throw corrupt(columnIndex);
+        }
+        final MemoryCARW mem = valuesMem != null ? valuesMem : (valuesMem = newPageMem());
+        mem.jumpTo(0);
+        final long valueCount = size / valueSize;
+        final long address = mem.appendAddressFor(size);
+        for (int k = 0; k < valueSize; k++) {
+            final long streamAddress = lo + k * valueCount;
+            for (long i = 0; i < valueCount; i++) {
+                Unsafe.getUnsafe().putByte(address + i * valueSize + k, Unsafe.getUnsafe().getByte(streamAddress + i));
+            }
+        }
+    }
+
+    private void decodeColumnChunk0(int rowGroupIndex, int columnIndex, MemoryCARW dataMem, @Nullable MemoryCARW auxMem) {
+        final int chunk = (rowGroupIndex * columnCount + columnIndex) * CHUNK_STRIDE;
+        final long codec = chunks.getQuick(chunk + CHUNK_CODEC);
+        if (codec != CODEC_UNCOMPRESSED && codec != CODEC_GZIP) {
+            throw CairoException.nonCritical().put("unsupported parquet compression codec [column=")
+                    .put(columnNames.getQuick(columnIndex))
+                    .put(", codec=").put(codec)
+                    .put(']');
+        }
+        final long valueCount = chunks.getQuick(chunk + CHUNK_VALUE_COUNT);
+        if (valueCount != rowGroupRowCounts.getQuick(rowGroupIndex)) {
+            throw corrupt(columnIndex);
+        }
+        final long dataPageOffset = chunks.getQuick(chunk + CHUNK_DATA_PAGE_OFFSET);
+        final long dictionaryPageOffset = chunks.getQuick(chunk + CHUNK_DICTIONARY_PAGE_OFFSET);
+        final int physicalType = columns.getQuick(columnIndex * COLUMN_STRIDE + COLUMN_PHYSICAL_TYPE);
+        final boolean optional = columns.getQuick(columnIndex * COLUMN_STRIDE + COLUMN_REPETITION) == REPETITION_OPTIONAL;
+        final int columnType = columns.getQuick(columnIndex * COLUMN_STRIDE + COLUMN_TYPE);
+        if (symbolLookup != null && physicalType != TYPE_BYTE_ARRAY) {
+            throw corrupt(columnIndex);
+        }
+
+        dictionarySize = -1;
+        dictionaryAddress = 0;
+        dictionaryValues.clear();
+        dictionaryKeys.clear();
+
+        long offset = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset : dataPageOffset;
+        final long pagesHi = fileAddress + metadataOffset;
+        long decoded = 0;
+        while (decoded < valueCount) {
+            if (offset < MAGIC_SIZE || offset >= metadataOffset) {
+                throw corrupt(columnIndex);
+            }
+            thriftReader.of(fileAddress + offset, pagesHi);
+            int pageType = -1;
+            int pageSize = -1;
+            int uncompressedPageSize = -1;
+            int pageValueCount = -1;
+            int encoding = -1;
+            int defLevelsSize = -1;
+            int repLevelsSize = 0;
+            boolean compressed = codec != CODEC_UNCOMPRESSED;
+            int fieldType;
+            while ((fieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+                switch (thriftReader.getFieldId()) {
+                    case 1:
+                        pageType = thriftReader.readI32();
+                        break;
+                    case 2:
+                        uncompressedPageSize = thriftReader.readI32();
+                        break;
+                    case 3:
+                        pageSize = thriftReader.readI32();
+                        break;
+                    case 5:
+                    case 7:
+                    case 8:
+                        // data page, dictionary page and data page v2 headers share leading fields
+                        thriftReader.beginStruct();
+                        int headerFieldType;
+                        while ((headerFieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+                            final int id = thriftReader.getFieldId();
+                            if (id == 1) {
+                                pageValueCount = thriftReader.readI32();
+                            } else if ((id == 2 && pageType != PAGE_TYPE_DATA_PAGE_V2) || (id == 4 && pageType == PAGE_TYPE_DATA_PAGE_V2)) {
+                                encoding = thriftReader.readI32();
+                            } else if (id == 5 && pageType == PAGE_TYPE_DATA_PAGE_V2) {
+                                defLevelsSize = thriftReader.readI32();
+                            } else if (id == 6 && pageType == PAGE_TYPE_DATA_PAGE_V2) {
+                                repLevelsSize = thriftReader.readI32();
+                            } else if (id == 7 && pageType == PAGE_TYPE_DATA_PAGE_V2) {
+                                compressed &= headerFieldType == THRIFT_TYPE_BOOLEAN_TRUE;
+                            } else {
+                                thriftReader.skip(headerFieldType);
+                            }
+                        }
+                        thriftReader.endStruct();
+                        break;
+                    default:
+                        thriftReader.skip(fieldType);
+                        break;
+                }
+            }
+
+            final long filePageLo = thriftReader.getPosition();
+            final long filePageHi = filePageLo + pageSize;
+            if (pageSize < 0 || filePageHi > pagesHi) {
+                throw corrupt(columnIndex);
+            }
+
+            long pageLo = filePageLo;
+            long pageHi = filePageHi;
+            if (compressed && (pageType == PAGE_TYPE_DICTIONARY_PAGE || pageType == PAGE_TYPE_DATA_PAGE || pageType == PAGE_TYPE_DATA_PAGE_V2)) {
+                // dictionary values are referenced while data pages are decoded, keep them apart
+                final MemoryCARW mem;
+                if (pageType == PAGE_TYPE_DICTIONARY_PAGE) {
+                    mem = dictionaryPageMem != null ? dictionaryPageMem : (dictionaryPageMem = newPageMem());
+                } else {
+                    mem = pageMem != null ? pageMem : (pageMem = newPageMem());
+                }
+                // levels of v2 pages are never compressed
+                final int levelsSize = pageType == PAGE_TYPE_DATA_PAGE_V2 ? Math.max(defLevelsSize, 0) + repLevelsSize : 0;
+                if (uncompressedPageSize < levelsSize || levelsSize > pageSize) {
+                    throw corrupt(columnIndex);
+                }
+                mem.jumpTo(0);
+                if (levelsSize > 0) {
+                    mem.putBlockOfBytes(filePageLo, levelsSize);
+                }
+                inflate(columnIndex, filePageLo + levelsSize, filePageHi, mem, uncompressedPageSize - levelsSize);
+                pageLo = mem.getAddress();
+                pageHi = pageLo + uncompressedPageSize;
+            }
+
+            switch (pageType) {
+                case PAGE_TYPE_DICTIONARY_PAGE:
+                    decodeDictionary(columnIndex, physicalType, pageValueCount, pageLo, pageHi);
+                    break;
+                case PAGE_TYPE_DATA_PAGE: {
+                    if (pageValueCount < 0 || decoded + pageValueCount > valueCount) {
+                        throw corrupt(columnIndex);
+                    }
+                    long valuesLo = pageLo;
+                    if (optional) {
+                        if (pageLo + Integer.BYTES > pageHi) {
+                            throw corrupt(columnIndex);
+                        }
+                        final int size = Unsafe.getUnsafe().getInt(pageLo);
+                        valuesLo = pageLo + Integer.BYTES + size;
+                        if (size < 0 || valuesLo > pageHi) {
+                            throw corrupt(columnIndex);
+                        }
+                        defLevelsDecoder.of(pageLo + Integer.BYTES, valuesLo, 1);
+                    }
+                    decodeValues(columnIndex, physicalType, columnType, optional, encoding, pageValueCount, valuesLo, pageHi, dataMem, auxMem);
+                    decoded += pageValueCount;
+                    break;
+                }
+                case PAGE_TYPE_DATA_PAGE_V2: {
+                    if (pageValueCount < 0 || decoded + pageValueCount > valueCount || repLevelsSize != 0) {
+                        throw corrupt(columnIndex);
+                    }
+                    final long valuesLo = pageLo + Math.max(defLevelsSize, 0);
+                    if (valuesLo > pageHi) {
+                        throw corrupt(columnIndex);
+                    }
+                    if (optional) {
+                        defLevelsDecoder.of(pageLo, valuesLo, 1);
+                    }
+                    decodeValues(columnIndex, physicalType, columnType, optional, encoding, pageValueCount, valuesLo, pageHi, dataMem, auxMem);
+                    decoded += pageValueCount;
+                    break;
+                }
+                default:
+                    // index pages and unknown page types are skipped
+                    break;
+            }
+            offset = filePageHi - fileAddress;
+        }
+    }
+
+    private void decodeDictionary(int columnIndex, int physicalType, int valueCount, long lo, long hi) {
+        if (valueCount < 0) {
+            throw corrupt(columnIndex);
+        }
+        dictionarySize = valueCount;
+        dictionaryAddress = lo;
+        dictionaryValues.clear();
+        if (physicalType == TYPE_BYTE_ARRAY) {
+            long p = lo;
+            for (int i = 0; i < valueCount; i++) {
+                if (p + Integer.BYTES > hi) {
+                    throw corrupt(columnIndex);
+                }
+                dictionaryValues.add(p);
+                final int len = Unsafe.getUnsafe().getInt(p);
+                if (len < 0 || p + Integer.BYTES + len > hi) {
+                    throw corrupt(columnIndex);
+                }
+                if (symbolLookup != null) {
+                    // resolve each distinct value once per column chunk
+                    dictionaryKeys.add(keyOf(columnIndex, p + Integer.BYTES, len));
+                }
+                p += Integer.BYTES + len;
+            }
+        } else {
+            final int size = fixedSizeOf(physicalType);
+            if (size == -1 || lo + (long) size * valueCount > hi) {
+                throw corrupt(columnIndex);
+            }
+        }
+    }
+
+    private void decodeValues(
+            int columnIndex,
+            int physicalType,
+            int columnType,
+            boolean optional,
+            int encoding,
+            int valueCount,
+            long lo,
+            long hi,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem
+    ) {
+        final int fixedSize = fixedSizeOf(physicalType);
+        final boolean dictionary;
+        if (encoding == ENCODING_PLAIN_DICTIONARY || encoding == ENCODING_RLE_DICTIONARY) {
+            if (dictionarySize < 0 || lo >= hi) {
+                throw corrupt(columnIndex);
+            }
+            indicesDecoder.of(lo + 1, hi, Unsafe.getUnsafe().getByte(lo));
+            dictionary = true;
+        } else if (encoding == ENCODING_PLAIN) {
+            dictionary = false;
+        } else if (encoding == ENCODING_DELTA_BINARY_PACKED && (physicalType == TYPE_INT32 || physicalType == TYPE_INT64)) {
+            final MemoryCARW mem = valuesMem != null ? valuesMem : (valuesMem = newPageMem());
+            mem.jumpTo(0);
+            deltaDecoder.decode(lo, hi, fixedSize, mem);
+            lo = mem.getAddress();
+            hi = lo + mem.getAppendOffset();
+            dictionary = false;
+        } else if (encoding == ENCODING_BYTE_STREAM_SPLIT && fixedSize != -1) {
+            decodeByteStreamSplit(columnIndex, fixedSize, lo, hi);
+            lo = valuesMem.getAddress();
+            hi = lo + valuesMem.getAppendOffset();
+            dictionary = false;
+        } else {
+            throw CairoException.nonCritical().put("unsupported parquet encoding [column=")
+                    .put(columnNames.getQuick(columnIndex))
+                    .put(", encoding=").put(encoding)
+                    .put(']');
+        }
+
+        long p = lo;
+        long bitIndex = 0;
+        for (int i = 0; i < valueCount; i++) {
+            // skipped values are consumed, but not written out
+            final boolean skip = rowsToSkip > 0;
+            if (skip) {
+                rowsToSkip--;
+            }
+
+            if (optional && defLevelsDecoder.next() == 0) {
+                if (skip) {
+                    continue;
+                }
+                if (symbolLookup != null) {
+                    dataMem.putInt(SymbolTable.VALUE_IS_NULL);
+                } else {
+                    putNull(columnType, dataMem, auxMem);
+                }
+                continue;
+            }
+
+            if (dictionary) {
+                final int index = indicesDecoder.next();
+                if (index < 0 || index >= dictionarySize) {
+                    throw corrupt(columnIndex);
+                }
+                if (skip) {
+                    continue;
+                }
+                if (symbolLookup != null) {
+                    dataMem.putInt(dictionaryKeys.getQuick(index));
+                } else if (physicalType == TYPE_BYTE_ARRAY) {
+                    final long address = dictionaryValues.getQuick(index);
+                    putString(columnIndex, address + Integer.BYTES, Unsafe.getUnsafe().getInt(address), dataMem, auxMem);
+                } else {
+                    putFixedValue(columnType, physicalType, dictionaryAddress + (long) index * fixedSize, dataMem);
+                }
+                continue;
+            }
+
+            switch (physicalType) {
+                case TYPE_BOOLEAN: {
+                    final long address = p + (bitIndex >>> 3);
+                    if (address >= hi) {
+                        throw corrupt(columnIndex);
+                    }
+                    if (!skip) {
+                        dataMem.putBool(((Unsafe.getUnsafe().getByte(address) >>> (bitIndex & 7)) & 1) == 1);
+                    }
+                    bitIndex++;
+                    break;
+                }
+                case TYPE_BYTE_ARRAY: {
+                    if (p + Integer.BYTES > hi) {
+                        throw corrupt(columnIndex);
+                    }
+                    final int len = Unsafe.getUnsafe().getInt(p);
+                    if (len < 0 || p + Integer.BYTES + len > hi) {
+                        throw corrupt(columnIndex);
+                    }
+                    if (skip) {
+                        // nothing to write
+                    } else if (symbolLookup != null) {
+                        dataMem.putInt(keyOf(columnIndex, p + Integer.BYTES, len));
+                    } else {
+                        putString(columnIndex, p + Integer.BYTES, len, dataMem, auxMem);
+                    }
+                    p += Integer.BYTES + len;
+                    break;
+                }
+                default:
+                    if (p + fixedSize > hi) {
+                        throw corrupt(columnIndex);
+                    }
+                    if (!skip) {
+                        putFixedValue(columnType, physicalType, p, dataMem);
+                    }
+                    p += fixedSize;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Decompresses GZIP member into the memory.
+     *
+     * @param columnIndex      column index, used in error messages
+     * @param lo               address of the GZIP member
+     * @param hi               end of the GZIP member
+     * @param mem              receives uncompressed bytes at its append offset
+     * @param uncompressedSize expected number of uncompressed bytes
+     */
+    private void inflate(int columnIndex, long lo, long hi, MemoryCARW mem, int uncompressedSize) {
+        if (
+                lo + Zip.gzipHeaderLen + GZIP_TRAILER_SIZE > hi
+                        || Unsafe.getUnsafe().getByte(lo) != (byte) 0x1f
+                        || Unsafe.getUnsafe().getByte(lo + 1) != (byte) 0x8b
+                        || Unsafe.getUnsafe().getByte(lo + 2) != 8
+        ) {
+            throw corrupt(columnIndex);
+        }
+        final int flags = Unsafe.getUnsafe().getByte(lo + 3);
+        long p = lo + Zip.gzipHeaderLen;
+        if ((flags & GZIP_FEXTRA) != 0) {
+            p += Short.BYTES + (Unsafe.getUnsafe().getShort(p) & 0xffff);
+        }
+        if ((flags & GZIP_FNAME) != 0) {
+            p = skipZeroTerminated(columnIndex, p, hi);
+        }
+        if ((flags & GZIP_FCOMMENT) != 0) {
+            p = skipZeroTerminated(columnIndex, p, hi);
+        }
+        if ((flags & GZIP_FHCRC) != 0) {
+            p += Short.BYTES;
+        }
+        if (p + GZIP_TRAILER_SIZE > hi) {
+            throw corrupt(columnIndex);
+        }
+        if (uncompressedSize == 0) {
+            return;
+        }
+
+        if (inflater == 0) {
+            inflater = Zip.inflateInit(true);
+            if (inflater < 0) {
+                inflater = 0;
+                throw CairoException.critical(0).put("could not allocate inflater");
+            }
+        } else {
+            Zip.inflateReset(inflater);
+        }
+        final long address = mem.appendAddressFor(uncompressedSize);
+        Zip.setInput(inflater, p, (int) (hi - p));
+        // the trailer is all that remains of a single member page
+        if (
+                Zip.inflate(inflater, address, uncompressedSize, true) != uncompressedSize
+                        || Zip.availIn(inflater) != GZIP_TRAILER_SIZE
+                        || Zip.crc32(0, address, uncompressedSize) != Unsafe.getUnsafe().getInt(hi - GZIP_TRAILER_SIZE)
+        ) {
+            throw corrupt(columnIndex);
+        }
+    }
+
+    private int keyOf(int columnIndex, long lo, int len) {
+        utf16Sink.clear();
+        if (!Utf8s.utf8ToUtf16(lo, lo + len, utf16Sink)) {
+            throw CairoException.nonCritical().put("invalid UTF-8 value in parquet column [column=").put(columnNames.getQuick(columnIndex)).put(']');
+        }
+        final int key = symbolLookup.keyOf(utf16Sink);
+        if (key < 0) {
+            throw CairoException.critical(0).put("symbol not found in symbol table [column=").put(columnNames.getQuick(columnIndex))
+                    .put(", value=").put(utf16Sink)
+                    .put(']');
+        }
+        return key;
+    }
+
+    private void putString(int columnIndex, long lo, int len, MemoryCARW dataMem, MemoryCARW auxMem) {
+        utf16Sink.clear();
+        if (!Utf8s.utf8ToUtf16(lo, lo + len, utf16Sink)) {
+            throw CairoException.nonCritical().put("invalid UTF-8 value in parquet column [column=").put(columnNames.getQuick(columnIndex)).put(']');
+        }
+        auxMem.putLong(dataMem.getAppendOffset());
+        dataMem.putStr(utf16Sink);
+    }
+
+    private void readColumnChunk(long rowGroupIndex) {
+        long dataPageOffset = -1;
+        long dictionaryPageOffset = -1;
+        long valueCount = -1;
+        long codec = CODEC_UNCOMPRESSED;
+        int fieldType;
+        thriftReader.beginStruct();
+        while ((fieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+            switch (thriftReader.getFieldId()) {
+                case 1:
+                    throw CairoException.nonCritical().put("parquet column chunks in external files are not supported");
+                case 3:
+                    thriftReader.beginStruct();
+                    int metaFieldType;
+                    while ((metaFieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+                        switch (thriftReader.getFieldId()) {
+                            case 4:
+                                codec = thriftReader.readI32();
+                                break;
+                            case 5:
+                                valueCount = thriftReader.readI64();
+                                break;
+                            case 9:
+                                dataPageOffset = thriftReader.readI64();
+                                break;
+                            case 11:
+                                dictionaryPageOffset = thriftReader.readI64();
+                                break;
+                            default:
+                                thriftReader.skip(metaFieldType);
+                                break;
+                        }
+                    }
+                    thriftReader.endStruct();
+                    break;
+                default:
+                    thriftReader.skip(fieldType);
+                    break;
+            }
+        }
+        thriftReader.endStruct();
+        if (dataPageOffset < 0 || valueCount < 0) {
+            throw CairoException.nonCritical().put("corrupt parquet metadata, column chunk without data [rowGroup=").put(rowGroupIndex).put(']');
+        }
+        chunks.add(dataPageOffset);
+        chunks.add(dictionaryPageOffset);
+        chunks.add(valueCount);
+        chunks.add(codec);
+    }
+
+    private void readMetadata(long lo, long hi) {
+        thriftReader.of(lo, hi);
+        int fieldType;
+        while ((fieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+            switch (thriftReader.getFieldId()) {
+                case 2:
+                    readSchema();
+                    break;
+                case 3:
+                    rowCount = thriftReader.readI64();
+                    break;
+                case 4:
+                    readRowGroups();
+                    break;
+                default:
+                    thriftReader.skip(fieldType);
+                    break;
+            }
+        }
+
+        if (chunks.size() != rowGroupRowCounts.size() * columnCount * CHUNK_STRIDE) {
+            throw CairoException.nonCritical().put("corrupt parquet metadata, column chunk count mismatch");
+        }
+    }
+
+    private void readRowGroups() {
+        for (int g = 0, n = thriftReader.readListHeader(); g < n; g++) {
+            long rowGroupRowCount = -1;
+            int fieldType;
+            thriftReader.beginStruct();
+            while ((fieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+                switch (thriftReader.getFieldId()) {
+                    case 1:
+                        for (int i = 0, m = thriftReader.readListHeader(); i < m; i++) {
+                            readColumnChunk(g);
+                        }
+                        break;
+                    case 3:
+                        rowGroupRowCount = thriftReader.readI64();
+                        break;
+                    default:
+                        thriftReader.skip(fieldType);
+                        break;
+                }
+            }
+            thriftReader.endStruct();
+            if (rowGroupRowCount < 0) {
+                throw CairoException.nonCritical().put("corrupt parquet metadata, row group without row count [rowGroup=").put(g).put(']');
+            }
+            rowGroupRowCounts.add(rowGroupRowCount);
+        }
+    }
+
+    private void readSchema() {
+        final int elementCount = thriftReader.readListHeader();
+        for (int e = 0; e < elementCount; e++) {
+            int physicalType = -1;
+            int repetition = REPETITION_REQUIRED;
+            int childCount = 0;
+            int convertedType = -1;
+            int fieldId = -1;
+            String name = null;
+            int fieldType;
+            thriftReader.beginStruct();
+            while ((fieldType = thriftReader.readFieldHeader()) != THRIFT_TYPE_STOP) {
+                switch (thriftReader.getFieldId()) {
+                    case 1:
+                        physicalType = thriftReader.readI32();
+                        break;
+                    case 3:
+                        repetition = thriftReader.readI32();
+                        break;
+                    case 4: {
+                        final long len = thriftReader.readBinaryLength();
+                        final long p = thriftReader.getPosition();
+                        utf16Sink.clear();
+                        if (!Utf8s.utf8ToUtf16(p, p + len, utf16Sink)) {
+                            throw CairoException.nonCritical().put("corrupt parquet metadata, invalid column name");
+                        }
+                        name = utf16Sink.toString();
+                        thriftReader.skipBytes(len);
+                        break;
+                    }
+                    case 5:
+                        childCount = thriftReader.readI32();
+                        break;
+                    case 6:
+                        convertedType = thriftReader.readI32();
+                        break;
+                    case 9:
+                        fieldId = thriftReader.readI32();
+                        break;
+                    default:
+                        thriftReader.skip(fieldType);
+                        break;
+                }
+            }
+            thriftReader.endStruct();
+
+            if (e == 0) {
+                // root of the schema tree
+                if (childCount != elementCount - 1) {
+                    throw CairoException.nonCritical().put("nested parquet schemas are not supported");
+                }
+                continue;
+            }
+            if (childCount > 0 || name == null) {
+                throw CairoException.nonCritical().put("nested parquet schemas are not supported");
+            }
+            if (repetition == REPETITION_REPEATED) {
+                throw CairoException.nonCritical().put("repeated parquet columns are not supported [column=").put(name).put(']');
+            }
+            final int columnType = toColumnType(physicalType, convertedType);
+            if (columnType == -1) {
+                throw CairoException.nonCritical().put("unsupported parquet column type [column=").put(name)
+                        .put(", type=").put(physicalType)
+                        .put(", convertedType=").put(convertedType)
+                        .put(']');
+            }
+            columnNames.add(name);
+            columns.add(physicalType);
+            columns.add(convertedType);
+            columns.add(repetition);
+            columns.add(columnType);
+            columns.add(fieldId);
+            columnCount++;
+        }
+    }
+
+    private long skipZeroTerminated(int columnIndex, long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) == 0) {
+                return p + 1;
+            }
+        }
+        throw corrupt(columnIndex);
+    }
+}
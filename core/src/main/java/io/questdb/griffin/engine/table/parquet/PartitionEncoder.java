@@ -0,0 +1,705 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.vm.NullMemoryMR;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Path;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Writes table partitions as GZIP compressed Parquet files. Each partition is split into row groups
+ * of at most the configured page frame size, every column chunk consists of a single data page
+ * with RLE encoded definition levels. Values are encoded ahead of compression to make them compress
+ * better: 64-bit integers, dates and timestamps are DELTA_BINARY_PACKED, floating point values are
+ * BYTE_STREAM_SPLIT and other types are PLAIN. Symbol columns are written as dictionary encoded UTF-8
+ * strings where the dictionary holds only the symbols present in the row group. Field id of each column
+ * is the writer index of the column.
+ * <p>
+ * Only standard Parquet encodings are used, so that converted partitions stay readable by other tools.
+ * For this reason doubles are not Gorilla XOR encoded, byte stream split followed by GZIP takes its place.
+ */
+public class PartitionEncoder implements QuietCloseable {
+    private static final String CREATED_BY = "QuestDB";
+    private static final int DEFLATE_BUFFER_SIZE = 64 * 1024;
+    private static final Log LOG = LogFactory.getLog(PartitionEncoder.class);
+    private static final int PAGE_SIZE = 64 * 1024;
+    // per row group and column: data page offset, dictionary page offset, compressed and uncompressed chunk size
+    private final LongList columnChunks = new LongList();
+    private final MemoryCARW compressedMem;
+    private final MemoryCARW defLevelsMem;
+    private final DeltaBinaryPackedEncoder deltaEncoder = new DeltaBinaryPackedEncoder();
+    private final IntList dictionaryKeys = new IntList();
+    private final MemoryCARW dictionaryMem;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final MemoryCARW headerMem;
+    private final MemoryCARW indicesMem;
+    private final int mkDirMode;
+    private final RleBitPackedEncoder rleEncoder = new RleBitPackedEncoder();
+    private final int rowGroupSize;
+    // per row group: row count, byte size
+    private final LongList rowGroups = new LongList();
+    private final ThriftCompactWriter thriftWriter = new ThriftCompactWriter();
+    private final DirectUtf8Sink utf8Sink;
+    private final MemoryCARW valuesMem;
+    private int crc;
+    private long deflater;
+    private int fd = -1;
+    private long fileOffset;
+    private Path path;
+
+    public PartitionEncoder(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.rowGroupSize = configuration.getSqlPageFrameMaxRows();
+        try {
+            this.compressedMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.defLevelsMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.dictionaryMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.headerMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.indicesMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.valuesMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.utf8Sink = new DirectUtf8Sink(PAGE_SIZE);
+            this.deflater = Zip.deflateInit();
+            if (deflater < 0) {
+                deflater = 0;
+                throw CairoException.critical(0).put("could not allocate deflater");
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public static void assertSupported(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0 && physicalTypeOf(columnType) == -1) {
+                throw CairoException.nonCritical().put("unsupported column type for Parquet export [column=")
+                        .put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+        }
+    }
+
+    public static boolean isSupported(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0 && physicalTypeOf(columnType) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (deflater != 0) {
+            Zip.deflateEnd(deflater);
+            deflater = 0;
+        }
+        Misc.free(compressedMem);
+        Misc.free(defLevelsMem);
+        Misc.free(dictionaryMem);
+        Misc.free(headerMem);
+        Misc.free(indicesMem);
+        Misc.free(valuesMem);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Writes all partitions of the reader that belong to the given partition timestamp, including
+     * split partitions, into a single Parquet file.
+     *
+     * @param reader             table reader
+     * @param partitionTimestamp floor timestamp of the partition
+     * @param path               file to create, parent directories are created when necessary
+     * @return number of rows written
+     */
+    public long encode(TableReader reader, long partitionTimestamp, Path path) {
+        final TableRecordMetadata metadata = reader.getMetadata();
+        assertSupported(metadata);
+
+        final PartitionBy.PartitionFloorMethod floorMethod = PartitionBy.getPartitionFloorMethod(reader.getPartitionedBy());
+        int partitionLo = -1;
+        int partitionHi = -1;
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            final long timestamp = reader.getPartitionTimestampByIndex(i);
+            if ((floorMethod != null ? floorMethod.floor(timestamp) : timestamp) == partitionTimestamp) {
+                if (partitionLo == -1) {
+                    partitionLo = i;
+                }
+                partitionHi = i + 1;
+            }
+        }
+        if (partitionLo == -1) {
+            throw CairoException.nonCritical().put("partition does not exist [table=").put(reader.getTableToken().getTableName()).put(']');
+        }
+
+        this.path = path;
+        if (ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create directories [file=").put(path).put(']');
+        }
+        fd = ff.openRW(path, fileOpenOpts);
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open parquet file [path=").put(path).put(']');
+        }
+        boolean success = false;
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate parquet file [path=").put(path).put(']');
+            }
+            columnChunks.clear();
+            rowGroups.clear();
+            fileOffset = 0;
+
+            headerMem.jumpTo(0);
+            headerMem.putInt(MAGIC);
+            write(headerMem);
+
+            long rowCount = 0;
+            for (int partitionIndex = partitionLo; partitionIndex < partitionHi; partitionIndex++) {
+                final long partitionRowCount = reader.openPartition(partitionIndex);
+                for (long lo = 0; lo < partitionRowCount; lo += rowGroupSize) {
+                    encodeRowGroup(reader, partitionIndex, lo, Math.min(partitionRowCount, lo + rowGroupSize));
+                }
+                rowCount += Math.max(0, partitionRowCount);
+            }
+            writeFooter(metadata, rowCount);
+            success = true;
+            LOG.info().$("converted partition to parquet [table=").$(reader.getTableToken())
+                    .$(", path=").$(path)
+                    .$(", rows=").$(rowCount)
+                    .$(", size=").$(fileOffset)
+                    .I$();
+            return rowCount;
+        } finally {
+            ff.close(fd);
+            fd = -1;
+            if (!success) {
+                ff.remove(path);
+            }
+        }
+    }
+
+    private static int convertedTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_TYPE_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_TYPE_INT_16;
+            case ColumnType.CHAR:
+                return CONVERTED_TYPE_UINT_16;
+            case ColumnType.DATE:
+                return CONVERTED_TYPE_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TYPE_TIMESTAMP_MICROS;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return CONVERTED_TYPE_UTF8;
+            default:
+                return -1;
+        }
+    }
+
+    private static int encodingOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return ENCODING_DELTA_BINARY_PACKED;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                // Parquet has no XOR encoding. Splitting values into byte streams puts sign, exponent and
+                // high mantissa bytes of slowly changing values next to each other, where GZIP finds runs
+                return ENCODING_BYTE_STREAM_SPLIT;
+            case ColumnType.SYMBOL:
+                return ENCODING_RLE_DICTIONARY;
+            default:
+                return ENCODING_PLAIN;
+        }
+    }
+
+    private static boolean isRequired(int columnType) {
+        // these types have no null representation in QuestDB
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int physicalTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return TYPE_BYTE_ARRAY;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Writes the k-th byte of every value into the k-th stream, so that similar bytes of floating point
+     * values, such as sign and exponent, are adjacent.
+     */
+    private static void splitByteStreams(MemoryCARW src, int valueSize, MemoryCARW dst) {
+        final long srcAddress = src.getAddress();
+        final long size = src.getAppendOffset();
+        final long valueCount = size / valueSize;
+        dst.jumpTo(0);
+        final long dstAddress = dst.appendAddressFor(size);
+        for (int k = 0; k < valueSize; k++) {
+            final long streamAddress = dstAddress + k * valueCount;
+            for (long i = 0; i < valueCount; i++) {
+                Unsafe.getUnsafe().putByte(streamAddress + i, Unsafe.getUnsafe().getByte(srcAddress + i * valueSize + k));
+            }
+        }
+    }
+
+    private void beginPage() {
+        compressedMem.jumpTo(0);
+        compressedMem.putBlockOfBytes(Zip.gzipHeader, Zip.gzipHeaderLen);
+        Zip.deflateReset(deflater);
+        crc = 0;
+    }
+
+    /**
+     * Compresses the bytes into the current page, output is appended to the compressed memory.
+     *
+     * @param lo     address of the bytes
+     * @param len    number of bytes
+     * @param finish true when these are the last bytes of the page
+     */
+    private void deflate(long lo, long len, boolean finish) {
+        crc = Zip.crc32(crc, lo, (int) len);
+        Zip.setInput(deflater, lo, (int) len);
+        while (true) {
+            final long offset = compressedMem.getAppendOffset();
+            final long address = compressedMem.appendAddressFor(DEFLATE_BUFFER_SIZE);
+            final int ret = Zip.deflate(deflater, address, DEFLATE_BUFFER_SIZE, finish);
+            final int availOut = Zip.availOut(deflater);
+            compressedMem.jumpTo(offset + DEFLATE_BUFFER_SIZE - availOut);
+            if (ret < 0 && ret != Zip.Z_BUF_ERROR) {
+                throw CairoException.critical(0).put("could not compress parquet page [ret=").put(ret).put(", path=").put(path).put(']');
+            }
+            // without finish, spare output space means that all input is consumed
+            if (finish ? ret == Zip.Z_STREAM_END : availOut > 0) {
+                break;
+            }
+        }
+    }
+
+    private void encodeColumnChunk(TableReader reader, int partitionIndex, int columnIndex, int columnType, long lo, long hi) {
+        final int base = reader.getColumnBase(partitionIndex);
+        final int primaryIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+        final MemoryR column = reader.getColumn(primaryIndex);
+        final long columnTop = column instanceof NullMemoryMR ? hi : reader.getColumnTop(base, columnIndex);
+        final boolean required = isRequired(columnType);
+
+        valuesMem.jumpTo(0);
+        defLevelsMem.jumpTo(0);
+        if (!required) {
+            rleEncoder.of(defLevelsMem, 1);
+        }
+
+        long dictionaryPageOffset = -1;
+        final int encoding = encodingOf(columnType);
+        // values of the data page, after encoding
+        MemoryCARW pageValuesMem = valuesMem;
+        final long chunkOffset = fileOffset;
+        long uncompressedSize = 0;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN: {
+                int bits = 0;
+                int bitCount = 0;
+                for (long r = lo; r < hi; r++) {
+                    if (r >= columnTop && column.getBool(r - columnTop)) {
+                        bits |= 1 << bitCount;
+                    }
+                    if (++bitCount == 8) {
+                        valuesMem.putByte((byte) bits);
+                        bits = 0;
+                        bitCount = 0;
+                    }
+                }
+                if (bitCount > 0) {
+                    valuesMem.putByte((byte) bits);
+                }
+                break;
+            }
+            case ColumnType.BYTE:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(r >= columnTop ? column.getByte(r - columnTop) : 0);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(r >= columnTop ? column.getShort((r - columnTop) << 1) : 0);
+                }
+                break;
+            case ColumnType.CHAR:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(r >= columnTop ? column.getChar((r - columnTop) << 1) : 0);
+                }
+                break;
+            case ColumnType.INT:
+                for (long r = lo; r < hi; r++) {
+                    final int value = r >= columnTop ? column.getInt((r - columnTop) << 2) : Numbers.INT_NaN;
+                    if (value != Numbers.INT_NaN) {
+                        rleEncoder.put(1);
+                        valuesMem.putInt(value);
+                    } else {
+                        rleEncoder.put(0);
+                    }
+                }
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                for (long r = lo; r < hi; r++) {
+                    final long value = r >= columnTop ? column.getLong((r - columnTop) << 3) : Numbers.LONG_NaN;
+                    if (value != Numbers.LONG_NaN) {
+                        rleEncoder.put(1);
+                        valuesMem.putLong(value);
+                    } else {
+                        rleEncoder.put(0);
+                    }
+                }
+                indicesMem.jumpTo(0);
+                deltaEncoder.encode(valuesMem.getAddress(), valuesMem.getAppendOffset() >>> 3, indicesMem);
+                pageValuesMem = indicesMem;
+                break;
+            case ColumnType.FLOAT:
+                for (long r = lo; r < hi; r++) {
+                    final float value = r >= columnTop ? column.getFloat((r - columnTop) << 2) : Float.NaN;
+                    if (value == value) {
+                        rleEncoder.put(1);
+                        valuesMem.putFloat(value);
+                    } else {
+                        rleEncoder.put(0);
+                    }
+                }
+                splitByteStreams(valuesMem, Float.BYTES, indicesMem);
+                pageValuesMem = indicesMem;
+                break;
+            case ColumnType.DOUBLE:
+                for (long r = lo; r < hi; r++) {
+                    final double value = r >= columnTop ? column.getDouble((r - columnTop) << 3) : Double.NaN;
+                    if (value == value) {
+                        rleEncoder.put(1);
+                        valuesMem.putDouble(value);
+                    } else {
+                        rleEncoder.put(0);
+                    }
+                }
+                splitByteStreams(valuesMem, Double.BYTES, indicesMem);
+                pageValuesMem = indicesMem;
+                break;
+            case ColumnType.STRING: {
+                final MemoryR auxColumn = reader.getColumn(primaryIndex + 1);
+                for (long r = lo; r < hi; r++) {
+                    final CharSequence value = r >= columnTop ? column.getStr(auxColumn.getLong((r - columnTop) << 3)) : null;
+                    if (value != null) {
+                        rleEncoder.put(1);
+                        utf8Sink.clear();
+                        utf8Sink.put(value);
+                        valuesMem.putInt(utf8Sink.size());
+                        valuesMem.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+                    } else {
+                        rleEncoder.put(0);
+                    }
+                }
+                break;
+            }
+            case ColumnType.SYMBOL: {
+                final SymbolMapReader symbolMapReader = reader.getSymbolMapReader(columnIndex);
+                dictionaryKeys.setAll(symbolMapReader.getSymbolCount(), -1);
+                dictionaryMem.jumpTo(0);
+                indicesMem.jumpTo(0);
+                int dictionarySize = 0;
+                for (long r = lo; r < hi; r++) {
+                    final int key = r >= columnTop ? column.getInt((r - columnTop) << 2) : SymbolTable.VALUE_IS_NULL;
+                    if (key < 0) {
+                        rleEncoder.put(0);
+                        continue;
+                    }
+                    int index = dictionaryKeys.getQuick(key);
+                    if (index == -1) {
+                        index = dictionarySize++;
+                        dictionaryKeys.setQuick(key, index);
+                        utf8Sink.clear();
+                        utf8Sink.put(symbolMapReader.valueOf(key));
+                        dictionaryMem.putInt(utf8Sink.size());
+                        dictionaryMem.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+                    }
+                    rleEncoder.put(1);
+                    indicesMem.putInt(index);
+                }
+
+                final long dictionaryPageSize = dictionaryMem.getAppendOffset();
+                if (dictionaryPageSize > Integer.MAX_VALUE) {
+                    throw CairoException.nonCritical().put("parquet page is too large, decrease row group size [column=")
+                            .put(reader.getMetadata().getColumnName(columnIndex))
+                            .put(", size=").put(dictionaryPageSize)
+                            .put(']');
+                }
+                beginPage();
+                deflate(dictionaryMem.getAddress(), dictionaryPageSize, true);
+                finishPage(dictionaryPageSize);
+
+                dictionaryPageOffset = fileOffset;
+                headerMem.jumpTo(0);
+                thriftWriter.of(headerMem);
+                thriftWriter.putI32(1, PAGE_TYPE_DICTIONARY_PAGE);
+                thriftWriter.putI32(2, (int) dictionaryPageSize);
+                thriftWriter.putI32(3, (int) compressedMem.getAppendOffset());
+                thriftWriter.beginStruct(7);
+                thriftWriter.putI32(1, dictionarySize);
+                thriftWriter.putI32(2, ENCODING_PLAIN);
+                thriftWriter.endStruct();
+                thriftWriter.endStruct();
+                uncompressedSize += headerMem.getAppendOffset() + dictionaryPageSize;
+                write(headerMem);
+                write(compressedMem);
+
+                final int bitWidth = RleBitPackedEncoder.bitWidthOf(Math.max(dictionarySize - 1, 0));
+                valuesMem.putByte((byte) bitWidth);
+                rleEncoder.finish();
+                rleEncoder.of(valuesMem, bitWidth);
+                final long indicesAddress = indicesMem.getAddress();
+                for (long p = 0, n = indicesMem.getAppendOffset(); p < n; p += Integer.BYTES) {
+                    rleEncoder.put(Unsafe.getUnsafe().getInt(indicesAddress + p));
+                }
+                rleEncoder.finish();
+                break;
+            }
+            default:
+                assert false;
+        }
+
+        if (!required && encoding != ENCODING_RLE_DICTIONARY) {
+            rleEncoder.finish();
+        }
+
+        final long defLevelsSize = defLevelsMem.getAppendOffset();
+        final long pageSize = (required ? 0 : Integer.BYTES + defLevelsSize) + pageValuesMem.getAppendOffset();
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large, decrease row group size [column=")
+                    .put(reader.getMetadata().getColumnName(columnIndex))
+                    .put(", size=").put(pageSize)
+                    .put(']');
+        }
+
+        beginPage();
+        if (!required) {
+            // page body starts with the length of definition levels
+            headerMem.jumpTo(0);
+            headerMem.putInt((int) defLevelsSize);
+            deflate(headerMem.getAddress(), Integer.BYTES, false);
+            deflate(defLevelsMem.getAddress(), defLevelsSize, false);
+        }
+        deflate(pageValuesMem.getAddress(), pageValuesMem.getAppendOffset(), true);
+        finishPage(pageSize);
+
+        final long dataPageOffset = fileOffset;
+        headerMem.jumpTo(0);
+        thriftWriter.of(headerMem);
+        thriftWriter.putI32(1, PAGE_TYPE_DATA_PAGE);
+        thriftWriter.putI32(2, (int) pageSize);
+        thriftWriter.putI32(3, (int) compressedMem.getAppendOffset());
+        thriftWriter.beginStruct(5);
+        thriftWriter.putI32(1, (int) (hi - lo));
+        thriftWriter.putI32(2, encoding);
+        thriftWriter.putI32(3, ENCODING_RLE);
+        thriftWriter.putI32(4, ENCODING_RLE);
+        thriftWriter.endStruct();
+        thriftWriter.endStruct();
+        uncompressedSize += headerMem.getAppendOffset() + pageSize;
+        write(headerMem);
+        write(compressedMem);
+
+        columnChunks.add(dataPageOffset);
+        columnChunks.add(dictionaryPageOffset);
+        columnChunks.add(fileOffset - chunkOffset);
+        columnChunks.add(uncompressedSize);
+    }
+
+    private void encodeRowGroup(TableReader reader, int partitionIndex, long lo, long hi) {
+        final TableRecordMetadata metadata = reader.getMetadata();
+        final int chunkLo = columnChunks.size();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0) {
+                encodeColumnChunk(reader, partitionIndex, i, columnType, lo, hi);
+            }
+        }
+        // row group size is the uncompressed size of its column chunks
+        long uncompressedSize = 0;
+        for (int i = chunkLo + 3, n = columnChunks.size(); i < n; i += 4) {
+            uncompressedSize += columnChunks.getQuick(i);
+        }
+        rowGroups.add(hi - lo);
+        rowGroups.add(uncompressedSize);
+    }
+
+    private void finishPage(long uncompressedSize) {
+        compressedMem.putInt(crc);
+        compressedMem.putInt((int) uncompressedSize);
+    }
+
+    private void write(MemoryCARW mem) {
+        final long len = mem.getAppendOffset();
+        if (len > 0) {
+            if (ff.write(fd, mem.getAddress(), len, fileOffset) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write parquet file [path=").put(path).put(']');
+            }
+            fileOffset += len;
+        }
+    }
+
+    private void writeFooter(TableRecordMetadata metadata, long rowCount) {
+        int columnCount = 0;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (metadata.getColumnType(i) > 0) {
+                columnCount++;
+            }
+        }
+
+        headerMem.jumpTo(0);
+        thriftWriter.of(headerMem);
+        thriftWriter.putI32(1, 1);
+        thriftWriter.putListHeader(2, THRIFT_TYPE_STRUCT, columnCount + 1);
+        thriftWriter.beginListStruct();
+        thriftWriter.putString(4, "schema");
+        thriftWriter.putI32(5, columnCount);
+        thriftWriter.endStruct();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0) {
+                thriftWriter.beginListStruct();
+                thriftWriter.putI32(1, physicalTypeOf(columnType));
+                thriftWriter.putI32(3, isRequired(columnType) ? REPETITION_REQUIRED : REPETITION_OPTIONAL);
+                thriftWriter.putString(4, metadata.getColumnName(i));
+                final int convertedType = convertedTypeOf(columnType);
+                if (convertedType != -1) {
+                    thriftWriter.putI32(6, convertedType);
+                }
+                thriftWriter.putI32(9, metadata.getWriterIndex(i));
+                thriftWriter.endStruct();
+            }
+        }
+        thriftWriter.putI64(3, rowCount);
+
+        final int rowGroupCount = rowGroups.size() / 2;
+        thriftWriter.putListHeader(4, THRIFT_TYPE_STRUCT, rowGroupCount);
+        for (int g = 0, chunk = 0; g < rowGroupCount; g++) {
+            final long rowGroupRowCount = rowGroups.getQuick(2 * g);
+            thriftWriter.beginListStruct();
+            thriftWriter.putListHeader(1, THRIFT_TYPE_STRUCT, columnCount);
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 1) {
+                    continue;
+                }
+                final long dataPageOffset = columnChunks.getQuick(4 * chunk);
+                final long dictionaryPageOffset = columnChunks.getQuick(4 * chunk + 1);
+                final long chunkSize = columnChunks.getQuick(4 * chunk + 2);
+                final long chunkUncompressedSize = columnChunks.getQuick(4 * chunk + 3);
+                chunk++;
+
+                thriftWriter.beginListStruct();
+                thriftWriter.putI64(2, dictionaryPageOffset != -1 ? dictionaryPageOffset : dataPageOffset);
+                thriftWriter.beginStruct(3);
+                thriftWriter.putI32(1, physicalTypeOf(columnType));
+                // dictionary page of symbol column is PLAIN
+                final int encoding = encodingOf(columnType);
+                final boolean symbol = encoding == ENCODING_RLE_DICTIONARY;
+                thriftWriter.putListHeader(2, THRIFT_TYPE_I32, symbol ? 3 : 2);
+                thriftWriter.putI32Element(symbol ? ENCODING_PLAIN : encoding);
+                thriftWriter.putI32Element(ENCODING_RLE);
+                if (symbol) {
+                    thriftWriter.putI32Element(ENCODING_RLE_DICTIONARY);
+                }
+                thriftWriter.putListHeader(3, THRIFT_TYPE_BINARY, 1);
+                thriftWriter.putStringElement(metadata.getColumnName(i));
+                thriftWriter.putI32(4, CODEC_GZIP);
+                thriftWriter.putI64(5, rowGroupRowCount);
+                thriftWriter.putI64(6, chunkUncompressedSize);
+                thriftWriter.putI64(7, chunkSize);
+                thriftWriter.putI64(9, dataPageOffset);
+                if (dictionaryPageOffset != -1) {
+                    thriftWriter.putI64(11, dictionaryPageOffset);
+                }
+                thriftWriter.endStruct();
+                thriftWriter.endStruct();
+            }
+            thriftWriter.putI64(2, rowGroups.getQuick(2 * g + 1));
+            thriftWriter.putI64(3, rowGroupRowCount);
+            thriftWriter.endStruct();
+        }
+        thriftWriter.putString(6, CREATED_BY);
+        thriftWriter.endStruct();
+
+        final int metadataSize = (int) headerMem.getAppendOffset();
+        headerMem.putInt(metadataSize);
+        headerMem.putInt(MAGIC);
+        write(headerMem);
+    }
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Page frame cursor over the row groups of a Parquet file, each non-empty row group is a page frame.
+ * Column chunks are decoded lazily when their address is first requested, so that columns which
+ * are not projected are never decoded. Decoded buffers stay alive until the cursor is closed,
+ * because page frame consumers may hold on to addresses of several frames at the same time.
+ */
+public class ReadParquetPageFrameCursor implements PageFrameCursor {
+    private static final int ADDRESS_AUX = 1;
+    private static final int ADDRESS_DATA = 0;
+    private static final int ADDRESS_SIZE = 2;
+    private static final int ADDRESS_STRIDE = 3;
+    private static final long PAGE_SIZE = 64 * 1024;
+    private final LongList addresses = new LongList();
+    private final int columnCount;
+    private final IntList columnSizes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final PartitionDecoder decoder;
+    private final ReadParquetPageFrame frame = new ReadParquetPageFrame();
+    private final ObjList<MemoryCARW> mems = new ObjList<>();
+    private int rowGroupIndex;
+
+    public ReadParquetPageFrameCursor(FilesFacade ff, RecordMetadata metadata) {
+        this.decoder = new PartitionDecoder(ff);
+        this.columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            columnTypes.add(columnType);
+            columnSizes.add(Numbers.msb(ColumnType.sizeOf(columnType)));
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(mems);
+        addresses.clear();
+        decoder.close();
+    }
+
+    public long getIndexPageAddress(int rowGroupIndex, int columnIndex) {
+        return getAddress(rowGroupIndex, columnIndex, ADDRESS_AUX);
+    }
+
+    public long getPageAddress(int rowGroupIndex, int columnIndex) {
+        return getAddress(rowGroupIndex, columnIndex, ADDRESS_DATA);
+    }
+
+    public long getPageSize(int rowGroupIndex, int columnIndex) {
+        return getAddress(rowGroupIndex, columnIndex, ADDRESS_SIZE);
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        // Parquet files are read without symbol columns
+        return null;
+    }
+
+    @Override
+    public long getUpdateRowId(long rowIndex) {
+        return Rows.toRowID(frame.rowGroupIndex, rowIndex);
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public @Nullable PageFrame next() {
+        while (rowGroupIndex < decoder.getRowGroupCount()) {
+            final int index = rowGroupIndex++;
+            final long rowCount = decoder.getRowGroupRowCount(index);
+            if (rowCount > 0) {
+                frame.rowGroupIndex = index;
+                frame.rowCount = rowCount;
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens the file, which must still match the metadata this cursor was created with.
+     *
+     * @param path file path
+     * @return this cursor positioned before the first row group
+     */
+    public ReadParquetPageFrameCursor of(LPSZ path) {
+        close();
+        decoder.of(path);
+        boolean schemaChanged = decoder.getColumnCount() != columnCount;
+        for (int i = 0; i < columnCount && !schemaChanged; i++) {
+            schemaChanged = decoder.getColumnType(i) != columnTypes.getQuick(i);
+        }
+        if (schemaChanged) {
+            decoder.close();
+            throw CairoException.nonCritical().put("parquet file schema has changed [path=").put(path).put(']');
+        }
+        addresses.setAll(decoder.getRowGroupCount() * columnCount * ADDRESS_STRIDE, 0);
+        rowGroupIndex = 0;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return decoder.getRowCount();
+    }
+
+    @Override
+    public void toTop() {
+        // decoded row groups are kept, re-reading them is free
+        rowGroupIndex = 0;
+    }
+
+    private void decode(int rowGroupIndex, int columnIndex) {
+        final int chunk = rowGroupIndex * columnCount + columnIndex;
+        final int columnType = columnTypes.getQuick(columnIndex);
+        final long rowCount = decoder.getRowGroupRowCount(rowGroupIndex);
+
+        MemoryCARW dataMem = mems.getQuiet(2 * chunk);
+        if (dataMem == null) {
+            dataMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            mems.extendAndSet(2 * chunk, dataMem);
+        }
+        MemoryCARW auxMem = null;
+        if (ColumnType.isVariableLength(columnType)) {
+            auxMem = mems.getQuiet(2 * chunk + 1);
+            if (auxMem == null) {
+                auxMem = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+                mems.extendAndSet(2 * chunk + 1, auxMem);
+            }
+            auxMem.extend((rowCount + 1) << 3);
+        } else {
+            dataMem.extend(rowCount << columnSizes.getQuick(columnIndex));
+        }
+
+        decoder.decodeColumnChunk(rowGroupIndex, columnIndex, dataMem, auxMem);
+
+        final int offset = chunk * ADDRESS_STRIDE;
+        addresses.setQuick(offset + ADDRESS_DATA, dataMem.getAddress());
+        addresses.setQuick(offset + ADDRESS_AUX, auxMem != null ? auxMem.getAddress() : 0);
+        addresses.setQuick(offset + ADDRESS_SIZE, dataMem.getAppendOffset());
+    }
+
+    private long getAddress(int rowGroupIndex, int columnIndex, int kind) {
+        final int offset = (rowGroupIndex * columnCount + columnIndex) * ADDRESS_STRIDE;
+        if (addresses.getQuick(offset + ADDRESS_DATA) == 0) {
+            decode(rowGroupIndex, columnIndex);
+        }
+        return addresses.getQuick(offset + kind);
+    }
+
+    private class ReadParquetPageFrame implements PageFrame {
+        private long rowCount;
+        private int rowGroupIndex;
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+            return null;
+        }
+
+        @Override
+        public int getColumnShiftBits(int columnIndex) {
+            return columnSizes.getQuick(columnIndex);
+        }
+
+        @Override
+        public long getIndexPageAddress(int columnIndex) {
+            return ReadParquetPageFrameCursor.this.getIndexPageAddress(rowGroupIndex, columnIndex);
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return ReadParquetPageFrameCursor.this.getPageAddress(rowGroupIndex, columnIndex);
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            return ReadParquetPageFrameCursor.this.getPageSize(rowGroupIndex, columnIndex);
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return rowCount;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return rowGroupIndex;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ReadParquetRecordCursor cursor = new ReadParquetRecordCursor();
+    private final String fileName;
+    private final ReadParquetPageFrameCursor frameCursor;
+    private final Path path;
+
+    public ReadParquetRecordCursorFactory(CairoConfiguration configuration, CharSequence fileName, RecordMetadata metadata) {
+        super(metadata);
+        this.fileName = fileName.toString();
+        this.path = new Path().of(configuration.getSqlCopyInputRoot()).concat(fileName).$();
+        this.frameCursor = new ReadParquetPageFrameCursor(configuration.getFilesFacade(), metadata);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        frameCursor.of(path);
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) {
+        return frameCursor.of(path);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("read_parquet").meta("file").val(fileName);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(frameCursor);
+        Misc.free(path);
+    }
+
+    private class ReadParquetRecord implements Record {
+        private final MemoryCR.CharSequenceView csviewA = new MemoryCR.CharSequenceView();
+        private final MemoryCR.CharSequenceView csviewB = new MemoryCR.CharSequenceView();
+        private long row;
+        private int rowGroupIndex;
+
+        @Override
+        public boolean getBool(int col) {
+            return Unsafe.getUnsafe().getByte(frameCursor.getPageAddress(rowGroupIndex, col) + row) == 1;
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return Unsafe.getUnsafe().getByte(frameCursor.getPageAddress(rowGroupIndex, col) + row);
+        }
+
+        @Override
+        public char getChar(int col) {
+            return Unsafe.getUnsafe().getChar(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 1));
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return Unsafe.getUnsafe().getDouble(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 3));
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return Unsafe.getUnsafe().getFloat(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 2));
+        }
+
+        @Override
+        public int getInt(int col) {
+            return Unsafe.getUnsafe().getInt(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 2));
+        }
+
+        @Override
+        public long getLong(int col) {
+            return Unsafe.getUnsafe().getLong(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 3));
+        }
+
+        @Override
+        public long getRowId() {
+            return Rows.toRowID(rowGroupIndex, row);
+        }
+
+        @Override
+        public short getShort(int col) {
+            return Unsafe.getUnsafe().getShort(frameCursor.getPageAddress(rowGroupIndex, col) + (row << 1));
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return getStr(col, csviewA);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return getStr(col, csviewB);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return Unsafe.getUnsafe().getInt(getStrAddress(col));
+        }
+
+        @Override
+        public long getUpdateRowId() {
+            return getRowId();
+        }
+
+        private CharSequence getStr(int col, MemoryCR.CharSequenceView view) {
+            final long address = getStrAddress(col);
+            final int len = Unsafe.getUnsafe().getInt(address);
+            return len != TableUtils.NULL_LEN ? view.of(address + Integer.BYTES, len) : null;
+        }
+
+        private long getStrAddress(int col) {
+            final long offset = Unsafe.getUnsafe().getLong(frameCursor.getIndexPageAddress(rowGroupIndex, col) + (row << 3));
+            return frameCursor.getPageAddress(rowGroupIndex, col) + offset;
+        }
+
+        private void of(int rowGroupIndex, long row) {
+            this.rowGroupIndex = rowGroupIndex;
+            this.row = row;
+        }
+    }
+
+    private class ReadParquetRecordCursor implements RecordCursor {
+        private final ReadParquetRecord recordA = new ReadParquetRecord();
+        private final ReadParquetRecord recordB = new ReadParquetRecord();
+        private long row;
+        private int rowGroupIndex;
+        private long rowHi;
+
+        @Override
+        public void close() {
+            frameCursor.close();
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return frameCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (++row < rowHi) {
+                recordA.of(rowGroupIndex, row);
+                return true;
+            }
+            final PageFrame frame = frameCursor.next();
+            if (frame != null) {
+                rowGroupIndex = frame.getPartitionIndex();
+                rowHi = frame.getPartitionHi();
+                row = 0;
+                recordA.of(rowGroupIndex, row);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return frameCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((ReadParquetRecord) record).of(Rows.toPartitionIndex(atRowId), Rows.toLocalRowID(atRowId));
+        }
+
+        @Override
+        public long size() {
+            return frameCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            frameCursor.toTop();
+            row = 0;
+            rowHi = 0;
+        }
+    }
+}
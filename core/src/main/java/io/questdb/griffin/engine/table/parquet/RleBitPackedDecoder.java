@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Unsafe;
+
+/**
+ * Decoder for the Parquet RLE/bit-packing hybrid encoding.
+ */
+public class RleBitPackedDecoder {
+    private int bitWidth;
+    private long hi;
+    private long mask;
+    private long packedAddress;
+    private long packedIndex;
+    private long position;
+    private boolean rle;
+    private int rleValue;
+    private long runRemaining;
+
+    public int next() {
+        while (runRemaining == 0) {
+            readRunHeader();
+        }
+        runRemaining--;
+        if (rle) {
+            return rleValue;
+        }
+        return unpack(packedIndex++);
+    }
+
+    public RleBitPackedDecoder of(long lo, long hi, int bitWidth) {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw CairoException.nonCritical().put("invalid parquet bit width [width=").put(bitWidth).put(']');
+        }
+        this.position = lo;
+        this.hi = hi;
+        this.bitWidth = bitWidth;
+        this.mask = (1L << bitWidth) - 1;
+        this.runRemaining = 0;
+        return this;
+    }
+
+    private CairoException corrupt() {
+        return CairoException.nonCritical().put("corrupt parquet page, not enough encoded values");
+    }
+
+    private byte readByte() {
+        if (position >= hi) {
+            throw corrupt();
+        }
+        return Unsafe.getUnsafe().getByte(position++);
+    }
+
+    private void readRunHeader() {
+        long header = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            header |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+
+        if ((header & 1) == 0) {
+            rle = true;
+            runRemaining = header >>> 1;
+            int value = 0;
+            for (int i = 0, n = (bitWidth + 7) >>> 3; i < n; i++) {
+                value |= (readByte() & 0xff) << (i << 3);
+            }
+            rleValue = value;
+        } else {
+            final long groups = header >>> 1;
+            rle = false;
+            runRemaining = groups << 3;
+            packedAddress = position;
+            packedIndex = 0;
+            // trailing groups of the last run may be truncated by some writers
+            position = Math.min(hi, position + groups * bitWidth);
+        }
+    }
+
+    private int unpack(long index) {
+        final long bitPosition = index * bitWidth;
+        final long address = packedAddress + (bitPosition >>> 3);
+        final int shift = (int) (bitPosition & 7);
+        long bits = 0;
+        for (int i = 0, n = (shift + bitWidth + 7) >>> 3; i < n; i++) {
+            if (address + i < hi) {
+                bits |= (Unsafe.getUnsafe().getByte(address + i) & 0xffL) << (i << 3);
+            }
+        }
+        return (int) ((bits >>> shift) & mask);
+    }
+}
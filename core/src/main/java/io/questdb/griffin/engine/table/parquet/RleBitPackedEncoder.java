@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+
+/**
+ * Encoder for the Parquet RLE/bit-packing hybrid encoding, which is used for definition
+ * levels and dictionary indices. Runs of at least 8 repeated values are written as RLE runs,
+ * everything else is bit-packed in groups of 8 values.
+ */
+public class RleBitPackedEncoder {
+    // a single byte varint header can describe up to 63 bit-packed groups
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+    private final int[] bufferedValues = new int[8];
+    private int bitPackedGroupCount;
+    private long bitPackedRunHeaderOffset;
+    private int bitWidth;
+    private MemoryCARW mem;
+    private int numBufferedValues;
+    private int previousValue;
+    private int repeatCount;
+
+    public static int bitWidthOf(int maxValue) {
+        return 32 - Integer.numberOfLeadingZeros(maxValue);
+    }
+
+    public void finish() {
+        if (repeatCount >= 8) {
+            writeRleRun();
+        } else if (numBufferedValues > 0) {
+            for (int i = numBufferedValues; i < 8; i++) {
+                bufferedValues[i] = 0;
+            }
+            writeOrAppendBitPackedRun();
+            endBitPackedRun();
+        } else {
+            endBitPackedRun();
+        }
+    }
+
+    public RleBitPackedEncoder of(MemoryCARW mem, int bitWidth) {
+        this.mem = mem;
+        this.bitWidth = bitWidth;
+        this.bitPackedGroupCount = 0;
+        this.bitPackedRunHeaderOffset = -1;
+        this.numBufferedValues = 0;
+        this.previousValue = 0;
+        this.repeatCount = 0;
+        return this;
+    }
+
+    public void put(int value) {
+        if (value == previousValue) {
+            if (++repeatCount >= 8) {
+                // continue the RLE run, the value is not buffered
+                return;
+            }
+        } else {
+            if (repeatCount >= 8) {
+                writeRleRun();
+            }
+            repeatCount = 1;
+            previousValue = value;
+        }
+
+        bufferedValues[numBufferedValues++] = value;
+        if (numBufferedValues == 8) {
+            writeOrAppendBitPackedRun();
+        }
+    }
+
+    private void endBitPackedRun() {
+        if (bitPackedRunHeaderOffset == -1) {
+            return;
+        }
+        mem.putByte(bitPackedRunHeaderOffset, (byte) ((bitPackedGroupCount << 1) | 1));
+        bitPackedRunHeaderOffset = -1;
+        bitPackedGroupCount = 0;
+    }
+
+    private void writeOrAppendBitPackedRun() {
+        if (bitPackedGroupCount >= MAX_BIT_PACKED_GROUPS) {
+            endBitPackedRun();
+        }
+        if (bitPackedRunHeaderOffset == -1) {
+            // reserve the header byte, it is written once the run ends
+            bitPackedRunHeaderOffset = mem.getAppendOffset();
+            mem.putByte((byte) 0);
+        }
+
+        final long mask = (1L << bitWidth) - 1;
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (bufferedValues[i] & mask) << bitCount;
+            bitCount += bitWidth;
+            while (bitCount >= 8) {
+                mem.putByte((byte) bits);
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+
+        bitPackedGroupCount++;
+        numBufferedValues = 0;
+        repeatCount = 0;
+    }
+
+    private void writeRleRun() {
+        endBitPackedRun();
+        long header = (long) repeatCount << 1;
+        while ((header & ~0x7fL) != 0) {
+            mem.putByte((byte) ((header & 0x7f) | 0x80));
+            header >>>= 7;
+        }
+        mem.putByte((byte) header);
+        for (int i = 0, n = (bitWidth + 7) >>> 3; i < n; i++) {
+            mem.putByte((byte) (previousValue >>> (i << 3)));
+        }
+        repeatCount = 0;
+        numBufferedValues = 0;
+    }
+}
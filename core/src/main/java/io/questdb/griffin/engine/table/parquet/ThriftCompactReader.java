@@ -0,0 +1,219 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.IntList;
+import io.questdb.std.Unsafe;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Minimal Thrift compact protocol reader over native memory. Unknown fields are
+ * expected to be skipped by the caller via {@link #skip(int)}.
+ */
+public class ThriftCompactReader {
+    private final IntList fieldIdStack = new IntList();
+    private int fieldId;
+    private long hi;
+    private int lastFieldId;
+    private byte listElementType;
+    private long lo;
+    private long position;
+
+    public void beginStruct() {
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void endStruct() {
+        final int n = fieldIdStack.size() - 1;
+        if (n > -1) {
+            lastFieldId = fieldIdStack.getQuick(n);
+            fieldIdStack.setPos(n);
+        }
+    }
+
+    public int getFieldId() {
+        return fieldId;
+    }
+
+    public byte getListElementType() {
+        return listElementType;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public ThriftCompactReader of(long lo, long hi) {
+        this.lo = lo;
+        this.position = lo;
+        this.hi = hi;
+        this.lastFieldId = 0;
+        this.fieldId = 0;
+        fieldIdStack.clear();
+        return this;
+    }
+
+    public long readBinaryLength() {
+        final long len = readVarLong();
+        if (len < 0 || position + len > hi) {
+            throw corrupt();
+        }
+        return len;
+    }
+
+    public int readFieldHeader() {
+        final int b = readByte() & 0xff;
+        if (b == THRIFT_TYPE_STOP) {
+            return THRIFT_TYPE_STOP;
+        }
+        final int delta = b >>> 4;
+        if (delta != 0) {
+            fieldId = lastFieldId + delta;
+        } else {
+            fieldId = (int) unzigzag(readVarLong());
+        }
+        lastFieldId = fieldId;
+        return b & 0x0f;
+    }
+
+    public int readI32() {
+        return (int) unzigzag(readVarLong());
+    }
+
+    public long readI64() {
+        return unzigzag(readVarLong());
+    }
+
+    public int readListHeader() {
+        final int b = readByte() & 0xff;
+        long size = b >>> 4;
+        if (size == 15) {
+            size = readVarLong();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw corrupt();
+            }
+        }
+        listElementType = (byte) (b & 0x0f);
+        return (int) size;
+    }
+
+    public void skip(int type) {
+        switch (type) {
+            case THRIFT_TYPE_BOOLEAN_TRUE:
+            case THRIFT_TYPE_BOOLEAN_FALSE:
+                // value is encoded in the field header
+                break;
+            case THRIFT_TYPE_BYTE:
+                skipBytes(1);
+                break;
+            case THRIFT_TYPE_I16:
+            case THRIFT_TYPE_I32:
+            case THRIFT_TYPE_I64:
+                readVarLong();
+                break;
+            case THRIFT_TYPE_DOUBLE:
+                skipBytes(Double.BYTES);
+                break;
+            case THRIFT_TYPE_BINARY:
+                skipBytes(readBinaryLength());
+                break;
+            case THRIFT_TYPE_LIST:
+            case THRIFT_TYPE_SET:
+                for (int i = 0, n = readListHeader(), elementType = listElementType; i < n; i++) {
+                    skipElement(elementType);
+                }
+                break;
+            case THRIFT_TYPE_MAP:
+                final long size = readVarLong();
+                if (size > 0) {
+                    final int kv = readByte() & 0xff;
+                    for (long i = 0; i < size; i++) {
+                        skipElement(kv >>> 4);
+                        skipElement(kv & 0x0f);
+                    }
+                }
+                break;
+            case THRIFT_TYPE_STRUCT:
+                beginStruct();
+                int fieldType;
+                while ((fieldType = readFieldHeader()) != THRIFT_TYPE_STOP) {
+                    skip(fieldType);
+                }
+                endStruct();
+                break;
+            default:
+                throw corrupt();
+        }
+    }
+
+    public void skipBytes(long len) {
+        if (position + len > hi) {
+            throw corrupt();
+        }
+        position += len;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private CairoException corrupt() {
+        return CairoException.nonCritical().put("corrupt parquet metadata [offset=").put(position - lo).put(']');
+    }
+
+    private byte readByte() {
+        if (position >= hi) {
+            throw corrupt();
+        }
+        return Unsafe.getUnsafe().getByte(position++);
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            final byte b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw corrupt();
+    }
+
+    private void skipElement(int type) {
+        if (type == THRIFT_TYPE_BOOLEAN_TRUE || type == THRIFT_TYPE_BOOLEAN_FALSE) {
+            // collection booleans take a whole byte
+            skipBytes(1);
+        } else {
+            skip(type);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.IntList;
+import io.questdb.std.str.Utf8StringSink;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Minimal Thrift compact protocol writer, sufficient to serialize Parquet file and page metadata.
+ * Field ids within a struct must be written in increasing order.
+ */
+public class ThriftCompactWriter {
+    private final IntList fieldIdStack = new IntList();
+    private final Utf8StringSink utf8Sink = new Utf8StringSink();
+    private int lastFieldId;
+    private MemoryA mem;
+
+    public void beginListStruct() {
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void beginStruct(int fieldId) {
+        putFieldHeader(fieldId, THRIFT_TYPE_STRUCT);
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void endStruct() {
+        mem.putByte(THRIFT_TYPE_STOP);
+        final int n = fieldIdStack.size() - 1;
+        if (n > -1) {
+            lastFieldId = fieldIdStack.getQuick(n);
+            fieldIdStack.setPos(n);
+        }
+    }
+
+    public ThriftCompactWriter of(MemoryA mem) {
+        this.mem = mem;
+        this.lastFieldId = 0;
+        fieldIdStack.clear();
+        return this;
+    }
+
+    public void putI32(int fieldId, int value) {
+        putFieldHeader(fieldId, THRIFT_TYPE_I32);
+        putVarLong(zigzag(value));
+    }
+
+    public void putI32Element(int value) {
+        putVarLong(zigzag(value));
+    }
+
+    public void putI64(int fieldId, long value) {
+        putFieldHeader(fieldId, THRIFT_TYPE_I64);
+        putVarLong(zigzag(value));
+    }
+
+    public void putListHeader(int fieldId, byte elementType, int size) {
+        putFieldHeader(fieldId, THRIFT_TYPE_LIST);
+        if (size < 15) {
+            mem.putByte((byte) ((size << 4) | elementType));
+        } else {
+            mem.putByte((byte) (0xf0 | elementType));
+            putVarLong(size);
+        }
+    }
+
+    public void putString(int fieldId, CharSequence value) {
+        putFieldHeader(fieldId, THRIFT_TYPE_BINARY);
+        putStringElement(value);
+    }
+
+    public void putStringElement(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        final int size = utf8Sink.size();
+        putVarLong(size);
+        for (int i = 0; i < size; i++) {
+            mem.putByte(utf8Sink.byteAt(i));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void putFieldHeader(int fieldId, byte type) {
+        final int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            mem.putByte((byte) ((delta << 4) | type));
+        } else {
+            mem.putByte(type);
+            putVarLong(zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+}
@@ -35,10 +35,13 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private int atomicity;
     private boolean cancel;
     private byte delimiter;
+    private boolean export;
     private ExpressionNode fileName;
+    private byte format; // text format of COPY FROM STDIN
     private boolean header;
     private int partitionBy;
-    private ExpressionNode target; // holds table name (new import) or import id (cancel model)
+    private QueryModel queryModel; // holds sub-query of export model, when target is not a table
+    private ExpressionNode target; // holds table name (new import or export) or import id (cancel model)
     private CharSequence timestampColumnName;
     private CharSequence timestampFormat;
 
@@ -51,11 +54,14 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         fileName = null;
         header = false;
         cancel = false;
+        export = false;
+        queryModel = null;
         timestampFormat = null;
         timestampColumnName = null;
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        format = -1;
     }
 
     public int getAtomicity() {
@@ -70,6 +76,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return fileName;
     }
 
+    public byte getFormat() {
+        return format;
+    }
+
     @Override
     public int getModelType() {
         return ExecutionModel.COPY;
@@ -79,9 +89,13 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return partitionBy;
     }
 
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
     @Override
     public CharSequence getTableName() {
-        return target.token;
+        return target != null ? target.token : null;
     }
 
     public ExpressionNode getTarget() {
@@ -100,6 +114,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return cancel;
     }
 
+    public boolean isExport() {
+        return export;
+    }
+
     public boolean isHeader() {
         return header;
     }
@@ -116,10 +134,18 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.delimiter = delimiter;
     }
 
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
     public void setFileName(ExpressionNode fileName) {
         this.fileName = fileName;
     }
 
+    public void setFormat(byte format) {
+        this.format = format;
+    }
+
     public void setHeader(boolean header) {
         this.header = header;
     }
@@ -128,6 +154,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.partitionBy = partitionBy;
     }
 
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
     public void setTarget(ExpressionNode tableName) {
         this.target = tableName;
     }
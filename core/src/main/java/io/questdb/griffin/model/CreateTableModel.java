@@ -27,6 +27,7 @@ package io.questdb.griffin.model;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableStructure;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.griffin.SqlException;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
@@ -44,12 +45,15 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private final ObjList<CharSequence> columnNames = new ObjList<>();
     private boolean ignoreIfExists = false;
     private ExpressionNode likeTableName;
+    // set for CREATE MATERIALIZED VIEW, the view is a table created from the view query
+    private MatViewDefinition matViewDefinition;
     private int maxUncommittedRows;
     private ExpressionNode name;
     private long o3MaxLag;
     private ExpressionNode partitionBy;
     private QueryModel queryModel;
     private ExpressionNode timestamp;
+    private long ttl;
     private CharSequence volumeAlias;
     private boolean walEnabled;
 
@@ -94,12 +98,14 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         timestamp = null;
         partitionBy = null;
         likeTableName = null;
+        matViewDefinition = null;
         name = null;
         volumeAlias = null;
         columnBits.clear();
         columnNames.clear();
         columnNameIndexMap.clear();
         ignoreIfExists = false;
+        ttl = 0;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -134,6 +140,10 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return likeTableName;
     }
 
+    public MatViewDefinition getMatViewDefinition() {
+        return matViewDefinition;
+    }
+
     @Override
     public int getMaxUncommittedRows() {
         return maxUncommittedRows;
@@ -188,6 +198,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return timestamp == null ? -1 : getColumnIndex(timestamp.token);
     }
 
+    @Override
+    public long getTtl() {
+        return ttl;
+    }
+
     public CharSequence getVolumeAlias() {
         return volumeAlias;
     }
@@ -239,6 +254,10 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.likeTableName = tableName;
     }
 
+    public void setMatViewDefinition(MatViewDefinition matViewDefinition) {
+        this.matViewDefinition = matViewDefinition;
+    }
+
     public void setMaxUncommittedRows(int maxUncommittedRows) {
         this.maxUncommittedRows = maxUncommittedRows;
     }
@@ -263,6 +282,10 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.timestamp = timestamp;
     }
 
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
     public void setVolumeAlias(CharSequence volumeAlias) {
         // set if the create table statement contains IN VOLUME 'volumeAlias'.
         // volumePath will be resolved by the compiler
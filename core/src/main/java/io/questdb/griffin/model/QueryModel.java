@@ -161,6 +161,9 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private QueryModel nestedModel;
     private boolean nestedModelIsSubQuery = false;
     private int orderByAdviceMnemonic = OrderByMnemonic.ORDER_BY_UNKNOWN;
+    // set when SAMPLE BY is rewritten into GROUP BY, the sorted result keeps
+    // the first ORDER BY column (bucket timestamp) as the designated timestamp
+    private boolean orderByTimestampDesignated;
     // position of the order by clause token
     private int orderByPosition;
     private IntList orderedJoinModels = orderedJoinModels2;
@@ -415,6 +418,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         setOperationType = SET_OPERATION_UNION_ALL;
         artificialStar = false;
         explicitTimestamp = false;
+        orderByTimestampDesignated = false;
         showKind = -1;
     }
 
@@ -970,6 +974,10 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         }
     }
 
+    public boolean isOrderByTimestampDesignated() {
+        return orderByTimestampDesignated;
+    }
+
     public boolean isSelectTranslation() {
         return isSelectTranslation;
     }
@@ -1186,6 +1194,10 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.orderByPosition = orderByPosition;
     }
 
+    public void setOrderByTimestampDesignated(boolean orderByTimestampDesignated) {
+        this.orderByTimestampDesignated = orderByTimestampDesignated;
+    }
+
     public void setOrderedJoinModels(IntList that) {
         assert that == orderedJoinModels1 || that == orderedJoinModels2;
         this.orderedJoinModels = that;
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+public interface LongHistogram extends Scrapable {
+
+    /**
+     * Default bucket upper bounds for latencies recorded in microseconds: from 100us to 1min.
+     */
+    long[] LATENCY_MICROS_BUCKETS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000,
+            10_000_000, 30_000_000, 60_000_000
+    };
+
+    long getCount();
+
+    long getSum();
+
+    void record(long value);
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.BorrowableUtf8Sink;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prometheus histogram with fixed bucket bounds. Recording a value is lock-free and
+ * does not allocate: it is a binary search over the bounds followed by two atomic
+ * increments. Buckets are not cumulative in memory, they are summed up on scrape.
+ */
+public class LongHistogramImpl implements LongHistogram {
+    private final long[] bounds;
+    // The last counter is for values above the last bound, i.e. the +Inf bucket.
+    private final AtomicLongArray counts;
+    private final CharSequence name;
+    private final AtomicLong sum = new AtomicLong();
+
+    public LongHistogramImpl(CharSequence name, long[] bounds) {
+        for (int i = 1, n = bounds.length; i < n; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("histogram bounds must be strictly increasing");
+            }
+        }
+        this.name = name;
+        this.bounds = bounds.clone();
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0, n = counts.length(); i < n; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public long getSum() {
+        return sum.get();
+    }
+
+    @Override
+    public void record(long value) {
+        counts.incrementAndGet(bucketIndex(value));
+        sum.addAndGet(value);
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        PrometheusFormatUtils.appendHistogramType(name, sink);
+        long count = 0;
+        for (int i = 0, n = bounds.length; i < n; i++) {
+            count += counts.get(i);
+            appendBucketName(sink);
+            sink.put(bounds[i]);
+            sink.putAscii("\"}");
+            PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+        }
+        count += counts.get(bounds.length);
+        appendBucketName(sink);
+        sink.putAscii("+Inf\"}");
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+
+        PrometheusFormatUtils.appendMetricName(name, "_sum", sink);
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, sum.get());
+        PrometheusFormatUtils.appendMetricName(name, "_count", sink);
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private void appendBucketName(CharSink<?> sink) {
+        PrometheusFormatUtils.appendMetricName(name, "_bucket", sink);
+        sink.putAscii("{le=\"");
+    }
+
+    private int bucketIndex(long value) {
+        // index of the first bound that is greater or equal to the value
+        int lo = 0;
+        int hi = bounds.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (bounds[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
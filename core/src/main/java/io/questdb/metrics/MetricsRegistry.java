@@ -42,5 +42,7 @@ public interface MetricsRegistry extends Scrapable {
 
     LongGauge newLongGauge(int memoryTag);
 
+    LongHistogram newLongHistogram(CharSequence name, long[] bounds);
+
     LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider);
 }
@@ -80,6 +80,13 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public LongHistogram newLongHistogram(CharSequence name, long[] bounds) {
+        LongHistogram histogram = new LongHistogramImpl(name, bounds);
+        metrics.add(histogram);
+        return histogram;
+    }
+
     @Override
     public LongGauge newVirtualGauge(CharSequence _name, VirtualLongGauge.StatProvider provider) {
         VirtualLongGauge gauge = new VirtualLongGauge(_name, provider);
@@ -69,6 +69,11 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullLongGauge.INSTANCE;
     }
 
+    @Override
+    public LongHistogram newLongHistogram(CharSequence name, long[] bounds) {
+        return NullLongHistogram.INSTANCE;
+    }
+
     @Override
     public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
         return NullLongGauge.INSTANCE;
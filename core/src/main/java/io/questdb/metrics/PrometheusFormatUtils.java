@@ -43,12 +43,24 @@ class PrometheusFormatUtils {
         sink.putAscii("_total counter\n");
     }
 
+    static void appendHistogramType(CharSequence name, CharSink<?> sink) {
+        sink.putAscii(TYPE_PREFIX);
+        sink.put(name);
+        sink.putAscii(" histogram\n");
+    }
+
     static void appendLabel(CharSink<?> sink, CharSequence labelName, CharSequence labelValue) {
         sink.put(labelName);
         sink.putAscii('=');
         sink.putQuoted(labelValue);
     }
 
+    static void appendMetricName(CharSequence name, CharSequence suffix, CharSink<?> sink) {
+        sink.putAscii(METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.putAscii(suffix);
+    }
+
     static void appendNewLine(CharSink<?> sink) {
         sink.putAscii(LF);
     }
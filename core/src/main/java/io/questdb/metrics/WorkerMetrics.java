@@ -24,8 +24,17 @@
 
 package io.questdb.metrics;
 
-public class WorkerMetrics {
+import io.questdb.std.ObjList;
+import io.questdb.std.str.BorrowableUtf8Sink;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.atomic.LongAdder;
+
+public class WorkerMetrics implements Scrapable {
+    private static final CharSequence JOB_RUN_MICROS = "workers_job_run_micros";
+    private static final CharSequence LABEL_JOB = "job";
+    private final ObjList<CharSequence> jobNames = new ObjList<>();
+    private final ObjList<LongAdder> jobRunMicros = new ObjList<>();
     private final LongGauge max;
     private final LongGauge min;
 
@@ -34,6 +43,50 @@ public class WorkerMetrics {
         max = metricsRegistry.newLongGauge("workers_job_start_micros_max");
         min.setValue(Long.MAX_VALUE);
         max.setValue(Long.MIN_VALUE);
+        metricsRegistry.addScrapable(this);
+    }
+
+    public long getMaxElapsedMicros() {
+        return max.getValue();
+    }
+
+    public long getMinElapsedMicros() {
+        return min.getValue();
+    }
+
+    /**
+     * Returns the accumulator of time spent running jobs with the given name. Workers
+     * resolve the accumulators once on start and add the elapsed time of every job
+     * run to them, so that the time is shared by all jobs of the same type, across
+     * all workers and pools.
+     *
+     * @param jobName job name, used as the label value
+     * @return time accumulator, in microseconds
+     */
+    public synchronized LongAdder jobRunMicros(String jobName) {
+        final int index = jobNames.indexOf(jobName);
+        if (index > -1) {
+            return jobRunMicros.getQuick(index);
+        }
+        final LongAdder adder = new LongAdder();
+        jobNames.add(jobName);
+        jobRunMicros.add(adder);
+        return adder;
+    }
+
+    @Override
+    public synchronized void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        if (jobNames.size() > 0) {
+            PrometheusFormatUtils.appendCounterType(JOB_RUN_MICROS, sink);
+            for (int i = 0, n = jobNames.size(); i < n; i++) {
+                PrometheusFormatUtils.appendCounterNamePrefix(JOB_RUN_MICROS, sink);
+                sink.putAscii('{');
+                PrometheusFormatUtils.appendLabel(sink, LABEL_JOB, jobNames.getQuick(i));
+                sink.putAscii('}');
+                PrometheusFormatUtils.appendSampleLineSuffix(sink, jobRunMicros.getQuick(i).sum());
+            }
+            PrometheusFormatUtils.appendNewLine(sink);
+        }
     }
 
     public void update(long candidateMin, long candidateMax) {
@@ -44,12 +97,4 @@ public class WorkerMetrics {
             max.setValue(candidateMax);
         }
     }
-
-    public long getMinElapsedMicros() {
-        return min.getValue();
-    }
-
-    public long getMaxElapsedMicros() {
-        return max.getValue();
-    }
 }
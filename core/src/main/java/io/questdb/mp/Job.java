@@ -27,6 +27,8 @@ package io.questdb.mp;
 import org.jetbrains.annotations.NotNull;
 
 public interface Job {
+    int PRIORITY_HIGH = 0;
+    int PRIORITY_NORMAL = 1;
     RunStatus RUNNING_STATUS = () -> false;
     RunStatus TERMINATING_STATUS = () -> true;
 
@@ -38,6 +40,17 @@ public interface Job {
         }
     }
 
+    /**
+     * Latency-sensitive jobs should return {@link #PRIORITY_HIGH}. Worker runs such jobs
+     * in between the normal priority jobs that report having more work, so that a burst
+     * of work for a normal job does not delay them until the end of the worker loop.
+     *
+     * @return job priority, either {@link #PRIORITY_HIGH} or {@link #PRIORITY_NORMAL}
+     */
+    default int getPriority() {
+        return PRIORITY_NORMAL;
+    }
+
     /**
      * Runs and returns true if it should be rescheduled ASAP.
      *
@@ -27,6 +27,7 @@ package io.questdb.mp;
 import io.questdb.Metrics;
 import io.questdb.log.Log;
 import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -35,6 +36,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Worker extends Thread {
     public final static MicrosecondClock CLOCK_MICROS = MicrosecondClockImpl.INSTANCE;
@@ -43,11 +45,15 @@ public class Worker extends Thread {
     private final String criticalErrorLine;
     private final SOCountDownLatch haltLatch;
     private final boolean haltOnError;
+    private final ObjList<Job> highPriorityJobs = new ObjList<>();
+    private final ObjList<LongAdder> highPriorityRunMicros = new ObjList<>();
     private final AtomicLong jobStartMicros = new AtomicLong();
     private final ObjHashSet<? extends Job> jobs;
     private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(Lifecycle.BORN);
     private final Log log;
     private final Metrics metrics;
+    private final ObjList<Job> normalPriorityJobs = new ObjList<>();
+    private final ObjList<LongAdder> normalPriorityRunMicros = new ObjList<>();
     private final OnHaltAction onHaltAction;
     private final String poolName;
     private final Job.RunStatus runStatus = () -> lifecycle.get() == Lifecycle.HALTED;
@@ -124,7 +130,7 @@ public class Worker extends Thread {
                     }
                 }
 
-                // setup eager jobs
+                // setup eager jobs and split jobs by priority
                 for (int i = 0, n = jobs.size(); i < n; i++) {
                     Unsafe.getUnsafe().loadFence();
                     try {
@@ -132,6 +138,14 @@ public class Worker extends Thread {
                         if (job instanceof EagerThreadSetup) {
                             ((EagerThreadSetup) job).setup();
                         }
+                        final LongAdder runMicros = metrics.isEnabled() ? metrics.workerMetrics().jobRunMicros(jobName(job)) : null;
+                        if (job.getPriority() == Job.PRIORITY_HIGH) {
+                            highPriorityJobs.add(job);
+                            highPriorityRunMicros.add(runMicros);
+                        } else {
+                            normalPriorityJobs.add(job);
+                            normalPriorityRunMicros.add(runMicros);
+                        }
                     } finally {
                         Unsafe.getUnsafe().storeFence();
                     }
@@ -140,28 +154,13 @@ public class Worker extends Thread {
                 // enter main loop
                 long ticker = 0L;
                 while (lifecycle.get() == Lifecycle.RUNNING) {
-                    boolean runAsap = false;
-                    for (int i = 0, n = jobs.size(); i < n; i++) {
-                        jobStartMicros.set(CLOCK_MICROS.getTicks());
-                        Unsafe.getUnsafe().loadFence();
-                        try {
-                            runAsap |= jobs.get(i).run(workerId, runStatus);
-                        } catch (Throwable e) {
-                            try {
-                                metrics.health().incrementUnhandledErrors();
-                            } catch (Throwable t) {
-                                stdErrCritical(t);
-                            }
-                            if (log != null) {
-                                log.critical().$("unhandled error [job=").$(jobs.get(i).toString()).$(", ex=").$(e).I$();
-                            } else {
-                                stdErrCritical(e); // log regardless
-                            }
-                            if (haltOnError) {
-                                throw e;
-                            }
-                        } finally {
-                            Unsafe.getUnsafe().storeFence();
+                    boolean runAsap = runHighPriorityJobs();
+                    for (int i = 0, n = normalPriorityJobs.size(); i < n; i++) {
+                        if (runJob(normalPriorityJobs.getQuick(i), normalPriorityRunMicros.getQuick(i))) {
+                            runAsap = true;
+                            // the job has more work to do, give latency-sensitive jobs
+                            // a chance to run before we get to the end of the loop
+                            runHighPriorityJobs();
                         }
                     }
 
@@ -200,6 +199,53 @@ public class Worker extends Thread {
         }
     }
 
+    private static String jobName(Job job) {
+        final String name = job.getClass().getSimpleName();
+        return name.isEmpty() ? job.getClass().getName() : name;
+    }
+
+    private boolean runHighPriorityJobs() {
+        boolean runAsap = false;
+        for (int i = 0, n = highPriorityJobs.size(); i < n; i++) {
+            runAsap |= runJob(highPriorityJobs.getQuick(i), highPriorityRunMicros.getQuick(i));
+        }
+        return runAsap;
+    }
+
+    private boolean runJob(Job job, @Nullable LongAdder runMicros) {
+        final long start = CLOCK_MICROS.getTicks();
+        jobStartMicros.set(start);
+        Unsafe.getUnsafe().loadFence();
+        try {
+            return job.run(workerId, runStatus);
+        } catch (Throwable e) {
+            try {
+                metrics.health().incrementUnhandledErrors();
+            } catch (Throwable t) {
+                stdErrCritical(t);
+            }
+            if (log != null) {
+                log.critical().$("unhandled error [job=").$(job.toString()).$(", ex=").$(e).I$();
+            } else {
+                stdErrCritical(e); // log regardless
+            }
+            if (haltOnError) {
+                throw e;
+            }
+            return false;
+        } finally {
+            Unsafe.getUnsafe().storeFence();
+            if (runMicros != null) {
+                // idle runs mostly take less than a microsecond, so we don't
+                // pay for the counter update when the job had nothing to do
+                final long elapsed = CLOCK_MICROS.getTicks() - start;
+                if (elapsed > 0L) {
+                    runMicros.add(elapsed);
+                }
+            }
+        }
+    }
+
     private void stdErrCritical(Throwable e) {
         System.err.println(criticalErrorLine);
         e.printStackTrace();
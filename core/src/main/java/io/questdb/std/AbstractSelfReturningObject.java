@@ -36,6 +36,8 @@ public abstract class AbstractSelfReturningObject<T extends AbstractSelfReturnin
     @SuppressWarnings("unchecked")
     @Override
     public void close() {
-        parentPool.push((T) this);
+        if (parentPool != null) {
+            parentPool.push((T) this);
+        }
     }
 }
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.NullCounter;
+import io.questdb.metrics.NullLongGauge;
+
+import java.io.Closeable;
+
+/**
+ * Thread-safe counterpart of {@link AssociativeCache} meant to be shared by all connections
+ * of a server. Each row is guarded by its own lock, so threads contend only when their keys
+ * hash to the same row.
+ * <p>
+ * poll() removes the value from the cache, which gives the caller exclusive ownership of
+ * the value until it is returned via put(). Values that are pushed out of a row, replaced
+ * or cleared are closed if they are Closeable.
+ * <p>
+ * Values may be stamped with a version when they are put. poll() hands the value and its
+ * version to a validator, values it rejects are treated as a miss and closed. This lets the
+ * owner invalidate entries selectively, e.g. only those compiled against a changed table.
+ */
+public class ConcurrentAssociativeCache<V> implements Closeable, Mutable {
+
+    private static final int MIN_BLOCKS = 1;
+    private static final int MIN_ROWS = 1;
+    private static final int NOT_FOUND = -1;
+    private final int blocks;
+    private final int bmask;
+    private final int bshift;
+    private final LongGauge cachedGauge;
+    private final Counter hitCounter;
+    private final CharSequence[] keys;
+    private final Object[] locks;
+    private final Counter missCounter;
+    private final int rmask;
+    private final V[] values;
+    private final long[] versions;
+
+    public ConcurrentAssociativeCache(int blocks, int rows) {
+        this(blocks, rows, NullLongGauge.INSTANCE, NullCounter.INSTANCE, NullCounter.INSTANCE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentAssociativeCache(int blocks, int rows, LongGauge cachedGauge, Counter hitCounter, Counter missCounter) {
+        this.blocks = Math.max(MIN_BLOCKS, Numbers.ceilPow2(blocks));
+        rows = Math.max(MIN_ROWS, Numbers.ceilPow2(rows));
+
+        int size = rows * this.blocks;
+        if (size < 0) {
+            throw new OutOfMemoryError();
+        }
+        this.keys = new CharSequence[size];
+        this.values = (V[]) new Object[size];
+        this.versions = new long[size];
+        this.locks = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            locks[i] = new Object();
+        }
+        this.rmask = rows - 1;
+        this.bmask = this.blocks - 1;
+        this.bshift = Numbers.msb(this.blocks);
+        this.cachedGauge = cachedGauge;
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+    }
+
+    @Override
+    public void clear() {
+        long freed = 0;
+        for (int r = 0, n = locks.length; r < n; r++) {
+            synchronized (locks[r]) {
+                for (int i = r << bshift, hi = i + blocks; i < hi; i++) {
+                    if (keys[i] != null) {
+                        keys[i] = null;
+                        if (values[i] != null) {
+                            values[i] = Misc.freeIfCloseable(values[i]);
+                            freed++;
+                        }
+                    }
+                }
+            }
+        }
+        cachedGauge.add(-freed);
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public V poll(CharSequence key) {
+        return poll(key, null);
+    }
+
+    /**
+     * @param validator checks the value against the version it was put with,
+     *                  null accepts any value
+     */
+    public V poll(CharSequence key, Validator<V> validator) {
+        final int row = row(key);
+        V staleValue = null;
+        synchronized (locks[row]) {
+            final int index = getIndex(row << bshift, key);
+            if (index != NOT_FOUND) {
+                final V value = values[index];
+                if (value != null) {
+                    values[index] = null;
+                    // The value is present, so we're decrementing the gauge.
+                    cachedGauge.dec();
+                    if (validator == null || validator.isValid(value, versions[index])) {
+                        hitCounter.inc();
+                        // We do not null the key reference to avoid creating another immutable key.
+                        return value;
+                    }
+                    staleValue = value;
+                }
+            }
+        }
+        // closing the stale value can be expensive, so it is done outside the lock
+        Misc.freeIfCloseable(staleValue);
+        missCounter.inc();
+        return null;
+    }
+
+    public CharSequence put(CharSequence key, V value) {
+        return put(key, value, 0);
+    }
+
+    public CharSequence put(CharSequence key, V value, long version) {
+        final int row = row(key);
+        final int lo = row << bshift;
+        final CharSequence outgoingKey;
+        V outgoingValue = null;
+
+        synchronized (locks[row]) {
+            // Another connection may have put the same key while we were using
+            // a polled value, so the key is not necessarily at the row head.
+            final int index = getIndex(lo, key);
+            if (index != NOT_FOUND) {
+                // Present entry case.
+                if (values[index] != value) {
+                    if (values[index] == null) {
+                        // The value was previously cleared by poll(), so we're inserting.
+                        cachedGauge.inc();
+                    } else {
+                        // We're replacing the value with another one, no need to change the gauge.
+                        outgoingValue = values[index];
+                    }
+                    values[index] = value;
+                }
+                versions[index] = version;
+                outgoingKey = null;
+            } else {
+                // New entry case.
+                final int last = lo + bmask;
+                outgoingKey = keys[last];
+                if (outgoingKey == null || values[last] == null) {
+                    // The block has empty entries or the value for the outgoing key
+                    // was previously cleared by poll(), so we're inserting.
+                    cachedGauge.inc();
+                } else {
+                    // We're replacing the value with another one, no need to change the gauge.
+                    outgoingValue = values[last];
+                }
+
+                System.arraycopy(keys, lo, keys, lo + 1, bmask);
+                System.arraycopy(values, lo, values, lo + 1, bmask);
+                System.arraycopy(versions, lo, versions, lo + 1, bmask);
+                keys[lo] = value == null ? null : Chars.toString(key);
+                values[lo] = value;
+                versions[lo] = version;
+            }
+        }
+
+        // closing the outgoing value can be expensive, so it is done outside the lock
+        Misc.freeIfCloseable(outgoingValue);
+        return outgoingKey;
+    }
+
+    private int getIndex(int lo, CharSequence key) {
+        for (int i = lo, hi = lo + blocks; i < hi; i++) {
+            CharSequence k = keys[i];
+            if (k == null) {
+                return NOT_FOUND;
+            }
+
+            if (Chars.equals(k, key)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int row(CharSequence key) {
+        return Hash.spread(Chars.hashCode(key)) & rmask;
+    }
+
+    @FunctionalInterface
+    public interface Validator<V> {
+        boolean isValid(V value, long version);
+    }
+}
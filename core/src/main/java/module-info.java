@@ -40,11 +40,13 @@ open module io.questdb {
     exports io.questdb.cairo.security;
 
     exports io.questdb.cutlass;
+    exports io.questdb.cutlass.arrow;
     exports io.questdb.cutlass.http;
     exports io.questdb.cutlass.http.processors;
     exports io.questdb.cutlass.http.ex;
     exports io.questdb.cutlass.json;
     exports io.questdb.cutlass.line;
+    exports io.questdb.cutlass.line.http;
     exports io.questdb.cutlass.line.udp;
     exports io.questdb.cutlass.line.tcp;
     exports io.questdb.cutlass.pgwire;
@@ -81,6 +83,7 @@ open module io.questdb {
     exports io.questdb.griffin.engine.orderby;
     exports io.questdb.griffin.engine.window;
     exports io.questdb.griffin.engine.table;
+    exports io.questdb.griffin.engine.table.parquet;
     exports io.questdb.jit;
     exports io.questdb.std;
     exports io.questdb.std.datetime;
@@ -287,6 +290,7 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.uuid.LongsToUuidFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampShuffleFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampFloorFunctionFactory,
+            io.questdb.griffin.engine.functions.date.TimestampFloorOffsetFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampCeilFunctionFactory,
             io.questdb.griffin.engine.functions.date.DateTruncFunctionFactory,
             io.questdb.griffin.engine.functions.rnd.RndByteCCFunctionFactory,
@@ -795,6 +799,7 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.table.WriterPoolFunctionFactory,
             io.questdb.griffin.engine.functions.table.TableWriterMetricsFunctionFactory,
             io.questdb.griffin.engine.functions.table.MemoryMetricsFunctionFactory,
+            io.questdb.griffin.engine.functions.table.ReadParquetFunctionFactory,
 
             // strpos
             io.questdb.griffin.engine.functions.str.StrPosFunctionFactory,
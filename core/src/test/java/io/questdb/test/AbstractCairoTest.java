@@ -1204,6 +1204,18 @@ public abstract class AbstractCairoTest extends AbstractTest {
         node1.getConfigurationOverrides().setParallelGroupByEnabled(parallelGroupByEnabled);
     }
 
+    protected static void configOverrideParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+        node1.getConfigurationOverrides().setParallelHashJoinEnabled(parallelHashJoinEnabled);
+    }
+
+    protected static void configOverrideParallelLatestByEnabled(boolean parallelLatestByEnabled) {
+        node1.getConfigurationOverrides().setParallelLatestByEnabled(parallelLatestByEnabled);
+    }
+
+    protected static void configOverrideParallelSortEnabled(boolean parallelSortEnabled) {
+        node1.getConfigurationOverrides().setParallelSortEnabled(parallelSortEnabled);
+    }
+
     protected static void configOverrideParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         node1.getConfigurationOverrides().setParallelImportStatusLogKeepNDays(parallelImportStatusLogKeepNDays);
     }
@@ -1251,6 +1263,10 @@ public abstract class AbstractCairoTest extends AbstractTest {
         node1.getConfigurationOverrides().setWalApplyTableTimeQuota(walApplyTableTimeQuota);
     }
 
+    protected static void configOverrideWalMaxLagTime(long walMaxLagTime) {
+        node1.getConfigurationOverrides().setWalMaxLagTime(walMaxLagTime);
+    }
+
     protected static void configOverrideWalMaxLagTxnCount() {
         node1.getConfigurationOverrides().setWalMaxLagTxnCount(1);
     }
@@ -189,6 +189,12 @@ public class MetricsTest {
             return delegate.newLongGauge(memoryTag);
         }
 
+        @Override
+        public LongHistogram newLongHistogram(CharSequence name, long[] bounds) {
+            addMetricName(name);
+            return delegate.newLongHistogram(name, bounds);
+        }
+
         @Override
         public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
             addMetricName(name);
@@ -37,6 +37,7 @@ import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.network.SelectFacadeImpl;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8String;
@@ -310,6 +311,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
         Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
+        Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
+        Assert.assertEquals(1.5, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceLoadRatio(), 0.000001);
         Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
         Assert.assertEquals(10, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
         Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getSleepThreshold());
@@ -357,6 +360,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getTestConnectionBufferSize());
         Assert.assertEquals(2, configuration.getPGWireConfiguration().getBinParamCountCapacity());
+        Assert.assertEquals(0, configuration.getPGWireConfiguration().getCopyInCommitBatchSize());
         Assert.assertTrue(configuration.getPGWireConfiguration().isSelectCacheEnabled());
         Assert.assertEquals(4, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
         Assert.assertEquals(4, configuration.getPGWireConfiguration().getSelectCacheRowCount());
@@ -382,6 +386,8 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().getAutoCreateNewColumns());
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getAutoCreateNewTables());
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().getAutoCreateNewTables());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().isBinaryFormatSupported());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().isBinaryFormatSupported());
 
         Assert.assertEquals(TableUtils.ATTACHABLE_DIR_MARKER, configuration.getCairoConfiguration().getAttachPartitionSuffix());
         Assert.assertFalse(configuration.getCairoConfiguration().attachPartitionCopy());
@@ -393,6 +399,7 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
         Assert.assertFalse(configuration.getCairoConfiguration().getWalEnabledDefault());
         Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyHighPriority());
         Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
         Assert.assertFalse(configuration.getWalApplyPoolConfiguration().haltOnError());
         Assert.assertEquals("wal-apply", configuration.getWalApplyPoolConfiguration().getPoolName());
@@ -405,12 +412,20 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(200_000, configuration.getCairoConfiguration().getWalSegmentRolloverRowCount());
         Assert.assertEquals(20.0d, configuration.getCairoConfiguration().getWalSquashUncommittedRowsMultiplier(), 0.00001);
         Assert.assertEquals(-1, configuration.getCairoConfiguration().getWalMaxLagTxnCount());
+        Assert.assertEquals(-1, configuration.getCairoConfiguration().getWalMaxLagTime());
+        Assert.assertEquals(64 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getSharedSymbolCacheSize());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getPartitionParquetAge());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getPartitionTieringAge());
+        Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getPartitionTieringCacheSize());
+        Assert.assertNull(configuration.getCairoConfiguration().getPartitionTieringRoot());
         Assert.assertEquals(1048576, configuration.getCairoConfiguration().getWalDataAppendPageSize());
         Assert.assertEquals(262144, configuration.getCairoConfiguration().getSystemWalDataAppendPageSize());
         Assert.assertTrue(configuration.getCairoConfiguration().isTableTypeConversionEnabled());
         Assert.assertEquals(10, configuration.getCairoConfiguration().getWalWriterPoolMaxSegments());
 
         Assert.assertEquals(20, configuration.getCairoConfiguration().getO3LastPartitionMaxSplits());
+        Assert.assertTrue(configuration.getCairoConfiguration().isZoneMapEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPostingIndexEnabled());
         Assert.assertEquals(50 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getPartitionO3SplitMinSize());
     }
 
@@ -900,6 +915,34 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(PartitionBy.YEAR, configuration.getLineUdpReceiverConfiguration().getDefaultPartitionBy());
     }
 
+    @Test
+    public void testPartitionTieringVolume() throws Exception {
+        File volume = temp.newFolder("tiering");
+        try {
+            Properties properties = new Properties();
+            sink.clear();
+            loadVolumePath("cold", volume.getAbsolutePath());
+            properties.setProperty(PropertyKey.CAIRO_VOLUMES.getPropertyPath(), sink.toString());
+            properties.setProperty(PropertyKey.CAIRO_PARTITION_TIERING_VOLUME.getPropertyPath(), "cold");
+            properties.setProperty(PropertyKey.CAIRO_PARTITION_TIERING_AGE.getPropertyPath(), "86400000");
+            properties.setProperty(PropertyKey.CAIRO_PARTITION_TIERING_CACHE_SIZE.getPropertyPath(), "16M");
+            CairoConfiguration cairoConfig = newPropServerConfiguration(root, properties, null, new BuildInformationHolder()).getCairoConfiguration();
+            TestUtils.assertEquals(cairoConfig.getVolumeDefinitions().resolveAlias("cold"), cairoConfig.getPartitionTieringRoot());
+            Assert.assertEquals(Timestamps.DAY_MICROS, cairoConfig.getPartitionTieringAge());
+            Assert.assertEquals(16 * Numbers.SIZE_1MB, cairoConfig.getPartitionTieringCacheSize());
+
+            properties.setProperty(PropertyKey.CAIRO_PARTITION_TIERING_VOLUME.getPropertyPath(), "banana");
+            try {
+                newPropServerConfiguration(root, properties, null, new BuildInformationHolder());
+                Assert.fail();
+            } catch (ServerConfigurationException e) {
+                TestUtils.assertContains(e.getMessage(), "invalid configuration value [key=cairo.partition.tiering.volume, description=volume alias is not defined in cairo.volumes]");
+            }
+        } finally {
+            Assert.assertTrue(volume.delete());
+        }
+    }
+
     @Test
     public void testSetAllFromFile() throws Exception {
         try (InputStream is = PropServerConfigurationTest.class.getResourceAsStream("/server.conf")) {
@@ -1129,6 +1172,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2049, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
             Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
             Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
+            Assert.assertEquals(5_000, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
+            Assert.assertEquals(2.0, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceLoadRatio(), 0.000001);
             Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerAffinity());
             Assert.assertEquals(20, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
@@ -1168,6 +1213,7 @@ public class PropServerConfigurationTest {
 
             // PG wire
             Assert.assertEquals(9, configuration.getPGWireConfiguration().getBinParamCountCapacity());
+            Assert.assertEquals(1000, configuration.getPGWireConfiguration().getCopyInCommitBatchSize());
             Assert.assertFalse(configuration.getPGWireConfiguration().isSelectCacheEnabled());
             Assert.assertEquals(1, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
             Assert.assertEquals(2, configuration.getPGWireConfiguration().getSelectCacheRowCount());
@@ -1194,6 +1240,8 @@ public class PropServerConfigurationTest {
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().getAutoCreateNewColumns());
             Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getAutoCreateNewTables());
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().getAutoCreateNewTables());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isBinaryFormatSupported());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().isBinaryFormatSupported());
 
             Assert.assertEquals(".detached", configuration.getCairoConfiguration().getAttachPartitionSuffix());
             Assert.assertTrue(configuration.getCairoConfiguration().attachPartitionCopy());
@@ -1205,6 +1253,7 @@ public class PropServerConfigurationTest {
             Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
             Assert.assertTrue(configuration.getCairoConfiguration().getWalEnabledDefault());
             Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyHighPriority());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().haltOnError());
             Assert.assertEquals("wal-apply", configuration.getWalApplyPoolConfiguration().getPoolName());
@@ -1220,10 +1269,14 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(100, configuration.getCairoConfiguration().getWalSegmentRolloverRowCount());
             Assert.assertEquals(42.2d, configuration.getCairoConfiguration().getWalSquashUncommittedRowsMultiplier(), 0.00001);
             Assert.assertEquals(4242, configuration.getCairoConfiguration().getWalMaxLagTxnCount());
+            Assert.assertEquals(2500, configuration.getCairoConfiguration().getWalMaxLagTime());
+            Assert.assertEquals(16 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getSharedSymbolCacheSize());
             Assert.assertEquals(262144, configuration.getCairoConfiguration().getWalDataAppendPageSize());
             Assert.assertEquals(524288, configuration.getCairoConfiguration().getSystemWalDataAppendPageSize());
 
             Assert.assertEquals(1, configuration.getCairoConfiguration().getO3LastPartitionMaxSplits());
+            Assert.assertFalse(configuration.getCairoConfiguration().isZoneMapEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPostingIndexEnabled());
             final long TB = (long) Numbers.SIZE_1MB * Numbers.SIZE_1MB;
             Assert.assertEquals(TB, configuration.getCairoConfiguration().getPartitionO3SplitMinSize());
 
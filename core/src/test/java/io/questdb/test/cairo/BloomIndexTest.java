@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.*;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BloomIndexTest extends AbstractCairoTest {
+
+    @Test
+    public void testAddIndexErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException("alter table x alter column d add index type bloom", 27, "bloom indexes are only supported for int, long, uuid and string types");
+            assertException("alter table x alter column z add index type bloom", 27, "Invalid column: z");
+            ddl("alter table x alter column l add index type bloom");
+            assertException("alter table x alter column l add index type bloom", 27, "column already has bloom index");
+            assertException("alter table x alter column s drop index type bloom", 27, "column does not have bloom index");
+
+            ddl("create table y (l long, ts timestamp) timestamp(ts)");
+            assertException("alter table y alter column l add index type bloom", 27, "bloom index is only supported for partitioned tables");
+        });
+    }
+
+    @Test
+    public void testDropIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column l add index type bloom");
+            Assert.assertTrue(bloomIndexExists("1970-01-01", "l"));
+            ddl("alter table x alter column l drop index type bloom");
+            Assert.assertFalse(bloomIndexExists("1970-01-01", "l"));
+            Assert.assertFalse(bloomIndexExists("1970-01-02", "l"));
+            try (TableReader reader = getReader("x")) {
+                Assert.assertFalse(reader.getMetadata().isColumnBloomIndexed(reader.getMetadata().getColumnIndex("l")));
+            }
+            assertSql("count\n1\n", "select count() from x where l = 30");
+        });
+    }
+
+    @Test
+    public void testFilterResults() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column i add index type bloom");
+            ddl("alter table x alter column l add index type bloom");
+            ddl("alter table x alter column u add index type bloom");
+            ddl("alter table x alter column s add index type bloom");
+
+            assertSql("i\tl\tts\n30\t30\t1970-01-02T06:00:00.000000Z\n", "select i, l, ts from x where l = 30");
+            assertSql("i\tl\tts\n30\t30\t1970-01-02T06:00:00.000000Z\n", "select i, l, ts from x where 30 = i and l = 30");
+            assertSql("i\tl\n", "select i, l from x where l = -30");
+            assertSql("s\tts\nk45\t1970-01-02T21:00:00.000000Z\n", "select s, ts from x where s = 'k45'");
+            assertSql("s\n", "select s from x where s = 'k1000'");
+            assertSql("l\n5\n", "select l from x where u = '00000000-0000-0005-0000-000000000005'");
+            assertSql("count\n0\n", "select count() from x where u = '00000000-0000-0005-0000-000000000006'");
+            // values in the last partition
+            assertSql("l\n70\n", "select l from x where l = 70");
+
+            // O3 insert rebuilds bloom index of the first partition
+            insert("insert into x values (1000, 1000, null, 'k1000', to_uuid(1000, 1000), '1970-01-01T12:30')");
+            assertSql("l\ts\n1000\tk1000\n", "select l, s from x where s = 'k1000'");
+            assertSql("l\n1000\n", "select l from x where i = 1000");
+        });
+    }
+
+    @Test
+    public void testIndexFilesWritten() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column l add index type bloom");
+            Assert.assertTrue(bloomIndexExists("1970-01-01", "l"));
+            Assert.assertTrue(bloomIndexExists("1970-01-02", "l"));
+            Assert.assertTrue(bloomIndexExists("1970-01-03", "l"));
+            Assert.assertFalse(bloomIndexExists("1970-01-01", "i"));
+
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path(); BloomIndex bloomIndex = new BloomIndex()) {
+                path.of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat("1970-01-02");
+                for (int l = 24; l < 48; l++) {
+                    Assert.assertTrue(bloomIndex.mightContain(ff, path, "l", -1, 0, 24, BloomIndex.hashLong(l)));
+                }
+                int falsePositives = 0;
+                for (int l = 1000; l < 2000; l++) {
+                    if (bloomIndex.mightContain(ff, path, "l", -1, 0, 24, BloomIndex.hashLong(l))) {
+                        falsePositives++;
+                    }
+                }
+                Assert.assertTrue(falsePositives < 100);
+                // row count mismatch makes the index unusable
+                Assert.assertTrue(bloomIndex.mightContain(ff, path, "l", -1, 0, 25, BloomIndex.hashLong(1000)));
+            }
+        });
+    }
+
+    @Test
+    public void testLastPartitionUpdatedWithAppendedRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column l add index type bloom");
+            ddl("alter table x alter column s add index type bloom");
+            insert("insert into x (l, s, ts) values (1000, 'k1000', '1970-01-03T23:30')");
+            insert("insert into x (l, s, ts) values (1001, null, '1970-01-03T23:40'), (1002, 'k1002', '1970-01-03T23:50')");
+
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path(); BloomIndex bloomIndex = new BloomIndex()) {
+                path.of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat("1970-01-03");
+                for (int l = 48; l < 72; l++) {
+                    Assert.assertTrue(bloomIndex.mightContain(ff, path, "l", -1, 0, 27, BloomIndex.hashLong(l)));
+                    Assert.assertTrue(bloomIndex.mightContain(ff, path, "s", -1, 0, 27, BloomIndex.hashString("k" + l)));
+                }
+                for (int l = 1000; l < 1003; l++) {
+                    Assert.assertTrue(bloomIndex.mightContain(ff, path, "l", -1, 0, 27, BloomIndex.hashLong(l)));
+                }
+                Assert.assertTrue(bloomIndex.mightContain(ff, path, "s", -1, 0, 27, BloomIndex.hashString("k1000")));
+                Assert.assertTrue(bloomIndex.mightContain(ff, path, "s", -1, 0, 27, BloomIndex.hashString("k1002")));
+            }
+
+            assertSql("l\ts\n1002\tk1002\n", "select l, s from x where s = 'k1002'");
+            assertSql("l\ts\n1001\t\n", "select l, s from x where l = 1001");
+        });
+    }
+
+    @Test
+    public void testProbeReadsSingleBlock() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column l add index type bloom");
+
+            final AtomicInteger reads = new AtomicInteger();
+            final FilesFacade ff = new TestFilesFacadeImpl() {
+                @Override
+                public long read(int fd, long buf, long len, long offset) {
+                    reads.incrementAndGet();
+                    return super.read(fd, buf, len, offset);
+                }
+            };
+            try (Path path = new Path(); BloomIndex bloomIndex = new BloomIndex()) {
+                path.of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat("1970-01-02");
+                for (int l = 24; l < 48; l++) {
+                    reads.set(0);
+                    Assert.assertTrue(bloomIndex.mightContain(ff, path, "l", -1, 0, 24, BloomIndex.hashLong(l)));
+                    // header and the block of the value
+                    Assert.assertEquals(2, reads.get());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testReindexAndSkip() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x alter column l add index type bloom");
+            assertSql("count\n1\n", "select count() from x where l = 30");
+
+            // bloom indexes are trusted by the scan, so a cleared index hides the rows
+            clearBloomIndex("1970-01-02", "l");
+            assertSql("count\n0\n", "select count() from x where l = 30");
+            assertSql("count\n1\n", "select count() from x where l = 31 - 1 + 0 * i");
+            assertSql("count\n72\n", "select count() from x");
+
+            engine.releaseAllWriters();
+            ddl("reindex table x column l lock exclusive");
+            assertSql("count\n1\n", "select count() from x where l = 30");
+        });
+    }
+
+    @Test
+    public void testWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (" +
+                    "select x - 1 l, timestamp_sequence(0, 3600000000) ts from long_sequence(72)" +
+                    ") timestamp(ts) partition by day wal");
+            drainWalQueue();
+            ddl("alter table x alter column l add index type bloom");
+            drainWalQueue();
+            Assert.assertTrue(bloomIndexExists("1970-01-01", "l"));
+            clearBloomIndex("1970-01-02", "l");
+            assertSql("count\n0\n", "select count() from x where l = 30");
+
+            ddl("alter table x alter column l drop index type bloom");
+            drainWalQueue();
+            Assert.assertFalse(bloomIndexExists("1970-01-02", "l"));
+            assertSql("count\n1\n", "select count() from x where l = 30");
+        });
+    }
+
+    private static boolean bloomIndexExists(String partition, String columnName) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat(partition);
+            return configuration.getFilesFacade().exists(TableUtils.bloomIndexFileName(path, columnName, -1));
+        }
+    }
+
+    private static void clearBloomIndex(String partition, String columnName) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat(partition);
+            final int fd = TableUtils.openRW(ff, TableUtils.bloomIndexFileName(path, columnName, -1), LOG, configuration.getWriterFileOpenOpts());
+            final long size = ff.length(fd) - 24;
+            final long buf = Unsafe.calloc(size, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Assert.assertEquals(size, ff.write(fd, buf, size, 24));
+            } finally {
+                Unsafe.free(buf, size, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
+            }
+        }
+    }
+
+    private static void createTable() throws Exception {
+        ddl("create table x as (" +
+                "select x::int - 1 i, x - 1 l, (x - 1)::double d, 'k' || (x - 1) s, to_uuid(x - 1, x - 1) u, timestamp_sequence(0, 3600000000) ts from long_sequence(72)" +
+                ") timestamp(ts) partition by day");
+    }
+}
@@ -34,6 +34,7 @@ import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.WorkerPool;
 import io.questdb.std.Files;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.Timestamps;
@@ -511,6 +512,40 @@ public class CairoEngineTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testTableMetadataChanged() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (a int, ts timestamp) timestamp(ts) partition by day");
+            ddl("create table z (a int, ts timestamp) timestamp(ts) partition by day");
+            final ObjList<TableToken> x = new ObjList<>();
+            x.add(engine.verifyTableName("x"));
+            final ObjList<TableToken> z = new ObjList<>();
+            z.add(engine.verifyTableName("z"));
+
+            long version = engine.getDdlVersion();
+            insert("insert into x values (1, 0)");
+            Assert.assertFalse(engine.isTableMetadataChanged(x, version));
+
+            ddl("alter table x add column b long");
+            Assert.assertTrue(engine.isTableMetadataChanged(x, version));
+            // other tables keep their cached queries
+            Assert.assertFalse(engine.isTableMetadataChanged(z, version));
+            Assert.assertFalse(engine.isTableMetadataChanged(x, engine.getDdlVersion()));
+
+            version = engine.getDdlVersion();
+            ddl("rename table z to y");
+            Assert.assertTrue(engine.isTableMetadataChanged(z, version));
+            Assert.assertFalse(engine.isTableMetadataChanged(x, version));
+
+            drop("drop table x");
+            Assert.assertTrue(engine.isTableMetadataChanged(x, version));
+
+            // a table re-created under the same name is a different table
+            ddl("create table x (a int, ts timestamp) timestamp(ts) partition by day");
+            Assert.assertTrue(engine.isTableMetadataChanged(x, engine.getDdlVersion()));
+        });
+    }
+
     @Test
     public void testTheMaintenanceJobDoesNotObstructTableLocking() throws Exception {
         final String tableName = testName.getMethodName();
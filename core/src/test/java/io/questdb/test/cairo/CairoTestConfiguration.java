@@ -341,6 +341,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getWalMaxLagSize() >= 0 ? overrides.getWalMaxLagSize() : super.getWalMaxLagSize();
     }
 
+    @Override
+    public long getWalMaxLagTime() {
+        return overrides.getWalMaxLagTime() >= 0 ? overrides.getWalMaxLagTime() : super.getWalMaxLagTime();
+    }
+
     @Override
     public int getWalMaxLagTxnCount() {
         return overrides.getWalMaxLagTxnCount() >= 0 ? overrides.getWalMaxLagTxnCount() : super.getWalMaxLagTxnCount();
@@ -411,6 +416,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isO3QuickSortEnabled();
     }
 
+    @Override
+    public boolean isPostingIndexEnabled() {
+        return overrides.isPostingIndexEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return overrides.getSnapshotRecoveryEnabled() == null ? super.isSnapshotRecoveryEnabled() : overrides.getSnapshotRecoveryEnabled();
@@ -431,6 +441,21 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isParallelGroupByEnabled() != null ? overrides.isParallelGroupByEnabled() : super.isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return overrides.isParallelHashJoinEnabled() != null ? overrides.isParallelHashJoinEnabled() : super.isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return overrides.isParallelLatestByEnabled() != null ? overrides.isParallelLatestByEnabled() : super.isSqlParallelLatestByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return overrides.isParallelSortEnabled() != null ? overrides.isParallelSortEnabled() : super.isSqlParallelSortEnabled();
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return overrides.isWriterMixedIOEnabled() != null ? overrides.isWriterMixedIOEnabled() : super.isWriterMixedIOEnabled();
@@ -143,6 +143,8 @@ public interface ConfigurationOverrides {
 
     long getWalMaxLagSize();
 
+    long getWalMaxLagTime();
+
     int getWalMaxLagTxnCount();
 
     int getWalMaxSegmentFileDescriptorsCache();
@@ -175,6 +177,14 @@ public interface ConfigurationOverrides {
 
     Boolean isParallelGroupByEnabled();
 
+    Boolean isParallelHashJoinEnabled();
+
+    Boolean isParallelLatestByEnabled();
+
+    Boolean isParallelSortEnabled();
+
+    boolean isPostingIndexEnabled();
+
     Boolean isWriterMixedIOEnabled();
 
     boolean mangleTableDirNames();
@@ -257,10 +267,18 @@ public interface ConfigurationOverrides {
 
     void setParallelGroupByEnabled(Boolean parallelGroupByEnabled);
 
+    void setParallelHashJoinEnabled(Boolean parallelHashJoinEnabled);
+
+    void setParallelLatestByEnabled(Boolean parallelLatestByEnabled);
+
+    void setParallelSortEnabled(Boolean parallelSortEnabled);
+
     void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays);
 
     void setPartitionO3SplitThreshold(long value);
 
+    void setPostingIndexEnabled(boolean postingIndexEnabled);
+
     void setRecreateDistressedSequencerAttempts(int recreateDistressedSequencerAttempts);
 
     void setRegistryCompactionThreshold(int value);
@@ -303,6 +321,8 @@ public interface ConfigurationOverrides {
 
     void setWalMaxLagSize(long value);
 
+    void setWalMaxLagTime(long walMaxLagTime);
+
     void setWalMaxLagTxnCount(int walMaxLagTxnCount);
 
     void setWalMaxSegmentFileDescriptorsCache(int value);
@@ -77,8 +77,12 @@ public class Overrides implements ConfigurationOverrides {
     private int pageFrameReduceShardCount = -1;
     private Boolean parallelFilterEnabled = null;
     private Boolean parallelGroupByEnabled = null;
+    private Boolean parallelHashJoinEnabled = null;
+    private Boolean parallelLatestByEnabled = null;
+    private Boolean parallelSortEnabled = null;
     private int parallelImportStatusLogKeepNDays = -1;
     private long partitionO3SplitThreshold;
+    private boolean postingIndexEnabled = false;
     private int recreateDistressedSequencerAttempts = 3;
     private int repeatMigrationsFromVersion = -1;
     private int rndFunctionMemoryMaxPages = -1;
@@ -99,6 +103,7 @@ public class Overrides implements ConfigurationOverrides {
     private long walApplyTableTimeQuota = -1;
     private int walLookAheadTransactionCount = -1;
     private long walMaxLagSize = -1;
+    private long walMaxLagTime = -1;
     private int walMaxLagTxnCount = -1;
     private int walMaxSegmentFileDescriptorsCache = -1;
     private long walPurgeInterval = -1;
@@ -378,6 +383,11 @@ public class Overrides implements ConfigurationOverrides {
         return walMaxLagSize;
     }
 
+    @Override
+    public long getWalMaxLagTime() {
+        return walMaxLagTime;
+    }
+
     @Override
     public int getWalMaxLagTxnCount() {
         return walMaxLagTxnCount;
@@ -458,6 +468,26 @@ public class Overrides implements ConfigurationOverrides {
         return parallelGroupByEnabled;
     }
 
+    @Override
+    public Boolean isParallelHashJoinEnabled() {
+        return parallelHashJoinEnabled;
+    }
+
+    @Override
+    public Boolean isParallelLatestByEnabled() {
+        return parallelLatestByEnabled;
+    }
+
+    @Override
+    public Boolean isParallelSortEnabled() {
+        return parallelSortEnabled;
+    }
+
+    @Override
+    public boolean isPostingIndexEnabled() {
+        return postingIndexEnabled;
+    }
+
     @Override
     public Boolean isWriterMixedIOEnabled() {
         return writerMixedIOEnabled;
@@ -489,6 +519,9 @@ public class Overrides implements ConfigurationOverrides {
         snapshotRecoveryEnabled = null;
         parallelFilterEnabled = null;
         parallelGroupByEnabled = null;
+        parallelHashJoinEnabled = null;
+        parallelLatestByEnabled = null;
+        parallelSortEnabled = null;
         writerMixedIOEnabled = null;
         columnPreTouchEnabled = null;
         writerCommandQueueCapacity = 4;
@@ -508,6 +541,7 @@ public class Overrides implements ConfigurationOverrides {
         ff = null;
         dataAppendPageSize = -1;
         o3QuickSortEnabled = false;
+        postingIndexEnabled = false;
         walSegmentRolloverRowCount = -1;
         mangleTableDirNames = true;
         walPurgeInterval = -1;
@@ -521,6 +555,7 @@ public class Overrides implements ConfigurationOverrides {
         simulateCrashEnabled = false;
         env = null;
         walMaxLagSize = -1;
+        walMaxLagTime = -1;
         groupByAllocatorDefaultChunkSize = -1;
     }
 
@@ -713,6 +748,21 @@ public class Overrides implements ConfigurationOverrides {
         this.parallelGroupByEnabled = parallelGroupByEnabled;
     }
 
+    @Override
+    public void setParallelHashJoinEnabled(Boolean parallelHashJoinEnabled) {
+        this.parallelHashJoinEnabled = parallelHashJoinEnabled;
+    }
+
+    @Override
+    public void setParallelLatestByEnabled(Boolean parallelLatestByEnabled) {
+        this.parallelLatestByEnabled = parallelLatestByEnabled;
+    }
+
+    @Override
+    public void setParallelSortEnabled(Boolean parallelSortEnabled) {
+        this.parallelSortEnabled = parallelSortEnabled;
+    }
+
     @Override
     public void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         this.parallelImportStatusLogKeepNDays = parallelImportStatusLogKeepNDays;
@@ -723,6 +773,11 @@ public class Overrides implements ConfigurationOverrides {
         this.partitionO3SplitThreshold = value;
     }
 
+    @Override
+    public void setPostingIndexEnabled(boolean postingIndexEnabled) {
+        this.postingIndexEnabled = postingIndexEnabled;
+    }
+
     @Override
     public void setRecreateDistressedSequencerAttempts(int recreateDistressedSequencerAttempts) {
         this.recreateDistressedSequencerAttempts = recreateDistressedSequencerAttempts;
@@ -828,6 +883,11 @@ public class Overrides implements ConfigurationOverrides {
         walMaxLagSize = value;
     }
 
+    @Override
+    public void setWalMaxLagTime(long walMaxLagTime) {
+        this.walMaxLagTime = walMaxLagTime;
+    }
+
     public void setWalMaxLagTxnCount(int walMaxLagTxnCount) {
         this.walMaxLagTxnCount = walMaxLagTxnCount;
     }
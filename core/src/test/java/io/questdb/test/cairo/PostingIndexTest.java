@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PostingIndexTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.getConfigurationOverrides().setPostingIndexEnabled(true);
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column s2 symbol index");
+            insert("insert into x (s, s2, ts) select rnd_symbol('a', 'b'), rnd_symbol('p', 'q', null), timestamp_sequence('1970-01-03T22', 1000000) from long_sequence(500)");
+            insert("insert into x (s, s2, ts) values ('a', 'p', '1970-01-04')");
+            try (TableReader reader = getReader("x")) {
+                final int columnIndex = reader.getMetadata().getColumnIndex("s2");
+                // index readers of a partition see column top once the partition is open
+                reader.openPartition(2);
+                Assert.assertTrue(((PostingIndexFwdReader) reader.getBitmapIndexReader(2, columnIndex, BitmapIndexReader.DIR_FORWARD)).isPostingIndexOpen());
+                Assert.assertTrue(((PostingIndexBwdReader) reader.getBitmapIndexReader(2, columnIndex, BitmapIndexReader.DIR_BACKWARD)).isPostingIndexOpen());
+            }
+
+            assertSqlCursors("select * from x where s2::string = 'p'", "select * from x where s2 = 'p'");
+            assertSqlCursors("select * from x where s2::string is null", "select * from x where s2 = null");
+            assertSqlCursors(
+                    "select * from x where s2::string is null and ts > '1970-01-03T21:59'",
+                    "select * from x where s2 = null and ts > '1970-01-03T21:59'"
+            );
+            assertSqlCursors(
+                    "select * from x where s2::string is null order by ts desc",
+                    "select * from x where s2 = null order by ts desc"
+            );
+        });
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        assertMemoryLeak(() -> {
+            assertRoundTrip(new long[]{5});
+            assertRoundTrip(new long[]{10, 11, 12, 13, 14});
+            assertRoundTrip(new long[]{0, 2, 3, 7, 100, 101, 1000, 1000000});
+            assertRoundTrip(new long[]{1, 1L << 40, (1L << 57) + 1, Long.MAX_VALUE});
+            final long[] values = new long[PostingIndexUtils.BLOCK_VALUE_COUNT];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 3L * i * i + i;
+            }
+            assertRoundTrip(values);
+        });
+    }
+
+    @Test
+    public void testFilterResults() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            Assert.assertTrue(postingIndexExists("1970-01-01", "s"));
+            Assert.assertTrue(postingIndexExists("1970-01-02", "s"));
+            // the last partition has no posting index
+            Assert.assertFalse(postingIndexExists("1970-01-03", "s"));
+
+            try (TableReader reader = getReader("x")) {
+                final int columnIndex = reader.getMetadata().getColumnIndex("s");
+                for (int i = 0; i < 3; i++) {
+                    reader.openPartition(i);
+                }
+                Assert.assertTrue(((PostingIndexFwdReader) reader.getBitmapIndexReader(0, columnIndex, BitmapIndexReader.DIR_FORWARD)).isPostingIndexOpen());
+                Assert.assertTrue(((PostingIndexBwdReader) reader.getBitmapIndexReader(1, columnIndex, BitmapIndexReader.DIR_BACKWARD)).isPostingIndexOpen());
+                Assert.assertFalse(((PostingIndexFwdReader) reader.getBitmapIndexReader(2, columnIndex, BitmapIndexReader.DIR_FORWARD)).isPostingIndexOpen());
+            }
+
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+            assertSqlCursors("select * from x where s::string = 'rare'", "select * from x where s = 'rare'");
+            assertSqlCursors("select * from x where s::string in ('b', 'rare')", "select * from x where s in ('b', 'rare')");
+            assertSqlCursors("select * from x where s::string = 'c' order by ts desc", "select * from x where s = 'c' order by ts desc");
+            assertSqlCursors(
+                    "select * from x where s::string = 'a' and ts between '1970-01-01T10:03' and '1970-01-02T03:17:45'",
+                    "select * from x where s = 'a' and ts between '1970-01-01T10:03' and '1970-01-02T03:17:45'"
+            );
+            assertSqlCursors(
+                    "select * from x where s::string = 'b' and ts between '1970-01-01T10:03' and '1970-01-02T03:17:45' order by ts desc",
+                    "select * from x where s = 'b' and ts between '1970-01-01T10:03' and '1970-01-02T03:17:45' order by ts desc"
+            );
+            assertSql("count\n0\n", "select count() from x where s = 'none'");
+        });
+    }
+
+    @Test
+    public void testMappingKeptWhileBitmapIndexUnchanged() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final AtomicInteger mmapCount = new AtomicInteger();
+            final FilesFacade ff = new TestFilesFacadeImpl() {
+                @Override
+                public long mmap(int fd, long len, long offset, int flags, int memoryTag) {
+                    mmapCount.incrementAndGet();
+                    return super.mmap(fd, len, offset, flags, memoryTag);
+                }
+            };
+            try (
+                    Path path = partitionPath("1970-01-02");
+                    BitmapIndexFwdReader bitmapIndex = new BitmapIndexFwdReader(configuration, path, "s", -1, 0);
+                    PostingIndex postingIndex = new PostingIndex()
+            ) {
+                for (int i = 0; i < 3; i++) {
+                    Assert.assertTrue(postingIndex.of(ff, path, "s", -1, bitmapIndex));
+                }
+                Assert.assertEquals(1, mmapCount.get());
+                Assert.assertTrue(postingIndex.getKeyCount() > 0);
+
+                // a different file is mapped
+                path.trimTo(path.size() - "1970-01-02".length()).concat("1970-01-01");
+                bitmapIndex.of(configuration, path, "s", -1, 0);
+                Assert.assertTrue(postingIndex.of(ff, path, "s", -1, bitmapIndex));
+                Assert.assertEquals(2, mmapCount.get());
+            }
+        });
+    }
+
+    @Test
+    public void testReindex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (Path path = partitionPath("1970-01-01")) {
+                Assert.assertTrue(configuration.getFilesFacade().removeQuiet(PostingIndexUtils.postingFileName(path, "s", -1)));
+            }
+            Assert.assertFalse(postingIndexExists("1970-01-01", "s"));
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            ddl("reindex table x column s lock exclusive");
+            Assert.assertTrue(postingIndexExists("1970-01-01", "s"));
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+        });
+    }
+
+    @Test
+    public void testStalePostingsIgnored() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // postings of the last partition go stale on the next append
+            try (
+                    Path path = partitionPath("1970-01-03");
+                    PostingIndexWriter writer = new PostingIndexWriter(configuration)
+            ) {
+                writer.write(path, "s", -1, 0);
+            }
+            try (TableReader reader = getReader("x")) {
+                final int columnIndex = reader.getMetadata().getColumnIndex("s");
+                reader.openPartition(2);
+                final PostingIndexFwdReader indexReader = (PostingIndexFwdReader) reader.getBitmapIndexReader(2, columnIndex, BitmapIndexReader.DIR_FORWARD);
+                Assert.assertTrue(indexReader.isPostingIndexOpen());
+                final int key = reader.getSymbolMapReader(columnIndex).keyOf("rare") + 1;
+                final RowCursor cursor = indexReader.getCursor(true, key, 0, Long.MAX_VALUE);
+                int count = 0;
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    count++;
+                }
+                Assert.assertTrue(count > 0);
+            }
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+
+            insert("insert into x (s, ts) values ('a', '1970-01-03T23')");
+            try (TableReader reader = getReader("x")) {
+                final int columnIndex = reader.getMetadata().getColumnIndex("s");
+                reader.openPartition(2);
+                Assert.assertFalse(((PostingIndexFwdReader) reader.getBitmapIndexReader(2, columnIndex, BitmapIndexReader.DIR_FORWARD)).isPostingIndexOpen());
+            }
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+            assertSqlCursors("select * from x where s::string = 'a' order by ts desc", "select * from x where s = 'a' order by ts desc");
+
+            // O3 insert into an older partition rewrites its postings
+            insert("insert into x (s, ts) values ('a', '1970-01-01T12:00:00.5')");
+            assertSqlCursors("select * from x where s::string = 'a'", "select * from x where s = 'a'");
+            assertSql("count\n1\n", "select count() from x where s = 'a' and ts = '1970-01-01T12:00:00.5'");
+        });
+    }
+
+    private static void assertRoundTrip(long[] expected) {
+        try (MemoryCARW mem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+            PostingIndexUtils.encodeBlock(mem, expected, expected.length);
+            // decoder reads whole words, the file always has skip table after the block
+            mem.putLong(0);
+            final long[] actual = new long[PostingIndexUtils.BLOCK_VALUE_COUNT];
+            PostingIndexUtils.decodeBlock(mem.getAddress(), expected[0], expected.length, actual);
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(expected[i], actual[i]);
+            }
+        }
+    }
+
+    private static void createTable() throws Exception {
+        // 'rare' rows are far apart, so that their deltas take more bits than the others
+        ddl("create table x as (" +
+                "select case when x % 997 = 0 then 'rare' else rnd_symbol('a', 'b', 'c', null) end::symbol s, rnd_int() i, timestamp_sequence(0, 5000000) ts" +
+                " from long_sequence(50000)" +
+                "), index(s) timestamp(ts) partition by day");
+    }
+
+    private static Path partitionPath(String partition) {
+        return new Path().of(configuration.getRoot()).concat(engine.verifyTableName("x")).concat(partition);
+    }
+
+    private static boolean postingIndexExists(String partition, String columnName) {
+        try (Path path = partitionPath(partition)) {
+            return configuration.getFilesFacade().exists(PostingIndexUtils.postingFileName(path, columnName, -1));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.metrics.MetricsRegistryImpl;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymbolValueCacheTest extends AbstractCairoTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntry() {
+        final SymbolCacheMetrics cacheMetrics = new SymbolCacheMetrics(new MetricsRegistryImpl());
+        // enough for two columns with a single value each
+        final SymbolValueCache cache = new SymbolValueCache(20_000, cacheMetrics);
+        final TableToken tableToken = new TableToken("x", "x~1", 1, false, false, false);
+
+        final SymbolValueCache.Entry a = cache.acquire(tableToken, "a", -1, 0);
+        final SymbolValueCache.Entry b = cache.acquire(tableToken, "b", -1, 0);
+        a.put(0, "foo");
+        b.put(0, "bar");
+        cache.release(a);
+        cache.release(b);
+
+        // a is acquired again, so b becomes the least recently used entry
+        Assert.assertSame(a, cache.acquire(tableToken, "a", -1, 0));
+        cache.release(a);
+
+        final SymbolValueCache.Entry c = cache.acquire(tableToken, "c", -1, 0);
+        c.put(0, "baz");
+        Assert.assertEquals(1, cacheMetrics.getEvictionCount());
+        Assert.assertEquals(2, cache.getEntryCount());
+
+        final SymbolValueCache.Entry a2 = cache.acquire(tableToken, "a", -1, 0);
+        Assert.assertSame(a, a2);
+        Assert.assertEquals("foo", a2.get(0));
+        final SymbolValueCache.Entry b2 = cache.acquire(tableToken, "b", -1, 0);
+        Assert.assertNotSame(b, b2);
+        Assert.assertNull(b2.get(0));
+
+        cache.release(a2);
+        cache.release(b2);
+        cache.release(c);
+        Assert.assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testEvictsUnreferencedEntriesFirst() {
+        final SymbolCacheMetrics cacheMetrics = new SymbolCacheMetrics(new MetricsRegistryImpl());
+        // enough for two columns with a single value each
+        final SymbolValueCache cache = new SymbolValueCache(20_000, cacheMetrics);
+        final TableToken tableToken = new TableToken("x", "x~1", 1, false, false, false);
+
+        final SymbolValueCache.Entry a = cache.acquire(tableToken, "a", -1, 0);
+        final SymbolValueCache.Entry b = cache.acquire(tableToken, "b", -1, 0);
+        a.put(0, "foo");
+        b.put(0, "bar");
+        Assert.assertEquals("foo", a.get(0));
+        Assert.assertEquals("bar", b.get(0));
+
+        // b is kept in the cache after release, until memory is needed
+        cache.release(b);
+        Assert.assertEquals(2, cache.getEntryCount());
+        Assert.assertSame(b, cache.acquire(tableToken, "b", -1, 0));
+        cache.release(b);
+
+        // a was used less recently, but b is not referenced by any reader
+        final SymbolValueCache.Entry c = cache.acquire(tableToken, "c", -1, 0);
+        c.put(0, "baz");
+        Assert.assertEquals("foo", a.get(0));
+        Assert.assertEquals("baz", c.get(0));
+        Assert.assertEquals(2, cache.getEntryCount());
+        Assert.assertEquals(1, cacheMetrics.getEvictionCount());
+        Assert.assertEquals(3, cacheMetrics.getMissCount());
+
+        // referenced entries are evicted when there is nothing else to evict
+        final SymbolValueCache.Entry d = cache.acquire(tableToken, "d", -1, 0);
+        d.put(0, "qux");
+        Assert.assertNull(a.get(0));
+        Assert.assertEquals("baz", c.get(0));
+        Assert.assertEquals("qux", d.get(0));
+        Assert.assertEquals(2, cacheMetrics.getEvictionCount());
+
+        cache.release(a);
+        cache.release(c);
+        cache.release(d);
+        Assert.assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testReadersShareValues() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (s symbol cache, ts timestamp) timestamp(ts) partition by day");
+            insert("insert into x select rnd_symbol('a','b','c'), timestamp_sequence(0, 1000000) from long_sequence(100)");
+
+            final SymbolValueCache cache = engine.getSymbolValueCache();
+            Assert.assertNotNull(cache);
+            final long misses = metrics.symbolCache().getMissCount();
+            try (
+                    TableReader reader1 = getReader("x");
+                    TableReader reader2 = getReader("x")
+            ) {
+                Assert.assertNotSame(reader1, reader2);
+                final SymbolMapReader symbolMapReader1 = reader1.getSymbolMapReader(0);
+                final SymbolMapReader symbolMapReader2 = reader2.getSymbolMapReader(0);
+                Assert.assertEquals(3, symbolMapReader1.getSymbolCount());
+                for (int i = 0; i < 3; i++) {
+                    Assert.assertNotNull(symbolMapReader1.valueOf(i));
+                }
+                // values decoded by one reader are served to the other
+                for (int i = 0; i < 3; i++) {
+                    Assert.assertSame(symbolMapReader1.valueOf(i), symbolMapReader2.valueOf(i));
+                }
+                Assert.assertNull(symbolMapReader2.valueOf(SymbolTable.VALUE_IS_NULL));
+            }
+            Assert.assertEquals(misses + 3, metrics.symbolCache().getMissCount());
+        });
+    }
+
+    @Test
+    public void testTruncateDoesNotServeStaleValues() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (s symbol cache, ts timestamp) timestamp(ts) partition by day");
+            insert("insert into x values ('a', 0), ('b', 1)");
+            assertSql("s\na\nb\n", "select s from x");
+
+            ddl("truncate table x");
+            insert("insert into x values ('c', 0), ('d', 1)");
+            assertSql("s\nc\nd\n", "select s from x");
+
+            // values are cached under the new truncate version even when no reader remains open
+            engine.releaseAllReaders();
+            ddl("truncate table x");
+            insert("insert into x values ('e', 0), ('f', 1)");
+            assertSql("s\ne\nf\n", "select s from x");
+        });
+    }
+}
@@ -159,6 +159,11 @@ public class TableModel implements TableStructure, Closeable {
         return timestampIndex;
     }
 
+    @Override
+    public long getTtl() {
+        return 0;
+    }
+
     public TableModel indexed(boolean indexFlag, int indexBlockCapacity) {
         int pos = columnBits.size() - 1;
         assert pos > 0;
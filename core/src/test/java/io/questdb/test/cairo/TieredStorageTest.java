@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TieredStorageTest extends AbstractCairoTest {
+
+    @Test
+    public void testDropRemovesTieredCopies() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tieringRoot = temp.newFolder().getAbsolutePath();
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 0));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)) timestamp(ts) partition by day", ctx);
+                final TableToken tableToken = engine.verifyTableName("x");
+                Assert.assertEquals(3, countPartitionDirs(tieringRoot, tableToken));
+
+                engine.ddl("alter table x drop partition list '1970-01-01'", ctx);
+                assertSql(engine, ctx, "select min(ts), count() from x", "min\tcount\n1970-01-02T00:00:00.000000Z\t96\n");
+                Assert.assertEquals(2, countPartitionDirs(tieringRoot, tableToken));
+
+                engine.drop("drop table x", ctx, null);
+                try (Path path = new Path()) {
+                    Assert.assertFalse(configuration.getFilesFacade().exists(path.of(tieringRoot).concat(tableToken).$()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMovesColdPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tieringRoot = temp.newFolder().getAbsolutePath();
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 0));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)) timestamp(ts) partition by day", ctx);
+                // partitions older than a day, counting from the latest row, are moved
+                assertSql(
+                        engine,
+                        ctx,
+                        "select name, numRows, readOnly from table_partitions('x')",
+                        "name\tnumRows\treadOnly\n" +
+                                "1970-01-01\t24\ttrue\n" +
+                                "1970-01-02\t24\ttrue\n" +
+                                "1970-01-03\t24\ttrue\n" +
+                                "1970-01-04\t24\tfalse\n" +
+                                "1970-01-05\t24\tfalse\n"
+                );
+                assertSql(engine, ctx, "select min(ts), count(), sum(x) from x", "min\tcount\tsum\n1970-01-01T00:00:00.000000Z\t120\t7260\n");
+
+                final TableToken tableToken = engine.verifyTableName("x");
+                Assert.assertEquals(3, countPartitionDirs(tieringRoot, tableToken));
+                try (TxReader txReader = new TxReader(configuration.getFilesFacade()); Path path = new Path()) {
+                    txReader.ofRO(path.of(root).concat(tableToken).concat(TableUtils.TXN_FILE_NAME).$(), PartitionBy.DAY);
+                    txReader.unsafeLoadAll();
+                    for (int i = 0; i < 5; i++) {
+                        Assert.assertEquals(i < 3, txReader.isPartitionTiered(i));
+                        path.of(root).concat(tableToken);
+                        TableUtils.setPathForPartition(path, PartitionBy.DAY, txReader.getPartitionTimestampByIndex(i), txReader.getPartitionNameTxn(i));
+                        Assert.assertEquals(i < 3, configuration.getFilesFacade().isSoftLink(path.$()));
+                    }
+                }
+
+                // the next day moves one more partition
+                engine.insert("insert into x values (121, '1970-01-06T00:30')", ctx);
+                Assert.assertEquals(4, countPartitionDirs(tieringRoot, tableToken));
+                assertSql(engine, ctx, "select count(), sum(x) from x where ts in '1970-01-04'", "count\tsum\n24\t2028\n");
+
+                // rows are not written to tiered partitions
+                engine.insert("insert into x values (0, '1970-01-02T12:30')", ctx);
+                assertSql(engine, ctx, "select count() from x", "count\n121\n");
+            }
+        });
+    }
+
+    @Test
+    public void testReadCache() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tieringRoot = temp.newFolder().getAbsolutePath();
+            long partitionSize;
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 0));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)) timestamp(ts) partition by day", ctx);
+                Assert.assertNull(engine.getTieredPartitionCache());
+                try (Path path = new Path()) {
+                    path.of(tieringRoot).concat(engine.verifyTableName("x")).concat("1970-01-01.1").$();
+                    partitionSize = configuration.getFilesFacade().getDirSize(path);
+                }
+                Assert.assertTrue(partitionSize > 0);
+            }
+
+            // cache fits two partitions
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 5 * partitionSize / 2));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                final TieredPartitionCache cache = engine.getTieredPartitionCache();
+                Assert.assertNotNull(cache);
+                Assert.assertEquals(0, cache.getEntryCount());
+
+                assertSql(engine, ctx, "select count(), sum(x) from x where ts in '1970-01-01'", "count\tsum\n24\t300\n");
+                Assert.assertEquals(1, cache.getEntryCount());
+                Assert.assertEquals(partitionSize, cache.getSize());
+
+                engine.releaseAllReaders();
+                assertSql(engine, ctx, "select count(), sum(x) from x", "count\tsum\n120\t7260\n");
+                Assert.assertEquals(2, cache.getEntryCount());
+                Assert.assertEquals(2 * partitionSize, cache.getSize());
+
+                // evicted copies are read again
+                engine.releaseAllReaders();
+                assertSql(engine, ctx, "select count(), sum(x) from x", "count\tsum\n120\t7260\n");
+                Assert.assertEquals(2, cache.getEntryCount());
+            }
+        });
+    }
+
+    @Test
+    public void testTtlDropsTieredPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tieringRoot = temp.newFolder().getAbsolutePath();
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 0));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x (x long, ts timestamp) timestamp(ts) partition by day with ttl = 3d", ctx);
+                engine.insert("insert into x select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)", ctx);
+                final TableToken tableToken = engine.verifyTableName("x");
+                assertSql(engine, ctx, "select min(ts), count() from x", "min\tcount\n1970-01-02T00:00:00.000000Z\t96\n");
+                Assert.assertEquals(2, countPartitionDirs(tieringRoot, tableToken));
+
+                engine.insert("insert into x values (121, '1970-01-06T12:00')", ctx);
+                assertSql(engine, ctx, "select min(ts), count() from x", "min\tcount\n1970-01-03T00:00:00.000000Z\t73\n");
+                Assert.assertEquals(2, countPartitionDirs(tieringRoot, tableToken));
+            }
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tieringRoot = temp.newFolder().getAbsolutePath();
+            // wal tables need the table name registry lock held by the test engine
+            AbstractCairoTest.engine.clear();
+            AbstractCairoTest.engine.closeNameRegistry();
+            try (
+                    CairoEngine engine = new CairoEngine(newConfiguration(tieringRoot, 0));
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x (x long, ts timestamp) timestamp(ts) partition by day wal", ctx);
+                engine.insert("insert into x select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)", ctx);
+                TestUtils.drainWalQueue(engine);
+
+                final TableToken tableToken = engine.verifyTableName("x");
+                Assert.assertEquals(3, countPartitionDirs(tieringRoot, tableToken));
+                assertSql(engine, ctx, "select min(ts), count(), sum(x) from x", "min\tcount\tsum\n1970-01-01T00:00:00.000000Z\t120\t7260\n");
+                Assert.assertFalse(engine.getTableSequencerAPI().isSuspended(tableToken));
+            } finally {
+                AbstractCairoTest.engine.reloadTableNames();
+            }
+        });
+    }
+
+    private static void assertSql(CairoEngine engine, SqlExecutionContext ctx, String sql, String expected) throws Exception {
+        TestUtils.assertSql(engine, ctx, sql, new StringSink(), expected);
+    }
+
+    private static int countPartitionDirs(String tieringRoot, TableToken tableToken) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        int count = 0;
+        try (Path path = new Path()) {
+            final long pFind = ff.findFirst(path.of(tieringRoot).concat(tableToken).$());
+            if (pFind > 0) {
+                try {
+                    do {
+                        if (ff.findType(pFind) == Files.DT_DIR && Files.notDots(ff.findName(pFind))) {
+                            count++;
+                        }
+                    } while (ff.findNext(pFind) > 0);
+                } finally {
+                    ff.findClose(pFind);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static CairoConfiguration newConfiguration(String tieringRoot, long cacheSize) {
+        return new DefaultTestCairoConfiguration(root) {
+            @Override
+            public long getPartitionTieringAge() {
+                return Timestamps.DAY_MICROS;
+            }
+
+            @Override
+            public long getPartitionTieringCacheSize() {
+                return cacheSize;
+            }
+
+            @Override
+            public CharSequence getPartitionTieringRoot() {
+                return tieringRoot;
+            }
+        };
+    }
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractCairoTest {
+
+    @Test
+    public void testExcludes() {
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_EQ, 10, 20, 9));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_EQ, 10, 20, 10));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_EQ, 10, 20, 20));
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_EQ, 10, 20, 21));
+
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_LT, 10, 20, 10));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_LT, 10, 20, 11));
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_LE, 10, 20, 9));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_LE, 10, 20, 10));
+
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_GT, 10, 20, 20));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_GT, 10, 20, 19));
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_GE, 10, 20, 21));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_GE, 10, 20, 20));
+
+        Assert.assertTrue(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_LT, 1.5, 2.5, 1.5));
+        Assert.assertFalse(ZoneMapDataFrameCursorFactory.excludes(ZoneMapDataFrameCursorFactory.OP_GE, 1.5, 2.5, 2.5));
+    }
+
+    @Test
+    public void testFilterResultsAfterO3AndUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+
+            final String query = "select i, l, d, ts from x where l > 15 and 25 >= i and d < 30.0";
+            final String expected = "i\tl\td\tts\n" +
+                    "16\t16\t16.0\t1970-01-01T16:00:00.000000Z\n" +
+                    "17\t17\t17.0\t1970-01-01T17:00:00.000000Z\n" +
+                    "18\t18\t18.0\t1970-01-01T18:00:00.000000Z\n" +
+                    "19\t19\t19.0\t1970-01-01T19:00:00.000000Z\n" +
+                    "20\t20\t20.0\t1970-01-01T20:00:00.000000Z\n" +
+                    "21\t21\t21.0\t1970-01-01T21:00:00.000000Z\n" +
+                    "22\t22\t22.0\t1970-01-01T22:00:00.000000Z\n" +
+                    "23\t23\t23.0\t1970-01-01T23:00:00.000000Z\n" +
+                    "24\t24\t24.0\t1970-01-02T00:00:00.000000Z\n" +
+                    "25\t25\t25.0\t1970-01-02T01:00:00.000000Z\n";
+            assertSql(expected, query);
+
+            // O3 insert rewrites zone maps of the first partition
+            insert("insert into x values (1000, 1000, 1000.0, '1970-01-01T12:30')");
+            assertSql("i\tl\td\tts\n" +
+                    "1000\t1000\t1000.0\t1970-01-01T12:30:00.000000Z\n", "select i, l, d, ts from x where l >= 1000");
+            assertSql("i\tl\td\tts\n" +
+                    "1000\t1000\t1000.0\t1970-01-01T12:30:00.000000Z\n", "select i, l, d, ts from x where -1000 >= -l");
+
+            // update creates new column versions, which have no zone maps yet
+            update("update x set l = -l where ts < '1970-01-02'");
+            assertSql("count\n24\n", "select count() from x where l < 0");
+            assertSql("count\n1\n", "select count() from x where l = -1000");
+            assertSql("count\n0\n", "select count() from x where l >= 1000");
+        });
+    }
+
+    @Test
+    public void testNullsAndColumnTops() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column j int");
+            insert("insert into x (i, l, d, ts, j) values (100, 100, 100.0, '1970-01-03T01', 7), (101, 101, null, '1970-01-03T02', null)");
+            insert("insert into x (i, l, d, ts, j) values (102, 102, 102.0, '1970-01-04T01', 8)");
+
+            assertSql("i\tj\n100\t7\n", "select i, j from x where j < 8");
+            assertSql("i\tj\n102\t8\n", "select i, j from x where j > 7");
+            assertSql("i\td\n", "select i, d from x where d > 1000.0");
+            assertSql("count\n1\n", "select count() from x where d = null");
+        });
+    }
+
+    @Test
+    public void testPrunedScanSizeAndSkipTo() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final TableToken tableToken = engine.verifyTableName("x");
+            final GenericRecordMetadata metadata;
+            try (TableReader reader = engine.getReader(tableToken)) {
+                metadata = GenericRecordMetadata.copyOf(reader.getMetadata());
+            }
+            final IntList columnIndexes = new IntList();
+            columnIndexes.add(metadata.getColumnIndex("l"));
+            final IntList ops = new IntList();
+            ops.add(ZoneMapDataFrameCursorFactory.OP_GT);
+            final LongList values = new LongList();
+            values.add(30);
+
+            // "l > 30" prunes the first partition, the second and the last ones remain
+            try (ZoneMapDataFrameCursorFactory factory = new ZoneMapDataFrameCursorFactory(
+                    configuration,
+                    new FullFwdDataFrameCursorFactory(tableToken, TableUtils.ANY_TABLE_VERSION, metadata),
+                    columnIndexes,
+                    ops,
+                    values
+            )) {
+                final RecordCursor.Counter counter = new RecordCursor.Counter();
+                try (DataFrameCursor cursor = factory.getCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC)) {
+                    Assert.assertTrue(cursor.supportsRandomAccess());
+                    cursor.calculateSize(counter);
+                    Assert.assertEquals(48, counter.get());
+
+                    cursor.toTop();
+                    counter.set(30);
+                    DataFrame frame = cursor.skipTo(counter);
+                    Assert.assertNotNull(frame);
+                    Assert.assertEquals(0, counter.get());
+                    Assert.assertEquals(2, frame.getPartitionIndex());
+                    Assert.assertEquals(6, frame.getRowLo());
+                    Assert.assertEquals(24, frame.getRowHi());
+                    Assert.assertNull(cursor.next());
+
+                    cursor.toTop();
+                    counter.set(100);
+                    Assert.assertNull(cursor.skipTo(counter));
+                    Assert.assertEquals(52, counter.get());
+                }
+
+                try (DataFrameCursor cursor = factory.getCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_DESC)) {
+                    counter.set(30);
+                    DataFrame frame = cursor.skipTo(counter);
+                    Assert.assertNotNull(frame);
+                    Assert.assertEquals(0, counter.get());
+                    Assert.assertEquals(1, frame.getPartitionIndex());
+                    Assert.assertEquals(0, frame.getRowLo());
+                    Assert.assertEquals(18, frame.getRowHi());
+                    Assert.assertNull(cursor.next());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSkipsPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("count\n3\n", "select count() from x where l > 44 and l < 48");
+
+            // zone maps are trusted by the scan, so a tampered zone map hides the rows
+            final TableToken tableToken = engine.verifyTableName("x");
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("1970-01-02").concat("l").put(TableUtils.FILE_SUFFIX_ZM).$();
+                final int fd = TableUtils.openRW(ff, path, LOG, configuration.getWriterFileOpenOpts());
+                final long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    // max value of the partition
+                    Unsafe.getUnsafe().putLong(buf, 40);
+                    Assert.assertEquals(Long.BYTES, ff.write(fd, buf, Long.BYTES, 32));
+                } finally {
+                    Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                    ff.close(fd);
+                }
+            }
+            assertSql("count\n0\n", "select count() from x where l > 44 and l < 48");
+            // other columns and the unfiltered scan still read the partition
+            assertSql("count\n3\n", "select count() from x where i > 44 and i < 48");
+            assertSql("count\n72\n", "select count() from x");
+        });
+    }
+
+    @Test
+    public void testZoneMapsWritten() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final TableToken tableToken = engine.verifyTableName("x");
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path(); ZoneMap zoneMap = new ZoneMap()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("1970-01-01");
+                Assert.assertTrue(zoneMap.read(ff, path, "l", -1, 0, 24));
+                Assert.assertEquals(0, zoneMap.getMinLong());
+                Assert.assertEquals(23, zoneMap.getMaxLong());
+                Assert.assertEquals(0, zoneMap.getNullCount());
+                Assert.assertTrue(zoneMap.read(ff, path, "d", -1, 0, 24));
+                Assert.assertEquals(0.0, zoneMap.getMinDouble(), 0.0);
+                Assert.assertEquals(23.0, zoneMap.getMaxDouble(), 0.0);
+                // row count mismatch
+                Assert.assertFalse(zoneMap.read(ff, path, "l", -1, 0, 25));
+                // no zone maps for other column types
+                Assert.assertFalse(zoneMap.read(ff, path, "ts", -1, 0, 24));
+
+                // zone maps of the last partition are kept in memory until writer is closed
+                path.of(configuration.getRoot()).concat(tableToken).concat("1970-01-03");
+                Assert.assertFalse(zoneMap.read(ff, path, "l", -1, 0, 24));
+                engine.releaseAllWriters();
+                Assert.assertTrue(zoneMap.read(ff, path, "l", -1, 0, 24));
+                Assert.assertEquals(48, zoneMap.getMinLong());
+                Assert.assertEquals(71, zoneMap.getMaxLong());
+            }
+        });
+    }
+
+    @Test
+    public void testZoneMapsUpdatedWithAppendedRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column j int");
+            insert("insert into x (i, l, d, ts, j) values (-5, 100, null, '1970-01-03T23:30', null)");
+            insert("insert into x (i, l, d, ts, j) values (200, null, -1.5, '1970-01-03T23:40', 9)");
+            // zone maps are written when the partition is no longer the last one
+            insert("insert into x (i, l, d, ts, j) values (300, 0, 0.0, '1970-01-04T00:10', 0)");
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path(); ZoneMap zoneMap = new ZoneMap()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("1970-01-03");
+                Assert.assertTrue(zoneMap.read(ff, path, "i", -1, 0, 26));
+                Assert.assertEquals(-5, zoneMap.getMinLong());
+                Assert.assertEquals(200, zoneMap.getMaxLong());
+                Assert.assertEquals(0, zoneMap.getNullCount());
+                Assert.assertTrue(zoneMap.read(ff, path, "l", -1, 0, 26));
+                Assert.assertEquals(48, zoneMap.getMinLong());
+                Assert.assertEquals(100, zoneMap.getMaxLong());
+                Assert.assertEquals(1, zoneMap.getNullCount());
+                Assert.assertTrue(zoneMap.read(ff, path, "d", -1, 0, 26));
+                Assert.assertEquals(-1.5, zoneMap.getMinDouble(), 0.0);
+                Assert.assertEquals(71.0, zoneMap.getMaxDouble(), 0.0);
+                Assert.assertEquals(1, zoneMap.getNullCount());
+            }
+
+            assertSql("i\tl\td\tts\n" +
+                    "-5\t100\tNaN\t1970-01-03T23:30:00.000000Z\n", "select i, l, d, ts from x where l > 71");
+            assertSql("i\tj\n200\t9\n", "select i, j from x where j > 8");
+        });
+    }
+
+    private static void createTable() throws Exception {
+        ddl("create table x as (" +
+                "select x::int - 1 i, x - 1 l, (x - 1)::double d, timestamp_sequence(0, 3600000000) ts from long_sequence(72)" +
+                ") timestamp(ts) partition by day");
+    }
+}
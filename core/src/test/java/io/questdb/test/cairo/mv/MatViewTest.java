@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.mv;
+
+import io.questdb.cairo.mv.MatViewRefreshJob;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewTest extends AbstractCairoTest {
+
+    @Test
+    public void testCreateMatViewErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base (ts timestamp, sym symbol, price double) timestamp(ts) partition by day wal");
+            ddl("create table base_bypass (ts timestamp, price double) timestamp(ts) partition by day bypass wal");
+            ddl("create table other (ts timestamp, sym symbol) timestamp(ts) partition by day wal");
+
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base)",
+                    31,
+                    "materialized view query must be SAMPLE BY"
+            );
+            assertException(
+                    "create materialized view v as (select b.ts, max(price) from base b join other o on (sym) sample by 1h align to calendar)",
+                    31,
+                    "must select from a single table"
+            );
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base sample by 1h fill(null) align to calendar)",
+                    31,
+                    "materialized view query must be SAMPLE BY"
+            );
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base sample by 1h)",
+                    73,
+                    "aligned to calendar without time zone and offset"
+            );
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base sample by 1h align to calendar with offset '00:15')",
+                    73,
+                    "aligned to calendar without time zone and offset"
+            );
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base_bypass sample by 1h align to calendar)",
+                    25,
+                    "base table must be a WAL table"
+            );
+            assertException(
+                    "create materialized view v as (select ts, max(price) from base sample by 1h align to calendar) partition by none",
+                    108,
+                    "'HOUR', 'DAY', 'MONTH' or 'YEAR' expected"
+            );
+            assertException(
+                    "create materialized view v as (select ts, sym::string s, max(price) from base sample by 1h align to calendar)",
+                    0,
+                    "key column can only be fixed size column"
+            );
+            Assert.assertNull(engine.getTableTokenIfExists("v"));
+        });
+    }
+
+    @Test
+    public void testMatViewOverAliasedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base (ts timestamp, sym symbol, price double) timestamp(ts) partition by day wal");
+            ddl(
+                    "create materialized view v as (" +
+                            "select b.ts, b.sym, sum(b.price) total from \"base\" b where b.price > 0 sample by 1d align to calendar" +
+                            ")"
+            );
+            drainWalQueue();
+
+            insert("insert into base values ('2024-01-01T00:10', 'a', 1.0), ('2024-01-02T00:10', 'a', -1.0), ('2024-01-02T01:10', 'a', 2.0)");
+            drainWalQueue();
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                Assert.assertTrue(refreshJob.run(0));
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tsym\ttotal\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t1.0\n" +
+                            "2024-01-02T00:00:00.000000Z\ta\t2.0\n",
+                    "v"
+            );
+        });
+    }
+
+    @Test
+    public void testMatViewRefreshedAfterReload() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base (ts timestamp, sym symbol, price double) timestamp(ts) partition by day wal");
+            insert("insert into base values ('2024-01-01T00:10', 'a', 1.0), ('2024-01-01T01:10', 'b', 2.0)");
+            drainWalQueue();
+
+            ddl("create materialized view v as (select ts, sym, sum(price) total from base sample by 1h align to calendar)");
+            drainWalQueue();
+
+            // reload, as on restart, loses the timestamp range of the applied transaction
+            insert("insert into base values ('2024-01-01T00:20', 'a', 10.0)");
+            drainWalQueue();
+            engine.reloadTableNames();
+
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                Assert.assertTrue(refreshJob.run(0));
+                Assert.assertFalse(refreshJob.run(0));
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tsym\ttotal\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t11.0\n" +
+                            "2024-01-01T01:00:00.000000Z\tb\t2.0\n",
+                    "v"
+            );
+        });
+    }
+
+    @Test
+    public void testMatViewRefreshesTouchedBucketsOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base (ts timestamp, sym symbol, price double) timestamp(ts) partition by day wal");
+            insert(
+                    "insert into base values " +
+                            "('2024-01-01T00:10', 'a', 1.0), " +
+                            "('2024-01-01T00:20', 'b', 2.0), " +
+                            "('2024-01-01T01:10', 'a', 3.0), " +
+                            "('2024-01-01T02:10', 'a', 4.0)"
+            );
+            drainWalQueue();
+
+            ddl(
+                    "create materialized view v as (" +
+                            "select ts, sym, max(price) max_price, count() cnt from base sample by 1h align to calendar" +
+                            ") partition by day"
+            );
+            drainWalQueue();
+            assertSql(
+                    "ts\tsym\tmax_price\tcnt\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t1.0\t1\n" +
+                            "2024-01-01T00:00:00.000000Z\tb\t2.0\t1\n" +
+                            "2024-01-01T01:00:00.000000Z\ta\t3.0\t1\n" +
+                            "2024-01-01T02:00:00.000000Z\ta\t4.0\t1\n",
+                    "v"
+            );
+
+            // the view is up-to-date, nothing to refresh
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                Assert.assertFalse(refreshJob.run(0));
+            }
+
+            // mark a bucket the next refresh must not touch
+            insert("insert into v values ('2024-01-01T02:00', 'a', -1.0, -1)");
+            drainWalQueue();
+
+            insert("insert into base values ('2024-01-01T00:30', 'a', 5.0), ('2024-01-01T01:40', 'b', 6.0)");
+            drainWalQueue();
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                Assert.assertTrue(refreshJob.run(0));
+                Assert.assertFalse(refreshJob.run(0));
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tsym\tmax_price\tcnt\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t5.0\t2\n" +
+                            "2024-01-01T00:00:00.000000Z\tb\t2.0\t1\n" +
+                            "2024-01-01T01:00:00.000000Z\ta\t3.0\t1\n" +
+                            "2024-01-01T01:00:00.000000Z\tb\t6.0\t1\n" +
+                            "2024-01-01T02:00:00.000000Z\ta\t-1.0\t-1\n",
+                    "v"
+            );
+        });
+    }
+
+    @Test
+    public void testMatViewSurvivesDrop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base (ts timestamp, price double) timestamp(ts) partition by day wal");
+            ddl("create materialized view v as (select ts, max(price) max_price from base sample by 1d align to calendar)");
+            drainWalQueue();
+            drop("drop table v");
+
+            insert("insert into base values ('2024-01-01T00:10', 1.0)");
+            drainWalQueue();
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                Assert.assertFalse(refreshJob.run(0));
+            }
+            assertSql("count\n0\n", "select count() from tables() where table_name = 'v'");
+        });
+    }
+}
@@ -30,9 +30,11 @@ import io.questdb.cairo.TableToken;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
 import io.questdb.cairo.wal.DefaultWalListener;
 import io.questdb.cairo.wal.WalListener;
 import io.questdb.cairo.wal.WalWriter;
+import io.questdb.std.Numbers;
 import io.questdb.std.str.Path;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.TableModel;
@@ -44,6 +46,7 @@ import org.junit.Test;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class WalListenerTest extends AbstractCairoTest {
@@ -70,6 +73,96 @@ public class WalListenerTest extends AbstractCairoTest {
         AbstractCairoTest.tearDownStatic();
     }
 
+    @Test
+    public void testDataTxnAppliedAfterLagIsCommitted() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableToken tableToken = createTable(testName.getMethodName());
+            Assert.assertEquals(WalListenerEventType.TABLE_CREATED, listener.events.remove().type);
+
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(1_000);
+                row.putByte(0, (byte) 1);
+                row.append();
+                row = walWriter.newRow(3_000);
+                row.putByte(0, (byte) 2);
+                row.append();
+                walWriter.commit();
+
+                // overlaps the first transaction, so the first one is copied to O3 lag
+                row = walWriter.newRow(2_000);
+                row.putByte(0, (byte) 3);
+                row.append();
+                walWriter.commit();
+            }
+            Assert.assertEquals(WalListenerEventType.DATA_TXN_COMMITTED, listener.events.remove().type);
+            Assert.assertEquals(WalListenerEventType.DATA_TXN_COMMITTED, listener.events.remove().type);
+
+            // apply the first transaction only
+            final AtomicInteger runStatusChecks = new AtomicInteger();
+            try (ApplyWal2TableJob walApplyJob = new ApplyWal2TableJob(engine, 1, 1)) {
+                walApplyJob.run(0, () -> runStatusChecks.getAndIncrement() > 0);
+            }
+            assertSql("count\n0\n", "select count() from " + tableToken.getTableName());
+            Assert.assertEquals(0, listener.events.size());
+
+            drainWalQueue();
+            assertSql("count\n3\n", "select count() from " + tableToken.getTableName());
+
+            Assert.assertEquals(
+                    new WalListenerEvent(WalListenerEventType.DATA_TXN_APPLIED, tableToken, 1, 0, -1, -1, -1, null, 1_000, 3_000),
+                    listener.events.remove()
+            );
+            Assert.assertEquals(
+                    new WalListenerEvent(WalListenerEventType.DATA_TXN_APPLIED, tableToken, 2, 0, -1, -1, -1, null, 2_000, 2_000),
+                    listener.events.remove()
+            );
+
+            releaseInactive(engine);
+            Assert.assertEquals(WalListenerEventType.SEGMENT_CLOSED, listener.events.remove().type);
+            Assert.assertEquals(0, listener.events.size());
+        });
+    }
+
+    @Test
+    public void testDataTxnAppliedTimestampRange() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableToken tableToken = createTable(testName.getMethodName());
+            Assert.assertEquals(WalListenerEventType.TABLE_CREATED, listener.events.remove().type);
+
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(3_000);
+                row.putByte(0, (byte) 1);
+                row.append();
+                row = walWriter.newRow(1_000);
+                row.putByte(0, (byte) 2);
+                row.append();
+                walWriter.commit();
+
+                row = walWriter.newRow(500);
+                row.putByte(0, (byte) 3);
+                row.append();
+                walWriter.commit();
+            }
+            Assert.assertEquals(WalListenerEventType.DATA_TXN_COMMITTED, listener.events.remove().type);
+            Assert.assertEquals(WalListenerEventType.DATA_TXN_COMMITTED, listener.events.remove().type);
+
+            drainWalQueue();
+
+            Assert.assertEquals(
+                    new WalListenerEvent(WalListenerEventType.DATA_TXN_APPLIED, tableToken, 1, 0, -1, -1, -1, null, 1_000, 3_000),
+                    listener.events.remove()
+            );
+            Assert.assertEquals(
+                    new WalListenerEvent(WalListenerEventType.DATA_TXN_APPLIED, tableToken, 2, 0, -1, -1, -1, null, 500, 500),
+                    listener.events.remove()
+            );
+
+            releaseInactive(engine);
+            Assert.assertEquals(WalListenerEventType.SEGMENT_CLOSED, listener.events.remove().type);
+            Assert.assertEquals(0, listener.events.size());
+        });
+    }
+
     @Test
     public void testWalListener() throws Exception {
         final AtomicReference<TableToken> tableToken1 = new AtomicReference<>();
@@ -142,6 +235,23 @@ public class WalListenerTest extends AbstractCairoTest {
                     );
 
                     drainWalQueue();
+
+                    Assert.assertEquals(
+                            new WalListenerEvent(
+                                    WalListenerEventType.DATA_TXN_APPLIED,
+                                    tableToken2.get(),
+                                    1,
+                                    0,
+                                    -1,
+                                    -1,
+                                    -1,
+                                    null,
+                                    0,
+                                    0
+                            ),
+                            listener.events.remove()
+                    );
+
                     releaseInactive(engine);
 
                     // Empty segment does not generate close event
@@ -217,6 +327,7 @@ public class WalListenerTest extends AbstractCairoTest {
     }
 
     enum WalListenerEventType {
+        DATA_TXN_APPLIED,
         DATA_TXN_COMMITTED,
         NON_DATA_TXN_COMMITTED,
         SEGMENT_CLOSED,
@@ -228,6 +339,22 @@ public class WalListenerTest extends AbstractCairoTest {
     static class TestWalListener implements WalListener {
         public Deque<WalListenerEvent> events = new ArrayDeque<>();
 
+        @Override
+        public void dataTxnApplied(TableToken tableToken, long seqTxn, long minTimestamp, long maxTimestamp) {
+            events.add(new WalListenerEvent(
+                    WalListenerEventType.DATA_TXN_APPLIED,
+                    tableToken,
+                    seqTxn,
+                    0,
+                    -1,
+                    -1,
+                    -1,
+                    null,
+                    minTimestamp,
+                    maxTimestamp
+            ));
+        }
+
         @Override
         public void dataTxnCommitted(TableToken tableToken, long txn, long timestamp, int walId, int segmentId, int segmentTxn) {
             events.add(new WalListenerEvent(
@@ -314,6 +441,8 @@ public class WalListenerTest extends AbstractCairoTest {
     }
 
     static class WalListenerEvent {
+        public final long maxTimestamp;
+        public final long minTimestamp;
         public final TableToken oldTableToken;
         public final int segmentId;
         public final int segmentTxn;
@@ -332,6 +461,21 @@ public class WalListenerTest extends AbstractCairoTest {
                 int segmentId,
                 int segmentTxn,
                 TableToken oldTableToken
+        ) {
+            this(type, tableToken, txn, timestamp, walId, segmentId, segmentTxn, oldTableToken, Numbers.LONG_NaN, Numbers.LONG_NaN);
+        }
+
+        WalListenerEvent(
+                WalListenerEventType type,
+                TableToken tableToken,
+                long txn,
+                long timestamp,
+                int walId,
+                int segmentId,
+                int segmentTxn,
+                TableToken oldTableToken,
+                long minTimestamp,
+                long maxTimestamp
         ) {
             this.type = type;
             this.tableToken = tableToken;
@@ -341,6 +485,8 @@ public class WalListenerTest extends AbstractCairoTest {
             this.segmentId = segmentId;
             this.segmentTxn = segmentTxn;
             this.oldTableToken = oldTableToken;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
         }
 
         @Override
@@ -354,7 +500,9 @@ public class WalListenerTest extends AbstractCairoTest {
                         this.walId == that.walId &&
                         this.segmentId == that.segmentId &&
                         this.segmentTxn == that.segmentTxn &&
-                        Objects.equals(this.oldTableToken, that.oldTableToken);
+                        Objects.equals(this.oldTableToken, that.oldTableToken) &&
+                        this.minTimestamp == that.minTimestamp &&
+                        this.maxTimestamp == that.maxTimestamp;
             }
             return false;
         }
@@ -370,6 +518,8 @@ public class WalListenerTest extends AbstractCairoTest {
                     ", segmentId=" + segmentId +
                     ", segmentTxn=" + segmentTxn +
                     ", oldTableToken=" + oldTableToken +
+                    ", minTimestamp=" + minTimestamp +
+                    ", maxTimestamp=" + maxTimestamp +
                     '}';
         }
     }
@@ -32,6 +32,7 @@ import io.questdb.griffin.SqlUtil;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.*;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.TableModel;
@@ -1404,6 +1405,64 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testMaxLagTime() throws Exception {
+        configOverrideWalApplyTableTimeQuota(0);
+        configOverrideWalMaxLagTime(1000);
+        // the clock ticks on every call to let WAL apply time quota expire
+        currentMicros = 0;
+        testMicrosClock = () -> currentMicros++;
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T23:00:00.000000Z')");
+            tickWalQueue(1);
+
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T22:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T21:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T20:00:00.000000Z')");
+            insert("insert into " + tableToken.getTableName() + "(ts) values ('2023-08-04T19:00:00.000000Z')");
+
+            // Run WAL apply job two times:
+            // Tick 1. Put row 2023-08-04T22 into the lag.
+            // Tick 2. Lag time is not exceeded yet, put row 2023-08-04T21 into the lag too.
+            tickWalQueue(2);
+
+            assertSql(
+                    "a\tb\tts\n" +
+                            "0\t\t2023-08-04T23:00:00.000000Z\n",
+                    tableToken.getTableName()
+            );
+
+            // Tick 3. Lag rows are invisible for longer than allowed,
+            // so instead of putting row 2023-08-04T20 into the lag we force full commit.
+            currentMicros += Timestamps.SECOND_MICROS;
+            tickWalQueue(1);
+
+            // We expect all, but the last row to be visible.
+            assertSql(
+                    "a\tb\tts\n" +
+                            "0\t\t2023-08-04T20:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T21:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T22:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T23:00:00.000000Z\n",
+                    tableToken.getTableName()
+            );
+
+            drainWalQueue();
+
+            assertSql(
+                    "a\tb\tts\n" +
+                            "0\t\t2023-08-04T19:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T20:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T21:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T22:00:00.000000Z\n" +
+                            "0\t\t2023-08-04T23:00:00.000000Z\n",
+                    tableToken.getTableName()
+            );
+        });
+    }
+
     @Test
     public void testMaxLagTxnCount() throws Exception {
         configOverrideWalApplyTableTimeQuota(0);
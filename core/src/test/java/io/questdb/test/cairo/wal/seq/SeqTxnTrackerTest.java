@@ -162,4 +162,21 @@ public class SeqTxnTrackerTest {
             Assert.assertFalse(tracker.isSuspended());
         });
     }
+
+    @Test
+    public void testLag() {
+        final SeqTxnTracker tracker = new SeqTxnTracker();
+        tracker.notifyOnCommit(5);
+        // writer txn is not known yet
+        Assert.assertEquals(0, tracker.getLag());
+
+        tracker.notifyCommitReadable(2);
+        Assert.assertEquals(3, tracker.getLag());
+
+        tracker.notifyOnCommit(7);
+        Assert.assertEquals(5, tracker.getLag());
+
+        tracker.notifyCommitReadable(7);
+        Assert.assertEquals(0, tracker.getLag());
+    }
 }
@@ -135,6 +135,19 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testBinaryEncodingDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().enableBinaryEncoding();
+            try {
+                builder.enableBinaryEncoding();
+                fail("should not allow double binary encoding set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already enabled");
+            }
+        });
+    }
+
     @Test
     public void testBufferSizeDoubleSet() throws Exception {
         assertMemoryLeak(() -> {
@@ -406,6 +419,61 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testHttpDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().http();
+            try {
+                builder.http();
+                fail("should not allow double http set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already enabled");
+            }
+        });
+    }
+
+    @Test
+    public void testHttpOptionsButHttpNotEnabled() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().address(LOCALHOST).maxRetries(1);
+            try {
+                builder.build();
+                fail("should fail when http options are used without http transport");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "require http transport");
+            }
+        });
+    }
+
+    @Test
+    public void testHttpWithAuth() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder()
+                    .address(LOCALHOST)
+                    .http()
+                    .enableAuth(AUTH_KEY_ID1).authToken(AUTH_TOKEN_KEY1);
+            try {
+                builder.build();
+                fail("auth over http should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "authentication is not supported by http transport");
+            }
+        });
+    }
+
+    @Test
+    public void testHttpWithTls() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().address(LOCALHOST).http().enableTls();
+            try {
+                builder.build();
+                fail("tls over http should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "TLS is not supported by http transport");
+            }
+        });
+    }
+
     @Test
     public void testMalformedPortInAddress() throws Exception {
         assertMemoryLeak(() -> {
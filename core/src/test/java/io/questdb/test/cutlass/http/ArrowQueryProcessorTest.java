@@ -0,0 +1,451 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.http;
+
+import io.questdb.cutlass.http.client.Chunk;
+import io.questdb.cutlass.http.client.ChunkedResponse;
+import io.questdb.cutlass.http.client.HttpClient;
+import io.questdb.cutlass.http.client.HttpClientFactory;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractBootstrapTest;
+import io.questdb.test.TestServerMain;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ArrowQueryProcessorTest extends AbstractBootstrapTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        TestUtils.unchecked(() -> createDummyConfiguration());
+        dbPath.parent().$();
+    }
+
+    @Test
+    public void testColumnTopsAndDictionary() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.compile("create table x (s symbol, i int, ts timestamp) timestamp(ts) partition by day");
+                serverMain.compile("insert into x values ('a', 1, '2024-01-01T00:00:00.000000Z'), (null, null, '2024-01-01T01:00:00.000000Z')");
+                serverMain.compile("alter table x add column d double");
+                serverMain.compile("alter table x add column b boolean");
+                serverMain.compile("insert into x values ('b', 3, '2024-01-02T00:00:00.000000Z', 1.5, true), ('a', 4, '2024-01-02T01:00:00.000000Z', null, false)");
+
+                final ArrowStream stream = query("/arrow", "x");
+                Assert.assertEquals(2, stream.batchCount);
+                Assert.assertEquals(1, stream.dictionaryCount);
+                TestUtils.assertEquals(
+                        "s:utf8[dictionary]\ti:int32\tts:timestamp[us]\td:double\tb:bool\n" +
+                                "a\t1\t1704067200000000\tnull\tfalse\n" +
+                                "null\tnull\t1704070800000000\tnull\tfalse\n" +
+                                "b\t3\t1704153600000000\t1.5\ttrue\n" +
+                                "a\t4\t1704157200000000\tnull\tfalse\n",
+                        stream.text
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testExecFormat() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.compile("create table x as (select x l, cast(x as short) sh from long_sequence(3))");
+
+                final ArrowStream stream = query("/exec", "x", "fmt", "arrow");
+                TestUtils.assertEquals(
+                        "l:int64\tsh:int16\n" +
+                                "1\t1\n" +
+                                "2\t2\n" +
+                                "3\t3\n",
+                        stream.text
+                );
+
+                // plain JSON keeps working on the same endpoint
+                try (HttpClient client = HttpClientFactory.newInstance()) {
+                    HttpClient.ResponseHeaders response = client.newRequest()
+                            .GET()
+                            .url("/exec")
+                            .query("query", "select count() from x")
+                            .send("localhost", HTTP_PORT);
+                    response.await();
+                    TestUtils.assertEquals("200", response.getStatusCode());
+                    TestUtils.assertContains(readBody(response).toString(), "\"dataset\":[[3]]");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNonSelect() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain ignore = startWithEnvVariables()) {
+                try (HttpClient client = HttpClientFactory.newInstance()) {
+                    HttpClient.ResponseHeaders response = client.newRequest()
+                            .GET()
+                            .url("/arrow")
+                            .query("query", "create table y (a int)")
+                            .send("localhost", HTTP_PORT);
+                    response.await();
+                    TestUtils.assertEquals("400", response.getStatusCode());
+                    TestUtils.assertContains(readBody(response).toString(), "Arrow format only accepts SELECT");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testRecordBatches() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables("QDB_CAIRO_SQL_PAGE_FRAME_MAX_ROWS", "2")) {
+                serverMain.compile(
+                        "create table x as (" +
+                                "select" +
+                                " x l," +
+                                " cast(x as byte) bt," +
+                                " rnd_symbol('a','b') sym," +
+                                " case when x % 2 = 0 then null else 'str' || x end str," +
+                                " cast(x * 1000 as date) dt," +
+                                " cast(x as float) f," +
+                                " cast('192.168.0.' || x as ipv4) ip," +
+                                " cast(x as char) ch" +
+                                " from long_sequence(5)" +
+                                ")"
+                );
+
+                // the filter disables page frames, the symbol column is sent as text
+                final ArrowStream stream = query("/arrow", "select l, bt, str, dt, f, ip from x where l > 1");
+                Assert.assertEquals(2, stream.batchCount);
+                Assert.assertEquals(0, stream.dictionaryCount);
+                TestUtils.assertEquals(
+                        "l:int64\tbt:int8\tstr:utf8\tdt:date[ms]\tf:float\tip:utf8\n" +
+                                "2\t2\tnull\t2000\t2.0\t192.168.0.2\n" +
+                                "3\t3\tstr3\t3000\t3.0\t192.168.0.3\n" +
+                                "4\t4\tnull\t4000\t4.0\t192.168.0.4\n" +
+                                "5\t5\tstr5\t5000\t5.0\t192.168.0.5\n",
+                        stream.text
+                );
+
+                final ArrowStream limited = query("/arrow", "select l, sym from x", "limit", "2,4");
+                Assert.assertEquals(0, limited.dictionaryCount);
+                TestUtils.assertContains(limited.text, "l:int64\tsym:utf8\n3\t");
+                Assert.assertEquals(3, limited.text.split("\n").length);
+            }
+        });
+    }
+
+    private static ArrowStream query(String url, String query, String... params) {
+        try (HttpClient client = HttpClientFactory.newInstance()) {
+            HttpClient.Request request = client.newRequest()
+                    .GET()
+                    .url(url)
+                    .query("query", query);
+            for (int i = 0; i < params.length; i += 2) {
+                request.query(params[i], params[i + 1]);
+            }
+            HttpClient.ResponseHeaders response = request.send("localhost", HTTP_PORT);
+            response.await();
+            TestUtils.assertEquals("200", response.getStatusCode());
+            TestUtils.assertEquals("application/vnd.apache.arrow.stream", response.getContentType());
+            return new ArrowStream(readBody(response).toByteArray());
+        }
+    }
+
+    private static ByteArrayOutputStream readBody(HttpClient.ResponseHeaders response) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ChunkedResponse chunkedResponse = response.getChunkedResponse();
+        Chunk chunk;
+        while ((chunk = chunkedResponse.recv()) != null) {
+            for (long p = chunk.lo(); p < chunk.hi(); p++) {
+                out.write(Unsafe.getUnsafe().getByte(p));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Decodes an Arrow IPC stream into tab-separated text, with a header of column names and types.
+     */
+    private static class ArrowStream {
+        private final ByteBuffer buf;
+        private final Map<Long, List<String>> dictionaries = new HashMap<>();
+        private final List<Field> fields = new ArrayList<>();
+        private final StringSink sink = new StringSink();
+        private int batchCount;
+        private int dictionaryCount;
+        private String text;
+
+        ArrowStream(byte[] bytes) {
+            buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            int pos = 0;
+            while (true) {
+                Assert.assertEquals(0, pos % 8);
+                Assert.assertEquals(-1, buf.getInt(pos));
+                final int metadataSize = buf.getInt(pos + 4);
+                if (metadataSize == 0) {
+                    // end of stream
+                    Assert.assertEquals(bytes.length, pos + 8);
+                    break;
+                }
+                Assert.assertEquals(0, (8 + metadataSize) % 8);
+                final int message = indirect(pos + 8);
+                Assert.assertEquals(4, readShort(message, 0));
+                final int headerType = buf.get(field(message, 1));
+                final int header = indirect(field(message, 2));
+                final long bodyLength = buf.getLong(field(message, 3));
+                final int body = pos + 8 + metadataSize;
+                switch (headerType) {
+                    case 1:
+                        readSchema(header);
+                        break;
+                    case 2:
+                        final List<String> values = new ArrayList<>();
+                        readBatch(indirect(field(header, 1)), body, values);
+                        dictionaries.put(buf.getLong(field(header, 0)), values);
+                        dictionaryCount++;
+                        break;
+                    case 3:
+                        readBatch(header, body, null);
+                        batchCount++;
+                        break;
+                    default:
+                        Assert.fail("unexpected message type: " + headerType);
+                }
+                pos = (int) (body + bodyLength);
+            }
+            text = sink.toString();
+        }
+
+        private static String typeName(int typeType) {
+            switch (typeType) {
+                case 1:
+                    return "null";
+                case 4:
+                    return "binary";
+                case 5:
+                    return "utf8";
+                case 6:
+                    return "bool";
+                default:
+                    return "type" + typeType;
+            }
+        }
+
+        private int field(int table, int index) {
+            final int vtable = table - buf.getInt(table);
+            final int vtableSize = buf.getShort(vtable);
+            if (4 + 2 * index >= vtableSize) {
+                return -1;
+            }
+            final int offset = buf.getShort(vtable + 4 + 2 * index);
+            return offset == 0 ? -1 : table + offset;
+        }
+
+        private int indirect(int pos) {
+            return pos + buf.getInt(pos);
+        }
+
+        private boolean isBitSet(int address, int index) {
+            return (buf.get(address + (index >>> 3)) & (1 << (index & 7))) != 0;
+        }
+
+        private void readBatch(int batch, int body, List<String> dictionary) {
+            final int rowCount = (int) buf.getLong(field(batch, 0));
+            final int nodes = indirect(field(batch, 1));
+            final int buffers = indirect(field(batch, 2));
+            final int fieldCount = dictionary != null ? 1 : fields.size();
+            Assert.assertEquals(fieldCount, buf.getInt(nodes));
+            final String[][] values = new String[fieldCount][rowCount];
+            int bufferIndex = 0;
+            for (int f = 0; f < fieldCount; f++) {
+                final Field field = dictionary != null ? new Field(5, 0, -1) : fields.get(f);
+                final long nodeLength = buf.getLong(nodes + 4 + f * 16);
+                final long nullCount = buf.getLong(nodes + 4 + f * 16 + 8);
+                Assert.assertEquals(rowCount, nodeLength);
+                if (field.typeType == 1) {
+                    for (int r = 0; r < rowCount; r++) {
+                        values[f][r] = "null";
+                    }
+                    continue;
+                }
+                final int validity = body + (int) buf.getLong(buffers + 4 + bufferIndex * 16);
+                final boolean hasValidity = buf.getLong(buffers + 4 + bufferIndex * 16 + 8) > 0;
+                bufferIndex++;
+                final int data = body + (int) buf.getLong(buffers + 4 + bufferIndex * 16);
+                Assert.assertEquals(0, (data - body) % 8);
+                bufferIndex++;
+                int varData = 0;
+                if (field.dictionaryId == -1 && (field.typeType == 4 || field.typeType == 5)) {
+                    varData = body + (int) buf.getLong(buffers + 4 + bufferIndex * 16);
+                    bufferIndex++;
+                }
+                int nulls = 0;
+                for (int r = 0; r < rowCount; r++) {
+                    if (hasValidity && !isBitSet(validity, r)) {
+                        values[f][r] = "null";
+                        nulls++;
+                        continue;
+                    }
+                    if (field.dictionaryId > -1) {
+                        values[f][r] = dictionaries.get(field.dictionaryId).get(buf.getInt(data + r * 4));
+                        continue;
+                    }
+                    switch (field.typeType) {
+                        case 2:
+                            switch (field.width) {
+                                case 8:
+                                    values[f][r] = Byte.toString(buf.get(data + r));
+                                    break;
+                                case 16:
+                                    values[f][r] = Short.toString(buf.getShort(data + r * 2));
+                                    break;
+                                case 32:
+                                    values[f][r] = Integer.toString(buf.getInt(data + r * 4));
+                                    break;
+                                default:
+                                    values[f][r] = Long.toString(buf.getLong(data + r * 8));
+                                    break;
+                            }
+                            break;
+                        case 3:
+                            values[f][r] = field.width == 1
+                                    ? Float.toString(buf.getFloat(data + r * 4))
+                                    : Double.toString(buf.getDouble(data + r * 8));
+                            break;
+                        case 4:
+                        case 5:
+                            final int lo = buf.getInt(data + r * 4);
+                            final int hi = buf.getInt(data + r * 4 + 4);
+                            values[f][r] = new String(buf.array(), varData + lo, hi - lo, StandardCharsets.UTF_8);
+                            break;
+                        case 6:
+                            values[f][r] = Boolean.toString(isBitSet(data, r));
+                            break;
+                        default:
+                            values[f][r] = Long.toString(buf.getLong(data + r * 8));
+                            break;
+                    }
+                }
+                Assert.assertEquals("null count, field " + f, nullCount, nulls);
+            }
+            Assert.assertEquals(bufferIndex, buf.getInt(buffers));
+
+            if (dictionary != null) {
+                for (int r = 0; r < rowCount; r++) {
+                    dictionary.add(values[0][r]);
+                }
+                return;
+            }
+            for (int r = 0; r < rowCount; r++) {
+                for (int f = 0; f < fieldCount; f++) {
+                    if (f > 0) {
+                        sink.put('\t');
+                    }
+                    sink.put(values[f][r]);
+                }
+                sink.put('\n');
+            }
+        }
+
+        private void readSchema(int schema) {
+            final int vector = indirect(field(schema, 1));
+            for (int i = 0, n = buf.getInt(vector); i < n; i++) {
+                final int field = indirect(vector + 4 + i * 4);
+                final int name = indirect(field(field, 0));
+                final int typeType = buf.get(field(field, 2));
+                final int type = indirect(field(field, 3));
+                final int dictionary = field(field, 4);
+                Assert.assertEquals(0, buf.getInt(indirect(field(field, 5))));
+
+                final String fieldName = new String(buf.array(), name + 4, buf.getInt(name), StandardCharsets.UTF_8);
+                Assert.assertEquals(0, buf.get(name + 4 + buf.getInt(name)));
+                sink.put(i > 0 ? "\t" : "").put(fieldName).put(':');
+                int width = 0;
+                switch (typeType) {
+                    case 2:
+                        width = buf.getInt(field(type, 0));
+                        Assert.assertEquals(1, buf.get(field(type, 1)));
+                        sink.put("int").put(width);
+                        break;
+                    case 3:
+                        width = readShort(type, 0);
+                        sink.put(width == 1 ? "float" : "double");
+                        break;
+                    case 8:
+                        Assert.assertEquals(1, readShort(type, 0));
+                        sink.put("date[ms]");
+                        break;
+                    case 10:
+                        Assert.assertEquals(2, readShort(type, 0));
+                        sink.put("timestamp[us]");
+                        break;
+                    default:
+                        sink.put(typeName(typeType));
+                        break;
+                }
+                long dictionaryId = -1;
+                if (dictionary > -1) {
+                    final int encoding = indirect(dictionary);
+                    dictionaryId = buf.getLong(field(encoding, 0));
+                    final int indexType = indirect(field(encoding, 1));
+                    Assert.assertEquals(32, buf.getInt(field(indexType, 0)));
+                    sink.put("[dictionary]");
+                }
+                fields.add(new Field(typeType, width, dictionaryId));
+            }
+            sink.put('\n');
+        }
+
+        private int readShort(int table, int index) {
+            final int pos = field(table, index);
+            return pos < 0 ? 0 : buf.getShort(pos);
+        }
+
+        private static class Field {
+            final long dictionaryId;
+            final int typeType;
+            final int width;
+
+            Field(int typeType, int width, long dictionaryId) {
+                this.typeType = typeType;
+                this.width = width;
+                this.dictionaryId = dictionaryId;
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.http.line;
+
+import io.questdb.PropertyKey;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.test.AbstractBootstrapTest;
+import io.questdb.test.TestServerMain;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LineHttpSenderTest extends AbstractBootstrapTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        TestUtils.unchecked(() -> createDummyConfiguration());
+        dbPath.parent().$();
+    }
+
+    @Test
+    public void testBinaryEncoding() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.LINE_BINARY_FORMAT_ENABLED.getEnvVarName(), "true"
+            )) {
+                final int rowCount = 1_000;
+                try (Sender sender = Sender.builder()
+                        .address("localhost")
+                        .port(HTTP_PORT)
+                        .http()
+                        .enableBinaryEncoding()
+                        .build()
+                ) {
+                    for (int i = 0; i < rowCount; i++) {
+                        sender.table("x")
+                                .symbol("s", "s" + (i % 10))
+                                .longColumn("a", i)
+                                .doubleColumn("d", i / 4.0)
+                                .timestampColumn("t", i, ChronoUnit.SECONDS)
+                                .at(i, ChronoUnit.MILLIS);
+                    }
+                }
+
+                serverMain.waitWalTxnApplied("x");
+                serverMain.assertSql(
+                        "select count(), sum(a), sum(d), max(t), max(timestamp) from x",
+                        "count\tsum\tsum1\tmax\tmax1\n" +
+                                rowCount + "\t499500\t124875.0\t1970-01-01T00:16:39.000000Z\t1970-01-01T00:00:00.999000Z\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testErrorHandlerReceivesFailedBatches() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final ConcurrentMap<Long, String> errors = new ConcurrentHashMap<>();
+            // nothing listens on the port
+            try (Sender sender = Sender.builder()
+                    .address("localhost")
+                    .port(HTTP_PORT)
+                    .http()
+                    .maxRetries(1)
+                    .retryBackoffMillis(1)
+                    .errorHandler((batchId, error) -> errors.put(batchId, error.getMessage()))
+                    .build()
+            ) {
+                sender.table("x").longColumn("a", 1).atNow();
+                sender.flush();
+                sender.table("x").longColumn("a", 2).atNow();
+                sender.flush();
+            }
+
+            Assert.assertEquals(2, errors.size());
+            TestUtils.assertContains(errors.get(0L), "could not send batch [batchId=0");
+            TestUtils.assertContains(errors.get(1L), "could not send batch [batchId=1");
+        });
+    }
+
+    @Test
+    public void testFailedBatchThrowsOnClose() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Sender sender = Sender.builder()
+                    .address("localhost")
+                    .port(HTTP_PORT)
+                    .http()
+                    .maxRetries(0)
+                    .build();
+            sender.table("x").longColumn("a", 1).atNow();
+            sender.flush();
+            try {
+                sender.close();
+                Assert.fail("undelivered batch should be reported");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "could not send batch [batchId=0");
+            }
+            // close is idempotent
+            sender.close();
+        });
+    }
+
+    @Test
+    public void testServerErrorIsNotRetried() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // the server may have committed the batch before failing, resending it could duplicate rows
+            Assert.assertEquals(1, countRequests("500 Internal Server Error", 3));
+        });
+    }
+
+    @Test
+    public void testServerErrorIsReported() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.compile("create table x (a long, ts timestamp) timestamp(ts) partition by day wal");
+
+                final ConcurrentMap<Long, String> errors = new ConcurrentHashMap<>();
+                try (Sender sender = Sender.builder()
+                        .address("localhost")
+                        .port(HTTP_PORT)
+                        .http()
+                        .errorHandler((batchId, error) -> errors.put(batchId, error.getMessage()))
+                        .build()
+                ) {
+                    sender.table("x").longColumn("a", 1).at(1, ChronoUnit.SECONDS);
+                    sender.flush();
+                    // the whole batch is rejected since column type does not match
+                    sender.table("x").longColumn("a", 2).at(2, ChronoUnit.SECONDS);
+                    sender.table("x").stringColumn("a", "oops").at(3, ChronoUnit.SECONDS);
+                    sender.flush();
+                    sender.table("x").longColumn("a", 4).at(4, ChronoUnit.SECONDS);
+                }
+
+                Assert.assertEquals(1, errors.size());
+                TestUtils.assertContains(errors.get(1L), "could not write batch [batchId=1, status=400");
+
+                serverMain.waitWalTxnApplied("x");
+                serverMain.assertSql(
+                        "select a, ts from x",
+                        "a\tts\n" +
+                                "1\t1970-01-01T00:00:01.000000Z\n" +
+                                "4\t1970-01-01T00:00:04.000000Z\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testServerUnavailableIsRetried() throws Exception {
+        TestUtils.assertMemoryLeak(() -> Assert.assertEquals(4, countRequests("503 Service Unavailable", 3)));
+    }
+
+    @Test
+    public void testSmallBuffer() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = startWithEnvVariables()) {
+                final int rowCount = 10_000;
+                try (Sender sender = Sender.builder()
+                        .address("localhost")
+                        .port(HTTP_PORT)
+                        .http()
+                        .bufferCapacity(1024)
+                        .maxInFlightBatches(4)
+                        .build()
+                ) {
+                    for (int i = 0; i < rowCount; i++) {
+                        sender.table("x")
+                                .symbol("s", "s" + (i % 10))
+                                .longColumn("a", i)
+                                .stringColumn("str", "value " + i)
+                                .at(i, ChronoUnit.MILLIS);
+                    }
+                }
+
+                serverMain.waitWalTxnApplied("x");
+                serverMain.assertSql(
+                        "select count(), count_distinct(s), sum(a), max(timestamp) from x",
+                        "count\tcount_distinct\tsum\tmax\n" +
+                                rowCount + "\t10\t49995000\t1970-01-01T00:00:09.999000Z\n"
+                );
+            }
+        });
+    }
+
+    private static int countRequests(String status, int maxRetries) throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (ServerSocket serverSocket = new ServerSocket(HTTP_PORT)) {
+            final Thread server = new Thread(() -> {
+                try {
+                    while (true) {
+                        try (Socket socket = serverSocket.accept()) {
+                            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                            int contentLength = 0;
+                            String line;
+                            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                                if (line.toLowerCase().startsWith("content-length:")) {
+                                    contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+                                }
+                            }
+                            for (int i = 0; i < contentLength; i++) {
+                                reader.read();
+                            }
+                            requests.incrementAndGet();
+                            final OutputStream out = socket.getOutputStream();
+                            out.write(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                            out.flush();
+                        }
+                    }
+                } catch (IOException ignore) {
+                    // the server socket is closed
+                }
+            });
+            server.start();
+
+            final ConcurrentMap<Long, String> errors = new ConcurrentHashMap<>();
+            try (Sender sender = Sender.builder()
+                    .address("localhost")
+                    .port(HTTP_PORT)
+                    .http()
+                    .maxRetries(maxRetries)
+                    .retryBackoffMillis(1)
+                    .errorHandler((batchId, error) -> errors.put(batchId, error.getMessage()))
+                    .build()
+            ) {
+                sender.table("x").longColumn("a", 1).atNow();
+            }
+            serverSocket.close();
+            server.join();
+
+            Assert.assertEquals(1, errors.size());
+            TestUtils.assertContains(errors.get(0L), "could not write batch [batchId=0, status=" + status.substring(0, 3));
+        }
+        return requests.get();
+    }
+}
@@ -89,6 +89,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         }
     };
     protected boolean autoCreateNewColumns = true;
+    protected boolean binaryFormatSupported;
     protected long commitIntervalDefault = 2000;
     protected double commitIntervalFraction = 0.5;
     protected boolean disconnectOnError = false;
@@ -115,6 +116,8 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     };
     protected int partitionByDefault = PartitionBy.DAY;
     protected boolean symbolAsFieldSupported;
+    protected long writerRebalanceInterval = 10_000;
+    protected double writerRebalanceLoadRatio = 1.5;
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
         public boolean getAutoCreateNewColumns() {
@@ -195,6 +198,21 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return 4;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return writerRebalanceInterval;
+        }
+
+        @Override
+        public double getWriterRebalanceLoadRatio() {
+            return writerRebalanceLoadRatio;
+        }
+
+        @Override
+        public boolean isBinaryFormatSupported() {
+            return binaryFormatSupported;
+        }
+
         @Override
         public boolean isSymbolAsFieldSupported() {
             return symbolAsFieldSupported;
@@ -237,6 +255,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     public void cleanup() {
         maxMeasurementSize = 256;
         authKeyId = null;
+        binaryFormatSupported = false;
         msgBufferSize = 256 * 1024;
         minIdleMsBeforeWriterRelease = 30000;
         maintenanceInterval = 25;
@@ -245,6 +264,8 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         partitionByDefault = PartitionBy.DAY;
         disconnectOnError = false;
         symbolAsFieldSupported = false;
+        writerRebalanceInterval = 10_000;
+        writerRebalanceLoadRatio = 1.5;
         nf = NetworkFacadeImpl.INSTANCE;
     }
 
@@ -24,6 +24,7 @@
 
 package io.questdb.test.cutlass.line.tcp;
 
+import io.questdb.cutlass.line.LineBinaryFormat;
 import io.questdb.cutlass.line.LineException;
 import io.questdb.cutlass.line.tcp.LineTcpParser;
 import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
@@ -37,9 +38,13 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 
 public class LineTcpParser2Test extends LineUdpLexerTest {
-    private final LineTcpParser lineTcpParser = new LineTcpParser(false, false);
+    private final LineTcpParser lineTcpParser = new LineTcpParser(false, false, true);
     private boolean onErrorLine;
     private long startOfLineAddr;
 
@@ -48,6 +53,45 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
         Os.init();
     }
 
+    @Test
+    public void testBinaryValueInvalidType() {
+        assertThat(
+                "measurement d==cAAAAAAAA 1000--ERROR=INVALID_FIELD_VALUE--",
+                lineBytes("measurement d=", "=cAAAAAAAA", " 1000\n"),
+                1
+        );
+    }
+
+    @Test
+    public void testBinaryValues() {
+        // payloads contain line separators, which must not end the line
+        assertThat(
+                "measurement,tag=value d=1.5,l=10i,t=32t,n=61n,s=\"x y\" 44n\n",
+                lineBytes(
+                        "measurement,tag=value d=", binaryValue(LineBinaryFormat.BINARY_TYPE_DOUBLE, Double.doubleToRawLongBits(1.5)),
+                        ",l=", binaryValue(LineBinaryFormat.BINARY_TYPE_LONG, '\n'),
+                        ",t=", binaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_MICROS, ' '),
+                        ",n=", binaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_NANOS, '='),
+                        ",s=\"x y\" ", binaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_NANOS, ','),
+                        "\n"
+                ),
+                1
+        );
+    }
+
+    @Test
+    public void testBinaryValuesMixedWithText() {
+        assertThat(
+                "measurement l=-1i,d=2.25,x=7i 100000t\n",
+                lineBytes(
+                        "measurement l=", binaryValue(LineBinaryFormat.BINARY_TYPE_LONG, -1),
+                        ",d=2.25,x=7i ", binaryValue(LineBinaryFormat.BINARY_TYPE_TIMESTAMP_MICROS, 100000),
+                        "\n"
+                ),
+                1
+        );
+    }
+
     @Override
     public void testDanglingCommaOnTag() {
         assertThat(
@@ -451,6 +495,40 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
         );
     }
 
+    private static byte[] binaryValue(byte type, long value) {
+        return ByteBuffer.allocate(LineBinaryFormat.BINARY_VALUE_LENGTH)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(LineBinaryFormat.BINARY_FORMAT_FLAG)
+                .put(type)
+                .putLong(value)
+                .array();
+    }
+
+    private static byte[] lineBytes(Object... parts) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Object part : parts) {
+            final byte[] bytes = part instanceof byte[] ? (byte[]) part : part.toString().getBytes(Files.UTF_8);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    private void appendBinaryValue(ProtoEntity entity) {
+        switch (entity.getType()) {
+            case LineTcpParser.ENTITY_TYPE_FLOAT:
+                sink.put(entity.getFloatValue());
+                break;
+            case LineTcpParser.ENTITY_TYPE_INTEGER:
+                sink.put(entity.getLongValue()).put('i');
+                break;
+            case LineTcpParser.ENTITY_TYPE_TIMESTAMP:
+                sink.put(entity.getLongValue()).put(entity.getUnit() == LineTcpParser.ENTITY_UNIT_NANO ? 'n' : 't');
+                break;
+            default:
+                Assert.fail("unexpected binary entity type: " + entity.getType());
+        }
+    }
+
     private void assembleLine() {
         int nEntities = lineTcpParser.getEntityCount();
         Utf8s.utf8ToUtf16(lineTcpParser.getMeasurementName().lo(), lineTcpParser.getMeasurementName().hi(), sink);
@@ -466,6 +544,10 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
             }
             Utf8s.utf8ToUtf16(entity.getName().lo(), entity.getName().hi(), sink);
             sink.put('=');
+            if (entity.isBinary()) {
+                appendBinaryValue(entity);
+                continue;
+            }
             switch (entity.getType()) {
                 case LineTcpParser.ENTITY_TYPE_STRING:
                     sink.put('"');
@@ -568,7 +650,10 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
     }
 
     protected void assertThat(CharSequence expected, String lineStr, int start) throws LineException {
-        byte[] line = lineStr.getBytes(Files.UTF_8);
+        assertThat(expected, lineStr.getBytes(Files.UTF_8), start);
+    }
+
+    protected void assertThat(CharSequence expected, byte[] line, int start) throws LineException {
         final int len = line.length;
         final boolean endWithEOL = line[len - 1] == '\n' || line[len - 1] == '\r';
         int fullLen = endWithEOL ? line.length : line.length + 1;
@@ -593,11 +678,11 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
                     boolean complete;
                     complete = parseMeasurement(memFull, mem, fullLen, fullLen, i + nextBreak);
                     if (!complete || !Chars.equals(expected, sink)) {
-                        System.out.println(lineStr.substring(0, i));
+                        System.out.println(new String(line, 0, i, Files.UTF_8));
                         if (nextBreak > 0) {
-                            System.out.println(lineStr.substring(i, i + nextBreak));
+                            System.out.println(new String(line, i, nextBreak, Files.UTF_8));
                         }
-                        System.out.println(lineStr.substring(i + nextBreak));
+                        System.out.println(new String(line, i + nextBreak, len - i - nextBreak, Files.UTF_8));
                         TestUtils.assertEquals("parse split " + i, expected, sink);
                     }
                     Assert.assertTrue(complete);
@@ -140,7 +140,7 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
             boolean stringAsTagSupported,
             boolean symbolAsFieldSupported
     ) throws Exception {
-        final LineTcpParser lineTcpParser = new LineTcpParser(stringAsTagSupported, symbolAsFieldSupported);
+        final LineTcpParser lineTcpParser = new LineTcpParser(stringAsTagSupported, symbolAsFieldSupported, false);
         TestUtils.assertMemoryLeak(() -> {
             sink.clear();
             sink.put(type == LineTcpParser.ENTITY_TYPE_TAG ? "t,v=" : "t v=").put(value).put('\n'); // SYMBOLS are in tag set, not field set
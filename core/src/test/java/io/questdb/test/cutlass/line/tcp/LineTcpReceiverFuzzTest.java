@@ -99,6 +99,15 @@ public class LineTcpReceiverFuzzTest extends AbstractLineTcpReceiverFuzzTest {
         runTest();
     }
 
+    @Test
+    public void testLoadMovingTablesBetweenWriterThreads() throws Exception {
+        // check the writer load and move a table on every maintenance run
+        writerRebalanceInterval = 1;
+        writerRebalanceLoadRatio = 1.01;
+        initLoadParameters(100, Os.isWindows() ? 3 : 5, 7, 12, 20);
+        runTest();
+    }
+
     @Test
     public void testLoadNoTagsStringsAsSymbol() throws Exception {
         initLoadParameters(100, Os.isWindows() ? 3 : 5, 7, 12, 20);
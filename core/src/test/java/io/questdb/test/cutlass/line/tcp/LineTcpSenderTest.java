@@ -99,6 +99,43 @@ public class LineTcpSenderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testBinaryEncoding() throws Exception {
+        binaryFormatSupported = true;
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address("127.0.0.1")
+                    .port(bindPort)
+                    .enableBinaryEncoding()
+                    .build()) {
+
+                long ts = IntervalUtils.parseFloorPartialTimestamp("2022-02-25");
+                sender.table("mytable")
+                        .symbol("sym", "a")
+                        .doubleColumn("d", 1.25)
+                        .doubleColumn("nan", Double.NaN)
+                        .longColumn("l", 10)
+                        .longColumn("neg", -1)
+                        .timestampColumn("ts_col", ts + 32, ChronoUnit.MICROS)
+                        .stringColumn("s", "x y")
+                        .at(ts, ChronoUnit.MICROS);
+                sender.table("mytable")
+                        .symbol("sym", "b")
+                        .doubleColumn("d", -0.5)
+                        .longColumn("l", Long.MAX_VALUE)
+                        .at(ts + 1, ChronoUnit.MICROS);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 2);
+            try (TableReader reader = getReader("mytable")) {
+                TestUtils.assertReader("sym\td\tnan\tl\tneg\tts_col\ts\ttimestamp\n" +
+                        "a\t1.25\tNaN\t10\t-1\t2022-02-25T00:00:00.000032Z\tx y\t2022-02-25T00:00:00.000000Z\n" +
+                        "b\t-0.5\tNaN\t9223372036854775807\tNaN\t\t\t2022-02-25T00:00:00.000001Z\n", reader, new StringSink());
+            }
+        });
+    }
+
     @Test
     public void testBuilderAuthSuccess() throws Exception {
         authKeyId = AUTH_KEY_ID1;
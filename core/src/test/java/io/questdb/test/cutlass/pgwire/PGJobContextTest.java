@@ -68,6 +68,7 @@ import org.postgresql.jdbc.PgResultSet;
 import org.postgresql.util.PGTimestamp;
 import org.postgresql.util.PSQLException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
@@ -2613,29 +2614,229 @@ if __name__ == "__main__":
     }
 
     @Test
-    @Ignore
-    public void testCopyIn() throws SQLException, SqlException {
-        try (
-                final PGWireServer server = createPGServer(2);
-                final WorkerPool workerPool = server.getWorkerPool()
-        ) {
-            workerPool.start(LOG);
-            try (final Connection connection = getConnection(server.getPort(), false, true)) {
-                PreparedStatement stmt = connection.prepareStatement("create table tab (a int, b int)");
-                stmt.execute();
+    public void testCopyInCommitBatchSize() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        PGWireConfiguration configuration = new Port0PGWireConfiguration() {
+            @Override
+            public int getCopyInCommitBatchSize() {
+                return 2;
+            }
+        };
+
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(configuration);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a int, b double)").execute();
+
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    try {
+                        copyManager.copyIn("copy tab from stdin csv", new ByteArrayInputStream("1,1.5\n2,2.5\n3,abc\n4,4.5\n".getBytes()));
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "bad syntax [line=2, col=1]");
+                    }
+                    // the batch committed before the error stays
+                    assertSql(
+                            "a\tb\n" +
+                                    "1\t1.5\n" +
+                                    "2\t2.5\n",
+                            "tab"
+                    );
+                }
+            }
+        });
+    }
 
-                CopyManager copyManager = new CopyManager((BaseConnection) connection);
+    @Test
+    public void testCopyInCsvQuotedEmptyString() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a int, b string, c string)").execute();
 
-                CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+                    // unquoted empty field is null, quoted one is an empty string
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    final long rows = copyManager.copyIn(
+                            "copy tab from stdin csv",
+                            new ByteArrayInputStream("1,\"\",\n2,,\"\"\n".getBytes())
+                    );
+                    Assert.assertEquals(2, rows);
 
-                String text = "a,b\r\n" +
-                        "10,20";
+                    assertSql(
+                            "a\tb\tc\n" +
+                                    "1\t0\t-1\n" +
+                                    "2\t-1\t0\n",
+                            "select a, length(b) b, length(c) c from tab"
+                    );
+                }
+            }
+        });
+    }
 
-                byte[] bytes = text.getBytes();
-                copyIn.writeToCopy(bytes, 0, bytes.length);
-                copyIn.endCopy();
+    @Test
+    public void testCopyInCsvWithHeader() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a int, b string, ts timestamp) timestamp(ts)").execute();
+
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    // rows are split across CopyData messages in the middle of a line
+                    final CopyIn copyIn = copyManager.copyIn("copy tab from stdin with (format csv, header true)");
+                    byte[] bytes = "a,b,ts\r\n1,\"hello, world\",2023-01-01T00:00:00.000000Z\r\n2,".getBytes();
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    bytes = ",2023-01-01T00:00:01.000000Z\r\n3,x,2023-01-01T00:00:02.000000Z".getBytes();
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(3, copyIn.endCopy());
+
+                    assertSql(
+                            "a\tb\tts\n" +
+                                    "1\thello, world\t2023-01-01T00:00:00.000000Z\n" +
+                                    "2\t\t2023-01-01T00:00:01.000000Z\n" +
+                                    "3\tx\t2023-01-01T00:00:02.000000Z\n",
+                            "tab"
+                    );
+                }
             }
-        }
+        });
+    }
+
+    @Test
+    public void testCopyInErrorRollsBack() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a int, b double)").execute();
+
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    try {
+                        copyManager.copyIn("copy tab from stdin csv", new ByteArrayInputStream("1,1.5\n2,abc\n3,3.5\n".getBytes()));
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "bad syntax [line=1, col=1]");
+                    }
+                    assertSql("a\tb\n", "tab");
+
+                    // connection is usable after failed copy
+                    Assert.assertEquals(1, copyManager.copyIn("copy tab from stdin csv", new ByteArrayInputStream("4,4.5\n".getBytes())));
+                    assertSql(
+                            "a\tb\n" +
+                                    "4\t4.5\n",
+                            "tab"
+                    );
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCopyInTableDoesNotExist() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    try {
+                        copyManager.copyIn("copy tab from stdin");
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "table does not exist [table=tab]");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCopyInText() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a long, b symbol, c string, d date)").execute();
+
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    final long rows = copyManager.copyIn(
+                            "copy tab from stdin",
+                            new ByteArrayInputStream((
+                                    "1\tabc\tx\\ty\t2023-05-01T10:00:00.000Z\n" +
+                                            "\\N\t\\N\t\\N\t\\N\n" +
+                                            "\\.\n"
+                            ).getBytes())
+                    );
+                    Assert.assertEquals(2, rows);
+
+                    assertSql(
+                            "a\tb\tc\td\n" +
+                                    "1\tabc\tx\ty\t2023-05-01T10:00:00.000Z\n" +
+                                    "NaN\t\t\t\n",
+                            "tab"
+                    );
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCopyInTextWithQuotes() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(Mode.SIMPLE, server.getPort(), false, -2)) {
+                    connection.prepareStatement("create table tab (a long, b string, c string)").execute();
+
+                    // quotes are plain characters in text format, delimiter can be escaped
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    final long rows = copyManager.copyIn(
+                            "copy tab from stdin",
+                            new ByteArrayInputStream((
+                                    "1\t\"quoted\"\tsay \"hi\"\n" +
+                                            "2\t\"open\tescaped\\\ttab\n" +
+                                            "3\t\"\t\"\"\n"
+                            ).getBytes())
+                    );
+                    Assert.assertEquals(3, rows);
+
+                    assertSql(
+                            "a\tb\tc\n" +
+                                    "1\t\"quoted\"\tsay \"hi\"\n" +
+                                    "2\t\"open\tescaped\ttab\n" +
+                                    "3\t\"\t\"\"\n",
+                            "tab"
+                    );
+                }
+            }
+        });
     }
 
     @Test
@@ -7984,6 +8185,53 @@ create table tab as (
         assertHexScript(script);
     }
 
+    @Test
+    public void testSelectFixedSizeColumns() throws Exception {
+        // rows of fixed size binary values are encoded with buffer space reserved once per row
+        assertWithPgServer(CONN_AWARE_ALL, (connection, binary, mode, port) -> {
+            try (
+                    PreparedStatement stmt = connection.prepareStatement("select" +
+                            " case when x < 3 then x::int else null end i," +
+                            " case when x < 3 then x else null end l," +
+                            " case when x < 3 then x * 0.5 else null end d," +
+                            " case when x < 3 then (x * 0.25)::float else null end f," +
+                            " x::short s," +
+                            " x::byte b," +
+                            " x % 2 = 0 bo," +
+                            " case when x < 3 then cast(x * 1000000 as timestamp) else null end ts," +
+                            " case when x < 3 then cast(x * 1000 as date) else null end dt," +
+                            " case when x < 3 then to_uuid(x, x) else null end u" +
+                            " from long_sequence(3)");
+                    ResultSet rs = stmt.executeQuery()
+            ) {
+                sink.clear();
+                assertResultSet(
+                        "i[INTEGER],l[BIGINT],d[DOUBLE],f[DOUBLE],s[SMALLINT],b[SMALLINT],bo[BIT],ts[TIMESTAMP],dt[TIMESTAMP],u[OTHER]\n" +
+                                "1,1,0.5,0.25,1,1,false,1970-01-01 00:00:01.0,1970-01-01 00:00:01.0,00000000-0000-0001-0000-000000000001\n" +
+                                "2,2,1.0,0.5,2,2,true,1970-01-01 00:00:02.0,1970-01-01 00:00:02.0,00000000-0000-0002-0000-000000000002\n" +
+                                "null,null,null,null,3,3,false,null,null,null\n",
+                        sink,
+                        rs
+                );
+            }
+
+            // enough rows to overflow the send buffer several times
+            try (
+                    PreparedStatement stmt = connection.prepareStatement("select x, x::int i, x * 0.5 d, cast(x as timestamp) ts from long_sequence(10000)");
+                    ResultSet rs = stmt.executeQuery()
+            ) {
+                long r = 0;
+                while (rs.next()) {
+                    r++;
+                    Assert.assertEquals(r, rs.getLong(1));
+                    Assert.assertEquals(r, rs.getInt(2));
+                    Assert.assertEquals(r * 0.5, rs.getDouble(3), 0.0000001);
+                }
+                Assert.assertEquals(10000, r);
+            }
+        });
+    }
+
     @Test
     public void testSelectStringInWithBindVariables() throws Exception {
         assertWithPgServer(CONN_AWARE_EXTENDED_ALL, (connection, binary, mode, port) -> {
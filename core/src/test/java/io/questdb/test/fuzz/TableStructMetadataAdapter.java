@@ -86,6 +86,11 @@ public class TableStructMetadataAdapter implements TableStructure {
         return timestampIndex;
     }
 
+    @Override
+    public long getTtl() {
+        return 0;
+    }
+
     @Override
     public boolean isDedupKey(int columnIndex) {
         return false;
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class CopyExportTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputRoot = TestUtils.unchecked(() -> temp.newFolder("exports" + System.nanoTime()).getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testExportDelimiter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, x * 2 y from long_sequence(3))");
+            assertExport(
+                    "copy x to 'x_delim.csv' with header true delimiter '|'",
+                    "x_delim.csv",
+                    3,
+                    "\"x\"|\"y\"\n" +
+                            "1|2\n" +
+                            "2|4\n" +
+                            "3|6\n"
+            );
+        });
+    }
+
+    @Test
+    public void testExportDotsNotAllowed() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x from long_sequence(1))");
+            assertException(
+                    "copy x to '../x.csv'",
+                    10,
+                    "'.' is not allowed"
+            );
+        });
+    }
+
+    @Test
+    public void testExportEmptyFileName() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "copy x to ''",
+                10,
+                "file name expected"
+        ));
+    }
+
+    @Test
+    public void testExportManyFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts) partition by hour");
+            final StringBuilder expected = new StringBuilder();
+            for (int i = 1; i <= 1000; i++) {
+                expected.append(i).append(',').append(iso((i - 1) * 1000000L)).append('\n');
+            }
+            assertExport("copy x to 'x_frames.csv'", "x_frames.csv", 1000, expected.toString());
+        });
+    }
+
+    @Test
+    public void testExportNullsAndQuotes() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (s string, sym symbol, i int, d double, ts timestamp)");
+            insert("insert into x values ('a\"b', 'foo', 1, 1.5, '2023-01-01T00:00:00.000000Z')");
+            insert("insert into x values (null, null, null, null, null)");
+            assertExport(
+                    "copy x to 'x_nulls.csv' with header true",
+                    "x_nulls.csv",
+                    2,
+                    "\"s\",\"sym\",\"i\",\"d\",\"ts\"\n" +
+                            "\"a\"\"b\",\"foo\",1,1.5,2023-01-01T00:00:00.000000Z\n" +
+                            ",,,,\n"
+            );
+        });
+    }
+
+    @Test
+    public void testExportSubQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, rnd_symbol('a','b') s from long_sequence(5))");
+            assertExport(
+                    "copy (select x from x where x > 2 order by x desc) to 'x_sub.csv'",
+                    "x_sub.csv",
+                    3,
+                    "5\n" +
+                            "4\n" +
+                            "3\n"
+            );
+        });
+    }
+
+    @Test
+    public void testExportSubQueryExpectsTo() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x from long_sequence(1))");
+            assertException(
+                    "copy (select * from x) from 'x.csv'",
+                    23,
+                    "'to' expected"
+            );
+        });
+    }
+
+    @Test
+    public void testExportTruncatesExistingFile() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x from long_sequence(10))");
+            assertExport("copy x to 'x_trunc.csv'", "x_trunc.csv", 10, "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n");
+            assertExport("copy (select * from x limit 2) to 'x_trunc.csv'", "x_trunc.csv", 2, "1\n2\n");
+        });
+    }
+
+    private static String iso(long micros) {
+        final StringSink sink = new StringSink();
+        TimestampFormatUtils.appendDateTimeUSec(sink, micros);
+        return sink.toString();
+    }
+
+    private void assertExport(String sql, String fileName, long expectedRows, String expectedContent) throws Exception {
+        try (RecordCursorFactory factory = select(sql)) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(expectedRows, cursor.getRecord().getLong(0));
+                Assert.assertFalse(cursor.hasNext());
+            }
+        }
+        final byte[] bytes = Files.readAllBytes(new File(inputRoot, fileName).toPath());
+        TestUtils.assertEquals(expectedContent, new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -49,6 +49,7 @@ import io.questdb.griffin.engine.functions.date.*;
 import io.questdb.griffin.engine.functions.eq.*;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.RndIPv4CCFunctionFactory;
+import io.questdb.griffin.engine.functions.table.ReadParquetFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
 import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
 import io.questdb.griffin.model.WindowColumn;
@@ -1362,7 +1363,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "    VirtualRecord\n" +
                     "      functions: [1,d1]\n" +
                     "        SelectedRecord\n" +
-                    "            Hash Join Light\n" +
+                    "            Async Hash Join Light workers: 1\n" +
                     "              condition: l2=l1\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -2239,6 +2240,10 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                 args.add(new StrConstant("123.456"));
                             } else if (factory instanceof TimestampFloorFunctionFactory && p == 0) {
                                 args.add(new StrConstant("d"));
+                            } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 0) {
+                                args.add(new StrConstant("1d"));
+                            } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 2) {
+                                args.add(new StrConstant("00:30"));
                             } else if (factory instanceof DateTruncFunctionFactory && p == 0) {
                                 args.add(new StrConstant("year"));
                             } else if (factory instanceof ToUTCTimestampFunctionFactory && p == 1) {
@@ -2265,6 +2270,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             } else if (factory instanceof WalTransactionsFunctionFactory && sigArgType == ColumnType.STRING) {
                                 // Skip it, it requires a WAL table to exist
                                 break FUNCTIONS;
+                            } else if (factory instanceof ReadParquetFunctionFactory && sigArgType == ColumnType.STRING) {
+                                // Skip it, it requires a parquet file to exist
+                                break FUNCTIONS;
                             } else {
                                 args.add(getConst(constFuncs, sigArgType, p, no));
                             }
@@ -2725,7 +2733,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
                         "    SelectedRecord\n" +
-                        "        Hash Join Light\n" +
+                        "        Async Hash Join Light workers: 1\n" +
                         "          condition: b.i=a.i\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
@@ -3124,7 +3132,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select s1, s2 from (select a.s1, b.s2, b.i, a.i  from a join b on i) where i < i1 and s1 = s2",
                     "SelectedRecord\n" +
                             "    Filter filter: (b.i<a.i and a.s1=b.s2)\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: b.i=a.i\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
@@ -3476,9 +3484,10 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select i from a latest on ts partition by i",
-                "LatestByAllFiltered\n" +
-                        "    Row backward scan\n" +
-                        "    Frame backward scan on: a\n"
+                "Async Latest By workers: 1\n" +
+                        "    DataFrame\n" +
+                        "        Row backward scan\n" +
+                        "        Frame backward scan on: a\n"
         );
     }
 
@@ -3572,9 +3581,10 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select * from a latest on ts partition by i",
-                "LatestByAllFiltered\n" +
-                        "    Row backward scan\n" +
-                        "    Frame backward scan on: a\n"
+                "Async Latest By workers: 1\n" +
+                        "    DataFrame\n" +
+                        "        Row backward scan\n" +
+                        "        Frame backward scan on: a\n"
         );
     }
 
@@ -3731,10 +3741,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select ts, i as i1, i as i2 from a where 0 < i and i < 10 latest on ts partition by i",
                 "SelectedRecord\n" +
                         "    SelectedRecord\n" +
-                        "        LatestByAllFiltered\n" +
-                        "            Row backward scan\n" +
-                        "              filter: (0<i and i<10)\n" +
-                        "            Frame backward scan on: a\n"
+                        "        Async JIT Latest By workers: 1\n" +
+                        "          filter: (0<i and i<10)\n" +
+                        "            DataFrame\n" +
+                        "                Row backward scan\n" +
+                        "                Frame backward scan on: a\n"
         );
     }
 
@@ -3744,9 +3755,10 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table a ( i int, d double, ts timestamp) timestamp(ts);",
                 "select ts, d from a latest on ts partition by i",
                 "SelectedRecord\n" +
-                        "    LatestByAllFiltered\n" +
-                        "        Row backward scan\n" +
-                        "        Frame backward scan on: a\n"
+                        "    Async Latest By workers: 1\n" +
+                        "        DataFrame\n" +
+                        "            Row backward scan\n" +
+                        "            Frame backward scan on: a\n"
         );
     }
 
@@ -4039,7 +4051,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "left join tabb on a1=b1 and a1=5 " +
                             "join tabc on a1=c1",
                     "SelectedRecord\n" +
-                            "    Hash Join Light\n" +
+                            "    Async Hash Join Light workers: 1\n" +
                             "      condition: c1=a1\n" +
                             "        Hash Outer Join Light\n" +
                             "          condition: b1=a1\n" +
@@ -4411,7 +4423,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "WHERE T1.value=1",
                     "GroupBy vectorized: false\n" +
                             "  values: [count(*)]\n" +
-                            "    Hash Join Light\n" +
+                            "    Async Hash Join Light workers: 1\n" +
                             "      condition: T3.created=T2.created\n" +
                             "        Hash Outer Join Light\n" +
                             "          condition: T2.created=T1.created\n" +
@@ -4438,7 +4450,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "WHERE T2.created=1",
                     "GroupBy vectorized: false\n" +
                             "  values: [count(*)]\n" +
-                            "    Hash Join Light\n" +
+                            "    Async Hash Join Light workers: 1\n" +
                             "      condition: T3.created=T2.created\n" +
                             "        Filter filter: T2.created=1\n" +
                             "            Hash Outer Join Light\n" +
@@ -4912,7 +4924,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Update table: tab\n" +
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: t2.b=t1.b\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
@@ -4932,7 +4944,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "    VirtualRecord\n" +
                         "      functions: [true]\n" +
                         "        Filter filter: not (sleep(60000))\n" +
-                        "            Hash Join Light\n" +
+                        "            Async Hash Join Light workers: 1\n" +
                         "              condition: t2.b=t1.b\n" +
                         "                DataFrame\n" +
                         "                    Row forward scan\n" +
@@ -4954,7 +4966,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: -1<now()::long\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -4970,7 +4982,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: now()::long<0\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5289,7 +5301,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Count\n" +
                             "    Filter filter: T1.event<T2.event\n" +
                             "        Cross Join\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: T3.created=T2.created\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5439,7 +5451,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5459,7 +5471,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x1),count(x)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5715,7 +5727,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5735,7 +5747,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5877,7 +5889,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5897,7 +5909,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -5957,7 +5969,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(resolutIONWidth),count(resolutIONWidth),sum(ResolutionWidth1),count(*)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: h2.id=h1.id\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
@@ -6658,7 +6670,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) ;",
                 "select * from a order by ts desc",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [ts desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -7652,7 +7664,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i asc",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [i]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -7665,7 +7677,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i desc",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [i desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -7713,7 +7725,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc ",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [l desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -696,7 +696,7 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [date_report]\n" +
                             "          values: [min(x),count(*),min(dateadd('d',-1,date_report1))]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: details.x=ordr.x\n" +
                             "                    DataFrame\n" +
                             "                        Row forward scan\n" +
@@ -1101,7 +1101,7 @@ public class GroupByTest extends AbstractCairoTest {
                             "              keys: [x,x1]\n" +
                             "              values: [max(y)]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
@@ -1143,7 +1143,7 @@ public class GroupByTest extends AbstractCairoTest {
                     "        VirtualRecord\n" +
                     "          functions: [x,y,case([1<x,30*x,20*x1]),x1]\n" +
                     "            SelectedRecord\n" +
-                    "                Hash Join Light\n" +
+                    "                Async Hash Join Light workers: 1\n" +
                     "                  condition: t2.y=t1.y\n" +
                     "                    DataFrame\n" +
                     "                        Row forward scan\n" +
@@ -1184,7 +1184,7 @@ public class GroupByTest extends AbstractCairoTest {
                     "        VirtualRecord\n" +
                     "          functions: [x,y,x1,dateadd('d',1677628800000000,x)]\n" +
                     "            SelectedRecord\n" +
-                    "                Hash Join Light\n" +
+                    "                Async Hash Join Light workers: 1\n" +
                     "                  condition: t2.y=t1.y\n" +
                     "                    DataFrame\n" +
                     "                        Row forward scan\n" +
@@ -1230,7 +1230,7 @@ public class GroupByTest extends AbstractCairoTest {
                             "            VirtualRecord\n" +
                             "              functions: [x,y,dateadd('d',1677628800000000,x),x1]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
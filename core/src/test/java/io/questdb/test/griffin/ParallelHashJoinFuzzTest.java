@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// This is not a fuzz test in traditional sense, but it's multi-threaded and we want to run it
+// in CI frequently along with other fuzz tests.
+@RunWith(Parameterized.class)
+public class ParallelHashJoinFuzzTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableParallelHashJoin;
+
+    public ParallelHashJoinFuzzTest(boolean enableParallelHashJoin) {
+        this.enableParallelHashJoin = enableParallelHashJoin;
+    }
+
+    @Parameterized.Parameters(name = "parallel={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        // Set the sharding threshold to a small value to test sharding.
+        groupByShardingThreshold = 2;
+        super.setUp();
+        configOverrideParallelHashJoinEnabled(enableParallelHashJoin);
+    }
+
+    @Test
+    public void testParallelHashJoinEmptySlave() throws Exception {
+        testParallelHashJoin(
+                "SELECT count(*) FROM tab t1 JOIN tab t2 ON t1.x = t2.x WHERE t2.x < 0",
+                "count\n" +
+                        "0\n",
+                "SELECT t1.x, t2.x FROM tab t1 JOIN (tab WHERE ts < '1970-01-01') t2 ON t1.x = t2.x",
+                "x\tx1\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLongKey() throws Exception {
+        testParallelHashJoin(
+                "SELECT t1.x, t1.key, t2.x, t2.sym FROM tab t1 JOIN tab t2 ON t1.x = t2.x LIMIT 5",
+                "x\tkey\tx1\tsym\n" +
+                        "1\tk1\t1\ts1\n" +
+                        "2\tk2\t2\ts2\n" +
+                        "3\tk3\t3\ts0\n" +
+                        "4\tk4\t4\ts1\n" +
+                        "5\tk0\t5\ts2\n",
+                "SELECT count(*), sum(t1.x), sum(t2.x) FROM tab t1 JOIN tab t2 ON t1.x = t2.x",
+                "count\tsum\tsum1\n" +
+                        "4000\t8002000\t8002000\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinMasterOrderPreserved() throws Exception {
+        testParallelHashJoin(
+                "SELECT t1.ts, t1.x, t2.key FROM tab t1 JOIN tab t2 ON t1.x = t2.x LIMIT -3",
+                "ts\tx\tkey\n" +
+                        "1970-01-01T05:33:05.000000Z\t3998\tk3\n" +
+                        "1970-01-01T05:33:10.000000Z\t3999\tk4\n" +
+                        "1970-01-01T05:33:15.000000Z\t4000\tk0\n"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinMultipleMatches() throws Exception {
+        testParallelHashJoin(
+                "SELECT count(*), sum(t1.x), sum(t2.x) FROM tab t1 JOIN tab t2 ON t1.key = t2.key",
+                "count\tsum\tsum1\n" +
+                        "3200000\t6401600000\t6401600000\n",
+                "SELECT t1.sym, count(*) FROM tab t1 JOIN tab t2 ON t1.sym = t2.sym ORDER BY 1",
+                "sym\tcount\n" +
+                        "s0\t1776889\n" +
+                        "s1\t1779556\n" +
+                        "s2\t1776889\n",
+                "SELECT t1.x, t2.x FROM tab t1 JOIN tab t2 ON t1.key = t2.key WHERE t1.x = 1 LIMIT 3",
+                "x\tx1\n" +
+                        "1\t1\n" +
+                        "1\t6\n" +
+                        "1\t11\n"
+        );
+    }
+
+    private static void assertQueries(CairoEngine engine, SqlExecutionContext sqlExecutionContext, String... queriesAndExpectedResults) throws SqlException {
+        for (int i = 0, n = queriesAndExpectedResults.length; i < n; i += 2) {
+            final String query = queriesAndExpectedResults[i];
+            final String expected = queriesAndExpectedResults[i + 1];
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    query,
+                    sink,
+                    expected
+            );
+        }
+    }
+
+    private void testParallelHashJoin(String... queriesAndExpectedResults) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " x," +
+                                        " 'k' || (x % 5) key," +
+                                        " cast('s' || (x % 3) as symbol) sym," +
+                                        " timestamp_sequence(0, 5000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                                sqlExecutionContext
+                        );
+                        assertQueries(engine, sqlExecutionContext, queriesAndExpectedResults);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// This is not a fuzz test in traditional sense, but it's multi-threaded and we want to run it
+// in CI frequently along with other fuzz tests.
+@RunWith(Parameterized.class)
+public class ParallelLatestByFuzzTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableParallelLatestBy;
+
+    public ParallelLatestByFuzzTest(boolean enableParallelLatestBy) {
+        this.enableParallelLatestBy = enableParallelLatestBy;
+    }
+
+    @Parameterized.Parameters(name = "parallel={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelLatestByEnabled(enableParallelLatestBy);
+    }
+
+    @Test
+    public void testParallelLatestByEmpty() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, s FROM tab WHERE x < 0 LATEST ON ts PARTITION BY s",
+                "x\ts\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByInterval() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, s FROM tab WHERE ts < '1970-01-01T01' LATEST ON ts PARTITION BY s",
+                "x\ts\n" +
+                        "716\tk1\n" +
+                        "717\tk2\n" +
+                        "718\tk3\n" +
+                        "719\tk4\n" +
+                        "720\tk0\n",
+                "SELECT x, k FROM tab WHERE ts < '1970-01-01T01' AND x % 2 = 0 LATEST ON ts PARTITION BY k",
+                "x\tk\n" +
+                        "708\t1\n" +
+                        "710\t3\n" +
+                        "712\t5\n" +
+                        "714\t0\n" +
+                        "716\t2\n" +
+                        "718\t4\n" +
+                        "720\t6\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByJavaFilter() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, k FROM tab WHERE str LIKE '%1' LATEST ON ts PARTITION BY k",
+                "x\tk\n" +
+                        "3931\t4\n" +
+                        "3941\t0\n" +
+                        "3951\t3\n" +
+                        "3961\t6\n" +
+                        "3971\t2\n" +
+                        "3981\t5\n" +
+                        "3991\t1\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByManySymbols() throws Exception {
+        // symbol combinations don't fit into a single page frame, so the parallel scan is used
+        testParallelLatestBy(
+                "SELECT count(), min(x), max(x) FROM (SELECT x, v FROM tab LATEST ON ts PARTITION BY v)",
+                "count\tmin\tmax\n" +
+                        "250\t3751\t4000\n",
+                "SELECT count(), min(x), max(x) FROM (SELECT x, v FROM tab WHERE x % 2 = 0 LATEST ON ts PARTITION BY v)",
+                "count\tmin\tmax\n" +
+                        "125\t3752\t4000\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByMultipleKeys() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, s, b FROM tab LATEST ON ts PARTITION BY s, b",
+                "x\ts\tb\n" +
+                        "3991\tk1\t1\n" +
+                        "3992\tk2\t0\n" +
+                        "3993\tk3\t1\n" +
+                        "3994\tk4\t0\n" +
+                        "3995\tk0\t1\n" +
+                        "3996\tk1\t0\n" +
+                        "3997\tk2\t1\n" +
+                        "3998\tk3\t0\n" +
+                        "3999\tk4\t1\n" +
+                        "4000\tk0\t0\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByNoFilter() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, s FROM tab LATEST ON ts PARTITION BY s",
+                "x\ts\n" +
+                        "3996\tk1\n" +
+                        "3997\tk2\n" +
+                        "3998\tk3\n" +
+                        "3999\tk4\n" +
+                        "4000\tk0\n",
+                "SELECT x, k FROM tab LATEST ON ts PARTITION BY k",
+                "x\tk\n" +
+                        "3994\t4\n" +
+                        "3995\t5\n" +
+                        "3996\t6\n" +
+                        "3997\t0\n" +
+                        "3998\t1\n" +
+                        "3999\t2\n" +
+                        "4000\t3\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByOldestRows() throws Exception {
+        // the only rows of a key are in the oldest frame, so the whole table is scanned
+        testParallelLatestBy(
+                "SELECT x, s FROM tab WHERE x < 3 OR x > 3998 LATEST ON ts PARTITION BY s",
+                "x\ts\n" +
+                        "1\tk1\n" +
+                        "2\tk2\n" +
+                        "3999\tk4\n" +
+                        "4000\tk0\n"
+        );
+    }
+
+    @Test
+    public void testParallelLatestByVectorFilter() throws Exception {
+        testParallelLatestBy(
+                "SELECT x, s FROM tab WHERE x % 2 = 0 LATEST ON ts PARTITION BY s",
+                "x\ts\n" +
+                        "3992\tk2\n" +
+                        "3994\tk4\n" +
+                        "3996\tk1\n" +
+                        "3998\tk3\n" +
+                        "4000\tk0\n",
+                "SELECT x, s FROM tab WHERE s = 'k3' AND x < 1000 LATEST ON ts PARTITION BY s",
+                "x\ts\n" +
+                        "998\tk3\n"
+        );
+    }
+
+    private static void assertQueries(CairoEngine engine, SqlExecutionContext sqlExecutionContext, String... queriesAndExpectedResults) throws SqlException {
+        for (int i = 0, n = queriesAndExpectedResults.length; i < n; i += 2) {
+            final String query = queriesAndExpectedResults[i];
+            final String expected = queriesAndExpectedResults[i + 1];
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    query,
+                    sink,
+                    expected
+            );
+        }
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table tab as (select" +
+                        " x," +
+                        " cast('k' || (x % 5) as symbol) s," +
+                        " cast(x % 7 as int) k," +
+                        " cast(x % 2 as byte) b," +
+                        " cast('v' || (x % 250) as symbol) v," +
+                        " cast(x as string) str," +
+                        " timestamp_sequence(0, 5000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelLatestBy(String... queriesAndExpectedResults) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(compiler, sqlExecutionContext);
+                        assertQueries(engine, sqlExecutionContext, queriesAndExpectedResults);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
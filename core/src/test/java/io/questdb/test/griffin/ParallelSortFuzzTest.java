@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// This is not a fuzz test in traditional sense, but it's multi-threaded and we want to run it
+// in CI frequently along with other fuzz tests.
+@RunWith(Parameterized.class)
+public class ParallelSortFuzzTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableParallelSort;
+
+    public ParallelSortFuzzTest(boolean enableParallelSort) {
+        this.enableParallelSort = enableParallelSort;
+    }
+
+    @Parameterized.Parameters(name = "parallel={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelSortEnabled(enableParallelSort);
+    }
+
+    @Test
+    public void testParallelSortAscStable() throws Exception {
+        testParallelSort(
+                "SELECT * FROM (SELECT x, k FROM tab ORDER BY k) LIMIT 5",
+                "x\tk\n" +
+                        "7\t0\n" +
+                        "14\t0\n" +
+                        "21\t0\n" +
+                        "28\t0\n" +
+                        "35\t0\n",
+                "SELECT * FROM (SELECT x, k FROM tab ORDER BY k) LIMIT -3",
+                "x\tk\n" +
+                        "3982\t6\n" +
+                        "3989\t6\n" +
+                        "3996\t6\n"
+        );
+    }
+
+    @Test
+    public void testParallelSortDescStable() throws Exception {
+        testParallelSort(
+                "SELECT * FROM (SELECT x, k FROM tab ORDER BY k DESC) LIMIT 3",
+                "x\tk\n" +
+                        "6\t6\n" +
+                        "13\t6\n" +
+                        "20\t6\n",
+                "SELECT * FROM (SELECT x, b FROM tab ORDER BY b DESC) LIMIT 2",
+                "x\tb\n" +
+                        "2\t2\n" +
+                        "5\t2\n"
+        );
+    }
+
+    @Test
+    public void testParallelSortEmpty() throws Exception {
+        testParallelSort(
+                "SELECT x, k FROM tab WHERE ts < '1970-01-01' ORDER BY k",
+                "x\tk\n"
+        );
+    }
+
+    @Test
+    public void testParallelSortMatchesCompositeSort() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(compiler, sqlExecutionContext);
+                        // Equal keys must come in the scan order, i.e. ordered by x.
+                        final StringSink expected = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "SELECT x, n FROM tab ORDER BY n DESC, x", expected);
+                        TestUtils.assertSql(engine, sqlExecutionContext, "SELECT x, n FROM tab ORDER BY n DESC", sink, expected);
+                        expected.clear();
+                        TestUtils.printSql(engine, sqlExecutionContext, "SELECT x, ts FROM tab ORDER BY neg, x", expected);
+                        TestUtils.assertSql(engine, sqlExecutionContext, "SELECT x, ts FROM tab ORDER BY neg", sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSortNulls() throws Exception {
+        testParallelSort(
+                "SELECT * FROM (SELECT x, n FROM tab ORDER BY n) LIMIT 3",
+                "x\tn\n" +
+                        "10\tNaN\n" +
+                        "20\tNaN\n" +
+                        "30\tNaN\n",
+                "SELECT * FROM (SELECT x, n FROM tab ORDER BY n DESC) LIMIT -2",
+                "x\tn\n" +
+                        "3990\tNaN\n" +
+                        "4000\tNaN\n"
+        );
+    }
+
+    @Test
+    public void testParallelSortSignedKeys() throws Exception {
+        testParallelSort(
+                "SELECT * FROM (SELECT x, neg FROM tab ORDER BY neg) LIMIT 2",
+                "x\tneg\n" +
+                        "4000\t-4000\n" +
+                        "3999\t-3999\n",
+                "SELECT * FROM (SELECT ts FROM tab ORDER BY ts DESC) LIMIT 2",
+                "ts\n" +
+                        "1970-01-01T05:33:15.000000Z\n" +
+                        "1970-01-01T05:33:10.000000Z\n"
+        );
+    }
+
+    private static void assertQueries(CairoEngine engine, SqlExecutionContext sqlExecutionContext, String... queriesAndExpectedResults) throws SqlException {
+        for (int i = 0, n = queriesAndExpectedResults.length; i < n; i += 2) {
+            final String query = queriesAndExpectedResults[i];
+            final String expected = queriesAndExpectedResults[i + 1];
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    query,
+                    sink,
+                    expected
+            );
+        }
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table tab as (select" +
+                        " x," +
+                        " -x neg," +
+                        " cast(x % 7 as int) k," +
+                        " cast(x % 3 as byte) b," +
+                        " case when x % 10 = 0 then null else cast(x % 7 as int) end n," +
+                        " timestamp_sequence(0, 5000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelSort(String... queriesAndExpectedResults) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(compiler, sqlExecutionContext);
+                        assertQueries(engine, sqlExecutionContext, queriesAndExpectedResults);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,425 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Zip;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.cairo.DefaultTestCairoConfiguration;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParquetTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputRoot = TestUtils.unchecked(() -> temp.newFolder("parquet" + System.nanoTime()).getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+        // gzip header is allocated once, it must not count as a leak of the first conversion
+        Zip.init();
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(3)) timestamp(ts) partition by day");
+            ddl("alter table x add column s string");
+            ddl("alter table x add column k symbol");
+            ddl("alter table x add column l long");
+            insert("insert into x values (4, '2023-01-01T03:00:00.000000Z', 'abc', 'foo', 42)");
+            insert("insert into x values (5, '2023-01-02T00:00:00.000000Z', 'def', 'bar', 43)");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            assertSql(
+                    "x\tts\ts\tk\tl\n" +
+                            "1\t2023-01-01T00:00:00.000000Z\t\t\tNaN\n" +
+                            "2\t2023-01-01T01:00:00.000000Z\t\t\tNaN\n" +
+                            "3\t2023-01-01T02:00:00.000000Z\t\t\tNaN\n" +
+                            "4\t2023-01-01T03:00:00.000000Z\tabc\tfoo\t42\n" +
+                            "5\t2023-01-02T00:00:00.000000Z\tdef\tbar\t43\n",
+                    "x"
+            );
+            assertSql(
+                    "x\tk\n" +
+                            "4\tfoo\n",
+                    "select x, k from x where k = 'foo'"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(30)) timestamp(ts) partition by day");
+            assertException(
+                    "alter table x convert partition to parquet list '2023-01-02'",
+                    48,
+                    "cannot convert active partition"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertAgedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            final CairoConfiguration parquetConfiguration = new DefaultTestCairoConfiguration(root) {
+                @Override
+                public long getPartitionParquetAge() {
+                    return Timestamps.DAY_MICROS;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(parquetConfiguration);
+                    SqlExecutionContext ctx = TestUtils.createSqlExecutionCtx(engine)
+            ) {
+                engine.ddl("create table x as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)) timestamp(ts) partition by day", ctx);
+                // a single partition is converted per commit
+                assertSql(
+                        engine,
+                        ctx,
+                        "select name, numRows, readOnly from table_partitions('x')",
+                        "name\tnumRows\treadOnly\n" +
+                                "1970-01-01\t24\ttrue\n" +
+                                "1970-01-02\t24\tfalse\n" +
+                                "1970-01-03\t24\tfalse\n" +
+                                "1970-01-04\t24\tfalse\n" +
+                                "1970-01-05\t24\tfalse\n"
+                );
+
+                engine.insert("insert into x values (121, '1970-01-05T23:30')", ctx);
+                engine.insert("insert into x values (122, '1970-01-05T23:40')", ctx);
+                engine.insert("insert into x values (123, '1970-01-05T23:50')", ctx);
+                // partitions older than a day, counting from the latest row, are converted
+                assertSql(
+                        engine,
+                        ctx,
+                        "select name, numRows, readOnly from table_partitions('x')",
+                        "name\tnumRows\treadOnly\n" +
+                                "1970-01-01\t24\ttrue\n" +
+                                "1970-01-02\t24\ttrue\n" +
+                                "1970-01-03\t24\ttrue\n" +
+                                "1970-01-04\t24\tfalse\n" +
+                                "1970-01-05\t27\tfalse\n"
+                );
+                assertSql(engine, ctx, "select min(ts), count(), sum(x) from x", "min\tcount\tsum\n1970-01-01T00:00:00.000000Z\t123\t7626\n");
+            }
+        });
+    }
+
+    @Test
+    public void testConvertAllTypes() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (" +
+                    "select" +
+                    " rnd_boolean() b," +
+                    " rnd_byte() bt," +
+                    " rnd_short() sh," +
+                    " rnd_char() ch," +
+                    " rnd_int(0, 1000, 2) i," +
+                    " rnd_long(0, 1000, 2) l," +
+                    " rnd_float(2) f," +
+                    " rnd_double(2) d," +
+                    " rnd_str(3, 10, 2) s," +
+                    " rnd_symbol('a', 'bb', 'ccc', null) sym," +
+                    " rnd_date(to_date('2022', 'yyyy'), to_date('2024', 'yyyy'), 2) dt," +
+                    " timestamp_sequence('2023-01-01', 10 * 60 * 1000000L) ts" +
+                    " from long_sequence(300)" +
+                    ") timestamp(ts) partition by day");
+            ddl("create table y as (select * from x) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01', '2023-01-02'");
+
+            assertSql(
+                    "name\tnumRows\treadOnly\n" +
+                            "2023-01-01\t144\ttrue\n" +
+                            "2023-01-02\t144\ttrue\n" +
+                            "2023-01-03\t12\tfalse\n",
+                    "select name, numRows, readOnly from table_partitions('x')"
+            );
+            assertSqlCursors("y", "x");
+            assertSqlCursors("select * from y where sym = 'bb'", "select * from x where sym = 'bb'");
+            assertSqlCursors("select sym, count(), sum(l), max(s) from y order by 1", "select sym, count(), sum(l), max(s) from x order by 1");
+
+            // column files are replaced with the Parquet file
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path()) {
+                setPathForPartition(path, "x", 0);
+                final int plen = path.size();
+                Assert.assertTrue(ff.exists(path.concat(TableUtils.PARQUET_PARTITION_NAME).$()));
+                Assert.assertFalse(ff.exists(path.trimTo(plen).concat("l.d").$()));
+            }
+        });
+    }
+
+    @Test
+    public void testConvertEncodedValues() throws Exception {
+        assertMemoryLeak(() -> {
+            // full range longs overflow deltas, values of the same sign share bytes after stream split
+            ddl("create table x as (" +
+                    "select" +
+                    " rnd_long() l," +
+                    " rnd_long(-5, 5, 2) l2," +
+                    " rnd_int() i," +
+                    " rnd_float(2) f," +
+                    " rnd_double() d," +
+                    " cast(x * 1000 as date) dt," +
+                    " timestamp_sequence('2023-01-01', 1000000L) ts" +
+                    " from long_sequence(100000)" +
+                    ") timestamp(ts) partition by day");
+            ddl("create table y as (select * from x) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            assertSqlCursors("y", "x");
+            assertSqlCursors("select * from y where ts in '2023-01-01' limit -3", "select * from x where ts in '2023-01-01' limit -3");
+        });
+    }
+
+    @Test
+    public void testConvertIndexedSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, rnd_symbol('a', 'b', 'c') sym, timestamp_sequence('2023-01-01', 10 * 60 * 1000000L) ts from long_sequence(300))," +
+                    " index(sym) timestamp(ts) partition by day");
+            ddl("create table y as (select * from x), index(sym) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            assertSqlCursors("select * from y where sym = 'b'", "select * from x where sym = 'b'");
+            assertSqlCursors("select * from y latest on ts partition by sym", "select * from x latest on ts partition by sym");
+        });
+    }
+
+    @Test
+    public void testConvertIsCompact() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 1000000L) ts from long_sequence(100000)) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            // constant steps of delta encoded values pack into no bits at all
+            try (Path path = new Path()) {
+                setPathForPartition(path, "x", 0);
+                final long size = configuration.getFilesFacade().length(path.concat(TableUtils.PARQUET_PARTITION_NAME).$());
+                Assert.assertTrue("size=" + size, size < 16 * 1024);
+            }
+            assertSql(
+                    "count\tsum\tmin\tmax\n" +
+                            "86400\t3732523200\t2023-01-01T00:00:00.000000Z\t2023-01-01T23:59:59.000000Z\n",
+                    "select count(), sum(x), min(ts), max(ts) from x where ts in '2023-01-01'"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertIsCompactForSlowlyChangingDoubles() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select round(100.0 + sin(x / 1000.0) * 10, 2) d, timestamp_sequence('2023-01-01', 1000000L) ts from long_sequence(100000)) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            // sign, exponent and high mantissa bytes are split into their own streams, which compress into runs
+            try (Path path = new Path()) {
+                setPathForPartition(path, "x", 0);
+                final long size = configuration.getFilesFacade().length(path.concat(TableUtils.PARQUET_PARTITION_NAME).$());
+                // the file is several times smaller than the 8-byte values it holds
+                Assert.assertTrue("size=" + size, size < 86400 * Double.BYTES / 8);
+            }
+            assertSql(
+                    "count\tsum\tmin\tmax\n" +
+                            "86400\t8649934.930000003\t90.0\t110.0\n",
+                    "select count(), sum(d), min(d), max(d) from x where ts in '2023-01-01'"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertIsIdempotent() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(30)) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            assertSql(
+                    "count\tsum\n" +
+                            "30\t465\n",
+                    "select count(), sum(x) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertMissingPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(30)) timestamp(ts) partition by day");
+            assertException(
+                    "alter table x convert partition to parquet list '2022-12-30'",
+                    48,
+                    "could not convert partition"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertNonPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 1000000L) ts from long_sequence(3)) timestamp(ts)");
+            assertException(
+                    "alter table x convert partition to parquet list '2023-01-01'",
+                    35,
+                    "table is not partitioned"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertSyntax() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 1000000L) ts from long_sequence(3)) timestamp(ts) partition by day");
+            assertException("alter table x convert", 21, "'partition' expected");
+            assertException("alter table x convert partition to csv", 35, "'parquet' expected");
+            assertException("alter table x convert partition to parquet '2023-01-01'", 43, "'list' or 'where' expected");
+            assertException("alter table x convert partition to parquet where ts > 0", 35, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+            assertException("alter table x convert partition to parquet list '2023-01-01',", 61, "partition name expected");
+            assertException("alter table x convert partition to parquet list '2023-01'", 48, "'yyyy-MM-dd' expected");
+        });
+    }
+
+    @Test
+    public void testConvertUnsupportedType() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_uuid4() u, timestamp_sequence('2023-01-01', 1000000L) ts from long_sequence(3)) timestamp(ts) partition by day");
+            assertException(
+                    "alter table x convert partition to parquet list '2023-01-01'",
+                    35,
+                    "unsupported column type for Parquet export [column=u, type=UUID]"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertedPartitionIsReadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(30)) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            // rows are not written to Parquet partitions
+            insert("insert into x values (0, '2023-01-01T12:30')");
+            insert("insert into x values (31, '2023-01-02T12:30')");
+            assertSql(
+                    "count\tsum\n" +
+                            "31\t496\n",
+                    "select count(), sum(x) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testReadParquetDisabled() throws Exception {
+        final String root = inputRoot;
+        inputRoot = null;
+        try {
+            assertMemoryLeak(() -> assertException(
+                    "select * from read_parquet('x/2023-01-01.parquet')",
+                    14,
+                    "read_parquet is disabled ['cairo.sql.copy.root' is not set?]"
+            ));
+        } finally {
+            inputRoot = root;
+        }
+    }
+
+    @Test
+    public void testReadParquetDotsNotAllowed() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "select * from read_parquet('../x.parquet')",
+                27,
+                "'..' is not allowed"
+        ));
+    }
+
+    @Test
+    public void testReadParquetFileDoesNotExist() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "select * from read_parquet('y.parquet')",
+                27,
+                "could not open"
+        ));
+    }
+
+    @Test
+    public void testReadParquetRowGroups() throws Exception {
+        pageFrameMaxRows = 100;
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, rnd_symbol('a', 'b', 'c') sym, timestamp_sequence('2023-01-01', 10000000L) ts from long_sequence(10000)) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            try (Path path = new Path(); Path other = new Path()) {
+                setPathForPartition(path, "x", 0);
+                other.of(inputRoot).concat("x.parquet").$();
+                Assert.assertEquals(0, configuration.getFilesFacade().copy(path.concat(TableUtils.PARQUET_PARTITION_NAME).$(), other));
+            }
+
+            assertSql(
+                    "count\tsum\n" +
+                            "8640\t37329120\n",
+                    "select count(), sum(x) from read_parquet('x.parquet')"
+            );
+            assertSqlCursors(
+                    "select x, sym::string sym, ts from x where ts in '2023-01-01' and x % 7 = 0 and sym = 'b'",
+                    "select * from read_parquet('x.parquet') where x % 7 = 0 and sym = 'b'"
+            );
+            assertSqlCursors(
+                    "select sym::string sym, count() from x where ts in '2023-01-01' order by 1",
+                    "select sym, count() from read_parquet('x.parquet') order by 1"
+            );
+            assertSql(
+                    "x\tts\n" +
+                            "8640\t2023-01-01T23:59:50.000000Z\n",
+                    "select x, ts from read_parquet('x.parquet') limit -1"
+            );
+        });
+    }
+
+    @Test
+    public void testRenameColumnAfterConvert() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, rnd_str(3, 10, 2) s, timestamp_sequence('2023-01-01', 60 * 60 * 1000000L) ts from long_sequence(30)) timestamp(ts) partition by day");
+            ddl("create table y as (select * from x) timestamp(ts) partition by day");
+            ddl("alter table x convert partition to parquet list '2023-01-01'");
+            ddl("alter table x rename column s to s2");
+            ddl("alter table x drop column x");
+            assertSqlCursors("select s s2, ts from y", "x");
+        });
+    }
+
+    private static void assertSql(CairoEngine engine, SqlExecutionContext ctx, String sql, String expected) throws Exception {
+        TestUtils.assertSql(engine, ctx, sql, new StringSink(), expected);
+    }
+
+    private static void setPathForPartition(Path path, String tableName, int partitionIndex) {
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        try (TxReader txReader = new TxReader(configuration.getFilesFacade())) {
+            txReader.ofRO(path.of(configuration.getRoot()).concat(tableToken).concat(TableUtils.TXN_FILE_NAME).$(), PartitionBy.DAY);
+            txReader.unsafeLoadAll();
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, PartitionBy.DAY, txReader.getPartitionTimestampByIndex(partitionIndex), txReader.getPartitionNameTxn(partitionIndex));
+        }
+    }
+}
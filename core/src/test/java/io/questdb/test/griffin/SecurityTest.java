@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.security.ReadOnlySecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.griffin.SqlCompiler;
@@ -110,6 +111,20 @@ public class SecurityTest extends AbstractCairoTest {
                 // so we make sure to use a single-threaded factory in this test.
                 return false;
             }
+
+            @Override
+            public boolean isSqlParallelHashJoinEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelLatestByEnabled() {
+                // Async factories use a special circuit breaker (see PageFrameSequence),
+                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionCircuitBreaker dummyCircuitBreaker = new SqlExecutionCircuitBreaker() {
@@ -390,6 +405,27 @@ public class SecurityTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCopyExportDeniedOnNoWriteAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table balances(cust_id int, ccy symbol, balance double)");
+            memoryRestrictedEngine.reloadTableNames();
+            try {
+                assertException("copy balances to 'balances.csv'", readOnlyExecutionContext);
+            } catch (CairoException ex) {
+                TestUtils.assertContains(ex.toString(), "permission denied");
+            }
+
+            // factory compiled by a privileged user cannot be executed by a read-only one
+            try (RecordCursorFactory factory = select("copy balances to 'balances.csv'")) {
+                factory.getCursor(readOnlyExecutionContext);
+                Assert.fail();
+            } catch (CairoException ex) {
+                TestUtils.assertContains(ex.toString(), "permission denied");
+            }
+        });
+    }
+
     @Test
     public void testCreateTableDeniedOnNoWriteAccess() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TtlTest extends AbstractCairoTest {
+
+    @Test
+    public void testAlterSetParam() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)) timestamp(ts) partition by day");
+            assertSql("min\tcount\n1970-01-01T00:00:00.000000Z\t120\n", "select min(ts), count() from x");
+
+            // expired partitions are dropped straight away
+            ddl("alter table x set param ttl = 2d");
+            assertSql("min\tcount\n1970-01-03T00:00:00.000000Z\t72\n", "select min(ts), count() from x");
+            assertSql("count\n3\n", "select count() from table_partitions('x')");
+
+            ddl("alter table x add column y int");
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(2 * Timestamps.DAY_MICROS, reader.getMetadata().getTtl());
+            }
+
+            insert("insert into x (x, ts) values (121, '1970-01-06T12:00')");
+            assertSql("min\tcount\n1970-01-04T00:00:00.000000Z\t49\n", "select min(ts), count() from x");
+
+            // zero ttl switches expiry off
+            ddl("alter table x set param ttl = 0h");
+            insert("insert into x (x, ts) values (122, '1970-01-20')");
+            assertSql("min\tcount\n1970-01-04T00:00:00.000000Z\t50\n", "select min(ts), count() from x");
+        });
+    }
+
+    @Test
+    public void testAlterSetParamNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (x int, ts timestamp) timestamp(ts)");
+            assertException("alter table x set param ttl = 1d", 12, "TTL is supported only on partitioned tables", sqlExecutionContext);
+            assertException("alter table x set param ttl = 1y", 26, "invalid interval qualifier", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testCreateLike() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (x int, ts timestamp) timestamp(ts) partition by hour with ttl = 12h");
+            ddl("create table y (like x)");
+            try (TableReader reader = getReader("y")) {
+                Assert.assertEquals(12 * Timestamps.HOUR_MICROS, reader.getMetadata().getTtl());
+            }
+        });
+    }
+
+    @Test
+    public void testCreateNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "create table x (x int, ts timestamp) timestamp(ts) with ttl = 1d",
+                56,
+                "TTL is supported only on partitioned tables",
+                sqlExecutionContext
+        ));
+    }
+
+    @Test
+    public void testCreateWithTtl() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (x long, ts timestamp) timestamp(ts) partition by day with ttl = 2d");
+            insert("insert into x select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)");
+            assertSql("min\tcount\n1970-01-03T00:00:00.000000Z\t72\n", "select min(ts), count() from x");
+
+            // out-of-order rows into an expired partition do not survive the commit
+            insert("insert into x values (0, '1970-01-01T12:00')");
+            assertSql("min\tcount\n1970-01-03T00:00:00.000000Z\t72\n", "select min(ts), count() from x");
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (x long, ts timestamp) timestamp(ts) partition by day wal with ttl = 1d");
+            insert("insert into x select x, timestamp_sequence(0, 3600000000) ts from long_sequence(120)");
+            drainWalQueue();
+            assertSql("min\tcount\n1970-01-04T00:00:00.000000Z\t48\n", "select min(ts), count() from x");
+
+            ddl("alter table x set param ttl = 10d");
+            insert("insert into x values (0, '1970-01-01T12:00')");
+            drainWalQueue();
+            assertSql("min\tcount\n1970-01-01T12:00:00.000000Z\t49\n", "select min(ts), count() from x");
+            Assert.assertFalse(engine.getTableSequencerAPI().isSuspended(engine.verifyTableName("x")));
+        });
+    }
+}
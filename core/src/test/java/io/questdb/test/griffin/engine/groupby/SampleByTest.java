@@ -2472,6 +2472,93 @@ public class SampleByTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testSampleByAlignToCalendarRewrittenToParallelGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as " +
+                    "(" +
+                    "select" +
+                    " rnd_symbol('a','b') s," +
+                    " rnd_double(0)*100 a," +
+                    " timestamp_sequence(172800000000, 300000000) k" +
+                    " from" +
+                    " long_sequence(100)" +
+                    ") timestamp(k) partition by DAY");
+
+            final String query = "select k, s, sum(a), count() from x sample by 90m align to calendar with offset '00:42'";
+            assertPlan(
+                    query,
+                    "Sort light\n" +
+                            "  keys: [k]\n" +
+                            "    Async Group By workers: 1\n" +
+                            "      keys: [k,s]\n" +
+                            "      values: [sum(a),count(*)]\n" +
+                            "      filter: null\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+
+            assertQuery(
+                    "k\ts\tsum\tcount\n" +
+                            "1970-01-02T23:12:00.000000Z\ta\t304.83577774683437\t5\n" +
+                            "1970-01-02T23:12:00.000000Z\tb\t185.9271079026153\t4\n" +
+                            "1970-01-03T00:42:00.000000Z\ta\t330.13395723701115\t5\n" +
+                            "1970-01-03T00:42:00.000000Z\tb\t795.3812464030523\t13\n" +
+                            "1970-01-03T02:12:00.000000Z\ta\t388.2932300413773\t9\n" +
+                            "1970-01-03T02:12:00.000000Z\tb\t607.1918593305926\t9\n" +
+                            "1970-01-03T03:42:00.000000Z\ta\t438.612394745924\t8\n" +
+                            "1970-01-03T03:42:00.000000Z\tb\t467.7219073015931\t10\n" +
+                            "1970-01-03T05:12:00.000000Z\ta\t355.98555617738845\t11\n" +
+                            "1970-01-03T05:12:00.000000Z\tb\t341.622309486865\t7\n" +
+                            "1970-01-03T06:42:00.000000Z\ta\t465.88607444019016\t12\n" +
+                            "1970-01-03T06:42:00.000000Z\tb\t323.804604967406\t6\n" +
+                            "1970-01-03T08:12:00.000000Z\tb\t95.820305972778\t1\n",
+                    query + " order by k, s",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSampleByAlignToCalendarSingleThreadedFunctionNotRewritten() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as " +
+                    "(" +
+                    "select" +
+                    " rnd_symbol('a','b') s," +
+                    " rnd_int(0, 10, 0) i," +
+                    " timestamp_sequence(172800000000, 300000000) k" +
+                    " from" +
+                    " long_sequence(100)" +
+                    ") timestamp(k) partition by DAY");
+
+            // count_distinct(int) runs in parallel, count_distinct(symbol) does not
+            assertPlan(
+                    "select k, count_distinct(i) from x sample by 1h align to calendar",
+                    "Sort light\n" +
+                            "  keys: [k]\n" +
+                            "    Async Group By workers: 1\n" +
+                            "      keys: [k]\n" +
+                            "      values: [count_distinct(i)]\n" +
+                            "      filter: null\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+            assertPlan(
+                    "select k, count_distinct(s) from x sample by 1h align to calendar",
+                    "SampleBy\n" +
+                            "  values: [count_distinct(s)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
     @Test
     public void testSampleByAlignToCalendarWithoutTimezoneNorOffsetAndLimit() throws Exception {
         assertQuery("k\tcount\n" +
@@ -2484,7 +2571,7 @@ public class SampleByTest extends AbstractCairoTest {
                         " timestamp_sequence(172800000001, 3600000000) k" +
                         " from" +
                         " long_sequence(20)" +
-                        ") timestamp(k) partition by NONE", "k", false, false
+                        ") timestamp(k) partition by NONE", "k", true, true
         );
     }
 
@@ -3614,8 +3701,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 "k",
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -3641,8 +3728,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 "k",
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4915,6 +5002,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "UVSD\t49.42890511958454\t1970-01-04T06:30:00.000000Z\n" +
                         "\t58.912164838797885\t1970-01-04T07:30:00.000000Z\n" +
                         "KGHV\t67.52509547112409\t1970-01-04T08:30:00.000000Z\n",
+                true,
+                true,
                 false
         );
     }
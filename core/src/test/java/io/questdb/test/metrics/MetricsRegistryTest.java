@@ -27,6 +27,7 @@ package io.questdb.test.metrics;
 import io.questdb.metrics.*;
 import io.questdb.std.str.DirectUtf8Sink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class MetricsRegistryTest {
@@ -108,6 +109,35 @@ public class MetricsRegistryTest {
         assertScrapable(gauge, expected2);
     }
 
+    @Test
+    public void testHistogram() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        LongHistogram histogram = metricsRegistry.newLongHistogram("latency", new long[]{10, 100, 1000});
+
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(1000);
+        histogram.record(5000);
+
+        String expected = "# TYPE questdb_latency histogram\n" +
+                "questdb_latency_bucket{le=\"10\"} 2\n" +
+                "questdb_latency_bucket{le=\"100\"} 3\n" +
+                "questdb_latency_bucket{le=\"1000\"} 4\n" +
+                "questdb_latency_bucket{le=\"+Inf\"} 5\n" +
+                "questdb_latency_sum 6026\n" +
+                "questdb_latency_count 5\n" +
+                "\n";
+        assertScrapable(histogram, expected);
+        Assert.assertEquals(5, histogram.getCount());
+        Assert.assertEquals(6026, histogram.getSum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHistogramUnorderedBounds() {
+        new MetricsRegistryImpl().newLongHistogram("latency", new long[]{10, 10, 100});
+    }
+
     @Test
     public void testNullCounter() {
         MetricsRegistry metricsRegistry = new NullMetricsRegistry();
@@ -130,6 +160,16 @@ public class MetricsRegistryTest {
         assetNull(gauge);
     }
 
+    @Test
+    public void testNullHistogram() {
+        MetricsRegistry metricsRegistry = new NullMetricsRegistry();
+        LongHistogram histogram = metricsRegistry.newLongHistogram("latency", LongHistogram.LATENCY_MICROS_BUCKETS);
+
+        histogram.record(42);
+        assetNull(histogram);
+        Assert.assertEquals(0, histogram.getCount());
+    }
+
     private static void assertScrapable(Scrapable scrapable, CharSequence expected) {
         try (DirectUtf8Sink sink = new DirectUtf8Sink(32)) {
             scrapable.scrapeIntoPrometheus(sink);
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.mp;
+
+import io.questdb.Metrics;
+import io.questdb.mp.Job;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Os;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.test.tools.TestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class WorkerTest {
+
+    @Test
+    public void testHighPriorityJobRunsBetweenBusyJobRuns() {
+        final StringBuilder runs = new StringBuilder();
+        final SOCountDownLatch latch = new SOCountDownLatch(1);
+        final WorkerPool pool = new TestWorkerPool(1);
+        pool.assign(new Job() {
+            private int count;
+
+            @Override
+            public boolean run(int workerId, @NotNull RunStatus runStatus) {
+                if (++count < 4) {
+                    runs.append('N');
+                    return true;
+                }
+                if (count == 4) {
+                    runs.append('N');
+                    latch.countDown();
+                }
+                return false;
+            }
+        });
+        pool.assign(new Job() {
+            @Override
+            public int getPriority() {
+                return PRIORITY_HIGH;
+            }
+
+            @Override
+            public boolean run(int workerId, @NotNull RunStatus runStatus) {
+                if (latch.getCount() > 0) {
+                    runs.append('H');
+                }
+                return false;
+            }
+        });
+        pool.start();
+        try {
+            Assert.assertTrue(latch.await(TimeUnit.SECONDS.toNanos(30)));
+        } finally {
+            pool.halt();
+        }
+        // high priority job runs first in the loop and after each busy run of the normal job
+        Assert.assertEquals("HNHHNHHNHHN", runs.toString());
+    }
+
+    @Test
+    public void testJobRunMicros() {
+        final Metrics metrics = Metrics.enabled();
+        final SOCountDownLatch latch = new SOCountDownLatch(1);
+        final WorkerPool pool = new TestWorkerPool(2, metrics);
+        pool.assign(new SleepyJob(latch));
+        pool.start();
+        try {
+            Assert.assertTrue(latch.await(TimeUnit.SECONDS.toNanos(30)));
+        } finally {
+            pool.halt();
+        }
+
+        // both workers ran the job, but only one of them slept
+        Assert.assertTrue(metrics.workerMetrics().jobRunMicros("SleepyJob").sum() >= 10_000);
+        try (DirectUtf8Sink sink = new DirectUtf8Sink(32)) {
+            metrics.scrapeIntoPrometheus(sink);
+            TestUtils.assertContains(sink.toString(), "# TYPE questdb_workers_job_run_micros_total counter");
+            TestUtils.assertContains(sink.toString(), "questdb_workers_job_run_micros_total{job=\"SleepyJob\"}");
+        }
+    }
+
+    private static class SleepyJob implements Job {
+        private final SOCountDownLatch latch;
+
+        private SleepyJob(SOCountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean run(int workerId, @NotNull RunStatus runStatus) {
+            if (workerId == 0 && latch.getCount() > 0) {
+                Os.sleep(10);
+                latch.countDown();
+            }
+            return false;
+        }
+    }
+}
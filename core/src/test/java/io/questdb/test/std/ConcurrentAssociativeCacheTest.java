@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.std;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.CounterImpl;
+import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongGaugeImpl;
+import io.questdb.std.CharSequenceHashSet;
+import io.questdb.std.ConcurrentAssociativeCache;
+import io.questdb.std.Rnd;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentAssociativeCacheTest {
+
+    @Test
+    public void testBasic() {
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(8, 64);
+        cache.put("X", "1");
+        cache.put("Y", "2");
+        cache.put("Z", "3");
+        Assert.assertEquals("1", cache.poll("X"));
+        Assert.assertEquals("2", cache.poll("Y"));
+        Assert.assertEquals("3", cache.poll("Z"));
+        Assert.assertNull(cache.poll("X"));
+        Assert.assertNull(cache.poll("Y"));
+        Assert.assertNull(cache.poll("Z"));
+    }
+
+    @Test
+    public void testConcurrentPollPut() throws Exception {
+        final int threadCount = 8;
+        final int iterations = 10_000;
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(4, 4);
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                final Rnd rnd = new Rnd(seed, seed);
+                try {
+                    barrier.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final String key = "q" + rnd.nextInt(64);
+                        Value value = cache.poll(key);
+                        if (value == null) {
+                            value = new Value(opened, closed);
+                        }
+                        // polled value must be exclusively owned by this thread
+                        if (!value.acquire()) {
+                            errors.incrementAndGet();
+                        }
+                        value.release();
+                        cache.put(key, value);
+                    }
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+
+        for (int t = 0; t < threadCount; t++) {
+            threads[t].join();
+        }
+
+        Assert.assertEquals(0, errors.get());
+        cache.close();
+        Assert.assertEquals(opened.get(), closed.get());
+    }
+
+    @Test
+    public void testFull() {
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(8, 64);
+        CharSequenceHashSet all = new CharSequenceHashSet();
+        CharSequenceHashSet reject = new CharSequenceHashSet();
+        Rnd rnd = new Rnd();
+
+        for (int i = 0; i < 16 * 64; i++) {
+            CharSequence k = rnd.nextString(10);
+            all.add(k);
+            CharSequence o = cache.put(k, rnd.nextString(10));
+            if (o != null) {
+                reject.add(o);
+            }
+        }
+
+        for (int i = 0; i < all.size(); i++) {
+            CharSequence k = all.get(i);
+            if (cache.poll(k) == null) {
+                Assert.assertTrue(reject.contains(k));
+            }
+        }
+        Assert.assertEquals(512, reject.size());
+    }
+
+    @Test
+    public void testGaugeUpdates() {
+        LongGauge gauge = new LongGaugeImpl("foobar");
+        Counter hitCounter = new CounterImpl("hits");
+        Counter missCounter = new CounterImpl("misses");
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(8, 64, gauge, hitCounter, missCounter);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(Integer.toString(i), Integer.toString(i));
+            Assert.assertEquals(i + 1, gauge.getValue());
+        }
+
+        cache.poll("0");
+        Assert.assertEquals(9, gauge.getValue());
+        Assert.assertEquals(1, hitCounter.getValue());
+        Assert.assertEquals(0, missCounter.getValue());
+        // Second poll() on the same key should be ignored.
+        Assert.assertNull(cache.poll("0"));
+        Assert.assertEquals(9, gauge.getValue());
+        Assert.assertEquals(1, hitCounter.getValue());
+        Assert.assertEquals(1, missCounter.getValue());
+        // put() should insert value for key-value pair cleared by poll().
+        cache.put("0", "42");
+        Assert.assertEquals(10, gauge.getValue());
+        // put() of a key that is already present replaces the value.
+        cache.put("0", "43");
+        Assert.assertEquals(10, gauge.getValue());
+        Assert.assertEquals("43", cache.poll("0"));
+
+        cache.clear();
+        Assert.assertEquals(0, gauge.getValue());
+        Assert.assertEquals(2, hitCounter.getValue());
+        Assert.assertEquals(1, missCounter.getValue());
+    }
+
+    @Test
+    public void testMinSize() {
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(1, 1);
+        cache.put("X", "1");
+        cache.put("Y", "2");
+        cache.put("Z", "3");
+        Assert.assertNull(cache.poll("X"));
+        Assert.assertNull(cache.poll("Y"));
+        Assert.assertEquals("3", cache.poll("Z"));
+    }
+
+    @Test
+    public void testReplacedValueIsClosed() {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 1);
+        // two connections compiled the same query concurrently and both return it
+        cache.put("x", new Value(opened, closed));
+        cache.put("x", new Value(opened, closed));
+        Assert.assertEquals(1, closed.get());
+        // evict by pushing out of the row
+        cache.put("y", new Value(opened, closed));
+        cache.put("z", new Value(opened, closed));
+        Assert.assertEquals(2, closed.get());
+        cache.close();
+        Assert.assertEquals(opened.get(), closed.get());
+    }
+
+    @Test
+    public void testStaleVersionIsClosed() {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        LongGauge gauge = new LongGaugeImpl("foobar");
+        Counter hitCounter = new CounterImpl("hits");
+        Counter missCounter = new CounterImpl("misses");
+        ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 1, gauge, hitCounter, missCounter);
+        final ConcurrentAssociativeCache.Validator<Value> acceptV1 = (v, version) -> version == 1;
+
+        Value value = new Value(opened, closed);
+        cache.put("x", value, 1);
+        Assert.assertSame(value, cache.poll("x", acceptV1));
+        cache.put("x", value, 1);
+        // the validator rejects the stamp, the entry must not be handed out
+        Assert.assertNull(cache.poll("x", (v, version) -> version == 2));
+        Assert.assertEquals(1, closed.get());
+        Assert.assertEquals(0, gauge.getValue());
+        Assert.assertEquals(1, hitCounter.getValue());
+        Assert.assertEquals(1, missCounter.getValue());
+        // the key is reused by the value compiled against the new version
+        cache.put("x", new Value(opened, closed), 2);
+        Value fresh = cache.poll("x", (v, version) -> version == 2);
+        Assert.assertNotNull(fresh);
+        Assert.assertEquals(2, hitCounter.getValue());
+        fresh.close();
+        cache.close();
+        Assert.assertEquals(opened.get(), closed.get());
+    }
+
+    private static class Value implements Closeable {
+        private final AtomicInteger closed;
+        private final AtomicInteger owners = new AtomicInteger();
+
+        private Value(AtomicInteger opened, AtomicInteger closed) {
+            this.closed = closed;
+            opened.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+
+        boolean acquire() {
+            return owners.incrementAndGet() == 1;
+        }
+
+        void release() {
+            owners.decrementAndGet();
+        }
+    }
+}